@@ -0,0 +1,593 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.analysistool;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * This class is an index of the minimum, maximum, mean and count of the values
+ * of a group of {@link IDataProvider}s, like all of the rods in an assembly.
+ * The statistics are kept for each feature and time, both for each axial level
+ * (the index of a value in the provider's data for the feature) and for all
+ * levels together, so that they can be looked up in constant time instead of
+ * walking every provider's data.
+ * <p>
+ * An index is normally created with {@link #build(List)}, which reads the
+ * providers in parallel and attaches the index to them so that it is updated
+ * as data is added. Removing data from a provider is not reflected in the
+ * index, so it should be rebuilt when that happens. All of the operations on
+ * this class are thread safe.
+ * </p>
+ *
+ */
+public class FeatureStatistics {
+
+	/**
+	 * The thread pool used to build indices. Its threads are daemons so that it
+	 * never keeps the platform alive.
+	 */
+	private static final ExecutorService executor = Executors
+			.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+					new ThreadFactory() {
+						@Override
+						public Thread newThread(Runnable runnable) {
+							Thread thread = new Thread(runnable,
+									"ICE Feature Statistics");
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+
+	/**
+	 * The statistics for each feature, keyed on the feature name and then the
+	 * time.
+	 */
+	private final Map<String, Map<Double, Step>> features;
+
+	/**
+	 * The sources this index is attached to. See {@link #dispose()}.
+	 */
+	private final List<IStatisticsSource> sources;
+
+	/**
+	 * The default constructor. The index is empty.
+	 */
+	public FeatureStatistics() {
+		features = new HashMap<String, Map<Double, Step>>();
+		sources = new ArrayList<IStatisticsSource>();
+	}
+
+	/**
+	 * This operation builds an index of the data in a group of providers. The
+	 * providers that implement {@link IStatisticsSource} are read in parallel
+	 * at every time, and the index is attached to them so that values added to
+	 * them later are also added to the index. Other providers are not indexed.
+	 * <p>
+	 * The providers should not be modified while the index is being built.
+	 * </p>
+	 *
+	 * @param providers
+	 *            The providers to index. Null providers and providers that
+	 *            appear more than once are only indexed once.
+	 * @return The new index. If the calling thread is interrupted, the index
+	 *         only holds the sources that were read so far.
+	 */
+	public static FeatureStatistics build(
+			List<? extends IDataProvider> providers) {
+
+		// Local Declarations
+		final FeatureStatistics statistics = new FeatureStatistics();
+		final List<IStatisticsSource> sources = new ArrayList<IStatisticsSource>();
+		Set<IStatisticsSource> found = Collections
+				.newSetFromMap(new IdentityHashMap<IStatisticsSource, Boolean>());
+		List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+
+		// Find the sources and attach the index to each of them.
+		if (providers != null) {
+			for (IDataProvider provider : providers) {
+				if (provider instanceof IStatisticsSource
+						&& found.add((IStatisticsSource) provider)) {
+					IStatisticsSource source = (IStatisticsSource) provider;
+					source.addStatistics(statistics);
+					sources.add(source);
+				}
+			}
+		}
+		synchronized (statistics) {
+			statistics.sources.addAll(sources);
+		}
+
+		// Each task reads every n-th source into its own index, which is then
+		// merged into the full index.
+		final int taskCount = Math.min(sources.size(), Runtime.getRuntime()
+				.availableProcessors());
+		for (int i = 0; i < taskCount; i++) {
+			final int firstSource = i;
+			tasks.add(new Callable<Void>() {
+				@Override
+				public Void call() {
+					FeatureStatistics partial = new FeatureStatistics();
+					for (int j = firstSource; j < sources.size(); j += taskCount) {
+						sources.get(j).collectStatistics(partial);
+					}
+					statistics.merge(partial);
+					return null;
+				}
+			});
+		}
+
+		try {
+			for (Future<Void> future : executor.invokeAll(tasks)) {
+				try {
+					future.get();
+				} catch (ExecutionException e) {
+					throw new IllegalStateException(e.getCause());
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		return statistics;
+	}
+
+	/**
+	 * This operation detaches the index from all of the sources it was built
+	 * from. It should be called when the index is no longer used so that the
+	 * sources stop updating it. The statistics are not cleared.
+	 */
+	public void dispose() {
+
+		// Local Declarations
+		List<IStatisticsSource> oldSources;
+
+		synchronized (this) {
+			oldSources = new ArrayList<IStatisticsSource>(sources);
+			sources.clear();
+		}
+		for (IStatisticsSource source : oldSources) {
+			source.removeStatistics(this);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation adds a single value to the index.
+	 *
+	 * @param feature
+	 *            The feature of the value. If null, nothing is added.
+	 * @param time
+	 *            The time of the value.
+	 * @param level
+	 *            The axial level of the value. If negative, nothing is added.
+	 * @param value
+	 *            The value.
+	 */
+	public synchronized void add(String feature, double time, int level,
+			double value) {
+		if (feature != null && level >= 0) {
+			Step step = getOrCreateStep(feature, time);
+			step.getOrCreateLevel(level).add(value);
+			step.total.add(value);
+		}
+		return;
+	}
+
+	/**
+	 * This operation adds a list of data to the index. The data at index
+	 * <i>i</i> of the list is added to axial level <i>firstLevel + i</i>.
+	 *
+	 * @param feature
+	 *            The feature of the data. If null, nothing is added.
+	 * @param time
+	 *            The time of the data.
+	 * @param firstLevel
+	 *            The axial level of the first data in the list.
+	 * @param data
+	 *            The data to add. If null, nothing is added.
+	 */
+	public synchronized void addAll(String feature, double time,
+			int firstLevel, List<IData> data) {
+		if (feature != null && firstLevel >= 0 && data != null
+				&& !data.isEmpty()) {
+			Step step = getOrCreateStep(feature, time);
+			for (int i = 0; i < data.size(); i++) {
+				double value = data.get(i).getValue();
+				step.getOrCreateLevel(firstLevel + i).add(value);
+				step.total.add(value);
+			}
+		}
+		return;
+	}
+
+	/**
+	 * This operation adds an array of values to the index. The value at index
+	 * <i>i</i> of the array is added to axial level <i>firstLevel + i</i>.
+	 *
+	 * @param feature
+	 *            The feature of the values. If null, nothing is added.
+	 * @param time
+	 *            The time of the values.
+	 * @param firstLevel
+	 *            The axial level of the first value in the array.
+	 * @param values
+	 *            The values to add. If null, nothing is added.
+	 * @param count
+	 *            The number of values to add from the start of the array.
+	 */
+	public synchronized void addAll(String feature, double time,
+			int firstLevel, double[] values, int count) {
+		if (feature != null && firstLevel >= 0 && values != null && count > 0) {
+			Step step = getOrCreateStep(feature, time);
+			for (int i = 0; i < count; i++) {
+				step.getOrCreateLevel(firstLevel + i).add(values[i]);
+				step.total.add(values[i]);
+			}
+		}
+		return;
+	}
+
+	/**
+	 * This operation adds all of the statistics in another index to this one.
+	 *
+	 * @param other
+	 *            The other index. If null or this index, nothing is added.
+	 */
+	public void merge(FeatureStatistics other) {
+
+		// Local Declarations
+		Map<String, Map<Double, Step>> otherFeatures;
+
+		if (other == null || other == this) {
+			return;
+		}
+
+		// Copy the other index first so that both indices are never locked at
+		// the same time.
+		synchronized (other) {
+			otherFeatures = copyFeatures(other.features);
+		}
+
+		synchronized (this) {
+			for (Map.Entry<String, Map<Double, Step>> feature : otherFeatures
+					.entrySet()) {
+				for (Map.Entry<Double, Step> time : feature.getValue()
+						.entrySet()) {
+					Step step = getOrCreateStep(feature.getKey(), time.getKey());
+					Step otherStep = time.getValue();
+					for (int i = 0; i < otherStep.levels.size(); i++) {
+						step.getOrCreateLevel(i).add(otherStep.levels.get(i));
+					}
+					step.total.add(otherStep.total);
+				}
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation removes all statistics for a feature at every time.
+	 *
+	 * @param feature
+	 *            The feature to remove.
+	 * @return True if the feature was in the index, false otherwise.
+	 */
+	public synchronized boolean removeFeature(String feature) {
+		return features.remove(feature) != null;
+	}
+
+	/**
+	 * This operation removes all statistics from the index.
+	 */
+	public synchronized void clear() {
+		features.clear();
+	}
+
+	/**
+	 * This operation gets the features in the index at any time.
+	 *
+	 * @return A new list of the feature names.
+	 */
+	public synchronized ArrayList<String> getFeatures() {
+		return new ArrayList<String>(features.keySet());
+	}
+
+	/**
+	 * This operation gets the number of axial levels of a feature at a time,
+	 * which is the length of the longest list of data for the feature among
+	 * the indexed providers.
+	 *
+	 * @param feature
+	 *            The feature.
+	 * @param time
+	 *            The time.
+	 * @return The number of levels, or 0 if the feature has no data at the
+	 *         time.
+	 */
+	public synchronized int getLevelCount(String feature, double time) {
+		Step step = getStep(feature, time);
+		return (step != null ? step.levels.size() : 0);
+	}
+
+	/**
+	 * This operation gets the statistics of a feature at a time over all of
+	 * its axial levels.
+	 *
+	 * @param feature
+	 *            The feature.
+	 * @param time
+	 *            The time.
+	 * @return A copy of the statistics, or null if the feature has no data at
+	 *         the time.
+	 */
+	public synchronized Summary getSummary(String feature, double time) {
+		Step step = getStep(feature, time);
+		return (step != null ? new Summary(step.total) : null);
+	}
+
+	/**
+	 * This operation gets the statistics of a feature at a time for a single
+	 * axial level.
+	 *
+	 * @param feature
+	 *            The feature.
+	 * @param time
+	 *            The time.
+	 * @param level
+	 *            The axial level.
+	 * @return A copy of the statistics, or null if the feature has no data at
+	 *         the time and level.
+	 */
+	public synchronized Summary getSummary(String feature, double time,
+			int level) {
+		Step step = getStep(feature, time);
+		Summary summary = null;
+		if (step != null && level >= 0 && level < step.levels.size()
+				&& step.levels.get(level).count > 0) {
+			summary = new Summary(step.levels.get(level));
+		}
+		return summary;
+	}
+
+	/**
+	 * Gets the statistics of a feature at a time.
+	 *
+	 * @param feature
+	 *            The feature.
+	 * @param time
+	 *            The time.
+	 * @return The statistics, or null if there are none.
+	 */
+	private Step getStep(String feature, double time) {
+		Map<Double, Step> times = features.get(feature);
+		return (times != null ? times.get(time) : null);
+	}
+
+	/**
+	 * Gets the statistics of a feature at a time, creating them if necessary.
+	 *
+	 * @param feature
+	 *            The feature.
+	 * @param time
+	 *            The time.
+	 * @return The statistics.
+	 */
+	private Step getOrCreateStep(String feature, double time) {
+		Map<Double, Step> times = features.get(feature);
+		if (times == null) {
+			times = new HashMap<Double, Step>();
+			features.put(feature, times);
+		}
+		Step step = times.get(time);
+		if (step == null) {
+			step = new Step();
+			times.put(time, step);
+		}
+		return step;
+	}
+
+	/**
+	 * Deep copies the statistics of an index.
+	 *
+	 * @param source
+	 *            The statistics to copy.
+	 * @return The copy.
+	 */
+	private static Map<String, Map<Double, Step>> copyFeatures(
+			Map<String, Map<Double, Step>> source) {
+		Map<String, Map<Double, Step>> copy = new HashMap<String, Map<Double, Step>>();
+		for (Map.Entry<String, Map<Double, Step>> feature : source.entrySet()) {
+			Map<Double, Step> times = new HashMap<Double, Step>();
+			for (Map.Entry<Double, Step> time : feature.getValue().entrySet()) {
+				times.put(time.getKey(), new Step(time.getValue()));
+			}
+			copy.put(feature.getKey(), times);
+		}
+		return copy;
+	}
+
+	/**
+	 * This class holds the minimum, maximum, mean and count of a set of
+	 * values. Instances returned by {@link FeatureStatistics} are copies, so
+	 * they do not change when the index is updated.
+	 */
+	public static class Summary {
+
+		/**
+		 * The number of values.
+		 */
+		private int count;
+		/**
+		 * The smallest value.
+		 */
+		private double min;
+		/**
+		 * The largest value.
+		 */
+		private double max;
+		/**
+		 * The sum of the values.
+		 */
+		private double sum;
+
+		/**
+		 * The default constructor. There are no values.
+		 */
+		private Summary() {
+			count = 0;
+			min = Double.POSITIVE_INFINITY;
+			max = Double.NEGATIVE_INFINITY;
+			sum = 0.0;
+		}
+
+		/**
+		 * A copy constructor.
+		 *
+		 * @param other
+		 *            The summary to copy.
+		 */
+		private Summary(Summary other) {
+			count = other.count;
+			min = other.min;
+			max = other.max;
+			sum = other.sum;
+		}
+
+		/**
+		 * Adds a value.
+		 *
+		 * @param value
+		 *            The value.
+		 */
+		private void add(double value) {
+			count++;
+			min = Math.min(min, value);
+			max = Math.max(max, value);
+			sum += value;
+		}
+
+		/**
+		 * Adds all of the values of another summary.
+		 *
+		 * @param other
+		 *            The other summary.
+		 */
+		private void add(Summary other) {
+			count += other.count;
+			min = Math.min(min, other.min);
+			max = Math.max(max, other.max);
+			sum += other.sum;
+		}
+
+		/**
+		 * Gets the number of values.
+		 *
+		 * @return The count.
+		 */
+		public int getCount() {
+			return count;
+		}
+
+		/**
+		 * Gets the smallest value.
+		 *
+		 * @return The minimum, or positive infinity if there are no values.
+		 */
+		public double getMin() {
+			return min;
+		}
+
+		/**
+		 * Gets the largest value.
+		 *
+		 * @return The maximum, or negative infinity if there are no values.
+		 */
+		public double getMax() {
+			return max;
+		}
+
+		/**
+		 * Gets the mean of the values.
+		 *
+		 * @return The mean, or NaN if there are no values.
+		 */
+		public double getMean() {
+			return (count > 0 ? sum / count : Double.NaN);
+		}
+	}
+
+	/**
+	 * The statistics of a feature at a single time.
+	 */
+	private static class Step {
+
+		/**
+		 * The statistics of each axial level.
+		 */
+		private final ArrayList<Summary> levels;
+		/**
+		 * The statistics of all levels.
+		 */
+		private final Summary total;
+
+		/**
+		 * The default constructor.
+		 */
+		public Step() {
+			levels = new ArrayList<Summary>();
+			total = new Summary();
+		}
+
+		/**
+		 * A deep-copy constructor.
+		 *
+		 * @param other
+		 *            The statistics to copy.
+		 */
+		public Step(Step other) {
+			levels = new ArrayList<Summary>(other.levels.size());
+			for (Summary level : other.levels) {
+				levels.add(new Summary(level));
+			}
+			total = new Summary(other.total);
+		}
+
+		/**
+		 * Gets the statistics of a level, adding empty levels as necessary.
+		 *
+		 * @param level
+		 *            The level.
+		 * @return The statistics of the level.
+		 */
+		public Summary getOrCreateLevel(int level) {
+			while (levels.size() <= level) {
+				levels.add(new Summary());
+			}
+			return levels.get(level);
+		}
+	}
+}
@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.analysistool;
+
+/**
+ * This interface is implemented by {@link IDataProvider}s that can fill a
+ * {@link FeatureStatistics} index with their data at every time and keep it
+ * up to date as data is added.
+ *
+ * @see FeatureStatistics#build(java.util.List)
+ */
+public interface IStatisticsSource {
+
+	/**
+	 * This operation adds all of the data currently held by the source, at
+	 * every time, to the index. The value at index <i>i</i> of a feature's data
+	 * at a time is added as axial level <i>i</i>. The current time of the
+	 * source is not changed.
+	 *
+	 * @param statistics
+	 *            The index to fill. If null, nothing is added.
+	 */
+	public void collectStatistics(FeatureStatistics statistics);
+
+	/**
+	 * This operation attaches an index to the source. Every value added to the
+	 * source after this call is also added to the index.
+	 *
+	 * @param statistics
+	 *            The index to keep up to date. If null or already attached,
+	 *            nothing is changed.
+	 */
+	public void addStatistics(FeatureStatistics statistics);
+
+	/**
+	 * This operation detaches an index from the source.
+	 *
+	 * @param statistics
+	 *            The index that should no longer be updated.
+	 */
+	public void removeStatistics(FeatureStatistics statistics);
+}
@@ -21,7 +21,8 @@ import java.util.TreeSet;
 import org.eclipse.draw2d.LightweightSystem;
 import org.eclipse.draw2d.geometry.Point;
 import org.eclipse.gef.GraphicalViewer;
-import org.eclipse.ice.analysistool.IData;
+import org.eclipse.ice.analysistool.FeatureStatistics;
+import org.eclipse.ice.analysistool.FeatureStatistics.Summary;
 import org.eclipse.ice.analysistool.IDataProvider;
 import org.eclipse.ice.client.common.ActionTree;
 import org.eclipse.ice.client.widgets.reactoreditor.AnalysisView;
@@ -201,6 +202,15 @@ public class AssemblyAnalysisView extends AnalysisView
 	 * A Map of the number of axial levels per feature.
 	 */
 	private final Map<String, Integer> featureMap;
+	/**
+	 * The index of the statistics of each feature across all of the
+	 * assembly's data providers. It is rebuilt when the assembly is set.
+	 */
+	private FeatureStatistics statistics;
+	/**
+	 * The time of the data displayed from the assembly's data providers.
+	 */
+	private double time;
 	/**
 	 * The current feature for which data is displayed in each pin's location.
 	 */
@@ -510,6 +520,7 @@ public class AssemblyAnalysisView extends AnalysisView
 			assemblyLocations.clear();
 			assemblyData.clear();
 			featureMap.clear();
+			time = 0.0;
 			// Reset the maxRadius. This is used to determine how big each
 			// RodFigure should be drawn.
 			maxRadius = 0.0;
@@ -520,7 +531,7 @@ public class AssemblyAnalysisView extends AnalysisView
 					// Try to get a component and data provider at the location.
 					LWRComponent lwrComp = assembly.getLWRRodByLocation(row,
 							column);
-					IDataProvider lwrData = assembly
+					LWRDataProvider lwrData = assembly
 							.getLWRRodDataProviderAtLocation(row, column);
 					if (lwrComp != null) {
 						// Convert the component to a rod.
@@ -546,16 +557,8 @@ public class AssemblyAnalysisView extends AnalysisView
 						assemblyCellStates.set(index, State.UNSELECTED);
 					}
 					if (lwrData != null) {
-						// Get the features available here. For each feature,
-						// get the maximum number of levels supported.
-						for (String feature : lwrData.getFeatureList()) {
-							int newCount = lwrData.getDataAtCurrentTime(feature)
-									.size();
-							if (!featureMap.containsKey(feature)
-									|| newCount > featureMap.get(feature)) {
-								featureMap.put(feature, newCount);
-							}
-						}
+						// The providers are all displayed at the same time.
+						time = lwrData.getCurrentTime();
 					} else {
 						// Create an empty data provider instead of putting a
 						// null value in the list.
@@ -568,6 +571,22 @@ public class AssemblyAnalysisView extends AnalysisView
 			}
 			/* ------------------------------------------------------------- */
 
+			/* ---- Index the statistics of the data. ---- */
+			// Build the index of the statistics for all of the data providers.
+			// It is kept up to date as data is added to the providers.
+			if (statistics != null) {
+				statistics.dispose();
+			}
+			statistics = FeatureStatistics.build(assemblyData);
+
+			// Get the features available in the assembly. For each feature,
+			// get the maximum number of levels supported.
+			for (String feature : statistics.getFeatures()) {
+				featureMap.put(feature,
+						statistics.getLevelCount(feature, time));
+			}
+			/* ------------------------------------------- */
+
 			/* ---- Update the feature Menus. ---- */
 			// Clear out the old features.
 			featureTree.removeAll();
@@ -813,40 +832,28 @@ public class AssemblyAnalysisView extends AnalysisView
 	 */
 	private void updateExtrema() {
 
-		// Set the initial temporary min and max.
-		double min = Double.MAX_VALUE;
-		double max = Double.MIN_VALUE;
-
-		// For local extrema, find the min and max for the current axial level.
-		if (extrema == Extrema.LOCAL) {
-			for (IDataProvider dataProvider : assemblyData) {
-				ArrayList<IData> iDataList = dataProvider
-						.getDataAtCurrentTime(feature);
-				if (axialLevel < iDataList.size()) {
-					double value = iDataList.get(axialLevel).getValue();
-					min = Math.min(min, value);
-					max = Math.max(max, value);
-				}
+		// The min and max are looked up in the statistics index.
+		Summary summary = null;
+
+		if (statistics != null && feature != null) {
+			// For local extrema, get the min and max for the current axial
+			// level.
+			if (extrema == Extrema.LOCAL) {
+				summary = statistics.getSummary(feature, time, axialLevel);
 			}
-		}
-		// For global extrema, find the min and max for ALL axial levels.
-		else if (extrema == Extrema.GLOBAL) {
-			for (IDataProvider dataProvider : assemblyData) {
-				for (IData iData : dataProvider.getDataAtCurrentTime(feature)) {
-					double value = iData.getValue();
-					min = Math.min(min, value);
-					max = Math.max(max, value);
-				}
+			// For global extrema, get the min and max for ALL axial levels.
+			else if (extrema == Extrema.GLOBAL) {
+				summary = statistics.getSummary(feature, time);
 			}
 		}
 		// For piecewise, each component computes its own max and min.
 		// For custom extrema, there's nothing to recompute.
 
-		// If the temporary min (or max) has changed, then we'll also need to
-		// send these updates to the component figures.
-		if (min != Double.MAX_VALUE) {
-			customMinValue = min;
-			customMaxValue = max;
+		// If there is a new min and max, then we'll also need to send these
+		// updates to the component figures.
+		if (summary != null) {
+			customMinValue = summary.getMin();
+			customMaxValue = summary.getMax();
 
 			for (RodFigure figure : figures) {
 				figure.setMinValue(customMinValue);
@@ -1246,6 +1253,19 @@ public class AssemblyAnalysisView extends AnalysisView
 		broker.unregister(dataSource + "-lwr" + AssemblyType.Fuel, this);
 	}
 
+	/**
+	 * Detaches the statistics index from the assembly's data providers before
+	 * disposing of the view.
+	 */
+	@Override
+	public void dispose() {
+		if (statistics != null) {
+			statistics.dispose();
+			statistics = null;
+		}
+		super.dispose();
+	}
+
 	/**
 	 * This is called by the broker when a key of interest has changed.
 	 */
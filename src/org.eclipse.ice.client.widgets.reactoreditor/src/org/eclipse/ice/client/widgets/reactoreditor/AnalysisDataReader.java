@@ -12,18 +12,24 @@
  *******************************************************************************/
 package org.eclipse.ice.client.widgets.reactoreditor;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
-import org.eclipse.ice.reactor.LWRData;
 import org.eclipse.ice.reactor.LWRDataProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,6 +39,13 @@ import org.slf4j.LoggerFactory;
  * ReactorEditor. Ideally, the files read in by this class should be
  * standardized in some way. This class should read the files into a array (an
  * "assembly") of data providers.
+ * <p>
+ * The file is memory mapped and read in two passes. The first pass only finds
+ * the lines where each assembly of each feature starts. The second pass parses
+ * the numbers of each assembly straight from the mapped bytes into primitive
+ * arrays and adds them to columnar data providers. Assemblies do not share any
+ * data providers, so the second pass reads the assemblies in parallel.
+ * </p>
  * 
  * @author Jordan H. Deyton
  * 
@@ -56,6 +69,22 @@ public class AnalysisDataReader {
 
 	// FIXME - We may want to move this to the lwr package.
 
+	/**
+	 * The thread pool used to read the assemblies in parallel. Its threads are
+	 * daemons so that it never keeps the platform alive.
+	 */
+	private static final ExecutorService executor = Executors
+			.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+					new ThreadFactory() {
+						@Override
+						public Thread newThread(Runnable runnable) {
+							Thread thread = new Thread(runnable,
+									"ICE Analysis Data Reader");
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+
 	/**
 	 * A map of features supported by this reader and whether or not they use
 	 * axial levels.
@@ -79,12 +108,6 @@ public class AnalysisDataReader {
 	 */
 	private int axialLevels;
 
-	/**
-	 * This is used to check the lines of input that contain the data. Since it
-	 * is required in a few methods, we make it an instance variable.
-	 */
-	private String dataRowRegex;
-
 	/**
 	 * The default constructor. Standard procedure requires a call to readData()
 	 * to actually read in the data.
@@ -119,79 +142,74 @@ public class AnalysisDataReader {
 		}
 
 		// Read in the data.
+		RandomAccessFile randomAccessFile = null;
 		try {
-			// Create a BufferedReader from the file.
-			BufferedReader reader = new BufferedReader(new InputStreamReader(
-					new FileInputStream(file)));
+			// Map the file into memory.
+			randomAccessFile = new RandomAccessFile(file, "r");
+			FileChannel channel = randomAccessFile.getChannel();
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException("The file is too large to map.");
+			}
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+					channel.size());
+			LineCursor cursor = new LineCursor(buffer, 0, 0);
 
 			// Get the number of assemblies.
-			int assemblies = Integer.parseInt(reader.readLine().split(":")[1]
-					.trim());
+			int assemblies = cursor.readHeader();
 			// Get the number of axial levels.
-			axialLevels = Integer.parseInt(reader.readLine().split(":")[1]
-					.trim());
+			axialLevels = cursor.readHeader();
 			// Get the number of rows in each assembly.
-			assemblyRows = Integer.parseInt(reader.readLine().split(":")[1]
-					.trim());
+			assemblyRows = cursor.readHeader();
 			// Get the number of columns in each assembly.
-			assemblyCols = Integer.parseInt(reader.readLine().split(":")[1]
-					.trim());
-
-			// Set up the regular expressions used to check the lines of data.
-			// dlbRegex is the regular expression for a double with the logic:
-			// 1-or-more digits, maybe followed by a period and
-			// 1-or-more-digits.
-			String dblRegex = "-?\\d+(\\.\\d+)?";
-			// dataRowRegex makes sure that the number of doubles on a line is
-			// exactly the same as the number of columns in an assembly. The
-			// logic here is:
-			// Start of line (^), 0-or-more whitespace (\\s*), a double followed
-			// by 1-or-more whitespace (dblRegex + \\s+) exactly assemblyCols-1
-			// times ({assemblyCols - 1}), a double (dblRegex), 0-or-more
-			// whitespace (\\s*), end of line ($).
-			dataRowRegex = "^\\s*(" + dblRegex + "\\s+){" + (assemblyCols - 1)
-					+ "}" + dblRegex + "\\s*$";
-
-			// Initialize the array of fuel assemblies.
-			fuelAssemblies = new ArrayList<List<LWRDataProvider>>(assemblies);
+			assemblyCols = cursor.readHeader();
 
-			// Each fuel assembly is an array of rod data providers.
-			List<LWRDataProvider> fuelAssembly;
-
-			// Build the array of fuel assemblies.
+			// Initialize the array of fuel assemblies. Each fuel assembly is
+			// an array of rod data providers. They store their data in
+			// columns because every rod has a value at every axial level.
+			fuelAssemblies = new ArrayList<List<LWRDataProvider>>(assemblies);
+			List<List<Section>> sections = new ArrayList<List<Section>>(
+					assemblies);
 			for (int i = 0; i < assemblies; i++) {
-				fuelAssembly = new ArrayList<LWRDataProvider>();
+				List<LWRDataProvider> fuelAssembly = new ArrayList<LWRDataProvider>(
+						assemblyRows * assemblyCols);
 				for (int j = 0; j < assemblyRows * assemblyCols; j++) {
-					fuelAssembly.add(new LWRDataProvider());
+					fuelAssembly.add(new LWRDataProvider(true));
 				}
 				fuelAssemblies.add(fuelAssembly);
+				sections.add(new ArrayList<Section>());
 			}
 
-			// Read in the data file one feature at a time.
-			String feature;
-			while ((feature = nextLine(reader)) != null) {
+			// Find the sections of the file one feature at a time.
+			while (cursor.nextLine()) {
+				String feature = cursor.getLine();
 				if (supportedFeatures.containsKey(feature)) {
-					readFeature(reader, feature, supportedFeatures.get(feature));
+					findSections(cursor, feature,
+							supportedFeatures.get(feature), sections);
 				}
 				// If the line does not match any feature, this should just read
 				// the next line until a feature is read.
 			}
 
-			// Close the reader.
-			reader.close();
+			// Read the assemblies in parallel.
+			readAssemblies(buffer, sections);
+
 		} catch (IOException e) {
-			// Handle IOExceptions.
+			// Handle IOExceptions. These are also thrown for malformed lines.
 			System.err.println("IOException while reading " + fileName
-					+ ". Cannot read data.");
-			logger.error(getClass().getName() + " Exception!",e);
-		} catch (NumberFormatException e) {
-			// Handle NumberFormatExceptions. These are thrown when dataRowRegex
-			// is not matched.
-			System.err.println("NumberFormatException while reading " + fileName
-					+ ". Invalid number.");
+					+ ". Cannot read data. " + e.getMessage());
 			logger.error(getClass().getName() + " Exception!",e);
+		} finally {
+			// Close the file.
+			if (randomAccessFile != null) {
+				try {
+					randomAccessFile.close();
+				} catch (IOException e) {
+					logger.error(getClass().getName() + " Exception!", e);
+				}
+			}
 		}
-		;
+
+		return;
 	}
 
 	/**
@@ -254,114 +272,639 @@ public class AnalysisDataReader {
 	}
 
 	/**
-	 * This function gets the next non-empty line from a BufferedReader. Empty
-	 * lines may include whitespace.
+	 * Finds where each assembly of a feature starts in the file. The lines of
+	 * each assembly are counted but not parsed.
 	 * 
-	 * @param reader
-	 *            The BufferedReader from which to read.
-	 * @return The next non-empty line or null (if reader.readLine() == null).
-	 * @throws IOException
-	 *             IOExceptions from reading need to be handled by the caller.
+	 * @param cursor
+	 *            The cursor, which must be on the line with the name of the
+	 *            feature. It is left on the last line of the feature.
+	 * @param feature
+	 *            The feature to read in.
+	 * @param useAxialLevels
+	 *            Whether or not to look for axial levels in the data.
+	 * @param sections
+	 *            The sections of each assembly, to which the sections of this
+	 *            feature are added.
 	 */
-	private String nextLine(BufferedReader reader) throws IOException {
-		String line = null;
-		while ((line = reader.readLine()) != null) {
-			// If the line is not empty, break from the loop.
-			if (!(line.trim().isEmpty())) {
-				break;
+	private void findSections(LineCursor cursor, String feature,
+			boolean useAxialLevels, List<List<Section>> sections) {
+
+		// See if we need to iterate over axial levels.
+		int iterations = 1;
+		int linesPerIteration = assemblyRows;
+		if (useAxialLevels) {
+			iterations = axialLevels;
+			linesPerIteration++;
+		}
+
+		// Each assembly starts on the next line and has a header line
+		// followed by the rows of each axial level.
+		for (int assembly = 0; assembly < sections.size(); assembly++) {
+			sections.get(assembly).add(
+					new Section(feature, useAxialLevels, cursor.getPosition(),
+							cursor.getLineNumber()));
+			for (int i = 0; i < 1 + iterations * linesPerIteration; i++) {
+				cursor.nextLine();
 			}
 		}
-		return line;
+
+		return;
 	}
 
 	/**
-	 * Gets the next non-empty line of text from the reader if it matches it
-	 * with a regular expression.
+	 * Reads the sections of each assembly on the thread pool. If any of the
+	 * sections are malformed, the error with the lowest line number is thrown
+	 * after all of the assemblies have been read.
 	 * 
-	 * @param reader
-	 *            The BufferedReader from which to read.
-	 * @param expected
-	 *            The regular expression to match against.
-	 * @return Returns the next line from the reader if it matches with the
-	 *         regular expression.
+	 * @param buffer
+	 *            The contents of the file.
+	 * @param sections
+	 *            The sections of each assembly.
 	 * @throws IOException
-	 *             Throws an IOException either from reading or if the pattern
-	 *             is not matched.
+	 *             The caller needs to handle reading IO exceptions.
 	 */
-	private String nextLine(BufferedReader reader, String expected)
-			throws IOException {
-		String line = null;
-		while ((line = reader.readLine()) != null) {
-			// If the line is not empty, break from the loop.
-			if (!(line.trim().isEmpty())) {
-				break;
+	private void readAssemblies(final ByteBuffer buffer,
+			List<List<Section>> sections) throws IOException {
+
+		// Local Declarations
+		List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+		MalformedLineException firstError = null;
+
+		// Create a task for each assembly.
+		for (int i = 0; i < sections.size(); i++) {
+			final int assembly = i;
+			final List<Section> assemblySections = sections.get(i);
+			tasks.add(new Callable<Void>() {
+				@Override
+				public Void call() throws IOException {
+					for (Section section : assemblySections) {
+						readSection(buffer, assembly, section);
+					}
+					return null;
+				}
+			});
+		}
+
+		// Run them and find the first error.
+		try {
+			for (Future<Void> future : executor.invokeAll(tasks)) {
+				try {
+					future.get();
+				} catch (ExecutionException e) {
+					if (!(e.getCause() instanceof MalformedLineException)) {
+						throw new IOException(e.getCause());
+					}
+					MalformedLineException error = (MalformedLineException) e
+							.getCause();
+					if (firstError == null
+							|| error.getLineNumber() < firstError
+									.getLineNumber()) {
+						firstError = error;
+					}
+				}
 			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException(e);
 		}
-		// Compare the line against the regular expression.
-		if (!line.matches(expected)) {
-			System.err.println("Expected string of form \"" + expected
-					+ "\" but got \"" + line + "\"");
-			throw new IOException();
+
+		// Report the first malformed line.
+		if (firstError != null) {
+			throw firstError;
 		}
-		return line;
+
+		return;
 	}
 
 	/**
-	 * Reads in a feature from the text file. This means grabbing data for each
-	 * rod in each assembly at all possible axial levels.
+	 * Reads in one assembly of a feature from the text file. This means
+	 * grabbing data for each rod in the assembly at all possible axial levels.
 	 * 
-	 * @param reader
-	 *            The BufferedReader used to read the file.
-	 * @param feature
-	 *            The feature to read in.
-	 * @param useAxialLevels
-	 *            Whether or not to look for axial levels in the data.
+	 * @param buffer
+	 *            The contents of the file.
+	 * @param assembly
+	 *            The index of the assembly.
+	 * @param section
+	 *            The section of the file that holds the assembly.
 	 * @throws IOException
-	 *             The caller needs to handle reading IO exceptions.
-	 * @throws NumberFormatException
-	 *             The caller needs to handle invalid doubles.
+	 *             A MalformedLineException is thrown if a line of the section
+	 *             is not what was expected.
+	 */
+	private void readSection(ByteBuffer buffer, int assembly, Section section)
+			throws IOException {
+
+		// Local Declarations
+		LineCursor cursor = new LineCursor(buffer, section.position,
+				section.lineNumber);
+		int rods = assemblyRows * assemblyCols;
+
+		// See if we need to iterate over axial levels.
+		int iterations = 1;
+		if (section.useAxialLevels) {
+			iterations = axialLevels;
+		}
+
+		// The values are stored rod by rod so that the axial levels of each
+		// rod are next to each other.
+		double[] values = new double[rods * iterations];
+
+		// Expected "Assembly #"
+		cursor.nextLine("Assembly", assembly);
+
+		// Loop over the axial levels (if applicable).
+		for (int i = 0; i < iterations; i++) {
+			// Expected "Axial Level #" (if axial levels are used with this
+			// feature).
+			if (section.useAxialLevels) {
+				cursor.nextLine("Axial Level", i);
+			}
+			// Loop over the rows of the assembly data. Each line at this
+			// point should be a line of exactly assemblyCols numbers.
+			for (int row = 0; row < assemblyRows; row++) {
+				cursor.nextLine(null, -1);
+				cursor.readNumbers(values, row * assemblyCols * iterations + i,
+						iterations, assemblyCols);
+			}
+		}
+
+		// Store the values of each rod in its data provider.
+		List<LWRDataProvider> fuelAssembly = fuelAssemblies.get(assembly);
+		double[] rodValues = new double[iterations];
+		for (int rod = 0; rod < rods; rod++) {
+			System.arraycopy(values, rod * iterations, rodValues, 0,
+					iterations);
+			fuelAssembly.get(rod).addData(section.feature, 0, rodValues, null,
+					null, null);
+		}
+
+		return;
+	}
+
+	/**
+	 * The part of the file that holds one assembly of a feature.
+	 */
+	private static class Section {
+
+		/**
+		 * The feature.
+		 */
+		private final String feature;
+		/**
+		 * Whether or not the feature uses axial levels.
+		 */
+		private final boolean useAxialLevels;
+		/**
+		 * The position in the file of the line after the feature name or the
+		 * last line of the previous assembly.
+		 */
+		private final int position;
+		/**
+		 * The number of the line before that position.
+		 */
+		private final int lineNumber;
+
+		/**
+		 * The constructor.
+		 * 
+		 * @param feature
+		 *            The feature.
+		 * @param useAxialLevels
+		 *            Whether or not the feature uses axial levels.
+		 * @param position
+		 *            The position in the file where the assembly starts.
+		 * @param lineNumber
+		 *            The number of the line before that position.
+		 */
+		public Section(String feature, boolean useAxialLevels, int position,
+				int lineNumber) {
+			this.feature = feature;
+			this.useAxialLevels = useAxialLevels;
+			this.position = position;
+			this.lineNumber = lineNumber;
+		}
+	}
+
+	/**
+	 * This exception is thrown when a line of the file is not what was
+	 * expected. It records the number of the line.
 	 */
-	private void readFeature(BufferedReader reader, String feature,
-			boolean useAxialLevels) throws IOException, NumberFormatException {
+	private static class MalformedLineException extends IOException {
+
+		/**
+		 * The serial version ID.
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The number of the malformed line, starting at 1.
+		 */
+		private final int lineNumber;
+
+		/**
+		 * The constructor.
+		 * 
+		 * @param lineNumber
+		 *            The number of the malformed line, starting at 1.
+		 * @param message
+		 *            What was expected on the line.
+		 */
+		public MalformedLineException(int lineNumber, String message) {
+			super("Line " + lineNumber + ": " + message);
+			this.lineNumber = lineNumber;
+		}
+
+		/**
+		 * Gets the number of the malformed line.
+		 * 
+		 * @return The number of the malformed line, starting at 1.
+		 */
+		public int getLineNumber() {
+			return lineNumber;
+		}
+	}
+
+	/**
+	 * This class walks over the non-empty lines of a file that has been read
+	 * or mapped into a buffer. It only uses absolute reads, so any number of
+	 * cursors can share the same buffer across threads. Numbers are parsed
+	 * from the bytes of the buffer without creating any Strings.
+	 */
+	private static class LineCursor {
+
+		/**
+		 * Powers of ten that are exactly represented by a double.
+		 */
+		private static final double[] powersOfTen = { 1e0, 1e1, 1e2, 1e3,
+				1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14,
+				1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+		/**
+		 * The largest mantissa that is exactly represented by a double.
+		 */
+		private static final long maxExactMantissa = 1L << 53;
+
+		/**
+		 * The contents of the file.
+		 */
+		private final ByteBuffer buffer;
+		/**
+		 * The size of the file.
+		 */
+		private final int limit;
+		/**
+		 * The position of the start of the next line.
+		 */
+		private int position;
+		/**
+		 * The number of the current line, starting at 1.
+		 */
+		private int lineNumber;
+		/**
+		 * The start of the current line without leading whitespace.
+		 */
+		private int start;
+		/**
+		 * The end of the current line without trailing whitespace.
+		 */
+		private int end;
+
+		/**
+		 * The constructor.
+		 * 
+		 * @param buffer
+		 *            The contents of the file.
+		 * @param position
+		 *            The position of the start of the next line.
+		 * @param lineNumber
+		 *            The number of the line before that position, or 0 at the
+		 *            start of the file.
+		 */
+		public LineCursor(ByteBuffer buffer, int position, int lineNumber) {
+			this.buffer = buffer;
+			this.limit = buffer.limit();
+			this.position = position;
+			this.lineNumber = lineNumber;
+		}
+
+		/**
+		 * Moves to the next non-empty line. Empty lines may include
+		 * whitespace.
+		 * 
+		 * @return True if a line was found, false at the end of the file.
+		 */
+		public boolean nextLine() {
+			while (position < limit) {
+				// Find the end of the line.
+				start = position;
+				end = start;
+				while (end < limit && buffer.get(end) != '\n') {
+					end++;
+				}
+				position = Math.min(end + 1, limit);
+				lineNumber++;
+
+				// Trim the line. If it is not empty, stop.
+				while (start < end && isWhitespace(buffer.get(start))) {
+					start++;
+				}
+				while (end > start && isWhitespace(buffer.get(end - 1))) {
+					end--;
+				}
+				if (start < end) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Moves to the next non-empty line and checks that it is a label
+		 * followed by a single whitespace character and an index, like
+		 * "Assembly 3".
+		 * 
+		 * @param label
+		 *            The expected label, or null to only check that there is
+		 *            a line.
+		 * @param index
+		 *            The expected index.
+		 * @throws MalformedLineException
+		 *             If there is no line or it does not match.
+		 */
+		public void nextLine(String label, int index)
+				throws MalformedLineException {
+
+			// Make sure there is a line.
+			if (!nextLine()) {
+				throw new MalformedLineException(lineNumber + 1,
+						"Unexpected end of file.");
+			}
+
+			// Compare the line with the label and index.
+			if (label != null) {
+				boolean matches = end - start > label.length() + 1
+						&& isWhitespace(buffer.get(start + label.length()));
+				for (int i = 0; matches && i < label.length(); i++) {
+					matches = buffer.get(start + i) == label.charAt(i);
+				}
+				int value = 0;
+				for (int i = start + label.length() + 1; matches && i < end; i++) {
+					byte character = buffer.get(i);
+					matches = isDigit(character) && value < 100000000;
+					value = 10 * value + (character - '0');
+				}
+				if (!matches || value != index) {
+					throw new MalformedLineException(lineNumber, "Expected \""
+							+ label + " " + index + "\" but got \""
+							+ getLine() + "\"");
+				}
+			}
+
+			return;
+		}
+
+		/**
+		 * Gets the current line without leading or trailing whitespace. This
+		 * is meant for headers, not data.
+		 * 
+		 * @return The current line.
+		 */
+		public String getLine() {
+			byte[] bytes = new byte[end - start];
+			for (int i = 0; i < bytes.length; i++) {
+				bytes[i] = buffer.get(start + i);
+			}
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+
+		/**
+		 * Gets the position of the start of the next line.
+		 * 
+		 * @return The position in the buffer.
+		 */
+		public int getPosition() {
+			return position;
+		}
+
+		/**
+		 * Gets the number of the current line.
+		 * 
+		 * @return The line number, starting at 1.
+		 */
+		public int getLineNumber() {
+			return lineNumber;
+		}
+
+		/**
+		 * Moves to the next non-empty line and reads it as a header of the
+		 * form "name: integer".
+		 * 
+		 * @return The integer after the colon.
+		 * @throws MalformedLineException
+		 *             If there is no line or it does not match.
+		 */
+		public int readHeader() throws MalformedLineException {
+
+			// Find the colon.
+			nextLine(null, -1);
+			int colon = start;
+			while (colon < end && buffer.get(colon) != ':') {
+				colon++;
+			}
+
+			// Read the integer after it.
+			double value = Double.NaN;
+			if (colon < end) {
+				int first = colon + 1;
+				while (first < end && isWhitespace(buffer.get(first))) {
+					first++;
+				}
+				value = parseNumber(first);
+			}
+			if (Double.isNaN(value) || value != (int) value || value < 0) {
+				throw new MalformedLineException(lineNumber,
+						"Expected \"name: integer\" but got \"" + getLine()
+								+ "\"");
+			}
 
-		// Try to read in the feature data for each fuel assembly.
-		for (int assembly = 0; assembly < fuelAssemblies.size(); assembly++) {
-			// Expected "Assembly #"
-			String line = nextLine(reader, "^Assembly\\s" + assembly + "\\s*$");
+			return (int) value;
+		}
 
-			// Get the current fuel assembly.
-			List<LWRDataProvider> fuelAssembly = fuelAssemblies.get(assembly);
+		/**
+		 * Reads the numbers on the current line into an array.
+		 * 
+		 * @param values
+		 *            The array.
+		 * @param offset
+		 *            The index in the array of the first number.
+		 * @param stride
+		 *            The distance in the array between the numbers.
+		 * @param count
+		 *            The number of numbers that must be on the line.
+		 * @throws MalformedLineException
+		 *             If the line does not have exactly count numbers.
+		 */
+		public void readNumbers(double[] values, int offset, int stride,
+				int count) throws MalformedLineException {
+
+			// Local Declarations
+			int next = start;
+			int found = 0;
+
+			// Read the numbers that are separated by whitespace.
+			while (next < end) {
+				if (found == count) {
+					throw new MalformedLineException(lineNumber, "Expected "
+							+ count + " numbers but found more.");
+				}
+				double value = parseNumber(next);
+				if (Double.isNaN(value)) {
+					throw new MalformedLineException(lineNumber,
+							"Invalid number at column " + (next - start + 1)
+									+ ".");
+				}
+				values[offset + found * stride] = value;
+				found++;
 
-			// See if we need to iterate over axial levels.
-			int iterations = 1;
-			if (useAxialLevels) {
-				iterations = axialLevels;
+				// Skip to the next number.
+				while (next < end && !isWhitespace(buffer.get(next))) {
+					next++;
+				}
+				while (next < end && isWhitespace(buffer.get(next))) {
+					next++;
+				}
 			}
+			if (found != count) {
+				throw new MalformedLineException(lineNumber, "Expected "
+						+ count + " numbers but found " + found + ".");
+			}
+
+			return;
+		}
 
-			// Loop over the axial levels (if applicable).
-			for (int i = 0; i < iterations; i++) {
-				// Expected "Axial Level #" (if axial levels are used with this
-				// feature).
-				if (useAxialLevels) {
-					line = nextLine(reader, "^Axial Level\\s" + i + "\\s*$");
+		/**
+		 * Parses a number of the form [+-]digits[.digits][(e|E)[+-]digits]
+		 * that starts at a position on the current line and ends at
+		 * whitespace or the end of the line. If the digits and the power of
+		 * ten are both exact doubles, the number is computed directly from
+		 * them. Any others are passed to Double.parseDouble().
+		 * 
+		 * @param first
+		 *            The position of the first character of the number.
+		 * @return The number, or NaN if it is not a valid number.
+		 */
+		private double parseNumber(int first) {
+
+			// Local Declarations
+			int next = first;
+			boolean negative = false;
+			long mantissa = 0;
+			int exponent = 0;
+			int digits = 0;
+			boolean hasDigits = false;
+
+			// Read the sign.
+			if (next < end
+					&& (buffer.get(next) == '-' || buffer.get(next) == '+')) {
+				negative = buffer.get(next) == '-';
+				next++;
+			}
+			// Read the integer digits. Digits that do not fit in the mantissa
+			// only change the exponent.
+			while (next < end && isDigit(buffer.get(next))) {
+				if (digits < 18) {
+					mantissa = 10 * mantissa + (buffer.get(next) - '0');
+					digits += (mantissa != 0) ? 1 : 0;
+				} else {
+					exponent++;
 				}
-				// Loop over the rows of the assembly data. Each line at this
-				// point should be lines of doubles matching the dataRowRegex.
-				for (int row = 0; row < assemblyRows; row++) {
-					line = nextLine(reader, dataRowRegex);
-					// Expected assemblyCols numbers.
-					String[] splitLine = line.trim().split("\\s+");
-
-					// Loop over each value in the row.
-					for (int col = 0; col < assemblyCols; col++) {
-						// Store the feature/value pair in the data provider.
-						LWRData data = new LWRData(feature);
-						data.setValue(Double.parseDouble(splitLine[col]));
-						fuelAssembly.get(row * assemblyCols + col).addData(
-								data, 0);
+				hasDigits = true;
+				next++;
+			}
+			// Read the fractional digits.
+			if (next < end && buffer.get(next) == '.') {
+				next++;
+				while (next < end && isDigit(buffer.get(next))) {
+					if (digits < 18) {
+						mantissa = 10 * mantissa + (buffer.get(next) - '0');
+						digits += (mantissa != 0) ? 1 : 0;
+						exponent--;
 					}
+					hasDigits = true;
+					next++;
+				}
+			}
+			if (!hasDigits) {
+				return Double.NaN;
+			}
+			// Read the exponent.
+			if (next < end
+					&& (buffer.get(next) == 'e' || buffer.get(next) == 'E')) {
+				next++;
+				boolean negativeExponent = false;
+				if (next < end
+						&& (buffer.get(next) == '-' || buffer.get(next) == '+')) {
+					negativeExponent = buffer.get(next) == '-';
+					next++;
+				}
+				int exponentValue = 0;
+				boolean hasExponentDigits = false;
+				while (next < end && isDigit(buffer.get(next))) {
+					exponentValue = Math.min(10 * exponentValue
+							+ (buffer.get(next) - '0'), 100000);
+					hasExponentDigits = true;
+					next++;
+				}
+				if (!hasExponentDigits) {
+					return Double.NaN;
+				}
+				exponent += negativeExponent ? -exponentValue : exponentValue;
+			}
+			// The number must end at whitespace or the end of the line.
+			if (next < end && !isWhitespace(buffer.get(next))) {
+				return Double.NaN;
+			}
+
+			// Both the mantissa and the power of ten are exact, so a single
+			// multiplication or division is correctly rounded. Otherwise,
+			// leave it to the JDK.
+			double value;
+			if (mantissa < maxExactMantissa && exponent >= -22
+					&& exponent <= 22) {
+				value = (exponent < 0) ? mantissa / powersOfTen[-exponent]
+						: mantissa * powersOfTen[exponent];
+			} else {
+				byte[] bytes = new byte[next - first];
+				for (int i = 0; i < bytes.length; i++) {
+					bytes[i] = buffer.get(first + i);
 				}
+				return Double.parseDouble(new String(bytes,
+						StandardCharsets.US_ASCII));
 			}
+
+			return negative ? -value : value;
+		}
+
+		/**
+		 * Checks whether a character is whitespace within a line.
+		 * 
+		 * @param character
+		 *            The character.
+		 * @return True if it is a space, tab or carriage return.
+		 */
+		private static boolean isWhitespace(byte character) {
+			return character == ' ' || character == '\t' || character == '\r'
+					|| character == '\f';
+		}
+
+		/**
+		 * Checks whether a character is a decimal digit.
+		 * 
+		 * @param character
+		 *            The character.
+		 * @return True if it is a digit.
+		 */
+		private static boolean isDigit(byte character) {
+			return character >= '0' && character <= '9';
 		}
 	}
 
@@ -15,19 +15,30 @@ package org.eclipse.ice.client.internal;
 import java.io.File;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
 
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response.Status;
 
+import org.eclipse.ice.core.iCore.FormContextResolver;
 import org.eclipse.ice.core.iCore.ICore;
 import org.eclipse.ice.datastructures.ICEObject.ICEList;
 import org.eclipse.ice.datastructures.ICEObject.Identifiable;
 import org.eclipse.ice.datastructures.form.Form;
+import org.eclipse.ice.datastructures.form.FormDelta;
 import org.eclipse.ice.datastructures.form.FormStatus;
 import org.eclipse.ice.item.ICompositeItemBuilder;
 import org.eclipse.ice.item.ItemBuilder;
 
 import com.sun.jersey.api.client.Client;
+import com.sun.jersey.api.client.ClientResponse;
 import com.sun.jersey.api.client.WebResource;
+import com.sun.jersey.api.client.config.ClientConfig;
+import com.sun.jersey.api.client.config.DefaultClientConfig;
+import com.sun.jersey.api.client.filter.GZIPContentEncodingFilter;
 import com.sun.jersey.api.client.filter.HTTPBasicAuthFilter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -55,6 +66,13 @@ import org.slf4j.LoggerFactory;
  * The exact mechanism by which the HTTPS connection is made and utilized is not
  * modeled here. It is sufficient to say that ICE 2.0 uses the Jersey Client.
  * </p>
+ * <p>
+ * Item Forms are synchronized with the server's items/{id}/form resource. The
+ * proxy keeps the last version of each Form that it received or sent, so
+ * getItem() only downloads the changes since that version, or nothing if the
+ * Form did not change, and updateItem() only uploads the changes made to it.
+ * Requests and responses are compressed with gzip.
+ * </p>
  * 
  * @author Jay Jay Billings
  */
@@ -111,6 +129,17 @@ public class RemoteCoreProxy implements ICore {
 
 	/** ----- **/
 
+	/**
+	 * The last version of each Item's Form that was synchronized with the
+	 * server, keyed on the Item id. These Forms are never handed out.
+	 */
+	private final Map<Integer, Form> syncedForms = new HashMap<Integer, Form>();
+
+	/**
+	 * The versions of the synchronized Forms, keyed on the Item id.
+	 */
+	private final Map<Integer, String> syncedVersions = new HashMap<Integer, String>();
+
 	/**
 	 * <p>
 	 * The Constructor.
@@ -119,8 +148,13 @@ public class RemoteCoreProxy implements ICore {
 	 */
 	public RemoteCoreProxy() {
 
-		// Create the client
-		client = new Client();
+		// Create the client with the JAXB context for Forms
+		ClientConfig config = new DefaultClientConfig();
+		config.getSingletons().add(new FormContextResolver());
+		client = Client.create(config);
+
+		// Compress the requests and accept compressed responses
+		client.addFilter(new GZIPContentEncodingFilter(true));
 
 	}
 
@@ -356,24 +390,141 @@ public class RemoteCoreProxy implements ICore {
 	 * @see ICore#getItem(int itemId)
 	 */
 	@Override
-	public Form getItem(int itemId) {
+	public synchronized Form getItem(int itemId) {
 
 		// Local Declarations
 		Form itemForm = null;
 		WebResource resource = null;
-		String id = String.valueOf(itemId);
+		ClientResponse response = null;
+		String version = syncedVersions.get(itemId);
 
 		// Only load the resource if the hostname is valid
 		if (host != null) {
-			resource = baseResource.path("/items/" + id);
+			resource = getFormResource(itemId);
+
+			// Get the changes since the last version if there is one
+			if (version != null) {
+				response = resource.path("delta").queryParam("since", version)
+						.accept(MediaType.APPLICATION_XML)
+						.header("X-FOO", "BAR").get(ClientResponse.class);
+				itemForm = readDelta(itemId, response);
+			}
+
+			// Otherwise get the whole Form
+			if (itemForm == null) {
+				WebResource.Builder builder = resource.accept(
+						MediaType.APPLICATION_XML).header("X-FOO", "BAR");
+				if (version != null) {
+					builder.header(HttpHeaders.IF_NONE_MATCH, new EntityTag(
+							version));
+				}
+				response = builder.get(ClientResponse.class);
+				itemForm = readForm(itemId, response);
+			}
+		}
+
+		// Hand out a copy so that changes can be sent as a delta
+		return (itemForm != null ? (Form) itemForm.clone() : null);
+	}
 
-			// Get the available ItemTypes
-			itemForm = resource.accept(MediaType.APPLICATION_XML)
-					.header("X-FOO", "BAR").get(Form.class);
+	/**
+	 * This operation returns the web resource of an Item's Form.
+	 *
+	 * @param itemId
+	 *            The id of the Item.
+	 * @return The resource.
+	 */
+	private WebResource getFormResource(int itemId) {
+		return baseResource.path("/items/" + itemId + "/form");
+	}
 
+	/**
+	 * This operation reads the response to a request for the changes to an
+	 * Item's Form and applies them to the synchronized Form.
+	 *
+	 * @param itemId
+	 *            The id of the Item.
+	 * @param response
+	 *            The response.
+	 * @return The synchronized Form, or null if the whole Form must be
+	 *         requested.
+	 */
+	private Form readDelta(int itemId, ClientResponse response) {
+
+		// Local Declarations
+		Form form = syncedForms.get(itemId);
+		Form updatedForm = null;
+		FormDelta delta;
+
+		if (response.getStatus() == Status.NOT_MODIFIED.getStatusCode()) {
+			// The synchronized Form is current
+			response.close();
+			updatedForm = form;
+		} else if (response.getStatus() == Status.OK.getStatusCode()) {
+			// Apply the changes to a copy in case they cannot be applied
+			delta = response.getEntity(FormDelta.class);
+			updatedForm = (Form) form.clone();
+			if (delta.apply(updatedForm)) {
+				setSyncedForm(itemId, updatedForm, delta.getVersion());
+			} else {
+				updatedForm = null;
+			}
+		} else {
+			response.close();
+		}
+
+		return updatedForm;
+	}
+
+	/**
+	 * This operation reads the response to a request for an Item's whole Form
+	 * and stores it as the synchronized Form.
+	 *
+	 * @param itemId
+	 *            The id of the Item.
+	 * @param response
+	 *            The response.
+	 * @return The synchronized Form, or null if there is no Form.
+	 */
+	private Form readForm(int itemId, ClientResponse response) {
+
+		// Local Declarations
+		Form form = null;
+		EntityTag tag = response.getEntityTag();
+
+		if (response.getStatus() == Status.NOT_MODIFIED.getStatusCode()) {
+			response.close();
+			form = syncedForms.get(itemId);
+		} else if (response.getStatus() == Status.OK.getStatusCode()) {
+			form = response.getEntity(Form.class);
+			setSyncedForm(itemId, form, (tag != null ? tag.getValue() : null));
+		} else {
+			response.close();
+			setSyncedForm(itemId, null, null);
 		}
 
-		return itemForm;
+		return form;
+	}
+
+	/**
+	 * This operation sets the last version of an Item's Form that was
+	 * synchronized with the server. It is forgotten if the version is null.
+	 *
+	 * @param itemId
+	 *            The id of the Item.
+	 * @param form
+	 *            The Form, which must not be handed out.
+	 * @param version
+	 *            The version.
+	 */
+	private void setSyncedForm(int itemId, Form form, String version) {
+		if (form != null && version != null) {
+			syncedForms.put(itemId, form);
+			syncedVersions.put(itemId, version);
+		} else {
+			syncedForms.remove(itemId);
+			syncedVersions.remove(itemId);
+		}
 	}
 
 	/**
@@ -407,9 +558,63 @@ public class RemoteCoreProxy implements ICore {
 	 * @see ICore#updateItem(Form form, int uniqueClientId)
 	 */
 	@Override
-	public FormStatus updateItem(Form form, int uniqueClientId) {
-		// TODO Auto-generated method stub
-		return null;
+	public synchronized FormStatus updateItem(Form form, int uniqueClientId) {
+
+		// Local Declarations
+		WebResource resource = null;
+		ClientResponse response = null;
+		Form syncedForm = null;
+		String version = null;
+		FormDelta delta = null;
+
+		// Only load the resource if the hostname and Form are valid
+		if (host == null || form == null) {
+			return FormStatus.InfoError;
+		}
+		resource = getFormResource(form.getItemID());
+		syncedForm = syncedForms.get(form.getItemID());
+		version = syncedVersions.get(form.getItemID());
+
+		// Send the changes from the synchronized version if possible. Otherwise
+		// send the whole Form, but only if the server still has the
+		// synchronized version so that concurrent changes are not overwritten.
+		if (syncedForm != null) {
+			delta = FormDelta.create(syncedForm, form);
+		}
+		if (delta != null) {
+			delta.setBaseVersion(version);
+			response = resource.path("delta")
+					.queryParam("client", String.valueOf(uniqueClientId))
+					.type(MediaType.APPLICATION_XML)
+					.accept(MediaType.TEXT_PLAIN).header("X-FOO", "BAR")
+					.post(ClientResponse.class, delta);
+		} else {
+			WebResource.Builder builder = resource
+					.queryParam("client", String.valueOf(uniqueClientId))
+					.type(MediaType.APPLICATION_XML)
+					.accept(MediaType.TEXT_PLAIN).header("X-FOO", "BAR");
+			if (version != null) {
+				builder.header(HttpHeaders.IF_MATCH, new EntityTag(version));
+			}
+			response = builder.post(ClientResponse.class, form);
+		}
+
+		// The synchronized Form is kept, so the next call to getItem() will
+		// receive the accepted changes from the server as a delta. If the Form
+		// changed on the server since it was synchronized, the update is
+		// rejected and the caller must get the Item again before retrying.
+		if (response.getStatus() != Status.OK.getStatusCode()) {
+			if (response.getStatus() == Status.PRECONDITION_FAILED
+					.getStatusCode()) {
+				logger.info("RemoteCoreProxy Message: The Form of Item "
+						+ form.getItemID() + " changed on the server. "
+						+ "The update was rejected.");
+			}
+			response.close();
+			return FormStatus.InfoError;
+		}
+
+		return FormStatus.valueOf(response.getEntity(String.class));
 	}
 
 	/**
@@ -446,6 +651,45 @@ public class RemoteCoreProxy implements ICore {
 		return null;
 	}
 
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see ICore#getItemOutputTail(int id, boolean stdErr)
+	 */
+	@Override
+	public ArrayList<String> getItemOutputTail(int id, boolean stdErr) {
+
+		// Local Declarations
+		ArrayList<String> tail = null;
+		ClientResponse response = null;
+		String text;
+		int start = 0, end;
+
+		// Only load the resource if the hostname is valid
+		if (host == null) {
+			return null;
+		}
+		// Get the tail as plain text, one line of output per line
+		response = baseResource.path("/items/" + id + "/output")
+				.queryParam("stream", (stdErr ? "stderr" : "stdout"))
+				.accept(MediaType.TEXT_PLAIN).header("X-FOO", "BAR")
+				.get(ClientResponse.class);
+		if (response.getStatus() != Status.OK.getStatusCode()) {
+			response.close();
+			return null;
+		}
+		text = response.getEntity(String.class);
+
+		// Split the text into lines, keeping empty lines
+		tail = new ArrayList<String>();
+		while ((end = text.indexOf('\n', start)) >= 0) {
+			tail.add(text.substring(start, end));
+			start = end + 1;
+		}
+
+		return tail;
+	}
+
 	/**
 	 * (non-Javadoc)
 	 * 
@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.core.iCore;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.ws.rs.ext.ContextResolver;
+import javax.ws.rs.ext.Provider;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+
+import org.eclipse.ice.datastructures.form.Form;
+import org.eclipse.ice.datastructures.form.FormDelta;
+import org.eclipse.ice.datastructures.jaxbclassprovider.ICEJAXBClassProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class provides the JAXBContext used to read and write Forms and
+ * FormDeltas over the ICore web API. Forms hold their Components in a lax "any"
+ * element, so the context must know the ICE Component classes or they cannot
+ * be marshalled. It must be registered with both the server and the Jersey
+ * Client that connects to it.
+ */
+@Provider
+public class FormContextResolver implements ContextResolver<JAXBContext> {
+
+	/**
+	 * Logger for handling event messages and other information.
+	 */
+	private static final Logger logger = LoggerFactory
+			.getLogger(FormContextResolver.class);
+
+	/**
+	 * The context, created the first time it is needed.
+	 */
+	private JAXBContext context;
+
+	/*
+	 * Implements a method from ContextResolver.
+	 */
+	@Override
+	public JAXBContext getContext(Class<?> type) {
+		if (type == Form.class || type == FormDelta.class) {
+			return getFormContext();
+		}
+		return null;
+	}
+
+	/**
+	 * This operation creates the context for Forms and FormDeltas from the ICE
+	 * JAXB classes if it has not been created yet.
+	 *
+	 * @return The context, or null if it could not be created.
+	 */
+	private synchronized JAXBContext getFormContext() {
+
+		if (context == null) {
+			List<Class> classList = new ArrayList<Class>();
+			classList.add(Form.class);
+			classList.add(FormDelta.class);
+			classList.addAll(new ICEJAXBClassProvider().getClasses());
+			try {
+				context = JAXBContext.newInstance(classList
+						.toArray(new Class[classList.size()]));
+			} catch (JAXBException e) {
+				logger.error(getClass().getName() + " Exception!", e);
+			}
+		}
+
+		return context;
+	}
+}
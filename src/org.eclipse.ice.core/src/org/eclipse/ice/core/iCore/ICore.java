@@ -257,6 +257,22 @@ public interface ICore {
 	 */
 	public File getItemOutputFile(int id);
 
+	/**
+	 * This operation returns the last lines written to standard output or
+	 * standard error by the process of the Item with the specified id, oldest
+	 * first. It lets clients follow a running process without reading its
+	 * output files. It will return null if an Item with the specified id does
+	 * not exist.
+	 * 
+	 * @param id
+	 *            The id of the Item.
+	 * @param stdErr
+	 *            True if the tail of standard error should be returned, false
+	 *            for standard output.
+	 * @return The last lines of the stream.
+	 */
+	public ArrayList<String> getItemOutputTail(int id, boolean stdErr);
+
 	/**
 	 * This operation cancels the process with the specified name for the Item
 	 * identified.
@@ -307,9 +323,11 @@ public interface ICore {
 	 * @param message
 	 *            The message that should be passed on to the specified Item.
 	 *            This string must be in JSON and conform to the message format
-	 *            of the ICE Updater.
+	 *            of the ICE Updater. Several messages may be posted at once,
+	 *            one JSON message per line.
 	 * @return "OK" if the post was successful, null if not to conform to JAX-RS
-	 *         HTTP 200/204 return code conversion.
+	 *         HTTP 200/204 return code conversion. Messages may be delivered
+	 *         to their Items after this operation returns.
 	 */
 	@POST
 	@Path("update")
@@ -0,0 +1,43 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.core.iCore;
+
+import java.util.ArrayList;
+
+import org.eclipse.ice.datastructures.ICEObject.Identifiable;
+
+/**
+ * <p>
+ * An IPersistenceProvider that keeps an index of the Items it has persisted.
+ * The index can be read without loading the Items themselves, which allows
+ * the ItemManager to list all of the persisted Items at start up and only
+ * load each Item with loadItem() when it is first used.
+ * </p>
+ */
+public interface IIndexedPersistenceProvider extends IPersistenceProvider {
+
+	/**
+	 * <p>
+	 * Returns a lightweight description of every Item in the persistence
+	 * piece, sorted by id. Each Identifiable carries the id, name and
+	 * description of a persisted Item, but is not the Item itself.
+	 * </p>
+	 *
+	 * @return <p>
+	 *         The index of persisted Items, or null if the index is not
+	 *         available and the Items should be loaded with loadItems()
+	 *         instead.
+	 *         </p>
+	 */
+	public ArrayList<Identifiable> loadItemIndex();
+}
@@ -23,7 +23,6 @@ import java.util.Dictionary;
 import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.servlet.ServletException;
 import javax.ws.rs.ApplicationPath;
@@ -40,6 +39,7 @@ import org.eclipse.core.runtime.FileLocator;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Platform;
+import org.eclipse.ice.core.iCore.FormContextResolver;
 import org.eclipse.ice.core.iCore.ICore;
 import org.eclipse.ice.core.iCore.IPersistenceProvider;
 import org.eclipse.ice.core.internal.itemmanager.ItemManager;
@@ -123,10 +123,27 @@ public class Core extends Application implements ICore {
 	private boolean debuggingEnabled = false;
 
 	/**
-	 * An AtomicBoolean to lock and unlock the update operation with hardware.
-	 * True if locked, false if not.
+	 * The queue that delivers update messages posted to the Core to their
+	 * Items asynchronously and in order.
 	 */
-	private AtomicBoolean updateLock;
+	private UpdateMessageQueue updateQueue;
+
+	/**
+	 * The maximum time, in milliseconds, to wait for queued update messages to
+	 * be delivered when the Core is stopped.
+	 */
+	private static final long UPDATE_STOP_TIMEOUT = 5000;
+
+	/**
+	 * The resource that publishes versioned Item Forms and their deltas to
+	 * remote clients.
+	 */
+	private FormSyncResource formSyncResource;
+
+	/**
+	 * The gson utility used to read update messages.
+	 */
+	private static final Gson gson = new GsonBuilder().create();
 
 	/**
 	 * An alternative constructor that allows the Core to be constructed with a
@@ -151,8 +168,11 @@ public class Core extends Application implements ICore {
 			debuggingEnabled = true;
 		}
 
-		// Set the update lock
-		updateLock = new AtomicBoolean(false);
+		// Create the queue for update messages
+		updateQueue = new UpdateMessageQueue(itemManager);
+
+		// Create the resource for synchronizing Forms
+		formSyncResource = new FormSyncResource(this);
 
 		return;
 	}
@@ -191,10 +211,23 @@ public class Core extends Application implements ICore {
 	 * 
 	 */
 	public void stop() {
+		// Deliver any update messages that are still queued
+		updateQueue.stop(UPDATE_STOP_TIMEOUT);
 		// Update everything in the ItemManager that requires it
 		itemManager.persistItems();
 	}
 
+	/**
+	 * This operation returns the queue that delivers update messages to Items.
+	 * Its counters show the throughput and depth of the updates posted to the
+	 * Core.
+	 * 
+	 * @return The update message queue.
+	 */
+	public UpdateMessageQueue getUpdateMessageQueue() {
+		return updateQueue;
+	}
+
 	/**
 	 * The Constructor
 	 * 
@@ -215,8 +248,11 @@ public class Core extends Application implements ICore {
 			debuggingEnabled = true;
 		}
 
-		// Set the update lock
-		updateLock = new AtomicBoolean(false);
+		// Create the queue for update messages
+		updateQueue = new UpdateMessageQueue(itemManager);
+
+		// Create the resource for synchronizing Forms
+		formSyncResource = new FormSyncResource(this);
 
 		return;
 	}
@@ -415,6 +451,16 @@ public class Core extends Application implements ICore {
 		return itemManager.getOutputFile(id);
 	}
 
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see ICore#getItemOutputTail(int id, boolean stdErr)
+	 */
+	@Override
+	public ArrayList<String> getItemOutputTail(int id, boolean stdErr) {
+		return itemManager.getOutputTail(id, stdErr);
+	}
+
 	/**
 	 * (non-Javadoc)
 	 * 
@@ -600,6 +646,11 @@ public class Core extends Application implements ICore {
 
 			// Set the parameters
 			servletParams.put("javax.ws.rs.Application", Core.class.getName());
+			// Compress the responses for clients that accept gzip
+			servletParams.put(FormSyncResource.REQUEST_FILTERS_PARAM,
+					FormSyncResource.GZIP_FILTER);
+			servletParams.put(FormSyncResource.RESPONSE_FILTERS_PARAM,
+					FormSyncResource.GZIP_FILTER);
 
 			// Register the service
 			try {
@@ -647,14 +698,19 @@ public class Core extends Application implements ICore {
 	 * service so that it can be published. It overrides
 	 * Application.getSingletons().
 	 * 
-	 * @return The set of "singletons" - in this case just the running instance
-	 *         of the Core.
+	 * @return The set of "singletons" - the running instance of the Core, the
+	 *         resource that synchronizes its Forms, the resource that publishes
+	 *         the output of its Items and the provider of the JAXB context for
+	 *         Forms.
 	 */
 	@Override
 	public Set<Object> getSingletons() {
-		// Create a set that just points to this class as the servlet
+		// Create a set that points to this class as the servlet
 		Set<Object> result = new HashSet<Object>();
 		result.add(this);
+		result.add(formSyncResource);
+		result.add(new ItemOutputResource(this));
+		result.add(new FormContextResolver());
 		return result;
 	}
 
@@ -793,10 +849,9 @@ public class Core extends Application implements ICore {
 		// Create the ArrayList of messages
 		ArrayList<Message> messages = new ArrayList<Message>();
 
-		// Create the parser and gson utility
+		// Create the parser. The gson utility is shared since it is
+		// thread-safe.
 		JsonParser parser = new JsonParser();
-		GsonBuilder builder = new GsonBuilder();
-		Gson gson = builder.create();
 
 		// Catch any exceptions and return the empty list
 		try {
@@ -838,44 +893,50 @@ public class Core extends Application implements ICore {
 	/**
 	 * (non-Javadoc)
 	 * 
+	 * The message may contain a single JSON update or several, one per line.
+	 * The updates are queued and delivered to their Items asynchronously, so
+	 * "OK" means that every update was accepted, not that it was processed.
+	 * 
 	 * @see ICore#postUpdateMessage(String message)
 	 */
 	@Override
 	public String postUpdateMessage(String message) {
 
-		// Lock the operation
-		updateLock.set(true);
-
 		// Local Declarations
 		String retVal = null;
+		ArrayList<Message> msgList = new ArrayList<Message>();
+		boolean valid = true;
 
 		// Print the message if debugging is enabled
-		// if (debuggingEnabled) {
-		logger.info("Core Message: " + "Update received with message: "
-				+ message);
-		// }
-
-		// Only process the message if it exists and is not empty
-		if (message != null && !message.isEmpty() && message.contains("=")) {
-			// Split the message on "=" since it is
-			// application/x-www-form-encoded
-			String[] messageParts = message.split("=");
-			if (messageParts.length > 1) {
-				// Get the message object.
-				ArrayList<Message> msgList = buildMessagesFromString(messageParts[1]);
-				// Post the messages if there are any. Fail otherwise.
-				if (!msgList.isEmpty()) {
-					for (int i = 0; i < msgList.size(); i++) {
-						Message msg = msgList.get(i);
-						itemManager.postUpdateMessage(msg);
-					}
-					// Set the return value
-					retVal = "OK";
+		if (debuggingEnabled) {
+			logger.debug("Core Message: " + "Update received with message: "
+					+ message);
+		}
+
+		// Only process the message if it exists and is not empty. Everything
+		// after the first "=" is the value, since it is
+		// application/x-www-form-encoded.
+		int index = (message != null ? message.indexOf('=') : -1);
+		if (index >= 0 && index < message.length() - 1) {
+			// Build the message objects from each line of the value. A line
+			// without any valid messages fails the post, but the messages on
+			// the other lines are still delivered.
+			for (String line : message.substring(index + 1).split("\n")) {
+				if (!line.trim().isEmpty()) {
+					ArrayList<Message> lineMessages = buildMessagesFromString(line);
+					valid &= !lineMessages.isEmpty();
+					msgList.addAll(lineMessages);
 				}
 			}
+			// Queue the messages if there are any. Fail otherwise, or if
+			// any of them were rejected.
+			if (!msgList.isEmpty()
+					&& updateQueue.post(msgList) == msgList.size() && valid) {
+				// Set the return value
+				retVal = "OK";
+			}
 		}
 
-		// Unlock the operation and return safely
-		return (updateLock.getAndSet(false)) ? retVal : null;
+		return retVal;
 	}
 }
@@ -0,0 +1,398 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.core.internal;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
+import javax.ws.rs.core.Response.Status;
+
+import org.eclipse.ice.core.iCore.ICore;
+import org.eclipse.ice.datastructures.form.Form;
+import org.eclipse.ice.datastructures.form.FormDelta;
+import org.eclipse.ice.datastructures.form.FormStatus;
+
+/**
+ * <p>
+ * This class publishes versioned Item Forms on the Core's web API so that
+ * remote clients only transfer what changed. It is registered with the Core's
+ * Jersey servlet next to the Core and serves the following requests:
+ * </p>
+ * <ul>
+ * <li>GET items/{id}/form returns the Form with an ETag that identifies its
+ * version. If the request's If-None-Match header matches the current version,
+ * the response is 304 Not Modified with no content.</li>
+ * <li>GET items/{id}/form/delta?since={version} returns the FormDelta from a
+ * previous version to the current one, 304 Not Modified if there were no
+ * changes, or 412 Precondition Failed if the version is no longer known or the
+ * changes cannot be sent as a delta, in which case the whole Form must be
+ * requested.</li>
+ * <li>POST items/{id}/form?client={id} updates the Item with a whole Form. If
+ * the request has an If-Match header that does not match the current version,
+ * the response is 412 Precondition Failed.</li>
+ * <li>POST items/{id}/form/delta?client={id} updates the Item with a FormDelta
+ * whose base version must be the current version, or the response is 412
+ * Precondition Failed.</li>
+ * </ul>
+ * <p>
+ * The updates return the FormStatus as plain text with the ETag of the new
+ * version. All responses are gzip-compressed when the client accepts it
+ * because the Core registers Jersey's GZIP filter.
+ * </p>
+ * <p>
+ * Item Forms are changed in place, so the version of a Form is found by
+ * comparing it to a snapshot of the last version that was published. The last
+ * {@link #MAX_SNAPSHOTS} snapshots of each Item are kept to compute deltas for
+ * clients that are a few versions behind.
+ * </p>
+ */
+@Path("items/{id}/form")
+public class FormSyncResource {
+
+	/**
+	 * The number of versions of each Form that are kept.
+	 */
+	public static final int MAX_SNAPSHOTS = 8;
+
+	/**
+	 * The Jersey servlet parameter that lists the container request filters.
+	 */
+	public static final String REQUEST_FILTERS_PARAM = "com.sun.jersey.spi.container.ContainerRequestFilters";
+
+	/**
+	 * The Jersey servlet parameter that lists the container response filters.
+	 */
+	public static final String RESPONSE_FILTERS_PARAM = "com.sun.jersey.spi.container.ContainerResponseFilters";
+
+	/**
+	 * The Jersey filter that compresses responses and decompresses requests.
+	 */
+	public static final String GZIP_FILTER = "com.sun.jersey.api.container.filter.GZIPContentEncodingFilter";
+
+	/**
+	 * The versions of a single Item's Form.
+	 */
+	private static class FormVersions {
+
+		/**
+		 * The number of versions that have been published.
+		 */
+		private long count = 0;
+
+		/**
+		 * The current version.
+		 */
+		private String current;
+
+		/**
+		 * The snapshots of the last versions, oldest first.
+		 */
+		private final Map<String, Form> snapshots = new LinkedHashMap<String, Form>() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Form> eldest) {
+				return size() > MAX_SNAPSHOTS;
+			}
+		};
+	}
+
+	/**
+	 * The Core whose Item Forms are published.
+	 */
+	private final ICore core;
+
+	/**
+	 * A prefix for the versions that is unique to this instance so that
+	 * versions from a previous run of the Core are not mistaken for current
+	 * ones.
+	 */
+	private final String epoch;
+
+	/**
+	 * The versions of the Forms, keyed on the Item id.
+	 */
+	private final Map<Integer, FormVersions> versions;
+
+	/**
+	 * The constructor.
+	 *
+	 * @param core
+	 *            The Core whose Item Forms are published.
+	 */
+	public FormSyncResource(ICore core) {
+		this.core = core;
+		epoch = Long.toHexString(System.currentTimeMillis());
+		versions = new HashMap<Integer, FormVersions>();
+	}
+
+	/**
+	 * This operation returns the current version of an Item's Form. If the
+	 * Form changed since its version was last requested, a new version and
+	 * its snapshot are created.
+	 *
+	 * @param itemId
+	 *            The id of the Item.
+	 * @return The version, or null if the Item does not exist.
+	 */
+	public synchronized String getVersion(int itemId) {
+
+		// Local Declarations
+		Form form = core.getItem(itemId);
+		FormVersions formVersions = versions.get(itemId);
+		Form latest = null;
+
+		if (form == null) {
+			versions.remove(itemId);
+			return null;
+		}
+
+		if (formVersions == null) {
+			formVersions = new FormVersions();
+			versions.put(itemId, formVersions);
+		} else {
+			latest = formVersions.snapshots.get(formVersions.current);
+		}
+
+		// Publish a new version if the Form changed
+		if (latest == null || !FormDelta.contentEquals(latest, form)) {
+			formVersions.count++;
+			formVersions.current = epoch + "-" + itemId + "-"
+					+ formVersions.count;
+			formVersions.snapshots.put(formVersions.current,
+					(Form) form.clone());
+		}
+
+		return formVersions.current;
+	}
+
+	/**
+	 * This operation returns the snapshot of a version of an Item's Form. The
+	 * snapshot must not be modified.
+	 *
+	 * @param itemId
+	 *            The id of the Item.
+	 * @param version
+	 *            The version.
+	 * @return The snapshot, or null if the version is not known.
+	 */
+	private synchronized Form getSnapshot(int itemId, String version) {
+		FormVersions formVersions = versions.get(itemId);
+		return (formVersions != null && version != null ? formVersions.snapshots
+				.get(version) : null);
+	}
+
+	/**
+	 * This operation returns the Form of an Item unless the client already has
+	 * its current version.
+	 *
+	 * @param itemId
+	 *            The id of the Item.
+	 * @param request
+	 *            The request, used to evaluate the If-None-Match header.
+	 * @return The response.
+	 */
+	@GET
+	@Produces(MediaType.APPLICATION_XML)
+	public Response getForm(@PathParam("id") int itemId,
+			@Context Request request) {
+
+		// Local Declarations
+		String version = getVersion(itemId);
+		EntityTag tag;
+		ResponseBuilder builder;
+
+		if (version == null) {
+			return Response.status(Status.NOT_FOUND).build();
+		}
+
+		// Only send the Form if the client does not have this version
+		tag = new EntityTag(version);
+		builder = request.evaluatePreconditions(tag);
+		if (builder == null) {
+			builder = Response.ok(getSnapshot(itemId, version));
+		}
+
+		return builder.tag(tag).build();
+	}
+
+	/**
+	 * This operation returns the changes to the Form of an Item since a
+	 * previous version.
+	 *
+	 * @param itemId
+	 *            The id of the Item.
+	 * @param since
+	 *            The version the client has.
+	 * @return The response.
+	 */
+	@GET
+	@Path("delta")
+	@Produces(MediaType.APPLICATION_XML)
+	public Response getDelta(@PathParam("id") int itemId,
+			@QueryParam("since") String since) {
+
+		// Local Declarations
+		String version = getVersion(itemId);
+		EntityTag tag;
+		Form base;
+		FormDelta delta;
+
+		if (version == null) {
+			return Response.status(Status.NOT_FOUND).build();
+		}
+		tag = new EntityTag(version);
+
+		// Nothing to send if the client is up to date
+		if (version.equals(since)) {
+			return Response.notModified(tag).build();
+		}
+
+		// Compute the delta from the snapshots
+		base = getSnapshot(itemId, since);
+		delta = (base != null ? FormDelta.create(base,
+				getSnapshot(itemId, version)) : null);
+		if (delta == null) {
+			return Response.status(Status.PRECONDITION_FAILED).tag(tag)
+					.build();
+		}
+		delta.setBaseVersion(since);
+		delta.setVersion(version);
+
+		return Response.ok(delta).tag(tag).build();
+	}
+
+	/**
+	 * This operation updates an Item with a whole Form.
+	 *
+	 * @param itemId
+	 *            The id of the Item.
+	 * @param clientId
+	 *            The unique id of the client.
+	 * @param form
+	 *            The Form.
+	 * @param request
+	 *            The request, used to evaluate the If-Match header.
+	 * @return The response.
+	 */
+	@POST
+	@Consumes(MediaType.APPLICATION_XML)
+	@Produces(MediaType.TEXT_PLAIN)
+	public synchronized Response updateForm(@PathParam("id") int itemId,
+			@QueryParam("client") @DefaultValue("-1") int clientId, Form form,
+			@Context Request request) {
+
+		// Local Declarations
+		String version = getVersion(itemId);
+		FormStatus status;
+		ResponseBuilder builder;
+
+		if (version == null) {
+			return Response.status(Status.NOT_FOUND).build();
+		} else if (form == null || form.getItemID() != itemId) {
+			return Response.status(Status.BAD_REQUEST).build();
+		}
+
+		// Do not overwrite changes the client has not seen
+		builder = (request != null ? request
+				.evaluatePreconditions(new EntityTag(version)) : null);
+		if (builder != null) {
+			return builder.tag(new EntityTag(version)).build();
+		}
+
+		status = core.updateItem(form, clientId);
+
+		return createUpdateResponse(itemId, status);
+	}
+
+	/**
+	 * This operation updates an Item with the changes to the current version
+	 * of its Form.
+	 *
+	 * @param itemId
+	 *            The id of the Item.
+	 * @param clientId
+	 *            The unique id of the client.
+	 * @param delta
+	 *            The changes. Their base version must be the current version.
+	 * @return The response.
+	 */
+	@POST
+	@Path("delta")
+	@Consumes(MediaType.APPLICATION_XML)
+	@Produces(MediaType.TEXT_PLAIN)
+	public synchronized Response updateDelta(@PathParam("id") int itemId,
+			@QueryParam("client") @DefaultValue("-1") int clientId,
+			FormDelta delta) {
+
+		// Local Declarations
+		String version = getVersion(itemId);
+		Form form;
+
+		if (version == null) {
+			return Response.status(Status.NOT_FOUND).build();
+		} else if (delta == null) {
+			return Response.status(Status.BAD_REQUEST).build();
+		} else if (!version.equals(delta.getBaseVersion())) {
+			// The client must get the changes it does not have first
+			return Response.status(Status.PRECONDITION_FAILED)
+					.tag(new EntityTag(version)).build();
+		}
+
+		// Apply the delta to a copy of the current version and submit it
+		form = (Form) getSnapshot(itemId, version).clone();
+		if (!delta.apply(form)) {
+			return Response.status(Status.BAD_REQUEST).build();
+		}
+
+		return createUpdateResponse(itemId, core.updateItem(form, clientId));
+	}
+
+	/**
+	 * This operation creates the response to an update, which holds the
+	 * status of the Item and the new version of its Form.
+	 *
+	 * @param itemId
+	 *            The id of the Item.
+	 * @param status
+	 *            The status returned by the Core.
+	 * @return The response.
+	 */
+	private Response createUpdateResponse(int itemId, FormStatus status) {
+
+		// Local Declarations
+		String version = getVersion(itemId);
+		ResponseBuilder builder = Response.ok(String.valueOf(status));
+
+		if (version != null) {
+			builder.tag(new EntityTag(version));
+		}
+
+		return builder.build();
+	}
+}
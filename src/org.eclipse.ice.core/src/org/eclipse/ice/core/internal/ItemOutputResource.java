@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.core.internal;
+
+import java.util.ArrayList;
+
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+
+import org.eclipse.ice.core.iCore.ICore;
+
+/**
+ * <p>
+ * This class publishes the last lines written by the processes of Items on the
+ * Core's web API so that remote clients can follow a running process without
+ * downloading its output files. It is registered with the Core's Jersey
+ * servlet next to the Core and serves the following request:
+ * </p>
+ * <ul>
+ * <li>GET items/{id}/output?stream={stdout|stderr} returns the tail of
+ * standard output, or of standard error if the stream is "stderr", as plain
+ * text with one line per line of output, oldest first. The response is 404
+ * Not Found if the Item does not exist.</li>
+ * </ul>
+ */
+@Path("items/{id}/output")
+public class ItemOutputResource {
+
+	/**
+	 * The value of the stream parameter that requests standard error.
+	 */
+	public static final String STDERR = "stderr";
+
+	/**
+	 * The value of the stream parameter that requests standard output.
+	 */
+	public static final String STDOUT = "stdout";
+
+	/**
+	 * The Core whose Item output is published.
+	 */
+	private final ICore core;
+
+	/**
+	 * The constructor.
+	 *
+	 * @param core
+	 *            The Core whose Item output is published.
+	 */
+	public ItemOutputResource(ICore core) {
+		this.core = core;
+	}
+
+	/**
+	 * This operation returns the tail of one of the output streams of an
+	 * Item's process.
+	 *
+	 * @param itemId
+	 *            The id of the Item.
+	 * @param stream
+	 *            The stream, {@link #STDERR} for standard error or anything
+	 *            else for standard output.
+	 * @return The response.
+	 */
+	@GET
+	@Produces(MediaType.TEXT_PLAIN)
+	public Response getOutputTail(@PathParam("id") int itemId,
+			@QueryParam("stream") @DefaultValue(STDOUT) String stream) {
+
+		// Local Declarations
+		ArrayList<String> tail = core.getItemOutputTail(itemId,
+				STDERR.equals(stream));
+		StringBuilder text = new StringBuilder();
+
+		if (tail == null) {
+			return Response.status(Status.NOT_FOUND).build();
+		}
+
+		// Write one line of output per line of text
+		for (String line : tail) {
+			text.append(line).append('\n');
+		}
+
+		return Response.ok(text.toString()).build();
+	}
+}
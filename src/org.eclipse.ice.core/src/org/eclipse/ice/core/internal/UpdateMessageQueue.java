@@ -0,0 +1,613 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.core.internal;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.ice.core.internal.itemmanager.ItemManager;
+import org.eclipse.ice.item.messaging.Message;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The UpdateMessageQueue accepts update Messages posted to the Core and
+ * delivers them to their Items asynchronously. Each Item has its own bounded
+ * queue, and the Messages for an Item are always delivered in the order that
+ * they were posted, in batches, by a pool of background threads. Messages for
+ * different Items are delivered in parallel.
+ *
+ * When the queue for an Item is full, the thread posting a Message waits for
+ * space until a timeout expires. This slows down clients that post faster than
+ * their Item can handle. If there is still no space, the Message is rejected.
+ *
+ * The queue keeps counters of the Messages received, delivered, failed and
+ * rejected and of the batches delivered, along with the current queue depths.
+ * The queue of an Item is removed once all of its Messages are delivered, so
+ * Items that are no longer updated, including deleted Items, do not keep one.
+ */
+public class UpdateMessageQueue {
+
+	/**
+	 * Logger for handling event messages and other information.
+	 */
+	private static final Logger logger = LoggerFactory
+			.getLogger(UpdateMessageQueue.class);
+
+	/**
+	 * The default maximum number of Messages queued for each Item.
+	 */
+	public static final int DEFAULT_CAPACITY = 4096;
+
+	/**
+	 * The default maximum number of Messages delivered to an Item at once.
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 256;
+
+	/**
+	 * The default time, in milliseconds, that a post waits for space in a full
+	 * queue.
+	 */
+	public static final long DEFAULT_TIMEOUT = 1000;
+
+	/**
+	 * The ItemManager that delivers the Messages to the Items.
+	 */
+	private final ItemManager itemManager;
+
+	/**
+	 * The maximum number of Messages queued for each Item.
+	 */
+	private final int capacity;
+
+	/**
+	 * The maximum number of Messages delivered to an Item at once.
+	 */
+	private final int batchSize;
+
+	/**
+	 * The time, in milliseconds, that a post waits for space in a full queue.
+	 */
+	private final long timeout;
+
+	/**
+	 * The queue for each Item, keyed on the Item id.
+	 */
+	private final ConcurrentHashMap<Integer, ItemQueue> queues;
+
+	/**
+	 * The threads that deliver the Messages.
+	 */
+	private final ExecutorService executor;
+
+	/**
+	 * The number of Messages accepted into the queues.
+	 */
+	private final AtomicLong received = new AtomicLong();
+
+	/**
+	 * The number of Messages to which their Items responded.
+	 */
+	private final AtomicLong delivered = new AtomicLong();
+
+	/**
+	 * The number of Messages that were delivered but to which their Items did
+	 * not respond, including Messages for Items that do not exist.
+	 */
+	private final AtomicLong failed = new AtomicLong();
+
+	/**
+	 * The number of Messages rejected because their queue was full or the
+	 * queue was stopped.
+	 */
+	private final AtomicLong rejected = new AtomicLong();
+
+	/**
+	 * The number of batches delivered.
+	 */
+	private final AtomicLong batches = new AtomicLong();
+
+	/**
+	 * The number of Messages accepted but not yet delivered. This is guarded
+	 * by the UpdateMessageQueue itself so that {@link #flush(long)} can wait
+	 * on it.
+	 */
+	private long pending = 0;
+
+	/**
+	 * True if the queue has been stopped and no longer accepts Messages.
+	 */
+	private volatile boolean stopped = false;
+
+	/**
+	 * The queue of Messages for a single Item. It is also the task that
+	 * delivers them. At most one delivery task is scheduled for an Item at a
+	 * time, which keeps its Messages in order. A queue is retired and removed
+	 * from the map when it is empty after a delivery, and a retired queue does
+	 * not accept Messages.
+	 */
+	private class ItemQueue implements Runnable {
+
+		/**
+		 * The id of the Item.
+		 */
+		private final int itemId;
+
+		/**
+		 * The Messages waiting to be delivered, in order. This is guarded by
+		 * the ItemQueue.
+		 */
+		private final ArrayDeque<Message> messages = new ArrayDeque<Message>();
+
+		/**
+		 * True if a delivery task is scheduled or running for the Item. This is
+		 * guarded by the ItemQueue.
+		 */
+		private boolean scheduled = false;
+
+		/**
+		 * True if the queue was removed from the map of queues. This is
+		 * guarded by the ItemQueue.
+		 */
+		private boolean retired = false;
+
+		/**
+		 * The constructor.
+		 *
+		 * @param itemId
+		 *            The id of the Item.
+		 */
+		public ItemQueue(int itemId) {
+			this.itemId = itemId;
+		}
+
+		/**
+		 * This operation adds a Message to the queue, waiting for space if it
+		 * is full.
+		 *
+		 * @param msg
+		 *            The Message to add.
+		 * @return True if the Message was added, false if it was rejected or
+		 *         the queue is retired.
+		 */
+		public synchronized boolean offer(Message msg) {
+
+			if (retired) {
+				return false;
+			}
+
+			// Wait for space until the timeout expires
+			long deadline = System.currentTimeMillis() + timeout;
+			long remaining = timeout;
+			try {
+				while (messages.size() >= capacity && !stopped
+						&& remaining > 0) {
+					wait(remaining);
+					remaining = deadline - System.currentTimeMillis();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			if (messages.size() >= capacity || stopped) {
+				return false;
+			}
+
+			// Add the message and make sure that it will be delivered
+			messages.add(msg);
+			addPending(1);
+			if (!scheduled) {
+				scheduled = true;
+				schedule(this);
+			}
+
+			return true;
+		}
+
+		/**
+		 * This operation delivers the next batch of Messages to the Item. If
+		 * more Messages are waiting afterward, it reschedules itself so that
+		 * other Items are not starved. Otherwise the queue is retired.
+		 */
+		@Override
+		public void run() {
+
+			// Local Declarations
+			List<Message> batch;
+			int count = 0;
+
+			// Take the next batch and wake any posters waiting for space
+			synchronized (this) {
+				batch = new ArrayList<Message>(Math.min(batchSize,
+						messages.size()));
+				while (batch.size() < batchSize && !messages.isEmpty()) {
+					batch.add(messages.poll());
+				}
+				notifyAll();
+			}
+
+			// Deliver the batch. It is only empty if the queue was cleared. The
+			// counters and the schedule are updated even if the Item throws an
+			// Error so that delivery continues and flush() does not hang.
+			try {
+				if (!batch.isEmpty()) {
+					count = itemManager.postUpdateMessages(itemId, batch);
+				}
+			} catch (RuntimeException e) {
+				logger.error(getClass().getName() + " Exception!", e);
+			} finally {
+				if (!batch.isEmpty()) {
+					delivered.addAndGet(count);
+					failed.addAndGet(batch.size() - count);
+					batches.incrementAndGet();
+					addPending(-batch.size());
+				}
+				// Reschedule the task if there are more messages
+				synchronized (this) {
+					if (messages.isEmpty()) {
+						scheduled = false;
+						retired = true;
+						queues.remove(itemId, this);
+					} else {
+						schedule(this);
+					}
+				}
+			}
+
+			return;
+		}
+
+		/**
+		 * This operation checks whether the queue was retired.
+		 *
+		 * @return True if the queue no longer accepts Messages.
+		 */
+		public synchronized boolean isRetired() {
+			return retired;
+		}
+
+		/**
+		 * This operation gets the number of Messages waiting in the queue.
+		 *
+		 * @return The depth of the queue.
+		 */
+		public synchronized int size() {
+			return messages.size();
+		}
+
+		/**
+		 * This operation removes all of the waiting Messages and wakes any
+		 * waiting posters.
+		 *
+		 * @return The number of Messages removed.
+		 */
+		public synchronized int clear() {
+			int size = messages.size();
+			messages.clear();
+			notifyAll();
+			return size;
+		}
+	}
+
+	/**
+	 * The constructor. It uses the default capacity, batch size and timeout.
+	 *
+	 * @param manager
+	 *            The ItemManager that delivers the Messages to the Items.
+	 */
+	public UpdateMessageQueue(ItemManager manager) {
+		this(manager, DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE, DEFAULT_TIMEOUT);
+	}
+
+	/**
+	 * The constructor.
+	 *
+	 * @param manager
+	 *            The ItemManager that delivers the Messages to the Items.
+	 * @param capacity
+	 *            The maximum number of Messages queued for each Item. Must be
+	 *            at least 1.
+	 * @param batchSize
+	 *            The maximum number of Messages delivered to an Item at once.
+	 *            Must be at least 1.
+	 * @param timeout
+	 *            The time, in milliseconds, that a post waits for space in a
+	 *            full queue. Zero rejects Messages as soon as the queue is
+	 *            full.
+	 */
+	public UpdateMessageQueue(ItemManager manager, int capacity,
+			int batchSize, long timeout) {
+
+		// Check the parameters
+		if (manager == null) {
+			throw new IllegalArgumentException(
+					"UpdateMessageQueue error: The ItemManager cannot be null.");
+		} else if (capacity < 1 || batchSize < 1 || timeout < 0) {
+			throw new IllegalArgumentException("UpdateMessageQueue error: "
+					+ "The capacity and batch size must be positive and "
+					+ "the timeout cannot be negative.");
+		}
+
+		itemManager = manager;
+		this.capacity = capacity;
+		this.batchSize = batchSize;
+		this.timeout = timeout;
+		queues = new ConcurrentHashMap<Integer, ItemQueue>();
+
+		// The delivery threads should not keep the application alive
+		executor = Executors.newFixedThreadPool(Runtime.getRuntime()
+				.availableProcessors(), new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "ICE Update Messages");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+
+		return;
+	}
+
+	/**
+	 * This operation posts a Message for asynchronous delivery to the Item
+	 * with the Message's Item id.
+	 *
+	 * @param msg
+	 *            The Message to post.
+	 * @return True if the Message was queued, false if it was null or was
+	 *         rejected.
+	 */
+	public boolean post(Message msg) {
+
+		// Check the parameter
+		if (msg == null) {
+			return false;
+		}
+
+		// Local Declarations
+		int itemId = msg.getItemId();
+		ItemQueue queue;
+		boolean accepted;
+
+		// Queue the message, getting or creating the Item's queue again if it
+		// was retired in the meantime
+		do {
+			queue = queues.get(itemId);
+			if (queue == null) {
+				ItemQueue newQueue = new ItemQueue(itemId);
+				queue = queues.putIfAbsent(itemId, newQueue);
+				if (queue == null) {
+					queue = newQueue;
+				}
+			}
+			accepted = !stopped && queue.offer(msg);
+		} while (!accepted && !stopped && queue.isRetired());
+		if (accepted) {
+			received.incrementAndGet();
+		} else {
+			rejected.incrementAndGet();
+		}
+
+		return accepted;
+	}
+
+	/**
+	 * This operation posts a list of Messages in order.
+	 *
+	 * @param messages
+	 *            The Messages to post.
+	 * @return The number of Messages that were queued.
+	 */
+	public int post(List<Message> messages) {
+
+		// Local Declarations
+		int count = 0;
+
+		if (messages != null) {
+			for (Message msg : messages) {
+				if (post(msg)) {
+					count++;
+				}
+			}
+		}
+
+		return count;
+	}
+
+	/**
+	 * This operation waits until every Message that has been queued is
+	 * delivered.
+	 *
+	 * @param timeout
+	 *            The maximum time to wait, in milliseconds.
+	 * @return True if all Messages were delivered, false if the timeout
+	 *         expired or the thread was interrupted.
+	 */
+	public synchronized boolean flush(long timeout) {
+
+		long deadline = System.currentTimeMillis() + timeout;
+		long remaining = timeout;
+		try {
+			while (pending > 0 && remaining > 0) {
+				wait(remaining);
+				remaining = deadline - System.currentTimeMillis();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		return pending == 0;
+	}
+
+	/**
+	 * This operation stops the queue. New Messages are rejected, the Messages
+	 * already queued are delivered if possible within the timeout, and the
+	 * delivery threads are shut down. Any Messages that are still waiting
+	 * after the timeout are discarded.
+	 *
+	 * @param timeout
+	 *            The maximum time to wait for queued Messages, in
+	 *            milliseconds.
+	 */
+	public void stop(long timeout) {
+
+		// Reject new messages and deliver the remaining ones
+		stopped = true;
+		for (ItemQueue queue : queues.values()) {
+			synchronized (queue) {
+				queue.notifyAll();
+			}
+		}
+		if (!flush(timeout)) {
+			logger.info("UpdateMessageQueue Message: Timed out while "
+					+ "delivering the remaining update messages.");
+		}
+
+		// Discard anything left and stop the threads
+		for (ItemQueue queue : queues.values()) {
+			int count = queue.clear();
+			rejected.addAndGet(count);
+			addPending(-count);
+		}
+		executor.shutdown();
+		try {
+			executor.awaitTermination(timeout, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation gets the total number of Messages waiting to be
+	 * delivered, for all Items.
+	 *
+	 * @return The total queue depth.
+	 */
+	public int getQueueDepth() {
+		int depth = 0;
+		for (ItemQueue queue : queues.values()) {
+			depth += queue.size();
+		}
+		return depth;
+	}
+
+	/**
+	 * This operation gets the number of Messages waiting to be delivered to an
+	 * Item.
+	 *
+	 * @param itemId
+	 *            The id of the Item.
+	 * @return The depth of the Item's queue.
+	 */
+	public int getQueueDepth(int itemId) {
+		ItemQueue queue = queues.get(itemId);
+		return (queue != null ? queue.size() : 0);
+	}
+
+	/**
+	 * This operation gets the maximum number of Messages queued for each Item.
+	 *
+	 * @return The capacity of each Item's queue.
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * This operation gets the number of Messages accepted into the queues.
+	 *
+	 * @return The number of Messages received.
+	 */
+	public long getReceivedCount() {
+		return received.get();
+	}
+
+	/**
+	 * This operation gets the number of Messages to which their Items
+	 * responded.
+	 *
+	 * @return The number of Messages delivered.
+	 */
+	public long getDeliveredCount() {
+		return delivered.get();
+	}
+
+	/**
+	 * This operation gets the number of Messages that were delivered but to
+	 * which their Items did not respond, including Messages for Items that do
+	 * not exist.
+	 *
+	 * @return The number of failed Messages.
+	 */
+	public long getFailedCount() {
+		return failed.get();
+	}
+
+	/**
+	 * This operation gets the number of Messages rejected because their queue
+	 * was full or the queue was stopped.
+	 *
+	 * @return The number of rejected Messages.
+	 */
+	public long getRejectedCount() {
+		return rejected.get();
+	}
+
+	/**
+	 * This operation gets the number of batches delivered to Items.
+	 *
+	 * @return The number of batches.
+	 */
+	public long getBatchCount() {
+		return batches.get();
+	}
+
+	/**
+	 * This operation schedules the delivery task for an Item.
+	 *
+	 * @param queue
+	 *            The Item's queue.
+	 */
+	private void schedule(ItemQueue queue) {
+		try {
+			executor.execute(queue);
+		} catch (RejectedExecutionException e) {
+			// The queue was stopped. Its messages are discarded by stop().
+			logger.error(getClass().getName() + " Exception!", e);
+		}
+	}
+
+	/**
+	 * This operation updates the number of pending Messages and wakes any
+	 * threads waiting in {@link #flush(long)} when it reaches zero.
+	 *
+	 * @param count
+	 *            The change in the number of pending Messages.
+	 */
+	private synchronized void addPending(long count) {
+		pending += count;
+		if (pending <= 0) {
+			pending = 0;
+			notifyAll();
+		}
+	}
+}
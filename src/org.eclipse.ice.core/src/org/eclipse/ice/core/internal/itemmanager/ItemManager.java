@@ -15,9 +15,12 @@ package org.eclipse.ice.core.internal.itemmanager;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.resources.IProject;
+import org.eclipse.ice.core.iCore.IIndexedPersistenceProvider;
 import org.eclipse.ice.core.iCore.IPersistenceProvider;
 import org.eclipse.ice.datastructures.ICEObject.Identifiable;
 import org.eclipse.ice.datastructures.form.Form;
@@ -48,6 +51,11 @@ import org.slf4j.LoggerFactory;
  * persists all currently active Items by calling persistItems().
  * </p>
  * <p>
+ * If the provider is an IIndexedPersistenceProvider, loadItems() only reads
+ * the provider's index and each Item is loaded from the provider the first
+ * time it is used.
+ * </p>
+ * <p>
  * The process output file of an Item can be retrieved by calling
  * getOutputFile() and passing the id of the Item as an argument. Retrieving an
  * output file and retrieving a Form are separated because they are treated as
@@ -66,11 +74,22 @@ public class ItemManager implements ItemListener {
 	/**
 	 * <p>
 	 * This is a list of all of the items that are managed by the ItemManger.
-	 * The key is the Item Id and the value is a reference to the Item.
+	 * The key is the Item Id and the value is a reference to the Item. It is
+	 * concurrent because Items are loaded on demand from several threads.
 	 * </p>
 	 * 
 	 */
-	private HashMap<Integer, Item> itemList;
+	private ConcurrentHashMap<Integer, Item> itemList;
+
+	/**
+	 * <p>
+	 * The Items that were listed by an IIndexedPersistenceProvider but have
+	 * not been loaded yet. The key is the Item id and the value holds the id,
+	 * name and description of the Item. Items are only loaded and moved to
+	 * the itemList while holding the lock on this map.
+	 * </p>
+	 */
+	private ConcurrentHashMap<Integer, Identifiable> unloadedItems;
 
 	/**
 	 * <p>
@@ -140,7 +159,8 @@ public class ItemManager implements ItemListener {
 		// Setup the lists
 		itemBuilderList = new HashMap<String, ItemBuilder>();
 		compositeBuilders = new ArrayList<ICompositeItemBuilder>();
-		itemList = new HashMap<Integer, Item>();
+		itemList = new ConcurrentHashMap<Integer, Item>();
+		unloadedItems = new ConcurrentHashMap<Integer, Identifiable>();
 
 	}
 
@@ -311,7 +331,7 @@ public class ItemManager implements ItemListener {
 
 		// Retrieve the Form if and only if the Item id is greater than zero and
 		// is also in the list of Items.
-		if (itemID > 0 && this.itemList.containsKey(itemID)) {
+		if (itemID > 0 && getItem(itemID) != null) {
 			form = this.itemList.get(itemID).getForm();
 		}
 
@@ -499,7 +519,7 @@ public class ItemManager implements ItemListener {
 		// Check the id
 		if (itemId > 0) {
 			// Get the Item
-			item = itemList.get(itemId);
+			item = getItem(itemId);
 			if (item != null) {
 				// Set the status if the Item is actually in the map
 				status = item.getStatus();
@@ -557,6 +577,105 @@ public class ItemManager implements ItemListener {
 		itemList.put(rebuiltItem.getId(), rebuiltItem);
 	}
 
+	/**
+	 * This operation puts an Item that was loaded from the persistence
+	 * provider into the list of Items. The Item is rebuilt with its builder if
+	 * the builder is available. Otherwise it is disabled.
+	 * 
+	 * @param item
+	 *            The Item loaded by the provider
+	 * @param projectSpace
+	 *            The project space that the Item should use for its work
+	 */
+	private void restoreItem(Item item, IProject projectSpace) {
+
+		// Reconstruct the Item to use the proper subclass by searching the
+		// builders for the builder with the appropriate name.
+		if (itemBuilderList.containsKey(item.getItemBuilderName())) {
+			ItemBuilder builder = itemBuilderList.get(item
+					.getItemBuilderName());
+			rebuildItem(builder, item, projectSpace);
+		} else {
+			logger.info("ItemManager Message: " + "Builder not found for "
+					+ item.getName() + " " + item.getId() + " with builder "
+					+ item.getItemBuilderName() + ". It will be disabled.");
+			// Otherwise just put the Item in the list, but disable it. It can
+			// still be read, just not processed.
+			item.disable(true);
+			itemList.put(item.getId(), item);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation returns the Item with the specified id. If the Item is
+	 * listed in the provider's index but has not been loaded yet, it is loaded
+	 * from the provider first. Only one thread loads an Item while the others
+	 * wait for it.
+	 * 
+	 * @param id
+	 *            The id of the Item
+	 * @return The Item or null if there is no Item with that id
+	 */
+	private Item getItem(int id) {
+
+		// Local Declarations
+		Item item = itemList.get(id);
+
+		// Load the Item if it is only in the index
+		if (item == null && unloadedItems.containsKey(id)) {
+			synchronized (unloadedItems) {
+				// Another thread may have loaded it in the meantime
+				item = itemList.get(id);
+				if (item == null && unloadedItems.containsKey(id)) {
+					Item loadedItem = provider.loadItem(id);
+					if (loadedItem != null) {
+						restoreItem(loadedItem, loadedProject);
+						item = itemList.get(id);
+					} else {
+						logger.info("ItemManager Message: Unable to load Item "
+								+ id + " from the provider.");
+					}
+					// Only remove it from the index once it is in the list so
+					// that it never appears to be missing
+					unloadedItems.remove(id);
+				}
+			}
+		}
+
+		return item;
+	}
+
+	/**
+	 * This operation sets the next sequential id and the list of reusable ids
+	 * from the ids of the Items that were loaded or listed by the provider.
+	 */
+	private void updateIds() {
+
+		// Get the keys from the maps and sort them
+		TreeSet<Integer> keys = new TreeSet<Integer>(itemList.keySet());
+		keys.addAll(unloadedItems.keySet());
+
+		if (!keys.isEmpty()) {
+			// Set the next sequential id such that it is equal to one plus the
+			// last id in the set of Items from the provider. This will keep
+			// any new items from possibly colliding with old ones in the map.
+			nextSequentialId = keys.last() + 1;
+			// Loop over the set of ids and figure out if there are any gaps,
+			// which can be reused to keep the ids from fragmenting.
+			reusableIds.clear();
+			for (int i = 1; i < nextSequentialId; i++) {
+				// If the set doesn't contain i, add it to the reusable id list
+				if (!keys.contains(i)) {
+					reusableIds.add(i);
+				}
+			}
+		}
+
+		return;
+	}
+
 	/**
 	 * <p>
 	 * This operation is called to direct the ItemManager to load all Items that
@@ -583,58 +702,47 @@ public class ItemManager implements ItemListener {
 	 */
 	public void loadItems(IProject projectSpace) {
 
+		// Local Declarations
+		ArrayList<Identifiable> index = null;
+
 		// Make sure the persistence provider is available before requesting
 		// information from it.
 		if (provider != null) {
-			// Get all of the Items
+			// Save the project space so that Items loaded later can use it
+			loadedProject = projectSpace;
+			// Just list the Items if the provider has an index. They will be
+			// loaded when they are first used.
+			if (provider instanceof IIndexedPersistenceProvider) {
+				index = ((IIndexedPersistenceProvider) provider)
+						.loadItemIndex();
+			}
+			if (index != null) {
+				for (Identifiable entry : index) {
+					if (!itemList.containsKey(entry.getId())) {
+						unloadedItems.put(entry.getId(), entry);
+					}
+				}
+				updateIds();
+				logger.info("ItemManager Message: Listed " + index.size()
+						+ " Items from the provider's index.");
+				return;
+			}
+			// Otherwise get all of the Items
 			ArrayList<Item> oldItems = provider.loadItems();
 			// Put all of the Items in to the list if the provider was able to
 			// load anything.
 			if (oldItems != null && !(oldItems.isEmpty())) {
 				// Loop over each Item and load it up
 				for (Item item : oldItems) {
-					// Reconstruct the Item to use the proper subclass by
-					// searching the builders for the builder with the
-					// appropriate name.
-					if (itemBuilderList.containsKey(item.getItemBuilderName())) {
-						ItemBuilder builder = itemBuilderList.get(item
-								.getItemBuilderName());
-						rebuildItem(builder, item, projectSpace);
-					} else {
-						logger.info("ItemManager Message: "
-								+ "Builder not found for " + item.getName()
-								+ " " + item.getId() + " with builder "
-								+ item.getItemBuilderName()
-								+ ". It will be disabled.");
-						// Otherwise just put the Item in the list, but disable
-						// it. It can still be read, just not processed.
-						item.disable(true);
-						itemList.put(item.getId(), item);
-					}
-				}
-				// Get the keys from the map and sort them
-				TreeSet<Integer> keys = new TreeSet<Integer>(itemList.keySet());
-				// Set the next sequential id such that it is equal to one plus
-				// the last id in the set of Items from the provider. This will
-				// keep any new items from possibly colliding with old ones in
-				// the map.
-				nextSequentialId = keys.last() + 1;
-				// Loop over the set of ids and figure out if there are any
-				// gaps, which can be reused to keep the ids from fragmenting.
-				for (int i = 1; i < nextSequentialId; i++) {
-					// If the set doesn't contain i, add it to the reusable id
-					// list
-					if (!keys.contains(i)) {
-						reusableIds.add(i);
-					}
+					restoreItem(item, projectSpace);
 				}
+				// Update the ids for new Items
+				updateIds();
 			} else {
 				// Complain a little bit
 				logger.info("Unable to load items in bulk from "
 						+ "the IPersistenceProvider.");
 			}
-			// Save the project space
-			loadedProject = projectSpace;
 
 		}
 
@@ -703,13 +811,46 @@ public class ItemManager implements ItemListener {
 		// Local Declarations
 		File outputFile = null;
 
-		if (itemList.containsKey(id)) {
+		if (getItem(id) != null) {
 			outputFile = itemList.get(id).getOutputFile();
 		}
 
 		return outputFile;
 	}
 
+	/**
+	 * <p>
+	 * This operation returns the last lines written to standard output or
+	 * standard error by the process of the Item with the specified id. It
+	 * returns null if an Item with the specified id does not exist.
+	 * </p>
+	 * 
+	 * @param id
+	 *            <p>
+	 *            The id of the Item.
+	 *            </p>
+	 * @param stdErr
+	 *            <p>
+	 *            True if the tail of standard error should be returned, false
+	 *            for standard output.
+	 *            </p>
+	 * @return <p>
+	 *         The last lines of the stream, oldest first.
+	 *         </p>
+	 */
+	public ArrayList<String> getOutputTail(int id, boolean stdErr) {
+
+		// Local Declarations
+		ArrayList<String> tail = null;
+		Item item = getItem(id);
+
+		if (item != null) {
+			tail = (stdErr) ? item.getStdErrTail() : item.getStdOutTail();
+		}
+
+		return tail;
+	}
+
 	/**
 	 * <p>
 	 * This operation cancels the process with the specified name for the Item
@@ -735,7 +876,7 @@ public class ItemManager implements ItemListener {
 		FormStatus status = FormStatus.InfoError;
 
 		// Find the item if the id is valid
-		if (itemList.keySet().contains(itemId)) {
+		if (getItem(itemId) != null) {
 			Item item = itemList.get(itemId);
 			// Try to cancel the task. This kills all processes regardless of
 			// name for now.
@@ -786,7 +927,7 @@ public class ItemManager implements ItemListener {
 
 		logger.info("Update Message Item Id is " + itemId);
 		// Push the message if possible
-		if (itemList.containsKey(itemId)) {
+		if (getItem(itemId) != null) {
 			// Grab the Item
 			Item messagedItem = itemList.get(itemId);
 			// Post the message
@@ -796,6 +937,45 @@ public class ItemManager implements ItemListener {
 		return retVal;
 	}
 
+	/**
+	 * <p>
+	 * This operation updates an Item with a batch of Messages in the order
+	 * that they were posted. The Item is only looked up once for the whole
+	 * batch.
+	 * </p>
+	 * 
+	 * @param itemId
+	 *            <p>
+	 *            The id of the Item that should receive the Messages.
+	 *            </p>
+	 * @param messages
+	 *            <p>
+	 *            The incoming Messages, in order.
+	 *            </p>
+	 * @return <p>
+	 *         The number of Messages to which the Item was able to respond.
+	 *         This is zero if the Item does not exist.
+	 *         </p>
+	 */
+	public int postUpdateMessages(int itemId, List<Message> messages) {
+
+		// Local Declarations
+		int count = 0;
+
+		// Push the messages if possible
+		if (messages != null && !messages.isEmpty()) {
+			Item messagedItem = getItem(itemId);
+			if (messagedItem != null) {
+				count = messagedItem.update(messages);
+			} else {
+				logger.info("ItemManager Message: Dropped " + messages.size()
+						+ " update messages for unknown Item " + itemId + ".");
+			}
+		}
+
+		return count;
+	}
+
 	/**
 	 * (non-Javadoc)
 	 * 
@@ -832,10 +1012,16 @@ public class ItemManager implements ItemListener {
 		// Local Declarations
 		ArrayList<Identifiable> items = new ArrayList<Identifiable>();
 
-		// Retrieve the list
+		// Retrieve the list, including the Items that have not been loaded
+		// from the provider yet.
 		for (Identifiable i : this.itemList.values()) {
 			items.add(i);
 		}
+		for (Identifiable i : this.unloadedItems.values()) {
+			if (!itemList.containsKey(i.getId())) {
+				items.add(i);
+			}
+		}
 
 		return items;
 	}
@@ -873,7 +1059,7 @@ public class ItemManager implements ItemListener {
 		id = form.getItemID();
 
 		// Make sure the Id is valid and then find its parent
-		if (itemList.containsKey(id)) {
+		if (getItem(id) != null) {
 			currentItem = itemList.get(id);
 			status = currentItem.submitForm(form);
 		}
@@ -933,7 +1119,7 @@ public class ItemManager implements ItemListener {
 		// Check the Item id and actionName for validity
 		if (itemId > 0 && actionName != null) {
 			// Retrieve the Item from the map if it exists
-			tmpItem = itemList.get(itemId);
+			tmpItem = getItem(itemId);
 			if (tmpItem != null) {
 				status = tmpItem.process(actionName);
 			}
@@ -966,7 +1152,7 @@ public class ItemManager implements ItemListener {
 
 		// Try to delete the Item if and only if the Item's id is greater than
 		// zero and it is in the list of Items and set the return value.
-		if (itemID > 0 && this.itemList.containsKey(itemID)) {
+		if (itemID > 0 && getItem(itemID) != null) {
 			// If the provider exists, delete the Item from the provider
 			if (this.provider != null) {
 				Item item = itemList.get(itemID);
@@ -232,20 +232,9 @@ public class ICEObject implements IUpdateable {
 
 		// Only process the update if there are listeners
 		if (listeners != null && !listeners.isEmpty()) {
-			// Create a thread on which to notify the listeners.
-			Thread notifierThread = new Thread() {
-				@Override
-				public void run() {
-					// Loop over all listeners and update them
-					for (int i = 0; i < listeners.size(); i++) {
-						listeners.get(i).update(ICEObject.this);
-					}
-					return;
-				}
-			};
-
-			// Launch the thread and do the notifications
-			notifierThread.start();
+			// Post the update to the shared dispatcher, which notifies the
+			// listeners on its own threads and merges rapid updates.
+			UpdateDispatcher.getDefault().post(this, listeners);
 		}
 
 		return;
@@ -0,0 +1,383 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.datastructures.ICEObject;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * The UpdateDispatcher delivers {@link IUpdateableListener} notifications for
+ * {@link IUpdateable}s on a small, fixed pool of daemon threads instead of
+ * starting a new thread for every state change.
+ * </p>
+ * <p>
+ * Notifications are coalesced per source. When a source posts an update, its
+ * listeners are notified after a short window. Any further updates posted by
+ * the same source before the listeners are notified are merged into that one
+ * notification. Listeners always read the current state of the source, so no
+ * information is lost. At most one notification is in flight for each source,
+ * so notifications from a single source are delivered in order and never
+ * concurrently. Since there is at most one queued task per source, the work
+ * queue is bounded by the number of sources with pending updates.
+ * </p>
+ * <p>
+ * A thread that is about to make many changes can open a batch with
+ * {@link #beginBatch()}. Updates posted from that thread are held until the
+ * matching {@link #endBatch()}, at which point each source that changed posts
+ * exactly one update. Batches may be nested.
+ * </p>
+ *
+ * <pre>
+ * UpdateDispatcher dispatcher = UpdateDispatcher.getDefault();
+ * dispatcher.beginBatch();
+ * try {
+ * 	for (Entry entry : entries) {
+ * 		component.addEntry(entry);
+ * 	}
+ * } finally {
+ * 	dispatcher.endBatch();
+ * }
+ * </pre>
+ */
+public class UpdateDispatcher {
+
+	/**
+	 * Logger for handling event messages and other information.
+	 */
+	private static final Logger logger = LoggerFactory
+			.getLogger(UpdateDispatcher.class);
+
+	/**
+	 * The default window, in milliseconds, over which updates from the same
+	 * source are coalesced.
+	 */
+	public static final long DEFAULT_WINDOW = 5;
+
+	/**
+	 * The shared dispatcher used by ICEObject and the other IUpdateables in
+	 * ICE.
+	 */
+	private static final UpdateDispatcher defaultDispatcher = new UpdateDispatcher(
+			Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors())),
+			DEFAULT_WINDOW);
+
+	/**
+	 * The executor whose fixed pool of threads notifies the listeners.
+	 */
+	private final ScheduledThreadPoolExecutor executor;
+
+	/**
+	 * The coalescing window in milliseconds.
+	 */
+	private final long window;
+
+	/**
+	 * The notification that is queued or running for each source. The map is
+	 * keyed on identity because IUpdateables override equals() and
+	 * hashCode() based on their (mutable) contents. This map is also the lock
+	 * for all dispatch state.
+	 */
+	private final IdentityHashMap<IUpdateable, Dispatch> dispatches;
+
+	/**
+	 * The batch that is open on the current thread, if any.
+	 */
+	private final ThreadLocal<Batch> batches;
+
+	/**
+	 * The constructor.
+	 *
+	 * @param threads
+	 *            The number of threads used to notify listeners. Must be at
+	 *            least 1.
+	 * @param window
+	 *            The window, in milliseconds, over which updates from the same
+	 *            source are coalesced. Must not be negative.
+	 */
+	public UpdateDispatcher(int threads, long window) {
+
+		// Create the named, daemon threads for the pool
+		final String prefix = "ICE Update Dispatcher-";
+		ThreadFactory factory = new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, prefix
+						+ count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		};
+
+		executor = new ScheduledThreadPoolExecutor(Math.max(1, threads),
+				factory);
+		this.window = Math.max(0, window);
+		dispatches = new IdentityHashMap<IUpdateable, Dispatch>();
+		batches = new ThreadLocal<Batch>();
+
+		return;
+	}
+
+	/**
+	 * This operation returns the dispatcher shared by all of ICE.
+	 *
+	 * @return The default dispatcher.
+	 */
+	public static UpdateDispatcher getDefault() {
+		return defaultDispatcher;
+	}
+
+	/**
+	 * This operation posts an update for the source. The listeners will be
+	 * notified on one of the dispatcher's threads once the coalescing window
+	 * has passed, or when the current thread's batch is closed.
+	 *
+	 * @param source
+	 *            The IUpdateable that changed.
+	 * @param listeners
+	 *            The source's listeners. The list is copied when the
+	 *            notification is delivered, so the latest listeners are always
+	 *            used.
+	 */
+	public void post(IUpdateable source, List<IUpdateableListener> listeners) {
+
+		// Only process the update if there are listeners
+		if (source == null || listeners == null || listeners.isEmpty()) {
+			return;
+		}
+
+		// Hold the update if the current thread has a batch open
+		Batch batch = batches.get();
+		if (batch != null) {
+			batch.add(source, listeners);
+			return;
+		}
+
+		synchronized (dispatches) {
+			Dispatch dispatch = dispatches.get(source);
+			// Queue a new notification for the source if it does not have one
+			if (dispatch == null) {
+				dispatch = new Dispatch(source);
+				dispatch.listeners = listeners;
+				dispatch.pending = true;
+				dispatches.put(source, dispatch);
+				executor.schedule(dispatch, window, TimeUnit.MILLISECONDS);
+			}
+			// Otherwise, merge it into the queued or running notification
+			else {
+				dispatch.listeners = listeners;
+				dispatch.pending = true;
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation opens a batch on the current thread. All updates posted
+	 * from this thread are held until the batch is closed with
+	 * {@link #endBatch()}. Calls may be nested, in which case the updates are
+	 * released when the outermost batch is closed.
+	 */
+	public void beginBatch() {
+		Batch batch = batches.get();
+		if (batch == null) {
+			batch = new Batch();
+			batches.set(batch);
+		}
+		batch.depth++;
+	}
+
+	/**
+	 * This operation closes the current thread's batch. If it is the outermost
+	 * batch, one update is posted for each source that changed while it was
+	 * open. It does nothing if no batch is open.
+	 */
+	public void endBatch() {
+
+		// Local Declarations
+		Batch batch = batches.get();
+
+		if (batch != null && --batch.depth == 0) {
+			batches.remove();
+			// Post one update for each source, in the order they first changed
+			for (int i = 0; i < batch.sources.size(); i++) {
+				IUpdateable source = batch.sources.get(i);
+				post(source, batch.listeners.get(source));
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation blocks until every posted update has been delivered or
+	 * the timeout expires. Updates held in open batches are not counted.
+	 *
+	 * @param timeout
+	 *            The maximum time to wait, in milliseconds.
+	 * @return True if all updates were delivered, false if the timeout
+	 *         expired first.
+	 * @throws InterruptedException
+	 *             If the current thread is interrupted while waiting.
+	 */
+	public boolean waitUntilIdle(long timeout) throws InterruptedException {
+
+		long deadline = System.currentTimeMillis() + timeout;
+
+		synchronized (dispatches) {
+			while (!dispatches.isEmpty()) {
+				long remaining = deadline - System.currentTimeMillis();
+				if (remaining <= 0) {
+					return false;
+				}
+				dispatches.wait(remaining);
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * This operation stops the dispatcher's threads. Queued notifications are
+	 * discarded. The default dispatcher should never be shut down.
+	 */
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * The notification task for a single source. There is at most one
+	 * Dispatch queued or running for each source at any time.
+	 */
+	private class Dispatch implements Runnable {
+
+		/**
+		 * The source whose listeners are notified.
+		 */
+		private final IUpdateable source;
+
+		/**
+		 * The latest list of listeners posted for the source. Guarded by
+		 * {@link UpdateDispatcher#dispatches}.
+		 */
+		private List<IUpdateableListener> listeners;
+
+		/**
+		 * Whether or not an update was posted that the listeners have not yet
+		 * seen. Guarded by {@link UpdateDispatcher#dispatches}.
+		 */
+		private boolean pending;
+
+		/**
+		 * The constructor.
+		 *
+		 * @param source
+		 *            The source whose listeners are notified.
+		 */
+		public Dispatch(IUpdateable source) {
+			this.source = source;
+		}
+
+		/*
+		 * Implements a method from Runnable.
+		 */
+		@Override
+		public void run() {
+
+			// Local Declarations
+			IUpdateableListener[] snapshot;
+
+			// Take the pending update
+			synchronized (dispatches) {
+				pending = false;
+				snapshot = listeners.toArray(new IUpdateableListener[0]);
+			}
+
+			// Loop over all listeners and update them
+			try {
+				for (IUpdateableListener listener : snapshot) {
+					try {
+						listener.update(source);
+					} catch (RuntimeException e) {
+						logger.error(getClass().getName() + " Exception!", e);
+					}
+				}
+			} finally {
+				// If the source changed again while the listeners were being
+				// notified, queue another notification. Otherwise, this source
+				// is done. This happens even if a listener throws an Error so
+				// that the source is not stuck and waitUntilIdle() does not
+				// hang.
+				synchronized (dispatches) {
+					if (pending && !executor.isShutdown()) {
+						executor.schedule(this, window, TimeUnit.MILLISECONDS);
+					} else {
+						dispatches.remove(source);
+						if (dispatches.isEmpty()) {
+							dispatches.notifyAll();
+						}
+					}
+				}
+			}
+
+			return;
+		}
+	}
+
+	/**
+	 * The updates held by a batch on a single thread.
+	 */
+	private static class Batch {
+
+		/**
+		 * The nesting depth of the batch.
+		 */
+		private int depth = 0;
+
+		/**
+		 * The sources that changed, in the order they first changed.
+		 */
+		private final ArrayList<IUpdateable> sources = new ArrayList<IUpdateable>();
+
+		/**
+		 * The latest listeners for each source.
+		 */
+		private final IdentityHashMap<IUpdateable, List<IUpdateableListener>> listeners = new IdentityHashMap<IUpdateable, List<IUpdateableListener>>();
+
+		/**
+		 * Records an update for a source.
+		 *
+		 * @param source
+		 *            The source that changed.
+		 * @param sourceListeners
+		 *            The source's listeners.
+		 */
+		public void add(IUpdateable source,
+				List<IUpdateableListener> sourceListeners) {
+			if (listeners.put(source, sourceListeners) == null) {
+				sources.add(source);
+			}
+		}
+	}
+}
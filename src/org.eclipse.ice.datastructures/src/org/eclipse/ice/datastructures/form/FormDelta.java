@@ -0,0 +1,701 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.datastructures.form;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.xml.bind.annotation.XmlAnyElement;
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlElementWrapper;
+import javax.xml.bind.annotation.XmlRootElement;
+
+import org.eclipse.ice.datastructures.ICEObject.Component;
+
+/**
+ * <p>
+ * The FormDelta class describes the changes between two versions of a Form so
+ * that only the changes need to be sent between a client and a remote Core.
+ * Changed Entry values in DataComponents are sent as single values. Any other
+ * Component that changed or was added is sent whole, and removed Components
+ * are sent by id. A change to whether or not the Form is ready to be processed
+ * is also sent.
+ * </p>
+ * <p>
+ * A delta is created with {@link #create(Form, Form)} and applied to a copy of
+ * the base Form with {@link #apply(Form)}. Creating a delta verifies that
+ * applying it to the base Form reproduces the current Form, so changes that
+ * cannot be described this way, such as changes to the Form's name or to the
+ * order of its Components, return null and the whole Form must be sent
+ * instead.
+ * </p>
+ * <p>
+ * The versions are opaque strings, such as HTTP entity tags, that are set by
+ * the client or server that uses the delta.
+ * </p>
+ */
+@XmlRootElement(name = "FormDelta")
+public class FormDelta {
+
+	/**
+	 * The id of the Item whose Form changed.
+	 */
+	private int itemId;
+
+	/**
+	 * The version of the Form to which the delta must be applied.
+	 */
+	private String baseVersion;
+
+	/**
+	 * The version of the Form that results from applying the delta.
+	 */
+	private String version;
+
+	/**
+	 * The changed Entry values.
+	 */
+	private ArrayList<EntryValue> entryValues;
+
+	/**
+	 * The Components that were added or changed, other than by Entry values.
+	 */
+	@XmlElementWrapper
+	@XmlAnyElement(lax = true)
+	private ArrayList<Component> components;
+
+	/**
+	 * The ids of the Components that were removed.
+	 */
+	private ArrayList<Integer> removedComponents;
+
+	/**
+	 * Whether or not the Form is ready to be processed, or null if it did not
+	 * change.
+	 */
+	private Boolean ready;
+
+	/**
+	 * <p>
+	 * The EntryValue class holds the new value of a single Entry. The Entry is
+	 * identified by the id of its DataComponent and its index in the list
+	 * returned by {@link DataComponent#retrieveAllEntries()}, because Entry ids
+	 * and names are not guaranteed to be unique.
+	 * </p>
+	 */
+	public static class EntryValue {
+
+		/**
+		 * The id of the DataComponent that contains the Entry.
+		 */
+		private int componentId;
+
+		/**
+		 * The index of the Entry in its DataComponent.
+		 */
+		private int index;
+
+		/**
+		 * The new value of the Entry.
+		 */
+		private String value;
+
+		/**
+		 * The nullary constructor, used by JAXB.
+		 */
+		public EntryValue() {
+			// Nothing to do.
+		}
+
+		/**
+		 * The constructor.
+		 *
+		 * @param componentId
+		 *            The id of the DataComponent that contains the Entry.
+		 * @param index
+		 *            The index of the Entry in its DataComponent.
+		 * @param value
+		 *            The new value of the Entry.
+		 */
+		public EntryValue(int componentId, int index, String value) {
+			this.componentId = componentId;
+			this.index = index;
+			this.value = value;
+		}
+
+		/**
+		 * This operation returns the id of the DataComponent that contains the
+		 * Entry.
+		 *
+		 * @return The DataComponent id.
+		 */
+		@XmlAttribute
+		public int getComponentId() {
+			return componentId;
+		}
+
+		/**
+		 * This operation sets the id of the DataComponent that contains the
+		 * Entry.
+		 *
+		 * @param componentId
+		 *            The DataComponent id.
+		 */
+		public void setComponentId(int componentId) {
+			this.componentId = componentId;
+		}
+
+		/**
+		 * This operation returns the index of the Entry in its DataComponent.
+		 *
+		 * @return The index.
+		 */
+		@XmlAttribute
+		public int getIndex() {
+			return index;
+		}
+
+		/**
+		 * This operation sets the index of the Entry in its DataComponent.
+		 *
+		 * @param index
+		 *            The index.
+		 */
+		public void setIndex(int index) {
+			this.index = index;
+		}
+
+		/**
+		 * This operation returns the new value of the Entry.
+		 *
+		 * @return The value.
+		 */
+		@XmlAttribute
+		public String getValue() {
+			return value;
+		}
+
+		/**
+		 * This operation sets the new value of the Entry.
+		 *
+		 * @param value
+		 *            The value.
+		 */
+		public void setValue(String value) {
+			this.value = value;
+		}
+	}
+
+	/**
+	 * The nullary constructor. The delta is empty.
+	 */
+	public FormDelta() {
+		entryValues = new ArrayList<EntryValue>();
+		components = new ArrayList<Component>();
+		removedComponents = new ArrayList<Integer>();
+	}
+
+	/**
+	 * This operation creates the delta that turns one version of a Form into
+	 * another.
+	 *
+	 * @param base
+	 *            The older version of the Form.
+	 * @param current
+	 *            The newer version of the Form.
+	 * @return The delta, or null if the changes cannot be described by a delta
+	 *         and the whole Form must be sent.
+	 */
+	public static FormDelta create(Form base, Form current) {
+
+		// Local Declarations
+		FormDelta delta = new FormDelta();
+		ArrayList<Component> baseComponents;
+		ArrayList<Component> currentComponents;
+		Set<Integer> currentIds = new HashSet<Integer>();
+		ArrayList<Integer> keptIds = new ArrayList<Integer>();
+		int keptIndex = 0;
+
+		if (base == null || current == null) {
+			return null;
+		}
+		delta.itemId = current.getItemID();
+		baseComponents = base.getComponents();
+		currentComponents = current.getComponents();
+
+		// Find the removed Components. The ids must be unique.
+		for (Component component : currentComponents) {
+			if (!currentIds.add(component.getId())) {
+				return null;
+			}
+		}
+		for (Component component : baseComponents) {
+			if (currentIds.contains(component.getId())) {
+				keptIds.add(component.getId());
+			} else {
+				delta.removedComponents.add(component.getId());
+			}
+		}
+
+		// The kept Components must be in the same order, followed by the
+		// added ones.
+		for (Component component : currentComponents) {
+			Component baseComponent = base.getComponent(component.getId());
+			if (keptIndex < keptIds.size()) {
+				if (baseComponent == null
+						|| component.getId() != keptIds.get(keptIndex)) {
+					return null;
+				}
+				keptIndex++;
+				addChanges(delta, baseComponent, component);
+			} else if (baseComponent == null) {
+				delta.components.add((Component) component.clone());
+			} else {
+				return null;
+			}
+		}
+
+		// Items mark their Forms ready when they are submitted
+		if (base.isReady() != current.isReady()) {
+			delta.ready = current.isReady();
+		}
+
+		// Make sure that the delta reproduces the current Form
+		Form check = (Form) base.clone();
+		if (!delta.apply(check) || !isSame(check, current)) {
+			return null;
+		}
+
+		return delta;
+	}
+
+	/**
+	 * This operation adds the changes between two versions of a Component to
+	 * the delta. Changes to Entry values of a DataComponent are added as
+	 * EntryValues if the DataComponent did not change otherwise, and the whole
+	 * Component is added in every other case.
+	 *
+	 * @param delta
+	 *            The delta.
+	 * @param base
+	 *            The older version of the Component.
+	 * @param current
+	 *            The newer version of the Component.
+	 */
+	private static void addChanges(FormDelta delta, Component base,
+			Component current) {
+
+		// Nothing to do if the Component did not change
+		if (isSame(base, current)) {
+			return;
+		}
+
+		// Try to describe the changes to a DataComponent with its values
+		if (base instanceof DataComponent && current instanceof DataComponent) {
+			DataComponent copy = (DataComponent) base.clone();
+			ArrayList<Entry> copyEntries = copy.retrieveAllEntries();
+			ArrayList<Entry> currentEntries = ((DataComponent) current)
+					.retrieveAllEntries();
+			ArrayList<EntryValue> values = new ArrayList<EntryValue>();
+			if (copyEntries.size() == currentEntries.size()) {
+				for (int i = 0; i < currentEntries.size(); i++) {
+					String value = currentEntries.get(i).getValue();
+					String oldValue = copyEntries.get(i).getValue();
+					if (value == null ? oldValue != null : !value
+							.equals(oldValue)) {
+						copyEntries.get(i).setValue(value);
+						values.add(new EntryValue(current.getId(), i, value));
+					}
+				}
+				if (isSame(copy, current)) {
+					delta.entryValues.addAll(values);
+					return;
+				}
+			}
+		}
+
+		// Otherwise send the whole Component
+		delta.components.add((Component) current.clone());
+
+		return;
+	}
+
+	/**
+	 * This operation returns whether or not two Forms have the same content,
+	 * including the values of their Entries.
+	 *
+	 * @param form
+	 *            The first Form.
+	 * @param otherForm
+	 *            The second Form.
+	 * @return True if the Forms have the same content, false otherwise.
+	 */
+	public static boolean contentEquals(Form form, Form otherForm) {
+		return form != null && otherForm != null && isSame(form, otherForm);
+	}
+
+	/**
+	 * This operation compares two Forms or Components. Entry.equals() does
+	 * not compare values, so the values and allowed values of their Entries
+	 * are also compared.
+	 *
+	 * @param object
+	 *            The first object.
+	 * @param otherObject
+	 *            The second object.
+	 * @return True if the objects are the same, false otherwise.
+	 */
+	private static boolean isSame(Object object, Object otherObject) {
+		return object.equals(otherObject) && otherObject.equals(object)
+				&& entriesMatch(object, otherObject);
+	}
+
+	/**
+	 * This operation compares the values and allowed values of the Entries in
+	 * two Forms or Components that are otherwise equal.
+	 *
+	 * @param object
+	 *            The first object.
+	 * @param otherObject
+	 *            The second object.
+	 * @return True if all of the Entries match, false otherwise.
+	 */
+	private static boolean entriesMatch(Object object, Object otherObject) {
+
+		// Local Declarations
+		boolean match = true;
+
+		if (object == null || otherObject == null) {
+			match = (object == otherObject);
+		} else if (object instanceof Form && otherObject instanceof Form) {
+			match = componentsMatch(((Form) object).getComponents(),
+					((Form) otherObject).getComponents());
+		} else if (object instanceof DataComponent
+				&& otherObject instanceof DataComponent) {
+			match = valuesMatch(((DataComponent) object).retrieveAllEntries(),
+					((DataComponent) otherObject).retrieveAllEntries());
+		} else if (object instanceof TableComponent
+				&& otherObject instanceof TableComponent) {
+			TableComponent table = (TableComponent) object;
+			TableComponent otherTable = (TableComponent) otherObject;
+			match = table.numberOfRows() == otherTable.numberOfRows();
+			for (int i = 0; match && i < table.numberOfRows(); i++) {
+				match = valuesMatch(table.getRow(i), otherTable.getRow(i));
+			}
+		} else if (object instanceof TreeComposite
+				&& otherObject instanceof TreeComposite) {
+			TreeComposite tree = (TreeComposite) object;
+			TreeComposite otherTree = (TreeComposite) otherObject;
+			match = componentsMatch(tree.getDataNodes(),
+					otherTree.getDataNodes())
+					&& tree.getNumberOfChildren() == otherTree
+							.getNumberOfChildren();
+			for (int i = 0; match && i < tree.getNumberOfChildren(); i++) {
+				match = entriesMatch(tree.getChildAtIndex(i),
+						otherTree.getChildAtIndex(i));
+			}
+		} else if (object instanceof MasterDetailsComponent
+				&& otherObject instanceof MasterDetailsComponent) {
+			MasterDetailsComponent masters = (MasterDetailsComponent) object;
+			MasterDetailsComponent otherMasters = (MasterDetailsComponent) otherObject;
+			match = entriesMatch(masters.getGlobalsComponent(),
+					otherMasters.getGlobalsComponent())
+					&& masters.numberOfMasters() == otherMasters
+							.numberOfMasters();
+			for (int i = 0; match && i < masters.numberOfMasters(); i++) {
+				int id = Integer.parseInt(masters
+						.getUniqueMasterValueAtIndex(i).split(" ")[0]);
+				int otherId = Integer.parseInt(otherMasters
+						.getUniqueMasterValueAtIndex(i).split(" ")[0]);
+				match = entriesMatch(masters.getDetails(id),
+						otherMasters.getDetails(otherId));
+			}
+		}
+
+		return match;
+	}
+
+	/**
+	 * This operation compares the Entries of two lists of Components.
+	 *
+	 * @param components
+	 *            The first list.
+	 * @param otherComponents
+	 *            The second list.
+	 * @return True if the lists have the same size and the Entries of each
+	 *         pair of Components match, false otherwise.
+	 */
+	private static boolean componentsMatch(List<Component> components,
+			List<Component> otherComponents) {
+
+		// Local Declarations
+		boolean match = components.size() == otherComponents.size();
+
+		for (int i = 0; match && i < components.size(); i++) {
+			match = entriesMatch(components.get(i), otherComponents.get(i));
+		}
+
+		return match;
+	}
+
+	/**
+	 * This operation compares the values and allowed values of two lists of
+	 * Entries.
+	 *
+	 * @param entries
+	 *            The first list.
+	 * @param otherEntries
+	 *            The second list.
+	 * @return True if the lists have the same size and each pair of Entries
+	 *         has the same value and allowed values, false otherwise.
+	 */
+	private static boolean valuesMatch(List<Entry> entries,
+			List<Entry> otherEntries) {
+
+		// Local Declarations
+		boolean match = entries.size() == otherEntries.size();
+
+		for (int i = 0; match && i < entries.size(); i++) {
+			Entry entry = entries.get(i);
+			Entry otherEntry = otherEntries.get(i);
+			match = equal(entry.getValue(), otherEntry.getValue())
+					&& equal(entry.getAllowedValues(),
+							otherEntry.getAllowedValues());
+		}
+
+		return match;
+	}
+
+	/**
+	 * This operation compares two objects that may be null.
+	 *
+	 * @param object
+	 *            The first object.
+	 * @param otherObject
+	 *            The second object.
+	 * @return True if both are null or if they are equal, false otherwise.
+	 */
+	private static boolean equal(Object object, Object otherObject) {
+		return (object == null ? otherObject == null : object
+				.equals(otherObject));
+	}
+
+	/**
+	 * This operation applies the delta to a Form. The Form must be a copy of
+	 * the base version of the delta. If the delta cannot be applied, the Form
+	 * may have been partially modified and should be discarded.
+	 *
+	 * @param form
+	 *            The Form to update.
+	 * @return True if the delta was applied, false otherwise.
+	 */
+	public boolean apply(Form form) {
+
+		// Local Declarations
+		ArrayList<Component> formComponents;
+
+		if (form == null) {
+			return false;
+		}
+		formComponents = form.getComponents();
+
+		// Remove the Components
+		for (int id : removedComponents) {
+			if (form.getComponent(id) == null) {
+				return false;
+			}
+			form.removeComponent(id);
+		}
+
+		// Set the Entry values
+		for (EntryValue entryValue : entryValues) {
+			Component component = form.getComponent(entryValue.componentId);
+			if (!(component instanceof DataComponent)) {
+				return false;
+			}
+			ArrayList<Entry> entries = ((DataComponent) component)
+					.retrieveAllEntries();
+			if (entryValue.index < 0 || entryValue.index >= entries.size()
+					|| !entries.get(entryValue.index).setValue(
+							entryValue.value)) {
+				return false;
+			}
+		}
+
+		// Replace the changed Components in place and add the new ones
+		for (Component component : components) {
+			Component copy = (Component) component.clone();
+			int index = formComponents.indexOf(form.getComponent(copy
+					.getId()));
+			if (index >= 0) {
+				formComponents.set(index, copy);
+			} else {
+				formComponents.add(copy);
+			}
+		}
+
+		// Update the ready flag
+		if (ready != null) {
+			form.markReady(ready);
+		}
+
+		return true;
+	}
+
+	/**
+	 * This operation returns whether or not the delta contains any changes.
+	 *
+	 * @return True if the delta is empty, false otherwise.
+	 */
+	public boolean isEmpty() {
+		return entryValues.isEmpty() && components.isEmpty()
+				&& removedComponents.isEmpty() && ready == null;
+	}
+
+	/**
+	 * This operation returns the id of the Item whose Form changed.
+	 *
+	 * @return The Item id.
+	 */
+	@XmlAttribute
+	public int getItemId() {
+		return itemId;
+	}
+
+	/**
+	 * This operation sets the id of the Item whose Form changed.
+	 *
+	 * @param itemId
+	 *            The Item id.
+	 */
+	public void setItemId(int itemId) {
+		this.itemId = itemId;
+	}
+
+	/**
+	 * This operation returns the version of the Form to which the delta must
+	 * be applied.
+	 *
+	 * @return The base version, or null if it is not set.
+	 */
+	@XmlAttribute
+	public String getBaseVersion() {
+		return baseVersion;
+	}
+
+	/**
+	 * This operation sets the version of the Form to which the delta must be
+	 * applied.
+	 *
+	 * @param baseVersion
+	 *            The base version.
+	 */
+	public void setBaseVersion(String baseVersion) {
+		this.baseVersion = baseVersion;
+	}
+
+	/**
+	 * This operation returns the version of the Form that results from
+	 * applying the delta.
+	 *
+	 * @return The version, or null if it is not set.
+	 */
+	@XmlAttribute
+	public String getVersion() {
+		return version;
+	}
+
+	/**
+	 * This operation sets the version of the Form that results from applying
+	 * the delta.
+	 *
+	 * @param version
+	 *            The version.
+	 */
+	public void setVersion(String version) {
+		this.version = version;
+	}
+
+	/**
+	 * This operation returns whether or not the Form is ready to be processed.
+	 *
+	 * @return The ready flag, or null if it did not change.
+	 */
+	@XmlAttribute
+	public Boolean getReady() {
+		return ready;
+	}
+
+	/**
+	 * This operation sets whether or not the Form is ready to be processed.
+	 *
+	 * @param ready
+	 *            The ready flag, or null if it did not change.
+	 */
+	public void setReady(Boolean ready) {
+		this.ready = ready;
+	}
+
+	/**
+	 * This operation returns the changed Entry values.
+	 *
+	 * @return The Entry values.
+	 */
+	@XmlElement(name = "EntryValue")
+	public ArrayList<EntryValue> getEntryValues() {
+		return entryValues;
+	}
+
+	/**
+	 * This operation sets the changed Entry values.
+	 *
+	 * @param values
+	 *            The Entry values.
+	 */
+	public void setEntryValues(ArrayList<EntryValue> values) {
+		entryValues = (values != null ? values : new ArrayList<EntryValue>());
+	}
+
+	/**
+	 * This operation returns the Components that were added or changed other
+	 * than by Entry values.
+	 *
+	 * @return The Components.
+	 */
+	public ArrayList<Component> getComponents() {
+		return components;
+	}
+
+	/**
+	 * This operation returns the ids of the Components that were removed.
+	 *
+	 * @return The Component ids.
+	 */
+	@XmlElement(name = "RemovedComponent")
+	public ArrayList<Integer> getRemovedComponents() {
+		return removedComponents;
+	}
+
+	/**
+	 * This operation sets the ids of the Components that were removed.
+	 *
+	 * @param ids
+	 *            The Component ids.
+	 */
+	public void setRemovedComponents(ArrayList<Integer> ids) {
+		removedComponents = (ids != null ? ids : new ArrayList<Integer>());
+	}
+}
@@ -13,6 +13,7 @@
 package org.eclipse.ice.datastructures.form;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -154,6 +155,15 @@ public class Material implements Cloneable, Comparable<Material> {
 	// @XmlTransient
 	private HashMap<String, MaterialStack> components;
 
+	/**
+	 * The inputs from which the derived properties were last computed by
+	 * updateProperties(): the density followed by the amount and the atomic
+	 * mass, coherent scattering length and mass absorption coefficients of
+	 * each component. It is null if the derived properties must be computed
+	 * again.
+	 */
+	private double[] derivedInputs;
+
 	/**
 	 * The constructor.
 	 */
@@ -209,6 +219,8 @@ public class Material implements Cloneable, Comparable<Material> {
 	 */
 	public void setProperty(String key, double value) {
 		properties.put(key, value);
+		// The value may overwrite a derived property
+		derivedInputs = null;
 	}
 
 	/**
@@ -220,6 +232,7 @@ public class Material implements Cloneable, Comparable<Material> {
 	public void removeProperty(String key) {
 		if (properties.containsKey(key)) {
 			properties.remove(key);
+			derivedInputs = null;
 		}
 	}
 
@@ -365,6 +378,7 @@ public class Material implements Cloneable, Comparable<Material> {
 			this.properties = new HashMap<String, Double>(material.properties);
 			this.components = new HashMap<String, MaterialStack>(
 					material.components);
+			this.derivedInputs = null;
 		}
 	}
 
@@ -376,6 +390,11 @@ public class Material implements Cloneable, Comparable<Material> {
 	 * coefficient, and the incoherent scattering length absorption coefficient
 	 * all from the density of the material (in g/cm^3) and its components. If
 	 * called on a elemental material, does nothing.
+	 * 
+	 * The derived properties are cached. They are only computed again if the
+	 * density or the components, including their amounts and the properties
+	 * used in the calculation, changed since the last call, or if any
+	 * property was set or removed in the meantime.
 	 */
 	public void updateProperties() {
 
@@ -390,16 +409,20 @@ public class Material implements Cloneable, Comparable<Material> {
 			double b = 0;
 
 			double density = getProperty(DENSITY);
+			List<MaterialStack> list = getComponents();
+
+			// Don't compute the properties again if their inputs did not
+			// change
+			double[] inputs = getDerivedInputs(density, list);
+			if (Arrays.equals(inputs, derivedInputs)) {
+				return;
+			}
+
 			// Get the molecular mass
 			double molMass = 0;
-			List<MaterialStack> list = getComponents();
 			for (MaterialStack stack : list) {
-
 				molMass += (stack.getAmount()
 						* (stack.getMaterial().getProperty(ATOMIC_MASS)));
-				System.out
-						.println("adding mass: " + stack.getMaterial().getName()
-								+ " amount: " + molMass);
 			}
 
 			// Check if valid inputs
@@ -448,7 +471,40 @@ public class Material implements Cloneable, Comparable<Material> {
 			// Set the incoherent scattering length absorption coefficient
 			muMInc *= 1E-24 * getProperty(DENSITY);
 			setProperty(MASS_ABS_INCOHERENT, muMInc);
+
+			// Cache the inputs last since setting the properties clears them
+			derivedInputs = inputs;
+		}
+	}
+
+	/**
+	 * This operation collects the inputs of updateProperties() so that they
+	 * can be compared to those of the last calculation.
+	 * 
+	 * @param density
+	 *            The density of this material
+	 * @param list
+	 *            The components of this material
+	 * @return The density followed by the amount and the properties used from
+	 *         each component
+	 */
+	private double[] getDerivedInputs(double density, List<MaterialStack> list) {
+
+		// Local Declarations
+		double[] inputs = new double[1 + 5 * list.size()];
+		int i = 0;
+
+		inputs[i++] = density;
+		for (MaterialStack stack : list) {
+			Material mat = stack.getMaterial();
+			inputs[i++] = stack.getAmount();
+			inputs[i++] = mat.getProperty(ATOMIC_MASS);
+			inputs[i++] = mat.getProperty(COHERENT_SCAT_LENGTH);
+			inputs[i++] = mat.getProperty(MASS_ABS_COHERENT);
+			inputs[i++] = mat.getProperty(MASS_ABS_INCOHERENT);
 		}
+
+		return inputs;
 	}
 
 	/**
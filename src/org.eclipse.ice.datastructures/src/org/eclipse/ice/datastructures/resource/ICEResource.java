@@ -176,6 +176,17 @@ public class ICEResource extends ICEObject {
 		return file;
 	}
 
+	/**
+	 * <p>
+	 * This operation notifies the listeners of the Resource that the contents
+	 * of its file have changed, such as when rows are appended to a data file
+	 * while it is being plotted.
+	 * </p>
+	 */
+	public void contentsChanged() {
+		notifyListeners();
+	}
+
 	/**
 	 * <p>
 	 * This operation returns the URI to the Resource.
@@ -12,15 +12,18 @@
 package org.eclipse.ice.io.csv;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
-
-import javax.naming.OperationNotSupportedException;
+import java.util.Arrays;
+import java.util.regex.Pattern;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.ice.datastructures.ICEObject.ListComponent;
+import org.eclipse.ice.datastructures.form.AllowedValueType;
 import org.eclipse.ice.datastructures.form.Entry;
 import org.eclipse.ice.datastructures.form.Form;
 import org.eclipse.ice.io.serializable.IReader;
@@ -34,6 +37,13 @@ import org.slf4j.LoggerFactory;
  * the ListComponent is a line of the file, split and trimmed but uncast.
  * Clients must know the concrete type to which they want to cast.
  *
+ * The Form also holds a {@link CSVTable} with the id {@link #tableId} that
+ * stores the same values by column as typed primitive arrays. Clients that only
+ * need the values should use the table, or read it without the lines by
+ * calling {@link #readTable(IFile)}, which is much faster and smaller for large
+ * files. The table is parsed in parallel and, unlike the lines, it understands
+ * quoted fields.
+ *
  * Comments are ignored and begin with the "#" character.
  *
  * @author Jay Jay Billings
@@ -47,6 +57,13 @@ public class CSVReader implements IReader {
 	private static final Logger logger = LoggerFactory
 			.getLogger(CSVReader.class);
 
+	/**
+	 * The id of the {@link CSVTable} in the Forms returned by
+	 * {@link #read(IFile)}. The ListComponent of lines keeps the default id of
+	 * 1.
+	 */
+	public static final int tableId = 2;
+
 	/**
 	 * The lines of text read from the last file.
 	 */
@@ -74,8 +91,9 @@ public class CSVReader implements IReader {
 
 		try {
 			// Grab the contents of the file
+			byte[] contents = readContents(file.getContents());
 			BufferedReader reader = new BufferedReader(new InputStreamReader(
-					file.getContents()));
+					new ByteArrayInputStream(contents)));
 			String line = null;
 			while ((line = reader.readLine()) != null) {
 				// Skip lines that pure comments
@@ -89,14 +107,21 @@ public class CSVReader implements IReader {
 					// Clean up any crap on the line
 					String[] lineArray = line.trim().split(",");
 					// And clean up any crap on each split piece
-					for (String element : lineArray) {
-						element = element.trim();
+					for (int i = 0; i < lineArray.length; i++) {
+						lineArray[i] = lineArray[i].trim();
 					}
 					// Put the lines in the list
 					lines.add(lineArray);
 				}
 			}
 			form.addComponent(lines);
+
+			// Add the values as a table too
+			CSVTable table = CSVTableParser.parse(contents);
+			table.setId(tableId);
+			table.setName(file.getName());
+			table.setDescription(file.getName());
+			form.addComponent(table);
 		} catch (CoreException e) {
 			// Complain
 			logger.error(getClass().getName() + " Exception!",e);
@@ -108,23 +133,116 @@ public class CSVReader implements IReader {
 		return form;
 	}
 
-	/*
-	 * (non-Javadoc)
+	/**
+	 * This operation reads the values of a CSV file into a {@link CSVTable}
+	 * without creating the lines of Strings that {@link #read(IFile)} does.
 	 *
-	 * @see
-	 * org.eclipse.ice.io.serializable.IReader#findAll(org.eclipse.core.resources
-	 * .IFile, java.lang.String)
+	 * @param file
+	 *            The file to read.
+	 * @return The table, or null if the file could not be read.
+	 */
+	public CSVTable readTable(IFile file) {
+
+		// Local Declarations
+		CSVTable table = null;
+
+		try {
+			table = readTable(file.getContents());
+			table.setId(tableId);
+			table.setName(file.getName());
+			table.setDescription(file.getName());
+		} catch (CoreException e) {
+			// Complain
+			logger.error(getClass().getName() + " Exception!", e);
+		} catch (IOException e) {
+			logger.error(getClass().getName() + " Exception!", e);
+		}
+
+		return table;
+	}
+
+	/**
+	 * This operation reads the values of a CSV stream into a {@link CSVTable}.
+	 * It is the same as {@link #readTable(IFile)} for contents that are not in
+	 * the workspace.
+	 *
+	 * @param stream
+	 *            The stream to read. It is closed when it has been read.
+	 * @return The table.
+	 * @throws IOException
+	 *             Thrown when the stream cannot be read
+	 */
+	public CSVTable readTable(InputStream stream) throws IOException {
+		return CSVTableParser.parse(readContents(stream));
+	}
+
+	/**
+	 * This realization of IReader.findAll() reads the file into a
+	 * {@link CSVTable} and returns an Entry for every value that matches the
+	 * regular expression. Each Entry is named after the column of the value,
+	 * its id is the row and its value is the value. Numbers are matched as
+	 * they are written by {@link CSVTable#getString(int, int)}. Text is
+	 * matched once for each distinct String in the table.
+	 *
+	 * @param file
+	 *            The file to search.
+	 * @param regex
+	 *            The regular expression to match.
+	 * @return The Entries of the matching values, or null if the file could
+	 *         not be read.
+	 * @see org.eclipse.ice.io.serializable.IReader#findAll(IFile, String)
 	 */
 	@Override
 	public ArrayList<Entry> findAll(IFile file, String regex) {
-		try {
-			throw new OperationNotSupportedException("CSVReader Error: "
-					+ "IReader.findAll() is not supported... yet.");
-		} catch (OperationNotSupportedException e) {
-			// TODO Auto-generated catch block
-			logger.error(getClass().getName() + " Exception!",e);
+
+		// Local Declarations
+		ArrayList<Entry> matchedEntries = new ArrayList<Entry>();
+		CSVTable table = readTable(file);
+		Pattern pattern = Pattern.compile(regex);
+		String name, value;
+		Entry foundEntry;
+		boolean matched;
+
+		// Make sure there's something to look in
+		if (table == null) {
+			return null;
 		}
-		return null;
+
+		// Remember which Strings in the dictionary match, 0 if they have not
+		// been checked yet, 1 if they match and -1 if they do not
+		byte[] matches = new byte[table.getDictionarySize()];
+
+		// Check every value of every column
+		for (int i = 0; i < table.getNumberOfColumns(); i++) {
+			name = table.getColumnName(i);
+			if (name == null) {
+				name = "Column " + (i + 1);
+			}
+			for (int j = 0; j < table.getNumberOfRows(); j++) {
+				if (table.getColumnType(i) == CSVTable.ColumnType.STRING) {
+					int code = table.getStringCode(j, i);
+					if (matches[code] == 0) {
+						matches[code] = (byte) (pattern.matcher(
+								table.getDictionaryString(code)).matches() ? 1
+								: -1);
+					}
+					matched = (matches[code] == 1);
+				} else {
+					matched = pattern.matcher(table.getString(j, i)).matches();
+				}
+				if (matched) {
+					value = table.getString(j, i);
+					foundEntry = makeCSVEntry();
+					foundEntry.setName(name);
+					foundEntry.setId(j);
+					foundEntry.setDescription(regex);
+					foundEntry.setValue(value);
+					matchedEntries.add(foundEntry);
+				}
+			}
+		}
+
+		return matchedEntries;
 	}
 
 	/*
@@ -137,4 +255,59 @@ public class CSVReader implements IReader {
 		return "csv";
 	}
 
+	/**
+	 * This operation reads all of the bytes of a stream and closes it.
+	 *
+	 * @param stream
+	 *            The stream to read.
+	 * @return The contents of the stream.
+	 * @throws IOException
+	 *             Thrown when the stream cannot be read
+	 */
+	private byte[] readContents(InputStream stream) throws IOException {
+
+		// Local Declarations
+		byte[] contents = new byte[65536];
+		int length = 0, bytesRead;
+
+		try {
+			while ((bytesRead = stream.read(contents, length, contents.length
+					- length)) >= 0) {
+				length += bytesRead;
+				if (length == contents.length) {
+					contents = Arrays.copyOf(contents, contents.length * 2);
+				}
+			}
+		} finally {
+			stream.close();
+		}
+
+		return (length == contents.length ? contents : Arrays.copyOf(
+				contents, length));
+	}
+
+	/**
+	 * Initialize a default entry for the values found by
+	 * {@link #findAll(IFile, String)}.
+	 *
+	 * @return the default CSV entry
+	 */
+	private Entry makeCSVEntry() {
+		Entry entry = new Entry() {
+			@Override
+			protected void setup() {
+				this.setName("CSV Default Entry");
+				this.tag = "";
+				this.ready = true;
+				this.setDescription("");
+				this.allowedValues = new ArrayList<String>();
+				this.defaultValue = "";
+				this.value = this.defaultValue;
+				this.allowedValueType = AllowedValueType.Undefined;
+			}
+		};
+
+		return entry;
+	}
+
 }
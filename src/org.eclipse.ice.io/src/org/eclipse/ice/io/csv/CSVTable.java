@@ -0,0 +1,484 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.io.csv;
+
+import java.util.Arrays;
+
+import org.eclipse.ice.datastructures.ICEObject.Component;
+import org.eclipse.ice.datastructures.ICEObject.ICEObject;
+import org.eclipse.ice.datastructures.componentVisitor.IComponentVisitor;
+
+/**
+ * This class is a Component that holds the values of a CSV file by column
+ * instead of by line. Each column has a single type that is determined when
+ * the file is read:
+ * <ul>
+ * <li>{@link ColumnType#LONG} columns only hold integers and are stored in a
+ * long[].</li>
+ * <li>{@link ColumnType#DOUBLE} columns hold numbers and are stored in a
+ * double[]. Missing values are NaN.</li>
+ * <li>{@link ColumnType#STRING} columns hold anything else. Each distinct
+ * String is stored once in a dictionary that is shared by all of the columns
+ * and the column only stores an int code for each row.</li>
+ * </ul>
+ * This takes a fraction of the memory needed to hold every line as an array
+ * of Strings and clients do not need to parse the values again.
+ *
+ * If the first row of the file does not have any numbers in it and there are
+ * more rows, it is used as the names of the columns instead of as data.
+ *
+ * Tables are created by the {@link CSVReader}.
+ *
+ */
+public class CSVTable extends ICEObject implements Component {
+
+	/**
+	 * The types of values that can be stored in a column.
+	 */
+	public enum ColumnType {
+		/**
+		 * The column only holds integers.
+		 */
+		LONG,
+		/**
+		 * The column holds numbers, some of which are not integers or are
+		 * missing.
+		 */
+		DOUBLE,
+		/**
+		 * The column holds text.
+		 */
+		STRING
+	}
+
+	/**
+	 * The names of the columns from the header row, or null if the file did
+	 * not have a header.
+	 */
+	private String[] columnNames;
+
+	/**
+	 * The type of each column.
+	 */
+	private ColumnType[] columnTypes;
+
+	/**
+	 * The values of each column. These are long[], double[] or int[] arrays of
+	 * dictionary codes depending on the type of the column.
+	 */
+	private Object[] columns;
+
+	/**
+	 * The number of rows in the table.
+	 */
+	private int numRows;
+
+	/**
+	 * The distinct Strings in the table, indexed by their codes.
+	 */
+	private String[] dictionary;
+
+	/**
+	 * The constructor. It creates an empty table.
+	 */
+	public CSVTable() {
+		this(null, new ColumnType[0], new Object[0], 0, new String[0]);
+	}
+
+	/**
+	 * The constructor used by the {@link CSVReader} to create a table from
+	 * the columns it has read.
+	 *
+	 * @param columnNames
+	 *            The names of the columns, or null if there are none.
+	 * @param columnTypes
+	 *            The type of each column.
+	 * @param columns
+	 *            The values of each column with one array per column that
+	 *            matches its type.
+	 * @param numRows
+	 *            The number of rows in the table.
+	 * @param dictionary
+	 *            The distinct Strings in the STRING columns, indexed by their
+	 *            codes.
+	 */
+	CSVTable(String[] columnNames, ColumnType[] columnTypes,
+			Object[] columns, int numRows, String[] dictionary) {
+		this.columnNames = columnNames;
+		this.columnTypes = columnTypes;
+		this.columns = columns;
+		this.numRows = numRows;
+		this.dictionary = dictionary;
+	}
+
+	/**
+	 * This operation returns the number of rows of data in the table, not
+	 * counting the header.
+	 *
+	 * @return The number of rows.
+	 */
+	public int getNumberOfRows() {
+		return numRows;
+	}
+
+	/**
+	 * This operation returns the number of columns in the table, which is the
+	 * largest number of values in any row.
+	 *
+	 * @return The number of columns.
+	 */
+	public int getNumberOfColumns() {
+		return columnTypes.length;
+	}
+
+	/**
+	 * This operation returns whether or not the first row of the file was
+	 * read as the names of the columns.
+	 *
+	 * @return True if the columns have names, false otherwise.
+	 */
+	public boolean hasHeader() {
+		return columnNames != null;
+	}
+
+	/**
+	 * This operation returns the name of a column from the header row.
+	 *
+	 * @param column
+	 *            The index of the column.
+	 * @return The name of the column, or null if the table does not have a
+	 *         header or the header does not name the column.
+	 */
+	public String getColumnName(int column) {
+		checkColumn(column);
+		return (columnNames != null && column < columnNames.length
+				? columnNames[column] : null);
+	}
+
+	/**
+	 * This operation returns the type of the values in a column.
+	 *
+	 * @param column
+	 *            The index of the column.
+	 * @return The type of the column.
+	 */
+	public ColumnType getColumnType(int column) {
+		checkColumn(column);
+		return columnTypes[column];
+	}
+
+	/**
+	 * This operation returns a value in a numeric column as a double.
+	 *
+	 * @param row
+	 *            The index of the row.
+	 * @param column
+	 *            The index of the column.
+	 * @return The value. Missing values are NaN.
+	 * @throws IllegalArgumentException
+	 *             Thrown when the column is not numeric
+	 */
+	public double getDouble(int row, int column) {
+		checkRow(row);
+		checkColumn(column);
+		if (columnTypes[column] == ColumnType.DOUBLE) {
+			return ((double[]) columns[column])[row];
+		} else if (columnTypes[column] == ColumnType.LONG) {
+			return ((long[]) columns[column])[row];
+		}
+		throw notNumeric(column);
+	}
+
+	/**
+	 * This operation returns a value in a numeric column as a long. Doubles
+	 * are truncated.
+	 *
+	 * @param row
+	 *            The index of the row.
+	 * @param column
+	 *            The index of the column.
+	 * @return The value.
+	 * @throws IllegalArgumentException
+	 *             Thrown when the column is not numeric
+	 */
+	public long getLong(int row, int column) {
+		checkRow(row);
+		checkColumn(column);
+		if (columnTypes[column] == ColumnType.LONG) {
+			return ((long[]) columns[column])[row];
+		} else if (columnTypes[column] == ColumnType.DOUBLE) {
+			return (long) ((double[]) columns[column])[row];
+		}
+		throw notNumeric(column);
+	}
+
+	/**
+	 * This operation returns a value as a String. Numbers are converted with
+	 * {@link Long#toString(long)} or {@link Double#toString(double)}, so they
+	 * may not be written the same way that they were in the file. Missing
+	 * values are empty Strings.
+	 *
+	 * @param row
+	 *            The index of the row.
+	 * @param column
+	 *            The index of the column.
+	 * @return The value.
+	 */
+	public String getString(int row, int column) {
+		checkRow(row);
+		checkColumn(column);
+		if (columnTypes[column] == ColumnType.STRING) {
+			return dictionary[((int[]) columns[column])[row]];
+		} else if (columnTypes[column] == ColumnType.LONG) {
+			return Long.toString(((long[]) columns[column])[row]);
+		}
+		double value = ((double[]) columns[column])[row];
+		return (Double.isNaN(value) ? "" : Double.toString(value));
+	}
+
+	/**
+	 * This operation returns a copy of the values of a numeric column.
+	 *
+	 * @param column
+	 *            The index of the column.
+	 * @return The values of the column. LONG columns are converted to
+	 *         doubles.
+	 * @throws IllegalArgumentException
+	 *             Thrown when the column is not numeric
+	 */
+	public double[] getDoubleColumn(int column) {
+		checkColumn(column);
+		if (columnTypes[column] == ColumnType.DOUBLE) {
+			return Arrays.copyOf((double[]) columns[column], numRows);
+		} else if (columnTypes[column] == ColumnType.LONG) {
+			long[] values = (long[]) columns[column];
+			double[] doubles = new double[numRows];
+			for (int i = 0; i < numRows; i++) {
+				doubles[i] = values[i];
+			}
+			return doubles;
+		}
+		throw notNumeric(column);
+	}
+
+	/**
+	 * This operation returns a copy of the values of a LONG column.
+	 *
+	 * @param column
+	 *            The index of the column.
+	 * @return The values of the column.
+	 * @throws IllegalArgumentException
+	 *             Thrown when the column is not a LONG column
+	 */
+	public long[] getLongColumn(int column) {
+		checkColumn(column);
+		if (columnTypes[column] != ColumnType.LONG) {
+			throw new IllegalArgumentException("CSVTable Message: Column "
+					+ column + " is not a column of integers.");
+		}
+		return Arrays.copyOf((long[]) columns[column], numRows);
+	}
+
+	/**
+	 * This operation returns the dictionary code of a value in a STRING
+	 * column. Equal Strings have equal codes.
+	 *
+	 * @param row
+	 *            The index of the row.
+	 * @param column
+	 *            The index of the column.
+	 * @return The code of the value.
+	 * @throws IllegalArgumentException
+	 *             Thrown when the column is not a STRING column
+	 */
+	public int getStringCode(int row, int column) {
+		checkRow(row);
+		checkColumn(column);
+		if (columnTypes[column] != ColumnType.STRING) {
+			throw new IllegalArgumentException("CSVTable Message: Column "
+					+ column + " is not a column of text.");
+		}
+		return ((int[]) columns[column])[row];
+	}
+
+	/**
+	 * This operation returns the number of distinct Strings in the table.
+	 *
+	 * @return The size of the dictionary.
+	 */
+	public int getDictionarySize() {
+		return dictionary.length;
+	}
+
+	/**
+	 * This operation returns the String with a dictionary code.
+	 *
+	 * @param code
+	 *            The code.
+	 * @return The String.
+	 */
+	public String getDictionaryString(int code) {
+		return dictionary[code];
+	}
+
+	/**
+	 * There is no visitor operation for tables yet, so this operation does
+	 * nothing.
+	 *
+	 * @see Component#accept(IComponentVisitor)
+	 */
+	@Override
+	public void accept(IComponentVisitor visitor) {
+		return;
+	}
+
+	/**
+	 * This operation copies the contents of another table into this one. The
+	 * column arrays are shared because they are never changed.
+	 *
+	 * @param otherTable
+	 *            The table to copy.
+	 */
+	public void copy(CSVTable otherTable) {
+
+		// Return if null
+		if (otherTable == null) {
+			return;
+		}
+
+		// Copy the ICEObject data and the columns
+		super.copy(otherTable);
+		columnNames = otherTable.columnNames;
+		columnTypes = otherTable.columnTypes;
+		columns = otherTable.columns;
+		numRows = otherTable.numRows;
+		dictionary = otherTable.dictionary;
+
+		notifyListeners();
+
+		return;
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see ICEObject#clone()
+	 */
+	@Override
+	public Object clone() {
+
+		// Create a new table and copy this one into it
+		CSVTable table = new CSVTable();
+		table.copy(this);
+
+		return table;
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see ICEObject#equals(Object)
+	 */
+	@Override
+	public boolean equals(Object otherObject) {
+
+		// Local Declarations
+		boolean retVal = false;
+
+		if (otherObject instanceof CSVTable && super.equals(otherObject)) {
+			CSVTable otherTable = (CSVTable) otherObject;
+			retVal = (numRows == otherTable.numRows)
+					&& Arrays.equals(columnNames, otherTable.columnNames)
+					&& Arrays.equals(columnTypes, otherTable.columnTypes);
+			// Compare the values of each column
+			for (int i = 0; retVal && i < columnTypes.length; i++) {
+				for (int j = 0; retVal && j < numRows; j++) {
+					if (columnTypes[i] == ColumnType.DOUBLE) {
+						retVal = Double.compare(getDouble(j, i),
+								otherTable.getDouble(j, i)) == 0;
+					} else if (columnTypes[i] == ColumnType.LONG) {
+						retVal = getLong(j, i) == otherTable.getLong(j, i);
+					} else {
+						retVal = getString(j, i).equals(
+								otherTable.getString(j, i));
+					}
+				}
+			}
+		}
+
+		return retVal;
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see ICEObject#hashCode()
+	 */
+	@Override
+	public int hashCode() {
+
+		// Local Declarations
+		int hash = super.hashCode();
+
+		// Compute the hash code from the shape of the table
+		hash = 31 * hash + numRows;
+		hash = 31 * hash + Arrays.hashCode(columnNames);
+		hash = 31 * hash + Arrays.hashCode(columnTypes);
+
+		return hash;
+	}
+
+	/**
+	 * This operation checks that a row is in the table.
+	 *
+	 * @param row
+	 *            The index of the row.
+	 * @throws IndexOutOfBoundsException
+	 *             Thrown when the row is not in the table
+	 */
+	private void checkRow(int row) {
+		if (row < 0 || row >= numRows) {
+			throw new IndexOutOfBoundsException("CSVTable Message: Row "
+					+ row + " is not in the table of " + numRows + " rows.");
+		}
+	}
+
+	/**
+	 * This operation checks that a column is in the table.
+	 *
+	 * @param column
+	 *            The index of the column.
+	 * @throws IndexOutOfBoundsException
+	 *             Thrown when the column is not in the table
+	 */
+	private void checkColumn(int column) {
+		if (column < 0 || column >= columnTypes.length) {
+			throw new IndexOutOfBoundsException("CSVTable Message: Column "
+					+ column + " is not in the table of "
+					+ columnTypes.length + " columns.");
+		}
+	}
+
+	/**
+	 * This operation creates the exception thrown when a column is used as a
+	 * number but holds text.
+	 *
+	 * @param column
+	 *            The index of the column.
+	 * @return The exception.
+	 */
+	private IllegalArgumentException notNumeric(int column) {
+		return new IllegalArgumentException("CSVTable Message: Column "
+				+ column + " is not a column of numbers.");
+	}
+}
@@ -0,0 +1,891 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.io.csv;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.eclipse.ice.io.csv.CSVTable.ColumnType;
+
+/**
+ * This class parses the contents of a CSV file into a {@link CSVTable}. The
+ * contents are split into chunks of whole records that are parsed in
+ * parallel:
+ * <ol>
+ * <li>A single pass over the bytes finds where the chunks start. It only
+ * tracks whether each byte is inside a quoted field or a comment, so a chunk
+ * never starts inside a quoted field that spans lines.</li>
+ * <li>Each chunk is scanned to count its rows and find the widest type of each
+ * of its columns.</li>
+ * <li>The column types are merged and the arrays of the table are allocated.
+ * </li>
+ * <li>Each chunk parses its values into its own rows of the arrays. Strings
+ * are interned in a dictionary for each chunk and the dictionaries are merged
+ * at the end.</li>
+ * </ol>
+ *
+ * Fields are separated by commas and may be quoted with double quotes, in
+ * which case they can hold commas, newlines and doubled quotes. Whitespace
+ * around unquoted fields is trimmed. Everything after a "#" that is not in a
+ * quoted field is a comment and blank lines are ignored.
+ *
+ */
+class CSVTableParser {
+
+	/**
+	 * The thread pool used to parse the chunks in parallel. Its threads are
+	 * daemons so that it never keeps the platform alive.
+	 */
+	private static final ExecutorService executor = Executors
+			.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+					new ThreadFactory() {
+						@Override
+						public Thread newThread(Runnable runnable) {
+							Thread thread = new Thread(runnable,
+									"ICE CSV Table Parser");
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+
+	/**
+	 * The smallest number of bytes in a chunk.
+	 */
+	private static final int minChunkSize = 1 << 20;
+
+	/**
+	 * The charset used to decode Strings.
+	 */
+	private static final Charset charset = Charset.forName("UTF-8");
+
+	/**
+	 * The powers of ten that are exactly representable as doubles.
+	 */
+	private static final double[] powersOfTen = { 1e0, 1e1, 1e2, 1e3, 1e4,
+			1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16,
+			1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+	/**
+	 * The kind of a cell that has no value.
+	 */
+	private static final int emptyCell = -1;
+
+	/**
+	 * This operation parses the contents of a CSV file into a table.
+	 *
+	 * @param contents
+	 *            The bytes of the file.
+	 * @return The table.
+	 * @throws IOException
+	 *             Thrown when the parsing threads fail
+	 */
+	public static CSVTable parse(final byte[] contents) throws IOException {
+
+		// Local Declarations
+		int numThreads = Runtime.getRuntime().availableProcessors();
+		int chunkSize = Math.max(minChunkSize, contents.length
+				/ (4 * numThreads));
+		List<Chunk> chunks = new ArrayList<Chunk>();
+		List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+
+		// Split the contents into chunks of whole records
+		int start = 0;
+		for (int end : findChunkEnds(contents, chunkSize)) {
+			chunks.add(new Chunk(contents, start, end));
+			start = end;
+		}
+
+		// Scan the chunks to find the shape of the table
+		for (final Chunk chunk : chunks) {
+			tasks.add(new Callable<Void>() {
+				@Override
+				public Void call() {
+					chunk.scan();
+					return null;
+				}
+			});
+		}
+		run(tasks);
+
+		// Read the header and merge the column types
+		String[] columnNames = null;
+		Chunk first = null;
+		int numRecords = 0, numColumns = 0;
+		for (Chunk chunk : chunks) {
+			if (first == null && chunk.numRecords > 0) {
+				first = chunk;
+			}
+			numRecords += chunk.numRecords;
+			numColumns = Math.max(numColumns, chunk.numColumns);
+			if (chunk.firstKinds != null) {
+				numColumns = Math.max(numColumns, chunk.firstKinds.length);
+			}
+		}
+		if (first != null && numRecords > 1 && !first.firstHasNumbers) {
+			columnNames = first.firstRecord;
+			first.skipFirst = true;
+			numRecords--;
+		}
+		ColumnType[] types = mergeTypes(chunks, numColumns);
+
+		// Allocate the columns
+		Object[] columns = new Object[numColumns];
+		for (int i = 0; i < numColumns; i++) {
+			if (types[i] == ColumnType.LONG) {
+				columns[i] = new long[numRecords];
+			} else if (types[i] == ColumnType.DOUBLE) {
+				columns[i] = new double[numRecords];
+			} else {
+				columns[i] = new int[numRecords];
+			}
+		}
+
+		// Parse the values of each chunk into its rows
+		tasks.clear();
+		int firstRow = 0;
+		for (final Chunk chunk : chunks) {
+			final int chunkRow = firstRow;
+			final ColumnType[] columnTypes = types;
+			final Object[] columnArrays = columns;
+			tasks.add(new Callable<Void>() {
+				@Override
+				public Void call() {
+					chunk.parse(columnTypes, columnArrays, chunkRow);
+					return null;
+				}
+			});
+			firstRow += chunk.numRecords - (chunk.skipFirst ? 1 : 0);
+		}
+		run(tasks);
+
+		// Merge the dictionaries of the chunks
+		String[] dictionary = mergeDictionaries(chunks, types, columns);
+
+		return new CSVTable(columnNames, types, columns, numRecords,
+				dictionary);
+	}
+
+	/**
+	 * This operation finds the ends of the chunks. A chunk ends after the
+	 * first newline past its target size that is not in a quoted field.
+	 *
+	 * @param contents
+	 *            The bytes of the file.
+	 * @param chunkSize
+	 *            The target size of each chunk.
+	 * @return The offset after the end of each chunk.
+	 */
+	private static List<Integer> findChunkEnds(byte[] contents, int chunkSize) {
+
+		// Local Declarations
+		List<Integer> ends = new ArrayList<Integer>();
+		boolean cellStart = true, quoted = false, comment = false;
+		int target = chunkSize;
+		byte currByte;
+
+		for (int i = 0; i < contents.length; i++) {
+			currByte = contents[i];
+			if (quoted) {
+				// Only a quote that is not doubled ends the field
+				if (currByte == '"') {
+					if (i + 1 < contents.length && contents[i + 1] == '"') {
+						i++;
+					} else {
+						quoted = false;
+					}
+				}
+			} else if (currByte == '\n') {
+				comment = false;
+				cellStart = true;
+				if (i + 1 >= target && i + 1 < contents.length) {
+					ends.add(i + 1);
+					target = i + 1 + chunkSize;
+				}
+			} else if (comment) {
+				continue;
+			} else if (currByte == ',') {
+				cellStart = true;
+			} else if (currByte == '#') {
+				comment = true;
+			} else if (currByte == '"' && cellStart) {
+				quoted = true;
+				cellStart = false;
+			} else if (currByte != ' ' && currByte != '\t' && currByte != '\r') {
+				cellStart = false;
+			}
+		}
+		ends.add(contents.length);
+
+		return ends;
+	}
+
+	/**
+	 * This operation merges the column types found by each chunk. Integer
+	 * columns with missing values and columns without any values are stored
+	 * as doubles so that NaN can mark the missing values.
+	 *
+	 * @param chunks
+	 *            The scanned chunks. The first record of the chunk with the
+	 *            header must already be marked to be skipped.
+	 * @param numColumns
+	 *            The number of columns.
+	 * @return The type of each column.
+	 */
+	private static ColumnType[] mergeTypes(List<Chunk> chunks, int numColumns) {
+
+		// Local Declarations
+		int[] kinds = new int[numColumns];
+		boolean[] missing = new boolean[numColumns];
+		ColumnType[] types = new ColumnType[numColumns];
+
+		Arrays.fill(kinds, emptyCell);
+		for (Chunk chunk : chunks) {
+			for (int i = 0; i < chunk.kinds.length; i++) {
+				kinds[i] = Math.max(kinds[i], chunk.kinds[i]);
+				missing[i] |= chunk.missing[i];
+			}
+			// Records that are shorter than the table are missing values in
+			// the last columns
+			for (int i = chunk.minColumns; i < numColumns; i++) {
+				missing[i] = true;
+			}
+			// Merge the first record of the chunk unless it is the header
+			if (chunk.firstKinds != null && !chunk.skipFirst) {
+				for (int i = 0; i < numColumns; i++) {
+					int kind = (i < chunk.firstKinds.length ? chunk.firstKinds[i]
+							: emptyCell);
+					kinds[i] = Math.max(kinds[i], kind);
+					missing[i] |= (kind == emptyCell);
+				}
+			}
+		}
+
+		for (int i = 0; i < numColumns; i++) {
+			if (kinds[i] == ColumnType.STRING.ordinal()) {
+				types[i] = ColumnType.STRING;
+			} else if (kinds[i] == ColumnType.LONG.ordinal() && !missing[i]) {
+				types[i] = ColumnType.LONG;
+			} else {
+				types[i] = ColumnType.DOUBLE;
+			}
+		}
+
+		return types;
+	}
+
+	/**
+	 * This operation merges the dictionaries of the chunks into one and
+	 * replaces the codes of each chunk in the STRING columns with the merged
+	 * codes.
+	 *
+	 * @param chunks
+	 *            The parsed chunks.
+	 * @param types
+	 *            The type of each column.
+	 * @param columns
+	 *            The values of each column.
+	 * @return The merged dictionary.
+	 */
+	private static String[] mergeDictionaries(List<Chunk> chunks,
+			ColumnType[] types, Object[] columns) {
+
+		// Local Declarations
+		Map<String, Integer> codes = new HashMap<String, Integer>();
+		List<String> dictionary = new ArrayList<String>();
+
+		for (Chunk chunk : chunks) {
+			// Find the merged code of each String in the chunk
+			int[] newCodes = new int[chunk.dictionary.size()];
+			for (int i = 0; i < newCodes.length; i++) {
+				String value = chunk.dictionary.get(i);
+				Integer code = codes.get(value);
+				if (code == null) {
+					code = dictionary.size();
+					codes.put(value, code);
+					dictionary.add(value);
+				}
+				newCodes[i] = code;
+			}
+			// Replace the codes in the rows of the chunk
+			for (int i = 0; i < types.length; i++) {
+				if (types[i] == ColumnType.STRING) {
+					int[] column = (int[]) columns[i];
+					for (int j = chunk.firstRow; j < chunk.endRow; j++) {
+						column[j] = newCodes[column[j]];
+					}
+				}
+			}
+		}
+
+		return dictionary.toArray(new String[dictionary.size()]);
+	}
+
+	/**
+	 * This operation runs tasks in the thread pool and waits for them.
+	 *
+	 * @param tasks
+	 *            The tasks.
+	 * @throws IOException
+	 *             Thrown when a task fails or the thread is interrupted
+	 */
+	private static void run(List<Callable<Void>> tasks) throws IOException {
+		try {
+			for (Future<Void> future : executor.invokeAll(tasks)) {
+				try {
+					future.get();
+				} catch (ExecutionException e) {
+					throw new IOException(e.getCause());
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException(e);
+		}
+	}
+
+	/**
+	 * This class reads the records in one chunk of the file.
+	 */
+	private static class Chunk {
+
+		/**
+		 * The bytes of the file.
+		 */
+		private final byte[] contents;
+
+		/**
+		 * The offset of the first byte of the chunk.
+		 */
+		private final int start;
+
+		/**
+		 * The offset after the last byte of the chunk.
+		 */
+		private final int end;
+
+		/**
+		 * The offset of the next byte to read.
+		 */
+		private int position;
+
+		/**
+		 * The bounds of each cell in the current record and whether or not it
+		 * was quoted.
+		 */
+		private int[] cellStarts = new int[16], cellEnds = new int[16];
+		private boolean[] cellQuoted = new boolean[16];
+
+		/**
+		 * The number of cells in the current record.
+		 */
+		private int numCells;
+
+		/**
+		 * The number of records in the chunk.
+		 */
+		private int numRecords;
+
+		/**
+		 * The largest and smallest number of cells in a record of the chunk,
+		 * not counting its first record.
+		 */
+		private int numColumns, minColumns = Integer.MAX_VALUE;
+
+		/**
+		 * The widest kind of value, which is the ordinal of a ColumnType or
+		 * emptyCell, found in each column of the chunk.
+		 */
+		private int[] kinds = new int[0];
+
+		/**
+		 * Whether or not each column of the chunk has an empty cell.
+		 */
+		private boolean[] missing = new boolean[0];
+
+		/**
+		 * The Strings and kinds of the cells of the first record in the
+		 * chunk, which may be the header of the file.
+		 */
+		private String[] firstRecord;
+		private int[] firstKinds;
+
+		/**
+		 * Whether or not the first record of the chunk has a number in it.
+		 */
+		private boolean firstHasNumbers;
+
+		/**
+		 * Whether or not the first record of the chunk is the header and must
+		 * be skipped.
+		 */
+		private boolean skipFirst = false;
+
+		/**
+		 * The rows of the table that are written by this chunk.
+		 */
+		private int firstRow, endRow;
+
+		/**
+		 * The Strings found by this chunk, indexed by their codes in the
+		 * chunk.
+		 */
+		private List<String> dictionary = new ArrayList<String>();
+
+		/**
+		 * The constructor.
+		 *
+		 * @param contents
+		 *            The bytes of the file.
+		 * @param start
+		 *            The offset of the first byte of the chunk.
+		 * @param end
+		 *            The offset after the last byte of the chunk.
+		 */
+		public Chunk(byte[] contents, int start, int end) {
+			this.contents = contents;
+			this.start = start;
+			this.end = end;
+		}
+
+		/**
+		 * This operation counts the records in the chunk and finds the widest
+		 * kind of value in each column. The first record is kept aside
+		 * because it may be the header of the file, which is only known once
+		 * every chunk has been scanned.
+		 */
+		public void scan() {
+
+			// Local Declarations
+			int kind;
+
+			position = start;
+			while (nextRecord()) {
+				if (numRecords++ == 0) {
+					// Keep the first record in case it is the header
+					firstRecord = new String[numCells];
+					firstKinds = new int[numCells];
+					for (int i = 0; i < numCells; i++) {
+						firstRecord[i] = getString(i);
+						firstKinds[i] = classify(i);
+						firstHasNumbers |= (firstKinds[i] == ColumnType.LONG
+								.ordinal() || firstKinds[i] == ColumnType.DOUBLE
+								.ordinal());
+					}
+					continue;
+				}
+				// Find the widest kind of each column
+				if (numCells > kinds.length) {
+					int oldLength = kinds.length;
+					kinds = Arrays.copyOf(kinds, numCells);
+					Arrays.fill(kinds, oldLength, numCells, emptyCell);
+					missing = Arrays.copyOf(missing, numCells);
+				}
+				for (int i = 0; i < numCells; i++) {
+					kind = classify(i);
+					kinds[i] = Math.max(kinds[i], kind);
+					missing[i] |= (kind == emptyCell);
+				}
+				numColumns = Math.max(numColumns, numCells);
+				minColumns = Math.min(minColumns, numCells);
+			}
+
+			return;
+		}
+
+		/**
+		 * This operation parses the values of the chunk into its rows of the
+		 * columns.
+		 *
+		 * @param types
+		 *            The type of each column.
+		 * @param columns
+		 *            The values of each column.
+		 * @param row
+		 *            The first row of the chunk.
+		 */
+		public void parse(ColumnType[] types, Object[] columns, int row) {
+
+			// Local Declarations
+			Map<String, Integer> codes = new HashMap<String, Integer>();
+			boolean skip = skipFirst;
+
+			firstRow = row;
+			position = start;
+			while (nextRecord()) {
+				if (skip) {
+					skip = false;
+					continue;
+				}
+				for (int i = 0; i < types.length; i++) {
+					boolean present = (i < numCells && cellEnds[i] > cellStarts[i]);
+					if (types[i] == ColumnType.LONG) {
+						((long[]) columns[i])[row] = parseLong(i);
+					} else if (types[i] == ColumnType.DOUBLE) {
+						((double[]) columns[i])[row] = (present ? parseDouble(i)
+								: Double.NaN);
+					} else {
+						String value = (i < numCells ? getString(i) : "");
+						Integer code = codes.get(value);
+						if (code == null) {
+							code = dictionary.size();
+							codes.put(value, code);
+							dictionary.add(value);
+						}
+						((int[]) columns[i])[row] = code;
+					}
+				}
+				row++;
+			}
+			endRow = row;
+
+			return;
+		}
+
+		/**
+		 * This operation reads the cells of the next record in the chunk.
+		 * Blank lines and comments are skipped.
+		 *
+		 * @return True if a record was read, false if the end of the chunk
+		 *         was reached.
+		 */
+		private boolean nextRecord() {
+
+			// Local Declarations
+			int cellStart, cellEnd;
+			boolean quoted;
+
+			while (position < end) {
+				numCells = 0;
+				while (true) {
+					// Skip the whitespace before the cell
+					while (position < end && isSpace(contents[position])) {
+						position++;
+					}
+					quoted = (position < end && contents[position] == '"');
+					if (quoted) {
+						// Read up to the closing quote
+						cellStart = ++position;
+						while (position < end) {
+							if (contents[position] == '"') {
+								if (position + 1 < end
+										&& contents[position + 1] == '"') {
+									position += 2;
+									continue;
+								}
+								break;
+							}
+							position++;
+						}
+						cellEnd = position;
+						// Ignore anything between the quote and the delimiter
+						while (position < end && contents[position] != ','
+								&& contents[position] != '\n'
+								&& contents[position] != '#') {
+							position++;
+						}
+					} else {
+						cellStart = position;
+						while (position < end && contents[position] != ','
+								&& contents[position] != '\n'
+								&& contents[position] != '#') {
+							position++;
+						}
+						// Trim the whitespace after the cell
+						cellEnd = position;
+						while (cellEnd > cellStart
+								&& contents[cellEnd - 1] <= ' ') {
+							cellEnd--;
+						}
+					}
+					addCell(cellStart, cellEnd, quoted);
+					if (position < end && contents[position] == ',') {
+						position++;
+						continue;
+					}
+					// Skip the comment and the newline
+					while (position < end && contents[position] != '\n') {
+						position++;
+					}
+					position++;
+					break;
+				}
+				// Blank and comment lines have one empty, unquoted cell
+				if (numCells > 1 || cellEnds[0] > cellStarts[0]
+						|| cellQuoted[0]) {
+					return true;
+				}
+			}
+
+			return false;
+		}
+
+		/**
+		 * This operation adds a cell to the current record.
+		 *
+		 * @param cellStart
+		 *            The offset of the first byte of the cell.
+		 * @param cellEnd
+		 *            The offset after the last byte of the cell.
+		 * @param quoted
+		 *            True if the cell was quoted.
+		 */
+		private void addCell(int cellStart, int cellEnd, boolean quoted) {
+			if (numCells == cellStarts.length) {
+				cellStarts = Arrays.copyOf(cellStarts, numCells * 2);
+				cellEnds = Arrays.copyOf(cellEnds, numCells * 2);
+				cellQuoted = Arrays.copyOf(cellQuoted, numCells * 2);
+			}
+			cellStarts[numCells] = cellStart;
+			cellEnds[numCells] = cellEnd;
+			cellQuoted[numCells++] = quoted;
+		}
+
+		/**
+		 * This operation returns whether or not a byte is whitespace that is
+		 * trimmed from the start of a cell.
+		 *
+		 * @param value
+		 *            The byte.
+		 * @return True if the byte is whitespace other than a newline.
+		 */
+		private boolean isSpace(byte value) {
+			return value == ' ' || value == '\t' || value == '\r';
+		}
+
+		/**
+		 * This operation returns a cell of the current record as a String.
+		 * Doubled quotes in quoted cells are replaced with single quotes.
+		 *
+		 * @param cell
+		 *            The index of the cell.
+		 * @return The String value of the cell.
+		 */
+		private String getString(int cell) {
+			String value = new String(contents, cellStarts[cell],
+					cellEnds[cell] - cellStarts[cell], charset);
+			if (cellQuoted[cell]) {
+				value = value.replace("\"\"", "\"");
+			}
+			return value;
+		}
+
+		/**
+		 * This operation finds the kind of value in a cell of the current
+		 * record.
+		 *
+		 * @param cell
+		 *            The index of the cell.
+		 * @return The ordinal of the ColumnType of the cell, or emptyCell if
+		 *         the cell is empty.
+		 */
+		private int classify(int cell) {
+
+			// Local Declarations
+			int i = cellStarts[cell], cellEnd = cellEnds[cell];
+			int numDigits = 0;
+			boolean integer = true;
+
+			if (i == cellEnd) {
+				return emptyCell;
+			}
+
+			// Read the sign and the integer digits
+			if (contents[i] == '-' || contents[i] == '+') {
+				i++;
+			}
+			for (; i < cellEnd && isDigit(contents[i]); i++) {
+				numDigits++;
+			}
+			// Read the fraction
+			if (i < cellEnd && contents[i] == '.') {
+				integer = false;
+				for (i++; i < cellEnd && isDigit(contents[i]); i++) {
+					numDigits++;
+				}
+			}
+			if (numDigits == 0) {
+				return (isSpecial(cell) ? ColumnType.DOUBLE.ordinal()
+						: ColumnType.STRING.ordinal());
+			}
+			// Read the exponent
+			if (i < cellEnd && (contents[i] == 'e' || contents[i] == 'E')) {
+				integer = false;
+				i++;
+				if (i < cellEnd && (contents[i] == '-' || contents[i] == '+')) {
+					i++;
+				}
+				int exponentStart = i;
+				for (; i < cellEnd && isDigit(contents[i]); i++) {
+					// Keep reading digits
+				}
+				if (i == exponentStart) {
+					return ColumnType.STRING.ordinal();
+				}
+			}
+			if (i < cellEnd) {
+				return ColumnType.STRING.ordinal();
+			}
+
+			// Integers that might not fit in a long are read as doubles
+			return (integer && numDigits <= 18 ? ColumnType.LONG.ordinal()
+					: ColumnType.DOUBLE.ordinal());
+		}
+
+		/**
+		 * This operation checks whether or not a cell holds one of the special
+		 * double values NaN and Infinity.
+		 *
+		 * @param cell
+		 *            The index of the cell.
+		 * @return True if the cell is a special value.
+		 */
+		private boolean isSpecial(int cell) {
+			String value = getString(cell);
+			return "NaN".equals(value) || "Infinity".equals(value)
+					|| "-Infinity".equals(value) || "+Infinity".equals(value);
+		}
+
+		/**
+		 * This operation returns whether or not a byte is an ASCII digit.
+		 *
+		 * @param value
+		 *            The byte.
+		 * @return True if the byte is a digit.
+		 */
+		private boolean isDigit(byte value) {
+			return value >= '0' && value <= '9';
+		}
+
+		/**
+		 * This operation parses a cell of the current record that has been
+		 * classified as an integer.
+		 *
+		 * @param cell
+		 *            The index of the cell.
+		 * @return The value of the cell.
+		 */
+		private long parseLong(int cell) {
+
+			// Local Declarations
+			int i = cellStarts[cell];
+			boolean negative = false;
+			long value = 0;
+
+			if (contents[i] == '-' || contents[i] == '+') {
+				negative = (contents[i++] == '-');
+			}
+			for (; i < cellEnds[cell]; i++) {
+				value = value * 10 + (contents[i] - '0');
+			}
+
+			return (negative ? -value : value);
+		}
+
+		/**
+		 * This operation parses a cell of the current record that has been
+		 * classified as a number. Numbers with up to 15 significant digits and
+		 * small exponents are parsed in place and correctly rounded. Anything
+		 * else is handed to {@link Double#parseDouble(String)}.
+		 *
+		 * @param cell
+		 *            The index of the cell.
+		 * @return The value of the cell.
+		 */
+		private double parseDouble(int cell) {
+
+			// Local Declarations
+			int i = cellStarts[cell], cellEnd = cellEnds[cell];
+			int digits = 0, exponent = 0, exponentValue = 0;
+			boolean negative = false, negativeExponent = false;
+			boolean fraction = false;
+			long mantissa = 0;
+			double value;
+			byte currByte;
+
+			// Read the sign
+			if (contents[i] == '-' || contents[i] == '+') {
+				negative = (contents[i++] == '-');
+			}
+
+			// Read the integer and fraction digits
+			for (; i < cellEnd; i++) {
+				currByte = contents[i];
+				if (isDigit(currByte)) {
+					if (mantissa == 0 && currByte == '0') {
+						// Leading zeros are not significant
+						if (fraction) {
+							exponent--;
+						}
+					} else if (digits < 15) {
+						mantissa = mantissa * 10 + (currByte - '0');
+						digits++;
+						if (fraction) {
+							exponent--;
+						}
+					} else {
+						return Double.parseDouble(getString(cell));
+					}
+				} else if (currByte == '.' && !fraction) {
+					fraction = true;
+				} else {
+					break;
+				}
+			}
+
+			// Read the exponent
+			if (i < cellEnd) {
+				currByte = contents[i];
+				if (currByte != 'e' && currByte != 'E') {
+					return Double.parseDouble(getString(cell));
+				}
+				i++;
+				if (i < cellEnd && (contents[i] == '-' || contents[i] == '+')) {
+					negativeExponent = (contents[i++] == '-');
+				}
+				if (cellEnd - i > 3) {
+					return Double.parseDouble(getString(cell));
+				}
+				for (; i < cellEnd; i++) {
+					exponentValue = exponentValue * 10 + (contents[i] - '0');
+				}
+				exponent += (negativeExponent ? -exponentValue
+						: exponentValue);
+			}
+
+			// The mantissa and the power of ten are both exact, so the double
+			// is correctly rounded
+			if (mantissa == 0) {
+				value = 0.0;
+			} else if (exponent >= 0 && exponent < powersOfTen.length) {
+				value = mantissa * powersOfTen[exponent];
+			} else if (exponent < 0 && -exponent < powersOfTen.length) {
+				value = mantissa / powersOfTen[-exponent];
+			} else {
+				return Double.parseDouble(getString(cell));
+			}
+
+			return (negative ? -value : value);
+		}
+	}
+}
@@ -0,0 +1,230 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.io.hdf;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * This class describes how {@link HdfIOFactory} should store a dataset in an
+ * HDF5 file: whether it is chunked, the size of the chunks, and the filters
+ * (shuffle and deflate) that are applied to each chunk. Datasets written
+ * without a layout are stored contiguously and uncompressed.
+ * </p>
+ * <p>
+ * If no chunk dimensions are given, the chunks are sized from the dimensions
+ * of each dataset with {@link #getChunkDimensions(long[], int)} so that the
+ * same layout can be used for datasets of any shape.
+ * </p>
+ *
+ */
+public class HdfDatasetLayout {
+
+	/**
+	 * The size in bytes that automatically sized chunks try not to exceed.
+	 * HDF5 caches 1 MB of chunks per dataset by default, so chunks of this
+	 * size are read and decompressed only once when a dataset is read in
+	 * order.
+	 */
+	public static final long DEFAULT_CHUNK_BYTES = 256 * 1024;
+
+	/**
+	 * The deflate level used by {@link #getCompressedLayout()}.
+	 */
+	public static final int DEFAULT_DEFLATE_LEVEL = 4;
+
+	/**
+	 * The dimensions of each chunk, or null if they are computed from the
+	 * dimensions of each dataset.
+	 */
+	private final long[] chunkDims;
+
+	/**
+	 * The deflate (gzip) level from 1 to 9, or 0 if the chunks are not
+	 * compressed.
+	 */
+	private final int deflateLevel;
+
+	/**
+	 * Whether or not the bytes of the values in each chunk are shuffled
+	 * before they are compressed. This usually improves the compression of
+	 * floating point data.
+	 */
+	private final boolean shuffle;
+
+	/**
+	 * The constructor.
+	 *
+	 * @param chunkDims
+	 *            The dimensions of each chunk. If null, the chunks are sized
+	 *            from the dimensions of each dataset.
+	 * @param deflateLevel
+	 *            The deflate level from 1 (fastest) to 9 (smallest), or 0 to
+	 *            leave the chunks uncompressed.
+	 * @param shuffle
+	 *            Whether or not to shuffle the bytes of the values before
+	 *            compressing them.
+	 */
+	public HdfDatasetLayout(long[] chunkDims, int deflateLevel, boolean shuffle) {
+
+		// Check the chunk dimensions
+		if (chunkDims != null) {
+			for (long dimension : chunkDims) {
+				if (dimension <= 0) {
+					throw new IllegalArgumentException("HdfDatasetLayout "
+							+ "error: Chunk dimensions must be positive.");
+				}
+			}
+			this.chunkDims = chunkDims.clone();
+		} else {
+			this.chunkDims = null;
+		}
+
+		// Check the deflate level
+		if (deflateLevel < 0 || deflateLevel > 9) {
+			throw new IllegalArgumentException("HdfDatasetLayout error: "
+					+ "The deflate level must be between 0 and 9.");
+		}
+		this.deflateLevel = deflateLevel;
+		this.shuffle = shuffle;
+
+		return;
+	}
+
+	/**
+	 * Gets a layout with automatically sized chunks that are shuffled and
+	 * compressed with {@link #DEFAULT_DEFLATE_LEVEL}.
+	 *
+	 * @return The new layout.
+	 */
+	public static HdfDatasetLayout getCompressedLayout() {
+		return new HdfDatasetLayout(null, DEFAULT_DEFLATE_LEVEL, true);
+	}
+
+	/**
+	 * Gets a layout with automatically sized chunks and no filters.
+	 *
+	 * @return The new layout.
+	 */
+	public static HdfDatasetLayout getChunkedLayout() {
+		return new HdfDatasetLayout(null, 0, false);
+	}
+
+	/**
+	 * Gets the deflate level.
+	 *
+	 * @return The deflate level from 1 to 9, or 0 if the chunks are not
+	 *         compressed.
+	 */
+	public int getDeflateLevel() {
+		return deflateLevel;
+	}
+
+	/**
+	 * Gets whether or not the bytes of the values are shuffled before they
+	 * are compressed.
+	 *
+	 * @return True if the shuffle filter is used, false otherwise.
+	 */
+	public boolean getShuffle() {
+		return shuffle;
+	}
+
+	/**
+	 * Gets the chunk dimensions for a dataset. If this layout has fixed chunk
+	 * dimensions, they are limited to the dimensions of the dataset.
+	 * Otherwise, the chunks span all but the first dimension (or as much of
+	 * them as fits) and as many indices of the first dimension as fit in
+	 * {@link #DEFAULT_CHUNK_BYTES}, so that a chunk holds whole rows of the
+	 * dataset.
+	 *
+	 * @param dims
+	 *            The dimensions of the dataset.
+	 * @param typeSize
+	 *            The size in bytes of one value in the dataset.
+	 * @return The chunk dimensions, or null if the dataset can not be chunked
+	 *         because it is empty.
+	 */
+	public long[] getChunkDimensions(long[] dims, int typeSize) {
+
+		// Local Declarations
+		int rank = dims.length;
+		long[] chunks = new long[rank];
+		long chunkSize = Math.max(1, DEFAULT_CHUNK_BYTES / Math.max(1, typeSize));
+
+		// Empty datasets can not be chunked
+		for (long dimension : dims) {
+			if (dimension <= 0) {
+				return null;
+			}
+		}
+
+		// Fixed chunks are limited to the size of the dataset
+		if (chunkDims != null) {
+			if (chunkDims.length != rank) {
+				throw new IllegalArgumentException("HdfDatasetLayout error: "
+						+ "The chunk rank does not match the dataset rank.");
+			}
+			for (int i = 0; i < rank; i++) {
+				chunks[i] = Math.min(chunkDims[i], dims[i]);
+			}
+			return chunks;
+		}
+
+		// Fill the chunk from the last (fastest varying) dimension back to
+		// the first one until it is full.
+		for (int i = rank - 1; i >= 0; i--) {
+			chunks[i] = Math.max(1, Math.min(dims[i], chunkSize));
+			chunkSize = Math.max(1, chunkSize / chunks[i]);
+		}
+
+		return chunks;
+	}
+
+	/*
+	 * Overrides a method from Object.
+	 */
+	@Override
+	public boolean equals(Object otherObject) {
+
+		// Local Declarations
+		boolean retVal = false;
+
+		if (otherObject == this) {
+			retVal = true;
+		} else if (otherObject instanceof HdfDatasetLayout) {
+			HdfDatasetLayout other = (HdfDatasetLayout) otherObject;
+			retVal = Arrays.equals(chunkDims, other.chunkDims)
+					&& deflateLevel == other.deflateLevel
+					&& shuffle == other.shuffle;
+		}
+
+		return retVal;
+	}
+
+	/*
+	 * Overrides a method from Object.
+	 */
+	@Override
+	public int hashCode() {
+
+		// Local Declarations
+		int hash = 11;
+
+		hash = 31 * hash + Arrays.hashCode(chunkDims);
+		hash = 31 * hash + deflateLevel;
+		hash = 31 * hash + (shuffle ? 1 : 0);
+
+		return hash;
+	}
+}
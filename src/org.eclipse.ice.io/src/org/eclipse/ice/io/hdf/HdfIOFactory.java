@@ -84,6 +84,13 @@ public class HdfIOFactory implements IHdfIOFactory {
 	 */
 	private static IHdfIORegistry hdfIORegistry = null;
 
+	/**
+	 * The layout used for datasets that are written without one, or null if
+	 * they are stored contiguously. Sub-classes can opt in to chunked and
+	 * compressed datasets by setting it.
+	 */
+	private HdfDatasetLayout defaultDatasetLayout = null;
+
 	// ---- Methods that sub-classes MUST override! ---- //
 	/**
 	 * Sub-classes <b>must</b> override this method.
@@ -748,10 +755,32 @@ public class HdfIOFactory implements IHdfIOFactory {
 	// ----------------------------- //
 
 	// ---- Dataset Operations ---- //
+	/**
+	 * Sets the layout used for datasets that are written without one. By
+	 * default, datasets are stored contiguously and uncompressed.
+	 * Sub-classes can set a chunked or compressed layout here to use it for
+	 * all of their datasets.
+	 * 
+	 * @param layout
+	 *            The layout, or null to store datasets contiguously.
+	 */
+	public final void setDefaultDatasetLayout(HdfDatasetLayout layout) {
+		defaultDatasetLayout = layout;
+	}
+
+	/**
+	 * Gets the layout used for datasets that are written without one.
+	 * 
+	 * @return The layout, or null if datasets are stored contiguously.
+	 */
+	public final HdfDatasetLayout getDefaultDatasetLayout() {
+		return defaultDatasetLayout;
+	}
+
 	/**
 	 * This method writes an HDF5 Dataset containing the data that is stored in
 	 * a buffer. All of the data's properties and the buffer must be allocated
-	 * before calling this method.
+	 * before calling this method. The dataset uses the default dataset layout.
 	 * 
 	 * @param objectId
 	 *            The ID for the Object, which should be open, that will get the
@@ -774,8 +803,135 @@ public class HdfIOFactory implements IHdfIOFactory {
 	public final void writeDataset(int objectId, String name, int rank,
 			long[] dims, int type, Object buffer) throws NullPointerException,
 			HDF5Exception {
+		writeDataset(objectId, name, rank, dims, type, buffer,
+				defaultDatasetLayout);
+	}
+
+	/**
+	 * This method writes an HDF5 Dataset containing the data that is stored in
+	 * a buffer with the given layout.
+	 * 
+	 * @param objectId
+	 *            The ID for the Object, which should be open, that will get the
+	 *            Dataset.
+	 * @param name
+	 *            The name of the Dataset.
+	 * @param rank
+	 *            The number of dimensions in the data.
+	 * @param dims
+	 *            An array containing the sizes of each dimension in the data.
+	 * @param type
+	 *            The HDF5 datatype of the data in the Dataset.
+	 * @param buffer
+	 *            The buffer that contains the data to write. This needs to be
+	 *            an array, e.g., a double[n] or int[n].
+	 * @param layout
+	 *            The chunking and filters for the Dataset, or null to store it
+	 *            contiguously.
+	 */
+	public final void writeDataset(int objectId, String name, int rank,
+			long[] dims, int type, Object buffer, HdfDatasetLayout layout)
+			throws NullPointerException, HDF5Exception {
 		int status;
 
+		// Create the dataset.
+		int datasetId = createDataset(objectId, name, rank, dims, type, layout);
+
+		// Write the dataset.
+		status = H5.H5Dwrite(datasetId, type, HDF5Constants.H5S_ALL,
+				HDF5Constants.H5S_ALL, HDF5Constants.H5P_DEFAULT, buffer);
+		if (status < 0) {
+			throwException("Writing dataset \"" + name + "\"", status);
+		}
+		// Close the dataset.
+		status = H5.H5Dclose(datasetId);
+		if (status < 0) {
+			throwException("Closing dataset \"" + name + "\"", status);
+		}
+		return;
+	}
+
+	/**
+	 * This method writes an HDF5 Dataset one block of rows at a time, so the
+	 * whole dataset never needs to be in memory. The handler fills the buffer
+	 * with each block in order before it is written.
+	 * 
+	 * @param objectId
+	 *            The ID for the Object, which should be open, that will get the
+	 *            Dataset.
+	 * @param name
+	 *            The name of the Dataset.
+	 * @param rank
+	 *            The number of dimensions in the data.
+	 * @param dims
+	 *            An array containing the sizes of each dimension in the data.
+	 * @param type
+	 *            The HDF5 datatype of the data, either H5T_NATIVE_INT or
+	 *            H5T_NATIVE_DOUBLE.
+	 * @param layout
+	 *            The chunking and filters for the Dataset, or null to use the
+	 *            default dataset layout. Blocks that line up with the chunks
+	 *            are written fastest.
+	 * @param blockRows
+	 *            The number of indices of the first dimension in each block.
+	 * @param buffer
+	 *            A buffer to reuse for the blocks, or null.
+	 * @param handler
+	 *            The handler that fills each block.
+	 * @return The buffer that was used for the blocks, which can be passed to
+	 *         the next call.
+	 */
+	public final Object writeDatasetBlocks(int objectId, String name, int rank,
+			long[] dims, int type, HdfDatasetLayout layout, int blockRows,
+			Object buffer, IHdfDatasetBlockHandler handler)
+			throws NullPointerException, HDF5Exception {
+
+		// Create the dataset.
+		if (layout == null) {
+			layout = defaultDatasetLayout;
+		}
+		int datasetId = createDataset(objectId, name, rank, dims, type, layout);
+
+		// Write the blocks. Always close the dataset, even if the handler
+		// fails.
+		try {
+			buffer = transferBlocks(datasetId, name, dims, type, blockRows,
+					buffer, handler, true);
+		} finally {
+			int status = H5.H5Dclose(datasetId);
+			if (status < 0) {
+				throwException("Closing dataset \"" + name + "\"", status);
+			}
+		}
+
+		return buffer;
+	}
+
+	/**
+	 * Creates and opens a Dataset with the given layout.
+	 * 
+	 * @param objectId
+	 *            The ID for the Object, which should be open, that will get the
+	 *            Dataset.
+	 * @param name
+	 *            The name of the Dataset.
+	 * @param rank
+	 *            The number of dimensions in the data.
+	 * @param dims
+	 *            An array containing the sizes of each dimension in the data.
+	 * @param type
+	 *            The HDF5 datatype of the data in the Dataset.
+	 * @param layout
+	 *            The chunking and filters for the Dataset, or null to store it
+	 *            contiguously.
+	 * @return The ID of the new Dataset, which must be closed.
+	 */
+	private int createDataset(int objectId, String name, int rank,
+			long[] dims, int type, HdfDatasetLayout layout)
+			throws NullPointerException, HDF5Exception {
+		int status;
+		int propertiesId = HDF5Constants.H5P_DEFAULT;
+
 		// Create the dataspace.
 		status = H5.H5Screate_simple(rank, dims, null);
 		if (status < 0) {
@@ -784,25 +940,28 @@ public class HdfIOFactory implements IHdfIOFactory {
 		}
 		int dataspaceId = status;
 
+		// Create the chunking and filter properties if the dataset should be
+		// chunked.
+		if (layout != null) {
+			propertiesId = createDatasetProperties(name, dims, type, layout);
+		}
+
 		// Create the dataset.
 		status = H5.H5Dcreate(objectId, name, type, dataspaceId,
-				HDF5Constants.H5P_DEFAULT, HDF5Constants.H5P_DEFAULT,
+				HDF5Constants.H5P_DEFAULT, propertiesId,
 				HDF5Constants.H5P_DEFAULT);
 		if (status < 0) {
 			throwException("Creating dataset \"" + name + "\"", status);
 		}
 		int datasetId = status;
 
-		// Write the dataset.
-		status = H5.H5Dwrite(datasetId, type, HDF5Constants.H5S_ALL,
-				HDF5Constants.H5S_ALL, HDF5Constants.H5P_DEFAULT, buffer);
-		if (status < 0) {
-			throwException("Writing dataset \"" + name + "\"", status);
-		}
-		// Close the dataset.
-		status = H5.H5Dclose(datasetId);
-		if (status < 0) {
-			throwException("Closing dataset \"" + name + "\"", status);
+		// Close the properties.
+		if (propertiesId != HDF5Constants.H5P_DEFAULT) {
+			status = H5.H5Pclose(propertiesId);
+			if (status < 0) {
+				throwException("Closing properties for dataset \"" + name
+						+ "\"", status);
+			}
 		}
 		// Close the dataspace.
 		status = H5.H5Sclose(dataspaceId);
@@ -810,7 +969,187 @@ public class HdfIOFactory implements IHdfIOFactory {
 			throwException("Closing dataspace for dataset \"" + name + "\"",
 					status);
 		}
-		return;
+		return datasetId;
+	}
+
+	/**
+	 * Creates the Dataset creation properties for a chunked layout. Filters
+	 * that are not available in the HDF5 library are skipped.
+	 * 
+	 * @param name
+	 *            The name of the Dataset.
+	 * @param dims
+	 *            An array containing the sizes of each dimension in the data.
+	 * @param type
+	 *            The HDF5 datatype of the data in the Dataset.
+	 * @param layout
+	 *            The chunking and filters for the Dataset.
+	 * @return The ID of the properties, which must be closed, or H5P_DEFAULT
+	 *         if the Dataset can not be chunked.
+	 */
+	private int createDatasetProperties(String name, long[] dims, int type,
+			HdfDatasetLayout layout) throws NullPointerException,
+			HDF5Exception {
+		int status;
+
+		// Empty datasets can not be chunked.
+		long[] chunkDims = layout.getChunkDimensions(dims, H5.H5Tget_size(type));
+		if (chunkDims == null) {
+			return HDF5Constants.H5P_DEFAULT;
+		}
+
+		// Create the properties and set the chunk size.
+		status = H5.H5Pcreate(HDF5Constants.H5P_DATASET_CREATE);
+		if (status < 0) {
+			throwException("Creating properties for dataset \"" + name + "\"",
+					status);
+		}
+		int propertiesId = status;
+		status = H5.H5Pset_chunk(propertiesId, chunkDims.length, chunkDims);
+		if (status < 0) {
+			throwException("Setting chunks for dataset \"" + name + "\"",
+					status);
+		}
+
+		// Add the filters. The shuffle filter only helps compression, so it
+		// is only used with deflate.
+		if (layout.getDeflateLevel() > 0) {
+			if (H5.H5Zfilter_avail(HDF5Constants.H5Z_FILTER_DEFLATE) > 0) {
+				if (layout.getShuffle()
+						&& H5.H5Zfilter_avail(HDF5Constants.H5Z_FILTER_SHUFFLE) > 0) {
+					status = H5.H5Pset_shuffle(propertiesId);
+					if (status < 0) {
+						throwException("Setting shuffle filter for dataset \""
+								+ name + "\"", status);
+					}
+				}
+				status = H5.H5Pset_deflate(propertiesId,
+						layout.getDeflateLevel());
+				if (status < 0) {
+					throwException("Setting deflate filter for dataset \""
+							+ name + "\"", status);
+				}
+			} else {
+				logger.warn("HdfIOFactory warning: The deflate filter is not "
+						+ "available. Dataset \"" + name
+						+ "\" will not be compressed.");
+			}
+		}
+
+		return propertiesId;
+	}
+
+	/**
+	 * Reads or writes an open Dataset one block of rows at a time by
+	 * selecting a hyperslab of the Dataset for each block.
+	 * 
+	 * @param datasetId
+	 *            The ID of the open Dataset.
+	 * @param name
+	 *            The name of the Dataset.
+	 * @param dims
+	 *            The sizes of each dimension of the Dataset.
+	 * @param type
+	 *            The HDF5 datatype of the data, either H5T_NATIVE_INT or
+	 *            H5T_NATIVE_DOUBLE.
+	 * @param blockRows
+	 *            The number of indices of the first dimension in each block.
+	 * @param buffer
+	 *            A buffer to reuse for the blocks, or null.
+	 * @param handler
+	 *            The handler for each block.
+	 * @param write
+	 *            True if the blocks are written, false if they are read.
+	 * @return The buffer that was used for the blocks.
+	 */
+	private Object transferBlocks(int datasetId, String name, long[] dims,
+			int type, int blockRows, Object buffer,
+			IHdfDatasetBlockHandler handler, boolean write)
+			throws NullPointerException, HDF5Exception {
+		int status;
+		int rank = dims.length;
+		boolean proceed = true;
+
+		// Scalar and empty datasets have no rows to stream.
+		if (rank == 0 || dims[0] == 0) {
+			return buffer;
+		}
+		if (blockRows <= 0) {
+			throwException("Invalid block size for dataset \"" + name + "\"",
+					blockRows);
+		}
+
+		// Get a buffer for one block. The block dimensions are reused for the
+		// size of the last block.
+		long[] start = new long[rank];
+		long[] blockDims = dims.clone();
+		blockDims[0] = Math.min(blockRows, dims[0]);
+		buffer = getBuffer(type, blockDims, buffer);
+
+		// Open the Dataset's dataspace, which is used to select each block.
+		status = H5.H5Dget_space(datasetId);
+		if (status < 0) {
+			throwException("Could not open dataspace for dataset \"" + name
+					+ "\".", status);
+		}
+		int fileSpaceId = status;
+
+		try {
+			for (long row = 0; row < dims[0] && proceed; row += blockRows) {
+				// Select the block in the file and create a matching
+				// dataspace for the buffer.
+				start[0] = row;
+				blockDims[0] = Math.min(blockRows, dims[0] - row);
+				status = H5.H5Sselect_hyperslab(fileSpaceId,
+						HDF5Constants.H5S_SELECT_SET, start, null, blockDims,
+						null);
+				if (status < 0) {
+					throwException("Selecting block of dataset \"" + name
+							+ "\"", status);
+				}
+				status = H5.H5Screate_simple(rank, blockDims, null);
+				if (status < 0) {
+					throwException("Creating block dataspace for dataset \""
+							+ name + "\"", status);
+				}
+				int memorySpaceId = status;
+
+				// Transfer the block. A written block is filled first, a read
+				// block is handled after it is read.
+				try {
+					if (write) {
+						proceed = handler.handleBlock(row, (int) blockDims[0],
+								buffer);
+						if (proceed) {
+							status = H5.H5Dwrite(datasetId, type,
+									memorySpaceId, fileSpaceId,
+									HDF5Constants.H5P_DEFAULT, buffer);
+						}
+					} else {
+						status = H5.H5Dread(datasetId, type, memorySpaceId,
+								fileSpaceId, HDF5Constants.H5P_DEFAULT, buffer);
+						if (status >= 0) {
+							proceed = handler.handleBlock(row,
+									(int) blockDims[0], buffer);
+						}
+					}
+					if (status < 0) {
+						throwException((write ? "Writing" : "Reading")
+								+ " block of dataset \"" + name + "\"", status);
+					}
+				} finally {
+					H5.H5Sclose(memorySpaceId);
+				}
+			}
+		} finally {
+			status = H5.H5Sclose(fileSpaceId);
+			if (status < 0) {
+				throwException("Could not close dataspace for dataset \""
+						+ name + "\".", status);
+			}
+		}
+
+		return buffer;
 	}
 
 	/**
@@ -833,6 +1172,29 @@ public class HdfIOFactory implements IHdfIOFactory {
 	 */
 	public Object readDataset(int groupId, String name, int type)
 			throws NullPointerException, HDF5Exception {
+		return readDataset(groupId, name, type, null);
+	}
+
+	/**
+	 * Reads a dataset into a buffer from a previous read if it is big enough.
+	 * Otherwise, a new buffer is created. The buffer may be longer than the
+	 * dataset.
+	 * 
+	 * @param groupId
+	 *            The ID of the Object, which should be open, that contains the
+	 *            dataset.
+	 * @param name
+	 *            The name of the dataset.
+	 * @param type
+	 *            The HDF5 datatype of the data in the dataset, e.g.,
+	 *            H5T_NATIVE_INT or H5T_NATIVE_DOUBLE.
+	 * @param reusableBuffer
+	 *            A buffer to reuse, or null.
+	 * @return A buffer containing the data from the dataset, or null if the
+	 *         dataset could not be read.
+	 */
+	public final Object readDataset(int groupId, String name, int type,
+			Object reusableBuffer) throws NullPointerException, HDF5Exception {
 
 		Object buffer = null;
 
@@ -853,46 +1215,34 @@ public class HdfIOFactory implements IHdfIOFactory {
 			}
 			int datasetId = status;
 
-			// Open the dataspace.
-			status = H5.H5Dget_space(datasetId);
-			if (status < 0) {
-				throwException("Could not open dataspace for dataset \"" + name
-						+ "\".", status);
-			}
-			int dataspaceId = status;
-
-			// Get the rank of the dataspace.
-			status = H5.H5Sget_simple_extent_ndims(dataspaceId);
-			if (status < 0) {
-				throwException(
-						"Could not determine rank (number of dimensions) of dataspace for dataset \""
-								+ name + "\".", status);
-			}
-			int rank = status;
-
-			// Get the dimensions of the dataspace.
-			long[] dims = new long[rank];
-			status = H5.H5Sget_simple_extent_dims(dataspaceId, dims, null);
-			if (status != rank) {
-				throwException(
-						"Could not determine dimensions of dataspace for dataset \""
-								+ name + "\".", status);
-			}
 			// Create an appropriately sized buffer.
-			buffer = getBuffer(type, dims);
-
-			// Read in the Dataset.
-			status = H5.H5Dread(datasetId, type, H5S_ALL, H5S_ALL, H5P_DEFAULT,
-					buffer);
+			long[] dims = getDatasetDimensions(datasetId, name);
+			buffer = getBuffer(type, dims, reusableBuffer);
+
+			// Read in the Dataset. A reused buffer may be longer than the
+			// dataset, so the dataspace of the buffer is given explicitly.
+			int memorySpaceId = H5S_ALL;
+			if (buffer == reusableBuffer) {
+				status = H5.H5Screate_simple(dims.length, dims, null);
+				if (status < 0) {
+					throwException("Could not create dataspace for dataset \""
+							+ name + "\".", status);
+				}
+				memorySpaceId = status;
+			}
+			status = H5.H5Dread(datasetId, type, memorySpaceId, H5S_ALL,
+					H5P_DEFAULT, buffer);
 			if (status < 0) {
 				throwException("Could not read dataset \"" + name + "\".",
 						status);
 			}
 			// Close the Dataspace.
-			status = H5.H5Sclose(dataspaceId);
-			if (status < 0) {
-				throwException("Could not close dataspace for dataset \""
-						+ name + "\".", status);
+			if (memorySpaceId != H5S_ALL) {
+				status = H5.H5Sclose(memorySpaceId);
+				if (status < 0) {
+					throwException("Could not close dataspace for dataset \""
+							+ name + "\".", status);
+				}
 			}
 			// Close the Dataset.
 			status = H5.H5Dclose(datasetId);
@@ -905,6 +1255,113 @@ public class HdfIOFactory implements IHdfIOFactory {
 		return buffer;
 	}
 
+	/**
+	 * Reads a dataset one block of rows at a time, so that large datasets can
+	 * be processed without holding them in memory. Each block is read into
+	 * the same buffer and then given to the handler.
+	 * 
+	 * @param groupId
+	 *            The ID of the Object, which should be open, that contains the
+	 *            dataset.
+	 * @param name
+	 *            The name of the dataset.
+	 * @param type
+	 *            The HDF5 datatype of the data, either H5T_NATIVE_INT or
+	 *            H5T_NATIVE_DOUBLE.
+	 * @param blockRows
+	 *            The number of indices of the first dimension in each block.
+	 * @param buffer
+	 *            A buffer to reuse for the blocks, or null.
+	 * @param handler
+	 *            The handler for each block.
+	 * @return The buffer that was used for the blocks, which can be passed to
+	 *         the next call, or null if the dataset does not exist.
+	 */
+	public final Object readDatasetBlocks(int groupId, String name, int type,
+			int blockRows, Object buffer, IHdfDatasetBlockHandler handler)
+			throws NullPointerException, HDF5Exception {
+
+		Object retVal = null;
+
+		int status;
+
+		// See if the dataset exists. If so, stream it.
+		if (H5.H5Lexists(groupId, name, HDF5Constants.H5P_DEFAULT)) {
+
+			// Open the dataset.
+			status = H5.H5Dopen(groupId, name, HDF5Constants.H5P_DEFAULT);
+			if (status < 0) {
+				throwException("Could not open dataset \"" + name + "\".",
+						status);
+			}
+			int datasetId = status;
+
+			// Read the blocks. Always close the dataset, even if the handler
+			// fails.
+			try {
+				long[] dims = getDatasetDimensions(datasetId, name);
+				retVal = transferBlocks(datasetId, name, dims, type,
+						blockRows, buffer, handler, false);
+			} finally {
+				status = H5.H5Dclose(datasetId);
+				if (status < 0) {
+					throwException("Could not close dataset \"" + name + "\".",
+							status);
+				}
+			}
+		}
+
+		return retVal;
+	}
+
+	/**
+	 * Gets the dimensions of an open dataset.
+	 * 
+	 * @param datasetId
+	 *            The ID of the open dataset.
+	 * @param name
+	 *            The name of the dataset.
+	 * @return The sizes of each dimension of the dataset.
+	 */
+	public final long[] getDatasetDimensions(int datasetId, String name)
+			throws NullPointerException, HDF5Exception {
+		int status;
+
+		// Open the dataspace.
+		status = H5.H5Dget_space(datasetId);
+		if (status < 0) {
+			throwException("Could not open dataspace for dataset \"" + name
+					+ "\".", status);
+		}
+		int dataspaceId = status;
+
+		// Get the rank of the dataspace.
+		status = H5.H5Sget_simple_extent_ndims(dataspaceId);
+		if (status < 0) {
+			throwException(
+					"Could not determine rank (number of dimensions) of dataspace for dataset \""
+							+ name + "\".", status);
+		}
+		int rank = status;
+
+		// Get the dimensions of the dataspace.
+		long[] dims = new long[rank];
+		status = H5.H5Sget_simple_extent_dims(dataspaceId, dims, null);
+		if (status != rank) {
+			throwException(
+					"Could not determine dimensions of dataspace for dataset \""
+							+ name + "\".", status);
+		}
+		// Close the Dataspace.
+		status = H5.H5Sclose(dataspaceId);
+		if (status < 0) {
+			throwException("Could not close dataspace for dataset \"" + name
+					+ "\".", status);
+		}
+
+		return dims;
+	}
+
 	// ---------------------------- //
 
 	/**
@@ -1015,18 +1472,54 @@ public class HdfIOFactory implements IHdfIOFactory {
 	 */
 	public final Object getBuffer(int type, long[] dims)
 			throws HDF5LibraryException {
+		return getBuffer(type, dims, null);
+	}
+
+	/**
+	 * Gets a buffer used for writing or reading HDF5 datasets, reusing an
+	 * existing buffer if it is big enough. Currently supports doubles and
+	 * integers.
+	 * 
+	 * @param type
+	 *            The data type, e.g. {@link HDF5Constants#H5T_NATIVE_DOUBLE} or
+	 *            {@link HDF5Constants#H5T_NATIVE_INT}.
+	 * @param dims
+	 *            The sizes of each dimension of the data.
+	 * @param reusableBuffer
+	 *            A buffer from a previous call, or null. It is returned if it
+	 *            is an array of the right type that holds at least as many
+	 *            values as the data.
+	 * @return A buffer that is at least big enough to contain the data
+	 *         defined by the dimensions.
+	 */
+	public final Object getBuffer(int type, long[] dims, Object reusableBuffer)
+			throws HDF5LibraryException {
 		Object buffer = null;
 
 		// Get the total size of the buffer from the dimension sizes.
-		int size = 1;
+		long size = 1;
 		for (long dimension : dims) {
 			size *= dimension;
 		}
-		// Create the buffer depending on the type.
+		if (size > Integer.MAX_VALUE) {
+			throwException("Dataset too large for one buffer. "
+					+ "Read or write it in blocks instead.", -1);
+		}
+		// Reuse the buffer or create a new one depending on the type.
 		if (type == HDF5Constants.H5T_NATIVE_DOUBLE) {
-			buffer = new double[size];
+			if (reusableBuffer instanceof double[]
+					&& ((double[]) reusableBuffer).length >= size) {
+				buffer = reusableBuffer;
+			} else {
+				buffer = new double[(int) size];
+			}
 		} else if (type == HDF5Constants.H5T_NATIVE_INT) {
-			buffer = new int[size];
+			if (reusableBuffer instanceof int[]
+					&& ((int[]) reusableBuffer).length >= size) {
+				buffer = reusableBuffer;
+			} else {
+				buffer = new int[(int) size];
+			}
 		} else {
 			throwException("Unsupported data type.", -1);
 		}
@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.io.hdf;
+
+import ncsa.hdf.hdf5lib.exceptions.HDF5Exception;
+
+/**
+ * <p>
+ * This interface is used by {@link HdfIOFactory} to stream a dataset one block
+ * of rows at a time instead of holding the whole dataset in memory. A block is
+ * a range of indices of the first dimension of the dataset along with all of
+ * the other dimensions, stored in row major order in a buffer (a double[] or
+ * int[]) that is reused for every block.
+ * </p>
+ * <p>
+ * When a dataset is read, the handler is given each block after it has been
+ * read into the buffer. When a dataset is written, the handler must fill the
+ * buffer with each block before it is written.
+ * </p>
+ *
+ */
+public interface IHdfDatasetBlockHandler {
+
+	/**
+	 * Handles one block of the dataset.
+	 *
+	 * @param firstRow
+	 *            The index in the first dimension of the first row in the
+	 *            block.
+	 * @param nRows
+	 *            The number of rows in the block. The block's values are the
+	 *            first nRows times the row size values in the buffer, which
+	 *            may be bigger than the block.
+	 * @param buffer
+	 *            The buffer that holds the block.
+	 * @return True if the rest of the dataset should be handled, false to stop
+	 *         early. Stopping early while writing leaves the rest of the
+	 *         dataset filled with zeros.
+	 */
+	public boolean handleBlock(long firstRow, int nRows, Object buffer)
+			throws HDF5Exception;
+}
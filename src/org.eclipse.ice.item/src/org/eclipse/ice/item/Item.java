@@ -28,6 +28,7 @@ import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Hashtable;
+import java.util.List;
 
 import javax.xml.bind.annotation.XmlAnyElement;
 import javax.xml.bind.annotation.XmlAttribute;
@@ -368,6 +369,14 @@ public class Item implements IComponentVisitor, Identifiable,
 	 */
 	protected HashMap<String, ArrayList<Component>> componentMap;
 
+	/**
+	 * The structure of the Form when the Registry was last built: each
+	 * Component of the Form followed by each Entry of the DataComponents with
+	 * its name and parent. reviewEntries() only rebuilds the Registry if this
+	 * changes.
+	 */
+	private ArrayList<Object> registeredStructure;
+
 	/**
 	 * The unique identification number of the Item.
 	 */
@@ -1124,6 +1133,9 @@ public class Item implements IComponentVisitor, Identifiable,
 		FormStatus retStatus = FormStatus.InfoError;
 		boolean updateStatus = true;
 
+		// Let the Item register its dependencies. The Registry is only rebuilt
+		// if the structure of the Form changed, so otherwise only the values
+		// that changed are dispatched.
 		registerUpdateables();
 
 		// Update the values of the Entries in the Registry
@@ -1157,10 +1169,19 @@ public class Item implements IComponentVisitor, Identifiable,
 	 * 
 	 * The default implementation pulls all Entries from all Data, Table and
 	 * Output components and registers parent-child dependencies for those
-	 * Entries.
+	 * Entries. It keeps the current Registry if the structure of the Form did
+	 * not change since it was built. The Registry ignores registrants that are
+	 * registered again for the same key, so subclasses may always register
+	 * their dependencies.
 	 */
 	protected void registerUpdateables() {
 
+		// Keep the Registry if the structure of the Form did not change
+		if (registeredStructure != null
+				&& getFormStructure().equals(registeredStructure)) {
+			return;
+		}
+
 		// Create the registry
 		registry = new Registry();
 
@@ -1188,13 +1209,86 @@ public class Item implements IComponentVisitor, Identifiable,
 			// Register parent dependencies so that they can be notified
 			// when the parent changes
 			if (entry.getParent() != null) {
-				registry.register(entry, entry.getParent());
+				registry.register(entry, entry.getParent(), entry.getName());
 			}
 		}
 		// Dispatch the values the first time around so that children
 		// can mark themselves ready.
 		registry.dispatch();
 
+		// Remember the structure that was registered
+		registeredStructure = getFormStructure();
+
+	}
+
+	/**
+	 * This operation returns the structure of the Form that the Registry
+	 * depends on: each Component of the Form followed by each Entry of the
+	 * DataComponents with its name and parent. Components and Entries are
+	 * compared by identity, so replacing one with an equal copy is still a
+	 * change.
+	 * 
+	 * @return The structure of the Form.
+	 */
+	private ArrayList<Object> getFormStructure() {
+
+		// Local Declarations
+		ArrayList<Object> structure = new ArrayList<Object>();
+
+		if (form != null) {
+			for (Component component : form.getComponents()) {
+				structure.add(new IdentityKey(component));
+				if (component instanceof DataComponent) {
+					for (Entry entry : ((DataComponent) component)
+							.retrieveAllEntries()) {
+						structure.add(new IdentityKey(entry));
+						structure.add(entry.getName());
+						structure.add(entry.getParent());
+					}
+				}
+			}
+		}
+
+		return structure;
+	}
+
+	/**
+	 * This class wraps an object so that it is compared by identity in the
+	 * structure of the Form.
+	 */
+	private static class IdentityKey {
+
+		/**
+		 * The wrapped object.
+		 */
+		private final Object object;
+
+		/**
+		 * The constructor.
+		 * 
+		 * @param object
+		 *            The object to wrap.
+		 */
+		public IdentityKey(Object object) {
+			this.object = object;
+		}
+
+		/*
+		 * Overrides a method from Object.
+		 */
+		@Override
+		public boolean equals(Object otherObject) {
+			return otherObject instanceof IdentityKey
+					&& ((IdentityKey) otherObject).object == object;
+		}
+
+		/*
+		 * Overrides a method from Object.
+		 */
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(object);
+		}
 	}
 
 	/**
@@ -1393,6 +1487,9 @@ public class Item implements IComponentVisitor, Identifiable,
 		// Setup the map of components
 		componentMap = new HashMap<String, ArrayList<Component>>();
 
+		// The Registry must be rebuilt for the new lists
+		registeredStructure = null;
+
 		// If the Form is not null, then we need to add the Entries to the
 		// master list and configure the dependences
 		if (form != null) {
@@ -1986,6 +2083,37 @@ public class Item implements IComponentVisitor, Identifiable,
 		return true;
 	}
 
+	/**
+	 * This operation updates the Item with a batch of Messages, in the order
+	 * that they were posted. This is used when many updates arrive for the
+	 * same Item, such as postprocessor values streamed by a running simulation.
+	 * 
+	 * The base class calls {@link #update(Message)} for each Message.
+	 * Subclasses may override this operation to respond to the whole batch at
+	 * once, for example by refreshing their output only after the last
+	 * Message.
+	 * 
+	 * @param messages
+	 *            The incoming Messages, in order.
+	 * @return The number of Messages to which the Item was able to respond.
+	 */
+	public int update(List<Message> messages) {
+
+		// Local Declarations
+		int count = 0;
+
+		// Post each message in order
+		if (messages != null) {
+			for (Message msg : messages) {
+				if (msg != null && update(msg)) {
+					count++;
+				}
+			}
+		}
+
+		return count;
+	}
+
 	/**
 	 * This operation sets the Item's builderName. This operation can only be
 	 * called once. Although this operation is public, it should only be called
@@ -2067,6 +2195,30 @@ public class Item implements IComponentVisitor, Identifiable,
 		return copiedFileHandle;
 	}
 
+	/**
+	 * This operation returns the last lines written to standard output by the
+	 * process launched by this Item, oldest first. It lets clients follow a
+	 * running process without reading its log files. The base class does not
+	 * launch processes and returns an empty list. Subclasses that do should
+	 * override this operation.
+	 * 
+	 * @return The last lines of standard output. The list is never null.
+	 */
+	public ArrayList<String> getStdOutTail() {
+		return new ArrayList<String>();
+	}
+
+	/**
+	 * This operation returns the last lines written to standard error by the
+	 * process launched by this Item, oldest first. The base class returns an
+	 * empty list.
+	 * 
+	 * @return The last lines of standard error. The list is never null.
+	 */
+	public ArrayList<String> getStdErrTail() {
+		return new ArrayList<String>();
+	}
+
 	/**
 	 * This operations allows subclasses to throw a visual error message to
 	 * users of the subclassed Item to indicate an error in the use of the Item.
@@ -12,10 +12,22 @@
  *******************************************************************************/
 package org.eclipse.ice.item;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.PriorityQueue;
+import java.util.Set;
 
 import org.eclipse.ice.datastructures.ICEObject.IUpdateable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * <p>
@@ -24,11 +36,26 @@ import org.eclipse.ice.datastructures.ICEObject.IUpdateable;
  * Registry and it will call their update method when the value of a key is
  * initially set or changed.
  * </p>
+ * <p>
+ * The Registry keeps track of the keys whose values have changed since the
+ * last dispatch and only updates the registrants of those keys. If a
+ * registrant is itself the source of a key, as an Entry is for its name, it
+ * can be registered with that key so that the Registry knows the dependencies
+ * between keys. Changed keys are then dispatched parents first. Keys in a
+ * dependency cycle are dispatched in the order they were added and are
+ * reported by {@link #getCyclicKeys()}.
+ * </p>
  * 
  * @author Jay Jay Billings
  */
 public class Registry {
 
+	/**
+	 * Logger for handling event messages and other information.
+	 */
+	private static final Logger logger = LoggerFactory
+			.getLogger(Registry.class);
+
 	/**
 	 * <p>
 	 * The set of IUpdateable objects that are registered for updates.
@@ -43,18 +70,55 @@ public class Registry {
 	private HashMap<String, ArrayList<IUpdateable>> keysAndComponents;
 
 	/**
-	 * The map for storing keys and values
+	 * The set of things registered against each key. It is used to keep a
+	 * registrant from being registered twice against the same key. It compares
+	 * registrants by identity because Entries that are equal are still
+	 * different registrants.
+	 */
+	private HashMap<String, Set<IUpdateable>> registrantSets;
+
+	/**
+	 * The map for storing keys and values. It keeps the keys in the order
+	 * they were added.
 	 */
 	private HashMap<String, String> keysAndValues;
 
+	/**
+	 * The keys that depend on each key. A key depends on another key if a
+	 * registrant of the other key is the source of its value.
+	 */
+	private HashMap<String, LinkedHashSet<String>> dependentKeys;
+
+	/**
+	 * The keys whose values were set or changed, or that have new
+	 * registrants, since the last dispatch.
+	 */
+	private LinkedHashSet<String> changedKeys;
+
+	/**
+	 * The position of each key in the dispatch order, or null if the keys or
+	 * their dependencies have changed since the order was computed.
+	 */
+	private HashMap<String, Integer> dispatchOrder;
+
+	/**
+	 * The keys that are in or behind a dependency cycle. It is computed with
+	 * the dispatch order.
+	 */
+	private ArrayList<String> cyclicKeys;
+
 	/**
 	 * <p>
 	 * The constructor.
 	 * </p>
 	 */
 	public Registry() {
-		keysAndValues = new HashMap<String, String>();
+		keysAndValues = new LinkedHashMap<String, String>();
 		keysAndComponents = new HashMap<String, ArrayList<IUpdateable>>();
+		registrantSets = new HashMap<String, Set<IUpdateable>>();
+		dependentKeys = new HashMap<String, LinkedHashSet<String>>();
+		changedKeys = new LinkedHashSet<String>();
+		cyclicKeys = new ArrayList<String>();
 	}
 
 	/**
@@ -63,7 +127,8 @@ public class Registry {
 	 * against a key in the Registry. If the value of the key is set or changed,
 	 * the Registry will call the update operation of the IUpdateable interface
 	 * when the Registry.dispatch() is called. If the key is not in the
-	 * Registry, it will be added as part of the registration.
+	 * Registry, it will be added as part of the registration. A new registrant
+	 * is updated with the current value of the key on the next dispatch.
 	 * </p>
 	 * 
 	 * @param registrant
@@ -83,23 +148,77 @@ public class Registry {
 	public boolean register(IUpdateable registrant, String key) {
 
 		// Local Declarations
-		boolean retVal = false;
+		ArrayList<IUpdateable> registrants = keysAndComponents.get(key);
 
-		// Check the maps to see if they contain the key
-		if (keysAndComponents.containsKey(key)
-				&& keysAndValues.containsKey(key)) {
-			// Just push the registrant onto the list, set the return value
-			retVal = keysAndComponents.get(key).add(registrant);
-		} else {
-			// Create a a dummy list for the Entries
-			ArrayList<IUpdateable> dummyList = new ArrayList<IUpdateable>();
-			dummyList.add(registrant);
-			// Put the key and the list into the map
-			keysAndComponents.put(key, dummyList);
+		// Add the key if it is new. Its value is not touched if it was
+		// already set.
+		if (registrants == null) {
+			registrants = new ArrayList<IUpdateable>();
+			keysAndComponents.put(key, registrants);
+			registrantSets.put(key, Collections
+					.newSetFromMap(new IdentityHashMap<IUpdateable, Boolean>()));
+		}
+		if (!keysAndValues.containsKey(key)) {
 			keysAndValues.put(key, null);
-			// Set the return value by checking for the keys
-			retVal = keysAndComponents.containsKey(key)
-					|| keysAndValues.containsKey(key);
+			dispatchOrder = null;
+		}
+
+		// Push the registrant onto the list if it is not already there and
+		// make sure it gets the value on the next dispatch.
+		if (registrantSets.get(key).add(registrant)) {
+			registrants.add(registrant);
+			changedKeys.add(key);
+		}
+
+		return true;
+	}
+
+	/**
+	 * <p>
+	 * This operation registers a registrant against a key like
+	 * {@link #register(IUpdateable, String)} and also records that the
+	 * registrant is the source of the value of another key, such as an Entry
+	 * and its name. The second key is then dispatched after the first one.
+	 * </p>
+	 * 
+	 * @param registrant
+	 *            <p>
+	 *            The Entry that depends on the value of the key and should be
+	 *            notified of changes.
+	 *            </p>
+	 * @param key
+	 *            <p>
+	 *            The key for which the Entry should be notified of changes to
+	 *            its value, such as the name of its parent.
+	 *            </p>
+	 * @param registrantKey
+	 *            <p>
+	 *            The key whose value comes from the registrant, such as the
+	 *            name of the Entry.
+	 *            </p>
+	 * @return <p>
+	 *         True if the registration is successful, false otherwise.
+	 *         </p>
+	 */
+	public boolean register(IUpdateable registrant, String key,
+			String registrantKey) {
+
+		// Register against the key
+		boolean retVal = register(registrant, key);
+
+		// Add the dependency between the keys
+		if (retVal && registrantKey != null) {
+			if (!keysAndValues.containsKey(registrantKey)) {
+				keysAndValues.put(registrantKey, null);
+			}
+			LinkedHashSet<String> dependents = dependentKeys.get(key);
+			if (dependents == null) {
+				dependents = new LinkedHashSet<String>();
+				dependentKeys.put(key, dependents);
+			}
+			if (dependents.add(registrantKey)) {
+				dispatchOrder = null;
+			}
 		}
 
 		return retVal;
@@ -109,25 +228,62 @@ public class Registry {
 	 * <p>
 	 * The dispatch operation directs the Registry to call the update operation
 	 * on all of the Entries that are registered against keys with updated
-	 * values.
+	 * values. Keys that are changed by the registrants during the dispatch are
+	 * dispatched too if they come after the key that changed them. Otherwise,
+	 * they are left for the next dispatch.
 	 * </p>
 	 */
 	public void dispatch() {
 
-		// Loop over all the keys and update the ones that need it.
-		for (String aKey : keysAndValues.keySet()) {
-			// Debug info
-			// Only do the update for keys that have registrants
-			if (keysAndComponents.containsKey(aKey)) {
-				for (IUpdateable registrant : keysAndComponents.get(aKey)) {
-					registrant.update(aKey, keysAndValues.get(aKey));
-					// Debug information
+		// Return if nothing has changed
+		if (changedKeys.isEmpty()) {
+			return;
+		}
+
+		// Local Declarations
+		final HashMap<String, Integer> order = getDispatchOrder();
+		PriorityQueue<String> queue = new PriorityQueue<String>(
+				changedKeys.size(), new Comparator<String>() {
+					@Override
+					public int compare(String first, String second) {
+						return order.get(first).compareTo(order.get(second));
+					}
+				});
+		HashSet<String> dispatchedKeys = new HashSet<String>();
+
+		// Take the changed keys
+		queue.addAll(changedKeys);
+		changedKeys.clear();
+
+		// Loop over the changed keys in order and update their registrants
+		while (!queue.isEmpty()) {
+			String aKey = queue.poll();
+			if (!dispatchedKeys.add(aKey)) {
+				continue;
+			}
+
+			// Only do the update for keys that have registrants. The list may
+			// grow if a registrant registers something else.
+			ArrayList<IUpdateable> registrants = keysAndComponents.get(aKey);
+			if (registrants != null) {
+				for (int i = 0; i < registrants.size(); i++) {
+					registrants.get(i).update(aKey, keysAndValues.get(aKey));
 				}
 			}
-		}
 
-		// This is debug information only - print the registered keys and the
-		// hashcodes
+			// Queue the keys that were changed by the registrants. Keys that
+			// were already dispatched or added during this dispatch wait for
+			// the next one.
+			Iterator<String> iter = changedKeys.iterator();
+			while (iter.hasNext()) {
+				String changedKey = iter.next();
+				if (!dispatchedKeys.contains(changedKey)
+						&& order.containsKey(changedKey)) {
+					queue.add(changedKey);
+					iter.remove();
+				}
+			}
+		}
 
 		return;
 	}
@@ -150,14 +306,19 @@ public class Registry {
 	 *         </p>
 	 */
 	public boolean setValue(String key, String value) {
-		boolean retVal = false;
+
+		// Mark the key if it is new or its value changed
+		if (!keysAndValues.containsKey(key)) {
+			dispatchOrder = null;
+			changedKeys.add(key);
+		} else if (!equals(keysAndValues.get(key), value)) {
+			changedKeys.add(key);
+		}
 
 		// Set the value against the key
 		keysAndValues.put(key, value);
-		// Set the return value by making sure it actually made it into the map
-		retVal = keysAndValues.containsKey(key);
 
-		return retVal;
+		return true;
 	}
 
 	/**
@@ -208,7 +369,11 @@ public class Registry {
 
 		// Update the value if it is in the map
 		if (keysAndValues.containsKey(key)) {
-			keysAndValues.put(key, value);
+			// Only mark the key if the value changed
+			if (!equals(keysAndValues.get(key), value)) {
+				keysAndValues.put(key, value);
+				changedKeys.add(key);
+			}
 			retVal = true;
 		}
 
@@ -231,4 +396,104 @@ public class Registry {
 	public boolean containsKey(String keyToCheck) {
 		return keysAndValues.containsKey(keyToCheck);
 	}
-}
\ No newline at end of file
+
+	/**
+	 * <p>
+	 * This operation returns the keys that are in a dependency cycle or that
+	 * depend on a key in a cycle. They are still dispatched, but in the order
+	 * they were added instead of parents first.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         The keys in a dependency cycle, or an empty list if there are
+	 *         none.
+	 *         </p>
+	 */
+	public ArrayList<String> getCyclicKeys() {
+		getDispatchOrder();
+		return new ArrayList<String>(cyclicKeys);
+	}
+
+	/**
+	 * This operation returns the position of every key in the dispatch order,
+	 * computing it first if the keys or their dependencies have changed. Keys
+	 * come after all of the keys they depend on. Keys that are in a cycle come
+	 * last.
+	 * 
+	 * @return The position of every key in the dispatch order.
+	 */
+	private HashMap<String, Integer> getDispatchOrder() {
+
+		// Return the order if it is current
+		if (dispatchOrder != null) {
+			return dispatchOrder;
+		}
+
+		// Local Declarations
+		HashMap<String, Integer> order = new HashMap<String, Integer>();
+		HashMap<String, Integer> parentCounts = new HashMap<String, Integer>();
+		ArrayDeque<String> readyKeys = new ArrayDeque<String>();
+
+		// Count the parents of each key
+		for (String key : keysAndValues.keySet()) {
+			parentCounts.put(key, 0);
+		}
+		for (LinkedHashSet<String> dependents : dependentKeys.values()) {
+			for (String dependent : dependents) {
+				parentCounts.put(dependent, parentCounts.get(dependent) + 1);
+			}
+		}
+
+		// Order the keys parents first, starting with the keys that have no
+		// parents
+		for (String key : keysAndValues.keySet()) {
+			if (parentCounts.get(key) == 0) {
+				readyKeys.add(key);
+			}
+		}
+		while (!readyKeys.isEmpty()) {
+			String key = readyKeys.poll();
+			order.put(key, order.size());
+			LinkedHashSet<String> dependents = dependentKeys.get(key);
+			if (dependents != null) {
+				for (String dependent : dependents) {
+					int count = parentCounts.get(dependent) - 1;
+					parentCounts.put(dependent, count);
+					if (count == 0) {
+						readyKeys.add(dependent);
+					}
+				}
+			}
+		}
+
+		// Any keys left over are in or behind a cycle
+		cyclicKeys.clear();
+		for (String key : keysAndValues.keySet()) {
+			if (!order.containsKey(key)) {
+				order.put(key, order.size());
+				cyclicKeys.add(key);
+			}
+		}
+		if (!cyclicKeys.isEmpty()) {
+			logger.warn("Registry Message: Keys " + cyclicKeys
+					+ " are in or behind a dependency cycle.");
+		}
+
+		dispatchOrder = order;
+
+		return dispatchOrder;
+	}
+
+	/**
+	 * This operation compares two values that may be null.
+	 * 
+	 * @param first
+	 *            The first value.
+	 * @param second
+	 *            The second value.
+	 * @return True if both are null or they are equal, false otherwise.
+	 */
+	private static boolean equals(String first, String second) {
+		return (first == null) ? second == null : first.equals(second);
+	}
+}
@@ -69,7 +69,7 @@ public abstract class Action {
 	 * </p>
 	 * 
 	 */
-	protected FormStatus status;
+	protected volatile FormStatus status;
 
 	/**
 	 * <p>
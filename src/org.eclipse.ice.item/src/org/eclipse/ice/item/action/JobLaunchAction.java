@@ -12,13 +12,11 @@
  *******************************************************************************/
 package org.eclipse.ice.item.action;
 
-import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.nio.file.Files;
@@ -30,6 +28,10 @@ import java.util.Date;
 import java.util.Dictionary;
 import java.util.Enumeration;
 import java.util.Hashtable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -326,6 +328,21 @@ import org.eclipse.remote.core.exception.RemoteConnectionException;
  * of a command. This assumption is valid on Windows, Linux and Unix systems so
  * long as the Windows shell is Powershell.
  * <p>
+ * The stdout and stderr streams of the job, local or remote, are read at the
+ * same time on separate threads so that a job that writes heavily to one of
+ * them never blocks on a full pipe. The logs are buffered and limited to the
+ * size given by the "max_log_size" system property (100 MB by default). The
+ * last lines of each stream are kept in memory and are available from
+ * getStdOutTail() and getStdErrTail() while the job runs.
+ * </p>
+ * <p>
+ * Completion is event driven. Local jobs are waited on with Process.waitFor()
+ * once their output has been drained and remote jobs are watched by the
+ * shared {@link RemoteJobMonitor}. The future returned by getCompletion() is
+ * completed with the final status as soon as the launch finishes. Form
+ * submission and cancellation release the launch thread through a latch
+ * instead of being polled.
+ * </p>
  *
  * @author Jay Jay Billings, Anna Wojtowicz
  */
@@ -348,6 +365,18 @@ public class JobLaunchAction extends Action implements Runnable {
 	 */
 	private AtomicBoolean formSubmitted;
 
+	/**
+	 * A latch that the launch thread waits on until the Form has been
+	 * submitted or the launch is cancelled.
+	 */
+	private volatile CountDownLatch formLatch = new CountDownLatch(0);
+
+	/**
+	 * The future that is completed with the final status of the launch when
+	 * the launch thread finishes.
+	 */
+	private volatile CompletableFuture<FormStatus> completion = new CompletableFuture<FormStatus>();
+
 	/**
 	 * AtomicBoolean to handle cancellations.
 	 */
@@ -380,15 +409,32 @@ public class JobLaunchAction extends Action implements Runnable {
 	 */
 	BufferedWriter stdOut = null, stdErr = null;
 
+	/**
+	 * The number of lines of stdout and stderr kept in memory.
+	 */
+	public static final int tailLength = 500;
+
+	/**
+	 * The last lines written to stdout and stderr by the job.
+	 */
+	private LineRingBuffer stdOutTail, stdErrTail;
+
+	/**
+	 * The maximum size of the stdout and stderr logs of each stage, in
+	 * characters. The default size is 100 MB and is set as a VM argument
+	 * called "max_log_size".
+	 */
+	private long maxLogSize;
+
 	/**
 	 * A process for storing the process information from the launch.
 	 */
-	private Process job = null;
+	private volatile Process job = null;
 
 	/**
 	 * An IRemoteProcess that is used by PTP for remote execution.
 	 */
-	private IRemoteProcess remoteJob = null;
+	private volatile IRemoteProcess remoteJob = null;
 
 	/**
 	 * A private flag to mark whether or not the input file name should be
@@ -460,6 +506,19 @@ public class JobLaunchAction extends Action implements Runnable {
 		isLocal = new AtomicBoolean();
 		fileMap = new Hashtable<String, String>();
 		cancelled = new AtomicBoolean(false);
+		stdOutTail = new LineRingBuffer(tailLength);
+		stdErrTail = new LineRingBuffer(tailLength);
+
+		// Get the maxLogSize from the system properties
+		maxLogSize = 104857600;
+		String logSize = System.getProperty("max_log_size");
+		if (logSize != null) {
+			try {
+				maxLogSize = Long.parseLong(logSize);
+			} catch (NumberFormatException e) {
+				logger.error(getClass().getName() + " Exception!", e);
+			}
+		}
 
 		// Get the maxFileSize from the system properties
 		String fileSize = System.getProperty("max_download_size");
@@ -661,7 +720,7 @@ public class JobLaunchAction extends Action implements Runnable {
 				// Complain
 				logger.error(getClass().getName() + " Exception!",e);
 			}
-			bufferedWriter = new BufferedWriter(writer);
+			bufferedWriter = new BufferedWriter(writer, 65536);
 			return bufferedWriter;
 		} else {
 			return null;
@@ -808,6 +867,10 @@ public class JobLaunchAction extends Action implements Runnable {
 			// Only launch the stage if it hasn't been cancelled.
 			if (!cancelled.get()) {
 				job = jobBuilder.start();
+				// Stop it right away if it was cancelled while starting
+				if (cancelled.get()) {
+					job.destroy();
+				}
 			}
 		} catch (IOException e) {
 			// Grab the error
@@ -836,19 +899,18 @@ public class JobLaunchAction extends Action implements Runnable {
 		// Log the output
 		stdOutStream = job.getInputStream();
 		stdErrStream = job.getErrorStream();
-		logOutput(stdOutStream, stdErrStream);
 		if (logOutput(stdOutStream, stdErrStream).equals(FormStatus.InfoError)) {
 			// Throw an error if the streaming fails
 			return FormStatus.InfoError;
 		}
 
-		// Try to get the exit value of the job
+		// Wait for the job to exit. Its output has already been drained, so
+		// this returns as soon as the process ends.
 		try {
-			exitValue = job.exitValue();
-		} catch (IllegalThreadStateException e) {
-			// The job is still running, so it should be watched by someone
-			// else.
-			return FormStatus.Processing;
+			exitValue = job.waitFor();
+		} catch (InterruptedException e) {
+			logger.error(getClass().getName() + " Exception!", e);
+			return FormStatus.InfoError;
 		}
 
 		// By convention exit values other than zero mean that the program
@@ -867,44 +929,33 @@ public class JobLaunchAction extends Action implements Runnable {
 	 * rely on global variables, but since IRemoteProcess and Process are not
 	 * part of the same inheritance hierarchy, there is no better way to deal
 	 * with it.
+	 * 
+	 * It blocks until the job exits. Local jobs are waited on directly and
+	 * remote jobs are watched by the shared RemoteJobMonitor, so this thread
+	 * does no work while the job runs.
 	 */
 	protected void monitorJob() {
 
 		// Local Declarations
 		int exitValue = -32; // Totally arbitrary
 
-		// Wait until the job exits. By convention an exit code of
-		// zero means that the job has succeeded. Watch it until it
-		// finishes.
-		while (exitValue != 0) {
-			// Try to get the exit value of the job
-			try {
-				exitValue = (isLocal.get()) ? job.exitValue() : remoteJob
-						.exitValue();
-			} catch (IllegalThreadStateException e) {
-				// Complain, but keep watching
-				logger.error(getClass().getName() + " Exception!",e);
-			}
-			// Give it a second
-			try {
-				Thread.currentThread();
-				Thread.sleep(1000);
-			} catch (InterruptedException e) {
-				// Complain
-				logger.error(getClass().getName() + " Exception!",e);
-			}
-
-			// If for some reason the job has failed,
-			// it shouldn't be alive and we should break;
+		try {
 			if (isLocal.get()) {
-				if (!job.isAlive()) {
-					break;
-				}
-			} else {
-				if (remoteJob.isCompleted()) {
-					break;
+				// Wait for the local job if one was started
+				if (job != null) {
+					exitValue = job.waitFor();
 				}
+			} else if (remoteJob != null) {
+				// Wait for the shared monitor to see the remote job finish
+				exitValue = RemoteJobMonitor.getDefault().watch(remoteJob)
+						.get();
 			}
+		} catch (InterruptedException e) {
+			// Complain
+			logger.error(getClass().getName() + " Exception!", e);
+		} catch (ExecutionException e) {
+			// Complain
+			logger.error(getClass().getName() + " Exception!", e);
 		}
 		logger.info("JobLaunchAction Message: Exit value = " + exitValue);
 
@@ -912,7 +963,23 @@ public class JobLaunchAction extends Action implements Runnable {
 	}
 
 	/**
-	 * This operation logs the content of the output and error streams
+	 * This operation returns a future that is completed with the final status
+	 * of the launch as soon as the launch thread finishes. The future of a
+	 * launch that has not finished is kept by execute(), so clients may get it
+	 * before the launch starts. A new future is created when execute() is
+	 * called after the previous launch finished.
+	 *
+	 * @return The completion of the current launch.
+	 */
+	public Future<FormStatus> getCompletion() {
+		return completion;
+	}
+
+	/**
+	 * This operation logs the content of the output and error streams. The
+	 * error stream is read on a separate thread while the output stream is
+	 * read on the calling thread, and the operation returns once both streams
+	 * are closed.
 	 *
 	 * @param output
 	 *            The output stream from the code
@@ -923,44 +990,58 @@ public class JobLaunchAction extends Action implements Runnable {
 	protected FormStatus logOutput(InputStream output, InputStream errors) {
 
 		// Local Declarations
-		InputStreamReader stdOutStreamReader, stdErrStreamReader;
-		BufferedReader stdOutReader, stdErrReader;
-		String nextLine;
-
-		// Setup the BufferedReader that will get stdout from the process.
-		stdOutStreamReader = new InputStreamReader(output);
-		stdOutReader = new BufferedReader(stdOutStreamReader);
-		// Setup the BufferedReader that will get stderr from the process.
-		stdErrStreamReader = new InputStreamReader(errors);
-		stdErrReader = new BufferedReader(stdErrStreamReader);
-
-		// Catch the stdout and stderr output
+		StreamCapture stdOutCapture = new StreamCapture(output, stdOut,
+				stdOutTail, maxLogSize);
+		StreamCapture stdErrCapture = new StreamCapture(errors, stdErr,
+				stdErrTail, maxLogSize);
+		Thread stdErrThread = new Thread(stdErrCapture,
+				"JobLaunchAction stderr capture");
+
+		// Drain stderr in the background and stdout on this thread
+		stdErrThread.setDaemon(true);
+		stdErrThread.start();
+		stdOutCapture.run();
 		try {
-			// Write to the stdOut file
-			while ((nextLine = stdOutReader.readLine()) != null) {
-				stdOut.write(nextLine);
-				// MUST put a new line for this type of writer. "\r\n" works on
-				// Windows and Unix-based systems.
-				stdOut.write("\r\n");
-				stdOut.flush();
-			}
-			// Write to the stdErr file
-			while ((nextLine = stdErrReader.readLine()) != null) {
-				stdErr.write(nextLine);
-				// MUST put a new line for this type of writer. "\r\n" works on
-				// Windows and Unix-based systems.
-				stdErr.write("\r\n");
-				stdErr.flush();
-			}
-		} catch (IOException e) {
-			// Or fail and complain about it.
-			logger.error(getClass().getName() + " Exception!",e);
+			stdErrThread.join();
+		} catch (InterruptedException e) {
+			logger.error(getClass().getName() + " Exception!", e);
+			return FormStatus.InfoError;
+		}
+
+		// Fail and complain if either stream could not be logged
+		if (stdOutCapture.getError() != null) {
+			logger.error(getClass().getName() + " Exception!",
+					stdOutCapture.getError());
+			return FormStatus.InfoError;
+		} else if (stdErrCapture.getError() != null) {
+			logger.error(getClass().getName() + " Exception!",
+					stdErrCapture.getError());
 			return FormStatus.InfoError;
 		}
 
 		return FormStatus.Processing;
 	}
 
+	/**
+	 * This operation returns the last lines that the job wrote to stdout,
+	 * oldest first. It may be called while the job is running.
+	 *
+	 * @return The last lines of stdout, up to {@link #tailLength} of them.
+	 */
+	public ArrayList<String> getStdOutTail() {
+		return stdOutTail.getLines();
+	}
+
+	/**
+	 * This operation returns the last lines that the job wrote to stderr,
+	 * oldest first. It may be called while the job is running.
+	 *
+	 * @return The last lines of stderr, up to {@link #tailLength} of them.
+	 */
+	public ArrayList<String> getStdErrTail() {
+		return stdErrTail.getLines();
+	}
+
 	/**
 	 * This operation launches the job on a remote machine.
 	 */
@@ -997,17 +1078,17 @@ public class JobLaunchAction extends Action implements Runnable {
 				localStorageDir);
 		String launchCMDFileName = "";
 
-		// Block until the Form is submitted
-		while (!formSubmitted.get()) {
-			try {
-				Thread.sleep(100);
-			} catch (InterruptedException e1) {
-				// Complain
-				logger.error(getClass().getName() + " Exception!", e1);
-				return;
-			}
-			// DEBUG - logger.info("Form not yet submitted.");
-		} // FIXME - Need to be able to cancel!
+		// Block until the Form is submitted or the launch is cancelled
+		try {
+			formLatch.await();
+		} catch (InterruptedException e1) {
+			// Complain
+			logger.error(getClass().getName() + " Exception!", e1);
+			return;
+		}
+		if (cancelled.get()) {
+			return;
+		}
 
 		// Write the command script that contains all of the commands to launch.
 		try {
@@ -1178,6 +1259,10 @@ public class JobLaunchAction extends Action implements Runnable {
 						+ launchCMDFileName);
 				remoteJob = processBuilder
 						.start(IRemoteProcessBuilder.FORWARD_X11);
+				// Stop it right away if it was cancelled while starting
+				if (cancelled.get()) {
+					remoteJob.destroy();
+				}
 			} catch (IOException e) {
 				// Print diagnostic information and fail
 				logger.error(getClass().getName() + " Exception!",e);
@@ -1229,6 +1314,7 @@ public class JobLaunchAction extends Action implements Runnable {
 									+ ".";
 							logger.info(msg);
 							stdOut.write(msg + "\n");
+							stdOutTail.add(msg);
 							// Get a handle to the local file. Note that it may
 							// not
 							// exist yet.
@@ -1250,6 +1336,7 @@ public class JobLaunchAction extends Action implements Runnable {
 									+ maxFileSize + " byte limit.";
 							logger.info(msg);
 							stdOut.write(msg + "\n");
+							stdOutTail.add(msg);
 						}
 						// Flush the messages so that clients can be updated.
 						stdOut.flush();
@@ -1348,8 +1435,9 @@ public class JobLaunchAction extends Action implements Runnable {
 			formAtomic.set((LoginInfoForm) form);
 			jschUIInfo.setForm((LoginInfoForm) form);
 
-			// Mark the Form as submitted
+			// Mark the Form as submitted and release the launch thread
 			formSubmitted.set(true);
+			formLatch.countDown();
 
 			// Set the status
 			logger.info("SETTING FLAG TO PROCESSING");
@@ -1374,6 +1462,10 @@ public class JobLaunchAction extends Action implements Runnable {
 		Thread processThread = new Thread(this);
 		formSubmitted = new AtomicBoolean();
 		formSubmitted.set(true);
+		formLatch = new CountDownLatch(0);
+		if (completion.isDone()) {
+			completion = new CompletableFuture<FormStatus>();
+		}
 
 		// Determine if this is a local launch or not
 		String hostname = dictionary.get("hostname");
@@ -1405,6 +1497,7 @@ public class JobLaunchAction extends Action implements Runnable {
 
 			// Mark the form as not yet submitted
 			formSubmitted.set(false);
+			formLatch = new CountDownLatch(1);
 			formAtomic = new AtomicReference<LoginInfoForm>();
 
 			// Set the status
@@ -1461,8 +1554,10 @@ public class JobLaunchAction extends Action implements Runnable {
 	@Override
 	public FormStatus cancel() {
 
-		// Throw the flag
+		// Throw the flag and release the launch thread if it is waiting on
+		// the Form
 		cancelled.set(true);
+		formLatch.countDown();
 
 		// Stop local jobs
 		if (isLocal.get() && job != null) {
@@ -1526,6 +1621,27 @@ public class JobLaunchAction extends Action implements Runnable {
 	@Override
 	public void run() {
 
+		// Launch the job and complete the future with the final status
+		try {
+			launch();
+		} finally {
+			// The launch is over, so it can not still be processing
+			if (status.equals(FormStatus.Processing)
+					|| status.equals(FormStatus.NeedsInfo)) {
+				status = (cancelled.get()) ? FormStatus.ReadyToProcess
+						: FormStatus.InfoError;
+			}
+			completion.complete(status);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation performs the launch on the thread started by execute().
+	 */
+	private void launch() {
+
 		// Local Declarations
 		String executable = null, inputFile = null, hostname = null;
 		String stdOutFileName = null, stdErrFileName = null;
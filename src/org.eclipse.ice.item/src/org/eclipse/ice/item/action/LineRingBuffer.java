@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.item.action;
+
+import java.util.ArrayList;
+
+/**
+ * <p>
+ * This class stores the last lines written to a stream in a fixed number of
+ * slots. When it is full, each new line replaces the oldest one. It is used to
+ * show the tail of a job's output without reading the log files. It is safe to
+ * add lines on one thread while other threads read them.
+ * </p>
+ */
+public class LineRingBuffer {
+
+	/**
+	 * The slots holding the lines.
+	 */
+	private final String[] lines;
+
+	/**
+	 * The index of the oldest line.
+	 */
+	private int start = 0;
+
+	/**
+	 * The number of lines currently stored.
+	 */
+	private int size = 0;
+
+	/**
+	 * The total number of lines added to the buffer.
+	 */
+	private long totalLines = 0;
+
+	/**
+	 * The constructor.
+	 *
+	 * @param capacity
+	 *            The maximum number of lines that the buffer will hold. It
+	 *            must be at least one.
+	 */
+	public LineRingBuffer(int capacity) {
+		lines = new String[Math.max(1, capacity)];
+	}
+
+	/**
+	 * This operation adds a line to the buffer, replacing the oldest line if
+	 * the buffer is full.
+	 *
+	 * @param line
+	 *            The line to add. Null lines are ignored.
+	 */
+	public synchronized void add(String line) {
+
+		if (line != null) {
+			if (size < lines.length) {
+				lines[(start + size) % lines.length] = line;
+				size++;
+			} else {
+				lines[start] = line;
+				start = (start + 1) % lines.length;
+			}
+			totalLines++;
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation returns all of the lines in the buffer, oldest first.
+	 *
+	 * @return A copy of the lines.
+	 */
+	public synchronized ArrayList<String> getLines() {
+		return getLines(size);
+	}
+
+	/**
+	 * This operation returns the last lines in the buffer, oldest first.
+	 *
+	 * @param count
+	 *            The maximum number of lines to return.
+	 * @return A copy of the last count lines, or all of the lines if there are
+	 *         fewer than count.
+	 */
+	public synchronized ArrayList<String> getLines(int count) {
+
+		// Local Declarations
+		int numLines = Math.max(0, Math.min(count, size));
+		ArrayList<String> tail = new ArrayList<String>(numLines);
+
+		// Copy the newest lines, starting with the oldest of them
+		for (int i = size - numLines; i < size; i++) {
+			tail.add(lines[(start + i) % lines.length]);
+		}
+
+		return tail;
+	}
+
+	/**
+	 * This operation returns the number of lines added to the buffer since it
+	 * was created or cleared, including the ones that have been replaced.
+	 *
+	 * @return The total number of lines.
+	 */
+	public synchronized long getTotalLines() {
+		return totalLines;
+	}
+
+	/**
+	 * This operation returns the maximum number of lines held by the buffer.
+	 *
+	 * @return The capacity.
+	 */
+	public int getCapacity() {
+		return lines.length;
+	}
+
+	/**
+	 * This operation removes all of the lines from the buffer.
+	 */
+	public synchronized void clear() {
+		for (int i = 0; i < lines.length; i++) {
+			lines[i] = null;
+		}
+		start = 0;
+		size = 0;
+		totalLines = 0;
+	}
+}
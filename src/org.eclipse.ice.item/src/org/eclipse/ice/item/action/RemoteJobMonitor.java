@@ -0,0 +1,259 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.item.action;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.remote.core.IRemoteProcess;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * This class watches remote jobs for completion. IRemoteProcess can only be
+ * polled, so instead of having every running job poll its own process, all of
+ * the watched jobs are checked together by a single scheduled task on one
+ * daemon thread. Each call to watch() returns a future that is completed with
+ * the exit value of the job as soon as the check sees that it has finished.
+ * The task only runs while there are jobs to watch.
+ * </p>
+ */
+public class RemoteJobMonitor {
+
+	/**
+	 * Logger for handling event messages and other information.
+	 */
+	private static final Logger logger = LoggerFactory
+			.getLogger(RemoteJobMonitor.class);
+
+	/**
+	 * The default time between checks, in milliseconds.
+	 */
+	public static final long DEFAULT_PERIOD = 250;
+
+	/**
+	 * The monitor shared by all of the JobLaunchActions.
+	 */
+	private static final RemoteJobMonitor defaultMonitor = new RemoteJobMonitor(
+			DEFAULT_PERIOD);
+
+	/**
+	 * A job that can be checked for completion.
+	 */
+	public interface Completion {
+
+		/**
+		 * This operation returns true if the job has finished.
+		 *
+		 * @return True if the job has finished, false otherwise.
+		 */
+		public boolean isCompleted();
+
+		/**
+		 * This operation returns the exit value of a finished job.
+		 *
+		 * @return The exit value.
+		 */
+		public int exitValue();
+	}
+
+	/**
+	 * The executor that runs the check.
+	 */
+	private final ScheduledThreadPoolExecutor executor;
+
+	/**
+	 * The time between checks in milliseconds.
+	 */
+	private final long period;
+
+	/**
+	 * The jobs that are being watched and the futures that are completed when
+	 * they finish.
+	 */
+	private final ConcurrentHashMap<Completion, CompletableFuture<Integer>> jobs;
+
+	/**
+	 * The scheduled check, or null if it is not running. Guarded by this
+	 * monitor.
+	 */
+	private ScheduledFuture<?> check = null;
+
+	/**
+	 * The constructor.
+	 *
+	 * @param period
+	 *            The time between checks in milliseconds.
+	 */
+	public RemoteJobMonitor(long period) {
+
+		// Create the daemon thread for the checks
+		ThreadFactory factory = new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "ICE Remote Job Monitor");
+				thread.setDaemon(true);
+				return thread;
+			}
+		};
+
+		executor = new ScheduledThreadPoolExecutor(1, factory);
+		this.period = Math.max(1, period);
+		jobs = new ConcurrentHashMap<Completion, CompletableFuture<Integer>>();
+
+		return;
+	}
+
+	/**
+	 * This operation returns the monitor shared by all of ICE.
+	 *
+	 * @return The default monitor.
+	 */
+	public static RemoteJobMonitor getDefault() {
+		return defaultMonitor;
+	}
+
+	/**
+	 * This operation watches a remote process.
+	 *
+	 * @param process
+	 *            The remote process.
+	 * @return A future that is completed with the exit value of the process
+	 *         when it finishes.
+	 */
+	public CompletableFuture<Integer> watch(final IRemoteProcess process) {
+		return watch(new Completion() {
+			@Override
+			public boolean isCompleted() {
+				return process.isCompleted();
+			}
+
+			@Override
+			public int exitValue() {
+				return process.exitValue();
+			}
+		});
+	}
+
+	/**
+	 * This operation watches a job.
+	 *
+	 * @param job
+	 *            The job.
+	 * @return A future that is completed with the exit value of the job when it
+	 *         finishes. Cancelling the future stops watching the job.
+	 */
+	public CompletableFuture<Integer> watch(Completion job) {
+
+		// Local Declarations
+		CompletableFuture<Integer> future = new CompletableFuture<Integer>();
+
+		// Complete the future right away if the job is already done.
+		// Otherwise add it to the map and make sure the check is running.
+		if (!complete(job, future)) {
+			jobs.put(job, future);
+			synchronized (this) {
+				if (check == null) {
+					check = executor.scheduleWithFixedDelay(new Runnable() {
+						@Override
+						public void run() {
+							checkJobs();
+						}
+					}, period, period, TimeUnit.MILLISECONDS);
+				}
+			}
+		}
+
+		return future;
+	}
+
+	/**
+	 * This operation returns the number of jobs being watched.
+	 *
+	 * @return The number of jobs.
+	 */
+	public int getNumberOfJobs() {
+		return jobs.size();
+	}
+
+	/**
+	 * This operation stops the monitor's thread. The default monitor should
+	 * never be shut down.
+	 */
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * This operation checks all of the jobs once and completes the futures of
+	 * the ones that have finished. It stops the check when there are no more
+	 * jobs.
+	 */
+	private void checkJobs() {
+
+		for (Map.Entry<Completion, CompletableFuture<Integer>> entry : jobs
+				.entrySet()) {
+			// Drop jobs that finished or whose futures were cancelled
+			if (entry.getValue().isDone()
+					|| complete(entry.getKey(), entry.getValue())) {
+				jobs.remove(entry.getKey());
+			}
+		}
+
+		// Stop checking if there is nothing left to watch. The check is
+		// restarted by the next call to watch().
+		synchronized (this) {
+			if (jobs.isEmpty() && check != null) {
+				check.cancel(false);
+				check = null;
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation completes the future if the job has finished.
+	 *
+	 * @param job
+	 *            The job
+	 * @param future
+	 *            The future for the job
+	 * @return True if the job has finished, false otherwise.
+	 */
+	private boolean complete(Completion job, CompletableFuture<Integer> future) {
+
+		// Local Declarations
+		boolean completed = false;
+
+		try {
+			if (job.isCompleted()) {
+				future.complete(job.exitValue());
+				completed = true;
+			}
+		} catch (RuntimeException e) {
+			// Stop watching jobs that can not be checked
+			logger.error(getClass().getName() + " Exception!", e);
+			future.completeExceptionally(e);
+			completed = true;
+		}
+
+		return completed;
+	}
+}
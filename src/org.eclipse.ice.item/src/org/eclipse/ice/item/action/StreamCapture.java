@@ -0,0 +1,168 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.item.action;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Writer;
+
+/**
+ * <p>
+ * This class reads a stream from a process line by line until it is closed.
+ * Each line is written to a log and added to a {@link LineRingBuffer} so that
+ * clients can see the latest output without reading the log.
+ * </p>
+ * <p>
+ * The log is flushed whenever the stream has no more data waiting instead of
+ * after every line, so heavy output is written in large blocks but the log
+ * still keeps up with a slow process. Once the log reaches its size limit, a
+ * single note is written to it and further lines are only kept in the ring
+ * buffer. The stream is always read to the end so that the process never
+ * blocks on a full pipe.
+ * </p>
+ * <p>
+ * A StreamCapture is a Runnable so that the streams of a process can be read
+ * on separate threads at the same time.
+ * </p>
+ */
+public class StreamCapture implements Runnable {
+
+	/**
+	 * The size of the buffer used to read the stream.
+	 */
+	private static final int bufferSize = 65536;
+
+	/**
+	 * The line separator written to the log. "\r\n" works on Windows and
+	 * Unix-based systems.
+	 */
+	private static final String newLine = "\r\n";
+
+	/**
+	 * The stream to read.
+	 */
+	private final InputStream input;
+
+	/**
+	 * The log to which the lines are written. It may be null.
+	 */
+	private final Writer log;
+
+	/**
+	 * The buffer that holds the last lines. It may be null.
+	 */
+	private final LineRingBuffer tail;
+
+	/**
+	 * The maximum number of characters written to the log.
+	 */
+	private final long maxLogSize;
+
+	/**
+	 * The number of characters written to the log.
+	 */
+	private long logSize = 0;
+
+	/**
+	 * The exception that stopped the capture, or null if it did not fail.
+	 */
+	private volatile IOException error = null;
+
+	/**
+	 * The constructor.
+	 *
+	 * @param input
+	 *            The stream to read.
+	 * @param log
+	 *            The log to which the lines are written. It is flushed but not
+	 *            closed. It may be null.
+	 * @param tail
+	 *            The buffer that holds the last lines. It may be null.
+	 * @param maxLogSize
+	 *            The maximum number of characters that should be written to
+	 *            the log.
+	 */
+	public StreamCapture(InputStream input, Writer log, LineRingBuffer tail,
+			long maxLogSize) {
+		this.input = input;
+		this.log = log;
+		this.tail = tail;
+		this.maxLogSize = maxLogSize;
+	}
+
+	/**
+	 * This operation reads the stream until it is closed.
+	 */
+	@Override
+	public void run() {
+
+		// Local Declarations
+		BufferedReader reader = new BufferedReader(new InputStreamReader(
+				input), bufferSize);
+		String nextLine;
+		boolean truncated = false;
+
+		try {
+			while ((nextLine = reader.readLine()) != null) {
+				// Keep the line for the tail
+				if (tail != null) {
+					tail.add(nextLine);
+				}
+				if (log != null) {
+					// Write it to the log if there is room
+					if (logSize < maxLogSize) {
+						log.write(nextLine);
+						log.write(newLine);
+						logSize += nextLine.length() + newLine.length();
+					} else if (!truncated) {
+						log.write("# Log truncated after " + maxLogSize
+								+ " characters." + newLine);
+						truncated = true;
+					}
+					// Flush the log once the waiting output has been written
+					if (!reader.ready()) {
+						log.flush();
+					}
+				}
+			}
+			// Flush whatever is left
+			if (log != null) {
+				log.flush();
+			}
+		} catch (IOException e) {
+			error = e;
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation returns the exception that stopped the capture.
+	 *
+	 * @return The exception, or null if the stream was read successfully.
+	 */
+	public IOException getError() {
+		return error;
+	}
+
+	/**
+	 * This operation returns the number of characters written to the log.
+	 *
+	 * @return The size of the log in characters.
+	 */
+	public long getLogSize() {
+		return logSize;
+	}
+}
@@ -25,6 +25,11 @@ import java.util.ArrayList;
 import java.util.Dictionary;
 import java.util.HashMap;
 import java.util.Hashtable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlElement;
@@ -244,6 +249,13 @@ public class JobLauncher extends Item {
 	@XmlTransient()
 	private Job launchJob;
 
+	/**
+	 * The future that is completed with the final status of the current launch
+	 * once the job has finished and its output has been collected.
+	 */
+	@XmlTransient()
+	private volatile CompletableFuture<FormStatus> launchCompletion;
+
 	/**
 	 * 
 	 */
@@ -938,7 +950,9 @@ public class JobLauncher extends Item {
 				createOutputFiles();
 
 				// Launch the action
-				action = new JobLaunchAction();
+				final JobLaunchAction launchAction = new JobLaunchAction();
+				action = launchAction;
+				final CompletableFuture<FormStatus> jobCompletion = createLaunchCompletion();
 
 				// If we have a valid connection then give it to the action
 				IRemoteConnection remoteConnection = getRemoteConnection(actionDataMap
@@ -965,21 +979,32 @@ public class JobLauncher extends Item {
 								ticks);
 						try {
 							// Execute the Action
-							status = action.execute(actionDataMap);
+							status = launchAction.execute(actionDataMap);
+							Future<FormStatus> completion = launchAction
+									.getCompletion();
 
 							// While its processing, keep the progress bar going
+							// and wait for the launch to complete.
 							while (!status.equals(FormStatus.Processed)
 									&& !status.equals(FormStatus.InfoError)) {
 								monitor.subTask("Executing the Job");
-								Thread.sleep(1000);
+								try {
+									status = completion.get(250,
+											TimeUnit.MILLISECONDS);
+									break;
+								} catch (TimeoutException e) {
+									// Still running
+								}
 								// Check for Cancellation
 								if (monitor.isCanceled()) {
-									status = action.cancel();
+									status = launchAction.cancel();
 									return Status.CANCEL_STATUS;
 								}
 							}
 						} catch (InterruptedException e) {
 							logger.error(getClass().getName() + " Exception!",e);
+						} catch (ExecutionException e) {
+							logger.error(getClass().getName() + " Exception!",e);
 						} finally {
 							monitor.subTask("Job Launched Successfully.");
 							monitor.worked(100);
@@ -997,16 +1022,10 @@ public class JobLauncher extends Item {
 				status = FormStatus.Processing;
 
 				// Invoke the output streaming thread
-				streamOutputData();
+				streamOutputData(launchAction, jobCompletion);
 
-				// Sleep the thread for a sec to give
-				// the Action time to do its thing
-				try {
-					Thread.sleep(1000);
-				} catch (InterruptedException e) {
-					logger.error(getClass().getName() + " Exception!",e);
-				}
-				// Return the new status
+				// Return the new status. Clients wait on getCompletion() for
+				// the final status.
 				return status;
 
 			} else {
@@ -1033,6 +1052,11 @@ public class JobLauncher extends Item {
 		if (status.equals(FormStatus.ReadyToProcess)) {
 			launchJob.cancel();
 		}
+		// Release clients that are waiting for a launch that will not finish
+		CompletableFuture<FormStatus> completion = launchCompletion;
+		if (completion != null && !isLaunching(status)) {
+			completion.complete(status);
+		}
 		return status;
 	}
 
@@ -1048,12 +1072,102 @@ public class JobLauncher extends Item {
 	// remoteConnection = connection;
 	// }
 
+	/**
+	 * This operation returns the last lines written to stdout by the job that
+	 * is running or last ran, without reading the log file.
+	 * 
+	 * @see org.eclipse.ice.item.Item#getStdOutTail()
+	 */
+	@Override
+	public ArrayList<String> getStdOutTail() {
+		if (action instanceof JobLaunchAction) {
+			return ((JobLaunchAction) action).getStdOutTail();
+		}
+		return super.getStdOutTail();
+	}
+
+	/**
+	 * This operation returns the last lines written to stderr by the job that
+	 * is running or last ran, without reading the log file.
+	 * 
+	 * @see org.eclipse.ice.item.Item#getStdErrTail()
+	 */
+	@Override
+	public ArrayList<String> getStdErrTail() {
+		if (action instanceof JobLaunchAction) {
+			return ((JobLaunchAction) action).getStdErrTail();
+		}
+		return super.getStdErrTail();
+	}
+
+	/**
+	 * This operation returns a future that is completed with the final status
+	 * of the current launch once the job has finished and its output has been
+	 * collected. Clients that launch many jobs, like the MultiLauncher, can
+	 * wait on it instead of polling getStatus().
+	 * 
+	 * @return The completion of the current launch. If no job has been
+	 *         launched, it is a completed future holding the current status,
+	 *         unless the JobLauncher is processing or needs information. Then
+	 *         it is completed when the next launch finishes.
+	 */
+	public synchronized CompletableFuture<FormStatus> getCompletion() {
+
+		// Local Declarations
+		CompletableFuture<FormStatus> completion = launchCompletion;
+
+		if (completion == null) {
+			if (isLaunching(status)) {
+				// Wait for the launch to reach a final status
+				completion = new CompletableFuture<FormStatus>();
+				launchCompletion = completion;
+			} else {
+				completion = CompletableFuture.completedFuture(status);
+			}
+		}
+
+		return completion;
+	}
+
+	/**
+	 * This operation returns the future that a new launch completes. A pending
+	 * future that clients are already waiting on is reused so that they are
+	 * notified when this launch finishes.
+	 * 
+	 * @return The completion of the new launch.
+	 */
+	private synchronized CompletableFuture<FormStatus> createLaunchCompletion() {
+		if (launchCompletion == null || launchCompletion.isDone()) {
+			launchCompletion = new CompletableFuture<FormStatus>();
+		}
+		return launchCompletion;
+	}
+
+	/**
+	 * This operation checks whether a status means that a launch has not
+	 * reached its final status yet.
+	 * 
+	 * @param launchStatus
+	 *            The status.
+	 * @return True if the status is Processing or NeedsInfo, false otherwise.
+	 */
+	private static boolean isLaunching(FormStatus launchStatus) {
+		return FormStatus.Processing.equals(launchStatus)
+				|| FormStatus.NeedsInfo.equals(launchStatus);
+	}
+
 	/**
 	 * This operations grabs the information from the stdout and stderr files
 	 * and puts it into the output file for JobLauncher that is consumed by
-	 * clients.
+	 * clients. It completes the launch once the output has been collected.
+	 * 
+	 * @param launchAction
+	 *            The action that is running the job.
+	 * @param completion
+	 *            The future to complete with the final status of the launch.
 	 */
-	private void streamOutputData() {
+	private void streamOutputData(final JobLaunchAction launchAction,
+			final CompletableFuture<FormStatus> completion) {
 
 		// Create the thread
 		Thread streamingThread = new Thread(new Runnable() {
@@ -1066,7 +1180,8 @@ public class JobLauncher extends Item {
 				BufferedWriter outputFileBufferedWriter = null;
 				FileReader stdoutReader = null, stderrReader = null;
 				BufferedReader stdoutBufferredReader = null, stderrBufferredReader = null;
-				String line = null;
+				Future<FormStatus> actionCompletion = launchAction
+						.getCompletion();
 
 				try {
 					// Open the output file for writing
@@ -1079,26 +1194,25 @@ public class JobLauncher extends Item {
 					// Open the JobLauncherAction stderr file
 					stderrReader = new FileReader(stderr);
 					stderrBufferredReader = new BufferedReader(stderrReader);
-					// Run until the launcher is done processing
-					while (status.equals(FormStatus.Processing)
-							|| status.equals(FormStatus.NeedsInfo)) {
-						// Read stdout into the output file
-						while ((line = stdoutBufferredReader.readLine()) != null) {
-							outputFileBufferedWriter.write(line);
-							outputFileBufferedWriter.write("\r\n");
-						}
-						// Read stderr into the output file
-						while ((line = stderrBufferredReader.readLine()) != null) {
-							outputFileBufferedWriter.write(line);
-							outputFileBufferedWriter.write("\r\n");
-						}
-						// Flush!
+					// Run until the action completes or the launch is
+					// canceled. The wait returns as soon as the job finishes
+					// and only times out to copy the output of a running job.
+					while (isLaunching(status)) {
+						copyLines(stdoutBufferredReader,
+								outputFileBufferedWriter);
+						copyLines(stderrBufferredReader,
+								outputFileBufferedWriter);
 						outputFileBufferedWriter.flush();
-						// Sleep for a bit
-						Thread.currentThread();
-						Thread.sleep(100);
-						status = action.getStatus();
+						try {
+							status = actionCompletion.get(100,
+									TimeUnit.MILLISECONDS);
+						} catch (TimeoutException e) {
+							// Still running
+						}
 					}
+					// Copy what the job wrote before it finished
+					copyLines(stdoutBufferredReader, outputFileBufferedWriter);
+					copyLines(stderrBufferredReader, outputFileBufferedWriter);
 					// Close stdout
 					stdoutBufferredReader.close();
 					stdoutReader.close();
@@ -1119,6 +1233,26 @@ public class JobLauncher extends Item {
 					// Complain and return
 					logger.error(getClass().getName() + " Exception!",e);
 					return;
+				} catch (ExecutionException e) {
+					// Complain and return
+					logger.error(getClass().getName() + " Exception!",e);
+					return;
+				} finally {
+					// Wait for the action if the output could not be read to
+					// the end, then report the final status.
+					if (status.equals(FormStatus.Processing)
+							|| status.equals(FormStatus.NeedsInfo)) {
+						try {
+							status = actionCompletion.get();
+						} catch (InterruptedException e) {
+							logger.error(getClass().getName() + " Exception!",
+									e);
+						} catch (ExecutionException e) {
+							logger.error(getClass().getName() + " Exception!",
+									e);
+						}
+					}
+					completion.complete(status);
 				}
 
 			}
@@ -1131,6 +1265,31 @@ public class JobLauncher extends Item {
 		return;
 	}
 
+	/**
+	 * This operation copies the lines that are available from a reader to a
+	 * writer.
+	 * 
+	 * @param reader
+	 *            The reader.
+	 * @param writer
+	 *            The writer.
+	 * @throws IOException
+	 *             if the lines cannot be copied
+	 */
+	private static void copyLines(BufferedReader reader, BufferedWriter writer)
+			throws IOException {
+
+		// Local Declarations
+		String line = null;
+
+		while ((line = reader.readLine()) != null) {
+			writer.write(line);
+			writer.write("\r\n");
+		}
+
+		return;
+	}
+
 	/**
 	 * <p>
 	 * This operation adds a host to the set of available hosts on which the
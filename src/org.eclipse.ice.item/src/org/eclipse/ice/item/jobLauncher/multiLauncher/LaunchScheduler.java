@@ -0,0 +1,755 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.item.jobLauncher.multiLauncher;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+import org.eclipse.ice.datastructures.form.FormStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * This class launches a set of jobs whose order is constrained by
+ * dependencies. Each job is started once all of the jobs it depends on have
+ * finished successfully and there is enough room for it. The room is limited
+ * by a maximum number of concurrent jobs and by the number of cores and the
+ * amount of memory available, against which each job is weighed. Waiting jobs
+ * are started in the order they were added, but a job that does not fit is
+ * passed over for a smaller one behind it.
+ * </p>
+ * <p>
+ * Jobs report that they are finished by completing the future returned by
+ * {@link Launch#launch()}, so nothing is polled. If a job fails, every job
+ * that depends on it is skipped and marked FormStatus.Unacceptable, while the
+ * independent jobs keep running. The status of the whole set is
+ * FormStatus.Processed if every job succeeded and FormStatus.InfoError
+ * otherwise.
+ * </p>
+ * <p>
+ * The scheduler records the time each job spent waiting in the queue and
+ * running so that the throughput of a parameter sweep can be reported.
+ * </p>
+ */
+public class LaunchScheduler {
+
+	/**
+	 * Logger for handling event messages and other information.
+	 */
+	private static final Logger logger = LoggerFactory
+			.getLogger(LaunchScheduler.class);
+
+	/**
+	 * A job that can be launched by the scheduler.
+	 */
+	public interface Launch {
+
+		/**
+		 * This operation starts the job. It should not block until the job is
+		 * finished.
+		 *
+		 * @return A future that is completed with the final status of the job,
+		 *         FormStatus.Processed if it succeeded.
+		 */
+		public CompletableFuture<FormStatus> launch();
+	}
+
+	/**
+	 * A listener that is notified as jobs start and finish.
+	 */
+	public interface Listener {
+
+		/**
+		 * This operation is called when a job is started.
+		 *
+		 * @param job
+		 *            The index of the job.
+		 */
+		public void jobStarted(int job);
+
+		/**
+		 * This operation is called when a job finishes or is skipped.
+		 *
+		 * @param job
+		 *            The index of the job.
+		 * @param status
+		 *            The final status of the job.
+		 */
+		public void jobFinished(int job, FormStatus status);
+	}
+
+	/**
+	 * The bookkeeping for one job.
+	 */
+	private static class ScheduledJob {
+
+		/**
+		 * The job.
+		 */
+		public Launch launch;
+
+		/**
+		 * The number of cores used by the job.
+		 */
+		public int cores;
+
+		/**
+		 * The memory used by the job.
+		 */
+		public long memory;
+
+		/**
+		 * The indices of the jobs that depend on this job.
+		 */
+		public ArrayList<Integer> dependents = new ArrayList<Integer>();
+
+		/**
+		 * The number of jobs that must finish before this one can start.
+		 */
+		public int remainingPrerequisites = 0;
+
+		/**
+		 * The status of the job. ReadyToProcess while it waits.
+		 */
+		public FormStatus status = FormStatus.ReadyToProcess;
+
+		/**
+		 * The time at which the job became ready to run, in nanoseconds.
+		 */
+		public long readyTime = 0;
+
+		/**
+		 * The time at which the job was started, in nanoseconds.
+		 */
+		public long startTime = 0;
+
+		/**
+		 * The time at which the job finished, in nanoseconds.
+		 */
+		public long finishTime = 0;
+	}
+
+	/**
+	 * The jobs in the order they were added.
+	 */
+	private final ArrayList<ScheduledJob> jobs;
+
+	/**
+	 * The indices of the jobs that are ready to run, in the order they became
+	 * ready.
+	 */
+	private final ArrayList<Integer> readyJobs;
+
+	/**
+	 * The listeners.
+	 */
+	private final CopyOnWriteArrayList<Listener> listeners;
+
+	/**
+	 * The maximum number of jobs that can run at the same time.
+	 */
+	private final int maxJobs;
+
+	/**
+	 * The number of cores available to the jobs.
+	 */
+	private final int maxCores;
+
+	/**
+	 * The memory available to the jobs.
+	 */
+	private final long maxMemory;
+
+	/**
+	 * The number of jobs, cores and memory in use.
+	 */
+	private int runningJobs = 0, usedCores = 0;
+	private long usedMemory = 0;
+
+	/**
+	 * The number of jobs that have not finished or been skipped.
+	 */
+	private int unfinishedJobs = 0;
+
+	/**
+	 * True once start() has been called.
+	 */
+	private boolean started = false;
+
+	/**
+	 * True if any job has failed.
+	 */
+	private boolean failed = false;
+
+	/**
+	 * The times at which the set was started and finished, in nanoseconds.
+	 */
+	private long startTime = 0, finishTime = 0;
+
+	/**
+	 * The future that is completed when all of the jobs are finished.
+	 */
+	private final CompletableFuture<FormStatus> completion;
+
+	/**
+	 * The constructor.
+	 *
+	 * @param maxJobs
+	 *            The maximum number of jobs that can run at the same time. It
+	 *            must be at least one.
+	 * @param maxCores
+	 *            The number of cores available to the jobs, or zero if they
+	 *            should not be limited by cores.
+	 * @param maxMemory
+	 *            The memory available to the jobs, in the same units as the
+	 *            job weights, or zero if they should not be limited by memory.
+	 */
+	public LaunchScheduler(int maxJobs, int maxCores, long maxMemory) {
+		this.maxJobs = Math.max(1, maxJobs);
+		this.maxCores = Math.max(0, maxCores);
+		this.maxMemory = Math.max(0, maxMemory);
+		jobs = new ArrayList<ScheduledJob>();
+		readyJobs = new ArrayList<Integer>();
+		listeners = new CopyOnWriteArrayList<Listener>();
+		completion = new CompletableFuture<FormStatus>();
+	}
+
+	/**
+	 * This operation adds a job to the scheduler. Jobs can not be added once
+	 * the scheduler has been started.
+	 *
+	 * @param launch
+	 *            The job.
+	 * @param cores
+	 *            The number of cores used by the job. Jobs that need more
+	 *            cores than are available are run alone.
+	 * @param memory
+	 *            The memory used by the job. Jobs that need more memory than
+	 *            is available are run alone.
+	 * @return The index of the job.
+	 */
+	public synchronized int addJob(Launch launch, int cores, long memory) {
+
+		// Local Declarations
+		ScheduledJob job = new ScheduledJob();
+
+		if (launch == null) {
+			throw new IllegalArgumentException("LaunchScheduler Message: "
+					+ "The job can not be null.");
+		} else if (started) {
+			throw new IllegalStateException("LaunchScheduler Message: "
+					+ "Jobs can not be added after the launch has started.");
+		}
+
+		// Keep the weights within the limits so that every job can run
+		job.launch = launch;
+		job.cores = Math.max(0, cores);
+		job.memory = Math.max(0, memory);
+		if (maxCores > 0) {
+			job.cores = Math.min(job.cores, maxCores);
+		}
+		if (maxMemory > 0) {
+			job.memory = Math.min(job.memory, maxMemory);
+		}
+		jobs.add(job);
+
+		return jobs.size() - 1;
+	}
+
+	/**
+	 * This operation makes one job depend on another so that it will not be
+	 * started until the other has finished successfully.
+	 *
+	 * @param job
+	 *            The index of the dependent job.
+	 * @param prerequisite
+	 *            The index of the job that must finish first.
+	 */
+	public synchronized void addDependency(int job, int prerequisite) {
+
+		if (started) {
+			throw new IllegalStateException("LaunchScheduler Message: "
+					+ "Dependencies can not be added after the launch has "
+					+ "started.");
+		} else if (job < 0 || job >= jobs.size() || prerequisite < 0
+				|| prerequisite >= jobs.size() || job == prerequisite) {
+			throw new IllegalArgumentException("LaunchScheduler Message: "
+					+ "Invalid dependency " + prerequisite + " -> " + job
+					+ ".");
+		}
+
+		// Ignore duplicates
+		if (!jobs.get(prerequisite).dependents.contains(job)) {
+			jobs.get(prerequisite).dependents.add(job);
+			jobs.get(job).remainingPrerequisites++;
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation adds a listener that will be notified as the jobs start
+	 * and finish. Listeners are called on the threads that complete the jobs
+	 * and should return quickly.
+	 *
+	 * @param listener
+	 *            The listener.
+	 */
+	public void addListener(Listener listener) {
+		if (listener != null) {
+			listeners.add(listener);
+		}
+	}
+
+	/**
+	 * This operation starts the jobs that do not depend on any others. The
+	 * rest are started as their prerequisites finish.
+	 *
+	 * @return A future that is completed with FormStatus.Processed when every
+	 *         job has succeeded or with FormStatus.InfoError when all of the
+	 *         jobs that could run have finished and at least one failed.
+	 */
+	public CompletableFuture<FormStatus> start() {
+
+		synchronized (this) {
+			if (started) {
+				return completion;
+			}
+			// Refuse dependency cycles, which would never finish
+			if (hasCycle()) {
+				throw new IllegalStateException("LaunchScheduler Message: "
+						+ "The job dependencies contain a cycle.");
+			}
+			started = true;
+			startTime = System.nanoTime();
+			unfinishedJobs = jobs.size();
+			for (int i = 0; i < jobs.size(); i++) {
+				if (jobs.get(i).remainingPrerequisites == 0) {
+					jobs.get(i).readyTime = startTime;
+					readyJobs.add(i);
+				}
+			}
+		}
+
+		// Launch the first jobs, or finish right away if there are none
+		dispatch();
+		checkCompletion();
+
+		return completion;
+	}
+
+	/**
+	 * This operation returns the future that is completed when all of the jobs
+	 * are finished.
+	 *
+	 * @return The future.
+	 */
+	public CompletableFuture<FormStatus> getCompletion() {
+		return completion;
+	}
+
+	/**
+	 * This operation returns the number of jobs.
+	 *
+	 * @return The number of jobs.
+	 */
+	public synchronized int getNumberOfJobs() {
+		return jobs.size();
+	}
+
+	/**
+	 * This operation returns the status of a job.
+	 *
+	 * @param job
+	 *            The index of the job.
+	 * @return FormStatus.ReadyToProcess while the job waits,
+	 *         FormStatus.Processing while it runs, its final status when it is
+	 *         done or FormStatus.Unacceptable if it was skipped.
+	 */
+	public synchronized FormStatus getStatus(int job) {
+		return jobs.get(job).status;
+	}
+
+	/**
+	 * This operation returns the number of jobs that are running.
+	 *
+	 * @return The number of running jobs.
+	 */
+	public synchronized int getNumberOfRunningJobs() {
+		return runningJobs;
+	}
+
+	/**
+	 * This operation returns the time a job waited between becoming ready to
+	 * run and being started.
+	 *
+	 * @param job
+	 *            The index of the job.
+	 * @return The time in milliseconds, or zero if it has not started.
+	 */
+	public synchronized double getQueueTime(int job) {
+		ScheduledJob scheduledJob = jobs.get(job);
+		return isStarted(scheduledJob) ? toMillis(scheduledJob.startTime
+				- scheduledJob.readyTime) : 0.0;
+	}
+
+	/**
+	 * This operation returns the time a job ran.
+	 *
+	 * @param job
+	 *            The index of the job.
+	 * @return The time in milliseconds, or zero if it has not finished.
+	 */
+	public synchronized double getRunTime(int job) {
+		ScheduledJob scheduledJob = jobs.get(job);
+		return isFinished(scheduledJob) ? toMillis(scheduledJob.finishTime
+				- scheduledJob.startTime) : 0.0;
+	}
+
+	/**
+	 * This operation returns the average time the jobs that were started
+	 * waited in the queue.
+	 *
+	 * @return The average queue time in milliseconds.
+	 */
+	public synchronized double getAverageQueueTime() {
+
+		// Local Declarations
+		double total = 0.0;
+		int count = 0;
+
+		for (int i = 0; i < jobs.size(); i++) {
+			if (isStarted(jobs.get(i))) {
+				total += getQueueTime(i);
+				count++;
+			}
+		}
+
+		return (count > 0) ? total / count : 0.0;
+	}
+
+	/**
+	 * This operation returns the time from the start of the launch until the
+	 * last job finished, or until now if jobs are still running.
+	 *
+	 * @return The elapsed time in milliseconds.
+	 */
+	public synchronized double getElapsedTime() {
+		if (!started) {
+			return 0.0;
+		}
+		return toMillis((completion.isDone() ? finishTime : System
+				.nanoTime()) - startTime);
+	}
+
+	/**
+	 * This operation returns the number of jobs that have finished, including
+	 * the ones that failed, per minute of elapsed time.
+	 *
+	 * @return The throughput in jobs per minute.
+	 */
+	public synchronized double getThroughput() {
+
+		// Local Declarations
+		int finished = 0;
+		double elapsed = getElapsedTime();
+
+		for (ScheduledJob job : jobs) {
+			if (isFinished(job)) {
+				finished++;
+			}
+		}
+
+		return (elapsed > 0.0) ? finished * 60000.0 / elapsed : 0.0;
+	}
+
+	/**
+	 * This operation starts as many ready jobs as will fit. The jobs are
+	 * launched outside of the lock.
+	 */
+	private void dispatch() {
+
+		// Local Declarations
+		ArrayList<Integer> toLaunch = new ArrayList<Integer>();
+
+		synchronized (this) {
+			for (int i = 0; i < readyJobs.size() && runningJobs < maxJobs;) {
+				int index = readyJobs.get(i);
+				ScheduledJob job = jobs.get(index);
+				if (fits(job)) {
+					readyJobs.remove(i);
+					runningJobs++;
+					usedCores += job.cores;
+					usedMemory += job.memory;
+					job.status = FormStatus.Processing;
+					job.startTime = System.nanoTime();
+					toLaunch.add(index);
+				} else {
+					i++;
+				}
+			}
+		}
+
+		for (final int index : toLaunch) {
+			launch(index);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation launches a job and arranges for jobFinished() to be
+	 * called when it is done.
+	 *
+	 * @param index
+	 *            The index of the job.
+	 */
+	private void launch(final int index) {
+
+		// Local Declarations
+		CompletableFuture<FormStatus> future = null;
+
+		for (Listener listener : listeners) {
+			listener.jobStarted(index);
+		}
+
+		// Start the job. A job that can not be started has failed.
+		try {
+			future = jobs.get(index).launch.launch();
+		} catch (RuntimeException e) {
+			logger.error(getClass().getName() + " Exception!", e);
+		}
+		if (future == null) {
+			finish(index, FormStatus.InfoError);
+		} else {
+			future.whenComplete(new BiConsumer<FormStatus, Throwable>() {
+				@Override
+				public void accept(FormStatus status, Throwable error) {
+					if (error != null) {
+						logger.error(getClass().getName() + " Exception!",
+								error);
+					}
+					finish(index, (error == null && status != null) ? status
+							: FormStatus.InfoError);
+				}
+			});
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation records that a job has finished, releases its resources,
+	 * makes its dependents ready or skips them if it failed and starts the
+	 * next jobs.
+	 *
+	 * @param index
+	 *            The index of the job.
+	 * @param status
+	 *            The final status of the job.
+	 */
+	private void finish(int index, FormStatus status) {
+
+		// Local Declarations
+		ArrayList<Integer> skipped = new ArrayList<Integer>();
+		ScheduledJob job = null;
+
+		synchronized (this) {
+			job = jobs.get(index);
+			if (job.status != FormStatus.Processing) {
+				return;
+			}
+			job.status = status;
+			job.finishTime = System.nanoTime();
+			runningJobs--;
+			usedCores -= job.cores;
+			usedMemory -= job.memory;
+			unfinishedJobs--;
+			if (status == FormStatus.Processed) {
+				// Release the dependents whose prerequisites are all done
+				for (int dependent : job.dependents) {
+					ScheduledJob dependentJob = jobs.get(dependent);
+					dependentJob.remainingPrerequisites--;
+					if (dependentJob.remainingPrerequisites == 0
+							&& dependentJob.status == FormStatus.ReadyToProcess) {
+						dependentJob.readyTime = job.finishTime;
+						readyJobs.add(dependent);
+					}
+				}
+			} else {
+				// Skip everything that depends on the failed job
+				failed = true;
+				skipDependents(index, skipped);
+			}
+		}
+
+		// Notify the listeners
+		for (Listener listener : listeners) {
+			listener.jobFinished(index, status);
+			for (int skippedJob : skipped) {
+				listener.jobFinished(skippedJob, FormStatus.Unacceptable);
+			}
+		}
+		logger.info("LaunchScheduler Message: Job " + index + " finished "
+				+ "with status " + status + ".");
+
+		// Start the next jobs and check for the end of the launch
+		dispatch();
+		checkCompletion();
+
+		return;
+	}
+
+	/**
+	 * This operation marks every job that depends on a failed job, directly
+	 * or through other jobs, as skipped. It must be called while holding the
+	 * lock.
+	 *
+	 * @param index
+	 *            The index of the failed job.
+	 * @param skipped
+	 *            The list to which the skipped jobs are added.
+	 */
+	private void skipDependents(int index, ArrayList<Integer> skipped) {
+
+		// Local Declarations
+		ArrayList<Integer> stack = new ArrayList<Integer>(
+				jobs.get(index).dependents);
+
+		while (!stack.isEmpty()) {
+			int dependent = stack.remove(stack.size() - 1);
+			ScheduledJob dependentJob = jobs.get(dependent);
+			if (dependentJob.status == FormStatus.ReadyToProcess) {
+				dependentJob.status = FormStatus.Unacceptable;
+				readyJobs.remove(Integer.valueOf(dependent));
+				unfinishedJobs--;
+				skipped.add(dependent);
+				stack.addAll(dependentJob.dependents);
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation completes the launch if every job is done.
+	 */
+	private void checkCompletion() {
+
+		// Local Declarations
+		FormStatus status = null;
+
+		synchronized (this) {
+			if (started && unfinishedJobs == 0 && !completion.isDone()) {
+				finishTime = System.nanoTime();
+				status = failed ? FormStatus.InfoError : FormStatus.Processed;
+				logger.info("LaunchScheduler Message: Finished " + jobs.size()
+						+ " jobs in " + getElapsedTime() + " ms. Average "
+						+ "queue time = " + getAverageQueueTime()
+						+ " ms, throughput = " + getThroughput()
+						+ " jobs/minute.");
+			}
+		}
+
+		if (status != null) {
+			completion.complete(status);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation determines whether or not a job fits within the
+	 * resources that are free. It must be called while holding the lock.
+	 *
+	 * @param job
+	 *            The job.
+	 * @return True if the job can be started.
+	 */
+	private boolean fits(ScheduledJob job) {
+		return (maxCores == 0 || usedCores + job.cores <= maxCores)
+				&& (maxMemory == 0 || usedMemory + job.memory <= maxMemory);
+	}
+
+	/**
+	 * This operation checks the dependencies for cycles by repeatedly removing
+	 * the jobs that have no remaining prerequisites. It must be called while
+	 * holding the lock.
+	 *
+	 * @return True if there is a cycle.
+	 */
+	private boolean hasCycle() {
+
+		// Local Declarations
+		int[] remaining = new int[jobs.size()];
+		ArrayList<Integer> stack = new ArrayList<Integer>();
+		int visited = 0;
+
+		for (int i = 0; i < jobs.size(); i++) {
+			remaining[i] = jobs.get(i).remainingPrerequisites;
+			if (remaining[i] == 0) {
+				stack.add(i);
+			}
+		}
+		while (!stack.isEmpty()) {
+			int index = stack.remove(stack.size() - 1);
+			visited++;
+			for (int dependent : jobs.get(index).dependents) {
+				if (--remaining[dependent] == 0) {
+					stack.add(dependent);
+				}
+			}
+		}
+
+		return visited < jobs.size();
+	}
+
+	/**
+	 * This operation determines whether or not a job has been started. It
+	 * must be called while holding the lock.
+	 *
+	 * @param job
+	 *            The job.
+	 * @return True if the job has been started.
+	 */
+	private boolean isStarted(ScheduledJob job) {
+		return job.status != FormStatus.ReadyToProcess
+				&& job.status != FormStatus.Unacceptable;
+	}
+
+	/**
+	 * This operation determines whether or not a job has been started and has
+	 * finished. It must be called while holding the lock.
+	 *
+	 * @param job
+	 *            The job.
+	 * @return True if the job has finished.
+	 */
+	private boolean isFinished(ScheduledJob job) {
+		return isStarted(job) && job.status != FormStatus.Processing;
+	}
+
+	/**
+	 * This operation converts nanoseconds to milliseconds.
+	 *
+	 * @param nanos
+	 *            The time in nanoseconds.
+	 * @return The time in milliseconds.
+	 */
+	private static double toMillis(long nanos) {
+		return nanos / 1.0e6;
+	}
+}
@@ -14,8 +14,11 @@ package org.eclipse.ice.item.jobLauncher.multiLauncher;
 
 import java.net.URI;
 import java.util.ArrayList;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
@@ -30,6 +33,8 @@ import org.eclipse.ice.datastructures.form.MasterDetailsPair;
 import org.eclipse.ice.datastructures.form.ResourceComponent;
 import org.eclipse.ice.datastructures.resource.ICEResource;
 import org.eclipse.ice.item.Item;
+import org.eclipse.ice.item.action.RemoteJobMonitor;
+import org.eclipse.ice.item.jobLauncher.JobLauncher;
 import org.eclipse.ice.item.jobLauncher.JobLauncherForm;
 
 /**
@@ -55,25 +60,24 @@ import org.eclipse.ice.item.jobLauncher.JobLauncherForm;
  * details. (See the JobLauncherForm for reference.)
  * </p>
  * <p>
- * When jobs are launched in sequential mode, the MultiLauncher launches a
- * thread and monitors each job launcher until it finishes, then launches the
- * next or breaks out if there was an error. When jobs are launched in parallel,
- * the job launchers are processed asynchronously.
+ * The jobs are launched by a {@link LaunchScheduler}. In sequential mode each
+ * job depends on the one before it and only one job runs at a time, so the
+ * launch stops at the first error. In parallel mode as many jobs run at once
+ * as the "Maximum Concurrent Jobs," "Available Cores" and
+ * "Available Memory (MB)" Entries of the "Execution Mode" DataComponent allow.
+ * A job whose input file is "LAST" depends on the job before it and is given
+ * that job's output. Clients can weigh the jobs and add further dependencies
+ * with setJobResources() and addJobDependency() before launching them.
  * </p>
  * <p>
- * This class implements Runnable and uses itself as the thread. The run()
- * operation works overtime: it handles all updates to the ResourceComponent
- * from the launchers, it handles all job launch for the sequential launch and
- * it polls the running jobs constantly to update the status if it is launched
- * in parallel. This is implemented with two blocks. The first handles the
- * sequential execution if it is required and the second updates both the
- * parallel execution status and the ResourceComponent. I think, ideally, this
- * would be separated out to a couple of separate threads.
+ * JobLaunchers report when they finish, so the status of the MultiLauncher
+ * and its ResourceComponent are updated as the jobs complete instead of by
+ * polling them.
  * </p>
  * 
  * @author Jay Jay Billings
  */
-public class MultiLauncher extends Item implements Runnable {
+public class MultiLauncher extends Item {
 	/**
 	 * <p>
 	 * The set of JobLaunchers that are available to the MultiLauncher.
@@ -114,7 +118,7 @@ public class MultiLauncher extends Item implements Runnable {
 	 * </p>
 	 * 
 	 */
-	private ArrayList<Item> runningLaunchers;
+	private volatile ArrayList<Item> runningLaunchers;
 
 	/**
 	 * <p>
@@ -126,12 +130,31 @@ public class MultiLauncher extends Item implements Runnable {
 
 	/**
 	 * <p>
-	 * An AtomicBoolean that evaluates to true if the launch is being performed
-	 * sequentially and false if not.
+	 * The scheduler for the current or last launch.
 	 * </p>
 	 * 
 	 */
-	private AtomicBoolean isSequential;
+	private volatile LaunchScheduler scheduler;
+
+	/**
+	 * <p>
+	 * The number of cores and the memory in megabytes used by the jobs, keyed
+	 * by their index in the job listing. Jobs that are not in these maps use
+	 * the cores from their parallel execution settings and no memory.
+	 * </p>
+	 * 
+	 */
+	private HashMap<Integer, Integer> jobCores;
+	private HashMap<Integer, Long> jobMemory;
+
+	/**
+	 * <p>
+	 * The dependencies added by clients as pairs of job indices. The second
+	 * job of each pair must finish before the first is launched.
+	 * </p>
+	 * 
+	 */
+	private ArrayList<int[]> jobDependencies;
 
 	/**
 	 * <p>
@@ -157,9 +180,10 @@ public class MultiLauncher extends Item implements Runnable {
 		// Setup the super class
 		super(projectSpace);
 
-		// Setup the atomics
-		isSequential = new AtomicBoolean();
-		isSequential.set(false);
+		// Setup the atomics and the job settings
+		jobCores = new HashMap<Integer, Integer>();
+		jobMemory = new HashMap<Integer, Long>();
+		jobDependencies = new ArrayList<int[]>();
 		multiLaunchStatus = new AtomicReference<FormStatus>();
 		multiLaunchStatus.set(FormStatus.InfoError);
 
@@ -307,18 +331,8 @@ public class MultiLauncher extends Item implements Runnable {
 				// Figure out whether to launch sequentially or in parallel
 				boolean isParallel = Boolean.parseBoolean(executionModeComp
 						.retrieveEntry("Enable Parallel Execution").getValue());
-				// Set the atomic boolean so that this can be tracked on other
-				// threads. Make sure to flip the boolean since this one is for
-				// sequential mode not parallel mode.
-				isSequential.set(!isParallel);
 				// Launch the jobs
-				if (isParallel) {
-					// In parallel
-					launcherStatus = launchInParallel();
-				} else {
-					// In sequence
-					launcherStatus = launchSequentially();
-				}
+				launcherStatus = launchJobs(isParallel);
 			}
 		} else if (!(runningLaunchers.isEmpty())) {
 			// Return "Processing" if the MultiLauncher is already working.
@@ -352,6 +366,17 @@ public class MultiLauncher extends Item implements Runnable {
 		// Get the status
 		launcherStatus = multiLaunchStatus.get();
 
+		// Report that more information is needed if one of the running jobs
+		// is waiting for it.
+		if (launcherStatus.equals(FormStatus.Processing)) {
+			for (Item launcher : runningLaunchers) {
+				if (launcher.getStatus().equals(FormStatus.NeedsInfo)) {
+					launcherStatus = FormStatus.NeedsInfo;
+					break;
+				}
+			}
+		}
+
 		return launcherStatus;
 	}
 
@@ -450,72 +475,396 @@ public class MultiLauncher extends Item implements Runnable {
 
 	/**
 	 * <p>
-	 * This operation launches the jobs sequentially. It starts the
-	 * MultiLauncher thread to do this.
+	 * This operation sets the number of cores and the memory used by a job so
+	 * that the MultiLauncher does not run more jobs than the machine can hold.
+	 * It must be called before the jobs are launched.
 	 * </p>
 	 * 
+	 * @param job
+	 *            <p>
+	 *            The index of the job in the job listing.
+	 *            </p>
+	 * @param cores
+	 *            <p>
+	 *            The number of cores used by the job.
+	 *            </p>
+	 * @param memory
+	 *            <p>
+	 *            The memory used by the job in megabytes.
+	 *            </p>
+	 */
+	public void setJobResources(int job, int cores, long memory) {
+		jobCores.put(job, cores);
+		jobMemory.put(job, memory);
+	}
+
+	/**
+	 * <p>
+	 * This operation makes one job wait for another to finish successfully
+	 * before it is launched, for example to run a meshing job before the
+	 * solver that reads the mesh. It must be called before the jobs are
+	 * launched.
+	 * </p>
+	 * 
+	 * @param job
+	 *            <p>
+	 *            The index of the dependent job in the job listing.
+	 *            </p>
+	 * @param prerequisite
+	 *            <p>
+	 *            The index of the job that must finish first.
+	 *            </p>
+	 */
+	public void addJobDependency(int job, int prerequisite) {
+		jobDependencies.add(new int[] { job, prerequisite });
+	}
+
+	/**
+	 * <p>
+	 * This operation returns the scheduler of the current or last launch. It
+	 * records the queue and run times of the jobs and the throughput of the
+	 * launch.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         The scheduler, or null if no jobs have been launched.
+	 *         </p>
+	 */
+	public LaunchScheduler getScheduler() {
+		return scheduler;
+	}
+
+	/**
+	 * <p>
+	 * This operation launches the jobs through a LaunchScheduler. It does not
+	 * block. The status is updated when the scheduler reports that the jobs
+	 * are finished.
+	 * </p>
+	 * 
+	 * @param isParallel
+	 *            <p>
+	 *            True if the jobs may run at the same time, false if they
+	 *            should be run one after the other.
+	 *            </p>
 	 * @return <p>
 	 *         The launch status.
 	 *         </p>
 	 */
-	private FormStatus launchSequentially() {
+	private FormStatus launchJobs(boolean isParallel) {
 
 		// Local Declarations
-		Thread launchThread = new Thread(this);
+		final ArrayList<Item> jobs = runningLaunchers;
+		int maxJobs = 1;
+		LaunchScheduler launchScheduler = null;
+
+		// Configure the limits. Sequential launches run one job at a time.
+		if (isParallel) {
+			maxJobs = (int) getLimit("Maximum Concurrent Jobs", Runtime
+					.getRuntime().availableProcessors());
+		}
+		launchScheduler = new LaunchScheduler(maxJobs, (int) getLimit(
+				"Available Cores", 0), getLimit("Available Memory (MB)", 0));
+
+		try {
+			// Add the jobs
+			for (int i = 0; i < jobs.size(); i++) {
+				final int index = i;
+				Item job = jobs.get(i);
+				int cores = jobCores.containsKey(i) ? jobCores.get(i)
+						: getCores(job);
+				long memory = jobMemory.containsKey(i) ? jobMemory.get(i) : 0;
+				launchScheduler.addJob(new LaunchScheduler.Launch() {
+					@Override
+					public CompletableFuture<FormStatus> launch() {
+						return launchJob(jobs, index);
+					}
+				}, cores, memory);
+			}
+			// Sequential jobs and chained jobs wait for the job before them
+			for (int i = 1; i < jobs.size(); i++) {
+				if (!isParallel || isChained(jobs.get(i))) {
+					launchScheduler.addDependency(i, i - 1);
+				}
+			}
+			// Add the dependencies from the client
+			for (int[] dependency : jobDependencies) {
+				launchScheduler.addDependency(dependency[0], dependency[1]);
+			}
+		} catch (IllegalArgumentException e) {
+			logger.error(getClass().getName() + " Exception!", e);
+			return FormStatus.InfoError;
+		}
+
+		// Log the jobs as they start and finish
+		launchScheduler.addListener(new LaunchScheduler.Listener() {
+			@Override
+			public void jobStarted(int job) {
+				logger.info("MultiLauncher Message: Launching job "
+						+ jobs.get(job).getName() + " with id "
+						+ jobs.get(job).getId());
+			}
 
-		// Set the status flag
+			@Override
+			public void jobFinished(int job, FormStatus status) {
+				logger.info("MultiLauncher Message: Job "
+						+ jobs.get(job).getName() + " finished with status "
+						+ status);
+			}
+		});
+
+		// Set the status flag and launch the jobs
 		multiLaunchStatus.set(FormStatus.Processing);
+		scheduler = launchScheduler;
+		try {
+			launchScheduler.start().whenComplete(
+					new BiConsumer<FormStatus, Throwable>() {
+						@Override
+						public void accept(FormStatus status, Throwable error) {
+							finishLaunch(jobs, (error == null) ? status
+									: FormStatus.InfoError);
+						}
+					});
+		} catch (IllegalStateException e) {
+			// The dependencies contain a cycle
+			logger.error(getClass().getName() + " Exception!", e);
+			multiLaunchStatus.set(FormStatus.InfoError);
+			return FormStatus.InfoError;
+		}
 
-		// Launch the thread
-		launchThread.start();
+		return multiLaunchStatus.get();
+	}
 
-		return FormStatus.Processing;
+	/**
+	 * <p>
+	 * This operation launches one job. It is called by the LaunchScheduler
+	 * once the job's dependencies have finished.
+	 * </p>
+	 * 
+	 * @param jobs
+	 *            <p>
+	 *            The jobs being launched.
+	 *            </p>
+	 * @param index
+	 *            <p>
+	 *            The index of the job to launch.
+	 *            </p>
+	 * @return <p>
+	 *         A future that is completed with the final status of the job.
+	 *         </p>
+	 */
+	private CompletableFuture<FormStatus> launchJob(ArrayList<Item> jobs,
+			int index) {
+
+		// Local Declarations
+		final Item job = jobs.get(index);
+		FormStatus launchStatus = FormStatus.InfoError;
+
+		// Set the input file to the output file of the last job if necessary
+		if (index > 0 && isChained(job)) {
+			setupChainedInput(getOutputFilename(jobs.get(index - 1)), job);
+		}
+
+		// Launch the job
+		launchStatus = job.process("Launch the Job");
+		if (launchStatus.equals(FormStatus.InfoError)) {
+			return CompletableFuture.completedFuture(launchStatus);
+		} else if (job instanceof JobLauncher) {
+			// JobLaunchers report when they are finished
+			return ((JobLauncher) job).getCompletion();
+		}
+
+		// Other Items are checked along with the remote jobs
+		return RemoteJobMonitor.getDefault()
+				.watch(new RemoteJobMonitor.Completion() {
+					@Override
+					public boolean isCompleted() {
+						FormStatus status = job.getStatus();
+						return !status.equals(FormStatus.Processing)
+								&& !status.equals(FormStatus.NeedsInfo);
+					}
+
+					@Override
+					public int exitValue() {
+						return 0;
+					}
+				}).thenApply(new Function<Integer, FormStatus>() {
+					@Override
+					public FormStatus apply(Integer exitValue) {
+						return job.getStatus();
+					}
+				});
 	}
 
 	/**
 	 * <p>
-	 * This operation launches the jobs in parallel. They jobs are launched
-	 * asynchronously on their own threads, which they manage, so that this
-	 * operation need not be threaded.
+	 * This operation collects the output of the jobs and sets the final status
+	 * once the scheduler reports that all of the jobs are finished.
 	 * </p>
 	 * 
+	 * @param jobs
+	 *            <p>
+	 *            The jobs that were launched.
+	 *            </p>
+	 * @param launchStatus
+	 *            <p>
+	 *            The final status of the launch.
+	 *            </p>
+	 */
+	private void finishLaunch(ArrayList<Item> jobs, FormStatus launchStatus) {
+
+		// Add the output if the status does not indicate an error
+		if (launchStatus.equals(FormStatus.Processed)) {
+			// Get the ResourceComponent for the MultiLauncher and clear its
+			// output
+			ResourceComponent resourceComp = (ResourceComponent) form
+					.getComponent(2);
+			resourceComp.clearResources();
+			// Loop over the launchers and get the output
+			for (Item job : jobs) {
+				// Get the component
+				ResourceComponent launcherResourceComp = (ResourceComponent) job
+						.getForm().getComponent(2);
+				// Add its resources to the MultiLaunchers ResourceComponent
+				for (ICEResource j : launcherResourceComp.getResources()) {
+					resourceComp.addResource(j);
+				}
+			}
+			// Clear the launchers
+			runningLaunchers = new ArrayList<Item>();
+		}
+
+		// Update the status
+		multiLaunchStatus.set(launchStatus);
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation determines whether or not a job's input file is the
+	 * output of the job before it.
+	 * </p>
+	 * 
+	 * @param job
+	 *            <p>
+	 *            The job, assumed to be a JobLauncher.
+	 *            </p>
 	 * @return <p>
-	 *         The launch status.
+	 *         True if the input file of the job is "LAST."
 	 *         </p>
 	 */
-	private FormStatus launchInParallel() {
+	private boolean isChained(Item job) {
+		// FIXME! This assumes the form is coming from a JobLauncher
+		Entry inputEntry = ((DataComponent) job.getForm().getComponent(1))
+				.retrieveEntry("Input File");
+		return inputEntry != null && "LAST".equals(inputEntry.getValue());
+	}
+
+	/**
+	 * <p>
+	 * This operation returns the number of cores used by a job, which is its
+	 * number of MPI processes times its number of threads.
+	 * </p>
+	 * 
+	 * @param job
+	 *            <p>
+	 *            The job, assumed to be a JobLauncher.
+	 *            </p>
+	 * @return <p>
+	 *         The number of cores.
+	 *         </p>
+	 */
+	private int getCores(Item job) {
 
 		// Local Declarations
-		FormStatus retVal = FormStatus.InfoError;
-		Thread launchThread = new Thread(this);
+		int processes = 1, threads = 1;
+		Component component = job.getForm().getComponent(
+				JobLauncherForm.parallelId);
+
+		// Read the parallel execution settings if the job has them
+		if (component instanceof DataComponent) {
+			DataComponent parallelComp = (DataComponent) component;
+			processes = Math.max(1,
+					getEntryValue(parallelComp, "Number of MPI Processes"));
+			threads = Math.max(
+					Math.max(1,
+							getEntryValue(parallelComp, "Number of OpenMP Threads")),
+					getEntryValue(parallelComp, "Number of TBB Threads"));
+		}
 
-		// Launch each job
-		for (Item job : runningLaunchers) {
-			// Launch the job if the Form is ready to process
-			if (job.getStatus().equals(FormStatus.ReadyToProcess)) {
-				logger.info("MultiLauncher Message: "
-						+ "Launching parallel job " + job.getName()
-						+ " with id " + job.getId());
-				// Launch it
-				retVal = job.process("Launch the Job");
-			} else {
-				logger.info("MultiLauncher Message: "
-						+ "Unable to launch parallel job!");
-				logger.info("MultiLauncher Message: " + "Failed job name = "
-						+ job.getName());
-				logger.info("MultiLauncher Message: " + "Failed job id = "
-						+ job.getId());
-				break; // Otherwise throw the error.
+		return processes * threads;
+	}
+
+	/**
+	 * <p>
+	 * This operation returns the integer value of an Entry.
+	 * </p>
+	 * 
+	 * @param component
+	 *            <p>
+	 *            The DataComponent that holds the Entry.
+	 *            </p>
+	 * @param name
+	 *            <p>
+	 *            The name of the Entry.
+	 *            </p>
+	 * @return <p>
+	 *         The value, or 0 if the Entry does not exist or does not hold an
+	 *         integer.
+	 *         </p>
+	 */
+	private int getEntryValue(DataComponent component, String name) {
+
+		// Local Declarations
+		Entry entry = component.retrieveEntry(name);
+		int value = 0;
+
+		if (entry != null) {
+			try {
+				value = Integer.parseInt(entry.getValue());
+			} catch (NumberFormatException e) {
+				logger.info("MultiLauncher Message: Ignoring " + name + " = "
+						+ entry.getValue());
 			}
 		}
 
-		// Set the status flag
-		multiLaunchStatus.set(FormStatus.Processing);
+		return value;
+	}
 
-		// Launch the thread
-		launchThread.start();
+	/**
+	 * <p>
+	 * This operation returns one of the launch limits from the
+	 * "Execution Mode" DataComponent.
+	 * </p>
+	 * 
+	 * @param name
+	 *            <p>
+	 *            The name of the Entry.
+	 *            </p>
+	 * @param defaultValue
+	 *            <p>
+	 *            The value to use if the Entry does not exist or is invalid.
+	 *            </p>
+	 * @return <p>
+	 *         The limit.
+	 *         </p>
+	 */
+	private long getLimit(String name, long defaultValue) {
+
+		// Local Declarations
+		Entry entry = executionModeComp.retrieveEntry(name);
+		long value = defaultValue;
+
+		if (entry != null) {
+			try {
+				value = (long) Double.parseDouble(entry.getValue());
+			} catch (NumberFormatException e) {
+				logger.info("MultiLauncher Message: Using default value "
+						+ defaultValue + " for " + name);
+			}
+		}
 
-		return retVal;
+		return value;
 	}
 
 	/**
@@ -697,132 +1046,6 @@ public class MultiLauncher extends Item implements Runnable {
 		return retStatus;
 	}
 
-	/**
-	 * (non-Javadoc)
-	 * 
-	 * @see Runnable#run()
-	 */
-	@Override
-	public void run() {
-
-		// Local Declarations
-		Item job = null;
-		FormStatus launchStatus = FormStatus.InfoError;
-		String lastFilename = null;
-		boolean checkStatus = true;
-		ArrayList<FormStatus> runningLauncherStatuses = new ArrayList<FormStatus>();
-
-		/*----- Read the documentation on the class before editing this! -----*/
-
-		// Sequential launch block. Make sure we are in the correct mode.
-		if (isSequential.get()) {
-			// Loop over all of the launchers
-			for (int i = 0; i < runningLaunchers.size(); i++) {
-				// Get and launch the job
-				job = runningLaunchers.get(i);
-				logger.info("MultiLauncher Message: "
-						+ "Launching sequential job #" + (i + 1) + ", "
-						+ job.getName());
-				// Set the input file to the output file of the last code it is
-				// necessary.
-				if (i > 0) {
-					setupChainedInput(lastFilename, job);
-				}
-				job.process("Launch the Job");
-				// Launch the job
-				launchStatus = job.getStatus();
-				// Start the status checking loop
-				multiLaunchStatus.set(launchStatus);
-				while (launchStatus.equals(FormStatus.Processing)
-						|| launchStatus.equals(FormStatus.NeedsInfo)) {
-					// The thread shouldn't poll the job continuously. Let it
-					// sleep some.
-					try {
-						Thread.sleep(100);
-					} catch (InterruptedException e) {
-						// TODO Auto-generated catch block
-						logger.error(getClass().getName() + " Exception!",e);
-					}
-					// Update the status
-					launchStatus = job.getStatus();
-					multiLaunchStatus.set(launchStatus);
-				}
-				// Break if there is some kind of error
-				if (multiLaunchStatus.get().equals(FormStatus.InfoError)) {
-					break;
-				}
-				// Get the name of the last output file
-				lastFilename = getOutputFilename(job);
-			}
-		}
-
-		// Setup the list of launcher statuses before going into the update
-		// block.
-		for (Item launcher : runningLaunchers) {
-			runningLauncherStatuses.add(launcher.getStatus());
-		}
-
-		// Status update block.
-		while (checkStatus) {
-			// Loop over all of the launchers and get their statuses.
-			for (int i = 0; i < runningLaunchers.size(); i++) {
-				Item launcher = runningLaunchers.get(i);
-				runningLauncherStatuses.set(i, launcher.getStatus());
-			}
-			// Check the status. This switch works by checking if an instance of
-			// any of the launchers is in a particular state and setting the
-			// status of the MultiLauncher to that state. First, quit if there
-			// is an error.
-			if (runningLauncherStatuses.contains(FormStatus.InfoError)) {
-				launchStatus = FormStatus.InfoError;
-				checkStatus = false;
-			} else if (runningLauncherStatuses.contains(FormStatus.NeedsInfo)) {
-				// Else look for a launcher that needs more information
-				launchStatus = FormStatus.NeedsInfo;
-			} else if (runningLauncherStatuses.contains(FormStatus.Processing)) {
-				// Else look for a launcher that is still processing
-				launchStatus = FormStatus.Processing;
-			} else {
-				// We're processed! Since all of the other statuses except
-				// Processed are covered in the process() operation, break out
-				// of the thread.
-				launchStatus = FormStatus.Processed;
-				checkStatus = false;
-			}
-			// Update the status on the thread.
-			multiLaunchStatus.set(launchStatus);
-			// The thread shouldn't poll the jobs continuously. Let it
-			// sleep some.
-			try {
-				Thread.sleep(100);
-			} catch (InterruptedException e) {
-				// TODO Auto-generated catch block
-				logger.error(getClass().getName() + " Exception!",e);
-			}
-		}
-		// Add the output if the status does not indicate an error
-		if (launchStatus.equals(FormStatus.Processed)) {
-			// Get the ResourceComponent for the MultiLauncher and clear its
-			// output
-			ResourceComponent resourceComp = (ResourceComponent) form
-					.getComponent(2);
-			resourceComp.clearResources();
-			// Loop over the launchers and get the output
-			for (int i = 0; i < runningLaunchers.size(); i++) {
-				// Get the component
-				ResourceComponent launcherResourceComp = (ResourceComponent) runningLaunchers
-						.get(i).getForm().getComponent(2);
-				// Add its resources to the MultiLaunchers ResourceComponent
-				for (ICEResource j : launcherResourceComp.getResources()) {
-					resourceComp.addResource(j);
-				}
-			}
-			// Clear the launchers if needed
-			runningLaunchers.clear();
-		}
-
-	}
-
 	/**
 	 * This operation overrides the MasterDetailsComponent visitor from the Item
 	 * base class to search for the MasterDetailsComponent in the
@@ -61,7 +61,10 @@ class MultiLauncherForm extends Form {
 				+ "in one of two modes; serial or parallel. In serial mode, "
 				+ "all of the jobs are launched as part of a change. In "
 				+ "parallel launch mode, the jobs are launched in parallel, "
-				+ "although they may not all be launched at the same time.");
+				+ "although they may not all be launched at the same time. "
+				+ "The number of jobs that run at once is limited by the "
+				+ "maximum number of concurrent jobs and by the cores and "
+				+ "memory available to them.");
 
 		// Create an Entry for the parallel launch flag
 		Entry parallelLaunchEntry = new Entry() {
@@ -82,8 +85,69 @@ class MultiLauncherForm extends Form {
 			}
 		};
 
-		// Add the Entry to the DataComponent
+		// Create an Entry for the maximum number of jobs that run at once
+		Entry maxJobsEntry = new Entry() {
+			@Override
+			protected void setup() {
+
+				setName("Maximum Concurrent Jobs");
+				setId(2);
+				setDescription("The maximum number of jobs that will run at "
+						+ "the same time in parallel mode.");
+				allowedValueType = AllowedValueType.Continuous;
+				allowedValues.add("1");
+				allowedValues.add("4096");
+				defaultValue = String.valueOf(Runtime.getRuntime()
+						.availableProcessors());
+
+				return;
+			}
+		};
+
+		// Create an Entry for the number of cores available to the jobs
+		Entry coresEntry = new Entry() {
+			@Override
+			protected void setup() {
+
+				setName("Available Cores");
+				setId(3);
+				setDescription("The number of cores that the running jobs may "
+						+ "use together. Each job uses its number of MPI "
+						+ "processes times its number of threads. Set to 0 "
+						+ "to ignore cores.");
+				allowedValueType = AllowedValueType.Continuous;
+				allowedValues.add("0");
+				allowedValues.add("1048576");
+				defaultValue = String.valueOf(Runtime.getRuntime()
+						.availableProcessors());
+
+				return;
+			}
+		};
+
+		// Create an Entry for the memory available to the jobs
+		Entry memoryEntry = new Entry() {
+			@Override
+			protected void setup() {
+
+				setName("Available Memory (MB)");
+				setId(4);
+				setDescription("The memory in megabytes that the running jobs "
+						+ "may use together. Set to 0 to ignore memory.");
+				allowedValueType = AllowedValueType.Continuous;
+				allowedValues.add("0");
+				allowedValues.add("1073741824");
+				defaultValue = "0";
+
+				return;
+			}
+		};
+
+		// Add the Entries to the DataComponent
 		execModeComp.addEntry(parallelLaunchEntry);
+		execModeComp.addEntry(maxJobsEntry);
+		execModeComp.addEntry(coresEntry);
+		execModeComp.addEntry(memoryEntry);
 
 		// Create the master-details component. All we can do here is set it up.
 		// The MultiLauncher has to actually add the details.
@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.item.nuclear;
+
+/**
+ * This interface is implemented by classes that need to be notified when the
+ * points of a {@link PostprocessorBuffer} are written to its CSV file, such as
+ * plots that append new points instead of reloading the whole file.
+ */
+public interface IPostprocessorListener {
+
+	/**
+	 * This operation is called after points have been appended to the CSV
+	 * file of a postprocessor. Only the points written by the flush are
+	 * passed, in the order they were added.
+	 *
+	 * @param buffer
+	 *            The buffer that was flushed.
+	 * @param times
+	 *            The times of the appended points.
+	 * @param values
+	 *            The values of the appended points.
+	 */
+	public void pointsAppended(PostprocessorBuffer buffer, double[] times,
+			double[] values);
+
+}
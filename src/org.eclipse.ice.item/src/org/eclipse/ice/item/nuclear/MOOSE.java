@@ -13,13 +13,13 @@
 package org.eclipse.ice.item.nuclear;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.PrintWriter;
 import java.net.URI;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Timer;
+import java.util.TimerTask;
 
 import javax.xml.bind.annotation.XmlRootElement;
 import javax.xml.bind.annotation.XmlTransient;
@@ -99,6 +99,45 @@ public class MOOSE extends Item {
 	@XmlTransient()
 	private HashMap<String, ICEResource> postProcessorResources;
 
+	/**
+	 * The in-memory time series of the postprocessors, keyed on their names.
+	 * Incoming values are added to these buffers, which write them to the
+	 * postprocessor CSV files in batches.
+	 */
+	@XmlTransient()
+	private HashMap<String, PostprocessorBuffer> postProcessorBuffers;
+
+	/**
+	 * The task that will flush the postprocessor buffers, or null if no flush
+	 * is scheduled.
+	 */
+	@XmlTransient()
+	private TimerTask postProcessorFlushTask;
+
+	/**
+	 * The number of points of each postprocessor kept in memory.
+	 */
+	public static final int POSTPROCESSOR_BUFFER_SIZE = 10000;
+
+	/**
+	 * The number of pending points that makes a postprocessor buffer write
+	 * its points immediately.
+	 */
+	public static final int POSTPROCESSOR_FLUSH_THRESHOLD = 256;
+
+	/**
+	 * The time in milliseconds between the arrival of a postprocessor value
+	 * and the flush of the buffers that writes it.
+	 */
+	public static final long POSTPROCESSOR_FLUSH_PERIOD = 500;
+
+	/**
+	 * The timer that flushes the postprocessor buffers of all MOOSE Items. It
+	 * uses a daemon thread so it does not keep the platform alive.
+	 */
+	private static final Timer postProcessorTimer = new Timer(
+			"MOOSE Postprocessor Flush", true);
+
 	/**
 	 * This map keeps track of File Entries in the modelFiles DataComponent and
 	 * their corresponding parent TreeComposites so that we can keep them in
@@ -173,6 +212,7 @@ public class MOOSE extends Item {
 
 		// Initialize the postProcessor Mapping
 		postProcessorResources = new HashMap<String, ICEResource>();
+		postProcessorBuffers = new HashMap<String, PostprocessorBuffer>();
 
 		// Create the Postprocessors DataComponent
 		postProcessorsData = new DataComponent();
@@ -726,60 +766,153 @@ public class MOOSE extends Item {
 			Double time = Double.valueOf(data[1]);
 			Double value = Double.valueOf(data[2]);
 
-			// We need the jobLaunch directory to create new VizResources
-			String directory = mooseLauncher.getJobLaunchDirectory();
+			// Get the buffer for the postprocessor, creating it and its
+			// VizResource the first time a value arrives.
+			PostprocessorBuffer buffer;
+			synchronized (postProcessorBuffers) {
+				buffer = postProcessorBuffers.get(name);
+				if (buffer == null) {
+					buffer = createPostprocessorBuffer(name, time, value);
+					return buffer != null;
+				}
+			}
 
-			// Get a reference to the VizResource file we are going
-			// to create and populate
-			File dataFile = new File(directory + System.getProperty("file.separator") + name + ".csv");
+			// Add the value to the buffer. It is written to the file when
+			// enough values are pending or when the scheduled flush runs.
+			if (buffer.add(time, value) == 0) {
+				schedulePostprocessorFlush();
+			}
+		}
 
-			// Get a reference to the ResourceComponent
-			ResourceComponent comp = (ResourceComponent) form.getComponent(3);
+		return true;
+	}
 
-			try {
+	/**
+	 * This operation creates the buffer and VizResource of a postprocessor
+	 * when its first value arrives. The first value is written immediately so
+	 * that the file exists before the resource is created. The caller must
+	 * hold the lock on the buffer map.
+	 * 
+	 * @param name
+	 *            The name of the postprocessor.
+	 * @param time
+	 *            The time of the first value.
+	 * @param value
+	 *            The first value.
+	 * @return The new buffer, or null if the resource could not be created.
+	 */
+	private PostprocessorBuffer createPostprocessorBuffer(String name,
+			double time, double value) {
+
+		// We need the jobLaunch directory to create new VizResources
+		String directory = mooseLauncher.getJobLaunchDirectory();
+
+		// Get a reference to the VizResource file we are going
+		// to create and populate
+		File dataFile = new File(directory
+				+ System.getProperty("file.separator") + name + ".csv");
+
+		// Get a reference to the ResourceComponent
+		ResourceComponent comp = (ResourceComponent) form.getComponent(3);
+
+		// Write the first value, which also writes the header if the file is
+		// new
+		PostprocessorBuffer buffer = new PostprocessorBuffer(name, dataFile,
+				POSTPROCESSOR_BUFFER_SIZE, POSTPROCESSOR_FLUSH_THRESHOLD);
+		buffer.add(time, value);
+		if (buffer.flush() == 0) {
+			return null;
+		}
 
-				if (!dataFile.exists()) {
-					// If the file hasn't been created yet, we need to create
-					// it and start filling it with post processor data
-					dataFile.createNewFile();
+		try {
+			// Create the VizResource, and add it to the ResourceComponent
+			final ICEResource resource = getResource(dataFile
+					.getAbsolutePath());
+			comp.add(resource);
 
-					// Write the new incoming data
-					PrintWriter printWriter = new PrintWriter(new FileOutputStream(dataFile, true));
-					printWriter.write("Time, " + name + "\n");
-					printWriter.write(time + ", " + value + "\n");
-					printWriter.close();
+			// Remember the resource and the buffer for next time
+			postProcessorResources.put(name, resource);
+			postProcessorBuffers.put(name, buffer);
 
-					// Create the VizResource, and add it to the
-					// ResourceComponent
-					ICEResource resource = getResource(dataFile.getAbsolutePath());
-					comp.add(resource);
+			// Notify the resource's listeners once for each batch of values
+			// that is written, instead of once for each value. The plots of
+			// the resource follow its file, so they only read the new rows.
+			buffer.addListener(new IPostprocessorListener() {
+				@Override
+				public void pointsAppended(PostprocessorBuffer buffer,
+						double[] times, double[] values) {
+					resource.contentsChanged();
+				}
+			});
+		} catch (IOException e) {
+			logger.error(getClass().getName() + " Exception!", e);
+			return null;
+		}
 
-					// Remember the name of the resource for next time
-					postProcessorResources.put(name, resource);
+		return buffer;
+	}
 
-				} else {
+	/**
+	 * This operation schedules a flush of the postprocessor buffers unless one
+	 * is already scheduled. The flush writes all of the values that arrived
+	 * before it runs, so a value is written at most
+	 * {@link #POSTPROCESSOR_FLUSH_PERIOD} milliseconds after it arrives.
+	 */
+	private void schedulePostprocessorFlush() {
+		synchronized (postProcessorBuffers) {
+			if (postProcessorFlushTask == null) {
+				postProcessorFlushTask = new TimerTask() {
+					@Override
+					public void run() {
+						flushPostprocessors();
+					}
+				};
+				postProcessorTimer.schedule(postProcessorFlushTask,
+						POSTPROCESSOR_FLUSH_PERIOD);
+			}
+		}
+	}
 
-					// Write the data to the existing resource
-					PrintWriter printWriter = new PrintWriter(new FileOutputStream(dataFile, true));
-					printWriter.write(time + ", " + value + "\n");
+	/**
+	 * This operation writes the pending values of all of the postprocessor
+	 * buffers to their CSV files.
+	 * 
+	 * @return The number of values that were written.
+	 */
+	public int flushPostprocessors() {
 
-					// Update the ICEResource
-					ICEResource r = postProcessorResources.get(name);
+		// Local Declarations
+		ArrayList<PostprocessorBuffer> buffers;
+		int count = 0;
+
+		// Values that arrive after this point schedule a new flush
+		synchronized (postProcessorBuffers) {
+			postProcessorFlushTask = null;
+			buffers = new ArrayList<PostprocessorBuffer>(
+					postProcessorBuffers.values());
+		}
 
-					// Here we are faking a VizResource notification
-					// by setting the name with its current name
-					r.setName(r.getName());
+		for (PostprocessorBuffer buffer : buffers) {
+			count += buffer.flush();
+		}
 
-					// Close the writer
-					printWriter.close();
-				}
+		return count;
+	}
 
-			} catch (IOException e) {
-				logger.error(getClass().getName() + " Exception!",e);
-			}
+	/**
+	 * This operation returns the in-memory time series of a postprocessor.
+	 * Clients can register an {@link IPostprocessorListener} with it to
+	 * receive only the values appended to the postprocessor's CSV file.
+	 * 
+	 * @param name
+	 *            The name of the postprocessor.
+	 * @return The buffer, or null if no values have arrived for the
+	 *         postprocessor.
+	 */
+	public PostprocessorBuffer getPostprocessorBuffer(String name) {
+		synchronized (postProcessorBuffers) {
+			return postProcessorBuffers.get(name);
 		}
-
-		return true;
 	}
 
 	/**
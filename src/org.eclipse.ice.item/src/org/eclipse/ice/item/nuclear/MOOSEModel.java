@@ -27,6 +27,7 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Stack;
@@ -55,6 +56,7 @@ import org.eclipse.ice.io.serializable.IReader;
 import org.eclipse.ice.io.serializable.IWriter;
 import org.eclipse.ice.item.Item;
 import org.eclipse.ice.item.ItemType;
+import org.eclipse.ice.item.utilities.moose.MOOSESyntaxCache;
 import org.eclipse.remote.core.IRemoteConnection;
 import org.eclipse.remote.core.IRemoteConnectionHostService;
 import org.eclipse.remote.core.IRemoteConnectionType;
@@ -405,7 +407,8 @@ public class MOOSEModel extends Item {
 	protected void loadTreeContents(String mooseExecutableName) throws IOException, CoreException {
 
 		// Local Declarations
-		TreeComposite mooseParentTree = (TreeComposite) form.getComponent(mooseTreeCompositeId), tmpParentTree;
+		TreeComposite mooseParentTree = (TreeComposite) form.getComponent(mooseTreeCompositeId), tmpParentTree,
+				cachedTree = null;
 
 		// Load the file from the project space if possible
 		if (project != null && project.isAccessible()) {
@@ -421,6 +424,8 @@ public class MOOSEModel extends Item {
 			// Create the URI from the user's application path
 			URI uri = URI.create(mooseExecutableName);
 			IFile yamlFile = null, syntaxFile = null;
+			MOOSESyntaxCache syntaxCache = new MOOSESyntaxCache(MOOSESyntaxCache.getDefaultDirectory());
+			String syntaxKey = null;
 
 			if ("ssh".equals(uri.getScheme())) {
 
@@ -449,29 +454,46 @@ public class MOOSEModel extends Item {
 				// Create a File so we can easily get its file name
 				File execFile = new File(uri);
 
+				// Use the cached specification if this executable was loaded
+				// before.
+				try {
+					syntaxKey = syntaxCache.getKey(execFile);
+				} catch (IOException e) {
+					logger.error(getClass().getName() + " Exception!",e);
+				}
+				cachedTree = (syntaxKey != null) ? syntaxCache.getSyntaxTree(syntaxKey) : null;
+
 				// Get the YAML and Syntax files file.
 				yamlFile = mooseFolder.getFile(execFile.getName().toLowerCase() + ".yaml");
 				syntaxFile = mooseFolder.getFile(execFile.getName().toLowerCase() + ".syntax");
 
-				// Create the yaml and syntax exec strings
-				String[] yamlCmd = { "/bin/sh", "-c",
-						execFile.getAbsolutePath() + " --yaml > " + yamlFile.getLocation().toOSString() };
-				String[] syntaxCmd = { "/bin/sh", "-c",
-						execFile.getAbsolutePath() + " --syntax > " + syntaxFile.getLocation().toOSString() };
+				// The executable only has to be run if its specification is not
+				// cached or the project does not have the files yet.
+				if (cachedTree == null || !yamlFile.getLocation().toFile().isFile()
+						|| !syntaxFile.getLocation().toFile().isFile()) {
 
-				// Create the YAML and Syntax files
-				Process p1 = Runtime.getRuntime().exec(yamlCmd);
-				Process p2 = Runtime.getRuntime().exec(syntaxCmd);
-				try {
-					int code1 = p1.waitFor();
-					int code2 = p2.waitFor();
+					// Create the yaml and syntax exec strings
+					String[] yamlCmd = { "/bin/sh", "-c",
+							execFile.getAbsolutePath() + " --yaml > " + yamlFile.getLocation().toOSString() };
+					String[] syntaxCmd = { "/bin/sh", "-c",
+							execFile.getAbsolutePath() + " --syntax > " + syntaxFile.getLocation().toOSString() };
+
+					// Create the YAML and Syntax files
+					Process p1 = Runtime.getRuntime().exec(yamlCmd);
+					Process p2 = Runtime.getRuntime().exec(syntaxCmd);
+					try {
+						int code1 = p1.waitFor();
+						int code2 = p2.waitFor();
 
-					if (code1 != 0 || code2 != 0) {
-						throw new Exception("Error in creating the YAML/Syntax files. Job return codes were " + code1
-								+ " and " + code2);
+						if (code1 != 0 || code2 != 0) {
+							throw new Exception("Error in creating the YAML/Syntax files. Job return codes were "
+									+ code1 + " and " + code2);
+						}
+					} catch (Exception e) {
+						logger.error(getClass().getName() + " Exception!",e);
+						// Do not cache files that may be incomplete
+						syntaxKey = null;
 					}
-				} catch (Exception e) {
-					logger.error(getClass().getName() + " Exception!",e);
 				}
 			}
 
@@ -485,8 +507,20 @@ public class MOOSEModel extends Item {
 			// Get the IReader instance
 			IReader reader = getReader();
 
-			// Load the tree if the file exists
-			if (yamlFile.exists() && syntaxFile.exists() && reader != null) {
+			// Load the tree if the file exists. Local executables are compiled
+			// into the cache and their shared tree is copied.
+			if (cachedTree != null) {
+
+				// Copy the cached tree into the parent.
+				mooseParentTree.copy(cachedTree);
+
+			} else if (yamlFile.exists() && syntaxFile.exists() && syntaxKey != null) {
+
+				// Copy the shared tree into the parent.
+				mooseParentTree.copy(syntaxCache.compile(syntaxKey, yamlFile.getLocation().toOSString(),
+						syntaxFile.getLocation().toOSString()));
+
+			} else if (yamlFile.exists() && syntaxFile.exists() && reader != null) {
 
 				// Read the file and get the returned Form
 				Form readerForm = reader.read(yamlFile);
@@ -577,21 +611,38 @@ public class MOOSEModel extends Item {
 					// Get the app name
 					loadedApp = mooseSpecFileEntry.getValue();
 
-					// Grab a clone of the old form's TreeComposite with data
-					// imported into it
-					TreeComposite inputTree = (TreeComposite) preparedForm.getComponent(mooseTreeCompositeId).clone();
+					// Grab the blocks of the old form's TreeComposite with data
+					// imported into it. loadTreeContents() replaces the
+					// children of this Item's tree without changing them, so
+					// the blocks only need to be cloned if they belong to
+					// another Form or if the tree is not replaced.
+					TreeComposite inputTree = (TreeComposite) preparedForm.getComponent(mooseTreeCompositeId);
+					boolean sharedTree = (inputTree == form.getComponent(mooseTreeCompositeId));
+					if (!sharedTree) {
+						inputTree = (TreeComposite) inputTree.clone();
+					}
+					ArrayList<TreeComposite> inputBlocks = new ArrayList<TreeComposite>();
+					for (int i = 0; i < inputTree.getNumberOfChildren(); i++) {
+						inputBlocks.add(inputTree.getChildAtIndex(i));
+					}
 
 					try {
 						loadTreeContents(loadedApp);
 					} catch (IOException | CoreException e) {
 						logger.error(getClass().getName() + " Exception!",e);
+						// The blocks are still in the tree, so clone them
+						if (sharedTree) {
+							for (int i = 0; i < inputBlocks.size(); i++) {
+								inputBlocks.set(i, (TreeComposite) inputBlocks.get(i).clone());
+							}
+						}
 					}
 
 					// Get the empty YAML TreeComposite
 					TreeComposite yamlTree = (TreeComposite) form.getComponent(mooseTreeCompositeId);
 
-					// Merge the input tree into the YAML spec
-					mergeTrees(inputTree, yamlTree);
+					// Merge the input blocks into the YAML spec
+					mergeTrees(inputBlocks, yamlTree);
 
 					// Save this App as a Preference
 					IEclipsePreferences prefs = InstanceScope.INSTANCE.getNode("org.eclipse.ice.item.moose");
@@ -677,6 +728,10 @@ public class MOOSEModel extends Item {
 	 * then we will copy over the top-level trees (trees right below the root)
 	 * from the input map into the YAML map.
 	 *
+	 * Child exemplars are templates that are only cloned when a child is
+	 * created from them, so the merged tree shares the exemplars of the YAML
+	 * tree instead of copying them into every block.
+	 *
 	 * @param inputTree
 	 *            The TreeComposite of imported MOOSE file data.
 	 * @param yamlTree
@@ -685,16 +740,40 @@ public class MOOSEModel extends Item {
 	protected void mergeTrees(TreeComposite inputTree, TreeComposite yamlTree) {
 
 		// Local declarations
+		ArrayList<TreeComposite> inputBlocks = new ArrayList<TreeComposite>();
 		TreeComposite child = null;
 
 		// Store the input tree's top-level children in an ArrayList
-		// for reference
-		topLevelInputTrees = new ArrayList<TreeComposite>();
 		inputTree.resetChildIterator();
 		while ((child = inputTree.getNextChild()) != null) {
-			topLevelInputTrees.add(child);
+			inputBlocks.add(child);
 		}
 
+		mergeTrees(inputBlocks, yamlTree);
+
+		return;
+	}
+
+	/**
+	 * This method merges the top-level blocks of imported MOOSE data into the
+	 * YAML spec for that MOOSE application as described by
+	 * {@link #mergeTrees(TreeComposite, TreeComposite)}. The blocks are
+	 * modified by the merge.
+	 *
+	 * @param inputBlocks
+	 *            The top-level TreeComposites of imported MOOSE file data.
+	 * @param yamlTree
+	 *            The TreeComposite loaded from the MOOSE YAML spec.
+	 */
+	protected void mergeTrees(List<TreeComposite> inputBlocks, TreeComposite yamlTree) {
+
+		// Local declarations
+		TreeComposite child = null;
+
+		// Store the input tree's top-level children in an ArrayList
+		// for reference
+		topLevelInputTrees = new ArrayList<TreeComposite>(inputBlocks);
+
 		// Store the YAML tree's top-level children in an ArrayList
 		// for reference
 		topLevelYamlTrees = new ArrayList<TreeComposite>();
@@ -707,7 +786,7 @@ public class MOOSEModel extends Item {
 		HashMap<String, TreeComposite> yamlMap = (HashMap<String, TreeComposite>) buildYamlMap(yamlTree);
 
 		// Then, create a HashMap of all the input trees
-		HashMap<String, TreeComposite> inputMap = (HashMap<String, TreeComposite>) buildInputMap(inputTree);
+		HashMap<String, TreeComposite> inputMap = (HashMap<String, TreeComposite>) buildInputMap();
 
 		// Lastly, now create a HashMap of the exemplar children defined in the
 		// YAML spec tree
@@ -773,81 +852,49 @@ public class MOOSEModel extends Item {
 	}
 
 	/**
-	 * This utility method is responsible for taking a TreeComposite loaded from
-	 * a MOOSE input file, and constructs a Map of all its nodes keyed on a
-	 * String pathname (relative to the root).
+	 * This utility method is responsible for taking the top-level trees loaded
+	 * from a MOOSE input file, and constructs a Map of all their nodes keyed on
+	 * a String pathname (relative to the root). Each node is visited once.
 	 *
 	 * Used exclusively by {@link #reviewEntries(Form)
 	 * MOOSEModel.reviewEntries(...)}.
 	 *
-	 * @param inputTree
-	 *            The TreeComposite loaded from an input MOOSE file.
 	 * @return A Map containing all the nodes of the input tree, keyed on
 	 *         pathname.
 	 */
-	private Map<String, TreeComposite> buildInputMap(TreeComposite inputTree) {
+	private Map<String, TreeComposite> buildInputMap() {
 
 		// Local declarations
 		Map<String, TreeComposite> inputMap = new HashMap<String, TreeComposite>();
-		ArrayList<TreeComposite> children = new ArrayList<TreeComposite>();
 		TreeComposite tree = null;
-		String treeName = "";
-		int prevNameIndex = -1;
+		String treeName = null;
 
-		// Create an empty stack for TreeComposites
+		// Create empty stacks for TreeComposites and their path names
 		Stack<TreeComposite> treeStack = new Stack<TreeComposite>();
-		treeStack.push(null);
+		Stack<String> nameStack = new Stack<String>();
 
 		// Push the top level TreeComposites from the input file
 		// first on top
 		for (TreeComposite topLevelTree : topLevelInputTrees) {
 			treeStack.push(topLevelTree);
+			nameStack.push(topLevelTree.getName());
 		}
 
-		// Pop one of the top-level trees off to start.
-		tree = treeStack.pop();
+		while (!treeStack.isEmpty()) {
 
-		while (tree != null) {
+			// Pop the next tree and its path name off the stack
+			tree = treeStack.pop();
+			treeName = nameStack.pop();
 
-			// Append to the tree name
-			treeName += "/" + tree.getName();
 			// Put the tree in the Map, keyed on path name
-			inputMap.put((treeName.startsWith("/") ? treeName.substring(1, treeName.length()) : treeName), tree);
-
-			// Clear the children list in case there are any
-			// from a previous tree
-			children.clear();
-
-			// Check if this tree has children
-			if (tree.getNumberOfChildren() > 0) {
-
-				// Construct the list of this node's children
-				for (int i = 0; i < tree.getNumberOfChildren(); i++) {
-					children.add(tree.getChildAtIndex(i));
-				}
+			inputMap.put(treeName, tree);
 
-				// Push children to the top of the tree stack
-				for (int i = (children.size() - 1); i >= 0; i--) {
-					treeStack.push(children.get(i));
-				}
-			}
-
-			// If the next tree in the stack is a top-level tree,
-			// clear the path name
-			if (topLevelInputTrees.contains(treeStack.peek())) {
-				treeName = "";
-			}
-
-			// Otherwise, if the current tree didn't have children
-			// to push onto the stack, remove the last "part" of the
-			// path name, as we'll be going back up one level
-			else if (children.isEmpty()) {
-				prevNameIndex = treeName.lastIndexOf("/" + tree.getName());
-				treeName = treeName.substring(0, prevNameIndex);
+			// Push children to the top of the tree stack
+			for (int i = tree.getNumberOfChildren() - 1; i >= 0; i--) {
+				TreeComposite child = tree.getChildAtIndex(i);
+				treeStack.push(child);
+				nameStack.push(treeName + "/" + child.getName());
 			}
-
-			// Pop the next tree off the stack
-			tree = treeStack.pop();
 		}
 
 		return inputMap;
@@ -871,68 +918,39 @@ public class MOOSEModel extends Item {
 		// Local declarations
 		ArrayList<TreeComposite> childExemplars;
 		HashMap<String, TreeComposite> exemplarMap = new HashMap<String, TreeComposite>();
-		TreeComposite tree = null, oneUpTree = null;
-		String treeName = "";
-		int prevNameIndex = -1;
+		TreeComposite tree = null;
+		String treeName = null;
 
-		// Create an empty stack for TreeComposites
+		// Create empty stacks for TreeComposites and their path names
 		Stack<TreeComposite> treeStack = new Stack<TreeComposite>();
-		treeStack.push(null);
+		Stack<String> nameStack = new Stack<String>();
 
 		// Push the top level TreeComposites from the YAML ArrayList
 		// first on top
 		for (TreeComposite topLevelYamlTree : topLevelYamlTrees) {
 			treeStack.push(topLevelYamlTree);
+			nameStack.push(topLevelYamlTree.getName());
 		}
 
-		// Pop one of the top-level trees off to start.
-		tree = treeStack.pop();
-		while (tree != null) {
+		while (!treeStack.isEmpty()) {
+
+			// Pop the next tree and its path name off the stack
+			tree = treeStack.pop();
+			treeName = nameStack.pop();
 
-			// Append to the tree name
-			treeName += "/" + tree.getName();
 			// Put the tree in the Map, keyed on path name
-			exemplarMap.put((treeName.startsWith("/") ? treeName.substring(1, treeName.length()) : treeName), tree);
+			exemplarMap.put(treeName, tree);
 
 			// Push child exemplars to the top of the tree stack
 			childExemplars = tree.getChildExemplars();
 			for (int i = (childExemplars.size() - 1); i >= 0; i--) {
 				treeStack.push(childExemplars.get(i));
+				nameStack.push(treeName + "/" + childExemplars.get(i).getName());
 			}
 
 			// While we're here, append a blank exemplar to the tree (so the
 			// user can create custom blocks)
 			addBlankChildExemplar(tree);
-
-			// If the next tree in the stack is a top-level tree,
-			// clear the path name
-			if (topLevelYamlTrees.contains(treeStack.peek())) {
-				treeName = "";
-			}
-
-			// Otherwise, if the current tree didn't have child
-			// exemplars to push onto the stack, remove the last
-			// "part" of the path name, as we'll be going back up
-			// one level
-			else if (childExemplars.isEmpty()) {
-
-				// Get the name of the tree one level up
-				prevNameIndex = treeName.lastIndexOf("/" + tree.getName());
-				treeName = treeName.substring(0, prevNameIndex);
-
-				// Go up another level if the next tree in the stack isn't
-				// a child exemplar of the current tree referenced by treeName
-				oneUpTree = exemplarMap.get(treeName.substring(1));
-				if (oneUpTree != null && !oneUpTree.getChildExemplars().contains(treeStack.peek())) {
-					prevNameIndex = treeName.lastIndexOf("/");
-					treeName = ((prevNameIndex == 0 || prevNameIndex == -1) ? treeName
-							: treeName.substring(0, prevNameIndex));
-				}
-
-			}
-
-			// Pop the next tree off the stack
-			tree = treeStack.pop();
 		}
 
 		return exemplarMap;
@@ -1213,49 +1231,48 @@ public class MOOSEModel extends Item {
 
 		// Local declarations
 		DataComponent exemplarNode = null, inputNode = null;
-		Entry exemplarParam = null;
+		Map<String, Entry> inputParameters = null;
 
 		// Get the DataComponent on the exemplarCur
 		exemplarNode = (DataComponent) exemplarCur.getDataNodes().get(0);
 
 		// Check if any of its entries are discrete type
-		for (int i = 0; i < exemplarNode.retrieveAllEntries().size(); i++) {
-
-			exemplarParam = exemplarNode.retrieveAllEntries().get(i);
+		for (Entry exemplarParam : exemplarNode.retrieveAllEntries()) {
 
 			if ((AllowedValueType.Discrete).equals(exemplarParam.getValueType())) {
 
-				// Get the data node on the input tree
-				inputNode = (DataComponent) inputCur.getDataNodes().get(0);
+				// Get the parameters on the input tree, keyed on name
+				if (inputParameters == null) {
+					inputNode = (DataComponent) inputCur.getDataNodes().get(0);
+					inputParameters = new HashMap<String, Entry>();
+					for (Entry inputParameter : inputNode.retrieveAllEntries()) {
+						inputParameters.put(inputParameter.getName(), inputParameter);
+					}
+				}
 
 				// Check if inputCur has the same parameter on it
-				for (int j = 0; j < inputNode.retrieveAllEntries().size(); j++) {
-
-					// Get the next inputParameter
-					Entry inputParameter = inputNode.retrieveAllEntries().get(j);
-
-					if (inputParameter.getName().equals(exemplarParam.getName())) {
-
-						// Clone the YAML parameter
-						Entry paramClone = (Entry) exemplarParam.clone();
-
-						// Merge Data from the input parameter into it
-						paramClone.setDescription(inputParameter.getDescription());
-						paramClone.setId(inputParameter.getId());
-						paramClone.setTag(inputParameter.getTag());
-						paramClone.setRequired(inputParameter.isRequired());
-						paramClone.setReady(inputParameter.isReady());
-
-						// Set the value
-						String oldValue = inputParameter.getValue();
-						paramClone.setValue(paramClone.getAllowedValues().contains(oldValue) ? oldValue
-								: paramClone.getAllowedValues().get(0));
-
-						// Set the new parameter on the data node
-						inputNode.deleteEntry(inputParameter.getName());
-						inputNode.addEntry(paramClone);
-
-					}
+				Entry inputParameter = inputParameters.get(exemplarParam.getName());
+				if (inputParameter != null) {
+
+					// Clone the YAML parameter
+					Entry paramClone = (Entry) exemplarParam.clone();
+
+					// Merge Data from the input parameter into it
+					paramClone.setDescription(inputParameter.getDescription());
+					paramClone.setId(inputParameter.getId());
+					paramClone.setTag(inputParameter.getTag());
+					paramClone.setRequired(inputParameter.isRequired());
+					paramClone.setReady(inputParameter.isReady());
+
+					// Set the value
+					String oldValue = inputParameter.getValue();
+					paramClone.setValue(paramClone.getAllowedValues().contains(oldValue) ? oldValue
+							: paramClone.getAllowedValues().get(0));
+
+					// Set the new parameter on the data node
+					inputNode.deleteEntry(inputParameter.getName());
+					inputNode.addEntry(paramClone);
+					inputParameters.put(paramClone.getName(), paramClone);
 				}
 			}
 		}
@@ -1300,8 +1317,11 @@ public class MOOSEModel extends Item {
 
 				// Now copy the input tree into the YAML tree (set the "copy in
 				// place" flag to true so parent and sibling references are
-				// retained)
+				// retained). The exemplars are shared instead of copied.
+				ArrayList<ArrayList<TreeComposite>> exemplarLists = detachExemplars(inputCur);
 				yamlCur.copy(inputCur, true);
+				attachExemplars(inputCur, exemplarLists);
+				attachExemplars(yamlCur, exemplarLists);
 
 				// Now, check if this is an AdaptiveTreeComposite
 				// and if it is, set the type
@@ -1332,14 +1352,20 @@ public class MOOSEModel extends Item {
 							if (childCur.getName().equals(childName)) {
 
 								// Clone the exemplar with all the "types" data
-								// already entered
+								// already entered. Its exemplars are replaced
+								// by the child's below, so they are not cloned.
+								exemplarLists = detachExemplars(exemplar);
 								AdaptiveTreeComposite adapChild = (AdaptiveTreeComposite) exemplar.clone();
+								attachExemplars(exemplar, exemplarLists);
 								// Set the new AdaptiveTreeComposite in the
 								// yamlCur's list of children
 								yamlCur.removeChild(childCur);
 								yamlCur.setNextChild(adapChild);
-								// Copy the actual child's data in
+								// Copy the actual child's data in, sharing its
+								// exemplars
+								exemplarLists = detachExemplars(childCur);
 								adapChild.copy(childCur);
+								attachExemplars(adapChild, exemplarLists);
 								// Set the adaptive type
 								setAdaptiveType(adapChild);
 								// Git off mah lawn!
@@ -1368,6 +1394,66 @@ public class MOOSEModel extends Item {
 		return;
 	}
 
+	/**
+	 * This method removes the child exemplars from a tree and all of its
+	 * children, so that copying or cloning the tree does not copy them. They
+	 * are put back with {@link #attachExemplars(TreeComposite, List)}.
+	 *
+	 * @param tree
+	 *            The tree whose exemplars should be removed.
+	 * @return The exemplar lists of the tree and its children in depth-first
+	 *         order.
+	 */
+	private ArrayList<ArrayList<TreeComposite>> detachExemplars(TreeComposite tree) {
+
+		// Local declarations
+		ArrayList<ArrayList<TreeComposite>> exemplarLists = new ArrayList<ArrayList<TreeComposite>>();
+		Stack<TreeComposite> treeStack = new Stack<TreeComposite>();
+		TreeComposite current = null;
+
+		treeStack.push(tree);
+		while (!treeStack.isEmpty()) {
+			current = treeStack.pop();
+			exemplarLists.add(current.getChildExemplars());
+			current.setChildExemplars(new ArrayList<TreeComposite>());
+			for (int i = current.getNumberOfChildren() - 1; i >= 0; i--) {
+				treeStack.push(current.getChildAtIndex(i));
+			}
+		}
+
+		return exemplarLists;
+	}
+
+	/**
+	 * This method sets the child exemplars of a tree and all of its children
+	 * to lists returned by {@link #detachExemplars(TreeComposite)} for a tree
+	 * with the same structure, such as the tree itself or a copy of it. The
+	 * exemplars are shared, not copied.
+	 *
+	 * @param tree
+	 *            The tree whose exemplars should be set.
+	 * @param exemplarLists
+	 *            The exemplar lists in depth-first order.
+	 */
+	private void attachExemplars(TreeComposite tree, List<ArrayList<TreeComposite>> exemplarLists) {
+
+		// Local declarations
+		Stack<TreeComposite> treeStack = new Stack<TreeComposite>();
+		TreeComposite current = null;
+		int index = 0;
+
+		treeStack.push(tree);
+		while (!treeStack.isEmpty() && index < exemplarLists.size()) {
+			current = treeStack.pop();
+			current.setChildExemplars(exemplarLists.get(index++));
+			for (int i = current.getNumberOfChildren() - 1; i >= 0; i--) {
+				treeStack.push(current.getChildAtIndex(i));
+			}
+		}
+
+		return;
+	}
+
 	/**
 	 * This method attempts to add a mesh ICEResource to the Form's
 	 * ResourceComponent. If it cannot get a handle on a valid ICEResource, this
@@ -0,0 +1,370 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.item.nuclear;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class buffers the time series of a single MOOSE postprocessor in
+ * memory. The last points are kept in a ring of primitive arrays, and the
+ * points that have not been written yet are appended to the postprocessor's
+ * CSV file in one batch when {@link #flush()} is called or when the number of
+ * pending points reaches the flush threshold. After each flush, the registered
+ * {@link IPostprocessorListener}s receive only the appended points.
+ * <p>
+ * The file starts with the header "Time, &lt;name&gt;" when it is created by
+ * the buffer. Points are added to an existing file without a new header.
+ * </p>
+ * <p>
+ * This class is thread safe.
+ * </p>
+ */
+public class PostprocessorBuffer {
+
+	/**
+	 * Logger for handling event messages and other information.
+	 */
+	private static final Logger logger = LoggerFactory
+			.getLogger(PostprocessorBuffer.class);
+
+	/**
+	 * The name of the postprocessor.
+	 */
+	private final String name;
+
+	/**
+	 * The CSV file the points are written to.
+	 */
+	private final File file;
+
+	/**
+	 * The times of the buffered points, stored as a ring.
+	 */
+	private final double[] times;
+
+	/**
+	 * The values of the buffered points, stored as a ring.
+	 */
+	private final double[] values;
+
+	/**
+	 * The number of pending points that triggers a flush.
+	 */
+	private final int flushThreshold;
+
+	/**
+	 * The index of the oldest point in the ring.
+	 */
+	private int start = 0;
+
+	/**
+	 * The number of points in the ring.
+	 */
+	private int size = 0;
+
+	/**
+	 * The number of points at the end of the ring that have not been written
+	 * to the file.
+	 */
+	private int pending = 0;
+
+	/**
+	 * The total number of points added to the buffer.
+	 */
+	private long addedCount = 0;
+
+	/**
+	 * The listeners notified after each flush.
+	 */
+	private final List<IPostprocessorListener> listeners;
+
+	/**
+	 * The lock held during a flush so that the file is written by one flush
+	 * at a time and listeners are notified of the appended points in the
+	 * order they were written. Points can be added while it is held.
+	 */
+	private final Object flushLock = new Object();
+
+	/**
+	 * The constructor.
+	 *
+	 * @param name
+	 *            The name of the postprocessor.
+	 * @param file
+	 *            The CSV file the points are written to.
+	 * @param capacity
+	 *            The number of points kept in memory. It must be positive.
+	 * @param flushThreshold
+	 *            The number of pending points that triggers a flush. It is
+	 *            limited to the capacity so that points are not dropped from
+	 *            the ring before they are written.
+	 */
+	public PostprocessorBuffer(String name, File file, int capacity,
+			int flushThreshold) {
+
+		// Check the arguments
+		if (name == null || file == null) {
+			throw new IllegalArgumentException(
+					"PostprocessorBuffer error: The name and file must not be null.");
+		} else if (capacity < 1) {
+			throw new IllegalArgumentException(
+					"PostprocessorBuffer error: The capacity must be positive.");
+		}
+
+		this.name = name;
+		this.file = file;
+		this.flushThreshold = Math.max(1, Math.min(flushThreshold, capacity));
+		times = new double[capacity];
+		values = new double[capacity];
+		listeners = new ArrayList<IPostprocessorListener>();
+	}
+
+	/**
+	 * This operation adds a point to the end of the series. If the ring is
+	 * full, the oldest point is dropped from memory. If the number of pending
+	 * points reaches the flush threshold, the buffer is flushed.
+	 *
+	 * @param time
+	 *            The time of the point.
+	 * @param value
+	 *            The value of the point.
+	 * @return The number of points appended to the file by this call, which is
+	 *         0 unless the buffer was flushed.
+	 */
+	public int add(double time, double value) {
+
+		boolean full;
+
+		synchronized (this) {
+			// Put the point after the newest one, overwriting the oldest if
+			// the ring is full
+			int index = (start + size) % times.length;
+			times[index] = time;
+			values[index] = value;
+			if (size < times.length) {
+				size++;
+			} else {
+				start = (start + 1) % times.length;
+			}
+
+			// Pending points can only be lost if earlier flushes failed
+			pending = Math.min(pending + 1, times.length);
+			addedCount++;
+			full = (pending >= flushThreshold);
+		}
+
+		return (full ? flush() : 0);
+	}
+
+	/**
+	 * This operation appends the pending points to the CSV file in one write
+	 * and notifies the listeners with the appended points. Errors are logged
+	 * and the points stay pending so that the next flush can retry them.
+	 *
+	 * @return The number of points appended to the file.
+	 */
+	public int flush() {
+
+		synchronized (flushLock) {
+			return flushPending();
+		}
+	}
+
+	/**
+	 * This operation writes the pending points and notifies the listeners.
+	 * The caller must hold the flush lock. The points are copied under the
+	 * buffer lock, but the file is written outside of it so that points can
+	 * be added and read while the file is written.
+	 *
+	 * @return The number of points appended to the file.
+	 */
+	private int flushPending() {
+
+		// Local Declarations
+		double[] appendedTimes;
+		double[] appendedValues;
+		List<IPostprocessorListener> currentListeners;
+
+		synchronized (this) {
+			if (pending == 0) {
+				return 0;
+			}
+
+			// Copy the pending points, oldest first
+			appendedTimes = new double[pending];
+			appendedValues = new double[pending];
+			int first = start + size - pending;
+			for (int i = 0; i < pending; i++) {
+				int index = (first + i) % times.length;
+				appendedTimes[i] = times[index];
+				appendedValues[i] = values[index];
+			}
+		}
+
+		// Write them in a single batch
+		try {
+			boolean exists = file.exists();
+			BufferedWriter writer = new BufferedWriter(new FileWriter(file,
+					true));
+			try {
+				if (!exists) {
+					writer.write("Time, " + name + "\n");
+				}
+				for (int i = 0; i < appendedTimes.length; i++) {
+					writer.write(appendedTimes[i] + ", " + appendedValues[i]
+							+ "\n");
+				}
+			} finally {
+				writer.close();
+			}
+		} catch (IOException e) {
+			logger.error(getClass().getName() + " Exception!", e);
+			return 0;
+		}
+
+		synchronized (this) {
+			// Points added during the write are still pending
+			pending = Math.max(0, pending - appendedTimes.length);
+			currentListeners = new ArrayList<IPostprocessorListener>(
+					listeners);
+		}
+
+		// Notify the listeners outside of the buffer lock so they can read it
+		for (IPostprocessorListener listener : currentListeners) {
+			listener.pointsAppended(this, appendedTimes, appendedValues);
+		}
+
+		return appendedTimes.length;
+	}
+
+	/**
+	 * This operation registers a listener that is notified after each flush.
+	 *
+	 * @param listener
+	 *            The listener.
+	 */
+	public synchronized void addListener(IPostprocessorListener listener) {
+		if (listener != null && !listeners.contains(listener)) {
+			listeners.add(listener);
+		}
+	}
+
+	/**
+	 * This operation unregisters a listener.
+	 *
+	 * @param listener
+	 *            The listener.
+	 */
+	public synchronized void removeListener(IPostprocessorListener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * This operation returns the name of the postprocessor.
+	 *
+	 * @return The name.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * This operation returns the CSV file the points are written to.
+	 *
+	 * @return The file.
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * This operation returns the number of points that can be kept in memory.
+	 *
+	 * @return The capacity.
+	 */
+	public int getCapacity() {
+		return times.length;
+	}
+
+	/**
+	 * This operation returns the number of points currently kept in memory.
+	 *
+	 * @return The number of points in memory.
+	 */
+	public synchronized int getSize() {
+		return size;
+	}
+
+	/**
+	 * This operation returns the number of points that have not been written
+	 * to the file.
+	 *
+	 * @return The number of pending points.
+	 */
+	public synchronized int getPendingCount() {
+		return pending;
+	}
+
+	/**
+	 * This operation returns the total number of points added to the buffer,
+	 * including the ones that are no longer kept in memory.
+	 *
+	 * @return The number of added points.
+	 */
+	public synchronized long getAddedCount() {
+		return addedCount;
+	}
+
+	/**
+	 * This operation returns the times of the points kept in memory.
+	 *
+	 * @return A copy of the times, oldest first.
+	 */
+	public synchronized double[] getTimes() {
+		return copy(times);
+	}
+
+	/**
+	 * This operation returns the values of the points kept in memory.
+	 *
+	 * @return A copy of the values, oldest first.
+	 */
+	public synchronized double[] getValues() {
+		return copy(values);
+	}
+
+	/**
+	 * This operation copies the points of a ring in order. The caller must
+	 * hold the lock.
+	 *
+	 * @param ring
+	 *            The times or values ring.
+	 * @return The points in the ring, oldest first.
+	 */
+	private double[] copy(double[] ring) {
+		double[] copy = new double[size];
+		int firstLength = Math.min(size, ring.length - start);
+		System.arraycopy(ring, start, copy, 0, firstLength);
+		System.arraycopy(ring, 0, copy, firstLength, size - firstLength);
+		return copy;
+	}
+
+}
@@ -26,6 +26,7 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Stack;
 
@@ -354,18 +355,48 @@ public class MOOSEFileHandler implements IReader, IWriter {
 			throws IOException {
 
 		// Local Declarations
-		InputStream input = null;
-		String syntaxFilePath, treeName;
+		String syntaxFilePath;
+		List<?> list = null;
 		ArrayList<String> hardPathsList = null;
-		ArrayList<TreeComposite> trees = new ArrayList<TreeComposite>();
-		Map<String, TreeComposite> treeMap = null;
-		TreeComposite oneUpTree = null;
 
 		// Quit if the path is boned
 		if (filePath == null || filePath.isEmpty()) {
 			return null;
 		}
 
+		// Load the YAML tree
+		list = loadYAMLData(filePath);
+
+		// Define the file path of the action syntax file
+		int yamlIndex = filePath.indexOf(".yaml");
+		syntaxFilePath = filePath.substring(0, yamlIndex) + ".syntax";
+
+		// Load the list of all "hard" paths from the action syntax file
+		try {
+			hardPathsList = loadActionSyntax(syntaxFilePath);
+		} catch (IOException e) {
+			logger.error(getClass().getName() + " Exception!",e);
+		}
+
+		return buildYAMLTrees(list, hardPathsList);
+	}
+
+	/**
+	 * This operation parses a MOOSE YAML file into the lists and maps of
+	 * values that describe its blocks. These are the input of
+	 * {@link #buildYAMLTrees(List, List)}.
+	 * 
+	 * @param filePath
+	 *            The file path of the MOOSE YAML file.
+	 * @return The list of block maps in the file.
+	 * @throws IOException
+	 */
+	List<?> loadYAMLData(String filePath) throws IOException {
+
+		// Local Declarations
+		InputStream input = null;
+		List<?> list = null;
+
 		// Get a handle on the YAML file
 		File yamlFile = new File(filePath);
 		input = new FileInputStream(yamlFile);
@@ -375,12 +406,46 @@ public class MOOSEFileHandler implements IReader, IWriter {
 			logger.info("MOOSEFileHandler Message: Loading YAML file "
 					+ filePath.toString());
 		}
-		Yaml yaml = new Yaml();
-		ArrayList<?> list = (ArrayList<?>) yaml.load(input);
+		try {
+			Yaml yaml = new Yaml();
+			list = (List<?>) yaml.load(input);
+		} finally {
+			// Close the files
+			try {
+				input.close();
+			} catch (IOException e) {
+				// Complain
+				logger.error(getClass().getName() + " Exception!",e);
+			}
+		}
 		if (debugFlag) {
 			logger.info("MOOSEFileHandler Message: File loaded.");
 		}
 
+		return list;
+	}
+
+	/**
+	 * This operation converts the block maps of a MOOSE YAML file into
+	 * TreeComposites and replaces the trees at the "hard" paths of the action
+	 * syntax file that have a list of types with AdaptiveTreeComposites.
+	 * 
+	 * @param list
+	 *            The block maps read by {@link #loadYAMLData(String)}.
+	 * @param hardPathsList
+	 *            The "hard" paths read by {@link #loadActionSyntax(String)}.
+	 * @return The MOOSE input file specification stored in TreeComposites, as
+	 *         described by {@link #loadYAML(String)}.
+	 */
+	ArrayList<TreeComposite> buildYAMLTrees(List<?> list,
+			List<String> hardPathsList) {
+
+		// Local Declarations
+		String treeName;
+		ArrayList<TreeComposite> trees = new ArrayList<TreeComposite>();
+		Map<String, TreeComposite> treeMap = null;
+		TreeComposite oneUpTree = null;
+
 		// Load the block list. Use YAMLBlocks so that they can be converted to
 		// TreeComposites appropriately.
 		for (int i = 0; i < list.size(); i++) {
@@ -390,14 +455,6 @@ public class MOOSEFileHandler implements IReader, IWriter {
 			trees.add(block.toTreeComposite());
 		}
 
-		// Close the files
-		try {
-			input.close();
-		} catch (IOException e) {
-			// Complain
-			logger.error(getClass().getName() + " Exception!",e);
-		}
-
 		// Put all the names of top-level nodes into a list (we use this later)
 		ArrayList<String> topLevelNodes = new ArrayList<String>();
 		for (TreeComposite node : trees) {
@@ -467,17 +524,6 @@ public class MOOSEFileHandler implements IReader, IWriter {
 			tree = treeStack.pop();
 		}
 
-		// Define the file path of the action syntax file
-		int yamlIndex = filePath.indexOf(".yaml");
-		syntaxFilePath = filePath.substring(0, yamlIndex) + ".syntax";
-
-		// Load the list of all "hard" paths from the action syntax file
-		try {
-			hardPathsList = loadActionSyntax(syntaxFilePath);
-		} catch (IOException e) {
-			logger.error(getClass().getName() + " Exception!",e);
-		}
-
 		// Begin looking through the TreeComposites for matches to the list of
 		// "hard" paths from the action syntax file
 		TreeComposite currTree;
@@ -0,0 +1,559 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.item.utilities.moose;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.ice.datastructures.form.TreeComposite;
+import org.eclipse.ice.item.nuclear.MOOSEModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * This class caches the input specification of MOOSE applications so that the
+ * application does not have to be run with --yaml and --syntax and the YAML
+ * does not have to be parsed every time a MOOSEModel is created for it.
+ * </p>
+ * <p>
+ * Specifications are keyed on the checksum and modification time of the
+ * executable ({@link #getKey(File)}). The first time an application is seen,
+ * its YAML and action syntax files are compiled into a compact binary file in
+ * the cache directory ({@link #compile(String, String, String)}). The binary
+ * file stores each distinct string once, so it is much smaller than the YAML
+ * and is read without a YAML parser.
+ * </p>
+ * <p>
+ * The tree built from a specification is only created on the first request
+ * for it and is then shared by every model that uses the same application in
+ * this session. The shared tree is read-only: it must be copied, e.g. with
+ * {@link TreeComposite#copy(TreeComposite)}, and never modified.
+ * </p>
+ *
+ */
+public class MOOSESyntaxCache {
+
+	/**
+	 * Logger for handling event messages and other information.
+	 */
+	private static final Logger logger = LoggerFactory
+			.getLogger(MOOSESyntaxCache.class);
+
+	/**
+	 * The first four bytes of a cache file, "ICES".
+	 */
+	private static final int MAGIC = 0x49434553;
+
+	/**
+	 * The version of the cache file format. Files with another version are
+	 * ignored and compiled again.
+	 */
+	private static final int VERSION = 1;
+
+	/**
+	 * The file extension of cache files.
+	 */
+	private static final String extension = ".syntaxcache";
+
+	/**
+	 * The tags that precede each value in a cache file.
+	 */
+	private static final int NULL = 0, STRING = 1, STRING_REF = 2, TRUE = 3,
+			FALSE = 4, INTEGER = 5, LONG = 6, DOUBLE = 7, LIST = 8, MAP = 9;
+
+	/**
+	 * The charset of the strings in a cache file.
+	 */
+	private static final Charset utf8 = Charset.forName("UTF-8");
+
+	/**
+	 * The shared, read-only trees of the specifications that have been loaded
+	 * in this session, keyed on the path of their cache file.
+	 */
+	private static final Map<String, TreeComposite> syntaxTrees = new HashMap<String, TreeComposite>();
+
+	/**
+	 * The keys of the executables that have been checked in this session,
+	 * keyed on their path, size and modification time. This keeps large
+	 * executables from being read for every model.
+	 */
+	private static final Map<String, String> executableKeys = new HashMap<String, String>();
+
+	/**
+	 * The directory that holds the cache files.
+	 */
+	private final File directory;
+
+	/**
+	 * The constructor.
+	 *
+	 * @param directory
+	 *            The directory that holds the cache files. It is created when
+	 *            the first file is compiled.
+	 */
+	public MOOSESyntaxCache(File directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * This operation returns the default cache directory, ICEFiles/MOOSESyntax
+	 * in the user's home directory.
+	 *
+	 * @return The default cache directory.
+	 */
+	public static File getDefaultDirectory() {
+		String separator = System.getProperty("file.separator");
+		return new File(System.getProperty("user.home") + separator
+				+ "ICEFiles" + separator + "MOOSESyntax");
+	}
+
+	/**
+	 * This operation computes the cache key of a MOOSE executable from the
+	 * SHA-1 checksum of its contents and its modification time. The checksum
+	 * is only computed once per session unless the executable changes.
+	 *
+	 * @param executable
+	 *            The MOOSE executable.
+	 * @return The key of the executable.
+	 * @throws IOException
+	 *             If the executable can not be read.
+	 */
+	public String getKey(File executable) throws IOException {
+
+		// Local Declarations
+		long modified = executable.lastModified();
+		String fileKey = executable.getAbsolutePath() + ":"
+				+ executable.length() + ":" + modified;
+		String key = null;
+		MessageDigest digest = null;
+		byte[] buffer = new byte[1 << 20];
+		int count;
+
+		// Check the executables that were already read
+		synchronized (executableKeys) {
+			key = executableKeys.get(fileKey);
+		}
+		if (key != null) {
+			return key;
+		}
+
+		// Compute the checksum
+		if (!executable.isFile()) {
+			throw new IOException("MOOSESyntaxCache Exception: "
+					+ executable.getPath() + " is not a file.");
+		}
+		try {
+			digest = MessageDigest.getInstance("SHA-1");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException(e);
+		}
+		InputStream input = new FileInputStream(executable);
+		try {
+			while ((count = input.read(buffer)) > 0) {
+				digest.update(buffer, 0, count);
+			}
+		} finally {
+			input.close();
+		}
+
+		// Create the key from the checksum and time
+		StringBuilder builder = new StringBuilder();
+		for (byte b : digest.digest()) {
+			builder.append(Character.forDigit((b >> 4) & 0xF, 16));
+			builder.append(Character.forDigit(b & 0xF, 16));
+		}
+		builder.append('-').append(Long.toHexString(modified));
+		key = builder.toString();
+
+		synchronized (executableKeys) {
+			executableKeys.put(fileKey, key);
+		}
+
+		return key;
+	}
+
+	/**
+	 * This operation returns the shared tree of the specification with the
+	 * given key. If it was not loaded in this session, it is read from its
+	 * cache file.
+	 *
+	 * @param key
+	 *            The key of the executable.
+	 * @return The read-only root of the specification, which has the id, name
+	 *         and description of the MOOSEModel input tree, or null if the
+	 *         specification is not in the cache.
+	 */
+	public TreeComposite getSyntaxTree(String key) {
+
+		// Local Declarations
+		TreeComposite tree = null;
+		File cacheFile = getCacheFile(key);
+
+		synchronized (syntaxTrees) {
+			tree = syntaxTrees.get(cacheFile.getAbsolutePath());
+			if (tree == null && cacheFile.isFile()) {
+				try {
+					tree = readCacheFile(key, cacheFile);
+				} catch (IOException e) {
+					logger.error(getClass().getName() + " Exception!", e);
+				}
+				if (tree != null) {
+					syntaxTrees.put(cacheFile.getAbsolutePath(), tree);
+				}
+			}
+		}
+
+		return tree;
+	}
+
+	/**
+	 * This operation compiles the YAML and action syntax files of a MOOSE
+	 * executable into a cache file and returns the shared tree of the
+	 * specification.
+	 *
+	 * @param key
+	 *            The key of the executable.
+	 * @param yamlFilePath
+	 *            The path of the YAML file created with --yaml.
+	 * @param syntaxFilePath
+	 *            The path of the action syntax file created with --syntax.
+	 * @return The read-only root of the specification, as described by
+	 *         {@link #getSyntaxTree(String)}.
+	 * @throws IOException
+	 *             If the files can not be read. A cache file that can not be
+	 *             written is only logged.
+	 */
+	public TreeComposite compile(String key, String yamlFilePath,
+			String syntaxFilePath) throws IOException {
+
+		// Local Declarations
+		MOOSEFileHandler handler = new MOOSEFileHandler();
+		List<?> data = handler.loadYAMLData(yamlFilePath);
+		List<String> hardPaths = handler.loadActionSyntax(syntaxFilePath);
+		File cacheFile = getCacheFile(key);
+		File tmpFile = new File(directory, key + extension + ".tmp");
+		TreeComposite tree = null;
+
+		// Write the cache file. It is renamed when it is complete so that a
+		// partial file is never read.
+		try {
+			if (!directory.isDirectory() && !directory.mkdirs()) {
+				throw new IOException("MOOSESyntaxCache Exception: "
+						+ "Could not create " + directory.getPath());
+			}
+			DataOutputStream output = new DataOutputStream(
+					new BufferedOutputStream(new FileOutputStream(tmpFile)));
+			try {
+				output.writeInt(MAGIC);
+				output.writeInt(VERSION);
+				output.writeUTF(key);
+				Map<String, Integer> strings = new HashMap<String, Integer>();
+				writeValue(output, data, strings);
+				writeValue(output, hardPaths, strings);
+			} finally {
+				output.close();
+			}
+			cacheFile.delete();
+			if (!tmpFile.renameTo(cacheFile)) {
+				throw new IOException("MOOSESyntaxCache Exception: "
+						+ "Could not write " + cacheFile.getPath());
+			}
+		} catch (IOException e) {
+			tmpFile.delete();
+			logger.error(getClass().getName() + " Exception!", e);
+		}
+
+		// Share the tree
+		tree = createSyntaxTree(data, hardPaths);
+		synchronized (syntaxTrees) {
+			syntaxTrees.put(cacheFile.getAbsolutePath(), tree);
+		}
+
+		return tree;
+	}
+
+	/**
+	 * This operation returns the cache file of a key.
+	 *
+	 * @param key
+	 *            The key of the executable.
+	 * @return The cache file, which may not exist.
+	 */
+	private File getCacheFile(String key) {
+		return new File(directory, key + extension);
+	}
+
+	/**
+	 * This operation builds the root tree of a specification.
+	 *
+	 * @param data
+	 *            The block maps of the YAML file.
+	 * @param hardPaths
+	 *            The "hard" paths of the action syntax file.
+	 * @return The root of the specification.
+	 */
+	private TreeComposite createSyntaxTree(List<?> data, List<String> hardPaths) {
+
+		// Local Declarations
+		TreeComposite root = new TreeComposite();
+		MOOSEFileHandler handler = new MOOSEFileHandler();
+
+		for (TreeComposite block : handler.buildYAMLTrees(data, hardPaths)) {
+			root.setNextChild(block);
+		}
+
+		// Set the Identifiable data the same way MOOSEFileHandler.read() does
+		root.setId(MOOSEModel.mooseTreeCompositeId);
+		root.setDescription("The tree of input data for this problem.");
+		root.setName("Input Data");
+
+		return root;
+	}
+
+	/**
+	 * This operation reads a cache file and builds the root tree of its
+	 * specification.
+	 *
+	 * @param key
+	 *            The key of the executable.
+	 * @param cacheFile
+	 *            The cache file.
+	 * @return The root of the specification, or null if the file is from an
+	 *         older version or for another key.
+	 * @throws IOException
+	 */
+	private TreeComposite readCacheFile(String key, File cacheFile)
+			throws IOException {
+
+		// Local Declarations
+		List<?> data = null;
+		List<String> hardPaths = new ArrayList<String>();
+		DataInputStream input = new DataInputStream(new BufferedInputStream(
+				new FileInputStream(cacheFile)));
+
+		try {
+			if (input.readInt() != MAGIC || input.readInt() != VERSION
+					|| !key.equals(input.readUTF())) {
+				logger.info("MOOSESyntaxCache Message: Ignoring outdated "
+						+ "cache file " + cacheFile.getPath());
+				return null;
+			}
+			List<String> strings = new ArrayList<String>();
+			data = (List<?>) readValue(input, strings);
+			// Check the type of each hard path
+			for (Object path : (List<?>) readValue(input, strings)) {
+				hardPaths.add((String) path);
+			}
+		} catch (ClassCastException e) {
+			throw new IOException("MOOSESyntaxCache Exception: "
+					+ cacheFile.getPath() + " is corrupt.", e);
+		} finally {
+			input.close();
+		}
+
+		return createSyntaxTree(data, hardPaths);
+	}
+
+	/**
+	 * This operation writes one value of the YAML data. Strings are written
+	 * the first time they are seen and referred to by their index after that.
+	 * Types that are not listed in the tags are written as strings.
+	 *
+	 * @param output
+	 *            The stream to write.
+	 * @param value
+	 *            The value.
+	 * @param strings
+	 *            The indices of the strings that have been written.
+	 * @throws IOException
+	 */
+	private static void writeValue(DataOutputStream output, Object value,
+			Map<String, Integer> strings) throws IOException {
+
+		if (value == null) {
+			output.writeByte(NULL);
+		} else if (value instanceof Boolean) {
+			output.writeByte((Boolean) value ? TRUE : FALSE);
+		} else if (value instanceof Integer) {
+			output.writeByte(INTEGER);
+			output.writeInt((Integer) value);
+		} else if (value instanceof Long) {
+			output.writeByte(LONG);
+			output.writeLong((Long) value);
+		} else if (value instanceof Double) {
+			output.writeByte(DOUBLE);
+			output.writeDouble((Double) value);
+		} else if (value instanceof List) {
+			List<?> list = (List<?>) value;
+			output.writeByte(LIST);
+			writeSize(output, list.size());
+			for (Object element : list) {
+				writeValue(output, element, strings);
+			}
+		} else if (value instanceof Map) {
+			Map<?, ?> map = (Map<?, ?>) value;
+			output.writeByte(MAP);
+			writeSize(output, map.size());
+			for (Map.Entry<?, ?> entry : map.entrySet()) {
+				writeValue(output, entry.getKey(), strings);
+				writeValue(output, entry.getValue(), strings);
+			}
+		} else {
+			String string = value.toString();
+			Integer index = strings.get(string);
+			if (index != null) {
+				output.writeByte(STRING_REF);
+				writeSize(output, index);
+			} else {
+				byte[] bytes = string.getBytes(utf8);
+				output.writeByte(STRING);
+				writeSize(output, bytes.length);
+				output.write(bytes);
+				strings.put(string, strings.size());
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation reads one value written by
+	 * {@link #writeValue(DataOutputStream, Object, Map)}. Equal strings are
+	 * read as the same instance.
+	 *
+	 * @param input
+	 *            The stream to read.
+	 * @param strings
+	 *            The strings that have been read, in order.
+	 * @return The value.
+	 * @throws IOException
+	 */
+	private static Object readValue(DataInputStream input, List<String> strings)
+			throws IOException {
+
+		// Local Declarations
+		Object value = null;
+		int tag = input.readUnsignedByte();
+		int size;
+
+		switch (tag) {
+		case NULL:
+			break;
+		case STRING:
+			byte[] bytes = new byte[readSize(input)];
+			input.readFully(bytes);
+			value = new String(bytes, utf8);
+			strings.add((String) value);
+			break;
+		case STRING_REF:
+			value = strings.get(readSize(input));
+			break;
+		case TRUE:
+			value = Boolean.TRUE;
+			break;
+		case FALSE:
+			value = Boolean.FALSE;
+			break;
+		case INTEGER:
+			value = input.readInt();
+			break;
+		case LONG:
+			value = input.readLong();
+			break;
+		case DOUBLE:
+			value = input.readDouble();
+			break;
+		case LIST:
+			size = readSize(input);
+			ArrayList<Object> list = new ArrayList<Object>(size);
+			for (int i = 0; i < size; i++) {
+				list.add(readValue(input, strings));
+			}
+			value = list;
+			break;
+		case MAP:
+			size = readSize(input);
+			Map<Object, Object> map = new LinkedHashMap<Object, Object>(
+					size * 4 / 3 + 1);
+			for (int i = 0; i < size; i++) {
+				Object mapKey = readValue(input, strings);
+				map.put(mapKey, readValue(input, strings));
+			}
+			value = map;
+			break;
+		default:
+			throw new IOException("MOOSESyntaxCache Exception: "
+					+ "Unknown tag " + tag + " in cache file.");
+		}
+
+		return value;
+	}
+
+	/**
+	 * This operation writes a size or index with seven bits per byte, so that
+	 * small numbers take one byte.
+	 *
+	 * @param output
+	 *            The stream to write.
+	 * @param size
+	 *            The non-negative size.
+	 * @throws IOException
+	 */
+	private static void writeSize(DataOutputStream output, int size)
+			throws IOException {
+		while ((size & ~0x7F) != 0) {
+			output.writeByte((size & 0x7F) | 0x80);
+			size >>>= 7;
+		}
+		output.writeByte(size);
+	}
+
+	/**
+	 * This operation reads a size or index written by
+	 * {@link #writeSize(DataOutputStream, int)}.
+	 *
+	 * @param input
+	 *            The stream to read.
+	 * @return The size.
+	 * @throws IOException
+	 */
+	private static int readSize(DataInputStream input) throws IOException {
+
+		// Local Declarations
+		int size = 0, shift = 0, b;
+
+		do {
+			b = input.readUnsignedByte();
+			size |= (b & 0x7F) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0 && shift < 32);
+
+		return size;
+	}
+}
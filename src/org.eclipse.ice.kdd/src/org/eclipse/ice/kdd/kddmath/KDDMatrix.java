@@ -13,6 +13,7 @@
 package org.eclipse.ice.kdd.kddmath;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import org.eclipse.ice.analysistool.IData;
 import org.eclipse.ice.analysistool.IDataProvider;
@@ -31,6 +32,13 @@ import org.slf4j.LoggerFactory;
  * methods for matrix arithmetic, transposition, normalizing rows and columns,
  * and scaling by an uncertainty matrix.
  * </p>
+ * <p>
+ * The elements are stored in one contiguous, row major array of primitive
+ * doubles so that the arithmetic kernels run over flat arrays without boxing.
+ * Large computations should use the primitive accessors get(), set() and
+ * getElements() instead of getElement() and setElement(), which box their
+ * values to satisfy IAbstractMatrix.
+ * </p>
  * 
  * @author Alex McCaskey
  */
@@ -44,12 +52,21 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 
 	/**
 	 * <p>
-	 * The individual elements of this matrix. This is a list of n*m double
-	 * values for a given matrix of size nxm.
+	 * The individual elements of this matrix in row major order. The first
+	 * n*m values are the elements of a matrix of size nxm. The array may be
+	 * longer than that so that rows can be added without copying it each
+	 * time.
 	 * </p>
 	 * 
 	 */
-	protected ArrayList<Double> elements;
+	protected double[] elements;
+
+	/**
+	 * The size of the blocks used by the transpose kernel. Copying one block
+	 * at a time keeps both the rows being read and the rows being written in
+	 * the cache.
+	 */
+	private static final int transposeBlockSize = 32;
 
 	/**
 	 * <p>
@@ -86,7 +103,7 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	public KDDMatrix(IDataProvider data) throws IllegalArgumentException {
 
 		// Initialize the elements array
-		elements = new ArrayList<Double>();
+		elements = new double[0];
 
 		// Initialize the number of rows and columns
 		nCols = 0;
@@ -121,11 +138,20 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 			return false;
 		}
 
+		// Subtract the arrays directly if possible
+		if (matToSubtract instanceof KDDMatrix) {
+			double[] other = ((KDDMatrix) matToSubtract).elements;
+			int size = nRows * nCols;
+			for (int i = 0; i < size; i++) {
+				elements[i] -= other[i];
+			}
+			return true;
+		}
+
 		// Perform the subtraction
 		for (int i = 0; i < nRows; i++) {
 			for (int j = 0; j < nCols; j++) {
-				setElement(i, j,
-						getElement(i, j) - matToSubtract.getElement(i, j));
+				elements[nCols * i + j] -= matToSubtract.getElement(i, j);
 			}
 		}
 
@@ -147,10 +173,20 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 			return false;
 		}
 
+		// Add the arrays directly if possible
+		if (matToAdd instanceof KDDMatrix) {
+			double[] other = ((KDDMatrix) matToAdd).elements;
+			int size = nRows * nCols;
+			for (int i = 0; i < size; i++) {
+				elements[i] += other[i];
+			}
+			return true;
+		}
+
 		// Perform the addition
 		for (int i = 0; i < nRows; i++) {
 			for (int j = 0; j < nCols; j++) {
-				setElement(i, j, getElement(i, j) + matToAdd.getElement(i, j));
+				elements[nCols * i + j] += matToAdd.getElement(i, j);
 			}
 		}
 
@@ -167,29 +203,19 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 */
 	public void rowNormalize() {
 
-		// Local ArrayList to collect all row sums
-		ArrayList<Double> rowSums = new ArrayList<Double>();
-
-		// Initialize one rowSum to 0.0
-		Double rowSum = 0.0;
+		// Local Declarations
+		double rowSum = 0.0;
+		int offset = 0;
 
-		// Calculate the sum of each row, then add it to the
-		// array list
+		// Sum each row and then divide the elements of that row by its sum
 		for (int i = 0; i < nRows; i++) {
+			offset = nCols * i;
+			rowSum = 0.0;
 			for (int j = 0; j < nCols; j++) {
-				rowSum = rowSum + getElement(i, j);
+				rowSum += elements[offset + j];
 			}
-			// Add the sum to the list
-			rowSums.add(rowSum);
-			// Reset the sum
-			rowSum = 0.0;
-		}
-
-		// Now go through each element and divide it
-		// by its row sum
-		for (int i = 0; i < nRows; i++) {
 			for (int j = 0; j < nCols; j++) {
-				setElement(i, j, getElement(i, j) / rowSums.get(i));
+				elements[offset + j] /= rowSum;
 			}
 		}
 
@@ -204,7 +230,29 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 * 
 	 */
 	public void columnNormalize() {
-		// FIXME coming soon to a theater near you
+
+		// Local Declarations
+		double[] columnSums = new double[nCols];
+		int offset = 0;
+
+		// Accumulate the column sums one row at a time so that the array is
+		// read in order
+		for (int i = 0; i < nRows; i++) {
+			offset = nCols * i;
+			for (int j = 0; j < nCols; j++) {
+				columnSums[j] += elements[offset + j];
+			}
+		}
+
+		// Divide each element by its column sum
+		for (int i = 0; i < nRows; i++) {
+			offset = nCols * i;
+			for (int j = 0; j < nCols; j++) {
+				elements[offset + j] /= columnSums[j];
+			}
+		}
+
+		return;
 	}
 
 	/**
@@ -225,11 +273,10 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 
 		// Divide each element by the corresponding
 		// uncertainty element
-		for (int i = 0; i < nRows; i++) {
-			for (int j = 0; j < nCols; j++) {
-				setElement(i, j,
-						getElement(i, j) / uncertainty.getElement(i, j));
-			}
+		double[] other = uncertainty.elements;
+		int size = nRows * nCols;
+		for (int i = 0; i < size; i++) {
+			elements[i] /= other[i];
 		}
 
 		return true;
@@ -258,7 +305,64 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 			return null;
 		}
 
-		return elements.get(nCols * rowIndex + colIndex);
+		return elements[nCols * rowIndex + colIndex];
+	}
+
+	/**
+	 * <p>
+	 * Get the element value at the given row and column index without boxing
+	 * it. The indices are not checked beyond the bounds of the array, so this
+	 * should only be used with valid indices.
+	 * </p>
+	 * 
+	 * @param rowIndex
+	 * @param colIndex
+	 * @return
+	 */
+	public double get(int rowIndex, int colIndex) {
+		return elements[nCols * rowIndex + colIndex];
+	}
+
+	/**
+	 * <p>
+	 * Set the element value at the given row and column index without boxing
+	 * it. The indices are not checked beyond the bounds of the array, so this
+	 * should only be used with valid indices.
+	 * </p>
+	 * 
+	 * @param rowIndex
+	 * @param colIndex
+	 * @param value
+	 */
+	public void set(int rowIndex, int colIndex, double value) {
+		elements[nCols * rowIndex + colIndex] = value;
+	}
+
+	/**
+	 * <p>
+	 * Return the row major array that backs this matrix. The element at row i
+	 * and column j is at index i * numberOfColumns() + j. The array may be
+	 * longer than numberOfRows() * numberOfColumns(). Changes to the array
+	 * change this matrix.
+	 * </p>
+	 * 
+	 * @return
+	 */
+	public double[] getElements() {
+		return elements;
+	}
+
+	/**
+	 * <p>
+	 * Copy the row at the given index into the given array, which must hold
+	 * at least numberOfColumns() values.
+	 * </p>
+	 * 
+	 * @param index
+	 * @param row
+	 */
+	public void getRow(int index, double[] row) {
+		System.arraycopy(elements, nCols * index, row, 0, nCols);
 	}
 
 	/**
@@ -289,7 +393,7 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 		}
 
 		// Set the value
-		elements.set(nCols * rowIndex + colIndex, value);
+		elements[nCols * rowIndex + colIndex] = value;
 
 		return true;
 	}
@@ -332,40 +436,40 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 		int oldNRows = nRows;
 		int oldNCols = nCols;
 
-		// Easy bc they are just vectors
-		if (nRows == 1 || nCols == 1) {
-			// Just switch them
-			nRows = oldNCols;
-			nCols = oldNRows;
-		} else {
-
-			// This method assumes that the IDataProvider
-			// has already been validated, since the KDDMatrix wouldn't
-			// have been constructed otherwise.
-
-			// Get the IData elements
-			ArrayList<IData> dataElements = dataProvider
-					.getDataAtCurrentTime("Data");
-
-			// Transpose swaps the number of rows and cols
-			nRows = oldNCols;
-			nCols = oldNRows;
-
-			KDDMatrix oldMatrix = new KDDMatrix(
-					(ArrayList<Double>) elements.clone(), oldNRows, oldNCols);
-
-			elements.clear();
-			for (int i = 0; i < nRows * nCols; i++) {
-				elements.add(0.0);
-			}
-
+		// Square matrices can swap their elements in place
+		if (nRows == nCols) {
+			double temp = 0.0;
 			for (int i = 0; i < nRows; i++) {
-				for (int j = 0; j < nCols; j++) {
-					setElement(i, j, oldMatrix.getElement(j, i));
+				for (int j = i + 1; j < nCols; j++) {
+					temp = elements[nCols * i + j];
+					elements[nCols * i + j] = elements[nCols * j + i];
+					elements[nCols * j + i] = temp;
 				}
 			}
-
+		} else if (nRows != 1 && nCols != 1) {
+			// Copy the old matrix into a new array one block at a time.
+			// Vectors are easy because only the sizes need to be switched.
+			double[] transposed = new double[Math.max(elements.length,
+					nRows * nCols)];
+			for (int i = 0; i < oldNRows; i += transposeBlockSize) {
+				int rowEnd = Math.min(i + transposeBlockSize, oldNRows);
+				for (int j = 0; j < oldNCols; j += transposeBlockSize) {
+					int colEnd = Math.min(j + transposeBlockSize, oldNCols);
+					for (int row = i; row < rowEnd; row++) {
+						for (int col = j; col < colEnd; col++) {
+							transposed[oldNRows * col + row] = elements[oldNCols
+									* row + col];
+						}
+					}
+				}
+			}
+			elements = transposed;
 		}
+
+		// Transpose swaps the number of rows and cols
+		nRows = oldNCols;
+		nCols = oldNRows;
+
 		return;
 	}
 
@@ -378,7 +482,7 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 * 
 	 */
 	public KDDMatrix() {
-		elements = new ArrayList<Double>();
+		elements = new double[0];
 		nRows = 0;
 		nCols = 0;
 	}
@@ -412,10 +516,15 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 * @return
 	 */
 	public int addRow() {
-		// Add for the number of columns
-		for (int i = 0; i < nCols; i++) {
-			elements.add(0.0);
+		// Make room for the new row. The array grows by half of its size at
+		// a time so that adding many rows does not copy it every time.
+		int size = nRows * nCols;
+		if (size + nCols > elements.length) {
+			elements = Arrays.copyOf(elements,
+					Math.max(size + nCols, size + size / 2));
 		}
+		// Zero the new row
+		Arrays.fill(elements, size, size + nCols, 0.0);
 		// Add to the row
 		nRows += 1;
 		return nRows;
@@ -430,10 +539,13 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 * @return
 	 */
 	public int addColumn() {
-		// Add for the number of rows
+		// Copy the rows into a wider array, which leaves the new column zeroed
+		double[] newElements = new double[nRows * (nCols + 1)];
 		for (int i = 0; i < nRows; i++) {
-			elements.add(((i + 1) * nCols) + i, 0.0);
+			System.arraycopy(elements, nCols * i, newElements, (nCols + 1) * i,
+					nCols);
 		}
+		elements = newElements;
 		// Add to the cols
 		nCols += 1;
 
@@ -450,9 +562,9 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 */
 	@Override
 	public boolean deleteRow() {
-		// Remove for the number of columns
-		for (int i = 0; i < nCols; i++) {
-			elements.remove(elements.size() - 1);
+		// Rows are only removed from the end, so the array can be left as is
+		if (nRows == 0) {
+			return false;
 		}
 		// Remove a row
 		nRows -= 1;
@@ -469,9 +581,13 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 */
 	@Override
 	public boolean deleteColumn() {
-		// Remove for the number of rows
-		for (int i = 0; i < nRows; i++) {
-			elements.remove(((i + 1) * nCols) - i - 1);
+		// Shift the rows down over the last column
+		if (nCols == 0) {
+			return false;
+		}
+		for (int i = 1; i < nRows; i++) {
+			System.arraycopy(elements, nCols * i, elements, (nCols - 1) * i,
+					nCols - 1);
 		}
 		// Remove a Column
 		nCols -= 1;
@@ -549,8 +665,9 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 					"Invalid number of data elements. Must have nRows * nCols data elements.");
 		}
 		// Add the elements
+		elements = new double[nRows * nCols];
 		for (int i = 0; i < nRows * nCols; i++) {
-			elements.add(dataElements.get(i).getValue());
+			elements[i] = dataElements.get(i).getValue();
 		}
 
 		return;
@@ -578,14 +695,14 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 * @return
 	 */
 	public KDDMatrix getRow(int index) {
-		KDDMatrix retVector = new KDDMatrix(1, nCols);
-		for (int i = 0; i < nCols; i++) {
-			if (!retVector.setElement(0, i, getElement(index, i))) {
-				logger.info("THIS WQAS FALSE");
-				return null;
-			}
+		// Return null if the index is invalid
+		if (index < 0 || index >= nRows) {
+			return null;
 		}
 
+		KDDMatrix retVector = new KDDMatrix(1, nCols);
+		getRow(index, retVector.elements);
+
 		return retVector;
 	}
 
@@ -616,10 +733,7 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	public KDDMatrix(int nRows, int nCols) {
 		this.nRows = nRows;
 		this.nCols = nCols;
-		elements = new ArrayList<Double>();
-		for (int i = 0; i < this.nRows * this.nCols; i++) {
-			elements.add(0.0);
-		}
+		elements = new double[nRows * nCols];
 	}
 
 	/**
@@ -644,12 +758,12 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 					|| otherMatrix.numberOfRows() != nRows) {
 				retVal = false;
 			}
-			// Then make sure all the elements are the same
-			for (int i = 0; i < nRows; i++) {
-				for (int j = 0; j < nCols; j++) {
-					if (!otherMatrix.getElement(i, j).equals(getElement(i, j))) {
-						retVal = false;
-					}
+			// Then make sure all the elements are the same. Double.compare
+			// matches the Double.equals() comparison used before.
+			int size = nRows * nCols;
+			for (int i = 0; retVal && i < size; i++) {
+				if (Double.compare(otherMatrix.elements[i], elements[i]) != 0) {
+					retVal = false;
 				}
 			}
 		}
@@ -676,8 +790,13 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 		// Compute the hashcode
 		hash = 31 * hash + this.nCols;
 		hash = 31 * hash + this.nRows;
-		hash = 31 * hash + this.elements.hashCode();
-		hash = 31 * hash + this.dataProvider.hashCode();
+		for (int i = 0; i < nRows * nCols; i++) {
+			long bits = Double.doubleToLongBits(elements[i]);
+			hash = 31 * hash + (int) (bits ^ (bits >>> 32));
+		}
+		if (this.dataProvider != null) {
+			hash = 31 * hash + this.dataProvider.hashCode();
+		}
 
 		// Done, return
 		return hash;
@@ -693,6 +812,25 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 * @param nCols
 	 */
 	public KDDMatrix(ArrayList<Double> elements, int nRows, int nCols) {
+		this.nRows = nRows;
+		this.nCols = nCols;
+		this.elements = new double[elements.size()];
+		for (int i = 0; i < this.elements.length; i++) {
+			this.elements[i] = elements.get(i);
+		}
+	}
+
+	/**
+	 * <p>
+	 * The Constructor. The array is used as the row major backing array of
+	 * the matrix and is not copied.
+	 * </p>
+	 * 
+	 * @param elements
+	 * @param nRows
+	 * @param nCols
+	 */
+	public KDDMatrix(double[] elements, int nRows, int nCols) {
 		this.nRows = nRows;
 		this.nCols = nCols;
 		this.elements = elements;
@@ -714,11 +852,7 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	}
 
 	public void zeroMatrix() {
-		for (int i = 0; i < nRows; i++) {
-			for (int j = 0; j < nCols; j++) {
-				setElement(i, j, 0.0);
-			}
-		}
+		Arrays.fill(elements, 0, nRows * nCols, 0.0);
 	}
 
 	public void printMatrix() {
@@ -15,7 +15,10 @@ package org.eclipse.ice.kdd.kddstrategy.kmeansclustering;
 import java.io.ByteArrayInputStream;
 import java.net.URI;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
@@ -56,6 +59,34 @@ public class ClusterKDDMatrix extends KDDMatrix {
 	 */
 	protected ArrayList<Cluster> clusters;
 
+	/**
+	 * The default seed used to pick the initial centroids.
+	 */
+	public static final long DEFAULT_SEED = 42L;
+
+	/**
+	 * The seed used to pick the initial centroids.
+	 */
+	private long seed = DEFAULT_SEED;
+
+	/**
+	 * The index of the cluster of each row after the last call to cluster(),
+	 * or null if it has not been called.
+	 */
+	private int[] assignments;
+
+	/**
+	 * The largest number of rows that one task assigns to clusters before the
+	 * rows are split between two tasks.
+	 */
+	private static final int maxRowsPerTask = 4096;
+
+	/**
+	 * The pool that runs the clustering tasks for all of the matrices. Its
+	 * threads are daemons, so it never needs to be shut down.
+	 */
+	private static final ForkJoinPool pool = new ForkJoinPool();
+
 	/**
 	 * <p>
 	 * The constructor, takes a valid set of IData and constructs this matrix.
@@ -103,6 +134,14 @@ public class ClusterKDDMatrix extends KDDMatrix {
 	 * N. It takes as argument the number of cluster centroids to produce, as
 	 * well as the number of iterations to use in refining the clusters.
 	 * </p>
+	 * <p>
+	 * The initial centroids are picked from the rows with the k-means++
+	 * method using the seed of this matrix, so the same data, seed and
+	 * arguments always produce the same clusters. Each iteration assigns the
+	 * rows to their closest centroid and sums the rows of each cluster in
+	 * parallel over blocks of rows. The iterations stop early if no row
+	 * changes its cluster.
+	 * </p>
 	 * 
 	 * @param nClusters
 	 * @param nIterations
@@ -110,73 +149,60 @@ public class ClusterKDDMatrix extends KDDMatrix {
 	public void cluster(int nClusters, int nIterations) {
 
 		// Local Declarations
-		ArrayList<KDDMatrix> centroids = new ArrayList<KDDMatrix>();
-		ArrayList<Double> distances = new ArrayList<Double>();
-		KDDMatrix vector = null;
-		Double minDistance = 0.0;
+		double[] centroids = null;
+		Partition partition = null;
+		int iteration = 0;
 
 		// Clear any old clusters from a previous run
 		clusters.clear();
+		if (nClusters <= 0 || nRows == 0) {
+			return;
+		}
 
-		// Create nClusters clusters, and calculate
-		// a set of random means
+		// Create nClusters clusters and pick their starting means
 		for (int i = 0; i < nClusters; i++) {
-			// Create the cluster
-			Cluster c = new Cluster(i);
-			clusters.add(c);
-
-			// Add the random center of mass vector to
-			// the centroids list
-			centroids.add(c.getRandomClusterMean(nCols, getMinMatrixElement(),
-					getMaxMatrixElement()));
+			clusters.add(new Cluster(i));
 		}
+		centroids = getInitialCentroids(nClusters);
+
+		// Mark every row as unassigned so that the first pass counts them all
+		// as changed
+		assignments = new int[nRows];
+		Arrays.fill(assignments, -1);
 
 		// Loop over the specified number of iterations
 		// to refine the data clustering
-		for (int i = 0; i < nIterations; i++) {
-			// Clear the cluster data from the previous iteration
-			for (Cluster c : clusters) {
-				c.clearData();
-			}
-
-			// For each row vector we need to calculate its
-			// distance to each centroid
-			for (int j = 0; j < numberOfRows(); j++) {
-				// Get the jth row vector from this matrix
-				vector = getRow(j);
-
-				// Transpose it so we only work with
-				// column vectors
-				vector.transpose();
-
-				// Get a list of the distances from this row vector
-				// to this centroid
-				for (int k = 0; k < nClusters; k++) {
-					// Add the distance between the jth row vector and
-					// the kth centroid to the list of distances
-					distances.add(distanceMeasure.getDistance(centroids.get(k),
-							vector));
+		while (iteration < nIterations) {
+			// Assign each row to its closest centroid and sum the clusters
+			partition = pool.invoke(new AssignTask(this, centroids, nClusters,
+					0, nRows));
+			iteration++;
+
+			// Now we can calculate more accurate cluster centroids for the
+			// next iteration. Empty clusters keep their old centroid.
+			for (int k = 0; k < nClusters; k++) {
+				if (partition.counts[k] > 0) {
+					for (int j = 0; j < nCols; j++) {
+						centroids[nCols * k + j] = partition.sums[nCols * k + j]
+								/ partition.counts[k];
+					}
 				}
-
-				// Get the minimum distance
-				minDistance = Collections.min(distances);
-
-				// Find the index of the minDistance, which is also the index
-				// of the correct centroid to add this vector to
-				clusters.get(distances.indexOf(minDistance)).addVector(vector);
-
-				// Clear the distances array
-				distances.clear();
 			}
 
-			// Now we can calculate more accurate
-			// cluster centroids for the next iteration
-			centroids.clear();
-			for (Cluster c : clusters) {
-				centroids.add(c.getClusterMean(nCols));
+			// Stop if the clusters did not change
+			if (partition.changed == 0) {
+				break;
 			}
 		}
 
+		// Fill the clusters with the vectors of their rows
+		for (int i = 0; i < nRows && iteration > 0; i++) {
+			double[] vector = new double[nCols];
+			getRow(i, vector);
+			clusters.get(assignments[i]).addVector(
+					new KDDMatrix(vector, nCols, 1));
+		}
+
 		// Debug
 		for (Cluster c : clusters) {
 			logger.info("\n[ICE KDD] Cluster "
@@ -184,7 +210,7 @@ public class ClusterKDDMatrix extends KDDMatrix {
 							+ " has "
 							+ c.numberOfElements()
 							+ " data elements after \n\tKMeans clustering algorithm with "
-							+ nIterations + " iterations.");
+							+ iteration + " iterations.");
 		}
 
 		return;
@@ -192,24 +218,315 @@ public class ClusterKDDMatrix extends KDDMatrix {
 
 	/**
 	 * <p>
-	 * Return the largest element in this matrix.
+	 * Set the seed used to pick the initial centroids. The default is
+	 * DEFAULT_SEED.
+	 * </p>
+	 * 
+	 * @param seed
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * <p>
+	 * Return the seed used to pick the initial centroids.
 	 * </p>
 	 * 
 	 * @return
 	 */
-	private Double getMaxMatrixElement() {
-		return Collections.max(elements);
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * <p>
+	 * Return the index of the cluster that each row was assigned to by the
+	 * last call to cluster(), or null if the matrix has not been clustered.
+	 * </p>
+	 * 
+	 * @return
+	 */
+	public int[] getClusterAssignments() {
+		return (assignments != null) ? assignments.clone() : null;
+	}
+
+	/**
+	 * <p>
+	 * Pick the initial centroids from the rows of this matrix with the
+	 * k-means++ method. The first centroid is a random row and each of the
+	 * others is a row picked with a probability proportional to its squared
+	 * distance from the closest centroid that was already picked.
+	 * </p>
+	 * 
+	 * @param nClusters
+	 * @return The centroids, nClusters rows of nCols values in row major
+	 *         order.
+	 */
+	private double[] getInitialCentroids(int nClusters) {
+
+		// Local Declarations
+		Random random = new Random(seed);
+		double[] centroids = new double[nClusters * nCols];
+		double[] minDistances = new double[nRows];
+		double total = 0.0, target = 0.0, distance = 0.0;
+		int row = random.nextInt(nRows);
+
+		// Start with a random row
+		System.arraycopy(elements, nCols * row, centroids, 0, nCols);
+		for (int i = 0; i < nRows; i++) {
+			minDistances[i] = getSquaredDistance(elements, nCols * i,
+					centroids, 0, nCols);
+		}
+
+		// Pick the rest of the centroids
+		for (int k = 1; k < nClusters; k++) {
+			// Sum the distances and pick a row by walking to a random
+			// fraction of the total
+			total = 0.0;
+			for (int i = 0; i < nRows; i++) {
+				total += minDistances[i];
+			}
+			target = random.nextDouble() * total;
+			row = nRows - 1;
+			for (int i = 0; i < nRows; i++) {
+				target -= minDistances[i];
+				if (target < 0.0) {
+					row = i;
+					break;
+				}
+			}
+			System.arraycopy(elements, nCols * row, centroids, nCols * k,
+					nCols);
+
+			// Update the distances to the closest centroid
+			for (int i = 0; i < nRows; i++) {
+				distance = getSquaredDistance(elements, nCols * i, centroids,
+						nCols * k, nCols);
+				if (distance < minDistances[i]) {
+					minDistances[i] = distance;
+				}
+			}
+		}
+
+		return centroids;
 	}
 
 	/**
 	 * <p>
-	 * Return the smallest element in this matrix
+	 * Return the squared Euclidean distance between two vectors stored in
+	 * arrays.
 	 * </p>
 	 * 
+	 * @param vector1
+	 * @param offset1
+	 * @param vector2
+	 * @param offset2
+	 * @param length
 	 * @return
 	 */
-	private Double getMinMatrixElement() {
-		return Collections.min(elements);
+	private static double getSquaredDistance(double[] vector1, int offset1,
+			double[] vector2, int offset2, int length) {
+		double sum = 0.0, difference = 0.0;
+		for (int i = 0; i < length; i++) {
+			difference = vector1[offset1 + i] - vector2[offset2 + i];
+			sum += difference * difference;
+		}
+		return sum;
+	}
+
+	/**
+	 * <p>
+	 * The cluster sums of a block of rows: the sum of the rows in each
+	 * cluster, the number of rows in each cluster and the number of rows
+	 * whose cluster changed.
+	 * </p>
+	 */
+	private static class Partition {
+
+		/**
+		 * The sums of the rows in each cluster, in row major order.
+		 */
+		private final double[] sums;
+
+		/**
+		 * The number of rows in each cluster.
+		 */
+		private final int[] counts;
+
+		/**
+		 * The number of rows that were moved to a different cluster.
+		 */
+		private int changed;
+
+		/**
+		 * The Constructor
+		 * 
+		 * @param nClusters
+		 * @param nCols
+		 */
+		private Partition(int nClusters, int nCols) {
+			sums = new double[nClusters * nCols];
+			counts = new int[nClusters];
+			changed = 0;
+		}
+
+		/**
+		 * Add the sums of another block of rows to this one.
+		 * 
+		 * @param other
+		 */
+		private void add(Partition other) {
+			for (int i = 0; i < sums.length; i++) {
+				sums[i] += other.sums[i];
+			}
+			for (int i = 0; i < counts.length; i++) {
+				counts[i] += other.counts[i];
+			}
+			changed += other.changed;
+		}
+	}
+
+	/**
+	 * <p>
+	 * The fork/join task that assigns a block of rows to their closest
+	 * centroids. Blocks that are too big are split in half. The halves are
+	 * always split and added in the same order, so the sums do not depend on
+	 * the number of threads.
+	 * </p>
+	 */
+	private static class AssignTask extends RecursiveTask<Partition> {
+
+		/**
+		 * The version UID for serialization.
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The matrix being clustered.
+		 */
+		private final ClusterKDDMatrix matrix;
+
+		/**
+		 * The centroids in row major order.
+		 */
+		private final double[] centroids;
+
+		/**
+		 * The number of centroids.
+		 */
+		private final int nClusters;
+
+		/**
+		 * The first row of the block.
+		 */
+		private final int start;
+
+		/**
+		 * The row after the last row of the block.
+		 */
+		private final int end;
+
+		/**
+		 * The Constructor
+		 * 
+		 * @param matrix
+		 * @param centroids
+		 * @param nClusters
+		 * @param start
+		 * @param end
+		 */
+		private AssignTask(ClusterKDDMatrix matrix, double[] centroids,
+				int nClusters, int start, int end) {
+			this.matrix = matrix;
+			this.centroids = centroids;
+			this.nClusters = nClusters;
+			this.start = start;
+			this.end = end;
+		}
+
+		/*
+		 * Implements a method from RecursiveTask.
+		 */
+		@Override
+		protected Partition compute() {
+
+			// Split big blocks in half
+			if (end - start > maxRowsPerTask) {
+				int middle = (start + end) >>> 1;
+				AssignTask left = new AssignTask(matrix, centroids, nClusters,
+						start, middle);
+				AssignTask right = new AssignTask(matrix, centroids,
+						nClusters, middle, end);
+				left.fork();
+				Partition rightPartition = right.compute();
+				Partition leftPartition = left.join();
+				leftPartition.add(rightPartition);
+				return leftPartition;
+			}
+
+			// Local Declarations
+			int nCols = matrix.nCols;
+			double[] elements = matrix.elements;
+			int[] assignments = matrix.assignments;
+			DistanceMeasure measure = matrix.distanceMeasure;
+			boolean isEuclidean = measure instanceof EuclideanDistanceMeasure;
+			KDDMatrix[] centroidVectors = null;
+			Partition partition = new Partition(nClusters, nCols);
+			double minDistance = 0.0, distance = 0.0;
+			int closest = 0, offset = 0;
+
+			// Other distance measures need the centroids as vectors
+			if (!isEuclidean) {
+				centroidVectors = new KDDMatrix[nClusters];
+				for (int k = 0; k < nClusters; k++) {
+					centroidVectors[k] = new KDDMatrix(Arrays.copyOfRange(
+							centroids, nCols * k, nCols * (k + 1)), nCols, 1);
+				}
+			}
+
+			for (int i = start; i < end; i++) {
+				offset = nCols * i;
+				closest = 0;
+				minDistance = Double.POSITIVE_INFINITY;
+
+				// Find the closest centroid. The squared distance orders the
+				// centroids the same way as the Euclidean distance.
+				if (isEuclidean) {
+					for (int k = 0; k < nClusters; k++) {
+						distance = getSquaredDistance(elements, offset,
+								centroids, nCols * k, nCols);
+						if (distance < minDistance) {
+							minDistance = distance;
+							closest = k;
+						}
+					}
+				} else {
+					KDDMatrix vector = new KDDMatrix(Arrays.copyOfRange(
+							elements, offset, offset + nCols), nCols, 1);
+					for (int k = 0; k < nClusters; k++) {
+						distance = measure.getDistance(centroidVectors[k],
+								vector);
+						if (distance < minDistance) {
+							minDistance = distance;
+							closest = k;
+						}
+					}
+				}
+
+				// Assign the row and add it to the sum of its cluster
+				if (assignments[i] != closest) {
+					assignments[i] = closest;
+					partition.changed++;
+				}
+				partition.counts[closest]++;
+				for (int j = 0; j < nCols; j++) {
+					partition.sums[nCols * closest + j] += elements[offset + j];
+				}
+			}
+
+			return partition;
+		}
 	}
 
 	/**
@@ -395,6 +712,10 @@ public class ClusterKDDMatrix extends KDDMatrix {
 
 			// Get its distance measure method
 			this.distanceMeasure = matrix.distanceMeasure;
+
+			// Get its seed and cluster assignments
+			this.seed = matrix.seed;
+			this.assignments = matrix.assignments;
 		}
 
 		return;
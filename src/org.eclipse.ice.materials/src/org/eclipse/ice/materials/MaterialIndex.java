@@ -0,0 +1,349 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.materials;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.eclipse.ice.datastructures.form.Material;
+
+/**
+ * This class is an immutable, read-only index over a set of Materials. It is
+ * built by the XMLMaterialsDatabase whenever its contents change and answers
+ * queries without walking the property maps of each Material.
+ *
+ * The Materials are sorted by their names, ignoring case, so that name
+ * prefixes can be found with a binary search. Each property name is stored
+ * once and its values are stored as a primitive column with one value per
+ * Material, NaN where a Material does not have the property. The rows of each
+ * column are sorted by value the first time the property is queried by range.
+ * Elemental Materials are also grouped by their element so that the isotopes
+ * of an element can be looked up directly.
+ *
+ * The values in the index are those the Materials had when it was built.
+ * Changes to a Material must be committed to the database with
+ * updateMaterial() before they show up in queries.
+ */
+public class MaterialIndex {
+
+	/**
+	 * The Materials sorted by name.
+	 */
+	private final Material[] materials;
+
+	/**
+	 * The lower-case names of the Materials, in the same order.
+	 */
+	private final String[] names;
+
+	/**
+	 * The row of each Material, keyed on its name.
+	 */
+	private final Map<String, Integer> rows;
+
+	/**
+	 * The sorted names of all properties in the index.
+	 */
+	private final String[] propertyNames;
+
+	/**
+	 * The column of each property in the columns array, keyed on the property
+	 * name.
+	 */
+	private final Map<String, Integer> columnIndices;
+
+	/**
+	 * The property values. columns[i][j] is the value of property i for
+	 * Material j, or NaN if Material j does not have the property.
+	 */
+	private final double[][] columns;
+
+	/**
+	 * The rows of each column that have a value, sorted by value. A column's
+	 * rows are sorted the first time a range of the property is queried.
+	 */
+	private final int[][] sortedRows;
+
+	/**
+	 * The elemental Materials of each element sorted by isotopic number, keyed
+	 * on the lower-case name of the element.
+	 */
+	private final Map<String, List<Material>> isotopes;
+
+	/**
+	 * The read-only list of all the Materials in the index.
+	 */
+	private final List<Material> materialList;
+
+	/**
+	 * The constructor. It builds the index from the Materials.
+	 *
+	 * @param materialSet
+	 *            The Materials to index
+	 */
+	public MaterialIndex(Collection<Material> materialSet) {
+
+		// Local Declarations
+		TreeSet<String> keys = new TreeSet<String>();
+		List<Map<String, Double>> properties = new ArrayList<Map<String, Double>>();
+
+		// Sort the Materials by name so that prefixes are contiguous
+		materials = materialSet.toArray(new Material[materialSet.size()]);
+		Arrays.sort(materials, new Comparator<Material>() {
+			@Override
+			public int compare(Material first, Material second) {
+				int result = first.getName().toLowerCase(Locale.ENGLISH)
+						.compareTo(second.getName().toLowerCase(Locale.ENGLISH));
+				return (result != 0 ? result : first.getName().compareTo(
+						second.getName()));
+			}
+		});
+		names = new String[materials.length];
+		rows = new HashMap<String, Integer>();
+		for (int i = 0; i < materials.length; i++) {
+			names[i] = materials[i].getName().toLowerCase(Locale.ENGLISH);
+			rows.put(materials[i].getName(), i);
+			properties.add(materials[i].getProperties());
+			keys.addAll(properties.get(i).keySet());
+		}
+		materialList = Collections.unmodifiableList(Arrays.asList(materials));
+
+		// Store every property name once with a column of its values
+		propertyNames = keys.toArray(new String[keys.size()]);
+		columnIndices = new HashMap<String, Integer>();
+		columns = new double[propertyNames.length][materials.length];
+		sortedRows = new int[propertyNames.length][];
+		for (int i = 0; i < propertyNames.length; i++) {
+			columnIndices.put(propertyNames[i], i);
+			Arrays.fill(columns[i], Double.NaN);
+		}
+		for (int j = 0; j < materials.length; j++) {
+			for (Map.Entry<String, Double> property : properties.get(j)
+					.entrySet()) {
+				if (property.getValue() != null) {
+					columns[columnIndices.get(property.getKey())][j] = property
+							.getValue();
+				}
+			}
+		}
+
+		// Group the isotopes by element
+		isotopes = new HashMap<String, List<Material>>();
+		for (Material material : materials) {
+			if (material.isElemental()) {
+				String element = material.getElementalName().toLowerCase(
+						Locale.ENGLISH);
+				List<Material> elementIsotopes = isotopes.get(element);
+				if (elementIsotopes == null) {
+					elementIsotopes = new ArrayList<Material>();
+					isotopes.put(element, elementIsotopes);
+				}
+				elementIsotopes.add(material);
+			}
+		}
+		for (List<Material> elementIsotopes : isotopes.values()) {
+			Collections.sort(elementIsotopes);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation returns all of the Materials in the index.
+	 *
+	 * @return A read-only list of the Materials sorted by name
+	 */
+	public List<Material> getMaterials() {
+		return materialList;
+	}
+
+	/**
+	 * This operation returns the names of all the properties of the Materials
+	 * in the index.
+	 *
+	 * @return The sorted property names
+	 */
+	public List<String> getPropertyNames() {
+		return Collections.unmodifiableList(Arrays.asList(propertyNames));
+	}
+
+	/**
+	 * This operation finds the Materials whose names start with a prefix,
+	 * ignoring case.
+	 *
+	 * @param prefix
+	 *            The prefix
+	 * @return The Materials sorted by name. The list is empty if none match.
+	 */
+	public List<Material> findByNamePrefix(String prefix) {
+
+		// Local Declarations
+		List<Material> found = new ArrayList<Material>();
+		String lowerPrefix;
+		int start;
+
+		if (prefix != null) {
+			// Find the first name that is not less than the prefix and collect
+			// names until one does not start with it.
+			lowerPrefix = prefix.toLowerCase(Locale.ENGLISH);
+			start = Arrays.binarySearch(names, lowerPrefix);
+			if (start < 0) {
+				start = -(start + 1);
+			} else {
+				// Back up over equal names
+				while (start > 0 && names[start - 1].equals(lowerPrefix)) {
+					start--;
+				}
+			}
+			for (int i = start; i < names.length
+					&& names[i].startsWith(lowerPrefix); i++) {
+				found.add(materials[i]);
+			}
+		}
+
+		return found;
+	}
+
+	/**
+	 * This operation returns the elemental Materials of an element, such as
+	 * "Fe", "54Fe" and "56Fe" for "Fe".
+	 *
+	 * @param element
+	 *            The name of the element, ignoring case
+	 * @return The Materials sorted by isotopic number, with the natural
+	 *         element first. The list is empty if there are none.
+	 */
+	public List<Material> getIsotopes(String element) {
+
+		// Local Declarations
+		List<Material> elementIsotopes = null;
+
+		if (element != null) {
+			elementIsotopes = isotopes.get(element.toLowerCase(Locale.ENGLISH));
+		}
+
+		return (elementIsotopes != null ? Collections
+				.unmodifiableList(elementIsotopes) : Collections
+				.<Material> emptyList());
+	}
+
+	/**
+	 * This operation finds the Materials with a property between two values.
+	 *
+	 * @param property
+	 *            The name of the property
+	 * @param min
+	 *            The smallest value, inclusive
+	 * @param max
+	 *            The largest value, inclusive
+	 * @return The Materials sorted by the value of the property. The list is
+	 *         empty if none have the property in the range.
+	 */
+	public List<Material> findByPropertyRange(String property, double min,
+			double max) {
+
+		// Local Declarations
+		List<Material> found = new ArrayList<Material>();
+		Integer column = (property != null ? columnIndices.get(property)
+				: null);
+		double[] values;
+		int[] sorted;
+		int low, high, middle;
+
+		if (column != null && min <= max) {
+			values = columns[column];
+			sorted = getSortedRows(column);
+
+			// Find the first row not less than the minimum and collect rows up
+			// to the maximum
+			low = 0;
+			high = sorted.length;
+			while (low < high) {
+				middle = (low + high) >>> 1;
+				if (values[sorted[middle]] < min) {
+					low = middle + 1;
+				} else {
+					high = middle;
+				}
+			}
+			for (int i = low; i < sorted.length && values[sorted[i]] <= max; i++) {
+				found.add(materials[sorted[i]]);
+			}
+		}
+
+		return found;
+	}
+
+	/**
+	 * This operation returns the value of a property of a Material.
+	 *
+	 * @param name
+	 *            The name of the Material
+	 * @param property
+	 *            The name of the property
+	 * @return The value or NaN if the Material or the property is not in the
+	 *         index.
+	 */
+	public double getProperty(String name, String property) {
+
+		// Local Declarations
+		Integer column = (property != null ? columnIndices.get(property)
+				: null);
+		Integer row = (name != null ? rows.get(name) : null);
+
+		return (column != null && row != null ? columns[column][row]
+				: Double.NaN);
+	}
+
+	/**
+	 * This operation returns the rows of a column that have a value, sorted by
+	 * value. They are sorted the first time they are requested.
+	 *
+	 * @param column
+	 *            The column
+	 * @return The sorted rows
+	 */
+	private synchronized int[] getSortedRows(int column) {
+
+		if (sortedRows[column] == null) {
+			final double[] values = columns[column];
+			List<Integer> valueRows = new ArrayList<Integer>();
+			for (int i = 0; i < values.length; i++) {
+				if (!Double.isNaN(values[i])) {
+					valueRows.add(i);
+				}
+			}
+			Collections.sort(valueRows, new Comparator<Integer>() {
+				@Override
+				public int compare(Integer first, Integer second) {
+					return Double.compare(values[first], values[second]);
+				}
+			});
+			int[] sorted = new int[valueRows.size()];
+			for (int i = 0; i < sorted.length; i++) {
+				sorted[i] = valueRows.get(i);
+			}
+			sortedRows[column] = sorted;
+		}
+
+		return sortedRows[column];
+	}
+}
@@ -0,0 +1,316 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.materials;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.eclipse.ice.datastructures.form.Material;
+import org.eclipse.ice.datastructures.form.MaterialStack;
+
+/**
+ * This class reads and writes binary snapshots of an XML materials database.
+ * Reading a snapshot is much faster than unmarshalling the XML file with JAXB,
+ * so the XMLMaterialsDatabase writes one next to each XML file that it loads
+ * or writes and reads it instead of the XML file on the next start.
+ *
+ * A snapshot stores the length and CRC-32 checksum of the XML file it was
+ * created from and is ignored if the XML file changed. The names of the
+ * properties are stored once in a table at the start of the snapshot and each
+ * property value refers to its name by index, so all of the Materials read
+ * from a snapshot share the same, interned property names.
+ */
+public class MaterialSnapshot {
+
+	/**
+	 * The extension added to the name of the XML file to get the name of its
+	 * snapshot.
+	 */
+	public static final String EXTENSION = ".snapshot";
+
+	/**
+	 * The number at the start of every snapshot, "ICEM".
+	 */
+	private static final int MAGIC = 0x4943454D;
+
+	/**
+	 * The version of the snapshot format.
+	 */
+	private static final int VERSION = 1;
+
+	/**
+	 * The hidden constructor. This class only has static operations.
+	 */
+	private MaterialSnapshot() {
+	}
+
+	/**
+	 * This operation returns the snapshot file of an XML database file.
+	 *
+	 * @param xmlFile
+	 *            The XML file
+	 * @return The snapshot file, which may not exist
+	 */
+	public static File getSnapshotFile(File xmlFile) {
+		return new File(xmlFile.getPath() + EXTENSION);
+	}
+
+	/**
+	 * This operation reads the Materials from the snapshot of an XML file.
+	 *
+	 * @param xmlFile
+	 *            The XML file
+	 * @return The Materials, or null if there is no snapshot or if it does not
+	 *         match the current contents of the XML file.
+	 * @throws IOException
+	 *             if the snapshot cannot be read
+	 */
+	public static List<Material> read(File xmlFile) throws IOException {
+
+		// Local Declarations
+		File snapshotFile = getSnapshotFile(xmlFile);
+		List<Material> materials = null;
+		DataInputStream input;
+		String[] keys;
+
+		if (!snapshotFile.isFile() || !xmlFile.isFile()) {
+			return null;
+		}
+
+		input = new DataInputStream(new BufferedInputStream(
+				new FileInputStream(snapshotFile)));
+		try {
+			// Make sure that this is a snapshot of the XML file as it is now
+			if (input.readInt() != MAGIC || input.readInt() != VERSION
+					|| input.readLong() != xmlFile.length()
+					|| input.readLong() != checksum(xmlFile)) {
+				return null;
+			}
+
+			// Read the property names
+			keys = new String[input.readInt()];
+			for (int i = 0; i < keys.length; i++) {
+				keys[i] = input.readUTF().intern();
+			}
+
+			// Read the Materials
+			int count = input.readInt();
+			materials = new ArrayList<Material>(count);
+			for (int i = 0; i < count; i++) {
+				materials.add(readMaterial(input, keys));
+			}
+		} finally {
+			input.close();
+		}
+
+		return materials;
+	}
+
+	/**
+	 * This operation writes a snapshot of the Materials in an XML file. It
+	 * must be called after the XML file is written.
+	 *
+	 * @param xmlFile
+	 *            The XML file that holds the Materials
+	 * @param materials
+	 *            The Materials
+	 * @throws IOException
+	 *             if the snapshot cannot be written
+	 */
+	public static void write(File xmlFile, Collection<Material> materials)
+			throws IOException {
+
+		// Local Declarations
+		File snapshotFile = getSnapshotFile(xmlFile);
+		File tempFile = new File(snapshotFile.getPath() + ".tmp");
+		Map<String, Integer> keys = new HashMap<String, Integer>();
+		List<String> keyList = new ArrayList<String>();
+		DataOutputStream output;
+
+		// Collect the property names of the Materials and their components
+		for (Material material : materials) {
+			collectKeys(material, keys, keyList);
+		}
+
+		// Write the snapshot to a temporary file so that a failed write never
+		// leaves a partial snapshot behind
+		output = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(tempFile)));
+		try {
+			output.writeInt(MAGIC);
+			output.writeInt(VERSION);
+			output.writeLong(xmlFile.length());
+			output.writeLong(checksum(xmlFile));
+			output.writeInt(keyList.size());
+			for (String key : keyList) {
+				output.writeUTF(key);
+			}
+			output.writeInt(materials.size());
+			for (Material material : materials) {
+				writeMaterial(output, material, keys);
+			}
+		} finally {
+			output.close();
+		}
+
+		// Replace the old snapshot
+		if ((snapshotFile.exists() && !snapshotFile.delete())
+				|| !tempFile.renameTo(snapshotFile)) {
+			tempFile.delete();
+			throw new IOException("Unable to replace the snapshot "
+					+ snapshotFile.getPath());
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation computes the CRC-32 checksum of a file.
+	 *
+	 * @param file
+	 *            The file
+	 * @return The checksum
+	 * @throws IOException
+	 *             if the file cannot be read
+	 */
+	private static long checksum(File file) throws IOException {
+
+		// Local Declarations
+		CRC32 crc = new CRC32();
+		byte[] buffer = new byte[65536];
+		int count;
+		InputStream input = new FileInputStream(file);
+
+		try {
+			while ((count = input.read(buffer)) > 0) {
+				crc.update(buffer, 0, count);
+			}
+		} finally {
+			input.close();
+		}
+
+		return crc.getValue();
+	}
+
+	/**
+	 * This operation assigns an index to each property name of a Material and
+	 * its components that does not have one yet.
+	 *
+	 * @param material
+	 *            The Material
+	 * @param keys
+	 *            The index of each property name
+	 * @param keyList
+	 *            The property names in the order of their indices
+	 */
+	private static void collectKeys(Material material,
+			Map<String, Integer> keys, List<String> keyList) {
+
+		for (String key : material.getProperties().keySet()) {
+			if (!keys.containsKey(key)) {
+				keys.put(key, keyList.size());
+				keyList.add(key);
+			}
+		}
+		for (MaterialStack stack : material.getComponents()) {
+			collectKeys(stack.getMaterial(), keys, keyList);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation writes a Material and, recursively, its components.
+	 *
+	 * @param output
+	 *            The stream
+	 * @param material
+	 *            The Material
+	 * @param keys
+	 *            The index of each property name
+	 * @throws IOException
+	 *             if the Material cannot be written
+	 */
+	private static void writeMaterial(DataOutputStream output,
+			Material material, Map<String, Integer> keys) throws IOException {
+
+		// Local Declarations
+		Map<String, Double> properties = material.getProperties();
+		List<MaterialStack> components = material.getComponents();
+
+		output.writeUTF(material.getName());
+		output.writeInt(properties.size());
+		for (Map.Entry<String, Double> property : properties.entrySet()) {
+			output.writeInt(keys.get(property.getKey()));
+			output.writeDouble(property.getValue() != null ? property
+					.getValue() : Double.NaN);
+		}
+		output.writeInt(components.size());
+		for (MaterialStack stack : components) {
+			output.writeInt(stack.getAmount());
+			writeMaterial(output, stack.getMaterial(), keys);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation reads a Material and, recursively, its components.
+	 *
+	 * @param input
+	 *            The stream
+	 * @param keys
+	 *            The property names
+	 * @return The Material
+	 * @throws IOException
+	 *             if the Material cannot be read
+	 */
+	private static Material readMaterial(DataInputStream input, String[] keys)
+			throws IOException {
+
+		// Local Declarations
+		Material material = new Material();
+		int count, key;
+
+		material.setName(input.readUTF());
+		count = input.readInt();
+		for (int i = 0; i < count; i++) {
+			key = input.readInt();
+			if (key < 0 || key >= keys.length) {
+				throw new IOException("Invalid property in snapshot!");
+			}
+			material.setProperty(keys[key], input.readDouble());
+		}
+		count = input.readInt();
+		for (int i = 0; i < count; i++) {
+			int amount = input.readInt();
+			material.addComponent(new MaterialStack(readMaterial(input, keys),
+					amount));
+		}
+
+		return material;
+	}
+}
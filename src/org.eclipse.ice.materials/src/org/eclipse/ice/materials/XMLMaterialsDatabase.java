@@ -16,6 +16,7 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
@@ -51,6 +52,13 @@ import ca.odell.glazedlists.gui.TableFormat;
  * bundle. It stores the (possibly) modified user list of Materials in its
  * bundle directory in the workspace.
  *
+ * A binary snapshot is written next to each XML file that is loaded or
+ * written. It is loaded instead of the XML file as long as the XML file does
+ * not change, which avoids unmarshalling the whole list with JAXB on every
+ * start. The Materials are also indexed by a MaterialIndex, which is rebuilt
+ * after the contents of the database change, so that they can be queried by
+ * name prefix, element and property range.
+ *
  * @author Jay Jay Billings
  *
  */
@@ -86,6 +94,12 @@ public class XMLMaterialsDatabase implements IMaterialsDatabase {
 	 */
 	Hashtable<String, Material> materialsMap;
 
+	/**
+	 * The index of the materials. It is null if it must be rebuilt because the
+	 * materials changed.
+	 */
+	private MaterialIndex index;
+
 	/**
 	 * The service tracker to track the LoggingService.
 	 */
@@ -125,7 +139,69 @@ public class XMLMaterialsDatabase implements IMaterialsDatabase {
 	 */
 	@Override
 	public List<Material> getMaterials() {
-		return new ArrayList<Material>(materialsMap.values());
+		// The index holds a read-only list, so it doesn't need to be copied
+		return getIndex().getMaterials();
+	}
+
+	/**
+	 * This operation returns the index of the materials, building it first if
+	 * the materials changed since it was last built.
+	 *
+	 * @return The index
+	 */
+	public synchronized MaterialIndex getIndex() {
+		if (index == null) {
+			index = new MaterialIndex(materialsMap.values());
+		}
+		return index;
+	}
+
+	/**
+	 * This operation discards the index so that it is rebuilt with the current
+	 * materials the next time it is needed.
+	 */
+	private synchronized void invalidateIndex() {
+		index = null;
+	}
+
+	/**
+	 * This operation finds the materials whose names start with a prefix,
+	 * ignoring case.
+	 *
+	 * @param prefix
+	 *            The prefix of the names
+	 * @return The materials sorted by name
+	 */
+	public List<Material> findMaterialsByPrefix(String prefix) {
+		return getIndex().findByNamePrefix(prefix);
+	}
+
+	/**
+	 * This operation returns the isotopes of an element, including the
+	 * natural element, such as "Fe", "54Fe" and "56Fe" for "Fe".
+	 *
+	 * @param element
+	 *            The name of the element, ignoring case
+	 * @return The isotopes sorted by isotopic number
+	 */
+	public List<Material> getIsotopes(String element) {
+		return getIndex().getIsotopes(element);
+	}
+
+	/**
+	 * This operation finds the materials with a property between two values.
+	 *
+	 * @param property
+	 *            The name of the property
+	 * @param min
+	 *            The smallest value, inclusive
+	 * @param max
+	 *            The largest value, inclusive
+	 * @return The materials sorted by the value of the property
+	 */
+	public List<Material> findMaterialsByProperty(String property, double min,
+			double max) {
+		return getIndex().findByPropertyRange(property, min, max);
 	}
 
 	/*
@@ -139,6 +215,7 @@ public class XMLMaterialsDatabase implements IMaterialsDatabase {
 	public void addMaterial(Material material) {
 		if (material != null) {
 			materialsMap.put(material.getName(), material);
+			invalidateIndex();
 		}
 
 	}
@@ -154,6 +231,7 @@ public class XMLMaterialsDatabase implements IMaterialsDatabase {
 	public void deleteMaterial(String name) {
 		if (name != null) {
 			materialsMap.remove(name);
+			invalidateIndex();
 		}
 	}
 
@@ -168,6 +246,7 @@ public class XMLMaterialsDatabase implements IMaterialsDatabase {
 	public void deleteMaterial(Material material) {
 		if (material != null) {
 			materialsMap.remove(material.getName());
+			invalidateIndex();
 		}
 	}
 
@@ -182,31 +261,73 @@ public class XMLMaterialsDatabase implements IMaterialsDatabase {
 	public void updateMaterial(Material material) {
 		if (material != null) {
 			materialsMap.put(material.getName(), material);
+			invalidateIndex();
 		}
 	}
 
 	/**
-	 * This operation loads the database that is in the provided file.
+	 * This operation loads the database that is in the provided file. It
+	 * loads the snapshot of the file instead if it is up to date.
 	 *
 	 * @param streamToLoad
 	 *            the file that contains a materials database in XML and which
 	 *            should be loaded.
 	 */
 	private void loadDatabase(File fileToLoad) {
+
+		// Local Declarations
+		List<Material> materials = null;
+
+		// Try the snapshot first
 		try {
-			// Create the necessary JAXB equipment to load the file
-			Unmarshaller jaxbUnmarshaller = jaxbContext.createUnmarshaller();
-			// And unmarshall it into the list
-			ICEList<Material> rawList = (ICEList<Material>) jaxbUnmarshaller
-					.unmarshal(fileToLoad);
-
-			// Load the list into the material map
-			materialsMap = new Hashtable<String, Material>();
-			for (Material material : rawList.getList()) {
-				materialsMap.put(material.getName(), material);
+			materials = MaterialSnapshot.read(fileToLoad);
+		} catch (IOException e) {
+			logger.error(getClass().getName() + " Exception!", e);
+		}
+
+		// Otherwise unmarshal the file and take a snapshot of it
+		if (materials == null) {
+			try {
+				// Create the necessary JAXB equipment to load the file
+				Unmarshaller jaxbUnmarshaller = jaxbContext
+						.createUnmarshaller();
+				// And unmarshall it into the list
+				ICEList<Material> rawList = (ICEList<Material>) jaxbUnmarshaller
+						.unmarshal(fileToLoad);
+				materials = rawList.getList();
+				writeSnapshot(fileToLoad, materials);
+			} catch (JAXBException e) {
+				logger.error(getClass().getName() + " Exception!", e);
+				return;
 			}
-		} catch (JAXBException e) {
-			logger.error(getClass().getName() + " Exception!",e);
+		} else {
+			logger.info("Loaded " + materials.size()
+					+ " materials from the snapshot of "
+					+ fileToLoad.getName() + ".");
+		}
+
+		// Load the list into the material map
+		materialsMap = new Hashtable<String, Material>();
+		for (Material material : materials) {
+			materialsMap.put(material.getName(), material);
+		}
+		invalidateIndex();
+	}
+
+	/**
+	 * This operation writes the snapshot of a database file. Failures are
+	 * logged, but otherwise ignored since the XML file is still valid.
+	 *
+	 * @param xmlFile
+	 *            the file that contains the materials in XML
+	 * @param materials
+	 *            the materials in the file
+	 */
+	private void writeSnapshot(File xmlFile, Collection<Material> materials) {
+		try {
+			MaterialSnapshot.write(xmlFile, materials);
+		} catch (IOException e) {
+			logger.error(getClass().getName() + " Exception!", e);
 		}
 	}
 
@@ -224,6 +345,8 @@ public class XMLMaterialsDatabase implements IMaterialsDatabase {
 			materialsList.setList(new ArrayList<Material>(getMaterials()));
 			// And dump it into the file
 			jaxbMarshaller.marshal(materialsList, userDatabase);
+			// Take a snapshot for the next start
+			writeSnapshot(userDatabase, materialsList.getList());
 		} catch (JAXBException e) {
 			System.err.println("XMLMaterialDatabase: Error writing database!");
 			logger.error(getClass().getName() + " Exception!",e);
@@ -340,7 +463,7 @@ public class XMLMaterialsDatabase implements IMaterialsDatabase {
 	public EventList<Material> getElements() {
 		// Create a new event list and return it using the standard factory
 		// method for GlazedLists.
-		EventList<Material> list = GlazedLists.eventList(materialsMap.values());
+		EventList<Material> list = GlazedLists.eventList(getMaterials());
 		return list;
 	}
 
@@ -358,11 +481,8 @@ public class XMLMaterialsDatabase implements IMaterialsDatabase {
 		// Build and return a table format if there are materials in the
 		// database
 		if (!materialsMap.isEmpty()) {
-			// Get the properties off the map. Pulling back the array is more
-			// efficient than getting an iterator. I think...
-			Material[] emptyArray = {};
-			Map<String, Double> props = materialsMap.values().toArray(
-					emptyArray)[0].getProperties();
+			// Get the properties off the first material
+			Map<String, Double> props = getMaterials().get(0).getProperties();
 			ArrayList<String> propNames = new ArrayList<String>(props.keySet());
 			// Initialize the table format
 			format = new MaterialWritableTableFormat(propNames);
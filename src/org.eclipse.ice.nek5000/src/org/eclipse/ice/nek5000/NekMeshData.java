@@ -0,0 +1,484 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.nek5000;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import org.eclipse.ice.viz.service.mesh.datastructures.BoundaryConditionType;
+
+/**
+ * This class holds the elements and boundary conditions of a two dimensional
+ * Nek5000 mesh in flat arrays, one slot per element or per element face, so
+ * that large meshes can be read without creating objects for every line or
+ * value. The NekReader fills it from the MESH DATA and BOUNDARY CONDITIONS
+ * sections of a reafile or from a binary .re2 file and then builds the Quads
+ * of its MeshComponent from it. The NekWriter fills it from a MeshComponent to
+ * write a .re2 file.
+ *
+ * Only the four corners of each element are kept. For three dimensional
+ * meshes these are the corners of the bottom face, which matches what has
+ * always been read from reafiles.
+ *
+ * The layout of a .re2 file is an 80 character ASCII header ("#v001" or
+ * "#v002", NEL, NDIM and NELV), the float 6.54321 written in the byte order of
+ * the file, the elements, the curved sides and then one set of boundary
+ * conditions for each field. Version 1 files store reals as 4 byte floats and
+ * integers as 4 byte ints. Version 2 files store both as 8 byte doubles. An
+ * element is its group number and its x, y (and z) coordinates. Curved sides
+ * and boundary conditions are a count followed by records of eight words: the
+ * element, the face, five values and the type as space padded characters.
+ *
+ */
+class NekMeshData {
+
+	/**
+	 * The number of corners and faces of each element that are kept.
+	 */
+	public static final int numCorners = 4;
+
+	/**
+	 * The value written after the header of a .re2 file to test its byte
+	 * order.
+	 */
+	private static final float endianTest = 6.54321f;
+
+	/**
+	 * The size of the header of a .re2 file.
+	 */
+	private static final int headerSize = 80;
+
+	/**
+	 * The charset of the header and the boundary condition types.
+	 */
+	private static final Charset charset = Charset.forName("ISO-8859-1");
+
+	/**
+	 * The number of (thermal) elements, NEL.
+	 */
+	public final int numElements;
+
+	/**
+	 * The number of dimensions, NDIM.
+	 */
+	public final int numDimensions;
+
+	/**
+	 * The number of fluid elements, NELV.
+	 */
+	public final int numFluidElements;
+
+	/**
+	 * The corner coordinates of the elements. Each element has its four x
+	 * coordinates followed by its four y coordinates.
+	 */
+	public final float[] coordinates;
+
+	/**
+	 * The group number of each element.
+	 */
+	public final int[] groups;
+
+	/**
+	 * The material ID of each element.
+	 */
+	public final String[] materialIds;
+
+	/**
+	 * The sets of boundary conditions in the order that they were read or
+	 * will be written.
+	 */
+	public final ArrayList<BoundarySet> boundarySets;
+
+	/**
+	 * This class holds one set of boundary conditions (fluid, thermal or a
+	 * passive scalar) for every face of the elements of a mesh. The condition
+	 * of face f (zero based) of element e (zero based) is at index 4e + f.
+	 */
+	public static class BoundarySet {
+
+		/**
+		 * The type of each condition, or null for faces without one.
+		 */
+		public final BoundaryConditionType[] types;
+
+		/**
+		 * The five values of each condition.
+		 */
+		public final float[] values;
+
+		/**
+		 * The constructor.
+		 *
+		 * @param numElements
+		 *            The number of elements of the mesh.
+		 */
+		public BoundarySet(int numElements) {
+			types = new BoundaryConditionType[numElements * numCorners];
+			values = new float[numElements * numCorners * 5];
+		}
+	}
+
+	/**
+	 * The constructor.
+	 *
+	 * @param numElements
+	 *            The number of (thermal) elements, NEL.
+	 * @param numDimensions
+	 *            The number of dimensions, NDIM.
+	 * @param numFluidElements
+	 *            The number of fluid elements, NELV.
+	 */
+	public NekMeshData(int numElements, int numDimensions,
+			int numFluidElements) {
+		this.numElements = numElements;
+		this.numDimensions = numDimensions;
+		this.numFluidElements = numFluidElements;
+		coordinates = new float[numElements * 2 * numCorners];
+		groups = new int[numElements];
+		materialIds = new String[numElements];
+		boundarySets = new ArrayList<BoundarySet>();
+	}
+
+	/**
+	 * This operation returns the BoundaryConditionType with an ID, or None if
+	 * the ID is not known.
+	 *
+	 * @param id
+	 *            The ID of the type.
+	 * @return The type.
+	 */
+	public static BoundaryConditionType getType(String id) {
+		BoundaryConditionType type = BoundaryConditionType.fromId(id);
+		return (type != null ? type : BoundaryConditionType.None);
+	}
+
+	/**
+	 * This operation reads a .re2 file by mapping it into memory.
+	 *
+	 * @param file
+	 *            The .re2 file.
+	 * @return The mesh stored in the file.
+	 * @throws IOException
+	 *             Thrown when the file cannot be read or is not a .re2 file
+	 */
+	public static NekMeshData readRe2(File file) throws IOException {
+
+		// Local Declarations
+		FileInputStream stream = new FileInputStream(file);
+		NekMeshData data;
+
+		try {
+			FileChannel channel = stream.getChannel();
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+					0, channel.size());
+			data = readRe2(buffer);
+		} finally {
+			stream.close();
+		}
+
+		return data;
+	}
+
+	/**
+	 * This operation reads the contents of a .re2 file from a buffer.
+	 *
+	 * @param buffer
+	 *            The buffer, positioned at the start of the file.
+	 * @return The mesh stored in the buffer.
+	 * @throws IOException
+	 *             Thrown when the buffer does not hold a .re2 file
+	 */
+	private static NekMeshData readRe2(ByteBuffer buffer) throws IOException {
+
+		// Local Declarations
+		byte[] headerBytes = new byte[headerSize];
+		String[] header;
+		int wordSize, numCoordinates, numCurves, numConditions;
+		int element, face, index;
+		NekMeshData data;
+		BoundarySet set;
+		HashMap<String, BoundaryConditionType> types = new HashMap<String, BoundaryConditionType>();
+		byte[] typeBytes;
+		String typeId;
+		BoundaryConditionType type;
+
+		// Read the header
+		if (buffer.remaining() < headerSize + 4) {
+			throw new IOException("NekMeshData Message: The file is too "
+					+ "small to be a .re2 file.");
+		}
+		buffer.get(headerBytes);
+		header = new String(headerBytes, charset).trim().split("\\s+");
+		if (header.length < 4 || !header[0].startsWith("#v00")) {
+			throw new IOException("NekMeshData Message: The file does not "
+					+ "have a .re2 header.");
+		}
+		wordSize = ("#v001".equals(header[0]) ? 4 : 8);
+		try {
+			data = new NekMeshData(Math.abs(Integer.parseInt(header[1])),
+					Integer.parseInt(header[2]), Math.abs(Integer
+							.parseInt(header[3])));
+		} catch (NumberFormatException e) {
+			throw new IOException("NekMeshData Message: The .re2 header "
+					+ "is invalid.", e);
+		}
+
+		// Use the byte order that makes the test value readable
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		if (Math.abs(buffer.getFloat(headerSize) - endianTest) > 1.0e-5f) {
+			buffer.order(ByteOrder.BIG_ENDIAN);
+		}
+		buffer.position(headerSize + 4);
+
+		// Read the group and corner coordinates of the elements
+		numCoordinates = (data.numDimensions == 3 ? 8 : numCorners);
+		try {
+			for (int i = 0; i < data.numElements; i++) {
+				data.groups[i] = readInt(buffer, wordSize);
+				data.materialIds[i] = Integer.toString(i + 1);
+				for (int j = 0; j < data.numDimensions; j++) {
+					for (int k = 0; k < numCoordinates; k++) {
+						float value = readReal(buffer, wordSize);
+						if (j < 2 && k < numCorners) {
+							data.coordinates[i * 2 * numCorners + j
+									* numCorners + k] = value;
+						}
+					}
+				}
+			}
+
+			// Skip the curved sides
+			numCurves = readInt(buffer, wordSize);
+			buffer.position(buffer.position() + numCurves * 8 * wordSize);
+
+			// Read the boundary conditions of each field until the end
+			typeBytes = new byte[wordSize];
+			while (buffer.remaining() >= wordSize) {
+				set = new BoundarySet(data.numElements);
+				numConditions = readInt(buffer, wordSize);
+				for (int i = 0; i < numConditions; i++) {
+					element = readInt(buffer, wordSize) - 1;
+					face = readInt(buffer, wordSize) - 1;
+					index = element * numCorners + face;
+					boolean kept = (element >= 0 && element < data.numElements
+							&& face >= 0 && face < numCorners);
+					for (int j = 0; j < 5; j++) {
+						float value = readReal(buffer, wordSize);
+						if (kept) {
+							set.values[index * 5 + j] = value;
+						}
+					}
+					buffer.get(typeBytes);
+					if (kept) {
+						typeId = new String(typeBytes, charset).trim();
+						type = types.get(typeId);
+						if (type == null) {
+							type = getType(typeId);
+							types.put(typeId, type);
+						}
+						set.types[index] = type;
+					}
+				}
+				data.boundarySets.add(set);
+			}
+		} catch (RuntimeException e) {
+			// Buffer underflows and bad positions mean the file was truncated
+			throw new IOException("NekMeshData Message: The .re2 file is "
+					+ "truncated or corrupt.", e);
+		}
+
+		return data;
+	}
+
+	/**
+	 * This operation writes the mesh to a .re2 file in the native byte order
+	 * of the machine. Only two dimensional meshes can be written because only
+	 * the corners of the elements are kept.
+	 *
+	 * @param file
+	 *            The .re2 file.
+	 * @param doublePrecision
+	 *            True if the file should use 8 byte words (#v002), false if it
+	 *            should use 4 byte words (#v001).
+	 * @throws IOException
+	 *             Thrown when the file cannot be written
+	 */
+	public void writeRe2(File file, boolean doublePrecision) throws IOException {
+
+		// Only the corners of two dimensional elements are available
+		if (numDimensions != 2) {
+			throw new IOException("NekMeshData Message: Only two "
+					+ "dimensional meshes can be written to .re2 files.");
+		}
+
+		// Local Declarations
+		int wordSize = (doublePrecision ? 8 : 4);
+		int numConditions, index;
+		long size;
+		String header = String.format("%5s%9d%3d%9d%-54s",
+				(doublePrecision ? "#v002" : "#v001"), numElements,
+				numDimensions, numFluidElements, " hdr");
+		RandomAccessFile output = new RandomAccessFile(file, "rw");
+		FileChannel channel = output.getChannel();
+		ByteBuffer buffer;
+		byte[] typeBytes = new byte[wordSize];
+		byte[] idBytes;
+
+		try {
+			// Count the boundary conditions to size the file
+			size = headerSize + 4 + (long) numElements * (1 + 2 * numCorners)
+					* wordSize + wordSize;
+			for (BoundarySet set : boundarySets) {
+				size += wordSize + (long) countConditions(set) * 8 * wordSize;
+			}
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException("NekMeshData Message: The mesh is too "
+						+ "large for a .re2 file.");
+			}
+
+			// Map the file and write the header and byte order test
+			output.setLength(0);
+			buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+			buffer.order(ByteOrder.nativeOrder());
+			buffer.put(header.getBytes(charset), 0, headerSize);
+			buffer.putFloat(endianTest);
+
+			// Write the elements
+			for (int i = 0; i < numElements; i++) {
+				writeInt(buffer, wordSize, groups[i]);
+				for (int j = 0; j < 2 * numCorners; j++) {
+					writeReal(buffer, wordSize, coordinates[i * 2 * numCorners
+							+ j]);
+				}
+			}
+
+			// No curved sides are written
+			writeInt(buffer, wordSize, 0);
+
+			// Write the boundary conditions of each field
+			for (BoundarySet set : boundarySets) {
+				numConditions = countConditions(set);
+				writeInt(buffer, wordSize, numConditions);
+				for (int i = 0; i < set.types.length; i++) {
+					if (set.types[i] != null) {
+						writeInt(buffer, wordSize, i / numCorners + 1);
+						writeInt(buffer, wordSize, i % numCorners + 1);
+						for (int j = 0; j < 5; j++) {
+							writeReal(buffer, wordSize, set.values[i * 5 + j]);
+						}
+						idBytes = set.types[i].id.getBytes(charset);
+						for (index = 0; index < wordSize; index++) {
+							typeBytes[index] = (index < idBytes.length ? idBytes[index]
+									: (byte) ' ');
+						}
+						buffer.put(typeBytes);
+					}
+				}
+			}
+		} finally {
+			output.close();
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation counts the faces that have a condition in a set.
+	 *
+	 * @param set
+	 *            The set of boundary conditions.
+	 * @return The number of conditions in the set.
+	 */
+	private static int countConditions(BoundarySet set) {
+		int count = 0;
+		for (BoundaryConditionType type : set.types) {
+			if (type != null) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * This operation reads an integer word from a .re2 buffer.
+	 *
+	 * @param buffer
+	 *            The buffer.
+	 * @param wordSize
+	 *            The size of a word, 4 or 8.
+	 * @return The integer.
+	 */
+	private static int readInt(ByteBuffer buffer, int wordSize) {
+		return (wordSize == 4 ? buffer.getInt() : (int) buffer.getDouble());
+	}
+
+	/**
+	 * This operation reads a real word from a .re2 buffer.
+	 *
+	 * @param buffer
+	 *            The buffer.
+	 * @param wordSize
+	 *            The size of a word, 4 or 8.
+	 * @return The real as a float.
+	 */
+	private static float readReal(ByteBuffer buffer, int wordSize) {
+		return (wordSize == 4 ? buffer.getFloat() : (float) buffer
+				.getDouble());
+	}
+
+	/**
+	 * This operation writes an integer word to a .re2 buffer.
+	 *
+	 * @param buffer
+	 *            The buffer.
+	 * @param wordSize
+	 *            The size of a word, 4 or 8.
+	 * @param value
+	 *            The integer.
+	 */
+	private static void writeInt(ByteBuffer buffer, int wordSize, int value) {
+		if (wordSize == 4) {
+			buffer.putInt(value);
+		} else {
+			buffer.putDouble(value);
+		}
+	}
+
+	/**
+	 * This operation writes a real word to a .re2 buffer.
+	 *
+	 * @param buffer
+	 *            The buffer.
+	 * @param wordSize
+	 *            The size of a word, 4 or 8.
+	 * @param value
+	 *            The real.
+	 */
+	private static void writeReal(ByteBuffer buffer, int wordSize, float value) {
+		if (wordSize == 4) {
+			buffer.putFloat(value);
+		} else {
+			buffer.putDouble(value);
+		}
+	}
+}
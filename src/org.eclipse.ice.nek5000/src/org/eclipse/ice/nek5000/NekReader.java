@@ -18,7 +18,6 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 
 import org.eclipse.ice.datastructures.ICEObject.Component;
 import org.eclipse.ice.datastructures.form.AllowedValueType;
@@ -52,6 +51,9 @@ import org.eclipse.ice.viz.service.mesh.datastructures.Vertex;
  * construction. The mesh and boundary conditions are coupled together and are
  * not considered distinct Components.
  * 
+ * If NEL in the MESH DATA section is negative, the mesh and boundary conditions
+ * are read from the binary .re2 file with the same name as the reafile.
+ * 
  * Components are created and returned in the sequential order specified above.
  * 
  * The component IDs start at id = 2, as an example selection DataComponent (for
@@ -107,6 +109,12 @@ public class NekReader {
 	 */
 	private ProblemProperties properties;
 
+	/**
+	 * The types of boundary conditions that can be read.
+	 */
+	private static final BoundaryConditionType[] boundaryConditionTypes = BoundaryConditionType
+			.values();
+
 	/**
 	 * Nullary constructor.
 	 */
@@ -125,10 +133,11 @@ public class NekReader {
 	 *            The Nek5000 reafile.
 	 * @return ArrayList containing all the reafile input as Components.
 	 * @throws IOException
-	 *             Thrown when readFileLines(...) fails to read or close its
-	 *             FileInputStream
+	 *             Thrown when readSections(...) fails to read or close its
+	 *             FileInputStream, or to read the .re2 file of the mesh
 	 * @throws FileNotFoundException
-	 *             Thrown when readFileLines(...) fails to find the input file
+	 *             Thrown when readSections(...) fails to find the input file
+	 *             or the .re2 file of the mesh
 	 */
 	public ArrayList<Component> loadREAFile(File reaFile)
 			throws FileNotFoundException, IOException {
@@ -140,15 +149,18 @@ public class NekReader {
 
 		ArrayList<Component> components = new ArrayList<Component>();
 
-		// Read lines into an ArrayList of Strings
-		ArrayList<String> lines = readFileLines(reaFile);
+		// Read lines into an ArrayList of Strings, except for the elements
+		// and boundary conditions, which are read into flat arrays in the
+		// same pass
+		ArrayList<String> lines = new ArrayList<String>();
+		NekMeshData meshData = readSections(reaFile, lines);
 
 		// Load the input components
 		DataComponent parameters = loadParameters(lines);
 		DataComponent passiveScalarData = loadPassiveScalarData(lines);
 		DataComponent switches = loadLogicalSwitches(lines);
 		DataComponent preNekAxes = loadPreNekAxes(lines);
-		MeshComponent mesh = loadMesh(lines);
+		MeshComponent mesh = loadMesh(meshData);
 		MeshComponent curvedSideData = loadCurvedSideData(lines);
 		DataComponent presolveRestartOpts = loadPresolveRestartOpts(lines);
 		DataComponent initialConditions = loadInitialConditions(lines);
@@ -198,23 +210,26 @@ public class NekReader {
 			throws FileNotFoundException, IOException {
 
 		// Convert to FileInputStream
-		FileInputStream fileStream = null;
-		fileStream = new FileInputStream(file);
-
-		// Read the FileInputStream and append to a StringBuffer
-		StringBuffer buffer = new StringBuffer();
-		int fileByte;
-		while ((fileByte = fileStream.read()) != -1) {
-			buffer.append((char) fileByte);
+		FileInputStream fileStream = new FileInputStream(file);
+		ArrayList<String> fileLines = new ArrayList<String>();
+
+		// Read the lines through a buffer, breaking them up at each newline
+		// character
+		try {
+			ReaLineReader reader = new ReaLineReader(fileStream);
+			while (reader.nextLine()) {
+				fileLines.add(reader.getLine());
+			}
+		} finally {
+			// Close the stream
+			fileStream.close();
 		}
 
-		// Close the stream
-		fileStream.close();
-
-		// Break up the StringBuffer at each newline character
-		String[] bufferSplit = (buffer.toString()).split("\n");
-		ArrayList<String> fileLines = new ArrayList<String>(
-				Arrays.asList(bufferSplit));
+		// Trailing empty lines are dropped
+		while (!fileLines.isEmpty()
+				&& fileLines.get(fileLines.size() - 1).isEmpty()) {
+			fileLines.remove(fileLines.size() - 1);
+		}
 
 		return fileLines;
 	}
@@ -578,291 +593,421 @@ public class NekReader {
 	}
 
 	/**
-	 * Loads the MESH DATA section of a reafile and returns the contents as a
-	 * MeshComponent of Quads. In the process of constructing elements (or
-	 * 'Quads' in ICE lexicon), the loadBoundaryConditions() method is called,
-	 * and each Quad is assigned a set of BoundaryCondition objects based on the
-	 * unique Edge IDs contained in that Quad.
-	 * 
-	 * Each Quad should have a minimum of two BoundaryConditions associated to
-	 * it (fluid and thermal boundary conditions). A Quad may have N more sets
-	 * of BoundaryConditions, where N is the value defined by NPSCAL in the
-	 * PARAMETERS section (ie. this.numPassiveScalars)
+	 * Reads a reafile in a single pass. The lines of every section are added to
+	 * an ArrayList of Strings for the other load methods, except for the
+	 * element and boundary condition lines, which are read straight into a
+	 * NekMeshData without creating a String for each line. If NEL is negative,
+	 * the mesh is read from the .re2 file with the same name as the reafile
+	 * instead, which is how Nek5000 pairs the two files.
 	 * 
+	 * @param reaFile
+	 *            The Nek5000 reafile.
 	 * @param reaLines
-	 *            Lines of the reafile as an ArrayList of Strings.
-	 * @return MeshComponent containing the definition of all mesh elements()
-	 *         defined in the problem, with a set of BoundaryConditions
-	 *         associated to each Quad.
-	 **/
-	private MeshComponent loadMesh(ArrayList<String> reaLines) {
+	 *            The ArrayList that the lines of the reafile are added to.
+	 * @return The elements and boundary conditions of the mesh, or null if the
+	 *         reafile has no MESH DATA section.
+	 * @throws FileNotFoundException
+	 *             Thrown when the reafile or its .re2 file cannot be found
+	 * @throws IOException
+	 *             Thrown when the reafile or its .re2 file cannot be read
+	 */
+	private NekMeshData readSections(File reaFile, ArrayList<String> reaLines)
+			throws FileNotFoundException, IOException {
 
-		// Local declarations for file reading
+		// Local declarations
+		FileInputStream fileStream = new FileInputStream(reaFile);
+		ReaLineReader reader = new ReaLineReader(fileStream);
+		NekMeshData meshData = null;
+		boolean meshInReaFile = false;
 		String currLine;
-		ArrayList<Float> nextLine = null;
-		ArrayList<String> numbersLine = null;
+		int numElements;
 
-		// Local declarations for quad building
-		Vertex vertex;
-		Edge edge;
-		Quad quad;
-		ArrayList<Vertex> vertices = null;
-		ArrayList<Edge> edges = null;
-		ArrayList<Vertex> vertexCombo = null;
+		// Forget the mesh of the last reafile
+		numThermalElements = 0;
+		numDimensions = 0;
+		numFluidElements = 0;
 
-		// Keeps track of the unique edge IDs associated to the current quad
-		// for the purpose of assigning boundary conditions keyed on edge IDs
-		ArrayList<Integer> edgeIdList = null;
+		try {
+			while (reader.nextLine()) {
 
-		// Create a mesh component, quad and edge
-		MeshComponent mesh = new MeshComponent();
-		mesh.setName("Mesh Data");
-		mesh.setDescription("Elements contained in the Mesh section of a "
-				+ "Nek5000 reafile");
-		mesh.setId(6);
-
-		// Create containers to hold/index all the different sets of boundary
-		// conditions
-		ArrayList<Object> boundaryConditions;
-		HashMap<Integer, BoundaryCondition> fluidBoundaryConditions = null;
-		HashMap<Integer, BoundaryCondition> thermalBoundaryConditions = null;
-		ArrayList<HashMap<Integer, BoundaryCondition>> scalarBoundaryConditions = null;
+				// Keep the current line for the other sections
+				currLine = reader.getLine();
+				reaLines.add(currLine);
 
-		// Begin reading the input file lines
-		for (int i = 0; i < reaLines.size(); i++) {
+				// Search for the mesh data heading
+				if (currLine.contains("**MESH DATA**")
+						|| currLine.contains("*** MESH DATA ***")) {
 
-			// Search for the mesh data heading
-			if ((reaLines.get(i).contains("**MESH DATA**") || reaLines.get(i)
-					.contains("*** MESH DATA ***"))
-					&& reaLines.get(i + 1).contains("NEL,NDIM,NELV")) {
-
-				// Grab the numbers on the next line (NEL,NDIM,NELV)
-				numbersLine = (ArrayList<String>) parseLine(String.class,
-						reaLines.get(i + 1));
-
-				// NEL = number of (thermal) elements used
-				// NDIM = number of dimensions
-				// NELV = number of fluid elements used (doesn't have to be same
-				// as number of thermal elements
-
-				numThermalElements = Integer.parseInt(numbersLine.get(0));
-				numDimensions = Integer.parseInt(numbersLine.get(1));
-				numFluidElements = Integer.parseInt(numbersLine.get(2));
-
-				// Start ID counters for quads, edges and vertices, all IDs
-				// must be unique
-				int edgeId = 1;
-				int vertexId = 1;
-				int quadId = 1;
-
-				// Load boundary conditions that will be assigned to
-				// element/quad edges
-				boundaryConditions = loadBoundaryConditions(reaLines);
-
-				// Determine what position the fluid, thermal and passive scalar
-				// boundary conditions are in the loaded boundaryConditions list
-				int fluidPosition = 0, thermalPosition = 0, passiveScalPosition = 0;
-				if (ifFlow) {
-					fluidPosition = 0;
-				}
-				if (ifFlow && ifHeat) {
-					thermalPosition = 1;
-				} else if (!ifFlow && ifHeat) {
-					thermalPosition = 0;
-				}
-				if (numPassiveScalars > 0) {
-					passiveScalPosition = thermalPosition + 1;
-				}
-				if (ifFlow) {
-					fluidBoundaryConditions = (HashMap<Integer, BoundaryCondition>) boundaryConditions
-							.get(fluidPosition);
-				}
-				if (ifHeat) {
-					thermalBoundaryConditions = (HashMap<Integer, BoundaryCondition>) boundaryConditions
-							.get(thermalPosition);
+					// Grab the numbers on the next line (NEL,NDIM,NELV)
+					if (!reader.nextLine()) {
+						break;
+					}
+					currLine = reader.getLine();
+					reaLines.add(currLine);
+					if (currLine.contains("NEL,NDIM,NELV")) {
+
+						// NEL = number of (thermal) elements used
+						// NDIM = number of dimensions
+						// NELV = number of fluid elements used (doesn't have to
+						// be same as number of thermal elements)
+						reader.split();
+						numElements = reader.parseInt(0);
+						numDimensions = reader.parseInt(1);
+						numThermalElements = Math.abs(numElements);
+						numFluidElements = Math.abs(reader.parseInt(2));
+
+						// Read the elements from the .re2 file or from the
+						// lines that follow
+						if (numElements < 0) {
+							meshData = NekMeshData.readRe2(getRe2File(reaFile));
+						} else {
+							meshData = new NekMeshData(numThermalElements,
+									numDimensions, numFluidElements);
+							readElements(reader, meshData);
+							meshInReaFile = true;
+						}
+					}
 				}
 
-				if (numPassiveScalars > 0) {
-					scalarBoundaryConditions = (ArrayList<HashMap<Integer, BoundaryCondition>>) boundaryConditions
-							.get(passiveScalPosition);
+				// Read the fluid, thermal and passive scalar boundary
+				// conditions, which follow the elements in that order
+				else if (meshInReaFile
+						&& currLine
+								.contains("***** FLUID   BOUNDARY CONDITIONS *****")) {
+					readBoundarySet(reader, meshData, numFluidElements);
+				} else if (meshInReaFile
+						&& (currLine
+								.contains("***** THERMAL BOUNDARY CONDITIONS *****") || (currLine
+								.contains("***** PASSIVE SCALAR") && currLine
+								.contains("BOUNDARY CONDITIONS *****")))) {
+					readBoundarySet(reader, meshData, numThermalElements);
 				}
+			}
+		} finally {
+			// Close the stream
+			fileStream.close();
+		}
 
-				// Jump the iterator 2 lines ahead and begin reading in
-				// elements/quads
-				i += 2;
+		return meshData;
+	}
 
-				String materialId;
-				int groupNum;
-				String[] splitLine;
-				int j = 0;
-				while (j < numThermalElements * (numDimensions + 1)) { // Each
-																		// element
-																		// is (1
-																		// header
-																		// + #
-																		// dimensions)
-																		// lines
+	/**
+	 * Reads the lines of the elements in the MESH DATA section into a
+	 * NekMeshData. Each element is a header line with its material ID and
+	 * group number followed by as many lines of coordinates as there are
+	 * dimensions.
+	 * 
+	 * @param reader
+	 *            The reader, positioned on the NEL,NDIM,NELV line.
+	 * @param meshData
+	 *            The mesh to read the elements into.
+	 * @throws IOException
+	 *             Thrown when the reafile cannot be read
+	 */
+	private void readElements(ReaLineReader reader, NekMeshData meshData)
+			throws IOException {
 
-					// Grab the current line
-					currLine = reaLines.get(i + j);
+		// Local declarations
+		float[] coordinates = meshData.coordinates;
+		int numCorners = NekMeshData.numCorners;
+		int element = 0, numTokens, offset;
+		String materialId;
 
-					// If current line is the beginning of a new element
-					if (currLine.contains("ELEMENT")) {
+		while (element < meshData.numElements && reader.nextLine()) {
 
-						// Grab the material ID and group number
-						splitLine = currLine.trim().split("\\s+");
-						if (splitLine[3].charAt(splitLine[3].length() - 1) == ']') {
-							materialId = splitLine[3].substring(0,
-									splitLine[3].length() - 1);
-							groupNum = Integer.parseInt(splitLine[5]);
-						} else {
-							materialId = splitLine[3];
-							groupNum = Integer.parseInt(splitLine[6]);
-						}
+			// Skip lines until the beginning of the next element
+			if (!reader.contains("ELEMENT")) {
+				continue;
+			}
 
-						// Create a new current element
-						ArrayList<ArrayList<Float>> currElement = new ArrayList<ArrayList<Float>>();
+			// Grab the material ID and group number
+			reader.split();
+			materialId = reader.getToken(3);
+			if (reader.getLastChar(3) == ']') {
+				meshData.materialIds[element] = materialId.substring(0,
+						materialId.length() - 1);
+				meshData.groups[element] = reader.parseInt(5);
+			} else {
+				meshData.materialIds[element] = materialId;
+				meshData.groups[element] = reader.parseInt(6);
+			}
 
-						// Jump to the next line and parse as many lines as
-						// there
-						// are dimensions (ie. 2 dimensions = 2 lines of coords)
-						for (int k = 0; k < numDimensions; k++) {
+			// Parse as many lines as there are dimensions (ie. 2 dimensions =
+			// 2 lines of coords), keeping the x and y coordinates of the
+			// corners
+			offset = element * 2 * numCorners;
+			for (int k = 0; k < meshData.numDimensions && reader.nextLine(); k++) {
+				if (k < 2) {
+					numTokens = Math.min(reader.split(), numCorners);
+					for (int j = 0; j < numTokens; j++) {
+						coordinates[offset + k * numCorners + j] = reader
+								.parseFloat(j);
+					}
+				}
+			}
 
-							// Parse line into an ArrayList and add to current
-							// element
-							nextLine = (ArrayList<Float>) parseLine(
-									Float.class, reaLines.get(i + j + k + 1));
-							currElement.add(nextLine);
-						}
+			element++;
+		}
 
-						// Construct a set of vertices
-						float x, y, z;
-						vertices = new ArrayList<Vertex>();
+		return;
+	}
 
-						for (int k = 0; k < currElement.get(0).size(); k++) {
+	/**
+	 * Reads one set of boundary conditions (fluid, thermal or passive scalar)
+	 * into a NekMeshData. There is a line for each face of each element, in
+	 * order, with the type, the element and face numbers and five values. The
+	 * element and face are taken from the position of the line because they
+	 * run together in the fixed width format of large meshes.
+	 * 
+	 * @param reader
+	 *            The reader, positioned on the header of the set.
+	 * @param meshData
+	 *            The mesh to add the set to.
+	 * @param numElements
+	 *            The number of elements that have boundary conditions in the
+	 *            set.
+	 * @throws IOException
+	 *             Thrown when the reafile cannot be read
+	 */
+	private void readBoundarySet(ReaLineReader reader, NekMeshData meshData,
+			int numElements) throws IOException {
 
-							// Define the x,y,z coordinates
-							x = currElement.get(0).get(k);
-							y = currElement.get(1).get(k);
-							z = 0f;
+		// Local declarations
+		NekMeshData.BoundarySet set = new NekMeshData.BoundarySet(
+				meshData.numElements);
+		int numCorners = NekMeshData.numCorners;
+		int numFaces = 2 * meshData.numDimensions;
+		int numLines = Math.min(numElements, meshData.numElements) * numFaces;
+		int face, index, numTokens, firstValue;
+
+		for (int i = 0; i < numLines && reader.nextLine(); i++) {
+
+			// Only the faces of the corner edges are kept
+			face = i % numFaces;
+			numTokens = reader.split();
+			if (face >= numCorners || numTokens < 6) {
+				continue;
+			}
+			index = (i / numFaces) * numCorners + face;
 
-							// Create new vertex and add to vertices ArrayList
-							vertex = new Vertex(x, y, z);
-							vertex.setId(vertexId); // Set unique ID
-							vertices.add(vertex);
+			// Set the boundary condition type and values
+			set.types[index] = getBoundaryConditionType(reader);
+			firstValue = (numTokens >= 8 ? 3 : numTokens - 5);
+			for (int j = 0; j < 5; j++) {
+				set.values[index * 5 + j] = reader.parseFloat(firstValue + j);
+			}
+		}
 
-							vertexId++;
-						}
+		meshData.boundarySets.add(set);
 
-						// Construct combinations of vertices
-						edges = new ArrayList<Edge>();
-						edgeIdList = new ArrayList<Integer>();
-
-						for (int k = 0; k < 4; k++) {
-
-							vertexCombo = new ArrayList<Vertex>();
-
-							// Edge 1 = Vertices 1 + 2
-							// Edge 2 = Vertices 2 + 3
-							// Edge 3 = Vertices 3 + 4
-							// Edge 4 = Vertices 4 + 1
-
-							// Create one of four possible combinations of
-							// vertices
-							switch (k) {
-							case 0:
-								vertexCombo.add(vertices.get(0));
-								vertexCombo.add(vertices.get(1));
-								break;
-							case 1:
-								vertexCombo.add(vertices.get(1));
-								vertexCombo.add(vertices.get(2));
-								break;
-							case 2:
-								vertexCombo.add(vertices.get(2));
-								vertexCombo.add(vertices.get(3));
-								break;
-							case 3:
-								vertexCombo.add(vertices.get(3));
-								vertexCombo.add(vertices.get(0));
-								break;
-							default:
-								break;
-							}
+		return;
+	}
 
-							// Create a new edge and add to edges ArrayList
-							edge = new Edge(vertexCombo);
-							edge.setId(edgeId); // Set unique edge ID
-							edges.add(edge);
+	/**
+	 * Returns the BoundaryConditionType whose ID is the first token of the
+	 * current line of a reader, or None if there is no such type.
+	 * 
+	 * @param reader
+	 *            The reader, after its current line has been split.
+	 * @return The BoundaryConditionType of the line.
+	 */
+	private BoundaryConditionType getBoundaryConditionType(ReaLineReader reader) {
 
-							edgeIdList.add(edgeId);
+		for (BoundaryConditionType type : boundaryConditionTypes) {
+			if (reader.tokenEquals(0, type.id)) {
+				return type;
+			}
+		}
 
-							edgeId++;
-						}
+		return BoundaryConditionType.None;
+	}
 
-						// Create new quad, add it to the MeshComponent
-						quad = new Quad(edges, vertices);
-						quad.setPolygonProperties(materialId, groupNum);
+	/**
+	 * Returns the .re2 file that holds the mesh of a reafile, which has the
+	 * same name as the reafile with the .re2 extension.
+	 * 
+	 * @param reaFile
+	 *            The Nek5000 reafile.
+	 * @return The .re2 file.
+	 */
+	private File getRe2File(File reaFile) {
 
-						// Set the boundary conditions of the quad by edge ID
-						int currEdgeId;
-						for (int k = 0; k < 4; k++) { // k < 6 for
-														// three-dimensional
-														// cases
+		// Replace the extension of the reafile
+		String name = reaFile.getName();
+		int extensionIndex = name.lastIndexOf('.');
+		if (extensionIndex > 0) {
+			name = name.substring(0, extensionIndex);
+		}
 
-							// Grab the ID of one of the edges contained in the
-							// quad
-							currEdgeId = edgeIdList.get(k);
+		return new File(reaFile.getAbsoluteFile().getParentFile(), name
+				+ ".re2");
+	}
 
-							// Set the fluid boundary condition for that edge
-							if (ifFlow) {
-								quad.setFluidBoundaryCondition(currEdgeId,
-										fluidBoundaryConditions.get(currEdgeId));
-							}
+	/**
+	 * Reads a Nek5000 .re2 file, which holds the mesh and boundary conditions
+	 * of a problem in binary, and returns them as a MeshComponent of Quads.
+	 * The file is mapped into memory instead of being read through a stream.
+	 * The .re2 file does not say which fields its sets of boundary conditions
+	 * belong to, so this is given by the IFFLOW and IFHEAT logical switches of
+	 * the problem. Any remaining sets are passive scalar boundary conditions.
+	 * 
+	 * @param re2File
+	 *            The Nek5000 .re2 file.
+	 * @param ifFlow
+	 *            True if the first set holds fluid boundary conditions.
+	 * @param ifHeat
+	 *            True if the next set holds thermal boundary conditions.
+	 * @return The MeshComponent with the mesh of the file, or null if the file
+	 *         is invalid.
+	 * @throws FileNotFoundException
+	 *             Thrown when the .re2 file cannot be found
+	 * @throws IOException
+	 *             Thrown when the .re2 file cannot be read or is corrupt
+	 */
+	public MeshComponent loadRE2File(File re2File, boolean ifFlow,
+			boolean ifHeat) throws FileNotFoundException, IOException {
 
-							// Set the thermal boundary condition for that edge
-							if (ifHeat) {
-								quad.setThermalBoundaryCondition(currEdgeId,
-										thermalBoundaryConditions
-												.get(currEdgeId));
-							}
+		// Make sure the file is valid, otherwise just stop here
+		if (re2File == null || !re2File.isFile()) {
+			return null;
+		}
+
+		// Read the file and count the passive scalar sets
+		NekMeshData meshData = NekMeshData.readRe2(re2File);
+		int numScalars = meshData.boundarySets.size() - (ifFlow ? 1 : 0)
+				- (ifHeat ? 1 : 0);
+
+		return buildMesh(meshData, ifFlow, ifHeat, Math.max(numScalars, 0));
+	}
 
-							// Set the passive scalar boundary condition(s) for
-							// that edge (if any)
-							if (numPassiveScalars > 0) {
+	/**
+	 * Loads the MESH DATA section of a reafile and returns the contents as a
+	 * MeshComponent of Quads. Each Quad is assigned a set of BoundaryCondition
+	 * objects based on the unique Edge IDs contained in that Quad.
+	 * 
+	 * Each Quad should have a minimum of two BoundaryConditions associated to
+	 * it (fluid and thermal boundary conditions). A Quad may have N more sets
+	 * of BoundaryConditions, where N is the value defined by NPSCAL in the
+	 * PARAMETERS section (ie. this.numPassiveScalars)
+	 * 
+	 * @param meshData
+	 *            The elements and boundary conditions read from the reafile, or
+	 *            null if it had none.
+	 * @return MeshComponent containing the definition of all mesh elements()
+	 *         defined in the problem, with a set of BoundaryConditions
+	 *         associated to each Quad.
+	 **/
+	private MeshComponent loadMesh(NekMeshData meshData) {
+		return buildMesh(meshData, ifFlow, ifHeat, numPassiveScalars);
+	}
 
-								HashMap<Integer, BoundaryCondition> currSetScalars = new HashMap<Integer, BoundaryCondition>();
+	/**
+	 * Builds the MESH DATA MeshComponent from the elements and boundary
+	 * conditions of a mesh. The sets of boundary conditions are in the order of
+	 * the fields that are solved for: fluid, thermal and then the passive
+	 * scalars.
+	 * 
+	 * @param meshData
+	 *            The elements and boundary conditions of the mesh, or null for
+	 *            an empty mesh.
+	 * @param flow
+	 *            True if there is a set of fluid boundary conditions.
+	 * @param heat
+	 *            True if there is a set of thermal boundary conditions.
+	 * @param numScalars
+	 *            The number of sets of passive scalar boundary conditions.
+	 * @return The MeshComponent of Quads.
+	 */
+	private MeshComponent buildMesh(NekMeshData meshData, boolean flow,
+			boolean heat, int numScalars) {
 
-								for (int ii = 1; ii <= numPassiveScalars; ii++) {
+		// Local declarations for quad building
+		Vertex vertex;
+		Edge edge;
+		Quad quad;
+		ArrayList<Vertex> vertices;
+		ArrayList<Edge> edges;
+		int numCorners = NekMeshData.numCorners;
+		int offset, edgeId;
 
-									// Define the current set of scalar boundary
-									// conditions
-									currSetScalars = scalarBoundaryConditions
-											.get(ii);
+		// Create a mesh component
+		MeshComponent mesh = new MeshComponent();
+		mesh.setName("Mesh Data");
+		mesh.setDescription("Elements contained in the Mesh section of a "
+				+ "Nek5000 reafile");
+		mesh.setId(6);
 
-									// Set the passive scalar boundary condition
-									// for the current edge
-									quad.setOtherBoundaryCondition(currEdgeId,
-											ii, currSetScalars.get(currEdgeId));
-								}
-							}
-						}
+		if (meshData == null) {
+			return mesh;
+		}
 
-						quad.setId(quadId); // Set unique quad ID
-						mesh.addPolygon(quad); // Add the quad to the mesh
-						edgeIdList.clear(); // Clear the quad edge list
+		// Determine which sets of boundary conditions are fluid, thermal and
+		// passive scalar boundary conditions
+		ArrayList<NekMeshData.BoundarySet> sets = meshData.boundarySets;
+		NekMeshData.BoundarySet fluidSet = null, thermalSet = null;
+		ArrayList<NekMeshData.BoundarySet> scalarSets = new ArrayList<NekMeshData.BoundarySet>();
+		int position = 0;
+		if (flow && position < sets.size()) {
+			fluidSet = sets.get(position++);
+		}
+		if (heat && position < sets.size()) {
+			thermalSet = sets.get(position++);
+		}
+		for (int i = 0; i < numScalars && position < sets.size(); i++) {
+			scalarSets.add(sets.get(position++));
+		}
 
-						quadId++;
+		// Build a quad for each element. Vertex, edge and quad IDs are unique
+		// and sequential.
+		float[] coordinates = meshData.coordinates;
+		for (int i = 0; i < meshData.numElements; i++) {
+
+			// Construct the vertices of the corners
+			offset = i * 2 * numCorners;
+			vertices = new ArrayList<Vertex>(numCorners);
+			for (int k = 0; k < numCorners; k++) {
+				vertex = new Vertex(coordinates[offset + k], coordinates[offset
+						+ numCorners + k], 0f);
+				vertex.setId(i * numCorners + k + 1);
+				vertices.add(vertex);
+			}
 
-						// Jump ahead to the next element/quad (if there is one)
-						j += (numDimensions + 1);
-					}
+			// Construct the edges. Edge 1 = Vertices 1 + 2, Edge 2 = Vertices
+			// 2 + 3, Edge 3 = Vertices 3 + 4 and Edge 4 = Vertices 4 + 1.
+			edges = new ArrayList<Edge>(numCorners);
+			for (int k = 0; k < numCorners; k++) {
+				edge = new Edge(vertices.get(k), vertices.get((k + 1)
+						% numCorners));
+				edge.setId(i * numCorners + k + 1);
+				edges.add(edge);
+			}
 
-					else {
-						j++;
-					}
+			// Create new quad
+			quad = new Quad(edges, vertices);
+			quad.setPolygonProperties(meshData.materialIds[i],
+					meshData.groups[i]);
+
+			// Set the boundary conditions of the quad by edge ID
+			for (int k = 0; k < numCorners; k++) {
+				edgeId = i * numCorners + k + 1;
+				if (fluidSet != null) {
+					quad.setFluidBoundaryCondition(edgeId,
+							makeBoundaryCondition(fluidSet, edgeId - 1));
+				}
+				if (thermalSet != null) {
+					quad.setThermalBoundaryCondition(edgeId,
+							makeBoundaryCondition(thermalSet, edgeId - 1));
+				}
+				for (int j = 0; j < scalarSets.size(); j++) {
+					quad.setOtherBoundaryCondition(edgeId, j + 1,
+							makeBoundaryCondition(scalarSets.get(j),
+									edgeId - 1));
 				}
 			}
+
+			// Add the quad to the mesh
+			quad.setId(i + 1);
+			mesh.addPolygon(quad);
 		}
 
 		// Return the Mesh Component containing mesh elements/quads with a
@@ -870,6 +1015,35 @@ public class NekReader {
 		return mesh;
 	}
 
+	/**
+	 * Creates the BoundaryCondition of an element face from a set of boundary
+	 * conditions.
+	 * 
+	 * @param set
+	 *            The set of boundary conditions.
+	 * @param index
+	 *            The index of the face in the set.
+	 * @return The BoundaryCondition, or null if the face has none in the set.
+	 */
+	private BoundaryCondition makeBoundaryCondition(
+			NekMeshData.BoundarySet set, int index) {
+
+		// Local declarations
+		BoundaryCondition condition = null;
+		ArrayList<Float> values;
+
+		if (set.types[index] != null) {
+			condition = new BoundaryCondition(set.types[index]);
+			values = new ArrayList<Float>(5);
+			for (int j = 0; j < 5; j++) {
+				values.add(set.values[index * 5 + j]);
+			}
+			condition.setValues(values);
+		}
+
+		return condition;
+	}
+
 	/**
 	 * Loads the CURVED SIDES section of a reafile and returns the contents as a
 	 * MeshComponent of Quads.
@@ -892,153 +1066,6 @@ public class NekReader {
 		return curvedSides;
 	}
 
-	/**
-	 * Reads in an ArrayList of Strings (lines read from a .rea file) and
-	 * returns an ArrayList of Objects containing the boundary conditions
-	 * extracted from the reafile. The returned ArrayList is of mixed type,
-	 * which necessitates it being of type Object. The contents are:
-	 * 
-	 * [0] : HashMap of fluid BoundaryCondition objects keyed on unique edge ID
-	 * [1] : HashMap of thermal BoundaryCondition objects keyed on unique edge
-	 * ID [2] : ArrayList of n HashMaps of passive scalar BoundaryCondition
-	 * objects keyed on unique edge ID, where n is an integer defined by the
-	 * NPSCAL parameter (ie. this.numPassiveScalars)
-	 * 
-	 * @param realLines
-	 *            Lines of the reafile as an ArrayList of Strings.
-	 * @return An ArrayList of BoundaryCondition HashMaps keyed on unique Edge
-	 *         IDs. Elements 0 and 1 are fluid and thermal boundary condition
-	 *         maps respecively. Elements 2 is an ArrayList of N HashMaps of
-	 *         passive scalar boundary conditions, where N is defined by NPSCAL
-	 *         in the PARAMETERS section (ie. this.numPassiveScalars)
-	 **/
-	private ArrayList<Object> loadBoundaryConditions(ArrayList<String> reaLines) {
-
-		// Local declarations
-		ArrayList<Object> currCondition;
-
-		// Create the HashMaps of thermal and fluid boundary conditions
-		HashMap<Integer, BoundaryCondition> thermalBoundaryConditions = new HashMap<Integer, BoundaryCondition>();
-		HashMap<Integer, BoundaryCondition> fluidBoundaryConditions = new HashMap<Integer, BoundaryCondition>();
-
-		// Create an ArrayList to hold all HashMaps of passive scalar
-		// boundary conditions
-		ArrayList<HashMap<Integer, BoundaryCondition>> scalarBoundaryConditions = new ArrayList<HashMap<Integer, BoundaryCondition>>();
-
-		// Create an ArrayList of Objects to hold all the HashMaps of
-		// boundary conditions (to return)
-		ArrayList<Object> allBoundaryConditions = new ArrayList<Object>();
-
-		// Begin reading the input file lines
-		for (int i = 0; i < reaLines.size(); i++) {
-
-			/** --- Load FLUID boundary conditions --- **/
-
-			// Search for the fluid boundary conditions header
-			if (reaLines.get(i).contains(
-					"***** FLUID   BOUNDARY CONDITIONS *****")) {
-
-				// Jump the iterator 1 line ahead and begin reading in boundary
-				// conditions
-				i += 1;
-
-				for (int j = 0; j < numFluidElements * 4; j++) {
-
-					// Create the current boundary condition object
-					currCondition = buildBoundaryConditionPair(reaLines, i, j);
-
-					// Plug it (along with the unique edge ID it corresponds to)
-					// into the thermal boundary conditions HashMap
-					fluidBoundaryConditions.put((Integer) currCondition.get(0),
-							(BoundaryCondition) currCondition.get(1));
-				}
-
-				allBoundaryConditions.add(fluidBoundaryConditions);
-			}
-
-			/** --- Load THERMAL boundary conditions --- **/
-
-			// Search for the thermal boundary conditions header
-			if (reaLines.get(i).contains(
-					"***** THERMAL BOUNDARY CONDITIONS *****")) {
-
-				// Jump the iterator 1 line ahead and begin reading in boundary
-				// conditions
-				i += 1;
-
-				for (int j = 0; j < numThermalElements * 4; j++) {
-
-					// Create the current boundary condition object
-					currCondition = buildBoundaryConditionPair(reaLines, i, j);
-
-					// Plug it (along with the unique edge ID it corresponds to)
-					// into the thermal boundary conditions HashMap
-					thermalBoundaryConditions.put(
-							(Integer) currCondition.get(0),
-							(BoundaryCondition) currCondition.get(1));
-				}
-
-				allBoundaryConditions.add(thermalBoundaryConditions);
-			}
-
-			/** --- Load PASSIVE SCALAR boundary conditions (if any) --- **/
-			// Find the beginning of the passive scalar BC section
-			if (numPassiveScalars > 0
-					&& reaLines.get(i).contains(
-							"***** PASSIVE SCALAR           "
-									+ "1 BOUNDARY CONDITIONS *****")) {
-
-				// Repeat the following for as many sets of passive scalar
-				// BCs as there are
-				for (int currScalarNum = 1; currScalarNum <= numPassiveScalars; currScalarNum++) {
-
-					// Search for the current scalar header
-					String passiveScalarHeader = "***** PASSIVE SCALAR           "
-							+ currScalarNum + " BOUNDARY CONDITIONS *****";
-					if (reaLines.get(i).contains(passiveScalarHeader)) {
-
-						// Create a HashMap for the current passive scalar
-						// boundary
-						// conditions
-						HashMap<Integer, BoundaryCondition> scalarBoundaryCondition = new HashMap<Integer, BoundaryCondition>();
-
-						// Jump the iterator 1 line ahead and begin reading
-						// in boundary
-						// conditions
-						i += 1;
-
-						for (int j = 0; j < numThermalElements * 4; j++) {
-
-							// Create the current boundary condition object
-							currCondition = buildBoundaryConditionPair(
-									reaLines, i, j);
-
-							// Plug it (along with the unique edge ID it
-							// corresponds to)
-							// into the passive scalar boundary conditions
-							// HashMap
-							scalarBoundaryCondition.put(
-									(Integer) currCondition.get(0),
-									(BoundaryCondition) currCondition.get(1));
-						}
-
-						// Append the HashMap to the list of all passive
-						// scalar
-						// boundary conditions
-						scalarBoundaryConditions.add(scalarBoundaryCondition);
-					}
-
-					// Append the list of all passive scalar boundary
-					// condition
-					// sets to the list of all boundary conditions
-					allBoundaryConditions.add(scalarBoundaryConditions);
-				}
-			}
-		}
-
-		return allBoundaryConditions;
-	}
-
 	/**
 	 * Loads the PRESOLVE/RESTART OPTIONS section of a reafile and returns the
 	 * contents as a DataComponent of Entries. Each line is set an Entry.
@@ -1618,74 +1645,6 @@ public class NekReader {
 		return returnArray;
 	}
 
-	/**
-	 * Creates a pairing of a BoundaryCondition to its unique Edge ID, returned
-	 * as an ArrayList of Objects (edge ID and BoundaryCondition are mixed type,
-	 * necessitating the return to of type Object). The Edge ID is the first
-	 * element, the the BoundaryCondition is the second element. This method
-	 * works for all sets of BoundaryConditions (fluid, thermal, passive
-	 * scalars).
-	 * 
-	 * @param reaLines
-	 *            Lines of the reafile as an ArrayList of Strings.
-	 * @param i
-	 *            The reafile line at which the MESH DATA begins.
-	 * @param j
-	 *            The current line being read inside the MESH DATA section.
-	 * @return An ArrayList containing the unique Edge ID in the first element,
-	 *         and the associated BoundaryCondition in the second element.
-	 */
-	private ArrayList<Object> buildBoundaryConditionPair(
-			ArrayList<String> reaLines, int i, int j) {
-
-		// Local declarations
-		String currLine;
-		ArrayList<Float> currBoundaryValues = new ArrayList<Float>();
-
-		int edgeId;
-		ArrayList<Float> values;
-		BoundaryCondition condition;
-		BoundaryConditionType type;
-
-		// Grab the current line
-		currLine = reaLines.get(i + j);
-
-		// Extract values from current boundary condition
-		String[] splitLine;
-		splitLine = currLine.trim().split("\\s+");
-
-		for (int k = 1; k <= 7; k++) {
-			currBoundaryValues.add(Float.parseFloat(splitLine[k]));
-		}
-
-		// Get the edge ID
-		edgeId = (int) (4 * (currBoundaryValues.get(0) - 1) + currBoundaryValues
-				.get(1));
-
-		// Create the boundary condition object
-		condition = new BoundaryCondition();
-
-		// Set the boundary condition type
-		String rawType = splitLine[0];
-		type = BoundaryConditionType.fromId(rawType);
-		condition.setType(type);
-
-		// Set the boundary condition values
-		values = new ArrayList<Float>();
-		for (int k = 2; k < 7; k++) {
-			values.add(currBoundaryValues.get(k));
-		}
-		condition.setValues(values);
-
-		// Create an Array of Objects to return a unique edge ID and boundary
-		// condition object as a pair
-		ArrayList<Object> boundaryPair = new ArrayList<Object>();
-		boundaryPair.add(edgeId);
-		boundaryPair.add(condition);
-
-		return boundaryPair;
-	}
-
 	/**
 	 * Returns the last ProblemProperties object constructed by the NekReader.
 	 * Intended to be passed on as input for NekWriter.writeREAFile().
@@ -31,6 +31,7 @@ import org.eclipse.ice.datastructures.form.emf.EMFComponent;
 import org.eclipse.ice.viz.service.mesh.datastructures.BoundaryCondition;
 import org.eclipse.ice.viz.service.mesh.datastructures.BoundaryConditionType;
 import org.eclipse.ice.viz.service.mesh.datastructures.Edge;
+import org.eclipse.ice.viz.service.mesh.datastructures.Polygon;
 import org.eclipse.ice.viz.service.mesh.datastructures.Quad;
 import org.eclipse.ice.viz.service.mesh.datastructures.Vertex;
 
@@ -147,6 +148,193 @@ public class NekWriter implements IComponentVisitor {
 		return;
 	}
 
+	/**
+	 * Writes the MESH DATA MeshComponent of a Component collection into the
+	 * specified output file using the binary Nek5000 .re2 format. The file
+	 * holds the elements and the boundary conditions of the mesh. It is read by
+	 * Nek5000 along with a reafile of the same name whose NEL is negative.
+	 * 
+	 * The sets of boundary conditions are written in the order of the fields
+	 * that are solved for: fluid (if IFFLOW is set), thermal (if IFHEAT is set)
+	 * and then one set for each passive scalar. If there is no Logical Switches
+	 * Component, fluid and thermal boundary conditions are written if any
+	 * element has them. Only the first NELV elements have fluid boundary
+	 * conditions. Reals are written with double precision (#v002).
+	 * 
+	 * @param components
+	 *            An ArrayList of Components, can be assumed to be a mix of
+	 *            DataComponents and MeshComponents
+	 * @param outputFile
+	 *            The .re2 file to write to
+	 * @param properties
+	 *            Properties of the Nek problem
+	 * @throws IOException
+	 *             Thrown when the file cannot be written, or when the mesh is
+	 *             not two dimensional
+	 */
+	public void writeRe2File(ArrayList<Component> components, File outputFile,
+			ProblemProperties properties) throws IOException {
+
+		// Check that all input parameters are valid
+		if (components != null && outputFile != null && properties != null
+				&& properties.getNumDimensions() > 0
+				&& properties.getNumFluidElements() >= 0
+				&& properties.getNumPassiveScalars() >= 0) {
+
+			// Set the problem properties
+			this.properties = properties;
+
+			// Verify all the Components are valid and then add componentMap Map
+			for (int i = 0; i < components.size(); i++) {
+				components.get(i).accept(this);
+			}
+
+			// Write the mesh if there is one
+			MeshComponent mesh = (MeshComponent) componentMap.get("Mesh Data");
+			if (mesh != null) {
+				buildMeshData(mesh).writeRe2(outputFile, true);
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * Copies the elements and boundary conditions of the MESH DATA
+	 * MeshComponent into the flat arrays of a NekMeshData for writeRe2File().
+	 * 
+	 * @param mesh
+	 *            The MESH DATA MeshComponent.
+	 * @return The elements and boundary conditions of the mesh.
+	 */
+	private NekMeshData buildMeshData(MeshComponent mesh) {
+
+		// Local declarations
+		ArrayList<Polygon> polygons = mesh.getPolygons();
+		int numElements = polygons.size();
+		int numFluidElements = Math.min(properties.getNumFluidElements(),
+				numElements);
+		int numScalars = properties.getNumPassiveScalars();
+		int numCorners = NekMeshData.numCorners;
+		NekMeshData meshData = new NekMeshData(numElements,
+				properties.getNumDimensions(), numFluidElements);
+		NekMeshData.BoundarySet fluidSet = new NekMeshData.BoundarySet(
+				numElements);
+		NekMeshData.BoundarySet thermalSet = new NekMeshData.BoundarySet(
+				numElements);
+		ArrayList<NekMeshData.BoundarySet> scalarSets = new ArrayList<NekMeshData.BoundarySet>();
+		boolean hasFluid = false, hasThermal = false;
+		Polygon currPolygon;
+		ArrayList<Vertex> currVertices;
+		ArrayList<Edge> currEdges;
+		int currEdgeId, index;
+
+		for (int k = 0; k < numScalars; k++) {
+			scalarSets.add(new NekMeshData.BoundarySet(numElements));
+		}
+
+		// Iterate through the mesh elements
+		for (int i = 0; i < numElements; i++) {
+
+			// Copy the group number and the coordinates of the vertices
+			currPolygon = polygons.get(i);
+			meshData.groups[i] = currPolygon.getPolygonProperties()
+					.getGroupNum();
+			meshData.materialIds[i] = currPolygon.getPolygonProperties()
+					.getMaterialId();
+			currVertices = currPolygon.getVertices();
+			for (int k = 0; k < numCorners; k++) {
+				meshData.coordinates[i * 2 * numCorners + k] = currVertices
+						.get(k).getLocation()[0];
+				meshData.coordinates[i * 2 * numCorners + numCorners + k] = currVertices
+						.get(k).getLocation()[1];
+			}
+
+			// Copy the boundary conditions of the edges that have them
+			currEdges = currPolygon.getEdges();
+			for (int j = 0; j < numCorners; j++) {
+				currEdgeId = currEdges.get(j).getId();
+				index = i * numCorners + j;
+				if (i < numFluidElements) {
+					hasFluid |= copyBoundaryCondition(
+							currPolygon.getFluidBoundaryCondition(currEdgeId),
+							fluidSet, index);
+				}
+				hasThermal |= copyBoundaryCondition(
+						currPolygon.getThermalBoundaryCondition(currEdgeId),
+						thermalSet, index);
+				for (int k = 0; k < numScalars; k++) {
+					copyBoundaryCondition(
+							currPolygon.getOtherBoundaryCondition(currEdgeId,
+									k + 1), scalarSets.get(k), index);
+				}
+			}
+		}
+
+		// Add the sets of the fields that are solved for, in order
+		Boolean ifFlow = getLogicalSwitch("IFFLOW");
+		Boolean ifHeat = getLogicalSwitch("IFHEAT");
+		if (ifFlow != null ? ifFlow : hasFluid) {
+			meshData.boundarySets.add(fluidSet);
+		}
+		if (ifHeat != null ? ifHeat : hasThermal) {
+			meshData.boundarySets.add(thermalSet);
+		}
+		meshData.boundarySets.addAll(scalarSets);
+
+		return meshData;
+	}
+
+	/**
+	 * Copies a BoundaryCondition into a set of boundary conditions if it is
+	 * not null and its type is not None.
+	 * 
+	 * @param condition
+	 *            The BoundaryCondition.
+	 * @param set
+	 *            The set of boundary conditions.
+	 * @param index
+	 *            The index of the element face in the set.
+	 * @return True if the condition was copied, false otherwise.
+	 */
+	private boolean copyBoundaryCondition(BoundaryCondition condition,
+			NekMeshData.BoundarySet set, int index) {
+
+		// Check that the condition is valid
+		if (condition == null
+				|| condition.getType() == BoundaryConditionType.None) {
+			return false;
+		}
+
+		// Copy its type and values
+		ArrayList<Float> values = condition.getValues();
+		set.types[index] = condition.getType();
+		for (int j = 0; j < 5; j++) {
+			set.values[index * 5 + j] = values.get(j);
+		}
+
+		return true;
+	}
+
+	/**
+	 * Returns the value of a logical switch from the LOGICAL SWITCHES
+	 * DataComponent in the componentMap.
+	 * 
+	 * @param name
+	 *            The name of the switch, such as IFFLOW.
+	 * @return True if the switch is set, false if it is not, or null if there
+	 *         is no such switch.
+	 */
+	private Boolean getLogicalSwitch(String name) {
+
+		// Local declarations
+		DataComponent switches = (DataComponent) componentMap
+				.get("Logical Switches");
+		Entry entry = (switches != null ? switches.retrieveEntry(name) : null);
+
+		return (entry != null ? "YES".equals(entry.getValue()) : null);
+	}
+
 	/**
 	 * Writes an ICE header at the top of the reafile, providing the date, time
 	 * and hostname where the file was generated.
@@ -0,0 +1,447 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.nek5000;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+/**
+ * This class reads the lines of a Nek5000 reafile from a stream through a
+ * fixed size buffer. The current line is kept as bytes in a reusable array so
+ * that the numbers in the large mesh and boundary condition sections can be
+ * split into tokens and parsed without creating a String for every line or
+ * number. Lines are only converted to Strings when they are asked for.
+ *
+ * Bytes are converted to chars one for one (ISO-8859-1), which is how the
+ * reafile has always been read by the NekReader.
+ *
+ */
+class ReaLineReader {
+
+	/**
+	 * The charset used to convert lines to Strings.
+	 */
+	private static final Charset charset = Charset.forName("ISO-8859-1");
+
+	/**
+	 * The powers of ten that are exactly representable as doubles.
+	 */
+	private static final double[] powersOfTen = { 1e0, 1e1, 1e2, 1e3, 1e4,
+			1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16,
+			1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+	/**
+	 * The stream that is read.
+	 */
+	private final InputStream stream;
+
+	/**
+	 * The buffer of bytes read from the stream.
+	 */
+	private final byte[] buffer = new byte[65536];
+
+	/**
+	 * The position of the next unread byte in the buffer.
+	 */
+	private int position = 0;
+
+	/**
+	 * The number of valid bytes in the buffer.
+	 */
+	private int limit = 0;
+
+	/**
+	 * The bytes of the current line, without its newline.
+	 */
+	private byte[] line = new byte[256];
+
+	/**
+	 * The number of bytes in the current line.
+	 */
+	private int length = 0;
+
+	/**
+	 * The start (inclusive) and end (exclusive) of each token in the current
+	 * line after it has been split by {@link #split()}.
+	 */
+	private int[] tokenStarts = new int[16], tokenEnds = new int[16];
+
+	/**
+	 * The number of tokens in the current line after it has been split by
+	 * {@link #split()}.
+	 */
+	private int numTokens = 0;
+
+	/**
+	 * The constructor.
+	 *
+	 * @param stream
+	 *            The stream to read. It is not closed by this class.
+	 */
+	public ReaLineReader(InputStream stream) {
+		this.stream = stream;
+	}
+
+	/**
+	 * This operation reads the next line. Newline characters are not part of
+	 * the line, but carriage returns are kept just as they were when the file
+	 * was split on newlines.
+	 *
+	 * @return True if a line was read, false if the end of the stream was
+	 *         reached.
+	 * @throws IOException
+	 *             Thrown when the stream cannot be read
+	 */
+	public boolean nextLine() throws IOException {
+
+		// Local Declarations
+		boolean found = false;
+		byte currByte;
+
+		length = 0;
+		numTokens = 0;
+		while (true) {
+			// Refill the buffer when it is empty
+			if (position == limit) {
+				limit = stream.read(buffer, 0, buffer.length);
+				position = 0;
+				if (limit <= 0) {
+					limit = 0;
+					return found;
+				}
+			}
+			found = true;
+			// Copy bytes up to the end of the line
+			while (position < limit) {
+				currByte = buffer[position++];
+				if (currByte == '\n') {
+					return true;
+				}
+				if (length == line.length) {
+					byte[] newLine = new byte[line.length * 2];
+					System.arraycopy(line, 0, newLine, 0, length);
+					line = newLine;
+				}
+				line[length++] = currByte;
+			}
+		}
+	}
+
+	/**
+	 * This operation returns the current line as a String.
+	 *
+	 * @return The current line.
+	 */
+	public String getLine() {
+		return new String(line, 0, length, charset);
+	}
+
+	/**
+	 * This operation checks whether or not the current line contains an ASCII
+	 * String.
+	 *
+	 * @param text
+	 *            The text to look for.
+	 * @return True if the line contains the text, false otherwise.
+	 */
+	public boolean contains(String text) {
+
+		// Local Declarations
+		int textLength = text.length();
+		int i, j;
+
+		for (i = 0; i <= length - textLength; i++) {
+			for (j = 0; j < textLength && line[i + j] == text.charAt(j); j++) {
+				// Keep matching
+			}
+			if (j == textLength) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * This operation splits the current line into tokens separated by
+	 * whitespace, the same way that the trimmed line would be split by the
+	 * regular expression "\\s+".
+	 *
+	 * @return The number of tokens.
+	 */
+	public int split() {
+
+		// Local Declarations
+		int i = 0;
+
+		numTokens = 0;
+		while (i < length) {
+			// Skip the whitespace before the next token
+			while (i < length && line[i] <= ' ') {
+				i++;
+			}
+			if (i == length) {
+				break;
+			}
+			// Store the bounds of the token
+			if (numTokens == tokenStarts.length) {
+				int[] newStarts = new int[numTokens * 2];
+				int[] newEnds = new int[numTokens * 2];
+				System.arraycopy(tokenStarts, 0, newStarts, 0, numTokens);
+				System.arraycopy(tokenEnds, 0, newEnds, 0, numTokens);
+				tokenStarts = newStarts;
+				tokenEnds = newEnds;
+			}
+			tokenStarts[numTokens] = i;
+			while (i < length && line[i] > ' ') {
+				i++;
+			}
+			tokenEnds[numTokens++] = i;
+		}
+
+		return numTokens;
+	}
+
+	/**
+	 * This operation returns a token of the current line as a String.
+	 * {@link #split()} must be called first.
+	 *
+	 * @param index
+	 *            The index of the token.
+	 * @return The token.
+	 */
+	public String getToken(int index) {
+		checkIndex(index);
+		return new String(line, tokenStarts[index], tokenEnds[index]
+				- tokenStarts[index], charset);
+	}
+
+	/**
+	 * This operation checks whether or not a token of the current line is
+	 * equal to an ASCII String. {@link #split()} must be called first.
+	 *
+	 * @param index
+	 *            The index of the token.
+	 * @param text
+	 *            The text to compare with the token.
+	 * @return True if the token and the text are equal, false otherwise.
+	 */
+	public boolean tokenEquals(int index, String text) {
+
+		// Local Declarations
+		checkIndex(index);
+		int start = tokenStarts[index];
+		int tokenLength = tokenEnds[index] - start;
+
+		if (tokenLength != text.length()) {
+			return false;
+		}
+		for (int i = 0; i < tokenLength; i++) {
+			if (line[start + i] != text.charAt(i)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * This operation returns the last character of a token of the current
+	 * line. {@link #split()} must be called first.
+	 *
+	 * @param index
+	 *            The index of the token.
+	 * @return The last character of the token.
+	 */
+	public char getLastChar(int index) {
+		checkIndex(index);
+		return (char) (line[tokenEnds[index] - 1] & 0xff);
+	}
+
+	/**
+	 * This operation parses a token of the current line as an int.
+	 * {@link #split()} must be called first.
+	 *
+	 * @param index
+	 *            The index of the token.
+	 * @return The int value of the token.
+	 * @throws NumberFormatException
+	 *             Thrown when the token is not an int
+	 */
+	public int parseInt(int index) {
+
+		// Local Declarations
+		checkIndex(index);
+		int start = tokenStarts[index], end = tokenEnds[index];
+		boolean negative = false;
+		long value = 0;
+		int i = start;
+
+		if (i < end && (line[i] == '-' || line[i] == '+')) {
+			negative = (line[i] == '-');
+			i++;
+		}
+		if (i == end || end - i > 10) {
+			return Integer.parseInt(getToken(index));
+		}
+		for (; i < end; i++) {
+			if (line[i] < '0' || line[i] > '9') {
+				return Integer.parseInt(getToken(index));
+			}
+			value = value * 10 + (line[i] - '0');
+		}
+		value = (negative ? -value : value);
+		if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+			return Integer.parseInt(getToken(index));
+		}
+
+		return (int) value;
+	}
+
+	/**
+	 * This operation parses a token of the current line as a float. Plain
+	 * decimal numbers with up to 15 significant digits and small exponents,
+	 * which is every number written in a reafile, are parsed in place. Fortran
+	 * style exponents ('D') are accepted. Anything else is handed to
+	 * {@link Float#parseFloat(String)}. {@link #split()} must be called first.
+	 *
+	 * @param index
+	 *            The index of the token.
+	 * @return The float value of the token.
+	 * @throws NumberFormatException
+	 *             Thrown when the token is not a number
+	 */
+	public float parseFloat(int index) {
+
+		// Local Declarations
+		checkIndex(index);
+		int start = tokenStarts[index], end = tokenEnds[index];
+		int i = start, digits = 0, exponent = 0, exponentValue = 0;
+		boolean negative = false, negativeExponent = false, hasDigits = false;
+		long mantissa = 0;
+		double value;
+		byte currByte;
+
+		// Read the sign
+		if (i < end && (line[i] == '-' || line[i] == '+')) {
+			negative = (line[i] == '-');
+			i++;
+		}
+
+		// Read the integer and fraction digits
+		boolean fraction = false;
+		for (; i < end; i++) {
+			currByte = line[i];
+			if (currByte >= '0' && currByte <= '9') {
+				hasDigits = true;
+				if (mantissa == 0 && currByte == '0') {
+					// Leading zeros are not significant
+					if (fraction) {
+						exponent--;
+					}
+				} else if (digits < 15) {
+					mantissa = mantissa * 10 + (currByte - '0');
+					digits++;
+					if (fraction) {
+						exponent--;
+					}
+				} else {
+					// Too many digits to parse in place
+					return parseFloatToken(index);
+				}
+			} else if (currByte == '.' && !fraction) {
+				fraction = true;
+			} else {
+				break;
+			}
+		}
+		if (!hasDigits) {
+			return parseFloatToken(index);
+		}
+
+		// Read the exponent
+		if (i < end) {
+			currByte = line[i];
+			if (currByte != 'E' && currByte != 'e' && currByte != 'D'
+					&& currByte != 'd') {
+				return parseFloatToken(index);
+			}
+			i++;
+			if (i < end && (line[i] == '-' || line[i] == '+')) {
+				negativeExponent = (line[i] == '-');
+				i++;
+			}
+			if (i == end || end - i > 3) {
+				return parseFloatToken(index);
+			}
+			for (; i < end; i++) {
+				if (line[i] < '0' || line[i] > '9') {
+					return parseFloatToken(index);
+				}
+				exponentValue = exponentValue * 10 + (line[i] - '0');
+			}
+			exponent += (negativeExponent ? -exponentValue : exponentValue);
+		}
+
+		// The mantissa and the power of ten are both exact, so the double is
+		// correctly rounded
+		if (mantissa == 0) {
+			value = 0.0;
+		} else if (exponent >= 0 && exponent < powersOfTen.length) {
+			value = mantissa * powersOfTen[exponent];
+		} else if (exponent < 0 && -exponent < powersOfTen.length) {
+			value = mantissa / powersOfTen[-exponent];
+		} else {
+			return parseFloatToken(index);
+		}
+
+		return (float) (negative ? -value : value);
+	}
+
+	/**
+	 * This operation parses a token with {@link Float#parseFloat(String)},
+	 * replacing Fortran style exponents first.
+	 *
+	 * @param index
+	 *            The index of the token.
+	 * @return The float value of the token.
+	 */
+	private float parseFloatToken(int index) {
+
+		// Local Declarations
+		String token = getToken(index);
+
+		try {
+			return Float.parseFloat(token);
+		} catch (NumberFormatException e) {
+			return Float.parseFloat(token.replace('D', 'E').replace('d', 'e'));
+		}
+	}
+
+	/**
+	 * This operation checks that a token exists in the current line.
+	 *
+	 * @param index
+	 *            The index of the token.
+	 * @throws IndexOutOfBoundsException
+	 *             Thrown when the line does not have the token
+	 */
+	private void checkIndex(int index) {
+		if (index < 0 || index >= numTokens) {
+			throw new IndexOutOfBoundsException("ReaLineReader Message: "
+					+ "Token " + index + " is not in the line \""
+					+ getLine() + "\".");
+		}
+	}
+}
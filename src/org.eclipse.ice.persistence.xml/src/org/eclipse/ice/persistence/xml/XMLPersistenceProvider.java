@@ -14,11 +14,20 @@ package org.eclipse.ice.persistence.xml;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.List;
-import java.util.Set;
+import java.util.Properties;
+import java.util.TreeSet;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -35,7 +44,9 @@ import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IWorkspaceRoot;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
-import org.eclipse.ice.core.iCore.IPersistenceProvider;
+import org.eclipse.ice.core.iCore.IIndexedPersistenceProvider;
+import org.eclipse.ice.datastructures.ICEObject.ICEObject;
+import org.eclipse.ice.datastructures.ICEObject.Identifiable;
 import org.eclipse.ice.datastructures.form.Entry;
 import org.eclipse.ice.datastructures.form.Form;
 import org.eclipse.ice.datastructures.jaxbclassprovider.IJAXBClassProvider;
@@ -58,7 +69,17 @@ import org.slf4j.LoggerFactory;
  * 
  * All of the operations performed by this class except for those that load
  * Items are handled on a separate, non-blocking thread. Loading operations are
- * blocking.
+ * blocking. Repeated persists of an Item that are still waiting on the queue
+ * are collapsed into a single write of the Item's latest state. loadItems()
+ * unmarshals the Items in parallel on a small, bounded pool of threads and each
+ * thread reuses its own (un)marshaller.
+ * 
+ * The provider also keeps an index of the id, name and description of every
+ * persisted Item in itemIndex.properties in the project space. The index is
+ * rewritten by the event loop after Items are persisted or deleted and allows
+ * clients to list all of the Items with loadItemIndex() without unmarshalling
+ * them. Items that are missing from the index, for example because their files
+ * were copied into the project by hand, are loaded once and added to it.
  * 
  * Items that are loaded by the provider are not constructed with a project.
  * 
@@ -76,8 +97,8 @@ import org.slf4j.LoggerFactory;
  * @author Jay Jay Billings
  * 
  */
-public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
-		IReader, IWriter {
+public class XMLPersistenceProvider implements IIndexedPersistenceProvider,
+		Runnable, IReader, IWriter {
 
 	/**
 	 * Logger for handling event messages and other information.
@@ -103,9 +124,15 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 	 */
 	private static class QueuedTask {
 		/**
-		 * The item that should be processed.
+		 * The item that should be processed. For a persist, this is replaced
+		 * by the latest Item submitted with the same id until the task is
+		 * taken off of the queue.
 		 */
 		public Item item;
+		/**
+		 * The id of the Item when the task was submitted.
+		 */
+		public int itemId;
 		/**
 		 * The task that should be performed; one of "persist," "delete," or
 		 * "write."
@@ -128,6 +155,24 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 	ArrayBlockingQueue<QueuedTask> taskQueue = new ArrayBlockingQueue<QueuedTask>(
 			1024);
 
+	/**
+	 * The persist tasks that are waiting on the queue, keyed by Item id. A
+	 * persist of an Item whose id already has a waiting task updates that task
+	 * instead of adding a new one. This map is also the lock used to
+	 * coordinate submitting and taking persist and delete tasks.
+	 */
+	private HashMap<Integer, QueuedTask> pendingPersists = new HashMap<Integer, QueuedTask>();
+
+	/**
+	 * The maximum number of threads used by loadItems().
+	 */
+	private static final int maxLoadThreads = 8;
+
+	/**
+	 * The name of the index file in the project space.
+	 */
+	private static final String indexFileName = "itemIndex.properties";
+
 	/**
 	 * A private thread on which the event loop is run. The runnable for this
 	 * thread is the current instance of this class. All work is processed on
@@ -154,6 +199,29 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 	 */
 	private Hashtable<Integer, String> itemIdMap = new Hashtable<Integer, String>();
 
+	/**
+	 * The index of the persisted Items. The keys are the ids of the Items and
+	 * the values hold their ids, names and descriptions. It is written to the
+	 * index file in the project space by the event loop.
+	 */
+	private Hashtable<Integer, ICEObject> itemIndex = new Hashtable<Integer, ICEObject>();
+
+	/**
+	 * True if the index has changed since it was last written to disk.
+	 */
+	private AtomicBoolean indexChanged = new AtomicBoolean();
+
+	/**
+	 * The Marshaller used by each thread. JAXB Marshallers are not thread-safe
+	 * but are expensive to create, so each thread creates one and reuses it.
+	 */
+	private ThreadLocal<Marshaller> marshallers = new ThreadLocal<Marshaller>();
+
+	/**
+	 * The Unmarshaller used by each thread.
+	 */
+	private ThreadLocal<Unmarshaller> unmarshallers = new ThreadLocal<Unmarshaller>();
+
 	/**
 	 * The list of IJAXBClassProviders to be used in the construction of the
 	 * JAXBContext.
@@ -252,6 +320,167 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 		return;
 	}
 
+	/**
+	 * This operation reads the index file from the project space. Only the
+	 * entries for Items that were found by loadItemIdMap() are kept, so that
+	 * the index always agrees with the files in the project.
+	 */
+	private void readIndex() {
+
+		// Local Declarations
+		IFile indexFile = project.getFile(indexFileName);
+		Properties properties = new Properties();
+		InputStream stream = null;
+
+		// Read the index if it exists
+		if (indexFile.exists()) {
+			try {
+				stream = indexFile.getContents();
+				properties.load(stream);
+			} catch (CoreException e) {
+				logger.error(getClass().getName() + " Exception!", e);
+			} catch (IOException e) {
+				logger.error(getClass().getName() + " Exception!", e);
+			} finally {
+				closeStream(stream);
+			}
+		}
+
+		// Create an index entry for every Item in the project whose file name
+		// matches the index
+		for (Integer id : itemIdMap.keySet()) {
+			String prefix = id + ".";
+			if (itemIdMap.get(id).equals(
+					properties.getProperty(prefix + "file"))) {
+				ICEObject entry = new ICEObject();
+				entry.setId(id);
+				entry.setName(properties.getProperty(prefix + "name", ""));
+				entry.setDescription(properties.getProperty(prefix
+						+ "description", ""));
+				itemIndex.put(id, entry);
+			}
+		}
+
+		// The index needs to be rewritten if it described other Items
+		if (properties.size() != 3 * itemIndex.size()) {
+			indexChanged.set(true);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation writes the index to the index file in the project space.
+	 * It is only called from the event loop.
+	 */
+	private void writeIndex() {
+
+		// Local Declarations
+		Properties properties = new Properties();
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		IFile indexFile = project.getFile(indexFileName);
+
+		// Store the file, name and description of each Item
+		for (ICEObject entry : new ArrayList<ICEObject>(itemIndex.values())) {
+			String prefix = entry.getId() + ".";
+			String fileName = itemIdMap.get(entry.getId());
+			if (fileName != null) {
+				properties.setProperty(prefix + "file", fileName);
+				properties.setProperty(prefix + "name", entry.getName());
+				properties.setProperty(prefix + "description",
+						entry.getDescription());
+			}
+		}
+
+		try {
+			// Write it to the file
+			properties.store(outputStream, "ICE Item index");
+			ByteArrayInputStream inputStream = new ByteArrayInputStream(
+					outputStream.toByteArray());
+			if (indexFile.exists()) {
+				indexFile.setContents(inputStream, IResource.FORCE, null);
+			} else {
+				indexFile.create(inputStream, IResource.FORCE, null);
+			}
+		} catch (IOException e) {
+			logger.error(getClass().getName() + " Exception!", e);
+		} catch (CoreException e) {
+			logger.error(getClass().getName() + " Exception!", e);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation creates an index entry for an Item.
+	 * 
+	 * @param item
+	 *            The Item
+	 * @return The entry holding the id, name and description of the Item
+	 */
+	private ICEObject createIndexEntry(Item item) {
+		ICEObject entry = new ICEObject();
+		entry.setId(item.getId());
+		entry.setName(item.getName() != null ? item.getName() : "");
+		entry.setDescription(item.getDescription() != null ? item
+				.getDescription() : "");
+		return entry;
+	}
+
+	/**
+	 * This operation closes a stream and logs any error.
+	 * 
+	 * @param stream
+	 *            The stream to close. It may be null.
+	 */
+	private void closeStream(InputStream stream) {
+		if (stream != null) {
+			try {
+				stream.close();
+			} catch (IOException e) {
+				logger.error(getClass().getName() + " Exception!", e);
+			}
+		}
+	}
+
+	/**
+	 * This operation returns the Marshaller for the current thread, creating
+	 * it if needed. The Marshaller formats its output.
+	 * 
+	 * @return The Marshaller
+	 * @throws JAXBException
+	 *             An exception indicating that the Marshaller could not be
+	 *             created.
+	 */
+	private Marshaller getMarshaller() throws JAXBException {
+		Marshaller marshaller = marshallers.get();
+		if (marshaller == null) {
+			marshaller = context.createMarshaller();
+			marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT,
+					Boolean.TRUE);
+			marshallers.set(marshaller);
+		}
+		return marshaller;
+	}
+
+	/**
+	 * This operation returns the Unmarshaller for the current thread, creating
+	 * it if needed.
+	 * 
+	 * @return The Unmarshaller
+	 * @throws JAXBException
+	 *             An exception indicating that the Unmarshaller could not be
+	 *             created.
+	 */
+	private Unmarshaller getUnmarshaller() throws JAXBException {
+		Unmarshaller unmarshaller = unmarshallers.get();
+		if (unmarshaller == null) {
+			unmarshaller = context.createUnmarshaller();
+			unmarshallers.set(unmarshaller);
+		}
+		return unmarshaller;
+	}
+
 	/**
 	 * This operation is responsible for creating the project space used by the
 	 * XMLPersistenceProvider.
@@ -341,8 +570,10 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 		// Create the JAXB context
 		createJAXBContext();
 
-		// Get the names and ids for all of the Items that have been persisted.
+		// Get the names and ids for all of the Items that have been persisted
+		// and read their index.
 		loadItemIdMap();
+		readIndex();
 
 		// Start the event loop
 		runFlag.set(true);
@@ -363,8 +594,6 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 	 */
 	public void stop() {
 
-		long counter = 0, maxPollCount = 60;
-
 		// Debug information
 		logger.info("XMLPersistenceProvider Message: " + "Stopping Provider!");
 
@@ -372,24 +601,13 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 		if (eventLoop != null) {
 			// Thrown the flag to shut down the thread
 			runFlag.set(false);
-			// Watch the thread until it shuts down or for one minute,
-			// whichever is sooner.
-			while (counter < maxPollCount) {
-				if (eventLoop.isAlive()) {
-					Thread.currentThread();
-					try {
-						// Sleep for a second if the event loop is still busy
-						Thread.sleep(1000);
-					} catch (InterruptedException e) {
-						// Complain if something interrupts naptime!
-						logger.error(getClass().getName() + " Exception!",e);
-					}
-					// Increment the counter
-					counter++;
-				} else {
-					// Just quit because the event loop has already died.
-					break;
-				}
+			// Wait for the thread to finish the queue and shut down or for
+			// one minute, whichever is sooner.
+			try {
+				eventLoop.join(60000);
+			} catch (InterruptedException e) {
+				// Complain if something interrupts naptime!
+				logger.error(getClass().getName() + " Exception!", e);
 			}
 		}
 
@@ -434,13 +652,9 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 	private ByteArrayOutputStream createXMLStream(Object obj) {
 		// Get the XML
 		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-		// Create the marshaller and write the item
-		Marshaller marshaller;
+		// Get the marshaller and write the item
 		try {
-			marshaller = context.createMarshaller();
-			marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT,
-					Boolean.TRUE);
-			marshaller.marshal(obj, outputStream);
+			getMarshaller().marshal(obj, outputStream);
 		} catch (JAXBException e) {
 			// Complain
 			logger.error(getClass().getName() + " Exception!",e);
@@ -490,44 +704,52 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 		// Local Declarations
 		String name = null;
 		IFile file = null;
+		Item item = currentTask.item;
 
 		try {
-			// Handle the task if it is available
-			if (currentTask != null) {
-				// Get the file name if this is a persist or delete
-				if ("persist".equals(currentTask.task)
-						|| "delete".equals(currentTask.task)) {
-					// Setup the file name
-					name = currentTask.item.getName().replaceAll("\\s+", "_")
-							+ "_" + currentTask.item.getId() + ".xml";
-					// Get the file in the project
-					file = project.getFile(name);
-				}
-				// Process persists
-				if ("persist".equals(currentTask.task)
-						&& !(currentTask.item instanceof ReactorAnalyzer)) {
-					// Send the Item off to be written to the file
-					writeFile(currentTask.item, file);
-					// Update the item id map
-					itemIdMap.put(currentTask.item.getId(), file.getName());
-				} else if ("delete".equals(currentTask.task) && file.exists()) {
-					// Handle deletes
-					file.delete(true, null);
-					// Update the item id map
-					itemIdMap.remove(currentTask.item.getId());
-				} else if ("write".equals(currentTask.task)) {
-					// Deal with simple Form write requests from the IWriter
-					// interface.
-					writeFile(currentTask.form, currentTask.file);
+			// Take the latest state of the Item for persists. The task is
+			// skipped if the Item was deleted after it was submitted.
+			if ("persist".equals(currentTask.task)) {
+				synchronized (pendingPersists) {
+					if (pendingPersists.get(currentTask.itemId) == currentTask) {
+						pendingPersists.remove(currentTask.itemId);
+						item = currentTask.item;
+					} else {
+						item = null;
+					}
 				}
-			} else {
-				// Otherwise sleep for a bit
-				Thread.currentThread();
-				Thread.sleep(1000);
 			}
-		} catch (InterruptedException e) {
-			// Complain
-			logger.error(getClass().getName() + " Exception!",e);
+			// Get the file name if this is a persist or delete
+			if (item != null
+					&& ("persist".equals(currentTask.task) || "delete"
+							.equals(currentTask.task))) {
+				// Setup the file name
+				name = item.getName().replaceAll("\\s+", "_") + "_"
+						+ item.getId() + ".xml";
+				// Get the file in the project
+				file = project.getFile(name);
+			}
+			// Process persists
+			if ("persist".equals(currentTask.task) && item != null
+					&& !(item instanceof ReactorAnalyzer)) {
+				// Send the Item off to be written to the file
+				writeFile(item, file);
+				// Update the item id map and the index
+				itemIdMap.put(item.getId(), file.getName());
+				itemIndex.put(item.getId(), createIndexEntry(item));
+				indexChanged.set(true);
+			} else if ("delete".equals(currentTask.task) && file.exists()) {
+				// Handle deletes
+				file.delete(true, null);
+				// Update the item id map and the index
+				itemIdMap.remove(item.getId());
+				itemIndex.remove(item.getId());
+				indexChanged.set(true);
+			} else if ("write".equals(currentTask.task)) {
+				// Deal with simple Form write requests from the IWriter
+				// interface.
+				writeFile(currentTask.form, currentTask.file);
+			}
 		} catch (CoreException e) {
 			// Complain
 			logger.error(getClass().getName() + " Exception!",e);
@@ -539,19 +761,36 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 	/**
 	 * The event loop. When Items are persisted, loaded, deleted or updated,
 	 * they are added to the queue and those operations are processed on this
-	 * thread.
+	 * thread. The loop blocks until a task is available, processes every task
+	 * that is waiting and then rewrites the index if it changed. Once the
+	 * provider is stopped, the remaining tasks are processed before the loop
+	 * exits.
 	 */
 	@Override
 	public void run() {
 
+		// Local Declarations
+		ArrayList<QueuedTask> tasks = new ArrayList<QueuedTask>();
+
 		// While the provider is set to run, just process tasks from the
 		// queue
-		while (runFlag.get()) {
+		while (runFlag.get() || !taskQueue.isEmpty()) {
 			try {
-				// Grab the next task
+				// Wait for the next task and grab everything behind it
 				QueuedTask currentTask = taskQueue.poll(2, TimeUnit.SECONDS);
-				// Process it
-				processTask(currentTask);
+				if (currentTask != null) {
+					tasks.add(currentTask);
+					taskQueue.drainTo(tasks);
+				}
+				// Process them
+				for (QueuedTask task : tasks) {
+					processTask(task);
+				}
+				tasks.clear();
+				// Write the index if the tasks changed it
+				if (indexChanged.getAndSet(false)) {
+					writeIndex();
+				}
 			} catch (InterruptedException e) {
 				// TODO Auto-generated catch block
 				logger.error(getClass().getName() + " Exception!",e);
@@ -583,14 +822,32 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 		if (item != null) {
 			// Setup the task
 			task.item = item;
+			task.itemId = item.getId();
 			task.task = taskName;
-			// Submit the task
-			try {
-				taskQueue.add(task);
-			} catch (Exception exception) {
-				// Complain
-				exception.printStackTrace();
-				retVal = false;
+			// Submit the task. Persists and deletes are synchronized with the
+			// event loop so that a waiting persist can be updated with the
+			// latest Item or cancelled by a delete.
+			synchronized (pendingPersists) {
+				QueuedTask pendingTask = pendingPersists.get(task.itemId);
+				if ("persist".equals(taskName) && pendingTask != null) {
+					// Collapse this persist into the waiting one
+					pendingTask.item = item;
+				} else {
+					try {
+						taskQueue.add(task);
+						// Drop any waiting persist for a deleted Item and
+						// record new persists.
+						if ("persist".equals(taskName)) {
+							pendingPersists.put(task.itemId, task);
+						} else {
+							pendingPersists.remove(task.itemId);
+						}
+					} catch (Exception exception) {
+						// Complain
+						exception.printStackTrace();
+						retVal = false;
+					}
+				}
 			}
 		} else if (form != null && file != null) {
 			// Otherwise submit the task if the Form and IFile are good (for the
@@ -642,15 +899,15 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 		// Local Declarations
 		Item item = null;
 		String fileName;
+		InputStream stream = null;
 
 		try {
 			// If the map contains the item, load it.
 			fileName = itemIdMap.get(itemID);
 			if (fileName != null) {
-				// Create the unmarshaller and load the item
-				Unmarshaller unmarshaller = context.createUnmarshaller();
-				item = (Item) unmarshaller.unmarshal(project.getFile(fileName)
-						.getContents());
+				// Get the unmarshaller and load the item
+				stream = project.getFile(fileName).getContents();
+				item = (Item) getUnmarshaller().unmarshal(stream);
 			}
 		} catch (CoreException e) {
 			// Complain
@@ -662,6 +919,8 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 			logger.error(getClass().getName() + " Exception!",e);
 			// Null out the Item so that it can't be returned uninitialized
 			item = null;
+		} finally {
+			closeStream(stream);
 		}
 
 		return item;
@@ -701,7 +960,9 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 	}
 
 	/**
-	 * This operation loads all of the Items that this provider can find.
+	 * This operation loads all of the Items that this provider can find. The
+	 * Items are unmarshalled in parallel and returned in order of their ids.
+	 * Items that could not be loaded are left out of the list.
 	 * 
 	 * @return A list of all of the Items that this persistence provider was
 	 *         able to load from the project space.
@@ -711,18 +972,120 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 
 		// Local Declarations
 		ArrayList<Item> items = new ArrayList<Item>();
-		Set<Integer> keys = itemIdMap.keySet();
-		Item item = null;
+		ArrayList<Item> loadedItems = loadItems(new ArrayList<Integer>(
+				new TreeSet<Integer>(itemIdMap.keySet())));
 
-		// Load them all
-		for (int id : keys) {
-			item = loadItem(id);
-			items.add(item);
+		// Keep the Items that were loaded
+		for (Item item : loadedItems) {
+			if (item != null) {
+				items.add(item);
+			}
 		}
 
 		return items;
 	}
 
+	/**
+	 * This operation loads the Items with the specified ids in parallel on a
+	 * bounded pool of threads.
+	 * 
+	 * @param ids
+	 *            The ids of the Items to load
+	 * @return The Items in the same order as the ids. An Item is null if it
+	 *         could not be loaded.
+	 */
+	private ArrayList<Item> loadItems(List<Integer> ids) {
+
+		// Local Declarations
+		ArrayList<Item> items = new ArrayList<Item>(ids.size());
+		ArrayList<Future<Item>> results = new ArrayList<Future<Item>>(
+				ids.size());
+		int numThreads = Math.min(ids.size(), Math.min(maxLoadThreads,
+				Runtime.getRuntime().availableProcessors()));
+
+		// Just load a single Item on this thread
+		if (numThreads <= 1) {
+			for (int id : ids) {
+				items.add(loadItem(id));
+			}
+			return items;
+		}
+
+		// Submit a load task for each Item
+		ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+		try {
+			for (final int id : ids) {
+				results.add(executor.submit(new Callable<Item>() {
+					@Override
+					public Item call() {
+						return loadItem(id);
+					}
+				}));
+			}
+			// Collect the Items in order
+			for (Future<Item> result : results) {
+				try {
+					items.add(result.get());
+				} catch (ExecutionException e) {
+					logger.error(getClass().getName() + " Exception!", e);
+					items.add(null);
+				}
+			}
+		} catch (InterruptedException e) {
+			logger.error(getClass().getName() + " Exception!", e);
+		} finally {
+			executor.shutdownNow();
+		}
+
+		return items;
+	}
+
+	/**
+	 * This operation returns the index of the persisted Items without
+	 * unmarshalling them. Items that are not in the index yet are loaded once
+	 * so that they can be added to it.
+	 * 
+	 * @return The id, name and description of every persisted Item, sorted by
+	 *         id.
+	 */
+	@Override
+	public ArrayList<Identifiable> loadItemIndex() {
+
+		// Local Declarations
+		ArrayList<Identifiable> index = new ArrayList<Identifiable>();
+		ArrayList<Integer> missingIds = new ArrayList<Integer>();
+		TreeSet<Integer> ids = new TreeSet<Integer>(itemIdMap.keySet());
+
+		// Find the Items that are not in the index
+		for (Integer id : ids) {
+			if (!itemIndex.containsKey(id)) {
+				missingIds.add(id);
+			}
+		}
+
+		// Load and index them
+		if (!missingIds.isEmpty()) {
+			logger.info("XMLPersistenceProvider Message: " + "Indexing "
+					+ missingIds.size() + " Items.");
+			for (Item item : loadItems(missingIds)) {
+				if (item != null) {
+					itemIndex.put(item.getId(), createIndexEntry(item));
+				}
+			}
+			indexChanged.set(true);
+		}
+
+		// Create the list
+		for (Integer id : ids) {
+			ICEObject entry = itemIndex.get(id);
+			if (entry != null) {
+				index.add((Identifiable) entry.clone());
+			}
+		}
+
+		return index;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -774,18 +1137,20 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 	public Form read(IFile file) {
 
 		Form form = null;
+		InputStream stream = null;
 
 		try {
-			// Create the marshaller
-			Unmarshaller unmarshaller = context.createUnmarshaller();
 			// Grab the form
-			form = (Form) unmarshaller.unmarshal(file.getContents());
+			stream = file.getContents();
+			form = (Form) getUnmarshaller().unmarshal(stream);
 		} catch (JAXBException e) {
 			// TODO Auto-generated catch block
 			logger.error(getClass().getName() + " Exception!",e);
 		} catch (CoreException e) {
 			// TODO Auto-generated catch block
 			logger.error(getClass().getName() + " Exception!",e);
+		} finally {
+			closeStream(stream);
 		}
 
 		return form;
@@ -23,6 +23,12 @@ import org.eclipse.ice.analysistool.IData;
  * SFRData for the same types of features. The getFeature() operation on SFRData
  * should return the same value as the getName() operation on this class.
  * </p>
+ * <p>
+ * A FeatureSet read lazily from an HDF5 file only references its data in the
+ * file until the data is first needed. It is then loaded through the
+ * {@link SFRDataFile}'s cache. The set takes its own copy of the data if more
+ * data is added to it.
+ * </p>
  * 
  * @author Anna Wojtowicz
  */
@@ -43,6 +49,15 @@ public class FeatureSet {
 	 */
 	private String name;
 
+	/**
+	 * <p>
+	 * The block of the file holding the set's data if it has not been copied
+	 * into the iData list, or null otherwise.
+	 * </p>
+	 * 
+	 */
+	private SFRDataFile.Block block;
+
 	/**
 	 * <p>
 	 * Parameterized constructor specifying the feature type. The passed value
@@ -72,6 +87,27 @@ public class FeatureSet {
 		return;
 	}
 
+	/**
+	 * <p>
+	 * Constructs a FeatureSet whose data is loaded from a file when it is
+	 * first needed.
+	 * </p>
+	 * 
+	 * @param feature
+	 *            The name of the feature.
+	 * @param block
+	 *            The block of the file holding the set's data.
+	 */
+	FeatureSet(String feature, SFRDataFile.Block block) {
+		this(feature);
+
+		// Only valid sets can reference data in a file.
+		if (name != null) {
+			this.block = block;
+		}
+		return;
+	}
+
 	/**
 	 * <p>
 	 * Returns the name of the feature as a string.
@@ -93,9 +129,17 @@ public class FeatureSet {
 	 * 
 	 * @return Returns an ArrayList of IData associated with the FeatureSet. If
 	 *         the feature name is invalid, this list will not be modifiable.
+	 *         If the data has not been copied from a file, this list is shared
+	 *         with the file's cache and changes to it may be discarded.
 	 */
 	public ArrayList<IData> getData() {
 
+		// If the data is still in a file, get it from the file's cache.
+		SFRDataFile.Block block = this.block;
+		if (block != null) {
+			return block.getData();
+		}
+
 		// By default, return the data stored in this FeatureSet.
 		ArrayList<IData> data = iData;
 
@@ -108,6 +152,26 @@ public class FeatureSet {
 		return data;
 	}
 
+	/**
+	 * <p>
+	 * Copies the set's data into the set if it is still in the file at a
+	 * path, so that the set no longer needs the file.
+	 * </p>
+	 * 
+	 * @param path
+	 *            The path of the file.
+	 */
+	void loadData(String path) {
+
+		// Copy the data if it is still in the file.
+		SFRDataFile.Block block = this.block;
+		if (block != null && block.getFile().getPath().equals(path)) {
+			iData.addAll(block.getData());
+			this.block = null;
+		}
+		return;
+	}
+
 	/**
 	 * <p>
 	 * Adds IData to the list within the feature set. The name of the feature
@@ -127,6 +191,11 @@ public class FeatureSet {
 		// If the argument is not null, and the feature name matches, add it to
 		// the List.
 		if (iData != null && iData.getFeature().equals(name)) {
+			// Copy any data still in a file before appending to it.
+			if (block != null) {
+				this.iData.addAll(block.getData());
+				block = null;
+			}
 			success = this.iData.add(iData);
 		}
 		// Return whether or not the data was successfully added to the List.
@@ -161,8 +230,8 @@ public class FeatureSet {
 
 			// Compare the values between the two objects.
 			if (name != null) {
-				equals = (name.equals(featureSet.name) && iData
-						.equals(featureSet.iData));
+				equals = (name.equals(featureSet.name) && getData().equals(
+						featureSet.getData()));
 			} else {
 				equals = (featureSet.name == null && iData
 						.equals(featureSet.iData));
@@ -189,7 +258,7 @@ public class FeatureSet {
 		if (name != null) {
 			hash += 31 * name.hashCode();
 		}
-		hash += 31 * iData.hashCode();
+		hash += 31 * getData().hashCode();
 
 		return hash;
 	}
@@ -211,7 +280,9 @@ public class FeatureSet {
 		// Copy the name.
 		name = otherObject.name;
 
-		// Copy the contents of the iData List.
+		// Copy the contents of the iData List. Data still in a file is
+		// referenced rather than loaded.
+		block = otherObject.block;
 		iData.clear();
 		for (IData data : otherObject.iData) {
 			iData.add(data);
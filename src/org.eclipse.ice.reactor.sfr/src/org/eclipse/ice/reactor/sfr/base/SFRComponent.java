@@ -21,8 +21,10 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
 
+import org.eclipse.ice.analysistool.FeatureStatistics;
 import org.eclipse.ice.analysistool.IData;
 import org.eclipse.ice.analysistool.IDataProvider;
+import org.eclipse.ice.analysistool.IStatisticsSource;
 import org.eclipse.ice.datastructures.ICEObject.Component;
 import org.eclipse.ice.datastructures.ICEObject.IUpdateable;
 import org.eclipse.ice.datastructures.ICEObject.IUpdateableListener;
@@ -45,7 +47,8 @@ import org.eclipse.ice.datastructures.componentVisitor.IReactorComponent;
  * 
  * @author Anna Wojtowicz
  */
-public class SFRComponent implements IReactorComponent, IDataProvider {
+public class SFRComponent implements IReactorComponent, IDataProvider,
+		IStatisticsSource {
 
 	/**
 	 * <p>
@@ -109,6 +112,12 @@ public class SFRComponent implements IReactorComponent, IDataProvider {
 	 */
 	private List<IUpdateableListener> listeners;
 
+	/**
+	 * The statistics indices that are updated as data is added. See
+	 * {@link #addStatistics(FeatureStatistics)}.
+	 */
+	private List<FeatureStatistics> statistics;
+
 	/**
 	 * <p>
 	 * Nullary constructor.
@@ -135,6 +144,9 @@ public class SFRComponent implements IReactorComponent, IDataProvider {
 		// Initialize the List of listeners.
 		listeners = new ArrayList<IUpdateableListener>();
 
+		// Initialize the List of statistics indices.
+		statistics = new ArrayList<FeatureStatistics>();
+
 		return;
 	}
 
@@ -352,14 +364,97 @@ public class SFRComponent implements IReactorComponent, IDataProvider {
 			featureSetMap.put(feature, featureSet);
 		}
 
-		// We have either found or created a FeatureSet. Add the data to it and
-		// notify listeners if the data has changed.
+		// We have either found or created a FeatureSet. Add the data to it,
+		// add its value to the attached statistics, and notify listeners if
+		// the data has changed.
 		if (featureSet.addIData(data)) {
+			int level = featureSet.getData().size() - 1;
+			for (FeatureStatistics stats : statistics) {
+				stats.add(feature, time, level, data.getValue());
+			}
 			notifyListeners();
 		}
 		return;
 	}
 
+	/**
+	 * <p>
+	 * Puts a FeatureSet into the dataTree at a time, replacing any existing
+	 * set for the same feature. This is used when reading components from a
+	 * file, so listeners and statistics indexes are not notified.
+	 * </p>
+	 * 
+	 * @param time
+	 *            The time of the set's data. Time cannot be negative.
+	 * @param featureSet
+	 *            The set to put in the dataTree. Its name must be valid.
+	 */
+	void setFeatureSet(double time, FeatureSet featureSet) {
+
+		// Check the parameters.
+		if (featureSet == null || featureSet.getName() == null || time < 0) {
+			return;
+		}
+		// Get or create the Map of FeatureSets for the time.
+		HashMap<String, FeatureSet> featureSetMap = dataTree.get(time);
+		if (featureSetMap == null) {
+			featureSetMap = new HashMap<String, FeatureSet>();
+			dataTree.put(time, featureSetMap);
+		}
+		featureSetMap.put(featureSet.getName(), featureSet);
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * Returns all IData for a feature at a time without changing the current
+	 * time, so listeners are not notified.
+	 * </p>
+	 * 
+	 * @param feature
+	 *            The feature of IData to be returned.
+	 * @param time
+	 *            The time of the IData.
+	 * @return An ArrayList of all data found with the specified feature at the
+	 *         time. This is empty if there is no such data.
+	 */
+	ArrayList<IData> getData(String feature, double time) {
+
+		// Get the FeatureSet for the feature at the time, if it exists.
+		HashMap<String, FeatureSet> featureSetMap = dataTree.get(time);
+		if (feature != null && featureSetMap != null) {
+			FeatureSet featureSet = featureSetMap.get(feature);
+			if (featureSet != null) {
+				return featureSet.getData();
+			}
+		}
+
+		// No data was found, so return an empty list.
+		return new ArrayList<IData>();
+	}
+
+	/**
+	 * <p>
+	 * Copies all of the data that is still in the file at a path into the
+	 * FeatureSets, so that the component no longer needs the file. This is
+	 * used before a lazily-read file is overwritten.
+	 * </p>
+	 * 
+	 * @param path
+	 *            The path of the file.
+	 */
+	void loadData(String path) {
+
+		// Load the data of every FeatureSet in the file.
+		for (HashMap<String, FeatureSet> featureSetMap : dataTree.values()) {
+			for (FeatureSet featureSet : featureSetMap.values()) {
+				featureSet.loadData(path);
+			}
+		}
+		return;
+	}
+
 	/**
 	 * <p>
 	 * Removes the feature and all associated IData from the dataTree at all
@@ -888,6 +983,53 @@ public class SFRComponent implements IReactorComponent, IDataProvider {
 		return timeUnits;
 	}
 
+	/**
+	 * Adds all of the data in the dataTree, at every time, to a statistics
+	 * index.
+	 * 
+	 * @see IStatisticsSource#collectStatistics(FeatureStatistics)
+	 */
+	@Override
+	public void collectStatistics(FeatureStatistics statistics) {
+
+		// Check the parameters.
+		if (statistics == null) {
+			return;
+		}
+		// Add the data of each FeatureSet at each time.
+		for (Entry<Double, HashMap<String, FeatureSet>> entry : dataTree
+				.entrySet()) {
+			for (FeatureSet featureSet : entry.getValue().values()) {
+				statistics.addAll(featureSet.getName(), entry.getKey(), 0,
+						featureSet.getData());
+			}
+		}
+		return;
+	}
+
+	/**
+	 * Attaches a statistics index so that data added later is also added to
+	 * the index.
+	 * 
+	 * @see IStatisticsSource#addStatistics(FeatureStatistics)
+	 */
+	@Override
+	public void addStatistics(FeatureStatistics statistics) {
+		if (statistics != null && !this.statistics.contains(statistics)) {
+			this.statistics.add(statistics);
+		}
+	}
+
+	/**
+	 * Detaches a statistics index.
+	 * 
+	 * @see IStatisticsSource#removeStatistics(FeatureStatistics)
+	 */
+	@Override
+	public void removeStatistics(FeatureStatistics statistics) {
+		this.statistics.remove(statistics);
+	}
+
 	@Override
 	public void unregister(IUpdateableListener listener) {
 		// TODO Auto-generated method stub
@@ -0,0 +1,494 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.reactor.sfr.base;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map.Entry;
+
+import ncsa.hdf.hdf5lib.H5;
+import ncsa.hdf.hdf5lib.HDF5Constants;
+import ncsa.hdf.hdf5lib.exceptions.HDF5Exception;
+import ncsa.hdf.hdf5lib.exceptions.HDF5LibraryException;
+
+import org.eclipse.ice.analysistool.IData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * An SFR HDF5 file whose feature data is loaded on demand. When the
+ * {@link SFReactorIOHandler} reads a file lazily, each {@link FeatureSet} in
+ * the reactor only holds a {@link Block} that points to its data in this file.
+ * The data is decoded the first time the set is read and kept in a bounded,
+ * least-recently-used cache. Blocks that fall out of the cache are read from
+ * the file again the next time they are needed.
+ * </p>
+ * <p>
+ * The file is opened read-only for each block that is not in the cache and is
+ * closed immediately afterward, so it is never held open between reads. The
+ * file should not be overwritten while components read from it still need
+ * their data.
+ * </p>
+ */
+public class SFRDataFile {
+
+	/**
+	 * Logger for handling event messages and other information.
+	 */
+	private static final Logger logger = LoggerFactory
+			.getLogger(SFRDataFile.class);
+
+	/**
+	 * The default number of rows of data (SFRData instances) held in the cache.
+	 */
+	public static final int DEFAULT_CAPACITY = 65536;
+
+	/**
+	 * The number of values stored for each SFRData in a dataset: the value,
+	 * the uncertainty, the x, y, and z coordinates, and the index of the units.
+	 */
+	static final int ROW_SIZE = 6;
+
+	/**
+	 * The path to the HDF5 file.
+	 */
+	private final String path;
+
+	/**
+	 * The maximum number of rows of data held in the cache. At least one block
+	 * is always kept, even if it is larger.
+	 */
+	private final int capacity;
+
+	/**
+	 * The decoded data for each cached block, in least-recently-used order.
+	 * Blocks are unique to their FeatureSet, so they are compared by identity.
+	 */
+	private final LinkedHashMap<Block, ArrayList<IData>> cache;
+
+	/**
+	 * The number of rows of data currently held in the cache.
+	 */
+	private int cachedRows;
+
+	/**
+	 * The number of blocks that have been read from the file.
+	 */
+	private int reads;
+
+	/**
+	 * <p>
+	 * A block of data for one feature at one time. This is either a whole 2D
+	 * dataset or one time step of a packed 3D dataset.
+	 * </p>
+	 */
+	static class Block {
+
+		/**
+		 * The file that contains the block.
+		 */
+		private final SFRDataFile file;
+
+		/**
+		 * The absolute path of the dataset in the file.
+		 */
+		private final String dataset;
+
+		/**
+		 * The feature of the data in the block.
+		 */
+		private final String feature;
+
+		/**
+		 * The units Strings referenced by index in the block.
+		 */
+		private final String[] units;
+
+		/**
+		 * The offset of the block in the dataset, or null to read the whole
+		 * dataset.
+		 */
+		private final long[] start;
+
+		/**
+		 * The size of the block in the dataset, or null to read the whole
+		 * dataset.
+		 */
+		private final long[] count;
+
+		/**
+		 * The default constructor.
+		 *
+		 * @param file
+		 *            The file that contains the block.
+		 * @param dataset
+		 *            The absolute path of the dataset in the file.
+		 * @param feature
+		 *            The feature of the data in the block.
+		 * @param units
+		 *            The units Strings referenced by index in the block.
+		 * @param start
+		 *            The offset of the block in the dataset, or null to read
+		 *            the whole dataset.
+		 * @param count
+		 *            The size of the block in the dataset, or null to read the
+		 *            whole dataset.
+		 */
+		Block(SFRDataFile file, String dataset, String feature,
+				String[] units, long[] start, long[] count) {
+			this.file = file;
+			this.dataset = dataset;
+			this.feature = feature;
+			this.units = units;
+			this.start = start;
+			this.count = count;
+		}
+
+		/**
+		 * Gets the file that contains the block.
+		 *
+		 * @return The file.
+		 */
+		SFRDataFile getFile() {
+			return file;
+		}
+
+		/**
+		 * Gets the decoded data for the block, reading it from the file if it
+		 * is not in the cache.
+		 *
+		 * @return The data in the block. This list is shared with the cache.
+		 */
+		ArrayList<IData> getData() {
+			return file.getData(this);
+		}
+	}
+
+	/**
+	 * The default constructor.
+	 *
+	 * @param path
+	 *            The path to the HDF5 file.
+	 * @param capacity
+	 *            The maximum number of rows of data held in the cache. Values
+	 *            less than 1 use the {@link #DEFAULT_CAPACITY}.
+	 */
+	public SFRDataFile(String path, int capacity) {
+		this.path = path;
+		this.capacity = (capacity > 0 ? capacity : DEFAULT_CAPACITY);
+
+		// Use access order so that the first entry is the least recently used.
+		cache = new LinkedHashMap<Block, ArrayList<IData>>(16, 0.75f, true);
+
+		return;
+	}
+
+	/**
+	 * Gets the path to the HDF5 file.
+	 *
+	 * @return The path to the file.
+	 */
+	public String getPath() {
+		return path;
+	}
+
+	/**
+	 * Gets the maximum number of rows of data held in the cache.
+	 *
+	 * @return The capacity of the cache.
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Gets the number of rows of data currently held in the cache.
+	 *
+	 * @return The number of cached rows.
+	 */
+	public synchronized int getCachedRows() {
+		return cachedRows;
+	}
+
+	/**
+	 * Gets the number of blocks that have been read from the file, including
+	 * blocks that were read again after they fell out of the cache.
+	 *
+	 * @return The number of reads.
+	 */
+	public synchronized int getReadCount() {
+		return reads;
+	}
+
+	/**
+	 * Removes all of the decoded data from the cache.
+	 */
+	public synchronized void clear() {
+		cache.clear();
+		cachedRows = 0;
+	}
+
+	/**
+	 * Gets the decoded data for a block, reading it from the file if it is not
+	 * in the cache.
+	 *
+	 * @param block
+	 *            The block to get.
+	 * @return The data in the block, or an empty list if it could not be read.
+	 */
+	private synchronized ArrayList<IData> getData(Block block) {
+
+		// Return the block if it is already cached.
+		ArrayList<IData> data = cache.get(block);
+		if (data != null) {
+			return data;
+		}
+
+		int status;
+		try {
+			// Open the file and read the block.
+			status = H5.H5Fopen(path, HDF5Constants.H5F_ACC_RDONLY,
+					HDF5Constants.H5P_DEFAULT);
+			if (status < 0) {
+				throwException("Opening file \"" + path + "\"", status);
+			}
+			int fileId = status;
+			try {
+				double[] buffer = readDataset(fileId, block.dataset,
+						block.start, block.count);
+				data = decode(block.feature, block.units, buffer, 0,
+						buffer.length / ROW_SIZE);
+			} finally {
+				H5.H5Fclose(fileId);
+			}
+		} catch (HDF5Exception e) {
+			logger.error(getClass().getName() + " Exception!", e);
+		} catch (NullPointerException e) {
+			logger.error(getClass().getName() + " Exception!", e);
+		}
+
+		// Failed reads are not cached so that they can be attempted again.
+		if (data == null) {
+			return new ArrayList<IData>();
+		}
+		reads++;
+
+		// Add the block to the cache and evict the least recently used blocks
+		// until the cache fits in its capacity again.
+		cache.put(block, data);
+		cachedRows += data.size();
+		Iterator<Entry<Block, ArrayList<IData>>> iterator = cache.entrySet()
+				.iterator();
+		while (cachedRows > capacity && cache.size() > 1) {
+			cachedRows -= iterator.next().getValue().size();
+			iterator.remove();
+		}
+
+		return data;
+	}
+
+	/**
+	 * Gets the dimensions of a dataset.
+	 *
+	 * @param locationId
+	 *            The ID of an open file or Group that contains the dataset.
+	 * @param name
+	 *            The name of the dataset relative to the location.
+	 * @return The size of each dimension of the dataset.
+	 * @throws HDF5Exception
+	 * @throws NullPointerException
+	 */
+	static long[] getDimensions(int locationId, String name)
+			throws HDF5Exception, NullPointerException {
+		int status;
+
+		// Open the dataset and its dataspace.
+		status = H5.H5Dopen(locationId, name, HDF5Constants.H5P_DEFAULT);
+		if (status < 0) {
+			throwException("Opening dataset \"" + name + "\"", status);
+		}
+		int datasetId = status;
+		status = H5.H5Dget_space(datasetId);
+		if (status < 0) {
+			throwException("Opening dataspace for dataset \"" + name + "\"",
+					status);
+		}
+		int dataspaceId = status;
+
+		// Get the rank and the size of each dimension.
+		status = H5.H5Sget_simple_extent_ndims(dataspaceId);
+		if (status < 0) {
+			throwException("Getting rank of dataset \"" + name + "\"", status);
+		}
+		long[] dims = new long[status];
+		H5.H5Sget_simple_extent_dims(dataspaceId, dims, null);
+
+		// Close the dataspace and the dataset.
+		H5.H5Sclose(dataspaceId);
+		H5.H5Dclose(datasetId);
+
+		return dims;
+	}
+
+	/**
+	 * Reads all or part of a numeric dataset as doubles.
+	 *
+	 * @param locationId
+	 *            The ID of an open file or Group that contains the dataset.
+	 * @param name
+	 *            The name of the dataset relative to the location.
+	 * @param start
+	 *            The offset of the block to read in each dimension, or null to
+	 *            read the whole dataset.
+	 * @param count
+	 *            The size of the block to read in each dimension. This is
+	 *            ignored if the start is null.
+	 * @return The values of the block in row-major order.
+	 * @throws HDF5Exception
+	 * @throws NullPointerException
+	 */
+	static double[] readDataset(int locationId, String name, long[] start,
+			long[] count) throws HDF5Exception, NullPointerException {
+		int status;
+
+		// Open the dataset and its dataspace.
+		status = H5.H5Dopen(locationId, name, HDF5Constants.H5P_DEFAULT);
+		if (status < 0) {
+			throwException("Opening dataset \"" + name + "\"", status);
+		}
+		int datasetId = status;
+		status = H5.H5Dget_space(datasetId);
+		if (status < 0) {
+			throwException("Opening dataspace for dataset \"" + name + "\"",
+					status);
+		}
+		int fileSpaceId = status;
+		int memorySpaceId = HDF5Constants.H5S_ALL;
+
+		// Get the number of values to read.
+		long size = 1;
+		if (start == null) {
+			long[] dims = new long[H5.H5Sget_simple_extent_ndims(fileSpaceId)];
+			H5.H5Sget_simple_extent_dims(fileSpaceId, dims, null);
+			for (long dim : dims) {
+				size *= dim;
+			}
+			H5.H5Sclose(fileSpaceId);
+			fileSpaceId = HDF5Constants.H5S_ALL;
+		} else {
+			for (long dim : count) {
+				size *= dim;
+			}
+		}
+		double[] buffer = new double[(int) size];
+
+		try {
+			if (size > 0) {
+				// Select the block in the file and create a matching flat
+				// dataspace for the buffer.
+				if (start != null) {
+					status = H5.H5Sselect_hyperslab(fileSpaceId,
+							HDF5Constants.H5S_SELECT_SET, start, null, count,
+							null);
+					if (status < 0) {
+						throwException("Selecting block of dataset \"" + name
+								+ "\"", status);
+					}
+					status = H5.H5Screate_simple(1, new long[] { size }, null);
+					if (status < 0) {
+						throwException("Creating block dataspace for dataset \""
+								+ name + "\"", status);
+					}
+					memorySpaceId = status;
+				}
+
+				// Read the values. HDF5 converts integer datasets to doubles.
+				status = H5.H5Dread(datasetId,
+						HDF5Constants.H5T_NATIVE_DOUBLE, memorySpaceId,
+						fileSpaceId, HDF5Constants.H5P_DEFAULT, buffer);
+				if (status < 0) {
+					throwException("Reading dataset \"" + name + "\"", status);
+				}
+			}
+		} finally {
+			// Close the dataspaces and the dataset.
+			if (memorySpaceId != HDF5Constants.H5S_ALL) {
+				H5.H5Sclose(memorySpaceId);
+			}
+			if (fileSpaceId != HDF5Constants.H5S_ALL) {
+				H5.H5Sclose(fileSpaceId);
+			}
+			H5.H5Dclose(datasetId);
+		}
+
+		return buffer;
+	}
+
+	/**
+	 * Converts rows of values read from a dataset into SFRData.
+	 *
+	 * @param feature
+	 *            The feature of the data.
+	 * @param units
+	 *            The units Strings referenced by index in each row.
+	 * @param buffer
+	 *            The values, {@link #ROW_SIZE} per row.
+	 * @param offset
+	 *            The index of the first value of the first row in the buffer.
+	 * @param rows
+	 *            The number of rows to convert.
+	 * @return A list containing an SFRData for each row.
+	 */
+	static ArrayList<IData> decode(String feature, String[] units,
+			double[] buffer, int offset, int rows) {
+
+		ArrayList<IData> dataList = new ArrayList<IData>(rows);
+		for (int i = offset, end = offset + rows * ROW_SIZE; i < end; i += ROW_SIZE) {
+			// Initialize an iData.
+			SFRData data = new SFRData(feature);
+
+			// Set its data.
+			data.setValue(buffer[i]);
+			data.setUncertainty(buffer[i + 1]);
+			ArrayList<Double> position = new ArrayList<Double>(3);
+			position.add(buffer[i + 2]);
+			position.add(buffer[i + 3]);
+			position.add(buffer[i + 4]);
+			data.setPosition(position);
+
+			// Set the units from the pre-constructed array of data.
+			data.setUnits(units[(int) buffer[i + 5]]);
+
+			dataList.add(data);
+		}
+
+		return dataList;
+	}
+
+	/**
+	 * Throws an HDF5LibraryException with a message and status.
+	 *
+	 * @param message
+	 *            The message to append to the exception.
+	 * @param status
+	 *            The integer flag that indicated a problem.
+	 * @throws HDF5LibraryException
+	 */
+	private static void throwException(String message, int status)
+			throws HDF5LibraryException {
+		throw new HDF5LibraryException("SFRDataFile error: " + message + ": "
+				+ Integer.toString(status));
+	}
+}
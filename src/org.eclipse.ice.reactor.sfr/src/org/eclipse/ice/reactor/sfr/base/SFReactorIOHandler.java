@@ -58,6 +58,42 @@ public class SFReactorIOHandler {
 	private static final Logger logger = LoggerFactory
 			.getLogger(SFReactorIOHandler.class);
 
+	/**
+	 * Whether {@link #readHDF5(URI)} only reads the components and the index
+	 * of their features and times, leaving the data in the file until it is
+	 * needed.
+	 */
+	private boolean lazyLoading = false;
+
+	/**
+	 * The maximum number of rows of data cached for each lazily-read file.
+	 */
+	private int cacheCapacity = SFRDataFile.DEFAULT_CAPACITY;
+
+	/**
+	 * Whether {@link #writeHDF5(URI, SFReactor)} packs the data for each
+	 * feature at all times into a single 3D dataset.
+	 */
+	private boolean packedData = false;
+
+	/**
+	 * The file from which the data of the reactor currently being read is
+	 * loaded on demand. This is null unless a file is being read lazily.
+	 */
+	private SFRDataFile dataFile;
+
+	/**
+	 * The absolute paths of the Groups opened while reading, keyed on their
+	 * IDs. Lazily-read data is referenced by these paths.
+	 */
+	private final Map<Integer, String> groupPaths = new HashMap<Integer, String>();
+
+	/**
+	 * The path of the file being written. Data that components still read
+	 * lazily from this file is loaded before the file is replaced.
+	 */
+	private String writePath;
+
 	/**
 	 * <p>
 	 * Nullary constructor.
@@ -71,12 +107,84 @@ public class SFReactorIOHandler {
 	}
 
 	/**
-	 * Reads data from an input HDF5 file into a SFReactor.
+	 * Sets whether files are read lazily. When enabled, {@link #readHDF5(URI)}
+	 * reads the reactor's components and the index of their features and times
+	 * up front, but each feature's data at each time is only read from the
+	 * file when it is first requested, through a bounded cache. The file must
+	 * not be overwritten while the reactor is in use.
+	 *
+	 * @param lazy
+	 *            Whether to read files lazily. The default is false.
+	 */
+	public void setLazyLoading(boolean lazy) {
+		lazyLoading = lazy;
+	}
+
+	/**
+	 * Gets whether files are read lazily.
+	 *
+	 * @return True if data is only read from files when needed, false if it is
+	 *         all read when the file is opened.
+	 */
+	public boolean isLazyLoading() {
+		return lazyLoading;
+	}
+
+	/**
+	 * Sets the maximum number of rows of data (SFRData instances) cached for
+	 * each file that is read lazily.
+	 *
+	 * @param capacity
+	 *            The capacity of the cache. Values less than 1 use
+	 *            {@link SFRDataFile#DEFAULT_CAPACITY}.
+	 */
+	public void setCacheCapacity(int capacity) {
+		cacheCapacity = (capacity > 0 ? capacity : SFRDataFile.DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Gets the maximum number of rows of data cached for each file that is
+	 * read lazily.
+	 *
+	 * @return The capacity of the cache.
+	 */
+	public int getCacheCapacity() {
+		return cacheCapacity;
+	}
+
+	/**
+	 * Sets whether the data for each feature is written as one 3D dataset. When
+	 * enabled, each feature's Group holds a "Values" dataset with one N x 6
+	 * block per time (padded to the largest block), a "Times" dataset, and a
+	 * "Sizes" dataset with the number of rows at each time. Otherwise, each
+	 * feature's Group holds one N x 6 dataset per time, named after the time.
+	 * Both layouts can be read.
+	 *
+	 * @param packed
+	 *            Whether to pack each feature's data. The default is false.
+	 */
+	public void setPackedData(boolean packed) {
+		packedData = packed;
+	}
+
+	/**
+	 * Gets whether the data for each feature is written as one 3D dataset.
+	 *
+	 * @return True if each feature's data is packed, false otherwise.
+	 */
+	public boolean isPackedData() {
+		return packedData;
+	}
+
+	/**
+	 * Reads data from an input HDF5 file into a SFReactor. If
+	 * {@link #setLazyLoading(boolean) lazy loading} is enabled, the feature
+	 * data is only read when it is first needed.
 	 *
 	 * @return A valid {@link SFReactor} if the file could be completely read,
 	 *         {@code null} if the file could not be opened.
 	 */
-	public SFReactor readHDF5(URI uri) {
+	public synchronized SFReactor readHDF5(URI uri) {
 
 		// The SFReactor that will receive the data from the file.
 		SFReactor reactor = null;
@@ -115,6 +223,10 @@ public class SFReactorIOHandler {
 		Integer[] intBuffer = new Integer[1];
 		Double[] doubleBuffer = new Double[1];
 
+		// Set up the file for lazily-read data, if necessary.
+		groupPaths.clear();
+		dataFile = (lazyLoading ? new SFRDataFile(path, cacheCapacity) : null);
+
 		try {
 			// Open the H5 file with read-only access.
 			status = H5.H5Fopen(path, H5F_ACC_RDONLY, H5P_DEFAULT);
@@ -500,6 +612,9 @@ public class SFReactorIOHandler {
 			logger.error(getClass().getName() + " Exception!",e);
 		} catch (NullPointerException e) {
 			logger.error(getClass().getName() + " Exception!",e);
+		} finally {
+			dataFile = null;
+			groupPaths.clear();
 		}
 
 		// Return the loaded SFReactor.
@@ -508,12 +623,15 @@ public class SFReactorIOHandler {
 
 	/**
 	 * <p>
-	 * Writes data from the input SFReactor into a HDF5 file.
+	 * Writes data from the input SFReactor into a HDF5 file. The reactor is
+	 * written to a temporary file that replaces the file once it is complete,
+	 * so a reactor read lazily from the same file keeps its data.
 	 * </p>
 	 *
 	 * @param reactor
+	 * @see #setPackedData(boolean)
 	 */
-	public void writeHDF5(URI uri, SFReactor reactor) {
+	public synchronized void writeHDF5(URI uri, SFReactor reactor) {
 
 		// Check the parameters.
 		if (uri == null || reactor == null) {
@@ -522,6 +640,8 @@ public class SFReactorIOHandler {
 		// Check the file associated with the URI. If it exists, delete it.
 		File file = new File(uri);
 		String path = file.getPath();
+		File tempFile = new File(path + ".tmp");
+		String tempPath = tempFile.getPath();
 		if (file.exists()) {
 		} else {
 			// Make sure the directory containing this file exists! If we can't
@@ -552,14 +672,19 @@ public class SFReactorIOHandler {
 
 		Stack<Integer> groupIds = new Stack<Integer>();
 
+		// Components read lazily from the file load their data while they
+		// are written.
+		writePath = path;
+
 		// Create and open the h5 file.
 		try {
 
-			// Create the H5 file. This should also open it with RW-access.
-			status = H5
-					.H5Fcreate(path, H5F_ACC_TRUNC, H5P_DEFAULT, H5P_DEFAULT);
+			// Create the temporary H5 file. This should also open it with
+			// RW-access.
+			status = H5.H5Fcreate(tempPath, H5F_ACC_TRUNC, H5P_DEFAULT,
+					H5P_DEFAULT);
 			if (status < 0) {
-				throwException("Opening file \"" + path + "\"", status);
+				throwException("Opening file \"" + tempPath + "\"", status);
 			}
 			fileId = status;
 
@@ -862,7 +987,12 @@ public class SFReactorIOHandler {
 			// Close the H5file.
 			status = H5.H5Fclose(fileId);
 			if (status < 0) {
-				throwException("Closing file \"" + path + "\"", status);
+				throwException("Closing file \"" + tempPath + "\"", status);
+			}
+
+			// Replace the old file with the new one.
+			if ((file.exists() && !file.delete()) || !tempFile.renameTo(file)) {
+				throwException("Replacing file \"" + path + "\"", -1);
 			}
 		} catch (HDF5LibraryException e) {
 			logger.error(getClass().getName() + " Exception!",e);
@@ -870,6 +1000,10 @@ public class SFReactorIOHandler {
 			logger.error(getClass().getName() + " Exception!",e);
 		} catch (NullPointerException e) {
 			logger.error(getClass().getName() + " Exception!",e);
+		} finally {
+			// Do not leave an incomplete file behind.
+			tempFile.delete();
+			writePath = null;
 		}
 
 		return;
@@ -908,6 +1042,13 @@ public class SFReactorIOHandler {
 		if (status < 0) {
 			throwException("Opening group \"" + name + "\"", status);
 		}
+
+		// Record the Group's path for lazily-read data.
+		if (name.startsWith("/")) {
+			groupPaths.put(status, name);
+		} else {
+			groupPaths.put(status, groupPaths.get(parentId) + "/" + name);
+		}
 		return status;
 	}
 
@@ -944,6 +1085,7 @@ public class SFReactorIOHandler {
 		if (status < 0) {
 			throwException("Closing group \"/SFReactor\"", status);
 		}
+		groupPaths.remove(groupId);
 		return;
 	}
 
@@ -1462,71 +1604,92 @@ public class SFReactorIOHandler {
 
 		// Get the times.
 		ArrayList<Double> times = provider.getTimes();
-		double currentTime = provider.getCurrentTime();
+		int nTimes = times.size();
 
 		// Use a Map to keep track of the different units used.
-		double unitsCount = 0;
 		Map<String, Double> unitsMap = new HashMap<String, Double>();
 		List<String> unitsList = new ArrayList<String>(2);
-		int unitsStringLength = 0;
 
 		// Default properties defining the Dataset of doubles.
 		int rank = 2;
 		long[] dims = new long[] { 0, 6 };
 		int type = HDF5Constants.H5T_NATIVE_DOUBLE;
 
+		// Copy the data that is still in the file being replaced into the
+		// provider. It is read from the old file, which is only replaced after
+		// the new one is written.
+		provider.loadData(writePath);
+
 		for (String feature : provider.getFeatureList()) {
 			// Create a group to contain state point data.
 			int featureGroupId = createGroup(groupId, feature);
 
-			// Loop over the possible times.
+			// Get the data at each time. The provider's current time is not
+			// changed, so its listeners are not notified for each time.
+			List<ArrayList<IData>> dataLists = new ArrayList<ArrayList<IData>>(
+					nTimes);
+			int maxLength = 0;
 			for (double time : times) {
-				provider.setTime(time);
-
-				// Get the data from the pin.
-				ArrayList<IData> dataList = provider
-						.getDataAtCurrentTime(feature);
-				int length = dataList.size();
-
-				// Construct the buffer of data for HDF5 writing.
-				double[] dataBuffer = new double[dataList.size() * 6];
-				int bufferIndex = 0;
-				for (IData data : dataList) {
-					dataBuffer[bufferIndex++] = data.getValue();
-					dataBuffer[bufferIndex++] = data.getUncertainty();
-					dataBuffer[bufferIndex++] = data.getPosition().get(0);
-					dataBuffer[bufferIndex++] = data.getPosition().get(1);
-					dataBuffer[bufferIndex++] = data.getPosition().get(2);
-
-					// Get the units.
-					String units = data.getUnits();
-
-					// Get the units ID from the Map. If the units are not in
-					// the Map, then we need to add it.
-					if (unitsMap.containsKey(units)) {
-						dataBuffer[bufferIndex++] = unitsMap.get(units);
-					} else {
-						unitsMap.put(units, unitsCount);
-						unitsList.add(units);
-						dataBuffer[bufferIndex++] = unitsCount++;
-						if (units.length() > unitsStringLength) {
-							unitsStringLength = units.length();
-						}
-					}
-				}
+				ArrayList<IData> dataList = provider.getData(feature, time);
+				dataLists.add(dataList);
+				maxLength = Math.max(maxLength, dataList.size());
+			}
 
-				// Store the length (rows) of the array of data.
-				dims[0] = length;
+			if (packedData) {
+				// Pack the data at all times into one buffer. Each time gets a
+				// block of maxLength rows, and shorter blocks are padded.
+				double[] dataBuffer = new double[nTimes * maxLength * 6];
+				double[] timeBuffer = new double[nTimes];
+				int[] sizeBuffer = new int[nTimes];
+				for (int i = 0; i < nTimes; i++) {
+					timeBuffer[i] = times.get(i);
+					sizeBuffer[i] = dataLists.get(i).size();
+					fillDataBuffer(dataLists.get(i), dataBuffer, i * maxLength
+							* 6, unitsMap, unitsList);
+				}
 
-				// Write the state point data for this feature.
-				writeDataset(featureGroupId, Double.toString(time), rank, dims,
-						type, dataBuffer);
+				// Write the times, the number of rows at each time, and the
+				// packed data for this feature.
+				dims = new long[] { nTimes };
+				writeDataset(featureGroupId, "Times", 1, dims, type,
+						timeBuffer);
+				writeDataset(featureGroupId, "Sizes", 1, dims,
+						HDF5Constants.H5T_NATIVE_INT, sizeBuffer);
+				dims = new long[] { nTimes, maxLength, 6 };
+				writeDataset(featureGroupId, "Values", 3, dims, type,
+						dataBuffer);
+			} else {
+				// Loop over the possible times.
+				dims = new long[] { 0, 6 };
+				for (int i = 0; i < nTimes; i++) {
+					ArrayList<IData> dataList = dataLists.get(i);
+
+					// Construct the buffer of data for HDF5 writing.
+					double[] dataBuffer = new double[dataList.size() * 6];
+					fillDataBuffer(dataList, dataBuffer, 0, unitsMap,
+							unitsList);
+
+					// Store the length (rows) of the array of data.
+					dims[0] = dataList.size();
+
+					// Write the state point data for this feature.
+					writeDataset(featureGroupId,
+							Double.toString(times.get(i)), rank, dims, type,
+							dataBuffer);
+				}
 			}
 
 			// Close the state point data group.
 			closeGroup(featureGroupId);
 		}
 
+		// Get the number of units and the length of the longest units String.
+		int unitsCount = unitsList.size();
+		int unitsStringLength = 0;
+		for (String units : unitsList) {
+			unitsStringLength = Math.max(unitsStringLength, units.length());
+		}
+
 		// Write the units lookup Dataset if we have units.
 		// FIXME - I'm not yet sure how to get variable length String Datasets
 		// to work with the HDF5 Java library. Instead, we can compute the max
@@ -1565,12 +1728,49 @@ public class SFReactorIOHandler {
 			// Close the Datatype.
 			H5.H5Tclose(type);
 		}
-		// Restore the current time.
-		provider.setTime(currentTime);
 
 		return;
 	}
 
+	/**
+	 * Copies a list of IData into a buffer of doubles for writing, six values
+	 * per IData. The units are replaced by their index in the list of units.
+	 *
+	 * @param dataList
+	 *            The data to copy.
+	 * @param buffer
+	 *            The buffer that receives the data.
+	 * @param offset
+	 *            The index in the buffer of the first value to write.
+	 * @param unitsMap
+	 *            The index of each units String. New units are added to it.
+	 * @param unitsList
+	 *            The list of units Strings. New units are added to it.
+	 */
+	private void fillDataBuffer(List<IData> dataList, double[] buffer,
+			int offset, Map<String, Double> unitsMap, List<String> unitsList) {
+		int bufferIndex = offset;
+		for (IData data : dataList) {
+			buffer[bufferIndex++] = data.getValue();
+			buffer[bufferIndex++] = data.getUncertainty();
+			buffer[bufferIndex++] = data.getPosition().get(0);
+			buffer[bufferIndex++] = data.getPosition().get(1);
+			buffer[bufferIndex++] = data.getPosition().get(2);
+
+			// Get the units ID from the Map. If the units are not in the Map,
+			// then we need to add it.
+			String units = data.getUnits();
+			Double unitsId = unitsMap.get(units);
+			if (unitsId == null) {
+				unitsId = (double) unitsList.size();
+				unitsMap.put(units, unitsId);
+				unitsList.add(units);
+			}
+			buffer[bufferIndex++] = unitsId;
+		}
+		return;
+	}
+
 	/**
 	 * Reads in the data for a GridDataManager into a pre-constructed List of
 	 * IDataProviders (SFRComponents).
@@ -1747,81 +1947,89 @@ public class SFReactorIOHandler {
 
 			// Open the feature group.
 			int featureGroupId = openGroup(groupId, feature);
-
-			// Get the list of times.
-			for (String timeString : getChildNames(featureGroupId,
-					HDF5Constants.H5O_TYPE_DATASET)) {
-
-				// Open the dataset.
-				status = H5.H5Dopen(featureGroupId, timeString, H5P_DEFAULT);
-				if (status < 0) {
-					throwException("Opening dataset for IDataProvider.", status);
-				}
-				int datasetId = status;
-
-				// Open the dataspace.
-				status = H5.H5Dget_space(datasetId);
-				if (status < 0) {
-					throwException("Opening dataspace for IDataProvider.",
-							status);
-				}
-				int dataspaceId = status;
-
-				// Initialize the properties defining the dataspace.
-				int rank = 2;
-				long[] dims = new long[2];
-				int type = HDF5Constants.H5T_NATIVE_DOUBLE;
-
-				// Get the size of the data array.
-				status = H5.H5Sget_simple_extent_dims(dataspaceId, dims, null);
-				if (status != rank || dims[1] != 6) {
+			String featurePath = groupPaths.get(featureGroupId);
+
+			// Read the data packed into one dataset for all times.
+			if (H5.H5Lexists(featureGroupId, "Values", H5P_DEFAULT)) {
+
+				// Read the times and the number of rows at each time.
+				double[] times = SFRDataFile.readDataset(featureGroupId,
+						"Times", null, null);
+				double[] sizes = SFRDataFile.readDataset(featureGroupId,
+						"Sizes", null, null);
+				long[] dims = SFRDataFile.getDimensions(featureGroupId,
+						"Values");
+				if (dims.length != 3 || dims[0] != times.length
+						|| sizes.length != times.length || dims[2] != 6) {
 					throwException(
-							"Reading dataspace dimensions for IDataProvider.",
-							status);
+							"Reading packed dataspace dimensions for IDataProvider.",
+							dims.length);
 				}
 
-				// Initialize the buffer.
-				int size = (int) dims[0];
-				double[][] buffer = new double[size][6];
-
-				// Read in the data into the buffer.
-				status = H5.H5Dread(datasetId, type, H5S_ALL, H5S_ALL,
-						H5P_DEFAULT, buffer);
-				if (status < 0) {
-					throwException("Reading dataset for IDataProvider.", status);
+				// Unless the data is read lazily, read all of it now.
+				double[] buffer = null;
+				if (dataFile == null) {
+					buffer = SFRDataFile.readDataset(featureGroupId, "Values",
+							null, null);
 				}
-				// Close the dataspace.
-				status = H5.H5Sclose(dataspaceId);
-				if (status < 0) {
-					throwException("Closing dataspace for IDataProvider.",
-							status);
-				}
-				// Close the dataset.
-				status = H5.H5Dclose(datasetId);
-				if (status < 0) {
-					throwException("Closing dataset for IDataProvider.", status);
+
+				// Add a FeatureSet for each time with data.
+				for (int i = 0; i < times.length; i++) {
+					int rows = (int) sizes[i];
+					if (rows > 0) {
+						FeatureSet featureSet;
+						if (dataFile != null) {
+							featureSet = new FeatureSet(feature,
+									new SFRDataFile.Block(dataFile,
+											featurePath + "/Values", feature,
+											units, new long[] { i, 0, 0 },
+											new long[] { 1, rows, 6 }));
+						} else {
+							featureSet = new FeatureSet(feature);
+							featureSet.getData().addAll(
+									SFRDataFile.decode(feature, units, buffer,
+											i * (int) dims[1] * 6, rows));
+						}
+						provider.setFeatureSet(times[i], featureSet);
+					}
 				}
-				double time = Double.parseDouble(timeString);
-
-				// Initialize the IData for the timestep.
-				for (double[] dataBlock : buffer) {
-					// Initialize an iData.
-					SFRData data = new SFRData(feature);
-
-					// Set its data.
-					data.setValue(dataBlock[0]);
-					data.setUncertainty(dataBlock[1]);
-					ArrayList<Double> position = new ArrayList<Double>(3);
-					position.add(dataBlock[2]);
-					position.add(dataBlock[3]);
-					position.add(dataBlock[4]);
-					data.setPosition(position);
-
-					// Set the units from the pre-constructed array of data.
-					data.setUnits(units[(int) dataBlock[5]]);
-
-					// Add it to the component.
-					provider.addData(data, time);
+			}
+			// Otherwise, read the dataset for each time.
+			else {
+				for (String timeString : getChildNames(featureGroupId,
+						HDF5Constants.H5O_TYPE_DATASET)) {
+
+					// Get the size of the data array.
+					long[] dims = SFRDataFile.getDimensions(featureGroupId,
+							timeString);
+					if (dims.length != 2 || dims[1] != 6) {
+						throwException(
+								"Reading dataspace dimensions for IDataProvider.",
+								dims.length);
+					}
+					int rows = (int) dims[0];
+
+					// Add a FeatureSet for the time if it has data. Unless the
+					// data is read lazily, read it now.
+					if (rows > 0) {
+						FeatureSet featureSet;
+						if (dataFile != null) {
+							featureSet = new FeatureSet(feature,
+									new SFRDataFile.Block(dataFile,
+											featurePath + "/" + timeString,
+											feature, units, null, null));
+						} else {
+							featureSet = new FeatureSet(feature);
+							featureSet.getData().addAll(
+									SFRDataFile.decode(feature, units,
+											SFRDataFile.readDataset(
+													featureGroupId,
+													timeString, null, null),
+											0, rows));
+						}
+						provider.setFeatureSet(
+								Double.parseDouble(timeString), featureSet);
+					}
 				}
 			}
 			// Close the feature group.
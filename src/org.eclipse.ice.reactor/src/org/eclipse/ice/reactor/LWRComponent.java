@@ -13,6 +13,7 @@
 package org.eclipse.ice.reactor;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.TreeMap;
@@ -28,9 +29,12 @@ import ncsa.hdf.object.h5.H5Datatype;
 import ncsa.hdf.object.h5.H5File;
 import ncsa.hdf.object.h5.H5Group;
 
+import org.eclipse.ice.analysistool.FeatureStatistics;
 import org.eclipse.ice.analysistool.IData;
 import org.eclipse.ice.analysistool.IDataProvider;
+import org.eclipse.ice.analysistool.IStatisticsSource;
 import org.eclipse.ice.datastructures.ICEObject.IUpdateableListener;
+import org.eclipse.ice.datastructures.ICEObject.UpdateDispatcher;
 import org.eclipse.ice.datastructures.componentVisitor.IComponentVisitor;
 import org.eclipse.ice.datastructures.componentVisitor.IReactorComponent;
 import org.eclipse.ice.io.hdf.HdfReaderFactory;
@@ -64,7 +68,7 @@ import org.slf4j.LoggerFactory;
  * @author Scott Forest Hull II
  */
 public class LWRComponent implements IReactorComponent, IDataProvider,
-		IHdfWriteable, IHdfReadable {
+		IStatisticsSource, IHdfWriteable, IHdfReadable {
 
 	/**
 	 * Logger for handling event messages and other information.
@@ -104,6 +108,23 @@ public class LWRComponent implements IReactorComponent, IDataProvider,
 	 */
 	@XmlTransient
 	private TreeMap<Double, ArrayList<FeatureSet>> dataTree;
+	/**
+	 * <p>
+	 * The times in the dataTree in ascending order, used to find time steps
+	 * with a binary search. It is null when times were added to or removed
+	 * from the dataTree since it was last built. See {@link #getTimeArray()}.
+	 * </p>
+	 */
+	@XmlTransient
+	private double[] timeArray;
+	/**
+	 * <p>
+	 * The optional columnar store for the data. If this is not null, it is used
+	 * instead of the dataTree. See {@link #useColumnarStore()}.
+	 * </p>
+	 */
+	@XmlTransient
+	private LWRDataTable dataTable;
 	/**
 	 * <p>
 	 * The current time step. Can not be less than 0, and must be strictly less
@@ -130,6 +151,15 @@ public class LWRComponent implements IReactorComponent, IDataProvider,
 	 */
 	@XmlTransient
 	private String timeUnit;
+	/**
+	 * <p>
+	 * The statistics indices that are updated as data is added. See
+	 * {@link #addStatistics(FeatureStatistics)}.
+	 * </p>
+	 *
+	 */
+	@XmlTransient
+	private ArrayList<FeatureStatistics> statistics;
 	/**
 	 * <p>
 	 * The id of this LWRComponent. Can not be less than zero.
@@ -172,6 +202,9 @@ public class LWRComponent implements IReactorComponent, IDataProvider,
 		// Setup TreeMap
 		this.dataTree = new TreeMap<Double, ArrayList<FeatureSet>>();
 
+		// Setup statistics
+		this.statistics = new ArrayList<FeatureStatistics>();
+
 		// Setup Source
 		this.sourceInfo = "No Source Available";
 
@@ -198,6 +231,50 @@ public class LWRComponent implements IReactorComponent, IDataProvider,
 		this.setName(name);
 	}
 
+	/**
+	 * <p>
+	 * Switches this component to the columnar {@link LWRDataTable} for its
+	 * state point data. Any data already on the component is moved into the
+	 * table. This operation does nothing if the component is already columnar.
+	 * </p>
+	 *
+	 */
+	public void useColumnarStore() {
+
+		// Return if the table is already in use
+		if (this.dataTable != null) {
+			return;
+		}
+
+		// Move the contents of the tree into the table
+		this.dataTable = new LWRDataTable();
+		for (Double key : this.dataTree.keySet()) {
+			for (FeatureSet set : this.dataTree.get(key)) {
+				for (IData data : set.getIData()) {
+					this.dataTable.addData(data, key);
+				}
+			}
+		}
+		this.dataTree.clear();
+		this.timeArray = null;
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * Returns whether or not this component uses the columnar
+	 * {@link LWRDataTable} for its state point data.
+	 * </p>
+	 *
+	 * @return <p>
+	 *         True if the data is stored in columns, false otherwise.
+	 *         </p>
+	 */
+	public boolean isColumnar() {
+		return this.dataTable != null;
+	}
+
 	/**
 	 * This operation notifies the listeners of the LWRComponent that its data
 	 * state has changed.
@@ -208,26 +285,10 @@ public class LWRComponent implements IReactorComponent, IDataProvider,
 		if (this.listeners == null || this.listeners.isEmpty()) {
 			return;
 		}
-		// Local Declarations
-		final LWRComponent compHandle = this;
-
-		// Create a thread on which to notify the listeners.
-		Thread notifierThread = new Thread() {
-
-			@Override
-			public void run() {
-
-				// Loop over all listeners and update them
-				for (int i = 0; i < listeners.size(); i++) {
-					listeners.get(i).update(compHandle);
-				}
-
-				return;
-			}
-		};
 
-		// Launch the thread and do the notifications
-		notifierThread.start();
+		// Post the update to the shared dispatcher, which notifies the
+		// listeners on its own threads and merges rapid updates.
+		UpdateDispatcher.getDefault().post(this, listeners);
 
 		return;
 
@@ -277,6 +338,16 @@ public class LWRComponent implements IReactorComponent, IDataProvider,
 			return;
 		}
 
+		// Add the value to the attached statistics
+		indexValues(data.getFeature(), time, new double[] { data.getValue() });
+
+		// Append to the columnar store if it is in use
+		if (this.dataTable != null) {
+			this.dataTable.addData(data, time);
+			this.notifyListeners();
+			return;
+		}
+
 		featureSetList = this.dataTree.get(time);
 
 		// If the timestep does not exist in the list, add it to the list
@@ -286,6 +357,7 @@ public class LWRComponent implements IReactorComponent, IDataProvider,
 			set.addIData(data);
 			featureSetList.add(set);
 			this.dataTree.put(time, featureSetList);
+			this.timeArray = null;
 			this.notifyListeners();
 
 		}
@@ -320,6 +392,106 @@ public class LWRComponent implements IReactorComponent, IDataProvider,
 
 	}
 
+	/**
+	 * <p>
+	 * Adds a block of values for a single feature at the specified time. This
+	 * is intended for readers that load many values at once, and the listeners
+	 * are only notified once for the whole block. If the component is
+	 * columnar, the arrays are copied directly into the columns. Otherwise, an
+	 * LWRData is created for each value.
+	 * </p>
+	 *
+	 * @param feature
+	 *            <p>
+	 *            The name of the feature.
+	 *            </p>
+	 * @param time
+	 *            <p>
+	 *            The time of the data.
+	 *            </p>
+	 * @param values
+	 *            <p>
+	 *            The values.
+	 *            </p>
+	 * @param uncertainties
+	 *            <p>
+	 *            The uncertainties of the values, or null if they are all 0.
+	 *            </p>
+	 * @param positions
+	 *            <p>
+	 *            The x, y, z positions of the values, or null if they are all
+	 *            at the origin.
+	 *            </p>
+	 * @param units
+	 *            <p>
+	 *            The units of the values.
+	 *            </p>
+	 */
+	public void addData(String feature, double time, double[] values,
+			double[] uncertainties, double[] positions, String units) {
+
+		// Return if the passed parameters are incorrect
+		if (feature == null || feature.trim().isEmpty() || values == null
+				|| time < 0
+				|| (uncertainties != null && uncertainties.length != values.length)
+				|| (positions != null && positions.length != 3 * values.length)) {
+			return;
+		}
+
+		// Add the values to the attached statistics
+		indexValues(feature.trim(), time, values);
+
+		// Copy the arrays into the columnar store if it is in use
+		if (this.dataTable != null) {
+			this.dataTable.addData(feature, time, values, uncertainties,
+					positions, units);
+		}
+		// Otherwise, create an LWRData for each value and add it to the
+		// FeatureSet for the feature at the time
+		else {
+			ArrayList<FeatureSet> featureSetList = this.dataTree.get(time);
+			FeatureSet set = null;
+			String name = feature.trim();
+
+			if (featureSetList == null) {
+				featureSetList = new ArrayList<FeatureSet>();
+				this.dataTree.put(time, featureSetList);
+				this.timeArray = null;
+			}
+			for (int i = 0; i < featureSetList.size() && set == null; i++) {
+				if (featureSetList.get(i).getName().equals(name)) {
+					set = featureSetList.get(i);
+				}
+			}
+			if (set == null) {
+				set = new FeatureSet(name);
+				featureSetList.add(set);
+			}
+
+			for (int i = 0; i < values.length; i++) {
+				LWRData data = new LWRData(name);
+				data.setValue(values[i]);
+				if (uncertainties != null) {
+					data.setUncertainty(uncertainties[i]);
+				}
+				data.setUnits(units);
+				if (positions != null) {
+					ArrayList<Double> position = new ArrayList<Double>(3);
+					position.add(positions[3 * i]);
+					position.add(positions[3 * i + 1]);
+					position.add(positions[3 * i + 2]);
+					data.setPosition(position);
+				}
+				set.addIData(data);
+			}
+		}
+
+		// Notify the listeners once for the whole block
+		this.notifyListeners();
+
+		return;
+	}
+
 	/**
 	 * <p>
 	 * Removes the feature and all associated IData from the dataTree at all
@@ -342,6 +514,12 @@ public class LWRComponent implements IReactorComponent, IDataProvider,
 		if (feature == null) {
 			return;
 		}
+
+		// Remove it from the columnar store if it is in use
+		if (this.dataTable != null) {
+			updated = this.dataTable.removeFeature(feature);
+		}
+
 		// Get the iterator
 		Iterator<Double> iter;
 		iter = this.dataTree.keySet().iterator();
@@ -473,6 +651,8 @@ public class LWRComponent implements IReactorComponent, IDataProvider,
 					&& this.description.equals(component.description)
 					&& this.name.equals(component.name)
 					&& this.dataTree.equals(component.dataTree)
+					&& (this.dataTable == null ? component.dataTable == null
+							: this.dataTable.equals(component.dataTable))
 					&& this.time == component.time
 					&& this.sourceInfo.equals(component.sourceInfo)
 					&& this.HDF5LWRTag.equals(component.HDF5LWRTag) && this.timeUnit
@@ -499,6 +679,9 @@ public class LWRComponent implements IReactorComponent, IDataProvider,
 
 		// Calculate IDataProvider info
 		hash += 31 * this.dataTree.hashCode();
+		if (this.dataTable != null) {
+			hash += 31 * this.dataTable.hashCode();
+		}
 		hash += 31 * this.time;
 		hash += 31 * this.sourceInfo.hashCode();
 		hash += 31 * this.HDF5LWRTag.hashCode();
@@ -554,6 +737,11 @@ public class LWRComponent implements IReactorComponent, IDataProvider,
 	@Override
 	public ArrayList<String> getFeatureList() {
 
+		// Use the columnar store if it is in use
+		if (this.dataTable != null) {
+			return this.dataTable.getFeatureList();
+		}
+
 		// Local Declarations
 		ArrayList<String> featureList = new ArrayList<String>();
 		HashMap<String, Integer> map = new HashMap<String, Integer>();
@@ -590,6 +778,10 @@ public class LWRComponent implements IReactorComponent, IDataProvider,
 	@Override
 	public int getNumberOfTimeSteps() {
 
+		if (this.dataTable != null) {
+			return this.dataTable.getNumberOfTimeSteps();
+		}
+
 		return this.dataTree.size();
 	}
 
@@ -615,6 +807,12 @@ public class LWRComponent implements IReactorComponent, IDataProvider,
 		if (feature == null) {
 			return new ArrayList<IData>();
 		}
+
+		// Use the columnar store if it is in use
+		if (this.dataTable != null) {
+			return this.dataTable.getData(this.time, feature);
+		}
+
 		// Locate the list
 		ArrayList<FeatureSet> list = this.dataTree.get(this.time);
 
@@ -653,6 +851,11 @@ public class LWRComponent implements IReactorComponent, IDataProvider,
 		ArrayList<String> features = new ArrayList<String>();
 		ArrayList<FeatureSet> list = null;
 
+		// Use the columnar store if it is in use
+		if (this.dataTable != null) {
+			return this.dataTable.getFeatures(this.time);
+		}
+
 		// Get the list at the time
 		list = this.dataTree.get(this.time);
 
@@ -675,6 +878,11 @@ public class LWRComponent implements IReactorComponent, IDataProvider,
 	@Override
 	public ArrayList<Double> getTimes() {
 
+		// Use the columnar store if it is in use
+		if (this.dataTable != null) {
+			return this.dataTable.getTimes();
+		}
+
 		// Local Declarations
 		ArrayList<Double> times = new ArrayList<Double>();
 
@@ -697,24 +905,41 @@ public class LWRComponent implements IReactorComponent, IDataProvider,
 	@Override
 	public int getTimeStep(double time) {
 
-		// Get the iterator
-		Iterator<Double> iter = this.dataTree.keySet().iterator();
-		int counter = 0;
+		// The columnar store uses a binary search over its sorted times
+		if (this.dataTable != null) {
+			return this.dataTable.getTimeStep(time);
+		}
 
-		// Iterate the list
-		while (iter.hasNext()) {
+		// The index is the position of the time in the sorted times
+		int index = Arrays.binarySearch(getTimeArray(), time);
 
-			// If the time is there, return the index
-			if (iter.next().equals(time)) {
-				return counter;
-			}
-			counter++;
+		// Return -1 if the time was not found
+		return (index >= 0 ? index : -1);
 
-		}
+	}
 
-		// Time not found!
-		return -1;
+	/**
+	 * <p>
+	 * Returns the times in the dataTree in ascending order. The array is
+	 * rebuilt the first time it is needed after times were added to or
+	 * removed from the dataTree.
+	 * </p>
+	 *
+	 * @return The sorted times. It must not be modified.
+	 */
+	private double[] getTimeArray() {
+
+		// Rebuild the times if the dataTree changed
+		if (this.timeArray == null) {
+			double[] sortedTimes = new double[this.dataTree.size()];
+			int i = 0;
+			for (Double key : this.dataTree.keySet()) {
+				sortedTimes[i++] = key;
+			}
+			this.timeArray = sortedTimes;
+		}
 
+		return this.timeArray;
 	}
 
 	/*
@@ -802,7 +1027,7 @@ public class LWRComponent implements IReactorComponent, IDataProvider,
 				h5Group);
 
 		// Get the iterator
-		iter = this.dataTree.keySet().iterator();
+		iter = getTimes().iterator();
 
 		// Iterate over the dataTree and create timesteps for each key in the
 		// tree
@@ -811,8 +1036,19 @@ public class LWRComponent implements IReactorComponent, IDataProvider,
 			// Get the time
 			double time = iter.next();
 
-			// Get the list of FeatureSets at that time
-			ArrayList<FeatureSet> setList = this.dataTree.get(time);
+			// Get the list of FeatureSets at that time. The columnar store
+			// does not use FeatureSets, so only its feature names are needed.
+			ArrayList<FeatureSet> setList = null;
+			ArrayList<String> featureNames = null;
+			if (this.dataTable != null) {
+				featureNames = this.dataTable.getFeatures(time);
+			} else {
+				setList = this.dataTree.get(time);
+				featureNames = new ArrayList<String>(setList.size());
+				for (FeatureSet set : setList) {
+					featureNames.add(set.getName());
+				}
+			}
 
 			// Create a new timeStep group based on the prefix and the timeStep
 			timeStepH5Group = HdfWriterFactory.createH5Group(h5File,
@@ -830,17 +1066,18 @@ public class LWRComponent implements IReactorComponent, IDataProvider,
 
 			// Create a Compound Dataset for each timeStep to represent the
 			// collection of FeatureSets. This contains the list of Feature Sets
-			for (int i = 0; i < setList.size(); i++) {
+			for (int i = 0; i < featureNames.size(); i++) {
 
-				// Get the FeatureSet
-				FeatureSet set = setList.get(i);
+				// Get the name of the feature
+				String featureName = featureNames.get(i);
 
 				// Setup the size of the String array Dataset
 				int maxLength = 0;
 				H5Datatype datatype = null;
 
-				// Get the number of IDatas stored on the FeatureSet
-				int iDataSize = set.getIData().size();
+				// Get the number of IDatas stored for the feature
+				int iDataSize = (setList != null ? setList.get(i).getIData()
+						.size() : this.dataTable.getSize(time, featureName));
 
 				// Create the arrays for each dataSet
 				double[] value = new double[iDataSize];
@@ -848,23 +1085,36 @@ public class LWRComponent implements IReactorComponent, IDataProvider,
 				String[] units = new String[iDataSize];
 				double[] position = new double[iDataSize * 3];
 
-				// Iterate over the IDatas to fill out the arrays listed above
-				for (int j = 0; j < set.getIData().size(); j++) {
-					// Get the iData at the location
-					IData iData = set.getIData().get(j);
-
-					// Copy contents of iData to the array
-					value[j] = iData.getValue();
-					uncertainty[j] = iData.getUncertainty();
-					units[j] = iData.getUnits();
-					maxLength = Math.max(units[j].length(), maxLength);
-
-					// Get the position
-					ArrayList<Double> pos = iData.getPosition();
-					position[3 * j] = pos.get(0);
-					position[3 * j + 1] = pos.get(1);
-					position[3 * j + 2] = pos.get(2);
+				// Copy the columns straight into the arrays if the columnar
+				// store is in use
+				if (setList == null) {
+					this.dataTable.copyData(time, featureName, value,
+							uncertainty, units, position);
+					for (int j = 0; j < iDataSize; j++) {
+						maxLength = Math.max(units[j].length(), maxLength);
+					}
+				}
+				// Otherwise, iterate over the IDatas to fill out the arrays
+				// listed above
+				else {
+					ArrayList<IData> iDataList = setList.get(i).getIData();
+					for (int j = 0; j < iDataSize; j++) {
+						// Get the iData at the location
+						IData iData = iDataList.get(j);
+
+						// Copy contents of iData to the array
+						value[j] = iData.getValue();
+						uncertainty[j] = iData.getUncertainty();
+						units[j] = iData.getUnits();
+						maxLength = Math.max(units[j].length(), maxLength);
+
+						// Get the position
+						ArrayList<Double> pos = iData.getPosition();
+						position[3 * j] = pos.get(0);
+						position[3 * j + 1] = pos.get(1);
+						position[3 * j + 2] = pos.get(2);
 
+					}
 				}
 
 				// Setup the 3rd position in the memberList DataTypes for the
@@ -879,7 +1129,7 @@ public class LWRComponent implements IReactorComponent, IDataProvider,
 
 					// Calculate the dimensions of the length of each dataSet by
 					// the number of IDatas in the FeatureSet
-					long[] dims = { 1, set.getIData().size() };
+					long[] dims = { 1, iDataSize };
 
 					// Create the arrayList of objects to add the data to the
 					// list
@@ -893,7 +1143,7 @@ public class LWRComponent implements IReactorComponent, IDataProvider,
 					int[] memberSizes = { 1, 1, 1, 3 };
 
 					// Create the compound dataset
-					Dataset dataSet = h5File.createCompoundDS(set.getName(),
+					Dataset dataSet = h5File.createCompoundDS(featureName,
 							timeStepH5Group, dims, null, null, 0,
 							featureDSNames, memberDatatypes, memberSizes, data);
 					dataSet.init();
@@ -1029,6 +1279,22 @@ public class LWRComponent implements IReactorComponent, IDataProvider,
 					String[] units = (String[]) objects.get(2);
 					double[] pos = (double[]) objects.get(3);
 
+					// If the columnar store is in use, copy the arrays into it
+					// directly. The units are usually the same for every
+					// value, so they can be added as a single block.
+					if (this.dataTable != null) {
+						boolean sameUnits = true;
+						for (int k = 1; k < units.length && sameUnits; k++) {
+							sameUnits = units[k].equals(units[0]);
+						}
+						if (sameUnits) {
+							this.dataTable.addData(featureName, time, value,
+									uncertainty, pos, (units.length > 0 ? units[0]
+											: null));
+							continue;
+						}
+					}
+
 					// Iterate over the values and create the correct LWRData
 					for (int k = 0; k < value.length; k++) {
 
@@ -1048,7 +1314,11 @@ public class LWRComponent implements IReactorComponent, IDataProvider,
 						lwrdata.setPosition(position);
 
 						// Add the lwrdata to the list
-						set.addIData(lwrdata);
+						if (this.dataTable != null) {
+							this.dataTable.addData(lwrdata, time);
+						} else {
+							set.addIData(lwrdata);
+						}
 					}
 
 					// Add the set to the list
@@ -1057,7 +1327,10 @@ public class LWRComponent implements IReactorComponent, IDataProvider,
 				}
 
 				// Add the list to the dataTree
-				this.dataTree.put(time, list);
+				if (this.dataTable == null) {
+					this.dataTree.put(time, list);
+					this.timeArray = null;
+				}
 
 			}
 
@@ -1081,6 +1354,97 @@ public class LWRComponent implements IReactorComponent, IDataProvider,
 		return this.time;
 	}
 
+	/*
+	 * Implements method from IStatisticsSource.
+	 */
+	@Override
+	public void collectStatistics(FeatureStatistics statistics) {
+
+		// If null, return
+		if (statistics == null) {
+			return;
+		}
+
+		// Read the columns directly if the columnar store is in use
+		if (this.dataTable != null) {
+			this.dataTable.collectStatistics(statistics);
+			return;
+		}
+
+		// Add each FeatureSet at each time
+		for (Double key : this.dataTree.keySet()) {
+			for (FeatureSet set : this.dataTree.get(key)) {
+				statistics.addAll(set.getName(), key, 0, set.getIData());
+			}
+		}
+
+	}
+
+	/*
+	 * Implements method from IStatisticsSource.
+	 */
+	@Override
+	public void addStatistics(FeatureStatistics statistics) {
+		if (statistics != null && !this.statistics.contains(statistics)) {
+			this.statistics.add(statistics);
+		}
+	}
+
+	/*
+	 * Implements method from IStatisticsSource.
+	 */
+	@Override
+	public void removeStatistics(FeatureStatistics statistics) {
+		this.statistics.remove(statistics);
+	}
+
+	/**
+	 * <p>
+	 * Adds values that are about to be appended to a feature at a time to the
+	 * attached statistics. The first value is at the axial level after the
+	 * data already stored for the feature.
+	 * </p>
+	 *
+	 * @param feature
+	 *            <p>
+	 *            The name of the feature.
+	 *            </p>
+	 * @param time
+	 *            <p>
+	 *            The time of the values.
+	 *            </p>
+	 * @param values
+	 *            <p>
+	 *            The values.
+	 *            </p>
+	 */
+	private void indexValues(String feature, double time, double[] values) {
+
+		// Local Declarations
+		int level = 0;
+
+		// If no statistics are attached, return
+		if (this.statistics.isEmpty()) {
+			return;
+		}
+
+		// Find the number of values already stored
+		if (this.dataTable != null) {
+			level = this.dataTable.getSize(time, feature);
+		} else if (this.dataTree.containsKey(time)) {
+			for (FeatureSet set : this.dataTree.get(time)) {
+				if (set.getName().equals(feature)) {
+					level = set.getIData().size();
+				}
+			}
+		}
+
+		for (FeatureStatistics stats : this.statistics) {
+			stats.addAll(feature, time, level, values, values.length);
+		}
+
+	}
+
 	/**
 	 * <p>
 	 * Returns the LWRComponentType.
@@ -1121,6 +1485,14 @@ public class LWRComponent implements IReactorComponent, IDataProvider,
 
 		// Copy dataTree
 		this.dataTree.clear();
+		this.timeArray = null;
+
+		// Copy the columnar store
+		if (otherObject.dataTable != null) {
+			this.dataTable = (LWRDataTable) otherObject.dataTable.clone();
+		} else {
+			this.dataTable = null;
+		}
 
 		// Setup the iterator
 		iter = otherObject.dataTree.keySet().iterator();
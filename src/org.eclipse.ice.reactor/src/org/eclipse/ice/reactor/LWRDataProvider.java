@@ -17,8 +17,10 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.TreeMap;
 
+import org.eclipse.ice.analysistool.FeatureStatistics;
 import org.eclipse.ice.analysistool.IData;
 import org.eclipse.ice.analysistool.IDataProvider;
+import org.eclipse.ice.analysistool.IStatisticsSource;
 
 /**
  * <p>
@@ -29,7 +31,7 @@ import org.eclipse.ice.analysistool.IDataProvider;
  * 
  * @author Scott Forest Hull II
  */
-public class LWRDataProvider implements IDataProvider {
+public class LWRDataProvider implements IDataProvider, IStatisticsSource {
 	/**
 	 * <p>
 	 * A TreeMap implementation of IData and features. Keep in mind that there
@@ -38,6 +40,14 @@ public class LWRDataProvider implements IDataProvider {
 	 * 
 	 */
 	private TreeMap<Double, ArrayList<FeatureSet>> dataTree;
+	/**
+	 * <p>
+	 * The optional columnar store for the data. If this is not null, it is used
+	 * instead of the dataTree. See {@link #useColumnarStore()}.
+	 * </p>
+	 * 
+	 */
+	private LWRDataTable dataTable;
 	/**
 	 * <p>
 	 * The current time step. Can not be less than 0, and must be strictly less
@@ -61,6 +71,14 @@ public class LWRDataProvider implements IDataProvider {
 	 * 
 	 */
 	private String timeUnit;
+	/**
+	 * <p>
+	 * The statistics indices that are updated as data is added. See
+	 * {@link #addStatistics(FeatureStatistics)}.
+	 * </p>
+	 * 
+	 */
+	private ArrayList<FeatureStatistics> statistics;
 
 	/**
 	 * <p>
@@ -78,6 +96,74 @@ public class LWRDataProvider implements IDataProvider {
 		// Setup time
 		this.time = 0;
 		this.timeUnit = "seconds";
+
+		// Setup statistics
+		this.statistics = new ArrayList<FeatureStatistics>();
+	}
+
+	/**
+	 * <p>
+	 * A parameterized constructor.
+	 * </p>
+	 * 
+	 * @param columnar
+	 *            <p>
+	 *            If true, the data is kept in a columnar {@link LWRDataTable}
+	 *            instead of a tree of LWRData. This is recommended for large
+	 *            data sets.
+	 *            </p>
+	 */
+	public LWRDataProvider(boolean columnar) {
+		// Call the nullary constructor
+		this();
+
+		// Switch to the columnar store if requested
+		if (columnar) {
+			this.dataTable = new LWRDataTable();
+		}
+	}
+
+	/**
+	 * <p>
+	 * Switches this provider to the columnar {@link LWRDataTable}. Any data
+	 * already in the provider is moved into the table. This operation does
+	 * nothing if the provider is already columnar.
+	 * </p>
+	 * 
+	 */
+	public void useColumnarStore() {
+
+		// Return if the table is already in use
+		if (this.dataTable != null) {
+			return;
+		}
+
+		// Move the contents of the tree into the table
+		this.dataTable = new LWRDataTable();
+		for (Double key : this.dataTree.keySet()) {
+			for (FeatureSet set : this.dataTree.get(key)) {
+				for (IData data : set.getIData()) {
+					this.dataTable.addData(data, key);
+				}
+			}
+		}
+		this.dataTree.clear();
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * Returns whether or not this provider uses the columnar
+	 * {@link LWRDataTable} for its data.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         True if the data is stored in columns, false otherwise.
+	 *         </p>
+	 */
+	public boolean isColumnar() {
+		return this.dataTable != null;
 	}
 
 	/**
@@ -122,6 +208,15 @@ public class LWRDataProvider implements IDataProvider {
 			return;
 		}
 
+		// Add the value to the attached statistics
+		indexValues(data.getFeature(), time, new double[] { data.getValue() });
+
+		// Append to the columnar store if it is in use
+		if (this.dataTable != null) {
+			this.dataTable.addData(data, time);
+			return;
+		}
+
 		featureSetList = this.dataTree.get(time);
 
 		// If the timestep does not exist in the list, add it to the list
@@ -162,6 +257,80 @@ public class LWRDataProvider implements IDataProvider {
 
 	}
 
+	/**
+	 * <p>
+	 * Adds a block of values for a single feature at the specified time. This
+	 * is intended for readers that load many values at once. If the provider
+	 * is columnar, the arrays are copied directly into the columns. Otherwise,
+	 * an LWRData is created for each value.
+	 * </p>
+	 * 
+	 * @param feature
+	 *            <p>
+	 *            The name of the feature.
+	 *            </p>
+	 * @param time
+	 *            <p>
+	 *            The time of the data.
+	 *            </p>
+	 * @param values
+	 *            <p>
+	 *            The values.
+	 *            </p>
+	 * @param uncertainties
+	 *            <p>
+	 *            The uncertainties of the values, or null if they are all 0.
+	 *            </p>
+	 * @param positions
+	 *            <p>
+	 *            The x, y, z positions of the values, or null if they are all
+	 *            at the origin.
+	 *            </p>
+	 * @param units
+	 *            <p>
+	 *            The units of the values.
+	 *            </p>
+	 */
+	public void addData(String feature, double time, double[] values,
+			double[] uncertainties, double[] positions, String units) {
+
+		// Return if the passed parameters are incorrect
+		if (feature == null || feature.trim().isEmpty() || values == null
+				|| time < 0
+				|| (uncertainties != null && uncertainties.length != values.length)
+				|| (positions != null && positions.length != 3 * values.length)) {
+			return;
+		}
+
+		// Copy the arrays into the columnar store if it is in use
+		if (this.dataTable != null) {
+			indexValues(feature.trim(), time, values);
+			this.dataTable.addData(feature, time, values, uncertainties,
+					positions, units);
+			return;
+		}
+
+		// Otherwise, create an LWRData for each value
+		for (int i = 0; i < values.length; i++) {
+			LWRData data = new LWRData(feature);
+			data.setValue(values[i]);
+			if (uncertainties != null) {
+				data.setUncertainty(uncertainties[i]);
+			}
+			data.setUnits(units);
+			if (positions != null) {
+				ArrayList<Double> position = new ArrayList<Double>(3);
+				position.add(positions[3 * i]);
+				position.add(positions[3 * i + 1]);
+				position.add(positions[3 * i + 2]);
+				data.setPosition(position);
+			}
+			addData(data, time);
+		}
+
+		return;
+	}
+
 	/**
 	 * <p>
 	 * Removes the feature and all associated IData from the dataTree at all
@@ -181,6 +350,13 @@ public class LWRDataProvider implements IDataProvider {
 		if (feature == null) {
 			return;
 		}
+
+		// Remove it from the columnar store if it is in use
+		if (this.dataTable != null) {
+			this.dataTable.removeFeature(feature);
+			return;
+		}
+
 		// Get the iterator
 		Iterator<Double> iter;
 		iter = this.dataTree.keySet().iterator();
@@ -223,6 +399,13 @@ public class LWRDataProvider implements IDataProvider {
 		// Copy dataTree
 		this.dataTree.clear();
 
+		// Copy the columnar store
+		if (otherObject.dataTable != null) {
+			this.dataTable = (LWRDataTable) otherObject.dataTable.clone();
+		} else {
+			this.dataTable = null;
+		}
+
 		// Setup the iterator
 		iter = otherObject.dataTree.keySet().iterator();
 
@@ -313,6 +496,8 @@ public class LWRDataProvider implements IDataProvider {
 
 			// Check values
 			retVal = (this.dataTree.equals(component.dataTree)
+					&& (this.dataTable == null ? component.dataTable == null
+							: this.dataTable.equals(component.dataTable))
 					&& this.time == component.time
 					&& this.sourceInfo.equals(component.sourceInfo) && this.timeUnit
 					.equals(component.timeUnit));
@@ -339,6 +524,9 @@ public class LWRDataProvider implements IDataProvider {
 
 		// Calculate IDataProvider info
 		hash += 31 * this.dataTree.hashCode();
+		if (this.dataTable != null) {
+			hash += 31 * this.dataTable.hashCode();
+		}
 		hash += 31 * this.time;
 		hash += 31 * this.sourceInfo.hashCode();
 		hash += 31 * this.timeUnit.hashCode();
@@ -354,6 +542,11 @@ public class LWRDataProvider implements IDataProvider {
 	@Override
 	public ArrayList<String> getFeatureList() {
 
+		// Use the columnar store if it is in use
+		if (this.dataTable != null) {
+			return this.dataTable.getFeatureList();
+		}
+
 		// Local Declarations
 		ArrayList<String> featureList = new ArrayList<String>();
 		HashMap<String, Integer> map = new HashMap<String, Integer>();
@@ -390,6 +583,10 @@ public class LWRDataProvider implements IDataProvider {
 	@Override
 	public int getNumberOfTimeSteps() {
 
+		if (this.dataTable != null) {
+			return this.dataTable.getNumberOfTimeSteps();
+		}
+
 		return this.dataTree.size();
 	}
 
@@ -414,6 +611,12 @@ public class LWRDataProvider implements IDataProvider {
 		if (feature == null) {
 			return new ArrayList<IData>();
 		}
+
+		// Use the columnar store if it is in use
+		if (this.dataTable != null) {
+			return this.dataTable.getData(this.time, feature);
+		}
+
 		// Locate the list
 		ArrayList<FeatureSet> list = this.dataTree.get(this.time);
 
@@ -452,6 +655,11 @@ public class LWRDataProvider implements IDataProvider {
 		ArrayList<String> features = new ArrayList<String>();
 		ArrayList<FeatureSet> list = null;
 
+		// Use the columnar store if it is in use
+		if (this.dataTable != null) {
+			return this.dataTable.getFeatures(this.time);
+		}
+
 		// Get the list at the time
 		list = this.dataTree.get(this.time);
 
@@ -474,6 +682,11 @@ public class LWRDataProvider implements IDataProvider {
 	@Override
 	public ArrayList<Double> getTimes() {
 
+		// Use the columnar store if it is in use
+		if (this.dataTable != null) {
+			return this.dataTable.getTimes();
+		}
+
 		// Local Declarations
 		ArrayList<Double> times = new ArrayList<Double>();
 
@@ -496,23 +709,18 @@ public class LWRDataProvider implements IDataProvider {
 	@Override
 	public int getTimeStep(double time) {
 
-		// Get the iterator
-		Iterator<Double> iter = this.dataTree.keySet().iterator();
-		int counter = 0;
-
-		// Iterate the list
-		while (iter.hasNext()) {
-
-			// If the time is there, return the index
-			if (iter.next().equals(time)) {
-				return counter;
-			}
-			counter++;
-
+		// The columnar store uses a binary search over its sorted times
+		if (this.dataTable != null) {
+			return this.dataTable.getTimeStep(time);
 		}
 
 		// Time not found!
-		return -1;
+		if (!this.dataTree.containsKey(time)) {
+			return -1;
+		}
+
+		// The index is the number of times before it
+		return this.dataTree.headMap(time).size();
 
 	}
 
@@ -539,4 +747,95 @@ public class LWRDataProvider implements IDataProvider {
 
 		return this.time;
 	}
+
+	/*
+	 * Implements a method from IStatisticsSource.
+	 */
+	@Override
+	public void collectStatistics(FeatureStatistics statistics) {
+
+		// If null, return
+		if (statistics == null) {
+			return;
+		}
+
+		// Read the columns directly if the columnar store is in use
+		if (this.dataTable != null) {
+			this.dataTable.collectStatistics(statistics);
+			return;
+		}
+
+		// Add each FeatureSet at each time
+		for (Double key : this.dataTree.keySet()) {
+			for (FeatureSet set : this.dataTree.get(key)) {
+				statistics.addAll(set.getName(), key, 0, set.getIData());
+			}
+		}
+
+	}
+
+	/*
+	 * Implements a method from IStatisticsSource.
+	 */
+	@Override
+	public void addStatistics(FeatureStatistics statistics) {
+		if (statistics != null && !this.statistics.contains(statistics)) {
+			this.statistics.add(statistics);
+		}
+	}
+
+	/*
+	 * Implements a method from IStatisticsSource.
+	 */
+	@Override
+	public void removeStatistics(FeatureStatistics statistics) {
+		this.statistics.remove(statistics);
+	}
+
+	/**
+	 * <p>
+	 * Adds values that are about to be appended to a feature at a time to the
+	 * attached statistics. The first value is at the axial level after the
+	 * data already stored for the feature.
+	 * </p>
+	 * 
+	 * @param feature
+	 *            <p>
+	 *            The name of the feature.
+	 *            </p>
+	 * @param time
+	 *            <p>
+	 *            The time of the values.
+	 *            </p>
+	 * @param values
+	 *            <p>
+	 *            The values.
+	 *            </p>
+	 */
+	private void indexValues(String feature, double time, double[] values) {
+
+		// Local Declarations
+		int level = 0;
+
+		// If no statistics are attached, return
+		if (this.statistics.isEmpty()) {
+			return;
+		}
+
+		// Find the number of values already stored
+		if (this.dataTable != null) {
+			level = this.dataTable.getSize(time, feature);
+		} else if (this.dataTree.containsKey(time)) {
+			for (FeatureSet set : this.dataTree.get(time)) {
+				if (set.getName().equals(feature)) {
+					level = set.getIData().size();
+				}
+			}
+		}
+
+		for (FeatureStatistics stats : this.statistics) {
+			stats.addAll(feature, time, level, values, values.length);
+		}
+
+	}
 }
\ No newline at end of file
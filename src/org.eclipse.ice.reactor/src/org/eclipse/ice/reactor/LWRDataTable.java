@@ -0,0 +1,938 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.reactor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import org.eclipse.ice.analysistool.FeatureStatistics;
+import org.eclipse.ice.analysistool.IData;
+
+/**
+ * <p>
+ * A columnar store for state point data. It holds the same information as the
+ * TreeMap of {@link FeatureSet}s used by {@link LWRComponent} and
+ * {@link LWRDataProvider}, but each feature at each time is kept as a set of
+ * primitive double columns (value, uncertainty and x, y, z position) instead
+ * of a list of {@link LWRData} objects.
+ * </p>
+ * <p>
+ * Feature names are interned to integer ids and the times are kept in a
+ * sorted double array, so locating the data for a time and feature is a
+ * binary search followed by an array lookup. {@link IData} instances are only
+ * created when {@link #getData(double, String)} is called.
+ * </p>
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ */
+public class LWRDataTable {
+
+	/**
+	 * The units used when none are specified. This is the same as the default
+	 * units of {@link LWRData}.
+	 */
+	private static final String DEFAULT_UNITS = "seconds";
+
+	/**
+	 * The initial capacity for the time index and for new columns.
+	 */
+	private static final int INITIAL_CAPACITY = 8;
+
+	/**
+	 * The ids of all features ever added to the table, keyed on their names.
+	 */
+	private final HashMap<String, Integer> featureIds;
+	/**
+	 * The feature names, indexed by their ids.
+	 */
+	private final ArrayList<String> featureNames;
+	/**
+	 * The interned units strings. This keeps a single String instance for
+	 * every distinct unit in the table.
+	 */
+	private final HashMap<String, String> units;
+
+	/**
+	 * The sorted times. Only the first {@link #timeCount} entries are valid.
+	 */
+	private double[] times;
+	/**
+	 * The data at each time. Entry i holds the data for times[i].
+	 */
+	private TimeSlice[] slices;
+	/**
+	 * The number of times in the table.
+	 */
+	private int timeCount;
+
+	/**
+	 * The default constructor.
+	 */
+	public LWRDataTable() {
+		featureIds = new HashMap<String, Integer>();
+		featureNames = new ArrayList<String>();
+		units = new HashMap<String, String>();
+
+		times = new double[INITIAL_CAPACITY];
+		slices = new TimeSlice[INITIAL_CAPACITY];
+		timeCount = 0;
+	}
+
+	/**
+	 * <p>
+	 * Adds a single IData to the table at the specified time. If the feature
+	 * already exists at that time, the data is appended to the end of its
+	 * columns.
+	 * </p>
+	 *
+	 * @param data
+	 *            The data to add. If null, nothing is added.
+	 * @param time
+	 *            The time of the data. Must be non-negative.
+	 */
+	public void addData(IData data, double time) {
+
+		// Return if the passed parameters are incorrect
+		if (data == null || time < 0) {
+			return;
+		}
+
+		// Get the position, which is always x, y, z.
+		ArrayList<Double> position = data.getPosition();
+		double x = 0.0, y = 0.0, z = 0.0;
+		if (position != null && position.size() == 3) {
+			x = position.get(0);
+			y = position.get(1);
+			z = position.get(2);
+		}
+
+		// Append the data to the column for the feature.
+		Column column = getOrCreateColumn(data.getFeature(), time);
+		if (column != null) {
+			column.add(data.getValue(), data.getUncertainty(), x, y, z,
+					internUnits(data.getUnits()));
+		}
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * Adds a block of values for a single feature at the specified time. This
+	 * is the preferred way for readers to fill the table because it copies the
+	 * arrays directly into the columns without creating any IData.
+	 * </p>
+	 *
+	 * @param feature
+	 *            The name of the feature. Must not be null or empty.
+	 * @param time
+	 *            The time of the data. Must be non-negative.
+	 * @param values
+	 *            The values to add. Must not be null.
+	 * @param uncertainties
+	 *            The uncertainties of the values. If null, the uncertainties
+	 *            are set to 0. Otherwise, it must have the same length as
+	 *            values.
+	 * @param positions
+	 *            The positions of the values as x, y, z triples. If null, the
+	 *            positions are set to the origin. Otherwise, it must have three
+	 *            times the length of values.
+	 * @param units
+	 *            The units of all of the values. If null or empty, the default
+	 *            LWRData units are used.
+	 * @return True if the data was added, false otherwise.
+	 */
+	public boolean addData(String feature, double time, double[] values,
+			double[] uncertainties, double[] positions, String units) {
+
+		// Return if the passed parameters are incorrect
+		if (values == null || time < 0
+				|| (uncertainties != null && uncertainties.length != values.length)
+				|| (positions != null && positions.length != 3 * values.length)) {
+			return false;
+		}
+
+		// Append the arrays to the column for the feature.
+		Column column = getOrCreateColumn(feature, time);
+		if (column != null) {
+			column.addAll(values, uncertainties, positions, internUnits(units));
+		}
+
+		return column != null;
+	}
+
+	/**
+	 * <p>
+	 * Removes the feature and all of its data at every time.
+	 * </p>
+	 *
+	 * @param feature
+	 *            The name of the feature to remove.
+	 * @return True if any data was removed, false otherwise.
+	 */
+	public boolean removeFeature(String feature) {
+
+		// Local Declarations
+		boolean removed = false;
+		Integer id = (feature != null ? featureIds.get(feature) : null);
+
+		// Remove the feature's column from each time.
+		if (id != null) {
+			for (int i = 0; i < timeCount; i++) {
+				removed |= slices[i].remove(id);
+			}
+		}
+
+		return removed;
+	}
+
+	/**
+	 * <p>
+	 * Removes all data from the table.
+	 * </p>
+	 */
+	public void clear() {
+		Arrays.fill(slices, 0, timeCount, null);
+		timeCount = 0;
+	}
+
+	/**
+	 * <p>
+	 * Returns the list of features that have data at any time.
+	 * </p>
+	 *
+	 * @return A new list of feature names.
+	 */
+	public ArrayList<String> getFeatureList() {
+
+		// Local Declarations
+		int featureCount = featureNames.size();
+		boolean[] found = new boolean[featureCount];
+		ArrayList<String> features = new ArrayList<String>();
+
+		// Mark every feature id that is present at some time.
+		for (int i = 0; i < timeCount; i++) {
+			TimeSlice slice = slices[i];
+			for (int j = 0; j < slice.orderSize; j++) {
+				found[slice.order[j]] = true;
+			}
+		}
+
+		// Convert the ids to names.
+		for (int id = 0; id < featureCount; id++) {
+			if (found[id]) {
+				features.add(featureNames.get(id));
+			}
+		}
+
+		return features;
+	}
+
+	/**
+	 * <p>
+	 * Returns the list of features that have data at the specified time, in
+	 * the order in which they were first added at that time.
+	 * </p>
+	 *
+	 * @param time
+	 *            The time.
+	 * @return A new list of feature names. It is empty if the time does not
+	 *         exist.
+	 */
+	public ArrayList<String> getFeatures(double time) {
+
+		// Local Declarations
+		ArrayList<String> features = new ArrayList<String>();
+		int index = getTimeStep(time);
+
+		if (index >= 0) {
+			TimeSlice slice = slices[index];
+			for (int j = 0; j < slice.orderSize; j++) {
+				features.add(featureNames.get(slice.order[j]));
+			}
+		}
+
+		return features;
+	}
+
+	/**
+	 * <p>
+	 * Returns the number of distinct times in the table.
+	 * </p>
+	 *
+	 * @return The number of times.
+	 */
+	public int getNumberOfTimeSteps() {
+		return timeCount;
+	}
+
+	/**
+	 * <p>
+	 * Returns all of the times in ascending order.
+	 * </p>
+	 *
+	 * @return A new list of times.
+	 */
+	public ArrayList<Double> getTimes() {
+		ArrayList<Double> list = new ArrayList<Double>(timeCount);
+		for (int i = 0; i < timeCount; i++) {
+			list.add(times[i]);
+		}
+		return list;
+	}
+
+	/**
+	 * <p>
+	 * Returns the index of the specified time using a binary search over the
+	 * sorted time index.
+	 * </p>
+	 *
+	 * @param time
+	 *            The time to find.
+	 * @return The index of the time, or -1 if the time does not exist.
+	 */
+	public int getTimeStep(double time) {
+		int index = Arrays.binarySearch(times, 0, timeCount, time);
+		return (index >= 0 ? index : -1);
+	}
+
+	/**
+	 * <p>
+	 * Returns the number of values stored for a feature at a time.
+	 * </p>
+	 *
+	 * @param time
+	 *            The time.
+	 * @param feature
+	 *            The name of the feature.
+	 * @return The number of values, or 0 if there are none.
+	 */
+	public int getSize(double time, String feature) {
+		Column column = getColumn(time, feature);
+		return (column != null ? column.size : 0);
+	}
+
+	/**
+	 * <p>
+	 * Returns the data for a feature at a time. New {@link LWRData} instances
+	 * are created from the columns on each call, so modifying them does not
+	 * change the table.
+	 * </p>
+	 *
+	 * @param time
+	 *            The time.
+	 * @param feature
+	 *            The name of the feature.
+	 * @return A new list of the data. It is empty if there is no data.
+	 */
+	public ArrayList<IData> getData(double time, String feature) {
+
+		// Local Declarations
+		Column column = getColumn(time, feature);
+		ArrayList<IData> dataList;
+
+		if (column == null) {
+			return new ArrayList<IData>();
+		}
+
+		// Create an LWRData for each row in the column.
+		String name = featureNames.get(featureIds.get(feature));
+		dataList = new ArrayList<IData>(column.size);
+		for (int i = 0; i < column.size; i++) {
+			LWRData data = new LWRData(name);
+			data.setValue(column.values[i]);
+			data.setUncertainty(column.uncertainties[i]);
+			data.setUnits(column.getUnits(i));
+			ArrayList<Double> position = new ArrayList<Double>(3);
+			position.add(column.positions[3 * i]);
+			position.add(column.positions[3 * i + 1]);
+			position.add(column.positions[3 * i + 2]);
+			data.setPosition(position);
+			dataList.add(data);
+		}
+
+		return dataList;
+	}
+
+	/**
+	 * <p>
+	 * Copies the columns for a feature at a time into the provided arrays.
+	 * Each array may be null if it is not required. Otherwise, each array must
+	 * be at least as long as {@link #getSize(double, String)} (three times as
+	 * long for the positions).
+	 * </p>
+	 *
+	 * @param time
+	 *            The time.
+	 * @param feature
+	 *            The name of the feature.
+	 * @param values
+	 *            The array to fill with the values.
+	 * @param uncertainties
+	 *            The array to fill with the uncertainties.
+	 * @param units
+	 *            The array to fill with the units.
+	 * @param positions
+	 *            The array to fill with the x, y, z positions.
+	 * @return The number of values copied.
+	 */
+	public int copyData(double time, String feature, double[] values,
+			double[] uncertainties, String[] units, double[] positions) {
+
+		// Local Declarations
+		Column column = getColumn(time, feature);
+
+		if (column == null) {
+			return 0;
+		}
+
+		// Copy each of the requested columns.
+		if (values != null) {
+			System.arraycopy(column.values, 0, values, 0, column.size);
+		}
+		if (uncertainties != null) {
+			System.arraycopy(column.uncertainties, 0, uncertainties, 0,
+					column.size);
+		}
+		if (positions != null) {
+			System.arraycopy(column.positions, 0, positions, 0,
+					3 * column.size);
+		}
+		if (units != null) {
+			for (int i = 0; i < column.size; i++) {
+				units[i] = column.getUnits(i);
+			}
+		}
+
+		return column.size;
+	}
+
+	/**
+	 * <p>
+	 * Adds the values of every feature at every time to a statistics index.
+	 * The values are read straight from the columns, and the value in row
+	 * <i>i</i> is added as axial level <i>i</i>.
+	 * </p>
+	 *
+	 * @param statistics
+	 *            The index to fill.
+	 */
+	public void collectStatistics(FeatureStatistics statistics) {
+		for (int i = 0; i < timeCount; i++) {
+			TimeSlice slice = slices[i];
+			for (int j = 0; j < slice.orderSize; j++) {
+				Column column = slice.columns[slice.order[j]];
+				statistics.addAll(featureNames.get(slice.order[j]), times[i],
+						0, column.values, column.size);
+			}
+		}
+		return;
+	}
+
+	/**
+	 * <p>
+	 * Deep copies the contents of another table into this one.
+	 * </p>
+	 *
+	 * @param otherObject
+	 *            The table to copy.
+	 */
+	public void copy(LWRDataTable otherObject) {
+
+		// If null or the same, return
+		if (otherObject == null || otherObject == this) {
+			return;
+		}
+
+		// Copy the interned features and units.
+		featureIds.clear();
+		featureIds.putAll(otherObject.featureIds);
+		featureNames.clear();
+		featureNames.addAll(otherObject.featureNames);
+		units.clear();
+		units.putAll(otherObject.units);
+
+		// Copy the time index and each time's columns.
+		timeCount = otherObject.timeCount;
+		times = Arrays.copyOf(otherObject.times, otherObject.times.length);
+		slices = new TimeSlice[otherObject.slices.length];
+		for (int i = 0; i < timeCount; i++) {
+			slices[i] = new TimeSlice(otherObject.slices[i]);
+		}
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * Deep copies and returns a newly instantiated object.
+	 * </p>
+	 *
+	 * @return The newly instantiated copied object.
+	 */
+	@Override
+	public Object clone() {
+		LWRDataTable table = new LWRDataTable();
+		table.copy(this);
+		return table;
+	}
+
+	/*
+	 * Overrides a method from Object.
+	 */
+	@Override
+	public boolean equals(Object otherObject) {
+
+		// Local Declarations
+		LWRDataTable table;
+
+		if (this == otherObject) {
+			return true;
+		}
+		if (!(otherObject instanceof LWRDataTable)) {
+			return false;
+		}
+		table = (LWRDataTable) otherObject;
+
+		// Compare the times.
+		if (timeCount != table.timeCount) {
+			return false;
+		}
+		for (int i = 0; i < timeCount; i++) {
+			if (Double.compare(times[i], table.times[i]) != 0) {
+				return false;
+			}
+		}
+
+		// Compare the features at each time by name, in order.
+		for (int i = 0; i < timeCount; i++) {
+			TimeSlice slice = slices[i];
+			TimeSlice otherSlice = table.slices[i];
+			if (slice.orderSize != otherSlice.orderSize) {
+				return false;
+			}
+			for (int j = 0; j < slice.orderSize; j++) {
+				int id = slice.order[j];
+				int otherId = otherSlice.order[j];
+				if (!featureNames.get(id).equals(
+						table.featureNames.get(otherId))
+						|| !slice.columns[id].equals(otherSlice.columns[otherId])) {
+					return false;
+				}
+			}
+		}
+
+		return true;
+	}
+
+	/*
+	 * Overrides a method from Object.
+	 */
+	@Override
+	public int hashCode() {
+
+		int hash = 31;
+
+		for (int i = 0; i < timeCount; i++) {
+			long bits = Double.doubleToLongBits(times[i]);
+			hash = 31 * hash + (int) (bits ^ (bits >>> 32));
+			TimeSlice slice = slices[i];
+			for (int j = 0; j < slice.orderSize; j++) {
+				int id = slice.order[j];
+				hash = 31 * hash + featureNames.get(id).hashCode();
+				hash = 31 * hash + slice.columns[id].hashCode();
+			}
+		}
+
+		return hash;
+	}
+
+	/**
+	 * Gets the column for a feature at a time.
+	 *
+	 * @param time
+	 *            The time.
+	 * @param feature
+	 *            The name of the feature.
+	 * @return The column, or null if there is no data for the feature at the
+	 *         time.
+	 */
+	private Column getColumn(double time, String feature) {
+
+		// Local Declarations
+		Integer id = (feature != null ? featureIds.get(feature) : null);
+		int index;
+
+		if (id == null) {
+			return null;
+		}
+		index = getTimeStep(time);
+		return (index >= 0 ? slices[index].get(id) : null);
+	}
+
+	/**
+	 * Gets the column for a feature at a time, creating the time, the feature
+	 * id and the column as necessary.
+	 *
+	 * @param feature
+	 *            The name of the feature. It is trimmed before it is used.
+	 * @param time
+	 *            The time.
+	 * @return The column, or null if the feature name is invalid.
+	 */
+	private Column getOrCreateColumn(String feature, double time) {
+
+		// Return if the feature is invalid
+		if (feature == null || feature.trim().isEmpty()) {
+			return null;
+		}
+		feature = feature.trim();
+
+		// Intern the feature name.
+		Integer id = featureIds.get(feature);
+		if (id == null) {
+			id = featureNames.size();
+			featureNames.add(feature);
+			featureIds.put(feature, id);
+		}
+
+		// Find or insert the time. Readers typically add data in increasing
+		// time order, so the insertion is usually an append.
+		int index = Arrays.binarySearch(times, 0, timeCount, time);
+		if (index < 0) {
+			index = -(index + 1);
+			if (timeCount == times.length) {
+				int capacity = 2 * times.length;
+				times = Arrays.copyOf(times, capacity);
+				slices = Arrays.copyOf(slices, capacity);
+			}
+			System.arraycopy(times, index, times, index + 1, timeCount - index);
+			System.arraycopy(slices, index, slices, index + 1, timeCount
+					- index);
+			times[index] = time;
+			slices[index] = new TimeSlice();
+			timeCount++;
+		}
+
+		return slices[index].getOrCreate(id);
+	}
+
+	/**
+	 * Interns a units string.
+	 *
+	 * @param unit
+	 *            The units. If null or empty, the default units are used.
+	 * @return The shared instance of the trimmed units string.
+	 */
+	private String internUnits(String unit) {
+		if (unit == null || unit.trim().isEmpty()) {
+			unit = DEFAULT_UNITS;
+		} else {
+			unit = unit.trim();
+		}
+		String interned = units.get(unit);
+		if (interned == null) {
+			units.put(unit, unit);
+			interned = unit;
+		}
+		return interned;
+	}
+
+	/**
+	 * The columns for every feature at a single time.
+	 */
+	private static class TimeSlice {
+
+		/**
+		 * The columns, indexed by feature id. Features without data at this
+		 * time have a null column.
+		 */
+		private Column[] columns;
+		/**
+		 * The feature ids in the order they were added at this time.
+		 */
+		private int[] order;
+		/**
+		 * The number of valid entries in {@link #order}.
+		 */
+		private int orderSize;
+
+		/**
+		 * The default constructor.
+		 */
+		public TimeSlice() {
+			columns = new Column[INITIAL_CAPACITY];
+			order = new int[INITIAL_CAPACITY];
+			orderSize = 0;
+		}
+
+		/**
+		 * A deep-copy constructor.
+		 *
+		 * @param other
+		 *            The slice to copy.
+		 */
+		public TimeSlice(TimeSlice other) {
+			columns = new Column[other.columns.length];
+			for (int i = 0; i < columns.length; i++) {
+				if (other.columns[i] != null) {
+					columns[i] = new Column(other.columns[i]);
+				}
+			}
+			order = Arrays.copyOf(other.order, other.order.length);
+			orderSize = other.orderSize;
+		}
+
+		/**
+		 * Gets the column for a feature id.
+		 *
+		 * @param id
+		 *            The feature id.
+		 * @return The column, or null if there is none.
+		 */
+		public Column get(int id) {
+			return (id < columns.length ? columns[id] : null);
+		}
+
+		/**
+		 * Gets the column for a feature id, creating it if necessary.
+		 *
+		 * @param id
+		 *            The feature id.
+		 * @return The column.
+		 */
+		public Column getOrCreate(int id) {
+			if (id >= columns.length) {
+				columns = Arrays.copyOf(columns,
+						Math.max(id + 1, 2 * columns.length));
+			}
+			Column column = columns[id];
+			if (column == null) {
+				column = new Column();
+				columns[id] = column;
+				if (orderSize == order.length) {
+					order = Arrays.copyOf(order, 2 * order.length);
+				}
+				order[orderSize++] = id;
+			}
+			return column;
+		}
+
+		/**
+		 * Removes the column for a feature id.
+		 *
+		 * @param id
+		 *            The feature id.
+		 * @return True if a column was removed, false otherwise.
+		 */
+		public boolean remove(int id) {
+			if (get(id) == null) {
+				return false;
+			}
+			columns[id] = null;
+			for (int j = 0; j < orderSize; j++) {
+				if (order[j] == id) {
+					System.arraycopy(order, j + 1, order, j, orderSize - j - 1);
+					orderSize--;
+					break;
+				}
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * The primitive columns for a single feature at a single time.
+	 */
+	private static class Column {
+
+		/**
+		 * The values.
+		 */
+		private double[] values;
+		/**
+		 * The uncertainties.
+		 */
+		private double[] uncertainties;
+		/**
+		 * The positions, stored as consecutive x, y, z triples.
+		 */
+		private double[] positions;
+		/**
+		 * The units of the first row. Rows normally share their units, so
+		 * {@link #rowUnits} is only created when a row's units differ.
+		 */
+		private String units;
+		/**
+		 * The units of each row, or null if every row uses {@link #units}.
+		 */
+		private String[] rowUnits;
+		/**
+		 * The number of rows in the column.
+		 */
+		private int size;
+
+		/**
+		 * The default constructor.
+		 */
+		public Column() {
+			values = new double[INITIAL_CAPACITY];
+			uncertainties = new double[INITIAL_CAPACITY];
+			positions = new double[3 * INITIAL_CAPACITY];
+			size = 0;
+		}
+
+		/**
+		 * A deep-copy constructor. The copy is trimmed to its size.
+		 *
+		 * @param other
+		 *            The column to copy.
+		 */
+		public Column(Column other) {
+			int capacity = Math.max(other.size, 1);
+			values = Arrays.copyOf(other.values, capacity);
+			uncertainties = Arrays.copyOf(other.uncertainties, capacity);
+			positions = Arrays.copyOf(other.positions, 3 * capacity);
+			units = other.units;
+			if (other.rowUnits != null) {
+				rowUnits = Arrays.copyOf(other.rowUnits, capacity);
+			}
+			size = other.size;
+		}
+
+		/**
+		 * Gets the units of a row.
+		 *
+		 * @param i
+		 *            The row index.
+		 * @return The units of the row.
+		 */
+		public String getUnits(int i) {
+			return (rowUnits != null ? rowUnits[i] : units);
+		}
+
+		/**
+		 * Appends a single row.
+		 */
+		public void add(double value, double uncertainty, double x, double y,
+				double z, String unit) {
+			ensureCapacity(size + 1);
+			setUnits(size, 1, unit);
+			values[size] = value;
+			uncertainties[size] = uncertainty;
+			positions[3 * size] = x;
+			positions[3 * size + 1] = y;
+			positions[3 * size + 2] = z;
+			size++;
+		}
+
+		/**
+		 * Appends a block of rows. See
+		 * {@link LWRDataTable#addData(String, double, double[], double[], double[], String)}
+		 * .
+		 */
+		public void addAll(double[] newValues, double[] newUncertainties,
+				double[] newPositions, String unit) {
+			int count = newValues.length;
+			ensureCapacity(size + count);
+			setUnits(size, count, unit);
+			System.arraycopy(newValues, 0, values, size, count);
+			if (newUncertainties != null) {
+				System.arraycopy(newUncertainties, 0, uncertainties, size,
+						count);
+			}
+			if (newPositions != null) {
+				System.arraycopy(newPositions, 0, positions, 3 * size,
+						3 * count);
+			}
+			size += count;
+		}
+
+		/**
+		 * Sets the units of a range of new rows, switching to per-row units if
+		 * they differ from the column's shared units.
+		 */
+		private void setUnits(int start, int count, String unit) {
+			if (size == 0) {
+				units = unit;
+			} else if (rowUnits == null && !unit.equals(units)) {
+				rowUnits = new String[values.length];
+				Arrays.fill(rowUnits, 0, size, units);
+			}
+			if (rowUnits != null) {
+				Arrays.fill(rowUnits, start, start + count, unit);
+			}
+		}
+
+		/**
+		 * Grows the column arrays so that they hold at least the specified
+		 * number of rows.
+		 */
+		private void ensureCapacity(int capacity) {
+			if (capacity > values.length) {
+				int newCapacity = Math.max(capacity, 2 * values.length);
+				values = Arrays.copyOf(values, newCapacity);
+				uncertainties = Arrays.copyOf(uncertainties, newCapacity);
+				positions = Arrays.copyOf(positions, 3 * newCapacity);
+				if (rowUnits != null) {
+					rowUnits = Arrays.copyOf(rowUnits, newCapacity);
+				}
+			}
+		}
+
+		/*
+		 * Overrides a method from Object.
+		 */
+		@Override
+		public boolean equals(Object otherObject) {
+			if (this == otherObject) {
+				return true;
+			}
+			if (!(otherObject instanceof Column)) {
+				return false;
+			}
+			Column column = (Column) otherObject;
+			if (size != column.size) {
+				return false;
+			}
+			for (int i = 0; i < size; i++) {
+				if (values[i] != column.values[i]
+						|| uncertainties[i] != column.uncertainties[i]
+						|| !getUnits(i).equals(column.getUnits(i))) {
+					return false;
+				}
+			}
+			for (int i = 0; i < 3 * size; i++) {
+				if (positions[i] != column.positions[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/*
+		 * Overrides a method from Object.
+		 */
+		@Override
+		public int hashCode() {
+			int hash = 31 + size;
+			for (int i = 0; i < size; i++) {
+				long bits = Double.doubleToLongBits(values[i]);
+				hash = 31 * hash + (int) (bits ^ (bits >>> 32));
+			}
+			return hash;
+		}
+	}
+}
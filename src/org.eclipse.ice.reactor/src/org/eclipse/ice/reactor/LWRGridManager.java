@@ -13,6 +13,8 @@
 package org.eclipse.ice.reactor;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.TreeMap;
@@ -26,6 +28,7 @@ import ncsa.hdf.object.h5.H5Group;
 
 import org.eclipse.ice.analysistool.IData;
 import org.eclipse.ice.datastructures.ICEObject.Component;
+import org.eclipse.ice.io.hdf.HdfDatasetLayout;
 import org.eclipse.ice.io.hdf.HdfReaderFactory;
 import org.eclipse.ice.io.hdf.HdfWriterFactory;
 
@@ -72,6 +75,52 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 	private String headTableString = " headTable";
 	private String dataTableString = " dataTable";
 
+	// Names for the datasets of the table layout
+	private String layoutVersionName = "layoutVersion";
+	private String featureNamesTableName = "Feature Names Table";
+	private String timesTableName = "Times Table";
+	private String positionIndexName = "Position Index";
+	private String recordKeysName = "Record Keys";
+	private String recordValuesName = "Record Values";
+
+	/**
+	 * <p>
+	 * The HDF5 layout that stores a group for every grid location with a group
+	 * for every time step and a pair of datasets for every feature. This is the
+	 * layout used by files that do not have a layout version.
+	 * </p>
+	 */
+	public static final int HDF5_GROUP_LAYOUT = 1;
+
+	/**
+	 * <p>
+	 * The HDF5 layout that stores all of the data of all of the grid locations
+	 * in a handful of tables. The "Position Index" table holds the row, column,
+	 * name index, first record and number of records of each location. Each
+	 * record is one row of the "Record Keys" table (time, feature and units
+	 * indices) and one row of the "Record Values" table (value, uncertainty
+	 * and x, y, z position). The records of a location are stored together and
+	 * ordered by time and feature.
+	 * </p>
+	 */
+	public static final int HDF5_TABLE_LAYOUT = 2;
+
+	/**
+	 * <p>
+	 * The layout used to write the data of the grid locations. Files of either
+	 * layout can be read.
+	 * </p>
+	 */
+	private int hdf5LayoutVersion = HDF5_TABLE_LAYOUT;
+
+	/**
+	 * <p>
+	 * The chunks and compression of the numeric tables of the table layout.
+	 * </p>
+	 */
+	private static final HdfDatasetLayout tableLayout = HdfDatasetLayout
+			.getCompressedLayout();
+
 	/**
 	 * <p>
 	 * The Constructor.
@@ -120,6 +169,43 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 		return this.size;
 	}
 
+	/**
+	 * <p>
+	 * Sets the HDF5 layout used to write the data of the grid locations. Files
+	 * are read in whichever layout they were written.
+	 * </p>
+	 *
+	 * @param layoutVersion
+	 *            <p>
+	 *            {@link #HDF5_TABLE_LAYOUT} (the default) or
+	 *            {@link #HDF5_GROUP_LAYOUT} for files that must be read by
+	 *            older versions. Other values are ignored.
+	 *            </p>
+	 */
+	public void setHDF5LayoutVersion(int layoutVersion) {
+
+		// Only set known layouts
+		if (layoutVersion == HDF5_GROUP_LAYOUT
+				|| layoutVersion == HDF5_TABLE_LAYOUT) {
+			this.hdf5LayoutVersion = layoutVersion;
+		}
+
+	}
+
+	/**
+	 * <p>
+	 * Returns the HDF5 layout used to write the data of the grid locations.
+	 * </p>
+	 *
+	 * @return <p>
+	 *         {@link #HDF5_TABLE_LAYOUT} or {@link #HDF5_GROUP_LAYOUT}.
+	 *         </p>
+	 */
+	public int getHDF5LayoutVersion() {
+
+		return this.hdf5LayoutVersion;
+	}
+
 	/**
 	 * <p>
 	 * Overrides the equals operation to check the attributes on this object
@@ -239,6 +325,7 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 		// Copy contents
 
 		this.size = otherObject.size;
+		this.hdf5LayoutVersion = otherObject.hdf5LayoutVersion;
 
 		// Perform a deep copy of the tree
 		this.lWRComponents.clear();
@@ -388,7 +475,11 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 		if (this.lWRComponents.isEmpty()) {
 			return true;
 		}
-		return this.writeFeatureSets(h5File, h5Group);
+		// Write the older layout only if it was requested
+		if (this.hdf5LayoutVersion == HDF5_GROUP_LAYOUT) {
+			return this.writeFeatureSets(h5File, h5Group);
+		}
+		return this.writeFeatureTables(h5File, h5Group);
 	}
 
 	/**
@@ -686,6 +777,271 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 
 	}
 
+	/**
+	 * Writes the data of all of the grid locations as a handful of tables.
+	 * Please see {@link #HDF5_TABLE_LAYOUT} for a description of the tables.
+	 *
+	 * @param h5File
+	 *            The H5File
+	 * @param h5Group
+	 *            The Group
+	 *
+	 * @return True if successful, false otherwise
+	 */
+	private boolean writeFeatureTables(H5File h5File, H5Group h5Group) {
+
+		// Local Declarations
+		ArrayList<String> positionNames = new ArrayList<String>();
+		ArrayList<String> featureNames = new ArrayList<String>();
+		ArrayList<String> unitsList = new ArrayList<String>();
+		ArrayList<Double> times = new ArrayList<Double>();
+		HashMap<String, Integer> positionIndices = new HashMap<String, Integer>();
+		HashMap<String, Integer> featureIndices = new HashMap<String, Integer>();
+		HashMap<String, Integer> unitsIndices = new HashMap<String, Integer>();
+		HashMap<Double, Integer> timeIndices = new HashMap<Double, Integer>();
+		int[] positionIndex = new int[5 * this.lWRComponents.size()];
+		int[] recordKeys = new int[3 * 64];
+		double[] recordValues = new double[5 * 64];
+		int nPositions = 0;
+		int nRecords = 0;
+		H5Group mainH5Group = null;
+
+		// Gather the records of every location, ordered by location, time and
+		// feature
+		for (Map.Entry<GridLocation, String> entry : this.lWRComponents
+				.entrySet()) {
+
+			// Get the location and its provider
+			GridLocation location = entry.getKey();
+			LWRDataProvider provider = location.getLWRDataProvider();
+			double previousTime = provider.getCurrentTime();
+			int offset = 5 * nPositions;
+
+			// Store the row, column, name and first record of the location
+			positionIndex[offset] = location.getRow();
+			positionIndex[offset + 1] = location.getColumn();
+			positionIndex[offset + 2] = getTableIndex(entry.getValue(),
+					positionNames, positionIndices);
+			positionIndex[offset + 3] = nRecords;
+
+			for (Double time : provider.getTimes()) {
+
+				// Set the time in order to get the features
+				provider.setTime(time);
+
+				// Get the index of the time
+				Integer timeIndex = timeIndices.get(time);
+				if (timeIndex == null) {
+					timeIndex = times.size();
+					timeIndices.put(time, timeIndex);
+					times.add(time);
+				}
+
+				for (String feature : provider.getFeaturesAtCurrentTime()) {
+
+					// Get the data and the index of the feature
+					ArrayList<IData> set = provider.getDataAtCurrentTime(feature);
+					int featureIndex = getTableIndex(feature, featureNames,
+							featureIndices);
+
+					// Grow the records if they are full
+					if (nRecords + set.size() > recordValues.length / 5) {
+						int capacity = Math.max(2 * recordValues.length / 5,
+								nRecords + set.size());
+						recordKeys = Arrays.copyOf(recordKeys, 3 * capacity);
+						recordValues = Arrays.copyOf(recordValues, 5 * capacity);
+					}
+
+					// Add a record for each IData
+					for (IData iData : set) {
+						ArrayList<Double> position = iData.getPosition();
+						recordKeys[3 * nRecords] = timeIndex;
+						recordKeys[3 * nRecords + 1] = featureIndex;
+						recordKeys[3 * nRecords + 2] = getTableIndex(
+								iData.getUnits(), unitsList, unitsIndices);
+						recordValues[5 * nRecords] = iData.getValue();
+						recordValues[5 * nRecords + 1] = iData.getUncertainty();
+						recordValues[5 * nRecords + 2] = position.get(0);
+						recordValues[5 * nRecords + 3] = position.get(1);
+						recordValues[5 * nRecords + 4] = position.get(2);
+						nRecords++;
+					}
+				}
+			}
+
+			// Reset time and store the number of records of the location
+			provider.setTime(previousTime);
+			positionIndex[offset + 4] = nRecords - positionIndex[offset + 3];
+			nPositions++;
+		}
+
+		// Make the main group and mark its layout
+		mainH5Group = HdfWriterFactory.createH5Group(h5File,
+				this.dataH5GroupName, h5Group);
+		if (mainH5Group == null
+				|| !HdfWriterFactory.writeIntegerAttribute(h5File,
+						mainH5Group, this.layoutVersionName, HDF5_TABLE_LAYOUT)) {
+			return false;
+		}
+
+		try {
+
+			// Get the datatypes
+			Datatype dataTypeInteger = HdfWriterFactory
+					.createIntegerH5Datatype(h5File);
+			Datatype dataTypeDouble = HdfWriterFactory
+					.createFloatH5Datatype(h5File);
+
+			// Write the names
+			writeStringTable(h5File, mainH5Group,
+					"Simple Position Names Table", positionNames);
+			writeStringTable(h5File, mainH5Group, "Units Table", unitsList);
+			writeStringTable(h5File, mainH5Group, this.featureNamesTableName,
+					featureNames);
+
+			// Write the locations
+			writeTable(h5File, mainH5Group, this.positionIndexName,
+					dataTypeInteger, 4, new long[] { nPositions, 5 },
+					positionIndex);
+
+			// Only write the records if there are any
+			if (nRecords > 0) {
+
+				// Externalize the times
+				double[] timesArray = new double[times.size()];
+				for (int w = 0; w < timesArray.length; w++) {
+					timesArray[w] = times.get(w);
+				}
+
+				// Write the times and the records
+				writeTable(h5File, mainH5Group, this.timesTableName,
+						dataTypeDouble, 8, new long[] { timesArray.length },
+						timesArray);
+				writeTable(h5File, mainH5Group, this.recordKeysName,
+						dataTypeInteger, 4, new long[] { nRecords, 3 },
+						Arrays.copyOf(recordKeys, 3 * nRecords));
+				writeTable(h5File, mainH5Group, this.recordValuesName,
+						dataTypeDouble, 8, new long[] { nRecords, 5 },
+						Arrays.copyOf(recordValues, 5 * nRecords));
+			}
+
+		} catch (Exception e) {
+			// Break and return
+			logger.error(getClass().getName() + " Exception!", e);
+			return false;
+		}
+
+		return true;
+
+	}
+
+	/**
+	 * Returns the index of a name in a table of names, adding it to the table
+	 * if it is not there yet.
+	 *
+	 * @param name
+	 *            The name
+	 * @param table
+	 *            The table of names
+	 * @param indices
+	 *            The index of each name in the table
+	 * @return The index of the name in the table
+	 */
+	private int getTableIndex(String name, ArrayList<String> table,
+			HashMap<String, Integer> indices) {
+
+		// Add the name if it is new
+		Integer index = indices.get(name);
+		if (index == null) {
+			index = table.size();
+			indices.put(name, index);
+			table.add(name);
+		}
+
+		return index;
+	}
+
+	/**
+	 * Writes a table of names as a string dataset. Nothing is written if the
+	 * table is empty.
+	 *
+	 * @param h5File
+	 *            The H5File
+	 * @param h5Group
+	 *            The Group
+	 * @param name
+	 *            The name of the dataset
+	 * @param table
+	 *            The table of names
+	 * @throws Exception
+	 */
+	private void writeStringTable(H5File h5File, H5Group h5Group, String name,
+			ArrayList<String> table) throws Exception {
+
+		// Only write if there are names to write!
+		if (table.isEmpty()) {
+			return;
+		}
+
+		// Externalize the names and get the length of the longest one
+		String[] arrayStrings = table.toArray(new String[table.size()]);
+		int maxLength = 1;
+		for (String string : arrayStrings) {
+			maxLength = Math.max(string.length(), maxLength);
+		}
+
+		// Setup string datatype and write the dataset
+		long[] dimsStrings = { arrayStrings.length };
+		H5Datatype datatypeString = (H5Datatype) h5File.createDatatype(
+				Datatype.CLASS_STRING, maxLength, Datatype.NATIVE,
+				Datatype.NATIVE);
+		Dataset dataSet = h5File.createScalarDS(name, h5Group, datatypeString,
+				dimsStrings, null, null, 0, null);
+		dataSet.write(arrayStrings);
+
+		dataSet.init();
+
+		return;
+	}
+
+	/**
+	 * Writes a table of numbers as a dataset. The dataset is chunked and
+	 * compressed with {@link #tableLayout} so that large tables stay small on
+	 * disk and can be read a piece at a time.
+	 *
+	 * @param h5File
+	 *            The H5File
+	 * @param h5Group
+	 *            The Group
+	 * @param name
+	 *            The name of the dataset
+	 * @param datatype
+	 *            The datatype of the numbers
+	 * @param typeSize
+	 *            The size in bytes of one number
+	 * @param dims
+	 *            The dimensions of the table
+	 * @param data
+	 *            The numbers in row major order
+	 * @throws Exception
+	 */
+	private void writeTable(H5File h5File, H5Group h5Group, String name,
+			Datatype datatype, int typeSize, long[] dims, Object data)
+			throws Exception {
+
+		// Get the chunks. Empty tables can not be chunked or compressed.
+		long[] chunks = tableLayout.getChunkDimensions(dims, typeSize);
+		int gzip = (chunks != null) ? tableLayout.getDeflateLevel() : 0;
+
+		// Write the dataset
+		Dataset dataSet = h5File.createScalarDS(name, h5Group, datatype, dims,
+				null, chunks, gzip, data);
+
+		dataSet.init();
+
+		return;
+	}
+
 	/*
 	 * Overrides a method from LWRComponent.
 	 */
@@ -764,6 +1120,14 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 			}
 		}
 
+		// Files with a layout version store the data in tables
+		Integer layoutVersion = HdfReaderFactory.readIntegerAttribute(
+				dataH5Group, this.layoutVersionName);
+		if (layoutVersion != null && layoutVersion >= HDF5_TABLE_LAYOUT) {
+			return this.readFeatureTables(dataH5Group, arrayPositions,
+					arrayStrings);
+		}
+
 		// Iterate over ONLY the groups
 		ArrayList<H5Group> positionsMemberList = HdfReaderFactory
 				.getChildH5Groups(dataH5Group);
@@ -933,6 +1297,139 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 
 	}
 
+	/**
+	 * Reads the data of all of the grid locations from the tables described
+	 * by {@link #HDF5_TABLE_LAYOUT}. The records of a location that share a
+	 * time, feature and units are added to its provider at once.
+	 *
+	 * @param dataH5Group
+	 *            The main data group
+	 * @param arrayPositions
+	 *            The names of the components at the locations
+	 * @param arrayStrings
+	 *            An array of strings used to specify the unit list.
+	 * @return True if the operation was successful, false otherwise.
+	 */
+	private boolean readFeatureTables(H5Group dataH5Group,
+			String[] arrayPositions, String[] arrayStrings) {
+
+		// Local Declarations
+		int[] positionIndex;
+		int[] recordKeys = null;
+		double[] recordValues = null;
+		double[] times = null;
+		String[] featureNames = null;
+		int nRecords = 0;
+
+		// Read the tables. The records are only there if there is data.
+		try {
+			positionIndex = (int[]) readTable(dataH5Group,
+					this.positionIndexName);
+			if (HdfReaderFactory.getDataset(dataH5Group, this.recordKeysName) != null) {
+				recordKeys = (int[]) readTable(dataH5Group,
+						this.recordKeysName);
+				recordValues = (double[]) readTable(dataH5Group,
+						this.recordValuesName);
+				times = (double[]) readTable(dataH5Group, this.timesTableName);
+				featureNames = (String[]) readTable(dataH5Group,
+						this.featureNamesTableName);
+				nRecords = recordKeys.length / 3;
+			}
+		} catch (Exception e) {
+			logger.error(getClass().getName() + " Exception!", e);
+			return false;
+		}
+
+		// Return false. This is bad
+		if (positionIndex == null
+				|| (nRecords > 0 && (recordValues == null
+						|| recordValues.length != 5 * nRecords
+						|| times == null || featureNames == null || arrayStrings == null))) {
+			logger.error("LWRGridManager: Can't find the tables for reading "
+					+ "the data at the positions.");
+			return false;
+		}
+
+		// Iterate over the locations
+		for (int i = 0; i + 4 < positionIndex.length; i += 5) {
+
+			// Create the location and add it to the tree
+			GridLocation location = new GridLocation(positionIndex[i],
+					positionIndex[i + 1]);
+			this.lWRComponents.put(location,
+					arrayPositions[positionIndex[i + 2]]);
+			LWRDataProvider provider = location.getLWRDataProvider();
+
+			// Check the records of the location
+			int record = positionIndex[i + 3];
+			int lastRecord = record + positionIndex[i + 4];
+			if (record < 0 || lastRecord < record || lastRecord > nRecords) {
+				return false;
+			}
+
+			// Add each run of records with the same time, feature and units
+			while (record < lastRecord) {
+
+				// Find the end of the run
+				int runEnd = record + 1;
+				while (runEnd < lastRecord
+						&& recordKeys[3 * runEnd] == recordKeys[3 * record]
+						&& recordKeys[3 * runEnd + 1] == recordKeys[3 * record + 1]
+						&& recordKeys[3 * runEnd + 2] == recordKeys[3 * record + 2]) {
+					runEnd++;
+				}
+
+				// Split the values into columns
+				int runSize = runEnd - record;
+				double[] values = new double[runSize];
+				double[] uncertainties = new double[runSize];
+				double[] positions = new double[3 * runSize];
+				for (int j = 0; j < runSize; j++) {
+					int offset = 5 * (record + j);
+					values[j] = recordValues[offset];
+					uncertainties[j] = recordValues[offset + 1];
+					System.arraycopy(recordValues, offset + 2, positions,
+							3 * j, 3);
+				}
+
+				// Add the run to the location
+				provider.addData(featureNames[recordKeys[3 * record + 1]],
+						times[recordKeys[3 * record]], values, uncertainties,
+						positions, arrayStrings[recordKeys[3 * record + 2]]);
+
+				record = runEnd;
+			}
+		}
+
+		// Operation successful. Return true
+		return true;
+
+	}
+
+	/**
+	 * Reads all of a dataset.
+	 *
+	 * @param h5Group
+	 *            The group that holds the dataset
+	 * @param name
+	 *            The name of the dataset
+	 * @return The data of the dataset in row major order, or null if the
+	 *         dataset does not exist.
+	 * @throws Exception
+	 */
+	private Object readTable(H5Group h5Group, String name) throws Exception {
+
+		// Get the dataset
+		Dataset dataSet = HdfReaderFactory.getDataset(h5Group, name);
+		if (dataSet == null) {
+			return null;
+		}
+
+		// Read all of it
+		dataSet.init();
+		return dataSet.getData();
+	}
+
 	/*
 	 * Overrides a method from LWRComponent.
 	 */
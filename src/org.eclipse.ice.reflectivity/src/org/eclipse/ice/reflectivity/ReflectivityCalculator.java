@@ -13,8 +13,15 @@
  *******************************************************************************/
 package org.eclipse.ice.reflectivity;
 
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
 import org.apache.commons.math.MathException;
-import org.apache.commons.math.complex.Complex;
 import org.apache.commons.math.special.Erf;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,6 +33,12 @@ import org.slf4j.LoggerFactory;
  * method described in Parratt, Phys. Rev. 95, 359(1954). It has been corrected
  * to incorporate incoherent and true absorption.
  *
+ * The complex arithmetic of the Parratt recursion is done on primitive doubles
+ * using the same formulas as commons-math's Complex class, so no objects are
+ * created per layer or per wave vector. The reflectivity and its convolution
+ * are computed for blocks of wave vectors in parallel when there is enough
+ * work to make it worthwhile.
+ *
  * @author Jay Jay Billings, John Ankner
  *
  */
@@ -53,6 +66,56 @@ public class ReflectivityCalculator {
 	 */
 	private static final double cE = 1.665;
 
+	/**
+	 * The number of values stored for each tile in the packed layer array:
+	 * the critical wave vector squared, the imaginary part of the wave vector
+	 * squared due to absorption, and -0.5 times the thickness.
+	 */
+	private static final int layerStride = 3;
+
+	/**
+	 * The minimum number of layer-point evaluations before the work is split
+	 * across threads. Smaller problems are faster on the calling thread.
+	 */
+	private static final int minParallelWork = 20000;
+
+	/**
+	 * The number of threads used for parallel evaluations.
+	 */
+	private static final int numThreads = Runtime.getRuntime()
+			.availableProcessors();
+
+	/**
+	 * The thread pool used for parallel evaluations. Its threads are daemons
+	 * so that it never keeps the platform alive.
+	 */
+	private static final ExecutorService executor = Executors
+			.newFixedThreadPool(numThreads, new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable,
+							"ICE Reflectivity Calculator");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+
+	/**
+	 * A block of work over a range of indices that can be run in parallel.
+	 */
+	private static abstract class RangeTask {
+
+		/**
+		 * This operation performs the work for the indices in [start, end).
+		 *
+		 * @param start
+		 *            the first index
+		 * @param end
+		 *            one past the last index
+		 */
+		public abstract void run(int start, int end);
+	}
+
 	/**
 	 * This operation returns the value of the squared modulus of the specular
 	 * reflectivity for a single wave vector Q.
@@ -73,61 +136,264 @@ public class ReflectivityCalculator {
 		double modSqrdSpecRef = 0.0;
 
 		if (wavelength > 0.0) {
-			// Variables only needed if we are going to do the work, i.e. -
-			// wavelength > 0.0.
-			Tile tile;
-			Complex aNm1Sq, fNm1N, rNm1N = new Complex(0.0, 0.0), one = new Complex(
-					1.0, 0.0), qN = new Complex(0.0, 0.0), rNNp1 = new Complex(
-					0.0, 0.0);
-			// Get the bottom tile
-			int nLayers = tiles.length;
-			tile = tiles[nLayers - 1];
-			// Starting point--no reflected beam in bottom-most (bulk) layer
-			double qCSq = 16.0 * Math.PI * tile.scatteringLength;
-			double muLAbs = tile.trueAbsLength;
-			double mulInc = tile.incAbsLength;
-			double thickness = tile.thickness;
-			// Setup other values for the problem
-			double betaNm1 = 4.0 * Math.PI * (muLAbs + mulInc / wavelength);
-			Complex qNm1 = new Complex(waveVectorQ * waveVectorQ - qCSq, -2.0
-					* betaNm1);
-			qNm1 = qNm1.sqrt();
-			// Loop through to calculate recursion formula described in Parratt.
-			// Start at the bottom and work up.
-			for (int i = nLayers - 1; i > 0; i--) {
-				// Get the tile above tile[i] (started at the bottom
-				tile = tiles[i - 1];
-				// Calculate the normal component of Q for layer and layer-1
-				qN = qNm1;
-				qCSq = 16.0 * Math.PI * tile.scatteringLength;
-				muLAbs = tile.trueAbsLength;
-				mulInc = tile.incAbsLength;
-				thickness = tile.thickness;
-				betaNm1 = 4.0 * Math.PI * (muLAbs + mulInc / wavelength);
-				qNm1 = new Complex(waveVectorQ * waveVectorQ - qCSq, -2.0
-						* betaNm1);
-				qNm1 = qNm1.sqrt();
-				// Calculate phase factor, e^(-0.5*d*qNm1)
-				aNm1Sq = (new Complex(qNm1.getImaginary(), qNm1.getReal())
-						.multiply(-0.5 * thickness)).exp();
-				// CDiv(qNm1-qN,qNm1+qN)
-				fNm1N = qNm1.subtract(qN).divide(qNm1.add(qN));
-				// Calculate the reflectivity amplitude.
-				// CMult(aNm1Sq, CMult(aNm1Sq, CDiv(CAdd(rNNp1, fNm1N),
-				// CAdd(CMult(rNNp1, fNm1N), CReal(1)))))
-				Complex y = rNNp1.multiply(fNm1N).add(one);
-				Complex z = rNNp1.add(fNm1N);
-				rNm1N = aNm1Sq.multiply(aNm1Sq).multiply(z.divide((y)));
-				// Carry over to the next iteration
-				rNNp1 = rNm1N;
-			}
-			modSqrdSpecRef = rNm1N.getReal() * rNm1N.getReal()
-					+ rNm1N.getImaginary() * rNm1N.getImaginary();
+			modSqrdSpecRef = getModSqrdSpecRef(waveVectorQ,
+					packLayers(wavelength, tiles), tiles.length);
 		}
 
 		return modSqrdSpecRef;
 	}
 
+	/**
+	 * This operation computes the squared modulus of the specular
+	 * reflectivity for every value of the wave vector. The layers are
+	 * prepared once and the wave vectors are evaluated in parallel.
+	 *
+	 * @param waveVector
+	 *            the values of the wave vector
+	 * @param wavelength
+	 *            the wavelength of the incident neutrons
+	 * @param tiles
+	 *            the list of Tiles that contains the physical parameters needed
+	 *            for the calculation
+	 * @param modSqrdSpecRef
+	 *            OUTPUT - the squared modulus of the specular reflectivity for
+	 *            each value of the wave vector. It must be at least as long as
+	 *            the wave vector.
+	 */
+	public void getModSqrdSpecRef(final double[] waveVector,
+			double wavelength, final Tile[] tiles,
+			final double[] modSqrdSpecRef) {
+
+		if (wavelength > 0.0) {
+			final double[] layers = packLayers(wavelength, tiles);
+			runInParallel(waveVector.length, (long) waveVector.length
+					* tiles.length, new RangeTask() {
+				@Override
+				public void run(int start, int end) {
+					for (int i = start; i < end; i++) {
+						modSqrdSpecRef[i] = getModSqrdSpecRef(waveVector[i],
+								layers, tiles.length);
+					}
+				}
+			});
+		} else {
+			for (int i = 0; i < waveVector.length; i++) {
+				modSqrdSpecRef[i] = 0.0;
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation packs the parameters of the tiles that are needed by the
+	 * Parratt recursion into a single array so that they only need to be
+	 * computed once for all of the wave vectors.
+	 *
+	 * @param wavelength
+	 *            the wavelength of the incident neutrons
+	 * @param tiles
+	 *            the tiles
+	 * @return the packed parameters, layerStride values per tile
+	 */
+	private static double[] packLayers(double wavelength, Tile[] tiles) {
+
+		double[] layers = new double[layerStride * tiles.length];
+
+		for (int i = 0; i < tiles.length; i++) {
+			Tile tile = tiles[i];
+			double beta = 4.0 * Math.PI
+					* (tile.trueAbsLength + tile.incAbsLength / wavelength);
+			layers[layerStride * i] = 16.0 * Math.PI * tile.scatteringLength;
+			layers[layerStride * i + 1] = -2.0 * beta;
+			layers[layerStride * i + 2] = -0.5 * tile.thickness;
+		}
+
+		return layers;
+	}
+
+	/**
+	 * This operation evaluates the Parratt recursion for a single wave vector
+	 * on primitive doubles. The complex square roots, divisions and exponents
+	 * follow commons-math's Complex so that the results are the same as the
+	 * original implementation.
+	 *
+	 * @param waveVectorQ
+	 *            the value of the wave vector
+	 * @param layers
+	 *            the packed layer parameters from packLayers()
+	 * @param nLayers
+	 *            the number of layers
+	 * @return the squared modulus of the specular reflectivity
+	 */
+	private static double getModSqrdSpecRef(double waveVectorQ,
+			double[] layers, int nLayers) {
+
+		double qSq = waveVectorQ * waveVectorQ;
+		// The normal components of Q in the current and lower layers
+		double qNRe = 0.0, qNIm = 0.0, qNm1Re = 0.0, qNm1Im = 0.0;
+		// The reflectivity amplitude carried up from the layer below
+		double rRe = 0.0, rIm = 0.0;
+
+		// Start at the bottom (bulk) layer, where there is no reflected beam,
+		// and work up.
+		for (int i = nLayers - 1; i >= 0; i--) {
+			int offset = layerStride * i;
+			// Calculate the normal component of Q for this layer,
+			// sqrt(q^2 - qC^2 - 2i*beta)
+			qNRe = qNm1Re;
+			qNIm = qNm1Im;
+			double re = qSq - layers[offset], im = layers[offset + 1];
+			if (re == 0.0 && im == 0.0) {
+				qNm1Re = 0.0;
+				qNm1Im = 0.0;
+			} else {
+				double t = Math.sqrt((Math.abs(re) + abs(re, im)) / 2.0);
+				if (re >= 0.0) {
+					qNm1Re = t;
+					qNm1Im = im / (2.0 * t);
+				} else {
+					qNm1Re = Math.abs(im) / (2.0 * t);
+					qNm1Im = ((im >= 0.0) ? 1.0 : -1.0) * t;
+				}
+			}
+			// The bottom layer only provides the starting point
+			if (i == nLayers - 1) {
+				continue;
+			}
+
+			// Calculate phase factor, e^(-0.5*d*qNm1)
+			double phase = layers[offset + 2];
+			double expRe = Math.exp(qNm1Im * phase);
+			double aRe = expRe * Math.cos(qNm1Re * phase);
+			double aIm = expRe * Math.sin(qNm1Re * phase);
+
+			// fNm1N = (qNm1-qN)/(qNm1+qN)
+			double nRe = qNm1Re - qNRe, nIm = qNm1Im - qNIm;
+			double dRe = qNm1Re + qNRe, dIm = qNm1Im + qNIm;
+			double fRe, fIm;
+			if (dRe == 0.0 && dIm == 0.0) {
+				fRe = Double.NaN;
+				fIm = Double.NaN;
+			} else if (Math.abs(dRe) < Math.abs(dIm)) {
+				double q = dRe / dIm, denominator = dRe * q + dIm;
+				fRe = (nRe * q + nIm) / denominator;
+				fIm = (nIm * q - nRe) / denominator;
+			} else {
+				double q = dIm / dRe, denominator = dIm * q + dRe;
+				fRe = (nIm * q + nRe) / denominator;
+				fIm = (nIm - nRe * q) / denominator;
+			}
+
+			// Calculate the reflectivity amplitude,
+			// aNm1Sq*aNm1Sq*(rNNp1+fNm1N)/(rNNp1*fNm1N+1)
+			double yRe = (rRe * fRe - rIm * fIm) + 1.0;
+			double yIm = rRe * fIm + rIm * fRe;
+			double zRe = rRe + fRe, zIm = rIm + fIm;
+			double zyRe, zyIm;
+			if (yRe == 0.0 && yIm == 0.0) {
+				zyRe = Double.NaN;
+				zyIm = Double.NaN;
+			} else if (Math.abs(yRe) < Math.abs(yIm)) {
+				double q = yRe / yIm, denominator = yRe * q + yIm;
+				zyRe = (zRe * q + zIm) / denominator;
+				zyIm = (zIm * q - zRe) / denominator;
+			} else {
+				double q = yIm / yRe, denominator = yIm * q + yRe;
+				zyRe = (zIm * q + zRe) / denominator;
+				zyIm = (zIm - zRe * q) / denominator;
+			}
+			double aSqRe = aRe * aRe - aIm * aIm;
+			double aSqIm = aRe * aIm + aIm * aRe;
+			// Carry over to the next iteration
+			rRe = aSqRe * zyRe - aSqIm * zyIm;
+			rIm = aSqRe * zyIm + aSqIm * zyRe;
+		}
+
+		return rRe * rRe + rIm * rIm;
+	}
+
+	/**
+	 * This operation computes the modulus of a complex number without
+	 * overflow, as commons-math's Complex.abs() does.
+	 *
+	 * @param re
+	 *            the real part
+	 * @param im
+	 *            the imaginary part
+	 * @return the modulus
+	 */
+	private static double abs(double re, double im) {
+
+		double q;
+
+		if (Math.abs(re) < Math.abs(im)) {
+			if (im == 0.0) {
+				return Math.abs(re);
+			}
+			q = re / im;
+			return Math.abs(im) * Math.sqrt(1 + q * q);
+		} else {
+			if (re == 0.0) {
+				return Math.abs(im);
+			}
+			q = im / re;
+			return Math.abs(re) * Math.sqrt(1 + q * q);
+		}
+	}
+
+	/**
+	 * This operation splits the indices [0, size) into blocks and runs the
+	 * task on them in parallel. The task is run on the calling thread if the
+	 * amount of work is too small to be worth splitting.
+	 *
+	 * @param size
+	 *            the number of indices
+	 * @param work
+	 *            an estimate of the total amount of work
+	 * @param task
+	 *            the task
+	 */
+	private static void runInParallel(int size, long work, final RangeTask task) {
+
+		// Local Declarations
+		int numBlocks = Math.min(size, 4 * numThreads);
+		ArrayList<Callable<Void>> blocks = new ArrayList<Callable<Void>>();
+
+		// Do small problems directly
+		if (numThreads < 2 || numBlocks < 2 || work < minParallelWork) {
+			task.run(0, size);
+			return;
+		}
+
+		// Split the indices into blocks
+		for (int i = 0; i < numBlocks; i++) {
+			final int start = (int) ((long) size * i / numBlocks);
+			final int end = (int) ((long) size * (i + 1) / numBlocks);
+			blocks.add(new Callable<Void>() {
+				@Override
+				public Void call() {
+					task.run(start, end);
+					return null;
+				}
+			});
+		}
+
+		// Run them and wait for them to finish
+		try {
+			for (Future<Void> block : executor.invokeAll(blocks)) {
+				block.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+
+		return;
+	}
+
 	/**
 	 * This operation convolutes the data in refFit with a Gaussian resolution
 	 * function in q, calculated from theta, delThe, and delLamOLam.
@@ -157,78 +423,105 @@ public class ReflectivityCalculator {
 	 *            OUTPUT - the specular reflectivity values for each Q in q
 	 *            convoluted with instrumental resolution.
 	 */
-	public void convolute(double[] waveVector, double deltaQ0,
-			double deltaQ1ByQ, double wavelength, int numPoints,
-			int numLowPoints, int numHighPoints, double[] refFit) {
+	public void convolute(final double[] waveVector, final double deltaQ0,
+			final double deltaQ1ByQ, double wavelength, int numPoints,
+			final int numLowPoints, int numHighPoints, final double[] refFit) {
+
+		final double[] refTemp = new double[numPoints];
+
+		// Perform convolution over nPnts between nLow and nHigh extensions.
+		// Each point only reads refFit, so the points are convoluted in
+		// parallel.
+		runInParallel(numPoints, (long) numPoints * (numLowPoints + 1),
+				new RangeTask() {
+					@Override
+					public void run(int start, int end) {
+						for (int i = start; i < end; i++) {
+							refTemp[i] = convolutePoint(waveVector, deltaQ0,
+									deltaQ1ByQ, numLowPoints + i, refFit);
+						}
+					}
+				});
+
+		// Transfer convoluted values from refTemp to refFit
+		for (int i = 0; i < numPoints; i++) {
+			refFit[i] = refTemp[i];
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation convolutes a single point of refFit with the Gaussian
+	 * resolution function. The Gaussian is truncated where its exponent
+	 * reaches 6.908 (a weight of 0.001), and the exponent of each weight is
+	 * computed once and used for both the truncation test and the weight.
+	 *
+	 * @param waveVector
+	 *            the extended wave vector
+	 * @param deltaQ0
+	 *            the zeroth order term of the resolution
+	 * @param deltaQ1ByQ
+	 *            the first order term of the resolution
+	 * @param i
+	 *            the index of the point in the extended arrays
+	 * @param refFit
+	 *            the specular reflectivity values
+	 * @return the convoluted value
+	 */
+	private static double convolutePoint(double[] waveVector, double deltaQ0,
+			double deltaQ1ByQ, int i, double[] refFit) {
 
 		double ln2 = Math.log(2.0);
-		double qEff = 0.0, qRes = 0.0, rExp = 0.0, rNorm = 0.0;
-		double[] refTemp = new double[maxPoints];
+		double qEff = 0.0, qRes = 0.0, rExp = 0.0, rNorm = 0.0, exponent = 0.0;
+		double refTemp = 0.0;
 		int nStep = 0;
 		boolean lFinish = false, hFinish = false;
 
-		// Perform convolution over nPnts between nLow and nHigh extensions
-		for (int i = numLowPoints; i <= numLowPoints + numPoints - 1; i++) {
-			// Calculate resolution width and initialize resolution loop
-			if (waveVector[i] < 1.0e-10) {
-				qEff = 1.0e-10;
+		// Calculate resolution width and initialize resolution loop
+		if (waveVector[i] < 1.0e-10) {
+			qEff = 1.0e-10;
+		} else {
+			qEff = waveVector[i];
+		}
+		double qDel = deltaQ0 + qEff * deltaQ1ByQ;
+		double twSgSq = 2.0 * qDel * qDel / (8.0 * ln2);
+		if (twSgSq < 1.0e-10) {
+			twSgSq = 1.0e-10;
+		}
+		rNorm = 1.0;
+		refTemp = refFit[i];
+		nStep = 1;
+		// Check if exponent term becomes < 0.001 and loop until it does so
+		while (!lFinish && !hFinish) {
+			// Evaluate the low-q side
+			qRes = waveVector[i - nStep] - waveVector[i];
+			exponent = qRes * qRes / twSgSq;
+			if (exponent < 6.908) {
+				// Continue evaluating convolution
+				rExp = Math.exp(-exponent);
+				rNorm = rNorm + rExp;
+				refTemp = refTemp + rExp * refFit[i - nStep];
 			} else {
-				qEff = waveVector[i];
-			}
-			double qDel = deltaQ0 + qEff * deltaQ1ByQ;
-			double twSgSq = 2.0 * qDel * qDel / (8.0 * ln2);
-			if (twSgSq < 1.0e-10) {
-				twSgSq = 1.0e-10;
+				lFinish = true;
 			}
-			rNorm = 1.0;
-			refTemp[i - numLowPoints] = refFit[i];
-			nStep = 1;
-			// Check if exponent term becomes < 0.001 and loop until it does so
-			lFinish = false;
-			hFinish = false;
-			while (!lFinish && !hFinish) {
-				// Evaluate the low-q side
-				if (lFinish) {
-					qRes = 1.0e20;
-				} else {
-					qRes = waveVector[i - nStep] - waveVector[i];
-				}
-				if (qRes * qRes / twSgSq < 6.908) {
-					// Continue evaluating convolution
-					rExp = Math.exp(-qRes * qRes / twSgSq);
-					rNorm = rNorm + rExp;
-					refTemp[i - numLowPoints] = refTemp[i - numLowPoints]
-							+ rExp * refFit[i - nStep];
-				} else {
-					lFinish = true;
-				}
-				// Evaluate high-q side
-				if (hFinish) {
-					qRes = 1.0e20;
-				} else {
-					qRes = waveVector[i + nStep] - waveVector[i];
-				}
-				if (qRes * qRes / twSgSq < 6.908) {
-					// Continue evaluating convolution
-					rExp = Math.exp(-qRes * qRes / twSgSq);
-					rNorm = rNorm + rExp;
-					refTemp[i - numLowPoints] = refTemp[i - numLowPoints]
-							+ rExp * refFit[i + nStep];
-				} else {
-					hFinish = true;
-				}
-				nStep++;
+			// Evaluate high-q side
+			qRes = waveVector[i + nStep] - waveVector[i];
+			exponent = qRes * qRes / twSgSq;
+			if (exponent < 6.908) {
+				// Continue evaluating convolution
+				rExp = Math.exp(-exponent);
+				rNorm = rNorm + rExp;
+				refTemp = refTemp + rExp * refFit[i + nStep];
+			} else {
+				hFinish = true;
 			}
-			// Normalize convoluted value to integrated intensity of resolution
-			// function
-			refTemp[i - numLowPoints] = refTemp[i - numLowPoints] / rNorm;
-		}
-		// Transfer convoluted values from refTemp to refFit
-		for (int i = 0; i < numPoints; i++) {
-			refFit[i] = refTemp[i];
+			nStep++;
 		}
 
-		return;
+		// Normalize convoluted value to integrated intensity of resolution
+		// function
+		return refTemp / rNorm;
 	}
 
 	/**
@@ -666,14 +959,16 @@ public class ReflectivityCalculator {
 				+ numHighPoints];
 		// Generate reflectivity values for convolution.
 		// Calculate perfect-resolution reflectivity on extended wave vector
+		double[] effWaveVector = new double[tempWaveVector.length];
 		for (int i = 0; i < numPoints + numLowPoints + numHighPoints; i++) {
 			if (tempWaveVector[i] < 1.0e-10) {
 				qEff = 1.0e-10;
 			} else {
 				qEff = tempWaveVector[i];
 			}
-			tempReflectivity[i] = getModSqrdSpecRef(qEff, wavelength, tiles);
+			effWaveVector[i] = qEff;
 		}
+		getModSqrdSpecRef(effWaveVector, wavelength, tiles, tempReflectivity);
 
 		// Convolve with instrumental resolution
 		convolute(tempWaveVector, deltaQ0, deltaQ1ByQ, wavelength, numPoints,
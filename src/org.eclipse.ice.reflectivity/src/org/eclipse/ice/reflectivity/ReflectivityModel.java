@@ -32,6 +32,7 @@ import org.eclipse.ice.datastructures.form.Material;
 import org.eclipse.ice.datastructures.form.ResourceComponent;
 import org.eclipse.ice.datastructures.resource.VizResource;
 import org.eclipse.ice.io.csv.CSVReader;
+import org.eclipse.ice.io.csv.CSVTable;
 import org.eclipse.ice.item.model.Model;
 import org.eclipse.ice.materials.IMaterialsDatabase;
 import org.eclipse.ice.materials.MaterialWritableTableFormat;
@@ -184,23 +185,12 @@ public class ReflectivityModel extends Model {
 			IFile userDataFile = project.getFile(fileName);
 
 			// Get the reader and read in the values.
-			Form dataForm = new CSVReader().read(userDataFile);
-			ListComponent<String[]> userData = (ListComponent<String[]>) dataForm
-					.getComponent(1);
-
-			// Pull the data from the form into an array.
-			waveVector = new double[userData.size()];
-			rData = new double[userData.size()];
-			error = new double[userData.size()];
-			for (int i = 0; i < userData.size(); i++) {
-				String[] dataLine = userData.get(i);
-				double waveDataPoint = Double.parseDouble(dataLine[0]);
-				waveVector[i] = waveDataPoint;
-				double rDataPoint = Double.parseDouble(dataLine[1]);
-				rData[i] = rDataPoint;
-				double errorDataPoint = Double.parseDouble(dataLine[2]);
-				error[i] = errorDataPoint;
-			}
+			CSVTable userData = new CSVReader().readTable(userDataFile);
+
+			// Pull the data from the table into an array.
+			waveVector = userData.getDoubleColumn(0);
+			rData = userData.getDoubleColumn(1);
+			error = userData.getDoubleColumn(2);
 
 			// Calculate the reflectivity - first is regular R calculation
 			ReflectivityCalculator calculator = new ReflectivityCalculator();
@@ -51,11 +51,6 @@ public class AddMode extends MeshAppStateMode {
 	 * The floor of the grid in the <code>MeshAppState</code>.
 	 */
 	private Geometry grid;
-	/**
-	 * The parent <code>Node</code> containing spatials in the scene for all
-	 * {@link Vertex}es in the {@link #mesh}.
-	 */
-	private Node vertexSpatials;
 	/**
 	 * The update queue for the <code>MeshAppState</code>.
 	 */
@@ -170,7 +165,6 @@ public class AddMode extends MeshAppStateMode {
 
 		// Set up all of the variables used to update the scene.
 		grid = appState.getGrid();
-		vertexSpatials = appState.getVertexSpatials();
 		updateQueue = appState.getUpdateQueue();
 
 		return;
@@ -279,7 +273,6 @@ public class AddMode extends MeshAppStateMode {
 
 		// Clear variables used to update the scene.
 		grid = null;
-		vertexSpatials = null;
 		updateQueue = null;
 
 		return;
@@ -451,11 +444,11 @@ public class AddMode extends MeshAppStateMode {
 
 		CollisionResults results;
 
-		if ((results = getCollision(vertexSpatials, ray)).size() > 0) {
-			// Get the ID from the name of the nearest collision (a VertexView).
-			int id = Integer.parseInt(results.getClosestCollision()
-					.getGeometry().getName());
-			vertex = appState.getMesh().getVertex(id);
+		// Find the nearest existing vertex with the MeshAppState's spatial
+		// index. The vertices are not separate spatials in the scene.
+		Vertex pickedVertex = appState.pickVertex(ray);
+		if (pickedVertex != null) {
+			vertex = appState.getMesh().getVertex(pickedVertex.getId());
 		} else if ((results = getCollision(grid, ray)).size() > 0) {
 			// Get the collision point and its nearest point to the grid's
 			// bounds.
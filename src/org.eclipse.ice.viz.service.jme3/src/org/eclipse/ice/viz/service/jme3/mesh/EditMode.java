@@ -54,11 +54,6 @@ public class EditMode extends MeshAppStateMode implements
 	 * The floor of the grid in the {@link MeshAppState}.
 	 */
 	private Geometry grid;
-	/**
-	 * The parent {@link Node} containing spatials in the scene for all
-	 * {@link Vertex vertices} in the {@link #mesh}.
-	 */
-	private Node vertexSpatials;
 	/**
 	 * The update queue for the <code>MeshAppState</code>.
 	 */
@@ -227,7 +222,6 @@ public class EditMode extends MeshAppStateMode implements
 
 		// Get the fields of interest from the MeshAppState.
 		grid = appState.getGrid();
-		vertexSpatials = appState.getVertexSpatials();
 		updateQueue = appState.getUpdateQueue();
 
 		return;
@@ -376,7 +370,6 @@ public class EditMode extends MeshAppStateMode implements
 
 		// Clear references to the MeshAppState fields.
 		grid = null;
-		vertexSpatials = null;
 		updateQueue = null;
 
 		super.clearScene();
@@ -509,16 +502,15 @@ public class EditMode extends MeshAppStateMode implements
 				boolean addToSelection = shiftPressed.get();
 				boolean toggleSelection = controlPressed.get();
 
-				// Get the Vertex for the clicked geometry if possible and add
-				// it to the collection of selected vertices.
-				CollisionResults results = getCollision(vertexSpatials,
-						appState.getCursorRayFromClick());
+				// Get the clicked Vertex if possible and add it to the
+				// collection of selected vertices.
+				Vertex pickedVertex = appState.pickVertex(appState
+						.getCursorRayFromClick());
 				Vertex clickedVertex = null;
 				int id = 0;
-				if (results.size() > 0) {
-					// Get the Vertex ID from the VertexView.
-					id = Integer.parseInt(results.getClosestCollision()
-							.getGeometry().getName());
+				if (pickedVertex != null) {
+					// Get the Vertex ID from the MeshAppState's spatial index.
+					id = pickedVertex.getId();
 					clickedVertex = appState.getMesh().getVertex(id);
 				}
 
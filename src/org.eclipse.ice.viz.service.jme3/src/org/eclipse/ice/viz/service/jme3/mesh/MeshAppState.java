@@ -54,6 +54,7 @@ import com.jme3.input.controls.MouseAxisTrigger;
 import com.jme3.input.controls.Trigger;
 import com.jme3.material.Material;
 import com.jme3.material.RenderState.BlendMode;
+import com.jme3.material.RenderState.FaceCullMode;
 import com.jme3.math.ColorRGBA;
 import com.jme3.math.FastMath;
 import com.jme3.math.Quaternion;
@@ -97,13 +98,10 @@ public class MeshAppState extends ViewAppState implements
 	private Geometry grid;
 
 	/**
-	 * This <code>Node</code> contains the spatials for all vertices.
+	 * The batch that draws all vertices and edges in the mesh with a few
+	 * shared buffers. Its <code>Node</code> contains their spatials.
 	 */
-	private final Node vertexRoot;
-	/**
-	 * This <code>Node</code> contains the spatials for all edges.
-	 */
-	private final Node edgeRoot;
+	private final MeshBatch batch;
 	/**
 	 * This <code>Node</code> contains the spatials for all temporary objects.
 	 */
@@ -215,15 +213,6 @@ public class MeshAppState extends ViewAppState implements
 	 * MeshApplication.
 	 */
 	private TreeMap<Integer, Polygon> polygons;
-	/**
-	 * An ordered map of VertexControllers keyed on their associated Vertex's
-	 * ID.
-	 */
-	private TreeMap<Integer, VertexController> vertexControllers;
-	/**
-	 * An ordered map of EdgeControllers keyed on their associated Edge's ID.
-	 */
-	private TreeMap<Integer, EdgeController> edgeControllers;
 	// ----------------------------- //
 
 	// ---- Current selection ---- //
@@ -247,7 +236,9 @@ public class MeshAppState extends ViewAppState implements
 	// ---- Application Update/Synchronization ---- //
 	/**
 	 * A concurrent queue containing all AbstractMeshControllers whose views are
-	 * waiting to be updated in the simpleUpdate() method.
+	 * waiting to be updated in the simpleUpdate() method. These are only used
+	 * for temporary spatials. The vertices and edges of the mesh itself are
+	 * drawn by the {@link #batch}.
 	 */
 	private final ConcurrentLinkedQueue<AbstractMeshController> updateQueue;
 	/**
@@ -344,9 +335,8 @@ public class MeshAppState extends ViewAppState implements
 		// Initialize the listener that processes updates from the Mesh.
 		meshUpdateHandler = new MeshUpdateHandler();
 
-		// Initialize the maps of controllers.
-		vertexControllers = new TreeMap<Integer, VertexController>();
-		edgeControllers = new TreeMap<Integer, EdgeController>();
+		// Initialize the batch that draws the mesh.
+		batch = new MeshBatch();
 
 		// Initialize the map of currently displayed polygons.
 		polygons = new TreeMap<Integer, Polygon>();
@@ -357,8 +347,6 @@ public class MeshAppState extends ViewAppState implements
 		walkDirection = new Vector3f();
 
 		// Initialize the scene Nodes.
-		vertexRoot = new Node("vertices");
-		edgeRoot = new Node("edges");
 		tempRoot = new Node("tempSpatials");
 
 		// Create the mode factory. We should add all available modes to this
@@ -426,7 +414,15 @@ public class MeshAppState extends ViewAppState implements
 	 */
 	@Override
 	protected void initMaterials() {
-		// Nothing to do yet.
+		// The batched vertices and edges are colored per vertex based on
+		// their states.
+		Material vertexMaterial = createBasicMaterial(ColorRGBA.White);
+		vertexMaterial.setBoolean("VertexColor", true);
+		vertexMaterial.getAdditionalRenderState().setFaceCullMode(
+				FaceCullMode.Off);
+		Material edgeMaterial = createBasicMaterial(ColorRGBA.White);
+		edgeMaterial.setBoolean("VertexColor", true);
+		batch.setMaterials(vertexMaterial, edgeMaterial);
 	}
 
 	/**
@@ -584,8 +580,7 @@ public class MeshAppState extends ViewAppState implements
 		/* ---------------------------- */
 
 		/* ---- Attach the Nodes to contain views. ---- */
-		rootNode.attachChild(vertexRoot);
-		rootNode.attachChild(edgeRoot);
+		rootNode.attachChild(batch.getNode());
 		rootNode.attachChild(tempRoot);
 		/* -------------------------------------------- */
 
@@ -749,8 +744,7 @@ public class MeshAppState extends ViewAppState implements
 				BulletAppState.class);
 
 		/* ---- Detach the Nodes that contain views. ---- */
-		rootNode.detachChild(vertexRoot);
-		rootNode.detachChild(edgeRoot);
+		rootNode.detachChild(batch.getNode());
 		rootNode.detachChild(tempRoot);
 		/* ---------------------------------------------- */
 
@@ -802,7 +796,8 @@ public class MeshAppState extends ViewAppState implements
 
 	/**
 	 * Updates the player location, coordinates in the HUD, and syncs all
-	 * <code>AbstractMeshController</code>s in the {@link #updateQueue}.
+	 * <code>AbstractMeshController</code>s in the {@link #updateQueue} and the
+	 * {@link #batch}.
 	 * 
 	 * @see org.eclipse.ice.client.widgets.jme.SimpleAppState#update(float)
 	 */
@@ -880,6 +875,9 @@ public class MeshAppState extends ViewAppState implements
 		AbstractMeshController controller;
 		while ((controller = updateQueue.poll()) != null)
 			controller.syncView();
+
+		// Write any changed vertices and edges to the batch's buffers.
+		batch.syncView();
 		/* --------------------------------------------- */
 
 		return;
@@ -929,21 +927,14 @@ public class MeshAppState extends ViewAppState implements
 				for (Edge edge : oldPolygon.getEdges()) {
 					Edge curEdge = mesh.getEdge(edge.getId());
 					if (edge != curEdge) {
-						EdgeController c = edgeControllers.remove(edge.getId());
-						if (c != null) {
-							c.dispose();
-						}
+						batch.removeEdge(edge.getId());
 					}
 				}
 				// Remove any expired vertices.
 				for (Vertex vertex : oldPolygon.getVertices()) {
 					Vertex curVertex = mesh.getVertex(vertex.getId());
 					if (vertex != curVertex) {
-						VertexController c = vertexControllers.remove(vertex
-								.getId());
-						if (c != null) {
-							c.dispose();
-						}
+						batch.removeVertex(vertex.getId());
 					}
 				}
 				// Finally, remove the stale polygon from the map.
@@ -974,21 +965,14 @@ public class MeshAppState extends ViewAppState implements
 				for (Edge edge : polygon.getEdges()) {
 					Edge curEdge = mesh.getEdge(edge.getId());
 					if (edge != curEdge) {
-						EdgeController c = edgeControllers.remove(edge.getId());
-						if (c != null) {
-							c.dispose();
-						}
+						batch.removeEdge(edge.getId());
 					}
 				}
 				// Remove any expired vertices.
 				for (Vertex vertex : polygon.getVertices()) {
 					Vertex curVertex = mesh.getVertex(vertex.getId());
 					if (vertex != curVertex) {
-						VertexController c = vertexControllers.remove(vertex
-								.getId());
-						if (c != null) {
-							c.dispose();
-						}
+						batch.removeVertex(vertex.getId());
 					}
 				}
 				// Remove the ID from the list of currently-displayed IDs.
@@ -996,35 +980,16 @@ public class MeshAppState extends ViewAppState implements
 			}
 		}
 
-		float vertexSize = getVertexSize();
-		float edgeSize = getEdgeSize();
-		float scale = getScale();
-
 		// Add all the new polygons.
 		for (Polygon polygon : newPolygons) {
-			// Add all of the polygon's new vertices.
+			// Add all of the polygon's new vertices. The batch ignores
+			// vertices that it already has.
 			for (Vertex vertex : polygon.getVertices()) {
-				// If the vertex is new, create a new VertexController.
-				if (!vertexControllers.containsKey(vertex.getId())) {
-					VertexController c = new VertexController(vertex,
-							updateQueue, createBasicMaterial(ColorRGBA.Red));
-					vertexControllers.put(vertex.getId(), c);
-					c.setParentNode(vertexRoot);
-					c.setSize(vertexSize);
-					c.setScale(scale);
-				}
+				batch.addVertex(vertex);
 			}
 			// Add all of the polygon's new edges.
 			for (Edge edge : polygon.getEdges()) {
-				// If the edge is new, create a new EdgeController.
-				if (!edgeControllers.containsKey(edge.getId())) {
-					EdgeController c = new EdgeController(edge, updateQueue,
-							createBasicMaterial(ColorRGBA.Red));
-					edgeControllers.put(edge.getId(), c);
-					c.setParentNode(edgeRoot);
-					c.setSize(edgeSize);
-					c.setScale(scale);
-				}
+				batch.addEdge(edge);
 			}
 
 			// logger.info("The polygon with ID " + polygon.getId()
@@ -1067,10 +1032,7 @@ public class MeshAppState extends ViewAppState implements
 			int id = iter.next();
 			if (!newIds.contains(id)) {
 				iter.remove();
-				VertexController controller = vertexControllers.get(id);
-				if (controller != null) {
-					controller.setState(StateType.None);
-				}
+				batch.setVertexState(id, StateType.None);
 			} else {
 				newIds.remove(id);
 			}
@@ -1080,10 +1042,7 @@ public class MeshAppState extends ViewAppState implements
 		// to update their controllers to reflect their new state.
 		for (int id : newIds) {
 			selectedVertices.add(id);
-			VertexController controller = vertexControllers.get(id);
-			if (controller != null) {
-				controller.setState(StateType.Selected);
-			}
+			batch.setVertexState(id, StateType.Selected);
 		}
 		// ------------------------------------------------------ //
 
@@ -1099,10 +1058,7 @@ public class MeshAppState extends ViewAppState implements
 			int id = iter.next();
 			if (!newIds.contains(id)) {
 				iter.remove();
-				EdgeController controller = edgeControllers.get(id);
-				if (controller != null) {
-					controller.setState(StateType.None);
-				}
+				batch.setEdgeState(id, StateType.None);
 			} else {
 				newIds.remove(id);
 			}
@@ -1112,10 +1068,7 @@ public class MeshAppState extends ViewAppState implements
 		// to update their controllers to reflect their new state.
 		for (int id : newIds) {
 			selectedEdges.add(id);
-			EdgeController controller = edgeControllers.get(id);
-			if (controller != null) {
-				controller.setState(StateType.Selected);
-			}
+			batch.setEdgeState(id, StateType.Selected);
 		}
 		// --------------------------------------------------- //
 
@@ -1221,14 +1174,16 @@ public class MeshAppState extends ViewAppState implements
 	}
 
 	/**
-	 * Gets the <code>Node</code> that contains all vertex spatials in the
-	 * scene. The <code>Node</code> can be used as the Collidable in
-	 * {@link #getCollision(Collidable, Ray)}.
+	 * Gets the displayed vertex under a <code>Ray</code>. This uses the
+	 * spatial index of the {@link #batch} instead of colliding the ray with the
+	 * scene.
 	 * 
-	 * @return A <code>Node</code> for the vertex spatials.
+	 * @param ray
+	 *            The ray, usually from {@link #getCursorRayFromClick()}.
+	 * @return The closest vertex under the ray, or null if there is none.
 	 */
-	protected Node getVertexSpatials() {
-		return vertexRoot;
+	protected Vertex pickVertex(Ray ray) {
+		return (ray != null ? batch.pickVertex(ray) : null);
 	}
 
 	/**
@@ -1415,20 +1370,14 @@ public class MeshAppState extends ViewAppState implements
 						zoomLock.writeLock().unlock();
 					}
 
-					// If necessary, pass the new vertex size to the vertex
-					// controllers.
+					// If necessary, pass the new vertex size to the batch.
 					if (updateVertices) {
-						for (VertexController c : vertexControllers.values()) {
-							c.setSize(vSize);
-						}
+						batch.setVertexSize(vSize);
 					}
 
-					// If necessary, pass the new edge size to the edge
-					// controllers.
+					// If necessary, pass the new edge size to the batch.
 					if (updateEdges) {
-						for (EdgeController c : edgeControllers.values()) {
-							c.setSize(eSize);
-						}
+						batch.setEdgeSize(eSize);
 					}
 
 					return;
@@ -1553,12 +1502,7 @@ public class MeshAppState extends ViewAppState implements
 			this.scale.set(Float.floatToIntBits(scale));
 
 			// Update the scale for all the vertices and edges.
-			for (VertexController c : vertexControllers.values()) {
-				c.setScale(scale);
-			}
-			for (EdgeController c : edgeControllers.values()) {
-				c.setScale(scale);
-			}
+			batch.setScale(scale);
 		}
 		return;
 	}
@@ -0,0 +1,1069 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.viz.service.jme3.mesh;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.eclipse.ice.viz.service.datastructures.IVizUpdateable;
+import org.eclipse.ice.viz.service.datastructures.IVizUpdateableListener;
+import org.eclipse.ice.viz.service.mesh.datastructures.Edge;
+import org.eclipse.ice.viz.service.mesh.datastructures.Vertex;
+
+import com.jme3.material.Material;
+import com.jme3.math.ColorRGBA;
+import com.jme3.math.FastMath;
+import com.jme3.math.Ray;
+import com.jme3.math.Vector3f;
+import com.jme3.scene.Geometry;
+import com.jme3.scene.Mesh;
+import com.jme3.scene.Mesh.Mode;
+import com.jme3.scene.Node;
+import com.jme3.scene.VertexBuffer.Type;
+import com.jme3.util.BufferUtils;
+
+/**
+ * This class draws all of the vertices and edges of a mesh with two
+ * <code>Geometries</code> instead of a separate view for each vertex and edge.
+ * Each vertex is a flat disk in the shared vertex and index buffers of the
+ * first <code>Geometry</code>, and each edge is a line segment in the buffers
+ * of the second. The {@link StateType} of each vertex and edge, e.g. whether or
+ * not it is selected, is drawn with per-vertex colors.
+ * <p>
+ * Each vertex and edge owns a slot in the buffers. The slots are kept packed:
+ * when a vertex or edge is removed, the one in the last slot is moved into its
+ * slot. Changes can be made from any thread. They are written to the buffers
+ * in {@link #syncView()}, which must be called from the jME3 update thread,
+ * and only the slots that changed are re-written.
+ * </p>
+ * <p>
+ * Vertices are also stored in a uniform grid over the xy-plane so that
+ * {@link #pickVertex(Ray)} only has to check the vertices near the ray.
+ * </p>
+ *
+ */
+public class MeshBatch implements IVizUpdateableListener {
+
+	/**
+	 * The number of triangles in the disk drawn for each vertex.
+	 */
+	private static final int diskSegments = 8;
+	/**
+	 * The number of points in each vertex's disk, which includes its center.
+	 */
+	private static final int pointsPerVertex = diskSegments + 1;
+	/**
+	 * The number of indices in each vertex's disk.
+	 */
+	private static final int indicesPerVertex = diskSegments * 3;
+	/**
+	 * The number of points in each edge's line segment.
+	 */
+	private static final int pointsPerEdge = 2;
+	/**
+	 * The initial number of slots in the buffers.
+	 */
+	private static final int initialCapacity = 64;
+	/**
+	 * The width and height of the cells of {@link #cells} in the mesh's
+	 * coordinates. This is the spacing of the minor grid lines at the default
+	 * scale.
+	 */
+	private static final float cellSize = 0.25f;
+
+	/**
+	 * The cosine of the angle to each point on the rim of a vertex's disk.
+	 */
+	private static final float[] diskCos = new float[diskSegments];
+	/**
+	 * The sine of the angle to each point on the rim of a vertex's disk.
+	 */
+	private static final float[] diskSin = new float[diskSegments];
+
+	static {
+		for (int i = 0; i < diskSegments; i++) {
+			float angle = FastMath.TWO_PI * i / diskSegments;
+			diskCos[i] = FastMath.cos(angle);
+			diskSin[i] = FastMath.sin(angle);
+		}
+	}
+
+	/**
+	 * This class keeps track of the vertices or edges in the batch and the
+	 * slots they own in the buffers.
+	 *
+	 * @param <T>
+	 *            The type of the elements, either Vertex or Edge.
+	 */
+	private static class Slots<T extends IVizUpdateable> {
+		/**
+		 * The elements in the batch in the order of their slots.
+		 */
+		private final List<T> elements = new ArrayList<T>();
+		/**
+		 * The state of the element in each slot.
+		 */
+		private final List<StateType> states = new ArrayList<StateType>();
+		/**
+		 * The slot of each element, keyed on the element's ID.
+		 */
+		private final Map<Integer, Integer> slots = new HashMap<Integer, Integer>();
+		/**
+		 * The slots that must be re-written to the buffers.
+		 */
+		private final BitSet dirty = new BitSet();
+		/**
+		 * Whether or not every slot must be re-written to the buffers.
+		 */
+		private boolean allDirty = false;
+		/**
+		 * The number of slots that the current buffers can hold.
+		 */
+		private int capacity = 0;
+
+		/**
+		 * Gets the slot of an element.
+		 *
+		 * @param id
+		 *            The ID of the element.
+		 * @return The element's slot, or -1 if it is not in the batch.
+		 */
+		public int getSlot(int id) {
+			Integer slot = slots.get(id);
+			return (slot != null ? slot : -1);
+		}
+
+		/**
+		 * Adds an element in the next free slot if there is no element with
+		 * the same ID.
+		 *
+		 * @param element
+		 *            The new element.
+		 * @return True if the element was added, false otherwise.
+		 */
+		public boolean add(T element) {
+			boolean added = false;
+			if (!slots.containsKey(element.getId())) {
+				int slot = elements.size();
+				elements.add(element);
+				states.add(StateType.None);
+				slots.put(element.getId(), slot);
+				dirty.set(slot);
+				added = true;
+			}
+			return added;
+		}
+
+		/**
+		 * Removes an element and moves the element in the last slot into its
+		 * slot.
+		 *
+		 * @param id
+		 *            The ID of the element.
+		 * @return The removed element, or null if it was not in the batch.
+		 */
+		public T remove(int id) {
+			T element = null;
+			Integer slot = slots.remove(id);
+			if (slot != null) {
+				element = elements.get(slot);
+				int last = elements.size() - 1;
+				if (slot != last) {
+					T moved = elements.get(last);
+					elements.set(slot, moved);
+					states.set(slot, states.get(last));
+					slots.put(moved.getId(), slot);
+					dirty.set(slot);
+				}
+				elements.remove(last);
+				states.remove(last);
+				dirty.clear(last);
+			}
+			return element;
+		}
+
+		/**
+		 * Sets the state of an element.
+		 *
+		 * @param id
+		 *            The ID of the element.
+		 * @param state
+		 *            The new state.
+		 */
+		public void setState(int id, StateType state) {
+			int slot = getSlot(id);
+			if (slot >= 0 && state != states.get(slot)) {
+				states.set(slot, state);
+				dirty.set(slot);
+			}
+			return;
+		}
+	}
+
+	/**
+	 * The <code>Node</code> that contains the vertex and edge geometries.
+	 */
+	private final Node node;
+	/**
+	 * The <code>Geometry</code> holding the disks for all vertices.
+	 */
+	private final Geometry vertexGeometry;
+	/**
+	 * The <code>Geometry</code> holding the lines for all edges.
+	 */
+	private final Geometry edgeGeometry;
+
+	/**
+	 * A lock for all of the data below. Updates come from the mesh's
+	 * notification threads, the selection and the jME3 update thread.
+	 */
+	private final ReentrantLock lock = new ReentrantLock();
+
+	/**
+	 * The vertices in the batch and their slots.
+	 */
+	private final Slots<Vertex> vertices;
+	/**
+	 * The edges in the batch and their slots.
+	 */
+	private final Slots<Edge> edges;
+
+	/**
+	 * A uniform grid of the vertices on the xy-plane in the mesh's
+	 * coordinates. The cells are keyed on their packed x and y indices (see
+	 * {@link #getCellKey(float, float)}).
+	 */
+	private final Map<Long, List<Vertex>> cells;
+	/**
+	 * The key of the cell of {@link #cells} that contains each vertex, keyed on
+	 * the vertex's ID.
+	 */
+	private final Map<Integer, Long> vertexCells;
+
+	/**
+	 * The radius of the disk drawn for each vertex in jME3 world units.
+	 */
+	private float vertexSize = 0.2f;
+	/**
+	 * The width of the lines drawn for edges in pixels.
+	 */
+	private float edgeSize = 5f;
+	/**
+	 * Whether or not {@link #edgeSize} has changed since the last sync.
+	 */
+	private boolean edgeSizeChanged = true;
+	/**
+	 * The scale used to convert from jME3 world units to mesh units.
+	 */
+	private float scale = 1f;
+
+	/**
+	 * The default constructor.
+	 */
+	public MeshBatch() {
+
+		// Initialize the collections of vertices and edges.
+		vertices = new Slots<Vertex>();
+		edges = new Slots<Edge>();
+		cells = new HashMap<Long, List<Vertex>>();
+		vertexCells = new HashMap<Integer, Long>();
+
+		// Create the Geometries. The vertices are drawn as triangles and the
+		// edges as line segments.
+		Mesh mesh = new Mesh();
+		mesh.setMode(Mode.Triangles);
+		vertexGeometry = new Geometry("vertices", mesh);
+		mesh = new Mesh();
+		mesh.setMode(Mode.Lines);
+		edgeGeometry = new Geometry("edges", mesh);
+
+		// Create the initial, empty buffers.
+		allocateVertexBuffers(initialCapacity);
+		allocateEdgeBuffers(initialCapacity);
+
+		// Add the Geometries to the Node.
+		node = new Node("mesh");
+		node.attachChild(edgeGeometry);
+		node.attachChild(vertexGeometry);
+
+		return;
+	}
+
+	/**
+	 * Gets the <code>Node</code> that contains the geometry for all of the
+	 * vertices and edges. It should be attached to the scene.
+	 *
+	 * @return The batch's <code>Node</code>.
+	 */
+	public Node getNode() {
+		return node;
+	}
+
+	/**
+	 * Sets the <code>Materials</code> used to draw the vertices and edges.
+	 * Both should use the per-vertex colors of their meshes.
+	 *
+	 * @param vertexMaterial
+	 *            The <code>Material</code> for the vertex disks.
+	 * @param edgeMaterial
+	 *            The <code>Material</code> for the edge lines.
+	 */
+	public void setMaterials(Material vertexMaterial, Material edgeMaterial) {
+		vertexGeometry.setMaterial(vertexMaterial);
+		edgeGeometry.setMaterial(edgeMaterial);
+	}
+
+	// ---- Vertices and edges ---- //
+	/**
+	 * Adds a vertex to the batch if there is no vertex with the same ID.
+	 *
+	 * @param vertex
+	 *            The new vertex.
+	 */
+	public void addVertex(Vertex vertex) {
+		if (vertex != null) {
+			lock.lock();
+			try {
+				if (vertices.add(vertex)) {
+					addToCell(vertex);
+					vertex.register(this);
+				}
+			} finally {
+				lock.unlock();
+			}
+		}
+		return;
+	}
+
+	/**
+	 * Removes a vertex from the batch.
+	 *
+	 * @param id
+	 *            The ID of the vertex.
+	 */
+	public void removeVertex(int id) {
+		lock.lock();
+		try {
+			Vertex vertex = vertices.remove(id);
+			if (vertex != null) {
+				vertex.unregister(this);
+				removeFromCell(vertex);
+			}
+		} finally {
+			lock.unlock();
+		}
+		return;
+	}
+
+	/**
+	 * Adds an edge to the batch if there is no edge with the same ID.
+	 *
+	 * @param edge
+	 *            The new edge.
+	 */
+	public void addEdge(Edge edge) {
+		if (edge != null) {
+			lock.lock();
+			try {
+				if (edges.add(edge)) {
+					edge.register(this);
+				}
+			} finally {
+				lock.unlock();
+			}
+		}
+		return;
+	}
+
+	/**
+	 * Removes an edge from the batch.
+	 *
+	 * @param id
+	 *            The ID of the edge.
+	 */
+	public void removeEdge(int id) {
+		lock.lock();
+		try {
+			Edge edge = edges.remove(id);
+			if (edge != null) {
+				edge.unregister(this);
+			}
+		} finally {
+			lock.unlock();
+		}
+		return;
+	}
+
+	/**
+	 * Gets whether or not the batch contains a vertex.
+	 *
+	 * @param id
+	 *            The ID of the vertex.
+	 * @return True if the vertex is in the batch, false otherwise.
+	 */
+	public boolean hasVertex(int id) {
+		lock.lock();
+		try {
+			return vertices.getSlot(id) >= 0;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Gets whether or not the batch contains an edge.
+	 *
+	 * @param id
+	 *            The ID of the edge.
+	 * @return True if the edge is in the batch, false otherwise.
+	 */
+	public boolean hasEdge(int id) {
+		lock.lock();
+		try {
+			return edges.getSlot(id) >= 0;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Gets the number of vertices in the batch.
+	 *
+	 * @return The number of vertices.
+	 */
+	public int getVertexCount() {
+		lock.lock();
+		try {
+			return vertices.elements.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Gets the number of edges in the batch.
+	 *
+	 * @return The number of edges.
+	 */
+	public int getEdgeCount() {
+		lock.lock();
+		try {
+			return edges.elements.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Sets the state, and thus the color, of a vertex.
+	 *
+	 * @param id
+	 *            The ID of the vertex.
+	 * @param state
+	 *            The new state of the vertex.
+	 */
+	public void setVertexState(int id, StateType state) {
+		if (state != null) {
+			lock.lock();
+			try {
+				vertices.setState(id, state);
+			} finally {
+				lock.unlock();
+			}
+		}
+		return;
+	}
+
+	/**
+	 * Gets the state of a vertex.
+	 *
+	 * @param id
+	 *            The ID of the vertex.
+	 * @return The state of the vertex, or null if it is not in the batch.
+	 */
+	public StateType getVertexState(int id) {
+		lock.lock();
+		try {
+			int slot = vertices.getSlot(id);
+			return (slot >= 0 ? vertices.states.get(slot) : null);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Sets the state, and thus the color, of an edge.
+	 *
+	 * @param id
+	 *            The ID of the edge.
+	 * @param state
+	 *            The new state of the edge.
+	 */
+	public void setEdgeState(int id, StateType state) {
+		if (state != null) {
+			lock.lock();
+			try {
+				edges.setState(id, state);
+			} finally {
+				lock.unlock();
+			}
+		}
+		return;
+	}
+
+	/**
+	 * Gets the state of an edge.
+	 *
+	 * @param id
+	 *            The ID of the edge.
+	 * @return The state of the edge, or null if it is not in the batch.
+	 */
+	public StateType getEdgeState(int id) {
+		lock.lock();
+		try {
+			int slot = edges.getSlot(id);
+			return (slot >= 0 ? edges.states.get(slot) : null);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	// ---------------------------- //
+
+	// ---- Sizes and scale ---- //
+	/**
+	 * Sets the radius of the disks drawn for vertices.
+	 *
+	 * @param size
+	 *            The new radius in jME3 world units.
+	 */
+	public void setVertexSize(float size) {
+		lock.lock();
+		try {
+			if (size != vertexSize) {
+				vertexSize = size;
+				vertices.allDirty = true;
+			}
+		} finally {
+			lock.unlock();
+		}
+		return;
+	}
+
+	/**
+	 * Sets the width of the lines drawn for edges.
+	 *
+	 * @param size
+	 *            The new line width.
+	 */
+	public void setEdgeSize(float size) {
+		lock.lock();
+		try {
+			if (size != edgeSize) {
+				edgeSize = size;
+				edgeSizeChanged = true;
+			}
+		} finally {
+			lock.unlock();
+		}
+		return;
+	}
+
+	/**
+	 * Sets the scale used to convert from the mesh's coordinates to jME3 world
+	 * units. For example, a scale of 0.25 means that 1 world unit corresponds
+	 * to 0.25 units in the mesh.
+	 *
+	 * @param scale
+	 *            The new scale. It must be positive.
+	 */
+	public void setScale(float scale) {
+		if (scale > 0f) {
+			lock.lock();
+			try {
+				if (scale != this.scale) {
+					this.scale = scale;
+					vertices.allDirty = true;
+					edges.allDirty = true;
+				}
+			} finally {
+				lock.unlock();
+			}
+		}
+		return;
+	}
+
+	// ------------------------- //
+
+	/**
+	 * Gets the vertex whose disk is closest to where a ray hits the xy-plane.
+	 * All vertices created in the mesh editor lie on this plane.
+	 *
+	 * @param ray
+	 *            The ray, usually from the camera to the cursor.
+	 * @return The closest vertex under the ray, or null if the ray does not
+	 *         hit a vertex.
+	 */
+	public Vertex pickVertex(Ray ray) {
+
+		Vertex closest = null;
+
+		// Find where the ray crosses the xy-plane, if it does.
+		Vector3f origin = ray.getOrigin();
+		Vector3f direction = ray.getDirection();
+		if (direction.z != 0f) {
+			float t = -origin.z / direction.z;
+			if (t >= 0f) {
+				lock.lock();
+				try {
+					// Convert the point and the vertex radius to the mesh's
+					// coordinates.
+					float x = (origin.x + direction.x * t) * scale;
+					float y = (origin.y + direction.y * t) * scale;
+					float radius = vertexSize * scale;
+					float closestDistance = radius * radius;
+
+					// Check the vertices in all cells within the radius.
+					int minI = (int) FastMath.floor((x - radius) / cellSize);
+					int maxI = (int) FastMath.floor((x + radius) / cellSize);
+					int minJ = (int) FastMath.floor((y - radius) / cellSize);
+					int maxJ = (int) FastMath.floor((y + radius) / cellSize);
+					for (int i = minI; i <= maxI; i++) {
+						for (int j = minJ; j <= maxJ; j++) {
+							List<Vertex> cell = cells.get(getCellKey(i, j));
+							if (cell != null) {
+								for (Vertex vertex : cell) {
+									float[] location = vertex.getLocation();
+									float dx = location[0] - x;
+									float dy = location[1] - y;
+									float distance = dx * dx + dy * dy;
+									if (distance <= closestDistance) {
+										closestDistance = distance;
+										closest = vertex;
+									}
+								}
+							}
+						}
+					}
+				} finally {
+					lock.unlock();
+				}
+			}
+		}
+
+		return closest;
+	}
+
+	/**
+	 * Updates the slot of a vertex or edge when it changes. Edges are updated
+	 * when either of their vertices move.
+	 */
+	@Override
+	public void update(IVizUpdateable component) {
+
+		lock.lock();
+		try {
+			if (component instanceof Vertex) {
+				int slot = vertices.getSlot(component.getId());
+				// Ignore updates from vertices that have been replaced.
+				if (slot >= 0 && vertices.elements.get(slot) == component) {
+					vertices.dirty.set(slot);
+					// The vertex may have moved to a different cell.
+					removeFromCell((Vertex) component);
+					addToCell((Vertex) component);
+				}
+			} else if (component instanceof Edge) {
+				int slot = edges.getSlot(component.getId());
+				if (slot >= 0 && edges.elements.get(slot) == component) {
+					edges.dirty.set(slot);
+				}
+			}
+		} finally {
+			lock.unlock();
+		}
+
+		return;
+	}
+
+	/**
+	 * Writes all changes since the last call to the vertex and edge buffers.
+	 * <b>This must be called from the jME3 update thread.</b>
+	 */
+	public void syncView() {
+
+		lock.lock();
+		try {
+			syncVertices();
+			syncEdges();
+		} finally {
+			lock.unlock();
+		}
+
+		return;
+	}
+
+	/**
+	 * Writes the dirty vertex slots to the vertex buffers. The lock must be
+	 * held.
+	 */
+	private void syncVertices() {
+
+		int count = vertices.elements.size();
+		Mesh mesh = vertexGeometry.getMesh();
+
+		// If the buffers are full, replace them with larger ones. All slots
+		// must then be written.
+		if (count > vertices.capacity) {
+			allocateVertexBuffers(Math.max(count, vertices.capacity * 2));
+		}
+
+		FloatBuffer positions = (FloatBuffer) mesh.getBuffer(Type.Position)
+				.getData();
+		FloatBuffer colors = (FloatBuffer) mesh.getBuffer(Type.Color).getData();
+		IntBuffer indices = (IntBuffer) mesh.getBuffer(Type.Index).getData();
+		int limit = count * indicesPerVertex;
+
+		// Only proceed if a slot changed or the number of vertices changed.
+		if (vertices.allDirty || !vertices.dirty.isEmpty()
+				|| indices.limit() != limit) {
+
+			// Only draw the slots that are in use.
+			positions.limit(count * pointsPerVertex * 3);
+			colors.limit(count * pointsPerVertex * 4);
+			indices.limit(limit);
+
+			// Write the dirty slots.
+			float inverseScale = 1f / scale;
+			if (vertices.allDirty) {
+				for (int slot = 0; slot < count; slot++) {
+					writeVertex(slot, positions, colors, inverseScale);
+				}
+			} else {
+				for (int slot = vertices.dirty.nextSetBit(0); slot >= 0
+						&& slot < count; slot = vertices.dirty
+						.nextSetBit(slot + 1)) {
+					writeVertex(slot, positions, colors, inverseScale);
+				}
+			}
+			vertices.dirty.clear();
+			vertices.allDirty = false;
+
+			// Upload the buffers.
+			mesh.getBuffer(Type.Position).updateData(positions);
+			mesh.getBuffer(Type.Color).updateData(colors);
+			mesh.getBuffer(Type.Index).updateData(indices);
+			mesh.updateCounts();
+			vertexGeometry.updateModelBound();
+		}
+
+		return;
+	}
+
+	/**
+	 * Writes the dirty edge slots to the edge buffers. The lock must be held.
+	 */
+	private void syncEdges() {
+
+		int count = edges.elements.size();
+		Mesh mesh = edgeGeometry.getMesh();
+
+		// If the buffers are full, replace them with larger ones. All slots
+		// must then be written.
+		if (count > edges.capacity) {
+			allocateEdgeBuffers(Math.max(count, edges.capacity * 2));
+		}
+
+		FloatBuffer positions = (FloatBuffer) mesh.getBuffer(Type.Position)
+				.getData();
+		FloatBuffer colors = (FloatBuffer) mesh.getBuffer(Type.Color).getData();
+		int limit = count * pointsPerEdge * 3;
+
+		// Only proceed if a slot changed or the number of edges changed.
+		if (edges.allDirty || !edges.dirty.isEmpty()
+				|| positions.limit() != limit) {
+
+			// Only draw the slots that are in use.
+			positions.limit(limit);
+			colors.limit(count * pointsPerEdge * 4);
+
+			// Write the dirty slots.
+			float inverseScale = 1f / scale;
+			if (edges.allDirty) {
+				for (int slot = 0; slot < count; slot++) {
+					writeEdge(slot, positions, colors, inverseScale);
+				}
+			} else {
+				for (int slot = edges.dirty.nextSetBit(0); slot >= 0
+						&& slot < count; slot = edges.dirty
+						.nextSetBit(slot + 1)) {
+					writeEdge(slot, positions, colors, inverseScale);
+				}
+			}
+			edges.dirty.clear();
+			edges.allDirty = false;
+
+			// Upload the buffers.
+			mesh.getBuffer(Type.Position).updateData(positions);
+			mesh.getBuffer(Type.Color).updateData(colors);
+			mesh.updateCounts();
+			edgeGeometry.updateModelBound();
+		}
+
+		// The line width applies to the whole mesh.
+		if (edgeSizeChanged) {
+			mesh.setLineWidth(edgeSize);
+			edgeSizeChanged = false;
+		}
+
+		return;
+	}
+
+	/**
+	 * Writes the disk of the vertex in a slot to the vertex buffers.
+	 *
+	 * @param slot
+	 *            The slot of the vertex.
+	 * @param positions
+	 *            The position buffer.
+	 * @param colors
+	 *            The color buffer.
+	 * @param inverseScale
+	 *            The factor that converts mesh coordinates to world units.
+	 */
+	private void writeVertex(int slot, FloatBuffer positions,
+			FloatBuffer colors, float inverseScale) {
+
+		float[] location = vertices.elements.get(slot).getLocation();
+		float x = location[0] * inverseScale;
+		float y = location[1] * inverseScale;
+		float z = location[2] * inverseScale;
+
+		// The first point is the center of the disk. The rest are on its rim.
+		int index = slot * pointsPerVertex * 3;
+		positions.put(index++, x).put(index++, y).put(index++, z);
+		for (int i = 0; i < diskSegments; i++) {
+			positions.put(index++, x + vertexSize * diskCos[i]);
+			positions.put(index++, y + vertexSize * diskSin[i]);
+			positions.put(index++, z);
+		}
+
+		writeColor(slot * pointsPerVertex, pointsPerVertex, colors,
+				vertices.states.get(slot).getColor());
+
+		return;
+	}
+
+	/**
+	 * Writes the line segment of the edge in a slot to the edge buffers.
+	 *
+	 * @param slot
+	 *            The slot of the edge.
+	 * @param positions
+	 *            The position buffer.
+	 * @param colors
+	 *            The color buffer.
+	 * @param inverseScale
+	 *            The factor that converts mesh coordinates to world units.
+	 */
+	private void writeEdge(int slot, FloatBuffer positions, FloatBuffer colors,
+			float inverseScale) {
+
+		Edge edge = edges.elements.get(slot);
+		float[] start = edge.getStartLocation();
+		float[] end = edge.getEndLocation();
+
+		int index = slot * pointsPerEdge * 3;
+		for (int i = 0; i < 3; i++) {
+			positions.put(index + i, start[i] * inverseScale);
+			positions.put(index + 3 + i, end[i] * inverseScale);
+		}
+
+		writeColor(slot * pointsPerEdge, pointsPerEdge, colors, edges.states
+				.get(slot).getColor());
+
+		return;
+	}
+
+	/**
+	 * Writes the same color to consecutive points in a color buffer.
+	 *
+	 * @param first
+	 *            The first point.
+	 * @param count
+	 *            The number of points.
+	 * @param colors
+	 *            The color buffer.
+	 * @param color
+	 *            The color.
+	 */
+	private void writeColor(int first, int count, FloatBuffer colors,
+			ColorRGBA color) {
+		int index = first * 4;
+		for (int i = 0; i < count; i++) {
+			colors.put(index++, color.r).put(index++, color.g)
+					.put(index++, color.b).put(index++, color.a);
+		}
+		return;
+	}
+
+	/**
+	 * Replaces the vertex buffers with larger ones and marks all slots dirty.
+	 * The triangles of each disk never change, so the index buffer is filled
+	 * here for every slot.
+	 *
+	 * @param capacity
+	 *            The number of vertices that the new buffers can hold.
+	 */
+	private void allocateVertexBuffers(int capacity) {
+
+		Mesh mesh = vertexGeometry.getMesh();
+
+		FloatBuffer positions = BufferUtils.createFloatBuffer(capacity
+				* pointsPerVertex * 3);
+		FloatBuffer colors = BufferUtils.createFloatBuffer(capacity
+				* pointsPerVertex * 4);
+		IntBuffer indices = BufferUtils.createIntBuffer(capacity
+				* indicesPerVertex);
+
+		// Each disk is a fan of triangles around its center.
+		for (int slot = 0; slot < capacity; slot++) {
+			int center = slot * pointsPerVertex;
+			for (int i = 0; i < diskSegments; i++) {
+				indices.put(center);
+				indices.put(center + 1 + i);
+				indices.put(center + 1 + (i + 1) % diskSegments);
+			}
+		}
+
+		// No slots are drawn until they are synced.
+		positions.limit(0);
+		colors.limit(0);
+		indices.limit(0);
+		mesh.setBuffer(Type.Position, 3, positions);
+		mesh.setBuffer(Type.Color, 4, colors);
+		mesh.setBuffer(Type.Index, 3, indices);
+
+		vertices.capacity = capacity;
+		vertices.allDirty = true;
+
+		return;
+	}
+
+	/**
+	 * Replaces the edge buffers with larger ones and marks all slots dirty.
+	 *
+	 * @param capacity
+	 *            The number of edges that the new buffers can hold.
+	 */
+	private void allocateEdgeBuffers(int capacity) {
+
+		Mesh mesh = edgeGeometry.getMesh();
+
+		FloatBuffer positions = BufferUtils.createFloatBuffer(capacity
+				* pointsPerEdge * 3);
+		FloatBuffer colors = BufferUtils.createFloatBuffer(capacity
+				* pointsPerEdge * 4);
+
+		// No slots are drawn until they are synced.
+		positions.limit(0);
+		colors.limit(0);
+		mesh.setBuffer(Type.Position, 3, positions);
+		mesh.setBuffer(Type.Color, 4, colors);
+
+		edges.capacity = capacity;
+		edges.allDirty = true;
+
+		return;
+	}
+
+	// ---- Spatial index ---- //
+	/**
+	 * Gets the key in {@link #cells} for the cell with the given indices.
+	 *
+	 * @param i
+	 *            The index of the cell along the x axis.
+	 * @param j
+	 *            The index of the cell along the y axis.
+	 * @return The key of the cell.
+	 */
+	private static long getCellKey(int i, int j) {
+		return ((long) i << 32) | (j & 0xffffffffL);
+	}
+
+	/**
+	 * Gets the key in {@link #cells} for the cell containing a point.
+	 *
+	 * @param x
+	 *            The x coordinate of the point in mesh coordinates.
+	 * @param y
+	 *            The y coordinate of the point in mesh coordinates.
+	 * @return The key of the cell.
+	 */
+	private static long getCellKey(float x, float y) {
+		return getCellKey((int) FastMath.floor(x / cellSize),
+				(int) FastMath.floor(y / cellSize));
+	}
+
+	/**
+	 * Adds a vertex to the cell of {@link #cells} at its current location. The
+	 * lock must be held.
+	 *
+	 * @param vertex
+	 *            The vertex.
+	 */
+	private void addToCell(Vertex vertex) {
+		float[] location = vertex.getLocation();
+		long key = getCellKey(location[0], location[1]);
+		List<Vertex> cell = cells.get(key);
+		if (cell == null) {
+			cell = new ArrayList<Vertex>(2);
+			cells.put(key, cell);
+		}
+		cell.add(vertex);
+		vertexCells.put(vertex.getId(), key);
+		return;
+	}
+
+	/**
+	 * Removes a vertex from its cell of {@link #cells}. The lock must be held.
+	 *
+	 * @param vertex
+	 *            The vertex.
+	 */
+	private void removeFromCell(Vertex vertex) {
+		Long key = vertexCells.remove(vertex.getId());
+		if (key != null) {
+			List<Vertex> cell = cells.get(key);
+			if (cell != null) {
+				// Compare references. Vertices with equal locations are
+				// equal.
+				for (int i = cell.size() - 1; i >= 0; i--) {
+					if (cell.get(i) == vertex) {
+						cell.remove(i);
+					}
+				}
+				if (cell.isEmpty()) {
+					cells.remove(key);
+				}
+			}
+		}
+		return;
+	}
+	// ----------------------- //
+}
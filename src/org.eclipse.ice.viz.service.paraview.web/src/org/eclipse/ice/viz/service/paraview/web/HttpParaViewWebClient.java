@@ -13,45 +13,237 @@
  *    Jordan Deyton - removed temporary print statements; rearranged return 
  *      value in connect()
  *    Jordan Deyton - ExecutorService now starts/stops on connect/disconnect
+ *    Requests are now queued and merged, connections are kept alive, and
+ *      render responses are decoded from the stream
  *******************************************************************************/
 package org.eclipse.ice.viz.service.paraview.web;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
 import com.google.gson.JsonParser;
 import com.google.gson.JsonPrimitive;
-import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
 
 /**
- * TODO Documentation
- * 
+ * This class is an {@link IParaViewWebClient} that posts requests to a
+ * ParaView web server over HTTP.
+ * <p>
+ * Requests are sent one at a time, in the order in which they were made, by a
+ * single worker thread. Requests that are still waiting to be sent are merged
+ * with newer ones so that the client does not fall behind the user:
+ * </p>
+ * <ul>
+ * <li>A mouse move event that is made right after another move event with the
+ * same view and buttons replaces the older event's position.</li>
+ * <li>A render request for a view that already has a render request waiting
+ * replaces it. The older request's frame is dropped and its Future gets the
+ * newer image.</li>
+ * </ul>
+ * <p>
+ * Connections are kept alive between requests, and responses are parsed
+ * straight from the connection's stream. The round trip time of the requests
+ * and the number of dropped frames and merged events are available for
+ * monitoring.
+ * </p>
+ *
  * @author Sebastien Jourdain
  *
  */
 public class HttpParaViewWebClient implements IParaViewWebClient {
 
 	/**
-	 * 
+	 * The charset of requests and responses.
+	 */
+	private static final Charset charset = Charset.forName("UTF-8");
+
+	/**
+	 * The URL to which the names of the methods are appended.
 	 */
 	private String baseEndPointURL;
 
 	/**
-	 * 
+	 * The worker thread that sends the requests. It is only available while
+	 * connected.
 	 */
 	private ExecutorService requestExecutor;
 
+	/**
+	 * The requests that are waiting to be sent, in order. Each request has a
+	 * task in the {@link #requestExecutor} that sends the first request in
+	 * this queue. Access must be synchronized on the queue.
+	 */
+	private final Deque<Request<?>> pendingRequests = new ArrayDeque<Request<?>>();
+
+	/**
+	 * The number of requests that have been sent and answered.
+	 */
+	private final AtomicLong requestCount = new AtomicLong();
+
+	/**
+	 * The total round trip time of the answered requests, in nanoseconds.
+	 */
+	private final AtomicLong totalRoundTripTime = new AtomicLong();
+
+	/**
+	 * The round trip time of the last answered request, in nanoseconds.
+	 */
+	private final AtomicLong lastRoundTripTime = new AtomicLong();
+
+	/**
+	 * The number of render requests that were replaced before they were sent.
+	 */
+	private final AtomicLong droppedFrameCount = new AtomicLong();
+
+	/**
+	 * The number of mouse events that were merged into the next event before
+	 * they were sent.
+	 */
+	private final AtomicLong coalescedEventCount = new AtomicLong();
+
+	/**
+	 * This class is a request that is waiting to be sent to the server.
+	 *
+	 * @param <T>
+	 *            The type of the response.
+	 */
+	private abstract class Request<T> implements Callable<T> {
+
+		/**
+		 * The name of the method that is called on the server.
+		 */
+		private final String method;
+
+		/**
+		 * The key shared by requests that can be merged, or null if the request
+		 * cannot be merged with others.
+		 */
+		private final String key;
+
+		/**
+		 * If true, a newer request with the same key replaces this request
+		 * anywhere in the queue and takes its place at the end of the queue.
+		 * Otherwise, the newer request only replaces this one when this one is
+		 * the last request in the queue.
+		 */
+		private final boolean replaceable;
+
+		/**
+		 * The content of the request. It changes when the request is merged
+		 * with a newer one.
+		 */
+		private JsonObject content;
+
+		/**
+		 * The task that sends the request and holds its response.
+		 */
+		private final FutureTask<T> task;
+
+		/**
+		 * The constructor.
+		 *
+		 * @param method
+		 *            The name of the method that is called on the server.
+		 * @param content
+		 *            The content of the request.
+		 * @param key
+		 *            The key shared by requests that can be merged, or null.
+		 * @param replaceable
+		 *            Whether the request can be replaced anywhere in the
+		 *            queue.
+		 */
+		public Request(String method, JsonObject content, String key,
+				boolean replaceable) {
+			this.method = method;
+			this.content = content;
+			this.key = key;
+			this.replaceable = replaceable;
+			task = new FutureTask<T>(this);
+		}
+
+		/*
+		 * Implements a method from Callable.
+		 */
+		@Override
+		public T call() throws Exception {
+			return makeRequest(this);
+		}
+
+		/**
+		 * Reads the response of the request.
+		 *
+		 * @param stream
+		 *            The response's stream.
+		 * @return The response.
+		 * @throws IOException
+		 *             Thrown when the response cannot be read
+		 */
+		protected abstract T readResponse(InputStream stream)
+				throws IOException;
+	}
+
+	/**
+	 * This class is a request with a JSON object response.
+	 */
+	private class JsonRequest extends Request<JsonObject> {
+
+		/**
+		 * The constructor.
+		 *
+		 * @see Request#Request(String, JsonObject, String, boolean)
+		 */
+		public JsonRequest(String method, JsonObject content, String key,
+				boolean replaceable) {
+			super(method, content, key, replaceable);
+		}
+
+		/*
+		 * Implements a method from Request.
+		 */
+		@Override
+		protected JsonObject readResponse(InputStream stream)
+				throws IOException {
+			JsonObject retVal = null;
+
+			// Parse the response into a JsonObject if possible.
+			try {
+				JsonParser parser = new JsonParser();
+				JsonElement element = parser.parse(new JsonReader(
+						new InputStreamReader(stream, charset)));
+				if (element.isJsonObject()) {
+					retVal = element.getAsJsonObject();
+				}
+			} catch (JsonParseException e) {
+				// Do nothing if the response is not a parseable JsonObject.
+			}
+			// If a response could not be processed, create an empty one.
+			if (retVal == null) {
+				retVal = new JsonObject();
+			}
+
+			return retVal;
+		}
+	}
+
 	/**
 	 * The default constructor.
 	 */
@@ -59,73 +251,178 @@ public class HttpParaViewWebClient implements IParaViewWebClient {
 		requestExecutor = null;
 	}
 
-	/*
-	 * Implements a method from ParaViewWebClient.
+	/**
+	 * Sends a request to the server and reads its response. The connection is
+	 * left open for the next request.
+	 *
+	 * @param request
+	 *            The request to send.
+	 * @return The response, or null if there was an error.
 	 */
-	private JsonObject makeRequest(String method, JsonObject content) {
+	private <T> T makeRequest(Request<T> request) {
 		if (requestExecutor == null) {
 			return null;
 		}
 
-		JsonObject retVal = null;
+		T retVal = null;
 
 		URL url;
 		HttpURLConnection connection = null;
 		try {
-			// Create connection
-			String fullUrl = baseEndPointURL + method;
+			long startTime = System.nanoTime();
+			byte[] body = request.content.toString().getBytes(charset);
+
+			// Create connection. The body's length is set so that the request
+			// is streamed and the connection can be reused.
+			String fullUrl = baseEndPointURL + request.method;
 			url = new URL(fullUrl);
 			connection = (HttpURLConnection) url.openConnection();
 			connection.setRequestMethod("POST");
 			connection.setRequestProperty("Content-Type", "application/octetstream");
-			connection.setRequestProperty("Content-Length", Integer.toString(content.entrySet().size()));
 			connection.setRequestProperty("Content-Language", "en-US");
+			connection.setRequestProperty("Connection", "keep-alive");
+			connection.setFixedLengthStreamingMode(body.length);
 
 			connection.setUseCaches(false);
 			connection.setDoInput(true);
 			connection.setDoOutput(true);
 
 			// Send request
-			connection.getOutputStream().write(content.toString().getBytes());
-			connection.getOutputStream().flush();
-			connection.getOutputStream().close();
-
-			// Get Response
-			InputStream is = connection.getInputStream();
-			BufferedReader rd = new BufferedReader(new InputStreamReader(is));
-			String line;
-			StringBuffer response = new StringBuffer();
-			while ((line = rd.readLine()) != null) {
-				response.append(line);
-				response.append('\n');
+			OutputStream outputStream = connection.getOutputStream();
+			try {
+				outputStream.write(body);
+			} finally {
+				outputStream.close();
 			}
-			rd.close();
 
-			// Parse the response into a JsonObject if possible.
+			// Get Response. The stream must be read to its end for the
+			// connection to be kept alive.
+			InputStream is = connection.getInputStream();
 			try {
-				JsonParser parser = new JsonParser();
-				JsonElement element = parser.parse(response.toString());
-				if (element.isJsonObject()) {
-					retVal = element.getAsJsonObject();
-				}
-			} catch (JsonSyntaxException e) {
-				// Do nothing if the response is not a parseable JsonObject.
-			}
-			// If a response could not be processed, create an empty one.
-			if (retVal == null) {
-				retVal = new JsonObject();
+				retVal = request.readResponse(is);
+				drain(is);
+			} finally {
+				is.close();
 			}
+
+			// Update the statistics.
+			long time = System.nanoTime() - startTime;
+			requestCount.incrementAndGet();
+			totalRoundTripTime.addAndGet(time);
+			lastRoundTripTime.set(time);
 		} catch (Exception e) {
 			e.printStackTrace();
-			// If there was an error connecting, try to disconnect.
+			// Read the error, if any, so that the connection can be reused.
 			if (connection != null) {
-				connection.disconnect();
+				try {
+					InputStream errorStream = connection.getErrorStream();
+					if (errorStream != null) {
+						drain(errorStream);
+						errorStream.close();
+					}
+				} catch (IOException e2) {
+					// If there was an error reading the error, disconnect.
+					connection.disconnect();
+				}
 			}
 		}
 
 		return retVal;
 	}
 
+	/**
+	 * Reads and discards the rest of a stream.
+	 *
+	 * @param stream
+	 *            The stream to read.
+	 * @throws IOException
+	 *             Thrown when the stream cannot be read
+	 */
+	private void drain(InputStream stream) throws IOException {
+		byte[] buffer = new byte[4096];
+		while (stream.read(buffer) >= 0) {
+			// Keep reading
+		}
+	}
+
+	/**
+	 * Queues a request to be sent by the worker thread. If it can be merged
+	 * with a request that is still waiting, the waiting request takes the new
+	 * content and its Future is returned instead.
+	 *
+	 * @param request
+	 *            The request to send.
+	 * @return The Future that will hold the response, or null if the client is
+	 *         not connected.
+	 */
+	@SuppressWarnings("unchecked")
+	private <T> Future<T> submit(Request<T> request) {
+		ExecutorService executor = requestExecutor;
+		if (executor == null) {
+			return null;
+		}
+
+		synchronized (pendingRequests) {
+			// Look for a waiting request with the same key.
+			Request<?> match = null;
+			if (request.key != null) {
+				if (request.replaceable) {
+					Iterator<Request<?>> iterator = pendingRequests.iterator();
+					while (match == null && iterator.hasNext()) {
+						Request<?> pending = iterator.next();
+						if (request.key.equals(pending.key)) {
+							match = pending;
+							iterator.remove();
+						}
+					}
+				} else {
+					Request<?> last = pendingRequests.peekLast();
+					if (last != null && request.key.equals(last.key)) {
+						match = last;
+					}
+				}
+			}
+
+			// Merge the request into the match. Requests with the same key
+			// have the same response type.
+			if (match != null) {
+				match.content = request.content;
+				if (request.replaceable) {
+					pendingRequests.addLast(match);
+					droppedFrameCount.incrementAndGet();
+				} else {
+					coalescedEventCount.incrementAndGet();
+				}
+				return (Future<T>) match.task;
+			}
+
+			pendingRequests.addLast(request);
+		}
+
+		// Send the first waiting request when the worker is ready.
+		try {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					Request<?> next;
+					synchronized (pendingRequests) {
+						next = pendingRequests.pollFirst();
+					}
+					if (next != null) {
+						next.task.run();
+					}
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			// The client was disconnected.
+			synchronized (pendingRequests) {
+				pendingRequests.remove(request);
+			}
+			return null;
+		}
+
+		return request.task;
+	}
 	/*
 	 * Implements a method from ParaViewWebClient.
 	 */
@@ -196,6 +493,48 @@ public class HttpParaViewWebClient implements IParaViewWebClient {
 			return null;
 		}
 
+		// Replace any render request for the same view that is still waiting.
+		JsonObject mainObj = createRenderContent(viewId, quality, width, height);
+		return submit(new JsonRequest("viewport.image.render", mainObj,
+				"render " + viewId, true));
+	}
+
+	/*
+	 * Implements a method from ParaViewWebClient.
+	 */
+	@Override
+	public Future<ParaViewImage> renderImage(int viewId, int quality, int width, int height) {
+		if (requestExecutor == null) {
+			return null;
+		}
+
+		// Replace any image request for the same view that is still waiting.
+		// The image is decoded while the response is read.
+		JsonObject mainObj = createRenderContent(viewId, quality, width, height);
+		return submit(new Request<ParaViewImage>("viewport.image.render",
+				mainObj, "image " + viewId, true) {
+			@Override
+			protected ParaViewImage readResponse(InputStream stream) throws IOException {
+				return new RenderResponseReader(stream).read();
+			}
+		});
+	}
+
+	/**
+	 * Creates the content of a render request.
+	 *
+	 * @param viewId
+	 *            The ID of the view to render.
+	 * @param quality
+	 *            The quality of the image.
+	 * @param width
+	 *            The width of the image.
+	 * @param height
+	 *            The height of the image.
+	 * @return The content of the request.
+	 */
+	private JsonObject createRenderContent(int viewId, int quality, int width, int height) {
+
 		// Set up the size array (with x height).
 		JsonArray size = new JsonArray();
 		size.add(new JsonPrimitive(width));
@@ -212,15 +551,10 @@ public class HttpParaViewWebClient implements IParaViewWebClient {
 		// property set to a JSON array.
 		JsonArray args = new JsonArray();
 		args.add(reqObj);
-		final JsonObject mainObj = new JsonObject();
+		JsonObject mainObj = new JsonObject();
 		mainObj.add("args", args);
 
-		Callable<JsonObject> request = new Callable<JsonObject>() {
-			public JsonObject call() throws Exception {
-				return makeRequest("viewport.image.render", mainObj);
-			}
-		};
-		return requestExecutor.submit(request);
+		return mainObj;
 	}
 
 	/*
@@ -250,15 +584,21 @@ public class HttpParaViewWebClient implements IParaViewWebClient {
 		// property set to a JSON array.
 		JsonArray args = new JsonArray();
 		args.add(reqObj);
-		final JsonObject mainObj = new JsonObject();
+		JsonObject mainObj = new JsonObject();
 		mainObj.add("args", args);
 
-		Callable<JsonObject> request = new Callable<JsonObject>() {
-			public JsonObject call() throws Exception {
-				return makeRequest("viewport.mouse.interaction", mainObj);
+		// Only a move can be merged into the move right before it, and only
+		// when the buttons and keys have not changed.
+		String key = null;
+		if ("move".equals(action)) {
+			StringBuilder keyBuilder = new StringBuilder("move " + viewId + " ");
+			for (int i = 0; i < 7; i++) {
+				keyBuilder.append(mouseState[i] ? '1' : '0');
 			}
-		};
-		return requestExecutor.submit(request);
+			key = keyBuilder.toString();
+		}
+
+		return submit(new JsonRequest("viewport.mouse.interaction", mainObj, key, false));
 	}
 
 	/*
@@ -270,15 +610,62 @@ public class HttpParaViewWebClient implements IParaViewWebClient {
 			return null;
 		}
 
-		final String methodRef = method;
-		final JsonObject reqObj = new JsonObject();
-
+		JsonObject reqObj = new JsonObject();
 		reqObj.add("args", args);
-		Callable<JsonObject> request = new Callable<JsonObject>() {
-			public JsonObject call() throws Exception {
-				return makeRequest(methodRef, reqObj);
-			}
-		};
-		return requestExecutor.submit(request);
+
+		return submit(new JsonRequest(method, reqObj, null, false));
+	}
+
+	/**
+	 * Gets the number of requests that have been sent to the server and
+	 * answered since this client was created.
+	 *
+	 * @return The number of answered requests.
+	 */
+	public long getRequestCount() {
+		return requestCount.get();
+	}
+
+	/**
+	 * Gets the average time between sending a request and reading its
+	 * response.
+	 *
+	 * @return The average round trip time in milliseconds, or 0 if no requests
+	 *         have been answered.
+	 */
+	public double getAverageRoundTripTime() {
+		long count = requestCount.get();
+		return (count > 0 ? totalRoundTripTime.get() / (count * 1e6) : 0.0);
+	}
+
+	/**
+	 * Gets the time between sending the last answered request and reading its
+	 * response.
+	 *
+	 * @return The last round trip time in milliseconds, or 0 if no requests
+	 *         have been answered.
+	 */
+	public double getLastRoundTripTime() {
+		return lastRoundTripTime.get() / 1e6;
+	}
+
+	/**
+	 * Gets the number of render requests that were replaced by newer requests
+	 * for the same view before they could be sent.
+	 *
+	 * @return The number of dropped frames.
+	 */
+	public long getDroppedFrameCount() {
+		return droppedFrameCount.get();
+	}
+
+	/**
+	 * Gets the number of mouse move events that were merged into newer move
+	 * events before they could be sent.
+	 *
+	 * @return The number of merged events.
+	 */
+	public long getCoalescedEventCount() {
+		return coalescedEventCount.get();
 	}
 }
@@ -45,6 +45,24 @@ public interface IParaViewWebClient {
 	public Future<JsonObject> render(int viewId, int quality, int width,
 			int height);
 
+	/**
+	 * Renders a view and returns the image already decoded from the base 64
+	 * String in the response. Requests, including this one, are processed in
+	 * the order in which they are made.
+	 *
+	 * @param viewId
+	 *            The ID of the view to render.
+	 * @param quality
+	 *            The quality of the image, from 0 to 100.
+	 * @param width
+	 *            The width of the image.
+	 * @param height
+	 *            The height of the image.
+	 * @return The rendered image, or null if the client is not connected.
+	 */
+	public Future<ParaViewImage> renderImage(int viewId, int quality,
+			int width, int height);
+
 	/**
 	 * 
 	 * @param viewId
@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.viz.service.paraview.web;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * This class holds an image rendered by a ParaView web client. The image is
+ * kept as the bytes of the encoded (usually JPEG) file that was sent by the
+ * server, already decoded from base 64, so that it can be loaded straight into
+ * an image without creating the large base 64 String.
+ *
+ * @see IParaViewWebClient#renderImage(int, int, int, int)
+ */
+public class ParaViewImage {
+
+	/**
+	 * The bytes of the encoded image, or null if there was no image in the
+	 * response.
+	 */
+	private final byte[] data;
+
+	/**
+	 * The other properties of the render response, like "stale" and "size".
+	 */
+	private final JsonObject properties;
+
+	/**
+	 * The default constructor.
+	 *
+	 * @param data
+	 *            The bytes of the encoded image, or null if there was no
+	 *            image.
+	 * @param properties
+	 *            The other properties of the render response. If null, there
+	 *            are no other properties.
+	 */
+	public ParaViewImage(byte[] data, JsonObject properties) {
+		this.data = data;
+		this.properties = (properties != null ? properties : new JsonObject());
+	}
+
+	/**
+	 * Gets the bytes of the encoded image.
+	 *
+	 * @return The image file's bytes, or null if the server did not send an
+	 *         image.
+	 */
+	public byte[] getData() {
+		return data;
+	}
+
+	/**
+	 * Gets the properties of the render response other than the image.
+	 *
+	 * @return The properties. This is never null.
+	 */
+	public JsonObject getProperties() {
+		return properties;
+	}
+
+	/**
+	 * Gets whether or not the server has a newer image than this one, in
+	 * which case another render request should be made.
+	 *
+	 * @return True if the image is stale, false otherwise.
+	 */
+	public boolean isStale() {
+		JsonElement element = properties.get("stale");
+		return element != null && element.isJsonPrimitive()
+				&& element.getAsBoolean();
+	}
+}
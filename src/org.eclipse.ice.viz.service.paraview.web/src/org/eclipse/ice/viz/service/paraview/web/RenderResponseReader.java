@@ -0,0 +1,371 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.viz.service.paraview.web;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+/**
+ * This class reads the JSON response of a "viewport.image.render" request
+ * from a stream. The base 64 "image" member, which is by far the largest part
+ * of the response, is decoded straight from the stream's bytes into the bytes
+ * of the image. The other members are small and are parsed with Gson.
+ *
+ */
+class RenderResponseReader {
+
+	/**
+	 * The charset of the response.
+	 */
+	private static final Charset charset = Charset.forName("UTF-8");
+
+	/**
+	 * The value of each base 64 character, or -1 for bytes that are not base 64
+	 * characters.
+	 */
+	private static final int[] base64Values = new int[256];
+
+	static {
+		String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZ"
+				+ "abcdefghijklmnopqrstuvwxyz0123456789+/";
+		Arrays.fill(base64Values, -1);
+		for (int i = 0; i < alphabet.length(); i++) {
+			base64Values[alphabet.charAt(i)] = i;
+		}
+		// Accept the URL-safe alphabet too
+		base64Values['-'] = 62;
+		base64Values['_'] = 63;
+	}
+
+	/**
+	 * The stream that is read.
+	 */
+	private final InputStream stream;
+
+	/**
+	 * The buffer of bytes read from the stream.
+	 */
+	private final byte[] buffer = new byte[65536];
+
+	/**
+	 * The position of the next unread byte in the buffer.
+	 */
+	private int position = 0;
+
+	/**
+	 * The number of valid bytes in the buffer.
+	 */
+	private int limit = 0;
+
+	/**
+	 * The bytes of the current member name or value that is not the image.
+	 */
+	private final ByteArrayOutputStream token = new ByteArrayOutputStream();
+
+	/**
+	 * The constructor.
+	 *
+	 * @param stream
+	 *            The stream to read. It is not closed by this class.
+	 */
+	public RenderResponseReader(InputStream stream) {
+		this.stream = stream;
+	}
+
+	/**
+	 * This operation reads the response.
+	 *
+	 * @return The image and the other properties of the response.
+	 * @throws IOException
+	 *             Thrown when the stream cannot be read or does not hold a
+	 *             JSON object
+	 */
+	public ParaViewImage read() throws IOException {
+
+		// Local Declarations
+		JsonObject properties = new JsonObject();
+		byte[] image = null;
+		String name;
+		int currByte;
+
+		// Read the members of the object
+		expect('{');
+		currByte = peekNonSpace();
+		if (currByte == '}') {
+			position++;
+		} else {
+			do {
+				name = readName();
+				expect(':');
+				if ("image".equals(name) && peekNonSpace() == '"') {
+					image = readBase64();
+				} else {
+					properties.add(name, readValue());
+				}
+				currByte = nextNonSpace();
+			} while (currByte == ',');
+			if (currByte != '}') {
+				throw syntaxError(currByte);
+			}
+		}
+
+		return new ParaViewImage(image, properties);
+	}
+
+	/**
+	 * This operation reads the name of the next member of the object.
+	 *
+	 * @return The name.
+	 * @throws IOException
+	 */
+	private String readName() throws IOException {
+
+		// Local Declarations
+		int currByte = peekNonSpace();
+
+		if (currByte != '"') {
+			throw syntaxError(currByte);
+		}
+		return readValue().getAsString();
+	}
+
+	/**
+	 * This operation reads the next value in the object and parses it with
+	 * Gson.
+	 *
+	 * @return The value.
+	 * @throws IOException
+	 */
+	private JsonElement readValue() throws IOException {
+
+		// Local Declarations
+		int depth = 0, currByte;
+		boolean quoted = false, escaped = false;
+
+		// Copy the bytes of the value, which ends at the first comma, colon or
+		// closing brace that is not in a String, array or object
+		token.reset();
+		peekNonSpace();
+		while ((currByte = peek()) >= 0) {
+			if (quoted) {
+				if (escaped) {
+					escaped = false;
+				} else if (currByte == '\\') {
+					escaped = true;
+				} else if (currByte == '"') {
+					quoted = false;
+				}
+			} else if (currByte == '"') {
+				quoted = true;
+			} else if (currByte == '{' || currByte == '[') {
+				depth++;
+			} else if (currByte == ']' || (currByte == '}' && depth > 0)) {
+				depth--;
+			} else if (depth == 0
+					&& (currByte == ',' || currByte == ':' || currByte == '}')) {
+				break;
+			}
+			token.write(currByte);
+			position++;
+		}
+
+		try {
+			return new JsonParser().parse(new String(token.toByteArray(),
+					charset));
+		} catch (JsonParseException e) {
+			throw new IOException("RenderResponseReader Message: "
+					+ "Invalid value in the render response.", e);
+		}
+	}
+
+	/**
+	 * This operation decodes a base 64 String in the object. Escaped
+	 * characters are unescaped and whitespace is ignored.
+	 *
+	 * @return The decoded bytes.
+	 * @throws IOException
+	 */
+	private byte[] readBase64() throws IOException {
+
+		// Local Declarations
+		byte[] data = new byte[65536];
+		int length = 0, bits = 0, numBits = 0;
+		int currByte, value;
+
+		expect('"');
+		while ((currByte = next()) != '"') {
+			if (currByte < 0) {
+				throw new IOException("RenderResponseReader Message: "
+						+ "The image is not terminated.");
+			} else if (currByte == '\\') {
+				currByte = readEscape();
+			}
+			value = (currByte < 256 ? base64Values[currByte] : -1);
+			if (value < 0) {
+				// Skip padding and whitespace
+				continue;
+			}
+			// Collect six bits at a time and write every full byte
+			bits = (bits << 6) | value;
+			numBits += 6;
+			if (numBits >= 8) {
+				numBits -= 8;
+				if (length == data.length) {
+					data = Arrays.copyOf(data, data.length * 2);
+				}
+				data[length++] = (byte) (bits >> numBits);
+				bits &= (1 << numBits) - 1;
+			}
+		}
+
+		return Arrays.copyOf(data, length);
+	}
+
+	/**
+	 * This operation reads the rest of an escape sequence in a String after
+	 * its backslash.
+	 *
+	 * @return The escaped character.
+	 * @throws IOException
+	 */
+	private int readEscape() throws IOException {
+
+		// Local Declarations
+		int currByte = next();
+		int value = 0;
+
+		switch (currByte) {
+		case 'u':
+			for (int i = 0; i < 4; i++) {
+				value = (value << 4) | Character.digit(next(), 16);
+			}
+			return (value >= 0 ? value : ' ');
+		case 'n':
+		case 'r':
+		case 't':
+		case 'b':
+		case 'f':
+			return ' ';
+		default:
+			return currByte;
+		}
+	}
+
+	/**
+	 * This operation reads the next byte that is not whitespace and checks
+	 * that it is the expected byte.
+	 *
+	 * @param expected
+	 *            The expected byte.
+	 * @throws IOException
+	 */
+	private void expect(char expected) throws IOException {
+
+		// Local Declarations
+		int currByte = nextNonSpace();
+
+		if (currByte != expected) {
+			throw syntaxError(currByte);
+		}
+	}
+
+	/**
+	 * This operation skips whitespace and returns the next byte without
+	 * consuming it.
+	 *
+	 * @return The next byte, or -1 at the end of the stream.
+	 * @throws IOException
+	 */
+	private int peekNonSpace() throws IOException {
+
+		// Local Declarations
+		int currByte;
+
+		while ((currByte = peek()) == ' ' || currByte == '\t'
+				|| currByte == '\r' || currByte == '\n') {
+			position++;
+		}
+
+		return currByte;
+	}
+
+	/**
+	 * This operation skips whitespace and consumes the next byte.
+	 *
+	 * @return The next byte, or -1 at the end of the stream.
+	 * @throws IOException
+	 */
+	private int nextNonSpace() throws IOException {
+		int currByte = peekNonSpace();
+		if (currByte >= 0) {
+			position++;
+		}
+		return currByte;
+	}
+
+	/**
+	 * This operation consumes the next byte.
+	 *
+	 * @return The next byte, or -1 at the end of the stream.
+	 * @throws IOException
+	 */
+	private int next() throws IOException {
+		int currByte = peek();
+		if (currByte >= 0) {
+			position++;
+		}
+		return currByte;
+	}
+
+	/**
+	 * This operation returns the next byte without consuming it, refilling the
+	 * buffer when it is empty.
+	 *
+	 * @return The next byte, or -1 at the end of the stream.
+	 * @throws IOException
+	 */
+	private int peek() throws IOException {
+		if (position == limit) {
+			limit = stream.read(buffer, 0, buffer.length);
+			position = 0;
+			if (limit <= 0) {
+				limit = 0;
+				return -1;
+			}
+		}
+		return buffer[position] & 0xff;
+	}
+
+	/**
+	 * This operation creates the exception thrown when the response is not a
+	 * JSON object.
+	 *
+	 * @param currByte
+	 *            The unexpected byte.
+	 * @return The exception.
+	 */
+	private IOException syntaxError(int currByte) {
+		return new IOException("RenderResponseReader Message: "
+				+ (currByte < 0 ? "Unexpected end of the render response."
+						: "Unexpected character '" + (char) currByte
+								+ "' in the render response."));
+	}
+}
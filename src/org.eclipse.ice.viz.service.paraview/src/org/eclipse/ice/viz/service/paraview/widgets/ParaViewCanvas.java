@@ -15,13 +15,14 @@ import java.io.ByteArrayInputStream;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
-import javax.xml.bind.DatatypeConverter;
-
 import org.eclipse.ice.viz.service.paraview.web.IParaViewWebClient;
+import org.eclipse.ice.viz.service.paraview.web.ParaViewImage;
 import org.eclipse.swt.SWT;
+import org.eclipse.swt.SWTException;
 import org.eclipse.swt.events.ControlEvent;
 import org.eclipse.swt.events.ControlListener;
 import org.eclipse.swt.events.PaintEvent;
@@ -34,9 +35,6 @@ import org.eclipse.swt.graphics.Rectangle;
 import org.eclipse.swt.widgets.Canvas;
 import org.eclipse.swt.widgets.Composite;
 
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-
 /**
  * This class provides an SWT Canvas that can render images passed through via
  * an {@link IParaViewWebClient}.
@@ -213,8 +211,8 @@ public class ParaViewCanvas extends Canvas implements PaintListener, ControlList
 
 	/**
 	 * Sends an update request to the specified client. This operation waits for
-	 * the response, after which it will construct an Image from the encoded
-	 * image string. If the returned image is stale, then {@link #stale} is set
+	 * the response, after which it will construct an Image from the decoded
+	 * image bytes. If the returned image is stale, then {@link #stale} is set
 	 * to true.
 	 * <p>
 	 * <b>Note:</b> This operation is intended to be called from the refresh
@@ -239,56 +237,43 @@ public class ParaViewCanvas extends Canvas implements PaintListener, ControlList
 
 		if (client != null && width > 0 && height > 0) {
 
-			// The request to draw will return an object containing an encoded
-			// image string and a flag stating whether the image is stale.
+			// The request to draw will return the decoded image and a flag
+			// stating whether the image is stale.
 
 			// Send a render request to the client and wait for the reply.
-			JsonObject response = null;
+			ParaViewImage response = null;
 			try {
-				response = client.render(viewId, IMAGE_QUALITY, width, height).get();
+				Future<ParaViewImage> future = client.renderImage(viewId, IMAGE_QUALITY, width, height);
+				if (future != null) {
+					response = future.get();
+				}
 			} catch (InterruptedException | ExecutionException e) {
 				e.printStackTrace();
 			}
 
-			// If the response was received, try to read in the encoded image
-			// and the stale flag.
+			// If the response was received, try to read in the image and the
+			// stale flag.
 			if (response != null) {
 
-				// Read the base 64 image string from the response, then
-				// construct a new Image from the encoded string.
-				JsonElement element = response.get("image");
-				if (element != null && element.isJsonPrimitive()) {
+				// Construct a new Image from the image file's bytes.
+				byte[] data = response.getData();
+				if (data != null) {
 					try {
-						String base64Image = element.getAsString();
-
-						// TODO When we start using Java 8, replace the
-						// DatatypeConverter with the java.util.Base64
-						// class.
-						byte[] decode = DatatypeConverter.parseBase64Binary(base64Image);
-						// byte[] decode = Base64.getDecoder().decode(
-						// base64Image.getBytes());
-						ByteArrayInputStream inputStream = new ByteArrayInputStream(decode);
+						ByteArrayInputStream inputStream = new ByteArrayInputStream(data);
 
 						// Load the input stream into a new Image.
-						ImageData[] data = new ImageLoader().load(inputStream);
-						if (data.length > 0) {
-							image = new Image(getDisplay(), data[0]);
+						ImageData[] imageData = new ImageLoader().load(inputStream);
+						if (imageData.length > 0) {
+							image = new Image(getDisplay(), imageData[0]);
 						}
-					} catch (ClassCastException e) {
+					} catch (SWTException e) {
 						// Could not read the image.
 					}
 				}
 
 				// If the image is stale, trigger another refresh operation.
-				element = response.get("stale");
-				if (element != null && element.isJsonPrimitive()) {
-					try {
-						if (element.getAsBoolean()) {
-							refresh();
-						}
-					} catch (ClassCastException e) {
-						// Could not read the stale variable.
-					}
+				if (response.isStale()) {
+					refresh();
 				}
 
 			}
@@ -11,9 +11,9 @@
  *******************************************************************************/
 package org.eclipse.ice.viz.service.paraview.widgets;
 
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.eclipse.ice.viz.service.paraview.web.IParaViewWebClient;
@@ -33,6 +33,8 @@ import org.eclipse.swt.events.MouseWheelListener;
 import org.eclipse.swt.graphics.Point;
 import org.eclipse.swt.widgets.Control;
 
+import com.google.gson.JsonObject;
+
 /**
  * This class manages mouse controls for an {@link ParaViewCanvas} and feeds
  * events to an associated Canvas at the appropriate intervals.
@@ -525,35 +527,37 @@ public class ParaViewMouseAdapter {
 	/**
 	 * Sends a {@link MouseInteraction} event to the {@link #client} and
 	 * triggers a refresh of the {@link #canvas} afterward if requested.
+	 * <p>
+	 * This does not wait for the response. The client processes requests in
+	 * order, so the render request made by the refresh is not processed until
+	 * after the event, and the client can merge moves that it has not sent yet
+	 * instead of falling behind the mouse.
+	 * </p>
 	 * 
 	 * @param interaction
 	 *            The mouse event to pass to the client.
 	 * @param refresh
-	 *            If true and the event is successfully processed, the
+	 *            If true and the event is successfully submitted, the
 	 *            associated canvas will be refreshed. Otherwise, the canvas
 	 *            will <i>not</i> be refreshed.
-	 * @return True if the event was successfully processed, false otherwise.
+	 * @return True if the event was successfully submitted, false otherwise.
 	 */
 	private boolean sendMouseInteraction(MouseInteraction interaction, boolean refresh) {
 		boolean sent = false;
 
 		IParaViewWebClient clientRef = client;
 		if (clientRef != null) {
-			try {
-				// Send the mouse event to the client.
-				clientRef.event(viewId, interaction.x, interaction.y, interaction.type.toString(),
-						interaction.getState()).get();
-
-				// Set the flag that the event was processed.
-				sent = true;
-
-				// If the zoom request was processed, refresh the Canvas.
-				final ParaViewCanvas canvasRef = canvas;
-				if (refresh && canvasRef != null) {
-					canvas.refresh();
-				}
-			} catch (InterruptedException | ExecutionException e) {
-				// The event could not be processed.
+			// Send the mouse event to the client.
+			Future<JsonObject> response = clientRef.event(viewId, interaction.x, interaction.y,
+					interaction.type.toString(), interaction.getState());
+
+			// Set the flag that the event was submitted.
+			sent = (response != null);
+
+			// If the request was submitted, refresh the Canvas.
+			final ParaViewCanvas canvasRef = canvas;
+			if (sent && refresh && canvasRef != null) {
+				canvasRef.refresh();
 			}
 		}
 
@@ -83,6 +83,15 @@ public class ProxySeries extends AbstractSeries {
 		return source != null ? source.getTime() : super.getTime();
 	}
 
+	/**
+	 * Gets the source {@link ISeries} on which this series is based.
+	 * 
+	 * @return The source series, or {@code null} if it is not set.
+	 */
+	public ISeries getSource() {
+		return source;
+	}
+
 	/**
 	 * Sets the source {@link ISeries} on which this series is based. This
 	 * method allows this series' data to be derived from the specified series.
@@ -13,18 +13,18 @@
  *******************************************************************************/
 package org.eclipse.ice.viz.service.csv;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.RandomAccessFile;
 import java.net.URI;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 
-import org.apache.commons.beanutils.ConvertUtils;
 import org.eclipse.ice.viz.service.AbstractPlot;
 import org.eclipse.ice.viz.service.IPlot;
 import org.eclipse.ice.viz.service.ISeries;
@@ -42,6 +42,14 @@ import org.slf4j.LoggerFactory;
  * settings for this plot, specifically for the style of the series and
  * specifying which one is the independent variable.
  *
+ * The plot can also follow a CSV file that is still being written, such as the
+ * postprocessor output of a running MOOSE job. When following is enabled with
+ * {@link #setFollowing(boolean)}, each {@link #redraw()} only parses the rows
+ * that have been appended to the file since it was last read and adds them to
+ * the existing series. A last line that does not end with a newline may still
+ * be being written, so its row is replaced when the file is read again. Plots
+ * created by the {@link CSVVizService} follow their files.
+ *
  * @author Jay Jay Billings, Anna Wojtowicz, Alex McCaskey
  * @author Kasper Gammeltoft- Updated to extend MultiPlot, added ISeries
  *         functionality, updated to use {@link CSVPlotRender}s rather than
@@ -69,6 +77,48 @@ public class CSVPlot extends AbstractPlot {
 	 */
 	private final AtomicBoolean loaded = new AtomicBoolean(false);
 
+	/**
+	 * The charset used to read the file.
+	 */
+	private static final Charset charset = Charset.forName("UTF-8");
+
+	/**
+	 * Whether or not the file is followed, i.e. only the rows appended to it
+	 * are read when it is reloaded.
+	 */
+	private volatile boolean following = false;
+
+	/**
+	 * The file that the series were last read from, or null if nothing has
+	 * been read.
+	 */
+	private volatile File loadedFile;
+
+	/**
+	 * The number of bytes of {@link #loadedFile} that have been read. This is
+	 * always the end of a complete line.
+	 */
+	private long loadedLength;
+
+	/**
+	 * The series read from {@link #loadedFile}, in column order, or null if
+	 * the header has not been read.
+	 */
+	private CSVSeries[] loadedSeries;
+
+	/**
+	 * The number of rows at the end of the loaded series that were read from
+	 * an unfinished last line of a followed file. They are removed and read
+	 * again the next time the file is loaded.
+	 */
+	private int pendingRows;
+
+	/**
+	 * The lock held while the file is read so that loading threads do not
+	 * overlap.
+	 */
+	private final Object loadLock = new Object();
+
 	/**
 	 * The default constructor.
 	 */
@@ -123,6 +173,31 @@ public class CSVPlot extends AbstractPlot {
 		return loaded.get();
 	}
 
+	/**
+	 * Gets whether or not the data source is followed as it grows.
+	 * 
+	 * @return True if only appended rows are read on reload, false if the
+	 *         whole file is read.
+	 * @see #setFollowing(boolean)
+	 */
+	public boolean isFollowing() {
+		return following;
+	}
+
+	/**
+	 * Sets whether or not the data source is followed as it grows. While
+	 * following, reloading the plot only reads the bytes appended to the file
+	 * since it was last read and appends the new rows to the existing series.
+	 * The whole file is read again if it has become shorter.
+	 * 
+	 * @param follow
+	 *            True if the file should be followed, false if it should be
+	 *            completely reread every time it is loaded.
+	 */
+	public void setFollowing(boolean follow) {
+		following = follow;
+	}
+
 	/**
 	 * This operation loads the data that will be plotted. It uses a separate
 	 * thread to avoid hanging the UI in the event that the file is large. It
@@ -136,8 +211,11 @@ public class CSVPlot extends AbstractPlot {
 			// Only load the file if it is a CSV file.
 			final File file = new File(uri);
 			if (file.getName().endsWith(".csv")) {
-				// Loading has not completed.
-				loaded.set(false);
+				// Loading has not completed. The series of a followed file
+				// remain valid while new rows are appended to them.
+				if (!following || !file.equals(loadedFile)) {
+					loaded.set(false);
+				}
 
 				// Create the loading thread.
 				Thread loadingThread = new Thread(new Runnable() {
@@ -171,108 +249,281 @@ public class CSVPlot extends AbstractPlot {
 	 * series, and the rest as normal, dependent series to be added to the plot.
 	 * Note that only the first dependent series (the second column) will be
 	 * initially enabled to be drawn on the plot editor.
+	 * <p>
+	 * If the plot is following the file and the file was loaded before, only
+	 * the bytes after the last complete line that was read are parsed.
+	 * </p>
 	 * 
 	 * @param file
 	 *            The file to load, assumed to be a valid file.
 	 */
 	private void load(File file) {
-		// Initially set the name to the file name.
-		String plotName = file.getName();
-		setPlotTitle(plotName);
 
-		// Configure the list
-		ArrayList<String[]> lines = new ArrayList<String[]>();
+		synchronized (loadLock) {
+			// Start over unless the rows can be appended to the loaded series
+			if (!following || !file.equals(loadedFile)
+					|| file.length() < loadedLength) {
+				// Initially set the name to the file name.
+				setPlotTitle(file.getName());
+				loadedFile = file;
+				loadedLength = 0;
+				loadedSeries = null;
+			} else if (loadedSeries != null) {
+				// Remove the row of an unfinished line so it can be read again
+				for (CSVSeries series : loadedSeries) {
+					for (int i = 0; i < pendingRows; i++) {
+						series.remove(series.size() - 1);
+					}
+				}
+			}
+			pendingRows = 0;
+
+			try {
+				loadedLength = readRows(file, loadedLength);
+			} catch (IOException e) {
+				// Complain
+				logger.error(getClass().getName()
+						+ " Exception! Could not read in data from file: "
+						+ file.getName() + ".", e);
+			}
+		}
+
+		// Loading has completed.
+		loaded.set(true);
+
+		// Notify the listeners that loading has completed.
+		notifyPlotListeners("loaded", "true");
+
+		return;
+	}
+
+	/**
+	 * Reads the rows of a CSV file starting at an offset and appends their
+	 * values to the loaded series. If the series have not been created yet,
+	 * the first row that is read is used as the header. The bytes are read
+	 * through a fixed size buffer and the values of each block are added to
+	 * the series at once, so the file is never held in memory.
+	 * <p>
+	 * When the plot is following the file, a last line without a newline may
+	 * still be being written. Its row is added to the series, but the returned
+	 * offset is the start of the line so that it is read again.
+	 * </p>
+	 * 
+	 * @param file
+	 *            The file to read.
+	 * @param offset
+	 *            The offset of the first byte to read. This must be the start
+	 *            of a line.
+	 * @return The offset after the last line that was read.
+	 * @throws IOException
+	 *             Thrown when the file cannot be read
+	 */
+	private long readRows(File file, long offset) throws IOException {
+
+		// Local Declarations
+		RandomAccessFile input = new RandomAccessFile(file, "r");
+		byte[] buffer = new byte[65536];
+		byte[] line = new byte[256];
+		int lineLength = 0, bytesRead;
+		long position = offset;
+		double[][] columns = null;
+		int numRows = 0;
 
 		try {
-			// Grab the contents of the file
-			BufferedReader reader = new BufferedReader(new FileReader(file));
-			String line = null;
-			while ((line = reader.readLine()) != null) {
-				// Skip lines that pure comments
-				if (!line.startsWith("#")) {
-					// Clip the line if it has a comment symbol in it to be
-					// everything before the symbol
-					if (line.contains("#")) {
-						int index = line.indexOf("#");
-						line = line.substring(0, index);
+			input.seek(offset);
+			while ((bytesRead = input.read(buffer)) > 0) {
+				for (int i = 0; i < bytesRead; i++) {
+					if (buffer[i] != '\n') {
+						// Add the byte to the current line
+						if (lineLength == line.length) {
+							line = Arrays.copyOf(line, line.length * 2);
+						}
+						line[lineLength++] = buffer[i];
+						continue;
 					}
-					// Clean up any crap on the line
-					String[] lineArray = line.trim().split(",");
-					String[] trimmedLine = new String[lineArray.length];
-					// And clean up any crap on each split piece
-					for (int i = 0; i < lineArray.length; i++) {
-						trimmedLine[i] = lineArray[i].trim();
+					// Read the complete line
+					String[] values = splitLine(line, lineLength);
+					position += lineLength + 1;
+					lineLength = 0;
+					if (values == null) {
+						continue;
+					} else if (loadedSeries == null) {
+						createSeries(values);
+					} else {
+						if (columns == null) {
+							columns = new double[loadedSeries.length][1024];
+						} else if (numRows == columns[0].length) {
+							for (int j = 0; j < columns.length; j++) {
+								columns[j] = Arrays.copyOf(columns[j],
+										numRows * 2);
+							}
+						}
+						parseRow(values, columns, numRows++);
 					}
-					// Put the lines in the list
-					lines.add(trimmedLine);
 				}
+				// Add the values of the block to the series
+				numRows = appendRows(columns, numRows);
 			}
 
-			reader.close();
-
-		} catch (IOException e) {
-			// Complain
-			logger.error(getClass().getName()
-					+ " Exception! Could not read in data from file: "
-					+ file.getName() + ".", e);
+			// Read the last line. If the file is followed, the line may not be
+			// finished, so a header is left for later and a row is replaced
+			// the next time the file is read.
+			if (lineLength > 0) {
+				String[] values = splitLine(line, lineLength);
+				if (!following) {
+					position += lineLength;
+				}
+				if (values != null && loadedSeries == null) {
+					if (!following) {
+						createSeries(values);
+					}
+				} else if (values != null) {
+					columns = new double[loadedSeries.length][1];
+					parseRow(values, columns, 0);
+					appendRows(columns, 1);
+					if (following) {
+						pendingRows = 1;
+					}
+				}
+			}
+		} finally {
+			input.close();
 		}
 
-		if (!lines.isEmpty()) {
+		return position;
+	}
 
-			// TODO- Some sort of implementation to read in the style
-			// configurations for the plot, axes, and series. How to go about
-			// this? A large part of the series implementation is not being
-			// utilized without some sort of recognition here of the style
-			// attributes!
+	/**
+	 * Splits a line of the file into its trimmed, comma separated values.
+	 * 
+	 * @param line
+	 *            The bytes of the line.
+	 * @param length
+	 *            The number of bytes in the line.
+	 * @return The values in the line, or null if the line is empty or a
+	 *         comment.
+	 */
+	private String[] splitLine(byte[] line, int length) {
 
-			// Assume that the first line has information about the data
-			String[] seriesNames = lines.remove(0);
+		// Skip lines that pure comments
+		if (length == 0 || line[0] == '#') {
+			return null;
+		}
 
-			// Creates the series that contain the data loaded from the file.
-			CSVSeries[] series = new CSVSeries[seriesNames.length];
-			for (int i = 0; i < seriesNames.length; i++) {
-				series[i] = new CSVSeries();
-				series[i].setEnabled(false);
-				series[i].setLabel(seriesNames[i]);
-			}
+		// Clip the line if it has a comment symbol in it to be everything
+		// before the symbol
+		String text = new String(line, 0, length, charset);
+		int index = text.indexOf('#');
+		if (index >= 0) {
+			text = text.substring(0, index);
+		}
 
-			// Sets the first two series to be automatically plotted
-			series[0].setEnabled(true);
-			if (series.length > 1) {
-				series[1].setEnabled(true);
-			}
+		// Clean up any crap on the line and skip it if it is blank
+		text = text.trim();
+		if (text.isEmpty()) {
+			return null;
+		}
 
-			// Load the data as doubles
-			for (int i = 0; i < lines.size(); i++) {
-				double[] values = (double[]) ConvertUtils.convert(lines.get(i),
-						Double.TYPE);
-				for (int j = 0; j < values.length; j++) {
-					series[j].add(values[j]);
-				}
-			}
+		// And clean up any crap on each split piece
+		String[] values = text.split(",");
+		for (int i = 0; i < values.length; i++) {
+			values[i] = values[i].trim();
+		}
 
-			// Just set the first series as the independent series for now
-			setIndependentSeries(series[0]);
+		return values;
+	}
 
-			// Add the rest of the series as dependent series
-			List<ISeries> dependentSeries = new ArrayList<ISeries>(
-					series.length - 1);
-			dataSeries.put(IPlot.DEFAULT_CATEGORY, dependentSeries);
-			for (int i = 1; i < series.length; i++) {
-				dependentSeries.add(series[i]);
-			}
+	/**
+	 * Creates the series for the columns of the file from its header row and
+	 * adds them to the plot.
+	 * 
+	 * @param seriesNames
+	 *            The names in the header row.
+	 */
+	private void createSeries(String[] seriesNames) {
+
+		// TODO- Some sort of implementation to read in the style
+		// configurations for the plot, axes, and series. How to go about
+		// this? A large part of the series implementation is not being
+		// utilized without some sort of recognition here of the style
+		// attributes!
+
+		// Creates the series that contain the data loaded from the file.
+		CSVSeries[] series = new CSVSeries[seriesNames.length];
+		for (int i = 0; i < seriesNames.length; i++) {
+			series[i] = new CSVSeries();
+			series[i].setEnabled(false);
+			series[i].setLabel(seriesNames[i]);
+		}
 
+		// Sets the first two series to be automatically plotted
+		series[0].setEnabled(true);
+		if (series.length > 1) {
+			series[1].setEnabled(true);
 		}
 
-		// Loading has completed.
-		loaded.set(true);
+		// Just set the first series as the independent series for now
+		setIndependentSeries(series[0]);
 
-		// Notify the listeners that loading has completed.
-		notifyPlotListeners("loaded", "true");
+		// Add the rest of the series as dependent series
+		List<ISeries> dependentSeries = new ArrayList<ISeries>(
+				series.length - 1);
+		for (int i = 1; i < series.length; i++) {
+			dependentSeries.add(series[i]);
+		}
+		dataSeries.put(IPlot.DEFAULT_CATEGORY, dependentSeries);
+
+		loadedSeries = series;
 
 		return;
 	}
 
+	/**
+	 * Parses the values of a row into the columns that will be added to the
+	 * series. Values that are not numbers are read as zero and missing values
+	 * as NaN so that every series keeps the same number of points. Values
+	 * beyond the last column of the header are ignored.
+	 * 
+	 * @param values
+	 *            The values in the row.
+	 * @param columns
+	 *            The parsed values of each column.
+	 * @param row
+	 *            The index of the row in the columns.
+	 */
+	private void parseRow(String[] values, double[][] columns, int row) {
+		for (int j = 0; j < columns.length; j++) {
+			if (j >= values.length) {
+				columns[j][row] = Double.NaN;
+			} else {
+				try {
+					columns[j][row] = Double.parseDouble(values[j]);
+				} catch (NumberFormatException e) {
+					columns[j][row] = 0.0;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Appends the parsed rows to the loaded series.
+	 * 
+	 * @param columns
+	 *            The parsed values of each column, or null if nothing was
+	 *            parsed.
+	 * @param numRows
+	 *            The number of parsed rows.
+	 * @return The number of rows left to add, which is always zero.
+	 */
+	private int appendRows(double[][] columns, int numRows) {
+		if (columns != null) {
+			for (int j = 0; j < columns.length; j++) {
+				loadedSeries[j].addAll(columns[j], 0, numRows);
+			}
+		}
+		return 0;
+	}
+
 	/*
 	 * Overrides a method from AbstractPlot.
 	 */
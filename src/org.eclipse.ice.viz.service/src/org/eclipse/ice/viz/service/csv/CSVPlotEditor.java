@@ -21,6 +21,7 @@ import org.eclipse.swt.widgets.Composite;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.draw2d.LightweightSystem;
 import org.eclipse.ice.viz.service.ISeries;
+import org.eclipse.ice.viz.service.ProxySeries;
 import org.eclipse.ice.viz.service.styles.BasicErrorStyle;
 import org.eclipse.ice.viz.service.styles.XYZAxisStyle;
 import org.eclipse.ice.viz.service.styles.XYZPlotStyle;
@@ -83,6 +84,13 @@ public class CSVPlotEditor extends EditorPart {
 	private static final Logger logger = LoggerFactory
 			.getLogger(CSVPlotEditor.class);
 
+	/**
+	 * The largest number of points drawn for a trace. Series with more points
+	 * are downsampled with the {@link MinMaxDownsampler} so that redrawing a
+	 * plot takes the same time no matter how large its file is.
+	 */
+	private static final int maxTracePoints = 4000;
+
 	/**
 	 * The top level composite that holds the editor's contents.
 	 */
@@ -230,17 +238,22 @@ public class CSVPlotEditor extends EditorPart {
 				&& !(series.getStyle() instanceof BasicErrorStyle)
 				&& !existingTraces.containsKey(series)) {
 
-			// Get the data and create the new error arrays
+			// Get the data and create the new error arrays. The series may
+			// have been appended to since the x values were read.
 			double[] yValues = getDoubleValue(series);
-			int seriesSize = yValues.length;
-			double[] yPlusError = new double[seriesSize];
-			double[] yMinusError = new double[seriesSize];
+			int seriesSize = Math.min(xValues.length, yValues.length);
+			double[] yPlusError = new double[yValues.length];
+			double[] yMinusError = new double[yValues.length];
+
+			// Pick the points that will be drawn
+			int[] indices = MinMaxDownsampler.getIndices(yValues, seriesSize,
+					maxTracePoints);
 
 			// Create the data provider
 			final CircularBufferDataProvider traceDataProvider = new CircularBufferDataProvider(
 					false);
 			// Sets the size of the buffer
-			traceDataProvider.setBufferSize(seriesSize);
+			traceDataProvider.setBufferSize(Math.max(indices.length, 1));
 
 			// Gets the error for the series, if there is any
 			if (seriesMap.containsKey(series)) {
@@ -275,7 +288,7 @@ public class CSVPlotEditor extends EditorPart {
 			}
 
 			// Set the data to be plotted
-			for (int i = 0; i < seriesSize; i++) {
+			for (int i : indices) {
 				// Create the new point add add it to the trace
 				Sample point = new Sample(xValues[i], yValues[i], yPlusError[i],
 						yMinusError[i], xPlusError[i], xMinusError[i],
@@ -524,6 +537,16 @@ public class CSVPlotEditor extends EditorPart {
 	 * @return Returns an array of double values to use
 	 */
 	private double[] getDoubleValue(ISeries series) {
+		// Copy the primitive values of CSV series directly
+		ISeries source = series;
+		while (source instanceof ProxySeries
+				&& ((ProxySeries) source).getSource() != null) {
+			source = ((ProxySeries) source).getSource();
+		}
+		if (source instanceof CSVSeries) {
+			return ((CSVSeries) source).toDoubleArray();
+		}
+
 		Object[] dataPoints = series.getDataPoints();
 		double[] array = new double[dataPoints.length];
 		for (int i = 0; i < dataPoints.length; i++) {
@@ -12,6 +12,10 @@
 
 package org.eclipse.ice.viz.service.csv;
 
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
 import org.eclipse.ice.viz.service.IPlot;
 import org.eclipse.ice.viz.service.ISeries;
 import org.eclipse.ice.viz.service.ISeriesStyle;
@@ -19,21 +23,39 @@ import org.eclipse.ice.viz.service.styles.AbstractSeriesStyle;
 import org.eclipse.ice.viz.service.styles.XYZSeriesStyle;
 import org.eclipse.swt.graphics.Color;
 
-import ca.odell.glazedlists.BasicEventList;
-import ca.odell.glazedlists.EventList;
-import ca.odell.glazedlists.TransformedList;
-import ca.odell.glazedlists.event.ListEvent;
-
 /**
  * This is an implementation of {@link ISeries} that holds csv data to be
  * plotted. The series should be given a label, and double values should be
  * added via the standard collections methods.
+ * <p>
+ * The values are stored in a growable array of primitive doubles instead of a
+ * list of boxed Doubles, so that series with millions of points can be loaded
+ * and appended to cheaply. {@link #add(double)}, {@link #addAll(double[], int,
+ * int)} and {@link #toDoubleArray()} work on the primitive values directly.
+ * Changes to the values are synchronized so that a series can be appended to
+ * on a loading thread while it is being drawn.
+ * </p>
  * 
  * @author Kasper Gammeltoft
  *
  */
-public class CSVSeries extends TransformedList<Double, Double>
-		implements ISeries {
+public class CSVSeries extends AbstractList<Double>
+		implements ISeries, RandomAccess {
+
+	/**
+	 * The initial capacity of the array of values.
+	 */
+	private static final int initialCapacity = 16;
+
+	/**
+	 * The values in this series. Only the first {@link #size} are valid.
+	 */
+	private double[] values;
+
+	/**
+	 * The number of values in this series.
+	 */
+	private int size;
 
 	/**
 	 * The style used to style the trace for this series on the CSV plot.
@@ -80,16 +102,8 @@ public class CSVSeries extends TransformedList<Double, Double>
 	 * Constructor, creates a new csv series with no data and the default style.
 	 */
 	public CSVSeries(Color color) {
-		this(new BasicEventList<Double>(), color);
-	}
-
-	/**
-	 * Creates a new CSV Series with the given source list.
-	 * 
-	 * @param source
-	 */
-	protected CSVSeries(EventList<Double> source, Color color) {
-		super(source);
+		values = new double[initialCapacity];
+		size = 0;
 		style = new XYZSeriesStyle(color);
 		time = 0;
 		parent = null;
@@ -123,12 +137,91 @@ public class CSVSeries extends TransformedList<Double, Double>
 		((AbstractSeriesStyle) style).copy((AbstractSeriesStyle) other.style);
 		time = other.time;
 		unit = other.unit;
-		this.clear();
-		this.addAll(other);
+		double[] otherValues = other.toDoubleArray();
+		synchronized (this) {
+			size = 0;
+			addAll(otherValues, 0, otherValues.length);
+		}
+	}
+
+	/**
+	 * Adds a value to the end of this series without boxing it.
+	 * 
+	 * @param value
+	 *            The value to add.
+	 * @return True, as the series always changes.
+	 */
+	public synchronized boolean add(double value) {
+		ensureCapacity(size + 1);
+		values[size++] = value;
+		modCount++;
+		return true;
+	}
+
+	/*
+	 * Overrides a method from AbstractList.
+	 */
+	@Override
+	public synchronized void add(int index, Double element) {
+		if (index < 0 || index > size) {
+			throw new IndexOutOfBoundsException(
+					"Index: " + index + ", Size: " + size);
+		}
+		ensureCapacity(size + 1);
+		System.arraycopy(values, index, values, index + 1, size - index);
+		values[index] = element;
+		size++;
+		modCount++;
+	}
+
+	/**
+	 * Adds a range of values to the end of this series in one step.
+	 * 
+	 * @param newValues
+	 *            The array holding the values to add.
+	 * @param offset
+	 *            The index of the first value in the array to add.
+	 * @param length
+	 *            The number of values to add.
+	 */
+	public synchronized void addAll(double[] newValues, int offset,
+			int length) {
+		if (offset < 0 || length < 0 || offset + length > newValues.length) {
+			throw new IndexOutOfBoundsException("Offset: " + offset
+					+ ", Length: " + length + ", Array: " + newValues.length);
+		}
+		ensureCapacity(size + length);
+		System.arraycopy(newValues, offset, values, size, length);
+		size += length;
+		modCount++;
 	}
 
 	/*
-	 * Overrides a method from AbstractEventList.
+	 * Overrides a method from AbstractList.
+	 */
+	@Override
+	public synchronized void clear() {
+		size = 0;
+		modCount++;
+	}
+
+	/**
+	 * Grows the array of values so that it can hold at least the specified
+	 * number of values. The array at least doubles in size so that appending
+	 * values takes constant time on average.
+	 * 
+	 * @param capacity
+	 *            The number of values that the array must hold.
+	 */
+	private void ensureCapacity(int capacity) {
+		if (capacity > values.length) {
+			int newCapacity = Math.max(capacity, values.length * 2);
+			values = Arrays.copyOf(values, newCapacity);
+		}
+	}
+
+	/*
+	 * Overrides a method from AbstractList.
 	 */
 	@Override
 	public boolean equals(Object other) {
@@ -168,29 +261,39 @@ public class CSVSeries extends TransformedList<Double, Double>
 		// Creates the array to return
 		double[] bounds = null;
 
-		// Only return a valid array if there is data
-		if (size() > 0) {
-			// Instantiate the array
-			bounds = new double[2];
-			// Set the initial values to the first data point
-			double min = (double) this.get(0);
-			double max = (double) this.get(0);
-			// Iterate and find the max and min values
-			for (Double d : this) {
-				if (((double) d) < min) {
-					min = (double) d;
-				} else if (((double) d) > max) {
-					max = (double) d;
+		synchronized (this) {
+			// Only return a valid array if there is data
+			if (size > 0) {
+				// Instantiate the array
+				bounds = new double[2];
+				// Set the initial values to the first data point
+				double min = values[0];
+				double max = values[0];
+				// Iterate and find the max and min values
+				for (int i = 1; i < size; i++) {
+					if (values[i] < min) {
+						min = values[i];
+					} else if (values[i] > max) {
+						max = values[i];
+					}
 				}
+				// Set the values
+				bounds[0] = min;
+				bounds[1] = max - min;
 			}
-			// Set the values
-			bounds[0] = min;
-			bounds[1] = max - min;
 		}
 		// Finally return the array
 		return bounds;
 	}
 
+	/*
+	 * Overrides a method from AbstractList.
+	 */
+	@Override
+	public synchronized Double get(int index) {
+		return getDouble(index);
+	}
+
 	/**
 	 * There should not be multiple categories for this type of series, so
 	 * return the default category
@@ -205,7 +308,28 @@ public class CSVSeries extends TransformedList<Double, Double>
 	 */
 	@Override
 	public Object[] getDataPoints() {
-		return this.toArray();
+		// Box a snapshot of the values so that appending does not interfere
+		double[] snapshot = toDoubleArray();
+		Object[] dataPoints = new Object[snapshot.length];
+		for (int i = 0; i < snapshot.length; i++) {
+			dataPoints[i] = snapshot[i];
+		}
+		return dataPoints;
+	}
+
+	/**
+	 * Gets a value in this series without boxing it.
+	 * 
+	 * @param index
+	 *            The index of the value.
+	 * @return The value at the index.
+	 */
+	public synchronized double getDouble(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException(
+					"Index: " + index + ", Size: " + size);
+		}
+		return values[index];
 	}
 
 	/*
@@ -250,7 +374,7 @@ public class CSVSeries extends TransformedList<Double, Double>
 	}
 
 	/*
-	 * Overrides a method from AbstractEventList.
+	 * Overrides a method from AbstractList.
 	 */
 	@Override
 	public int hashCode() {
@@ -277,20 +401,25 @@ public class CSVSeries extends TransformedList<Double, Double>
 	}
 
 	/*
-	 * Overrides a method from TransformedList.
+	 * Overrides a method from AbstractList.
 	 */
 	@Override
-	protected boolean isWritable() {
-		return true;
+	public synchronized Double remove(int index) {
+		double value = getDouble(index);
+		System.arraycopy(values, index + 1, values, index, size - index - 1);
+		size--;
+		modCount++;
+		return value;
 	}
 
 	/*
-	 * Overrides a method from TransformedList.
+	 * Overrides a method from AbstractList.
 	 */
 	@Override
-	public void listChanged(ListEvent<Double> listChanges) {
-		// TODO implementation
-		return;
+	public synchronized Double set(int index, Double element) {
+		double value = getDouble(index);
+		values[index] = element;
+		return value;
 	}
 
 	/**
@@ -348,4 +477,22 @@ public class CSVSeries extends TransformedList<Double, Double>
 		this.unit = unit;
 	}
 
+	/*
+	 * Overrides a method from AbstractList.
+	 */
+	@Override
+	public synchronized int size() {
+		return size;
+	}
+
+	/**
+	 * Gets a copy of the values in this series as an array of primitive
+	 * doubles.
+	 * 
+	 * @return A new array holding every value in this series.
+	 */
+	public synchronized double[] toDoubleArray() {
+		return Arrays.copyOf(values, size);
+	}
+
 }
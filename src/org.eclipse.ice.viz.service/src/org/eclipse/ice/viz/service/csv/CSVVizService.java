@@ -59,8 +59,7 @@ public class CSVVizService extends AbstractVizService {
 		// Get the associated data plot. Create one if necessary.
 		CSVPlot dataPlot = dataPlots.get(file);
 		if (dataPlot == null) {
-			dataPlot = new CSVPlot();
-			dataPlot.setDataSource(file);
+			dataPlot = createDataPlot(file);
 			dataPlots.put(file, dataPlot);
 		}
 		
@@ -71,6 +70,25 @@ public class CSVVizService extends AbstractVizService {
 		return proxyPlot;
 	}
 
+	/**
+	 * Creates the CSVPlot that reads a file for the proxies created by
+	 * {@link #createPlot(URI)}. The plot follows the file, so refreshing the
+	 * plot of a file that is still being written, such as the postprocessor
+	 * output of a running MOOSE job, only reads the rows appended to it.
+	 * 
+	 * @param file
+	 *            The CSV file.
+	 * @return The plot, which loads the file.
+	 * @throws Exception
+	 *             if the data source of the plot cannot be set
+	 */
+	protected CSVPlot createDataPlot(URI file) throws Exception {
+		CSVPlot dataPlot = new CSVPlot();
+		dataPlot.setFollowing(true);
+		dataPlot.setDataSource(file);
+		return dataPlot;
+	}
+
 	/*
 	 * Implements an abstract method from AbstractVizService.
 	 */
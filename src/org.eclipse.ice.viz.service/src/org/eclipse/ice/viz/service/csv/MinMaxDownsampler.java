@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.viz.service.csv;
+
+/**
+ * This class chooses which points of a series to draw when the series has more
+ * points than can be seen on a plot. The points are split into buckets of
+ * consecutive points and only the smallest and largest value of each bucket
+ * are kept, along with the first and last point. This keeps the spikes and the
+ * envelope of the data that a line plot would show while bounding the number
+ * of points that have to be drawn, no matter how large the series is.
+ * <p>
+ * The points are chosen by index so that the same indices can be used to pick
+ * the independent values and the error values that go with each point.
+ * </p>
+ *
+ */
+public final class MinMaxDownsampler {
+
+	/**
+	 * The constructor is hidden because this class only has static
+	 * operations.
+	 */
+	private MinMaxDownsampler() {
+	}
+
+	/**
+	 * This operation gets the indices of the points that should be drawn for a
+	 * series of values.
+	 *
+	 * @param values
+	 *            The values of the series.
+	 * @param size
+	 *            The number of values to consider, starting at the first.
+	 * @param maxPoints
+	 *            The largest number of points to keep. This must be at least
+	 *            four.
+	 * @return The indices of the points to draw, in increasing order. If there
+	 *         are no more than maxPoints values, every index is returned.
+	 */
+	public static int[] getIndices(double[] values, int size, int maxPoints) {
+
+		// Local Declarations
+		int[] indices;
+		int numIndices = 0;
+
+		if (maxPoints < 4) {
+			throw new IllegalArgumentException("MinMaxDownsampler Message: "
+					+ "At least four points must be kept, not " + maxPoints
+					+ ".");
+		} else if (size < 0 || size > values.length) {
+			throw new IndexOutOfBoundsException("MinMaxDownsampler Message: "
+					+ "Size " + size + " is not within the " + values.length
+					+ " values.");
+		}
+
+		// Keep everything if there are few enough points
+		if (size <= maxPoints) {
+			indices = new int[size];
+			for (int i = 0; i < size; i++) {
+				indices[i] = i;
+			}
+			return indices;
+		}
+
+		// Split the points between the first and the last into buckets
+		int numBuckets = (maxPoints - 2) / 2;
+		int numInterior = size - 2;
+		indices = new int[2 + 2 * numBuckets];
+		indices[numIndices++] = 0;
+		for (int bucket = 0; bucket < numBuckets; bucket++) {
+			int start = 1 + (int) ((long) bucket * numInterior / numBuckets);
+			int end = 1 + (int) ((long) (bucket + 1) * numInterior
+					/ numBuckets);
+			int minIndex = -1, maxIndex = -1;
+			// Find the smallest and largest values, skipping NaNs
+			for (int i = start; i < end; i++) {
+				if (Double.isNaN(values[i])) {
+					continue;
+				}
+				if (minIndex < 0 || values[i] < values[minIndex]) {
+					minIndex = i;
+				}
+				if (maxIndex < 0 || values[i] > values[maxIndex]) {
+					maxIndex = i;
+				}
+			}
+			if (minIndex < 0) {
+				// Keep a gap in the line where there are only NaNs
+				indices[numIndices++] = start;
+			} else if (minIndex == maxIndex) {
+				indices[numIndices++] = minIndex;
+			} else {
+				// Add the two points in order
+				indices[numIndices++] = Math.min(minIndex, maxIndex);
+				indices[numIndices++] = Math.max(minIndex, maxIndex);
+			}
+		}
+		indices[numIndices++] = size - 1;
+
+		// Trim the array if some buckets only had one point
+		if (numIndices < indices.length) {
+			int[] trimmed = new int[numIndices];
+			System.arraycopy(indices, 0, trimmed, 0, numIndices);
+			indices = trimmed;
+		}
+
+		return indices;
+	}
+}
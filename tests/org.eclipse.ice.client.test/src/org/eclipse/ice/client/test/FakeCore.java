@@ -458,6 +458,16 @@ public class FakeCore implements ICore {
 		return outputFile;
 	}
 
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see ICore#getItemOutputTail(int id, boolean stdErr)
+	 */
+	@Override
+	public ArrayList<String> getItemOutputTail(int id, boolean stdErr) {
+		return (id > 0) ? new ArrayList<String>() : null;
+	}
+
 	/**
 	 * (non-Javadoc)
 	 * 
@@ -13,10 +13,15 @@
 package org.eclipse.ice.client.widgets.reactoreditor.test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 
 import org.eclipse.ice.analysistool.IData;
 import org.eclipse.ice.client.widgets.reactoreditor.AnalysisDataReader;
@@ -101,4 +106,141 @@ public class AnalysisDataReaderTester {
 
 		return;
 	}
+
+	/**
+	 * This test case writes a data file with numbers in several formats,
+	 * reads it back and checks every value. It then checks that a malformed
+	 * row does not affect the assemblies that come before it.
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void readGeneratedData() throws IOException {
+
+		// Local Declarations
+		int assemblies = 6, axialLevels = 4, rows = 3, cols = 3;
+		File dataFile = File.createTempFile("AnalysisData", ".txt");
+		dataFile.deleteOnExit();
+
+		// Write the file.
+		StringBuilder builder = new StringBuilder();
+		builder.append("Assemblies: " + assemblies + "\n");
+		builder.append("Axial Levels: " + axialLevels + "\n");
+		builder.append("Rows: " + rows + "\n");
+		builder.append("Columns: " + cols + "\n\n");
+		builder.append("Unsupported Feature\n");
+		builder.append("Fuel Pin Difference\n");
+		for (int assembly = 0; assembly < assemblies; assembly++) {
+			builder.append("Assembly " + assembly + "\r\n");
+			for (int axialLevel = 0; axialLevel < axialLevels; axialLevel++) {
+				builder.append("Axial Level " + axialLevel + "\n");
+				for (int row = 0; row < rows; row++) {
+					for (int col = 0; col < cols; col++) {
+						int rod = row * cols + col;
+						builder.append("  "
+								+ formatValue(assembly, axialLevel, rod));
+					}
+					builder.append(" \n");
+				}
+			}
+			builder.append("\n");
+		}
+		builder.append("Radial Power\n");
+		for (int assembly = 0; assembly < assemblies; assembly++) {
+			builder.append("Assembly " + assembly + "\n");
+			for (int row = 0; row < rows; row++) {
+				for (int col = 0; col < cols; col++) {
+					builder.append("\t" + (assembly * 10 + row * cols + col));
+				}
+				builder.append("\n");
+			}
+		}
+		FileWriter writer = new FileWriter(dataFile);
+		writer.write(builder.toString());
+		writer.close();
+
+		// Read and check it.
+		AnalysisDataReader dataReader = new AnalysisDataReader();
+		dataReader.readData(dataFile.toURI());
+		assertEquals(assemblies, dataReader.getNumberOfAssemblies());
+		assertEquals(axialLevels, dataReader.getAxialLevels());
+		for (int assembly = 0; assembly < assemblies; assembly++) {
+			List<LWRDataProvider> providers = dataReader
+					.getAssemblyDataProviders(assembly);
+			for (int rod = 0; rod < rows * cols; rod++) {
+				ArrayList<IData> data = providers.get(rod)
+						.getDataAtCurrentTime("Fuel Pin Difference");
+				assertEquals(axialLevels, data.size());
+				for (int axialLevel = 0; axialLevel < axialLevels; axialLevel++) {
+					assertEquals(Double.parseDouble(formatValue(assembly,
+							axialLevel, rod)), data.get(axialLevel).getValue(),
+							0.0);
+				}
+				data = providers.get(rod).getDataAtCurrentTime("Radial Power");
+				assertEquals(1, data.size());
+				assertEquals(assembly * 10 + rod, data.get(0).getValue(), 0.0);
+				assertTrue(providers.get(rod)
+						.getDataAtCurrentTime("Unsupported Feature").isEmpty());
+			}
+		}
+
+		// Break a row of the last assembly. The others are still read.
+		int badRow = builder.indexOf("Assembly " + (assemblies - 1));
+		badRow = builder.indexOf("\n", builder.indexOf("Axial Level 2", badRow)) + 1;
+		builder.insert(badRow, "1.0 ");
+		writer = new FileWriter(dataFile);
+		writer.write(builder.toString());
+		writer.close();
+		dataReader = new AnalysisDataReader();
+		dataReader.readData(dataFile.toURI());
+		assertEquals(assemblies, dataReader.getNumberOfAssemblies());
+		assertEquals(axialLevels, dataReader.getAssemblyDataProviders(0)
+				.get(0).getDataAtCurrentTime("Fuel Pin Difference").size());
+		assertTrue(dataReader.getAssemblyDataProviders(assemblies - 1).get(0)
+				.getDataAtCurrentTime("Fuel Pin Difference").isEmpty());
+
+		dataFile.delete();
+
+		return;
+	}
+
+	/**
+	 * Gets the value written for a rod at an axial level of an assembly.
+	 * 
+	 * @param assembly
+	 *            The assembly.
+	 * @param axialLevel
+	 *            The axial level.
+	 * @param rod
+	 *            The rod.
+	 * @return The value.
+	 */
+	private double getValue(int assembly, int axialLevel, int rod) {
+		double value = assembly * 1000.0 + axialLevel * 100.0 + rod + 0.125;
+		return (rod % 2 == 1) ? -value / 3.0 : value;
+	}
+
+	/**
+	 * Gets the text written for a rod at an axial level of an assembly. The
+	 * values are written with and without exponents and with short and long
+	 * mantissas.
+	 * 
+	 * @param assembly
+	 *            The assembly.
+	 * @param axialLevel
+	 *            The axial level.
+	 * @param rod
+	 *            The rod.
+	 * @return The value as it is written in the file.
+	 */
+	private String formatValue(int assembly, int axialLevel, int rod) {
+		double value = getValue(assembly, axialLevel, rod);
+		String text = Double.toString(value);
+		if (rod % 3 == 1) {
+			text = String.format(Locale.US, "%.6e", value);
+		} else if (rod % 3 == 2) {
+			text = String.format(Locale.US, "%.17E", value);
+		}
+		return text;
+	}
 }
\ No newline at end of file
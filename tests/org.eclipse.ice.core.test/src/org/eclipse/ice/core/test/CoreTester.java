@@ -549,14 +549,28 @@ public class CoreTester {
 
 		// Make sure posting a valid message works
 		assertEquals("OK", iCECore.postUpdateMessage(msg));
-		// Get the FakeItem and make sure it was updated
+		// Messages are delivered asynchronously, so wait for them. Then get
+		// the FakeItem and make sure it was updated.
+		assertTrue(iCECore.getUpdateMessageQueue().flush(5000));
 		assertTrue(fakeGeometryBuilder.getLastFakeItem().wasUpdated());
+		assertEquals(2, iCECore.getUpdateMessageQueue().getReceivedCount());
+
+		// Make sure that several messages can be posted at once, one per line
+		fakeGeometryBuilder.getLastFakeItem().reset();
+		String body = msg.substring(msg.indexOf('=') + 1);
+		assertEquals("OK", iCECore.postUpdateMessage("post=" + body + "\n"
+				+ body + "\n"));
+		assertTrue(iCECore.getUpdateMessageQueue().flush(5000));
+		assertTrue(fakeGeometryBuilder.getLastFakeItem().wasUpdated());
+		assertEquals(6, iCECore.getUpdateMessageQueue().getReceivedCount());
+		assertEquals(0, iCECore.getUpdateMessageQueue().getQueueDepth());
 
 		// Make sure posting a null message fails
 		assertNull(iCECore.postUpdateMessage(null));
 
 		// Make sure posting a message without json content fails
 		assertNull(iCECore.postUpdateMessage("not&realContent"));
+		assertNull(iCECore.postUpdateMessage("post={\"item_id\":"));
 
 		return;
 	}
@@ -12,6 +12,9 @@
  *******************************************************************************/
 package org.eclipse.ice.core.test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+
 import org.eclipse.core.resources.IProject;
 import org.eclipse.ice.datastructures.form.Form;
 import org.eclipse.ice.datastructures.form.FormStatus;
@@ -248,6 +251,24 @@ public class FakeItem extends Item {
 		loaded = true;
 	}
 
+	/**
+	 * Override the tail of standard output for the output tests. It has an
+	 * empty line in the middle.
+	 */
+	@Override
+	public ArrayList<String> getStdOutTail() {
+		return new ArrayList<String>(Arrays.asList("first line", "",
+				"last line"));
+	}
+
+	/**
+	 * Override the tail of standard error for the output tests.
+	 */
+	@Override
+	public ArrayList<String> getStdErrTail() {
+		return new ArrayList<String>(Arrays.asList("error"));
+	}
+
 	/**
 	 * Override the update operation to log the hit in the update test.
 	 */
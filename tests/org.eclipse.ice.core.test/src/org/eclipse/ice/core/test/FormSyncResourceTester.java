@@ -0,0 +1,571 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.core.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.ws.rs.core.Response;
+
+import org.eclipse.ice.client.internal.RemoteCoreProxy;
+import org.eclipse.ice.core.internal.Core;
+import org.eclipse.ice.core.internal.FormSyncResource;
+import org.eclipse.ice.core.internal.itemmanager.ItemManager;
+import org.eclipse.ice.datastructures.ICEObject.Component;
+import org.eclipse.ice.datastructures.form.DataComponent;
+import org.eclipse.ice.datastructures.form.Entry;
+import org.eclipse.ice.datastructures.form.Form;
+import org.eclipse.ice.datastructures.form.FormDelta;
+import org.eclipse.ice.datastructures.form.FormStatus;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.jersey.api.container.ContainerFactory;
+import com.sun.jersey.api.core.ApplicationAdapter;
+import com.sun.jersey.api.core.ResourceConfig;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * <p>
+ * This class tests the FormSyncResource, which publishes versioned Item Forms
+ * and their deltas. The Core is created with a real ItemManager and a
+ * FakeItem whose Form holds two DataComponents.
+ * </p>
+ */
+public class FormSyncResourceTester {
+
+	/**
+	 * The Core that owns the Item.
+	 */
+	private Core core;
+
+	/**
+	 * The resource under test.
+	 */
+	private FormSyncResource resource;
+
+	/**
+	 * The id of the Item.
+	 */
+	private int itemId;
+
+	/**
+	 * This operation creates the Core and an Item with two DataComponents of
+	 * 50 Entries each.
+	 */
+	@Before
+	public void beforeEachTest() {
+
+		// Local Declarations
+		FakeGeometryBuilder builder = new FakeGeometryBuilder();
+		Form form;
+
+		// Setup the Core and the Item
+		core = new Core(new ItemManager());
+		core.registerItem(builder);
+		itemId = Integer.parseInt(core.createItem(builder.getItemName()));
+		form = core.getItem(itemId);
+		for (int i = 1; i <= 2; i++) {
+			DataComponent component = new DataComponent();
+			component.setId(i);
+			component.setName("Data " + i);
+			for (int j = 0; j < 50; j++) {
+				Entry entry = new Entry();
+				entry.setId(j);
+				entry.setName("Entry " + j);
+				entry.setDescription("The description of Entry " + j);
+				entry.setValue(String.valueOf(j));
+				component.addEntry(entry);
+			}
+			form.addComponent(component);
+		}
+		assertEquals(FormStatus.ReadyToProcess, core.updateItem(form, 1));
+
+		resource = new FormSyncResource(core);
+
+		return;
+	}
+
+	/**
+	 * This operation checks that versions only change when the Form changes
+	 * and that deltas are computed from and applied to the right versions.
+	 */
+	@Test
+	public void checkVersionsAndDeltas() {
+
+		// Local Declarations
+		String firstVersion = resource.getVersion(itemId);
+		String secondVersion;
+		Response response;
+		FormDelta delta;
+		Form form;
+
+		// The version is stable while the Form does not change
+		assertNotNull(firstVersion);
+		assertEquals(firstVersion, resource.getVersion(itemId));
+
+		// Change one value on the server
+		form = core.getItem(itemId);
+		((DataComponent) form.getComponent(1)).retrieveAllEntries().get(3)
+				.setValue("three");
+		secondVersion = resource.getVersion(itemId);
+		assertFalse(firstVersion.equals(secondVersion));
+
+		// The delta only holds the changed value
+		response = resource.getDelta(itemId, firstVersion);
+		assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+		delta = (FormDelta) response.getEntity();
+		assertEquals(1, delta.getEntryValues().size());
+		assertEquals(0, delta.getComponents().size());
+		assertEquals(firstVersion, delta.getBaseVersion());
+		assertEquals(secondVersion, delta.getVersion());
+
+		// Nothing is sent to a client that is up to date, and an unknown
+		// version must request the whole Form.
+		assertEquals(Response.Status.NOT_MODIFIED.getStatusCode(), resource
+				.getDelta(itemId, secondVersion).getStatus());
+		assertEquals(Response.Status.PRECONDITION_FAILED.getStatusCode(),
+				resource.getDelta(itemId, "unknown").getStatus());
+		assertEquals(Response.Status.NOT_FOUND.getStatusCode(), resource
+				.getDelta(itemId + 1, firstVersion).getStatus());
+
+		// An update from a stale version is rejected
+		delta = new FormDelta();
+		delta.setItemId(itemId);
+		delta.setBaseVersion(firstVersion);
+		assertEquals(Response.Status.PRECONDITION_FAILED.getStatusCode(),
+				resource.updateDelta(itemId, 1, delta).getStatus());
+
+		// An update from the current version is submitted to the Item
+		form = (Form) core.getItem(itemId).clone();
+		((DataComponent) form.getComponent(2)).retrieveAllEntries().get(7)
+				.setValue("seven");
+		delta = FormDelta.create(core.getItem(itemId), form);
+		delta.setBaseVersion(secondVersion);
+		response = resource.updateDelta(itemId, 1, delta);
+		assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+		assertEquals(FormStatus.ReadyToProcess.toString(),
+				response.getEntity());
+		assertEquals("seven", ((DataComponent) core.getItem(itemId)
+				.getComponent(2)).retrieveAllEntries().get(7).getValue());
+		assertFalse(secondVersion.equals(resource.getVersion(itemId)));
+
+		return;
+	}
+
+	/**
+	 * This operation publishes the Core over HTTP, compares the size of the
+	 * full, compressed, conditional and delta responses for the Form and
+	 * checks that a stale Form is not accepted. It then synchronizes the Form
+	 * through a RemoteCoreProxy and checks that the proxy only sends and
+	 * receives the changes. The size and the time to handle each request are
+	 * recorded by the server.
+	 */
+	@Test
+	public void checkPayloads() throws IOException {
+
+		// Local Declarations
+		ResourceConfig config = new ApplicationAdapter(core);
+		RecordingFilter recorder = new RecordingFilter();
+		RemoteCoreProxy proxy = new RemoteCoreProxy();
+		HttpServer server;
+		int port = findFreePort();
+		String formURL = "http://localhost:" + port + "/ice";
+		HttpURLConnection connection;
+		String version;
+		byte[] plain;
+		byte[] compressed;
+		byte[] delta;
+		OutputStream output;
+		Form form;
+
+		// Enable compression the same way the Core does for its servlet
+		config.getProperties().put(FormSyncResource.REQUEST_FILTERS_PARAM,
+				FormSyncResource.GZIP_FILTER);
+		config.getProperties().put(FormSyncResource.RESPONSE_FILTERS_PARAM,
+				FormSyncResource.GZIP_FILTER);
+		server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+		server.createContext("/ice", ContainerFactory.createContainer(
+				HttpHandler.class, config)).getFilters().add(recorder);
+		formURL += "/items/" + itemId + "/form";
+		server.start();
+
+		try {
+			// Get the whole Form with and without compression
+			connection = open(formURL, false);
+			assertEquals(200, connection.getResponseCode());
+			version = connection.getHeaderField("ETag");
+			assertNotNull(version);
+			plain = read(connection);
+			assertEquals(plain.length, recorder.getLast().size);
+			connection = open(formURL, true);
+			assertEquals("gzip", connection.getContentEncoding());
+			compressed = read(connection);
+			assertTrue(compressed.length < plain.length);
+			assertEquals(compressed.length, recorder.getLast().size);
+
+			// The Form is not sent again if it did not change
+			connection = open(formURL, true);
+			connection.setRequestProperty("If-None-Match", version);
+			assertEquals(304, connection.getResponseCode());
+			assertEquals(0, read(connection).length);
+
+			// Only the change is sent after a value changed
+			getEntry(core.getItem(itemId), 1, 3).setValue("three");
+			connection = open(formURL + "/delta?since="
+					+ version.replace("\"", ""), true);
+			assertEquals(200, connection.getResponseCode());
+			delta = read(connection);
+			assertTrue(delta.length < compressed.length);
+
+			// The old Form does not overwrite the change
+			connection = open(formURL + "?client=1", false);
+			connection.setRequestMethod("POST");
+			connection.setRequestProperty("Accept", "text/plain");
+			connection.setRequestProperty("Content-Type", "application/xml");
+			connection.setRequestProperty("If-Match", version);
+			connection.setDoOutput(true);
+			output = connection.getOutputStream();
+			output.write(plain);
+			output.close();
+			assertEquals(412, connection.getResponseCode());
+			assertEquals("three", getEntry(core.getItem(itemId), 1, 3)
+					.getValue());
+
+			// The proxy gets the whole Form once
+			proxy.setHost("localhost");
+			proxy.setPort(port);
+			proxy.connect();
+			form = proxy.getItem(itemId);
+			assertEquals("three", getEntry(form, 1, 3).getValue());
+			recorder.checkLast("GET", "/form", null, 200);
+			assertTrue(recorder.getLast().size < plain.length);
+
+			// After that, it is told that its Form is current
+			form = proxy.getItem(itemId);
+			recorder.checkLast("GET", "/form/delta?since=", null, 304);
+			assertEquals(0, recorder.getLast().size);
+
+			// Or it receives only the changes
+			getEntry(core.getItem(itemId), 2, 5).setValue("five");
+			form = proxy.getItem(itemId);
+			recorder.checkLast("GET", "/form/delta?since=", null, 200);
+			assertTrue(recorder.getLast().size < compressed.length);
+			assertEquals("five", getEntry(form, 2, 5).getValue());
+
+			// An edit is sent as a delta from the synchronized version
+			getEntry(form, 1, 7).setValue("seven");
+			assertEquals(FormStatus.ReadyToProcess, proxy.updateItem(form, 1));
+			recorder.checkLast("POST", "/form/delta?client=1", null, 200);
+			assertEquals("seven", getEntry(core.getItem(itemId), 1, 7)
+					.getValue());
+
+			// The accepted edit comes back as a delta
+			form = proxy.getItem(itemId);
+			recorder.checkLast("GET", "/form/delta?since=", null, 200);
+			assertEquals("seven", getEntry(form, 1, 7).getValue());
+
+			// Changes a delta cannot describe send the whole Form, which is
+			// accepted while the server has the synchronized version...
+			moveFirstComponentToEnd(form);
+			assertEquals(FormStatus.ReadyToProcess, proxy.updateItem(form, 1));
+			recorder.checkLast("POST", "/form?client=1", "If-Match", 200);
+
+			// ...and rejected after the Form changed on the server.
+			form = proxy.getItem(itemId);
+			getEntry(core.getItem(itemId), 2, 9).setValue("nine");
+			moveFirstComponentToEnd(form);
+			assertEquals(FormStatus.InfoError, proxy.updateItem(form, 1));
+			recorder.checkLast("POST", "/form?client=1", "If-Match", 412);
+			assertEquals("nine", getEntry(core.getItem(itemId), 2, 9)
+					.getValue());
+		} finally {
+			server.stop(0);
+		}
+
+		// Record the size and latency of each request
+		for (RecordedRequest request : recorder.getRequests()) {
+			System.out.println("FormSyncResourceTester: " + request);
+			assertTrue(request.toString(), request.nanos < 5000000000L);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation returns an Entry of one of the DataComponents of a Form.
+	 *
+	 * @param form
+	 *            The Form.
+	 * @param componentId
+	 *            The id of the DataComponent.
+	 * @param index
+	 *            The index of the Entry.
+	 * @return The Entry.
+	 */
+	private Entry getEntry(Form form, int componentId, int index) {
+		return ((DataComponent) form.getComponent(componentId))
+				.retrieveAllEntries().get(index);
+	}
+
+	/**
+	 * This operation moves the first Component of a Form after the others,
+	 * which cannot be described by a delta.
+	 *
+	 * @param form
+	 *            The Form.
+	 */
+	private void moveFirstComponentToEnd(Form form) {
+		Component first = form.getComponents().get(0);
+		form.removeComponent(first.getId());
+		form.addComponent(first);
+	}
+
+	/**
+	 * This operation opens a GET connection that accepts XML.
+	 *
+	 * @param url
+	 *            The URL.
+	 * @param gzip
+	 *            True if the response may be compressed.
+	 * @return The connection.
+	 */
+	private HttpURLConnection open(String url, boolean gzip)
+			throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) new URL(url)
+				.openConnection();
+		connection.setRequestProperty("Accept", "application/xml");
+		if (gzip) {
+			connection.setRequestProperty("Accept-Encoding", "gzip");
+		}
+		return connection;
+	}
+
+	/**
+	 * This operation reads the raw bytes of a response.
+	 *
+	 * @param connection
+	 *            The connection.
+	 * @return The bytes as they were sent.
+	 */
+	private byte[] read(HttpURLConnection connection) throws IOException {
+
+		// Local Declarations
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		byte[] buffer = new byte[4096];
+		int count;
+
+		if (connection.getResponseCode() == 304) {
+			return new byte[0];
+		}
+		InputStream stream = connection.getInputStream();
+		try {
+			while ((count = stream.read(buffer)) > 0) {
+				bytes.write(buffer, 0, count);
+			}
+		} finally {
+			stream.close();
+		}
+
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * This operation finds a free port for the server.
+	 *
+	 * @return The port.
+	 */
+	private int findFreePort() throws IOException {
+		ServerSocket socket = new ServerSocket(0);
+		try {
+			return socket.getLocalPort();
+		} finally {
+			socket.close();
+		}
+	}
+
+	/**
+	 * This class records a request handled by the embedded server.
+	 */
+	private static class RecordedRequest {
+
+		/**
+		 * The method of the request.
+		 */
+		private String method;
+
+		/**
+		 * The URI of the request.
+		 */
+		private String uri;
+
+		/**
+		 * The conditional headers of the request.
+		 */
+		private final List<String> conditions = new ArrayList<String>();
+
+		/**
+		 * The status of the response.
+		 */
+		private int status;
+
+		/**
+		 * The number of bytes in the body of the response, as sent.
+		 */
+		private long size;
+
+		/**
+		 * The time it took to handle the request, in nanoseconds.
+		 */
+		private long nanos;
+
+		/*
+		 * Overrides a method from Object.
+		 */
+		@Override
+		public String toString() {
+			return method + " " + uri + " " + conditions + " -> " + status
+					+ ", " + size + " bytes, " + (nanos / 1000) + " us";
+		}
+	}
+
+	/**
+	 * This class records the requests handled by the embedded server.
+	 */
+	private static class RecordingFilter extends Filter {
+
+		/**
+		 * The recorded requests, oldest first.
+		 */
+		private final List<RecordedRequest> requests = Collections
+				.synchronizedList(new ArrayList<RecordedRequest>());
+
+		/*
+		 * Implements a method from Filter.
+		 */
+		@Override
+		public void doFilter(HttpExchange exchange, Chain chain)
+				throws IOException {
+
+			// Local Declarations
+			final RecordedRequest request = new RecordedRequest();
+			long start = System.nanoTime();
+
+			request.method = exchange.getRequestMethod();
+			request.uri = exchange.getRequestURI().toString();
+			for (String header : new String[] { "If-Match", "If-None-Match" }) {
+				if (exchange.getRequestHeaders().containsKey(header)) {
+					request.conditions.add(header);
+				}
+			}
+
+			// Count the bytes of the response body
+			exchange.setStreams(null, new FilterOutputStream(
+					exchange.getResponseBody()) {
+				@Override
+				public void write(int b) throws IOException {
+					out.write(b);
+					request.size++;
+				}
+
+				@Override
+				public void write(byte[] b, int off, int len)
+						throws IOException {
+					out.write(b, off, len);
+					request.size += len;
+				}
+			});
+
+			chain.doFilter(exchange);
+			request.nanos = System.nanoTime() - start;
+			request.status = exchange.getResponseCode();
+			requests.add(request);
+		}
+
+		/*
+		 * Implements a method from Filter.
+		 */
+		@Override
+		public String description() {
+			return "Records the requests to the Core";
+		}
+
+		/**
+		 * This operation returns the recorded requests.
+		 *
+		 * @return A copy of the requests, oldest first.
+		 */
+		public List<RecordedRequest> getRequests() {
+			synchronized (requests) {
+				return new ArrayList<RecordedRequest>(requests);
+			}
+		}
+
+		/**
+		 * This operation returns the last recorded request.
+		 *
+		 * @return The request.
+		 */
+		public RecordedRequest getLast() {
+			synchronized (requests) {
+				return requests.get(requests.size() - 1);
+			}
+		}
+
+		/**
+		 * This operation checks the last recorded request.
+		 *
+		 * @param method
+		 *            The expected method.
+		 * @param uri
+		 *            The expected end of the path and start of the query.
+		 * @param condition
+		 *            The expected conditional header, or null if there must
+		 *            not be one.
+		 * @param status
+		 *            The expected status of the response.
+		 */
+		public void checkLast(String method, String uri, String condition,
+				int status) {
+			RecordedRequest request = getLast();
+			String[] expected = uri.split("\\?", 2);
+			String[] actual = request.uri.split("\\?", 2);
+			assertEquals(method, request.method);
+			assertTrue(request.uri, actual[0].endsWith(expected[0]));
+			assertTrue(request.uri, expected.length == 1
+					|| (actual.length == 2 && actual[1].startsWith(expected[1])));
+			assertEquals((condition != null ? Arrays.asList(condition)
+					: new ArrayList<String>()), request.conditions);
+			assertEquals(status, request.status);
+		}
+	}
+}
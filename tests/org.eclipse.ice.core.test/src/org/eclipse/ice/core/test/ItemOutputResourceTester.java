@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.core.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.Arrays;
+
+import javax.ws.rs.core.Response;
+
+import org.eclipse.ice.client.internal.RemoteCoreProxy;
+import org.eclipse.ice.core.internal.Core;
+import org.eclipse.ice.core.internal.ItemOutputResource;
+import org.eclipse.ice.core.internal.itemmanager.ItemManager;
+import org.junit.Test;
+
+import com.sun.jersey.api.container.ContainerFactory;
+import com.sun.jersey.api.container.httpserver.HttpServerFactory;
+import com.sun.jersey.api.core.ApplicationAdapter;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * <p>
+ * This class tests the ItemOutputResource, which publishes the tails of the
+ * output of Items, and the RemoteCoreProxy that reads them. The FakeItem
+ * returns fixed tails for standard output and standard error.
+ * </p>
+ */
+public class ItemOutputResourceTester {
+
+	/**
+	 * This operation checks the tails returned by the resource and by a
+	 * RemoteCoreProxy connected to the Core over HTTP.
+	 */
+	@Test
+	public void checkOutputTail() throws IOException {
+
+		// Local Declarations
+		Core core = new Core(new ItemManager());
+		FakeGeometryBuilder builder = new FakeGeometryBuilder();
+		ItemOutputResource resource = new ItemOutputResource(core);
+		RemoteCoreProxy proxy = new RemoteCoreProxy();
+		HttpServer server;
+		Response response;
+		int itemId, port;
+
+		// Create the Item
+		core.registerItem(builder);
+		itemId = Integer.parseInt(core.createItem(builder.getItemName()));
+
+		// Check the resource
+		response = resource.getOutputTail(itemId, ItemOutputResource.STDOUT);
+		assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+		assertEquals("first line\n\nlast line\n", response.getEntity());
+		response = resource.getOutputTail(itemId, ItemOutputResource.STDERR);
+		assertEquals("error\n", response.getEntity());
+		assertEquals(Response.Status.NOT_FOUND.getStatusCode(), resource
+				.getOutputTail(itemId + 1, ItemOutputResource.STDOUT)
+				.getStatus());
+
+		// Publish the Core and check the proxy
+		port = findFreePort();
+		server = HttpServerFactory.create("http://localhost:" + port + "/ice",
+				ContainerFactory.createContainer(HttpHandler.class,
+						new ApplicationAdapter(core)));
+		server.start();
+		try {
+			proxy.setHost("localhost");
+			proxy.setPort(port);
+			proxy.connect();
+			assertEquals(Arrays.asList("first line", "", "last line"),
+					proxy.getItemOutputTail(itemId, false));
+			assertEquals(Arrays.asList("error"),
+					proxy.getItemOutputTail(itemId, true));
+			assertNull(proxy.getItemOutputTail(itemId + 1, false));
+		} finally {
+			server.stop(0);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation finds a free port for the server.
+	 *
+	 * @return The port.
+	 */
+	private int findFreePort() throws IOException {
+		ServerSocket socket = new ServerSocket(0);
+		try {
+			return socket.getLocalPort();
+		} finally {
+			socket.close();
+		}
+	}
+}
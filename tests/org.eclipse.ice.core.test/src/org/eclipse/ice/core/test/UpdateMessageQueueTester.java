@@ -0,0 +1,290 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.core.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.ice.core.internal.UpdateMessageQueue;
+import org.eclipse.ice.core.internal.itemmanager.ItemManager;
+import org.eclipse.ice.item.messaging.Message;
+import org.junit.Test;
+
+/**
+ * This class tests the UpdateMessageQueue, which delivers update messages to
+ * Items asynchronously.
+ */
+public class UpdateMessageQueueTester {
+
+	/**
+	 * An ItemManager that records the ids of the messages delivered to each
+	 * Item instead of updating real Items. Deliveries wait until its gate is
+	 * opened. Items with negative ids do not exist.
+	 */
+	private class RecordingItemManager extends ItemManager {
+
+		/**
+		 * The gate that must be opened before messages are delivered.
+		 */
+		private final CountDownLatch gate = new CountDownLatch(1);
+
+		/**
+		 * Counted down when the first delivery starts.
+		 */
+		private final CountDownLatch started = new CountDownLatch(1);
+
+		/**
+		 * The ids of the delivered messages, keyed on the Item id.
+		 */
+		private final Map<Integer, List<Integer>> messageIds = new HashMap<Integer, List<Integer>>();
+
+		/**
+		 * The size of each delivered batch.
+		 */
+		private final List<Integer> batchSizes = new ArrayList<Integer>();
+
+		@Override
+		public int postUpdateMessages(int itemId, List<Message> messages) {
+
+			// Wait for the gate
+			started.countDown();
+			try {
+				gate.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+
+			// Record the messages
+			synchronized (this) {
+				List<Integer> ids = messageIds.get(itemId);
+				if (ids == null) {
+					ids = new ArrayList<Integer>();
+					messageIds.put(itemId, ids);
+				}
+				for (Message msg : messages) {
+					ids.add(msg.getId());
+				}
+				batchSizes.add(messages.size());
+			}
+
+			return (itemId >= 0 ? messages.size() : 0);
+		}
+	}
+
+	/**
+	 * This operation creates a message.
+	 *
+	 * @param itemId
+	 *            The id of the Item that should receive the message.
+	 * @param id
+	 *            The id of the message.
+	 * @return The message.
+	 */
+	private Message createMessage(int itemId, int id) {
+		Message msg = new Message();
+		msg.setItemId(itemId);
+		msg.setId(id);
+		msg.setType("FILE_MODIFIED");
+		msg.setMessage("/tmp/file");
+		return msg;
+	}
+
+	/**
+	 * This operation checks that messages are delivered in order for each
+	 * Item, in batches no larger than the batch size, and that the counters
+	 * are updated.
+	 */
+	@Test
+	public void checkDelivery() {
+
+		// Local Declarations
+		RecordingItemManager manager = new RecordingItemManager();
+		UpdateMessageQueue queue = new UpdateMessageQueue(manager, 100, 10,
+				1000);
+		List<Message> messages = new ArrayList<Message>();
+
+		// Post messages for two Items and one that does not exist while the
+		// deliveries are held back.
+		for (int i = 0; i < 50; i++) {
+			assertTrue(queue.post(createMessage(1, i)));
+			messages.add(createMessage(2, i));
+		}
+		assertEquals(50, queue.post(messages));
+		for (int i = 0; i < 5; i++) {
+			assertTrue(queue.post(createMessage(-1, i)));
+		}
+		assertFalse(queue.post((Message) null));
+		assertEquals(105, queue.getReceivedCount());
+		assertTrue(queue.getQueueDepth() > 0);
+
+		// Deliver the messages
+		manager.gate.countDown();
+		assertTrue(queue.flush(5000));
+		assertEquals(0, queue.getQueueDepth());
+		assertEquals(0, queue.getQueueDepth(1));
+		assertEquals(100, queue.getDeliveredCount());
+		assertEquals(5, queue.getFailedCount());
+		assertEquals(0, queue.getRejectedCount());
+
+		// Each Item's messages should be in order.
+		for (int itemId = 1; itemId <= 2; itemId++) {
+			List<Integer> ids = manager.messageIds.get(itemId);
+			assertEquals(50, ids.size());
+			for (int i = 0; i < 50; i++) {
+				assertEquals(i, ids.get(i).intValue());
+			}
+		}
+
+		// The batches should be no larger than the batch size.
+		assertTrue(queue.getBatchCount() >= 11);
+		assertEquals(queue.getBatchCount(), manager.batchSizes.size());
+		for (int size : manager.batchSizes) {
+			assertTrue(size > 0 && size <= 10);
+		}
+
+		queue.stop(1000);
+
+		return;
+	}
+
+	/**
+	 * This operation checks that posts to a full queue wait for space and are
+	 * rejected when the timeout expires.
+	 */
+	@Test
+	public void checkBackpressure() throws InterruptedException {
+
+		// Local Declarations
+		final RecordingItemManager manager = new RecordingItemManager();
+		UpdateMessageQueue queue = new UpdateMessageQueue(manager, 2, 1, 0);
+		UpdateMessageQueue waitingQueue;
+
+		// Post a message and wait until its delivery is held at the gate.
+		// The queue is then empty.
+		assertTrue(queue.post(createMessage(1, 0)));
+		assertTrue(manager.started.await(5, TimeUnit.SECONDS));
+
+		// Fill the queue. Without a timeout, the next post is rejected.
+		assertTrue(queue.post(createMessage(1, 1)));
+		assertTrue(queue.post(createMessage(1, 2)));
+		assertEquals(2, queue.getQueueDepth(1));
+		assertFalse(queue.post(createMessage(1, 3)));
+		assertEquals(1, queue.getRejectedCount());
+		assertEquals(3, queue.getReceivedCount());
+
+		// Another Item has its own queue.
+		assertTrue(queue.post(createMessage(2, 0)));
+
+		// With a timeout, the post waits for the queue to drain. Open the gate
+		// from another thread after a short delay.
+		waitingQueue = new UpdateMessageQueue(manager, 1, 1, 5000);
+		assertTrue(waitingQueue.post(createMessage(3, 0)));
+		assertTrue(waitingQueue.post(createMessage(3, 1)));
+		Thread opener = new Thread() {
+			@Override
+			public void run() {
+				try {
+					Thread.sleep(100);
+				} catch (InterruptedException e) {
+					return;
+				}
+				manager.gate.countDown();
+			}
+		};
+		opener.start();
+		assertTrue(waitingQueue.post(createMessage(3, 2)));
+		assertEquals(0, waitingQueue.getRejectedCount());
+
+		// Everything that was accepted is delivered.
+		assertTrue(queue.flush(5000));
+		assertTrue(waitingQueue.flush(5000));
+		assertEquals(4, queue.getDeliveredCount());
+		assertEquals(3, waitingQueue.getDeliveredCount());
+		assertEquals(3, manager.messageIds.get(3).size());
+
+		queue.stop(1000);
+		waitingQueue.stop(1000);
+
+		return;
+	}
+
+	/**
+	 * This operation checks that messages are still delivered after an Item
+	 * throws an Error.
+	 */
+	@Test
+	public void checkErrors() {
+
+		// Local Declarations
+		ItemManager manager = new ItemManager() {
+			@Override
+			public int postUpdateMessages(int itemId, List<Message> messages) {
+				if (messages.get(0).getId() == 0) {
+					throw new Error("UpdateMessageQueueTester error!");
+				}
+				return messages.size();
+			}
+		};
+		UpdateMessageQueue queue = new UpdateMessageQueue(manager, 10, 1, 0);
+
+		// The first message fails and the second is delivered afterward.
+		assertTrue(queue.post(createMessage(1, 0)));
+		assertTrue(queue.post(createMessage(1, 1)));
+		assertTrue(queue.flush(5000));
+		assertEquals(1, queue.getFailedCount());
+		assertEquals(1, queue.getDeliveredCount());
+		assertEquals(2, queue.getBatchCount());
+
+		// The drained queue can be used again.
+		assertTrue(queue.post(createMessage(1, 2)));
+		assertTrue(queue.flush(5000));
+		assertEquals(2, queue.getDeliveredCount());
+		assertEquals(0, queue.getQueueDepth(1));
+
+		queue.stop(1000);
+
+		return;
+	}
+
+	/**
+	 * This operation checks that a stopped queue delivers the messages it
+	 * already has and rejects new ones.
+	 */
+	@Test
+	public void checkStop() {
+
+		// Local Declarations
+		RecordingItemManager manager = new RecordingItemManager();
+		UpdateMessageQueue queue = new UpdateMessageQueue(manager);
+
+		manager.gate.countDown();
+		assertTrue(queue.post(createMessage(1, 0)));
+		queue.stop(5000);
+		assertEquals(1, queue.getDeliveredCount());
+
+		// New messages are rejected.
+		assertFalse(queue.post(createMessage(1, 1)));
+		assertEquals(1, queue.getRejectedCount());
+		assertEquals(0, queue.getQueueDepth());
+
+		return;
+	}
+}
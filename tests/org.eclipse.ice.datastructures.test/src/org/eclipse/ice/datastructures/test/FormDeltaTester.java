@@ -0,0 +1,250 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.datastructures.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+
+import javax.xml.bind.JAXBException;
+
+import org.eclipse.ice.datastructures.ICEObject.ICEJAXBHandler;
+import org.eclipse.ice.datastructures.form.DataComponent;
+import org.eclipse.ice.datastructures.form.Entry;
+import org.eclipse.ice.datastructures.form.Form;
+import org.eclipse.ice.datastructures.form.FormDelta;
+import org.eclipse.ice.datastructures.form.ResourceComponent;
+import org.eclipse.ice.datastructures.jaxbclassprovider.ICEJAXBClassProvider;
+import org.junit.Test;
+
+/**
+ * <p>
+ * The FormDeltaTester is responsible for testing the FormDelta class.
+ * </p>
+ */
+public class FormDeltaTester {
+
+	/**
+	 * This operation creates a Form with two DataComponents of three Entries
+	 * and a ResourceComponent.
+	 *
+	 * @return The Form.
+	 */
+	private Form createForm() {
+
+		// Local Declarations
+		Form form = new Form();
+		form.setItemID(7);
+		form.setName("Delta Form");
+
+		for (int i = 1; i <= 2; i++) {
+			DataComponent component = new DataComponent();
+			component.setId(i);
+			component.setName("Data " + i);
+			for (int j = 0; j < 3; j++) {
+				Entry entry = new Entry();
+				entry.setId(j);
+				entry.setName("Entry " + j);
+				entry.setValue(String.valueOf(j));
+				component.addEntry(entry);
+			}
+			form.addComponent(component);
+		}
+		ResourceComponent resources = new ResourceComponent();
+		resources.setId(3);
+		resources.setName("Resources");
+		form.addComponent(resources);
+
+		return form;
+	}
+
+	/**
+	 * This operation checks that changed Entry values are sent as values and
+	 * that added, changed and removed Components are sent as Components.
+	 */
+	@Test
+	public void checkCreateAndApply() {
+
+		// Local Declarations
+		Form base = createForm();
+		Form current = (Form) base.clone();
+		Form result;
+		FormDelta delta;
+		DataComponent added = new DataComponent();
+
+		// An unchanged Form has an empty delta
+		delta = FormDelta.create(base, current);
+		assertNotNull(delta);
+		assertTrue(delta.isEmpty());
+		assertNull(FormDelta.create(null, current));
+
+		// Change two values, rename the ResourceComponent, remove the second
+		// DataComponent and add a new one at the end.
+		DataComponent data = (DataComponent) current.getComponent(1);
+		data.retrieveAllEntries().get(0).setValue("zero");
+		data.retrieveAllEntries().get(2).setValue("two");
+		current.getComponent(3).setName("Output");
+		current.removeComponent(2);
+		added.setId(4);
+		added.setName("Added");
+		current.addComponent(added);
+
+		delta = FormDelta.create(base, current);
+		assertNotNull(delta);
+		assertEquals(7, delta.getItemId());
+		assertEquals(2, delta.getEntryValues().size());
+		assertEquals(1, delta.getEntryValues().get(0).getComponentId());
+		assertEquals(0, delta.getEntryValues().get(0).getIndex());
+		assertEquals("zero", delta.getEntryValues().get(0).getValue());
+		assertEquals(2, delta.getEntryValues().get(1).getIndex());
+		assertEquals(2, delta.getComponents().size());
+		assertEquals(3, delta.getComponents().get(0).getId());
+		assertEquals(4, delta.getComponents().get(1).getId());
+		assertEquals(1, delta.getRemovedComponents().size());
+		assertEquals(2, delta.getRemovedComponents().get(0).intValue());
+
+		// Applying the delta to the base reproduces the current Form,
+		// including the Entry values that Form.equals() does not compare.
+		result = (Form) base.clone();
+		assertFalse(FormDelta.contentEquals(base, current));
+		assertTrue(delta.apply(result));
+		assertTrue(FormDelta.contentEquals(current, result));
+		assertEquals(current, result);
+		assertEquals(result, current);
+		assertEquals(3, result.getNumberOfComponents());
+		assertEquals(3, result.getComponents().get(1).getId());
+
+		// It cannot be applied twice
+		assertFalse(delta.apply(result));
+
+		return;
+	}
+
+	/**
+	 * This operation checks that changes that cannot be described by a delta
+	 * return null.
+	 */
+	@Test
+	public void checkUnsupportedChanges() {
+
+		// Local Declarations
+		Form base = createForm();
+		Form current = (Form) base.clone();
+
+		// Changes to the Form itself must be sent whole
+		current.setName("Renamed");
+		assertNull(FormDelta.create(base, current));
+
+		// A change to the ready flag is sent with the delta
+		current = (Form) base.clone();
+		current.markReady(!base.isReady());
+		assertEquals(!base.isReady(), FormDelta.create(base, current)
+				.getReady().booleanValue());
+
+		// Reordered Components must be sent whole
+		current = (Form) base.clone();
+		current.getComponents().add(current.getComponents().remove(0));
+		assertNull(FormDelta.create(base, current));
+
+		// A DataComponent with a new Entry is sent whole
+		current = (Form) base.clone();
+		((DataComponent) current.getComponent(2)).addEntry(new Entry());
+		FormDelta delta = FormDelta.create(base, current);
+		assertNotNull(delta);
+		assertEquals(0, delta.getEntryValues().size());
+		assertEquals(1, delta.getComponents().size());
+
+		return;
+	}
+
+	/**
+	 * This operation checks that changed values are found even if their hash
+	 * codes are the same.
+	 */
+	@Test
+	public void checkCollidingValues() {
+
+		// Local Declarations
+		Form base = createForm();
+		Form current;
+		FormDelta delta;
+
+		// "Aa" and "BB" have the same String hash code
+		((DataComponent) base.getComponent(1)).retrieveAllEntries().get(0)
+				.setValue("Aa");
+		current = (Form) base.clone();
+		((DataComponent) current.getComponent(1)).retrieveAllEntries().get(0)
+				.setValue("BB");
+		assertEquals(base.hashCode(), current.hashCode());
+		assertFalse(FormDelta.contentEquals(base, current));
+
+		// The delta holds the new value
+		delta = FormDelta.create(base, current);
+		assertNotNull(delta);
+		assertEquals(1, delta.getEntryValues().size());
+		assertEquals("BB", delta.getEntryValues().get(0).getValue());
+		assertTrue(delta.apply(base));
+		assertTrue(FormDelta.contentEquals(base, current));
+
+		return;
+	}
+
+	/**
+	 * This operation checks that a delta can be written to and read from XML.
+	 */
+	@Test
+	public void checkPersistence() throws NullPointerException,
+			JAXBException, IOException {
+
+		// Local Declarations
+		ICEJAXBHandler xmlHandler = new ICEJAXBHandler();
+		ArrayList<Class> classList = new ArrayList<Class>();
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		Form base = createForm();
+		Form current = (Form) base.clone();
+		FormDelta delta;
+		FormDelta loadedDelta;
+
+		((DataComponent) current.getComponent(2)).retrieveAllEntries().get(1)
+				.setValue("one");
+		current.getComponent(3).setName("Output");
+		delta = FormDelta.create(base, current);
+		delta.setBaseVersion("1");
+		delta.setVersion("2");
+
+		// Write and read the delta
+		classList.add(FormDelta.class);
+		classList.addAll(new ICEJAXBClassProvider().getClasses());
+		xmlHandler.write(delta, classList, outputStream);
+		loadedDelta = (FormDelta) xmlHandler.read(classList,
+				new ByteArrayInputStream(outputStream.toByteArray()));
+
+		// Check it
+		assertEquals("1", loadedDelta.getBaseVersion());
+		assertEquals("2", loadedDelta.getVersion());
+		assertEquals(1, loadedDelta.getEntryValues().size());
+		assertEquals("one", loadedDelta.getEntryValues().get(0).getValue());
+		assertEquals(1, loadedDelta.getComponents().size());
+		assertTrue(loadedDelta.apply(base));
+		assertEquals(current, base);
+
+		return;
+	}
+}
@@ -572,6 +572,29 @@ public class ICEResourceTester {
 
 	}
 
+	/**
+	 * <p>
+	 * This operation checks that the listeners of an ICEResource are notified
+	 * when its contents change.
+	 * </p>
+	 * 
+	 */
+	@Test
+	public void checkContentsChanged() throws IOException {
+
+		// Local Declarations
+		ICEResource resource = new ICEResource(new File(
+				"ICEResourceTestFile.testFile"));
+		TestComponentListener listener = new TestComponentListener();
+
+		// Register the listener and change the contents
+		resource.register(listener);
+		resource.contentsChanged();
+		assertTrue(listener.wasNotified());
+
+		return;
+	}
+
 	/**
 	 * <p>
 	 * An operation that checks the isPictureType and setPictureType operations.
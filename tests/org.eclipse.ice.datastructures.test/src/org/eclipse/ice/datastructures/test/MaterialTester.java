@@ -204,6 +204,51 @@ public class MaterialTester {
 		assertEquals(material, materialClone);
 	}
 
+	/**
+	 * This operation checks that the derived properties are only computed
+	 * again when their inputs change.
+	 */
+	@Test
+	public void checkDerivedProperties() {
+
+		// Local Declarations
+		Material water = new Material();
+		Material hydrogen = new Material();
+		Material oxygen = new Material();
+		MaterialStack hydrogenStack;
+
+		// Create water from its elements
+		water.setName("H2O");
+		water.setProperty(Material.DENSITY, 1.0);
+		hydrogen.setName("H");
+		hydrogen.setProperty(Material.ATOMIC_MASS, 1.0);
+		oxygen.setName("O");
+		oxygen.setProperty(Material.ATOMIC_MASS, 16.0);
+		hydrogenStack = new MaterialStack(hydrogen, 2);
+		water.addComponent(hydrogenStack);
+		water.addComponent(oxygen);
+		water.updateProperties();
+		assertEquals(18.0, water.getProperty(Material.ATOMIC_MASS), 0.0);
+
+		// Setting a property clears the cache, so a derived value set by hand
+		// is computed again.
+		water.updateProperties();
+		assertEquals(18.0, water.getProperty(Material.ATOMIC_MASS), 0.0);
+		water.setProperty(Material.ATOMIC_MASS, 0.0);
+		water.updateProperties();
+		assertEquals(18.0, water.getProperty(Material.ATOMIC_MASS), 0.0);
+
+		// Changes to the components are picked up
+		hydrogenStack.setAmount(4);
+		water.updateProperties();
+		assertEquals(20.0, water.getProperty(Material.ATOMIC_MASS), 0.0);
+		oxygen.setProperty(Material.ATOMIC_MASS, 18.0);
+		water.updateProperties();
+		assertEquals(22.0, water.getProperty(Material.ATOMIC_MASS), 0.0);
+
+		return;
+	}
+
 	/**
 	 * This operation checks that the Material class can be loaded and written
 	 * with JAXB.
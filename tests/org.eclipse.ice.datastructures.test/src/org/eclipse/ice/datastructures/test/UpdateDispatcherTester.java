@@ -0,0 +1,306 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.datastructures.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.ice.datastructures.ICEObject.ICEObject;
+import org.eclipse.ice.datastructures.ICEObject.IUpdateable;
+import org.eclipse.ice.datastructures.ICEObject.IUpdateableListener;
+import org.eclipse.ice.datastructures.ICEObject.UpdateDispatcher;
+import org.eclipse.ice.datastructures.form.DataComponent;
+import org.eclipse.ice.datastructures.form.Entry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * <p>
+ * This class is responsible for testing the UpdateDispatcher. It checks that
+ * updates are coalesced and delivered in order, that batches produce a single
+ * notification and that populating a large form does not create a thread per
+ * update.
+ * </p>
+ */
+public class UpdateDispatcherTester {
+
+	/**
+	 * The dispatcher under test. It uses a long window so that coalescing is
+	 * deterministic.
+	 */
+	private UpdateDispatcher dispatcher;
+
+	/**
+	 * Creates the dispatcher for each test.
+	 */
+	@Before
+	public void setUp() {
+		dispatcher = new UpdateDispatcher(2, 50);
+	}
+
+	/**
+	 * Stops the dispatcher after each test.
+	 */
+	@After
+	public void tearDown() {
+		dispatcher.shutdown();
+	}
+
+	/**
+	 * This operation checks that many updates posted by one source within the
+	 * window result in a single notification.
+	 *
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void checkCoalescing() throws InterruptedException {
+
+		// Local Declarations
+		ICEObject source = new ICEObject();
+		CountingListener listener = new CountingListener();
+		ArrayList<IUpdateableListener> listeners = new ArrayList<IUpdateableListener>();
+		listeners.add(listener);
+
+		// Post a burst of updates and wait for them to be delivered
+		for (int i = 0; i < 1000; i++) {
+			dispatcher.post(source, listeners);
+		}
+		assertTrue(dispatcher.waitUntilIdle(5000));
+
+		// The burst should be merged into one notification
+		assertEquals(1, listener.count.get());
+		assertTrue(listener.lastSource == source);
+
+		// A later update is delivered separately
+		dispatcher.post(source, listeners);
+		assertTrue(dispatcher.waitUntilIdle(5000));
+		assertEquals(2, listener.count.get());
+
+		return;
+	}
+
+	/**
+	 * This operation checks that updates from one source are never delivered
+	 * concurrently or out of order and that the last update is always seen.
+	 *
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void checkOrdering() throws InterruptedException {
+
+		// Local Declarations
+		final AtomicInteger state = new AtomicInteger();
+		final AtomicInteger active = new AtomicInteger();
+		final ArrayList<Integer> seen = new ArrayList<Integer>();
+		final ArrayList<Boolean> overlaps = new ArrayList<Boolean>();
+		ICEObject source = new ICEObject();
+		ArrayList<IUpdateableListener> listeners = new ArrayList<IUpdateableListener>();
+
+		// The listener records the state it sees and whether another
+		// notification for the same source was running at the same time.
+		listeners.add(new IUpdateableListener() {
+			@Override
+			public void update(IUpdateable component) {
+				overlaps.add(active.incrementAndGet() > 1);
+				seen.add(state.get());
+				try {
+					Thread.sleep(10);
+				} catch (InterruptedException e) {
+					// Nothing to do
+				}
+				active.decrementAndGet();
+			}
+		});
+
+		// Change the state and post updates over several windows
+		for (int i = 1; i <= 200; i++) {
+			state.set(i);
+			dispatcher.post(source, listeners);
+			if (i % 20 == 0) {
+				Thread.sleep(30);
+			}
+		}
+		assertTrue(dispatcher.waitUntilIdle(5000));
+
+		// The states must be non-decreasing and end with the final state
+		assertTrue(!seen.isEmpty());
+		assertTrue(seen.size() < 200);
+		for (int i = 1; i < seen.size(); i++) {
+			assertTrue(seen.get(i) >= seen.get(i - 1));
+		}
+		assertEquals(200, seen.get(seen.size() - 1).intValue());
+		assertTrue(!overlaps.contains(Boolean.TRUE));
+
+		return;
+	}
+
+	/**
+	 * This operation checks that a batch holds its updates until it is closed
+	 * and then notifies each source once.
+	 *
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void checkBatch() throws InterruptedException {
+
+		// Local Declarations
+		ICEObject source1 = new ICEObject();
+		ICEObject source2 = new ICEObject();
+		CountingListener listener1 = new CountingListener();
+		CountingListener listener2 = new CountingListener();
+		ArrayList<IUpdateableListener> listeners1 = new ArrayList<IUpdateableListener>();
+		ArrayList<IUpdateableListener> listeners2 = new ArrayList<IUpdateableListener>();
+		listeners1.add(listener1);
+		listeners2.add(listener2);
+
+		// Post updates inside of nested batches
+		dispatcher.beginBatch();
+		dispatcher.beginBatch();
+		for (int i = 0; i < 100; i++) {
+			dispatcher.post(source1, listeners1);
+			dispatcher.post(source2, listeners2);
+		}
+		dispatcher.endBatch();
+
+		// Nothing should be delivered until the outer batch closes
+		assertTrue(dispatcher.waitUntilIdle(5000));
+		assertEquals(0, listener1.count.get());
+		assertEquals(0, listener2.count.get());
+		dispatcher.endBatch();
+
+		// Each source should be notified once
+		assertTrue(dispatcher.waitUntilIdle(5000));
+		assertEquals(1, listener1.count.get());
+		assertEquals(1, listener2.count.get());
+
+		// Closing a batch that is not open does nothing
+		dispatcher.endBatch();
+
+		return;
+	}
+
+	/**
+	 * This operation checks that a source is not stuck after one of its
+	 * listeners throws an Error.
+	 *
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void checkErrors() throws InterruptedException {
+
+		// Local Declarations
+		final AtomicInteger count = new AtomicInteger();
+		ICEObject source = new ICEObject();
+		ArrayList<IUpdateableListener> listeners = new ArrayList<IUpdateableListener>();
+
+		// The listener fails the first time it is notified
+		listeners.add(new IUpdateableListener() {
+			@Override
+			public void update(IUpdateable component) {
+				if (count.incrementAndGet() == 1) {
+					throw new Error("UpdateDispatcherTester error!");
+				}
+			}
+		});
+
+		// The dispatcher must become idle and deliver later updates
+		dispatcher.post(source, listeners);
+		assertTrue(dispatcher.waitUntilIdle(5000));
+		assertEquals(1, count.get());
+		dispatcher.post(source, listeners);
+		assertTrue(dispatcher.waitUntilIdle(5000));
+		assertEquals(2, count.get());
+
+		return;
+	}
+
+	/**
+	 * This operation populates a DataComponent with 100,000 Entries using the
+	 * default dispatcher and checks the number of threads that were started
+	 * and the wall time. Before the dispatcher, every Entry started its own
+	 * notification thread.
+	 *
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void checkLargeFormStress() throws InterruptedException {
+
+		// Local Declarations
+		int numEntries = 100000;
+		ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		DataComponent component = new DataComponent();
+		TestComponentListener listener = new TestComponentListener();
+		component.register(listener);
+
+		// Record the thread statistics before the form is populated
+		long startedBefore = threadBean.getTotalStartedThreadCount();
+		int liveBefore = threadBean.getThreadCount();
+		threadBean.resetPeakThreadCount();
+		long start = System.nanoTime();
+
+		// Populate the form
+		for (int i = 0; i < numEntries; i++) {
+			component.addEntry(new Entry());
+		}
+		assertTrue(UpdateDispatcher.getDefault().waitUntilIdle(10000));
+
+		// Gather the statistics
+		long wallTime = (System.nanoTime() - start) / 1000000;
+		long started = threadBean.getTotalStartedThreadCount() - startedBefore;
+		int peak = threadBean.getPeakThreadCount() - liveBefore;
+
+		// The listener must have been notified, but only the dispatcher's
+		// small pool of threads may have been started.
+		assertTrue(listener.wasNotified());
+		assertEquals(numEntries, component.retrieveAllEntries().size());
+		assertTrue(started < 50);
+		assertTrue(peak < 50);
+
+		// The wall time bound is generous so that slow build machines pass.
+		assertTrue("Adding " + numEntries + " entries took " + wallTime
+				+ " ms.", wallTime < 10000);
+
+		return;
+	}
+
+	/**
+	 * A listener that counts its notifications.
+	 */
+	private static class CountingListener implements IUpdateableListener {
+
+		/**
+		 * The number of notifications received.
+		 */
+		private final AtomicInteger count = new AtomicInteger();
+
+		/**
+		 * The last source that was received.
+		 */
+		private volatile IUpdateable lastSource;
+
+		/*
+		 * Implements a method from IUpdateableListener.
+		 */
+		@Override
+		public void update(IUpdateable component) {
+			lastSource = component;
+			count.incrementAndGet();
+		}
+	}
+}
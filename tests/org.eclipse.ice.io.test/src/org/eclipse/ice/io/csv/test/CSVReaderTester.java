@@ -16,6 +16,7 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.IOException;
+import java.util.ArrayList;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
@@ -28,8 +29,10 @@ import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.ice.datastructures.ICEObject.ListComponent;
+import org.eclipse.ice.datastructures.form.Entry;
 import org.eclipse.ice.datastructures.form.Form;
 import org.eclipse.ice.io.csv.CSVReader;
+import org.eclipse.ice.io.csv.CSVTable;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
@@ -132,7 +135,19 @@ public class CSVReaderTester {
 		assertEquals("4.7498147887E-11",line[1]);
 		assertEquals("1.9976998807E-12",line[2]);
 		assertEquals("1.0000000000E+02",line[3]);
-		
+
+		// Check the table, which should have the same values by column
+		assertTrue(form.getComponent(CSVReader.tableId) instanceof CSVTable);
+		CSVTable table = (CSVTable) form.getComponent(CSVReader.tableId);
+		assertEquals(175, table.getNumberOfRows());
+		assertEquals(4, table.getNumberOfColumns());
+		assertEquals(CSVTable.ColumnType.DOUBLE, table.getColumnType(0));
+		assertEquals(0.00740898494001999, table.getDouble(0, 0), 0.0);
+		assertEquals(4.25, table.getDouble(0, 1), 0.0);
+		assertTrue(Double.isNaN(table.getDouble(0, 3)));
+		assertEquals(2.07e-06, table.getDouble(174, 0), 0.0);
+		assertEquals(100.0, table.getDouble(174, 3), 0.0);
+
 		return;
 	}
 
@@ -141,9 +156,23 @@ public class CSVReaderTester {
 	 * {@link org.eclipse.ice.io.csv.CSVReader#findAll(org.eclipse.core.resources.IFile, java.lang.String)}
 	 * .
 	 */
-//	@Test
+	@Test
 	public void testFindAll() {
-		fail("Not yet implemented");
+
+		// Find the value in the second column of the first row
+		ArrayList<Entry> entries = reader.findAll(testFile, "4\\.25");
+		assertTrue(entries.size() > 0);
+		Entry entry = entries.get(0);
+		assertEquals("Column 2", entry.getName());
+		assertEquals(0, entry.getId());
+		assertEquals("4.25", entry.getValue());
+		assertEquals("4\\.25", entry.getDescription());
+
+		// Nothing should match text that is not in the file
+		entries = reader.findAll(testFile, "not in the file");
+		assertEquals(0, entries.size());
+
+		return;
 	}
 
 	/**
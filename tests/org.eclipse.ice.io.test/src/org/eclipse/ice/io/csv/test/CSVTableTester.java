@@ -0,0 +1,215 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.io.csv.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+import org.eclipse.ice.io.csv.CSVReader;
+import org.eclipse.ice.io.csv.CSVTable;
+import org.eclipse.ice.io.csv.CSVTable.ColumnType;
+import org.junit.Test;
+
+/**
+ * This class tests the {@link CSVTable}s read by
+ * {@link CSVReader#readTable(java.io.InputStream)}.
+ *
+ */
+public class CSVTableTester {
+
+	/**
+	 * This operation reads a table from text.
+	 *
+	 * @param text
+	 *            The contents of the CSV file.
+	 * @return The table.
+	 * @throws IOException
+	 */
+	private CSVTable readTable(String text) throws IOException {
+		return new CSVReader().readTable(new ByteArrayInputStream(text
+				.getBytes(Charset.forName("UTF-8"))));
+	}
+
+	/**
+	 * This operation checks that the type of each column is found from its
+	 * values and that the values are stored correctly.
+	 *
+	 * @throws IOException
+	 */
+	@Test
+	public void checkTypes() throws IOException {
+
+		// Read a table with a header, a comment and each type of column
+		CSVTable table = readTable("# Comment\n" + "step, time, name\n"
+				+ "1, 0.5, alpha\n" + "2, 1.5e1, beta # inline comment\n"
+				+ "\n" + "-3, 7, alpha\n");
+
+		// Check the header
+		assertTrue(table.hasHeader());
+		assertEquals(3, table.getNumberOfRows());
+		assertEquals(3, table.getNumberOfColumns());
+		assertEquals("step", table.getColumnName(0));
+		assertEquals("time", table.getColumnName(1));
+		assertEquals("name", table.getColumnName(2));
+
+		// Check the types and values
+		assertEquals(ColumnType.LONG, table.getColumnType(0));
+		assertEquals(ColumnType.DOUBLE, table.getColumnType(1));
+		assertEquals(ColumnType.STRING, table.getColumnType(2));
+		assertEquals(-3L, table.getLong(2, 0));
+		assertEquals(2.0, table.getDouble(1, 0), 0.0);
+		assertEquals(15.0, table.getDouble(1, 1), 0.0);
+		assertEquals(7.0, table.getDouble(2, 1), 0.0);
+		assertEquals("beta", table.getString(1, 2));
+
+		// Equal Strings should share a code in the dictionary
+		assertEquals(2, table.getDictionarySize());
+		assertEquals(table.getStringCode(0, 2), table.getStringCode(2, 2));
+		assertFalse(table.getStringCode(0, 2) == table.getStringCode(1, 2));
+
+		// Text is not a number
+		try {
+			table.getDouble(0, 2);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// Expected
+		}
+
+		// Missing values should make a column of doubles with NaNs
+		table = readTable("1, 2\n3\n4, 5\n");
+		assertFalse(table.hasHeader());
+		assertNull(table.getColumnName(0));
+		assertEquals(ColumnType.LONG, table.getColumnType(0));
+		assertEquals(ColumnType.DOUBLE, table.getColumnType(1));
+		assertTrue(Double.isNaN(table.getDouble(1, 1)));
+		assertEquals("", table.getString(1, 1));
+		assertEquals(5.0, table.getDouble(2, 1), 0.0);
+
+		return;
+	}
+
+	/**
+	 * This operation checks that quoted cells may hold commas, quotes, comment
+	 * characters and newlines.
+	 *
+	 * @throws IOException
+	 */
+	@Test
+	public void checkQuotes() throws IOException {
+
+		// Read a table with quoted cells
+		CSVTable table = readTable("id,text\n" + "1,\"a, b\"\n"
+				+ "2,\"say \"\"hi\"\"\"\n" + "3,\"# not a comment\"\n"
+				+ "4,\"two\nlines\"\n");
+
+		// Check the values
+		assertEquals(4, table.getNumberOfRows());
+		assertEquals(ColumnType.STRING, table.getColumnType(1));
+		assertEquals("a, b", table.getString(0, 1));
+		assertEquals("say \"hi\"", table.getString(1, 1));
+		assertEquals("# not a comment", table.getString(2, 1));
+		assertEquals("two\nlines", table.getString(3, 1));
+		assertEquals(4L, table.getLong(3, 0));
+
+		return;
+	}
+
+	/**
+	 * This operation checks that a file large enough to be parsed in several
+	 * chunks gives the same table as parsing it line by line.
+	 *
+	 * @throws IOException
+	 */
+	@Test
+	public void checkChunks() throws IOException {
+
+		// Local Declarations
+		int numRows = 200000;
+		StringBuilder builder = new StringBuilder("index,value,label\n");
+		String[] labels = { "low", "medium", "high" };
+
+		// Write a file of several megabytes. Quoted labels with newlines make
+		// sure that chunks are not split inside of quotes.
+		for (int i = 0; i < numRows; i++) {
+			builder.append(i).append(',').append(i * 0.25).append(',');
+			if (i % 1000 == 0) {
+				builder.append("\"row\n").append(i).append('"');
+			} else {
+				builder.append(labels[i % 3]);
+			}
+			builder.append('\n');
+		}
+		CSVTable table = readTable(builder.toString());
+
+		// Check every row
+		assertEquals(numRows, table.getNumberOfRows());
+		assertEquals(ColumnType.LONG, table.getColumnType(0));
+		assertEquals(ColumnType.DOUBLE, table.getColumnType(1));
+		assertEquals(ColumnType.STRING, table.getColumnType(2));
+		long[] indices = table.getLongColumn(0);
+		double[] values = table.getDoubleColumn(1);
+		for (int i = 0; i < numRows; i++) {
+			assertEquals(i, indices[i]);
+			assertEquals(i * 0.25, values[i], 0.0);
+			if (i % 1000 == 0) {
+				assertEquals("row\n" + i, table.getString(i, 2));
+			} else {
+				assertEquals(labels[i % 3], table.getString(i, 2));
+			}
+		}
+		// The dictionary should be shared by all of the chunks
+		assertEquals(3 + numRows / 1000, table.getDictionarySize());
+
+		return;
+	}
+
+	/**
+	 * This operation checks that tables can be copied, cloned and compared.
+	 *
+	 * @throws IOException
+	 */
+	@Test
+	public void checkEquality() throws IOException {
+
+		// Local Declarations
+		String text = "x,y\n1,a\n2,b\n";
+		CSVTable table = readTable(text);
+		CSVTable equalTable = readTable(text);
+		CSVTable unequalTable = readTable("x,y\n1,a\n2,c\n");
+
+		// Check equals() and hashCode()
+		assertTrue(table.equals(equalTable));
+		assertEquals(table.hashCode(), equalTable.hashCode());
+		assertFalse(table.equals(unequalTable));
+		assertFalse(table.equals(null));
+
+		// Check copy() and clone()
+		CSVTable copy = new CSVTable();
+		assertEquals(0, copy.getNumberOfRows());
+		copy.copy(unequalTable);
+		assertTrue(copy.equals(unequalTable));
+		Object clone = table.clone();
+		assertNotSame(table, clone);
+		assertTrue(table.equals(clone));
+
+		return;
+	}
+}
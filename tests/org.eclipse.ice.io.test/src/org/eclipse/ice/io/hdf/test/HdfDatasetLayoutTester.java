@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.io.hdf.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.eclipse.ice.io.hdf.HdfDatasetLayout;
+import org.junit.Test;
+
+/**
+ * Tests the chunk sizes and the options of {@link HdfDatasetLayout}.
+ *
+ */
+public class HdfDatasetLayoutTester {
+
+	/**
+	 * This operation checks that automatically sized chunks hold whole rows,
+	 * stay under the chunk size and never exceed the dataset.
+	 */
+	@Test
+	public void checkAutomaticChunks() {
+
+		// Local Declarations
+		HdfDatasetLayout layout = HdfDatasetLayout.getCompressedLayout();
+		long chunkValues = HdfDatasetLayout.DEFAULT_CHUNK_BYTES / 8;
+
+		// Check the default options
+		assertEquals(HdfDatasetLayout.DEFAULT_DEFLATE_LEVEL,
+				layout.getDeflateLevel());
+		assertTrue(layout.getShuffle());
+		assertEquals(0, HdfDatasetLayout.getChunkedLayout().getDeflateLevel());
+
+		// A large pin power array gets chunks of whole rows
+		long[] dims = new long[] { 1000000, 49, 17 };
+		long[] chunks = layout.getChunkDimensions(dims, 8);
+		assertEquals(17, chunks[2]);
+		assertEquals(49, chunks[1]);
+		assertEquals(chunkValues / (49 * 17), chunks[0]);
+		assertTrue(chunks[0] * chunks[1] * chunks[2] * 8 <= HdfDatasetLayout.DEFAULT_CHUNK_BYTES);
+
+		// Rows that are bigger than a chunk are split
+		dims = new long[] { 10, 100000000 };
+		chunks = layout.getChunkDimensions(dims, 8);
+		assertArrayEquals(new long[] { 1, chunkValues }, chunks);
+
+		// Small datasets are one chunk
+		dims = new long[] { 3, 4 };
+		assertArrayEquals(dims, layout.getChunkDimensions(dims, 4));
+
+		// Empty datasets can not be chunked
+		assertNull(layout.getChunkDimensions(new long[] { 0, 4 }, 4));
+
+		return;
+	}
+
+	/**
+	 * This operation checks fixed chunk sizes, invalid options and equality.
+	 */
+	@Test
+	public void checkFixedChunks() {
+
+		// Fixed chunks are limited to the dataset
+		HdfDatasetLayout layout = new HdfDatasetLayout(new long[] { 64, 64 },
+				0, false);
+		assertArrayEquals(new long[] { 10, 64 },
+				layout.getChunkDimensions(new long[] { 10, 100 }, 8));
+		try {
+			layout.getChunkDimensions(new long[] { 10, 10, 10 }, 8);
+			fail("The chunk rank must match the dataset rank.");
+		} catch (IllegalArgumentException e) {
+			// Expected
+		}
+
+		// Invalid options are refused
+		try {
+			new HdfDatasetLayout(new long[] { 0, 4 }, 0, false);
+			fail("Chunk dimensions must be positive.");
+		} catch (IllegalArgumentException e) {
+			// Expected
+		}
+		try {
+			new HdfDatasetLayout(null, 10, false);
+			fail("The deflate level must be between 0 and 9.");
+		} catch (IllegalArgumentException e) {
+			// Expected
+		}
+
+		// Check equality
+		HdfDatasetLayout equalLayout = new HdfDatasetLayout(new long[] { 64,
+				64 }, 0, false);
+		assertTrue(layout.equals(equalLayout));
+		assertEquals(layout.hashCode(), equalLayout.hashCode());
+		assertFalse(layout.equals(HdfDatasetLayout.getChunkedLayout()));
+		assertTrue(HdfDatasetLayout.getCompressedLayout().equals(
+				HdfDatasetLayout.getCompressedLayout()));
+
+		return;
+	}
+}
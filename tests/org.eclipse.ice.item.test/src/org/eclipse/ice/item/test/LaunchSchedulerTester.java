@@ -0,0 +1,267 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.item.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.ice.datastructures.form.FormStatus;
+import org.eclipse.ice.item.jobLauncher.multiLauncher.LaunchScheduler;
+import org.junit.Test;
+
+/**
+ * <p>
+ * This class tests the LaunchScheduler used by the MultiLauncher.
+ * </p>
+ */
+public class LaunchSchedulerTester {
+
+	/**
+	 * This operation checks that no more than the maximum number of jobs run
+	 * at once and that every job is launched exactly once.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void checkConcurrencyLimit() throws Exception {
+
+		// Local Declarations
+		LaunchScheduler scheduler = new LaunchScheduler(3, 0, 0);
+		final AtomicInteger running = new AtomicInteger(0);
+		final AtomicInteger peak = new AtomicInteger(0);
+		final AtomicInteger launched = new AtomicInteger(0);
+		int numJobs = 50;
+
+		// Add jobs that run for a few milliseconds on their own threads
+		for (int i = 0; i < numJobs; i++) {
+			scheduler.addJob(new LaunchScheduler.Launch() {
+				@Override
+				public CompletableFuture<FormStatus> launch() {
+					final CompletableFuture<FormStatus> future = new CompletableFuture<FormStatus>();
+					launched.incrementAndGet();
+					int current = running.incrementAndGet();
+					synchronized (peak) {
+						peak.set(Math.max(peak.get(), current));
+					}
+					new Thread(new Runnable() {
+						@Override
+						public void run() {
+							try {
+								Thread.sleep(5);
+							} catch (InterruptedException e) {
+								e.printStackTrace();
+							}
+							running.decrementAndGet();
+							future.complete(FormStatus.Processed);
+						}
+					}).start();
+					return future;
+				}
+			}, 1, 0);
+		}
+
+		// Run them and check the limit
+		assertEquals(FormStatus.Processed,
+				scheduler.start().get(30, TimeUnit.SECONDS));
+		assertEquals(numJobs, launched.get());
+		assertTrue(peak.get() <= 3);
+		assertEquals(0, scheduler.getNumberOfRunningJobs());
+		for (int i = 0; i < numJobs; i++) {
+			assertEquals(FormStatus.Processed, scheduler.getStatus(i));
+			assertTrue(scheduler.getRunTime(i) > 0.0);
+		}
+		assertTrue(scheduler.getAverageQueueTime() > 0.0);
+		assertTrue(scheduler.getThroughput() > 0.0);
+
+		return;
+	}
+
+	/**
+	 * This operation checks that the jobs are weighed against the available
+	 * cores and memory and that a job that is too big is run alone.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void checkResourceWeights() throws Exception {
+
+		// Local Declarations
+		LaunchScheduler scheduler = new LaunchScheduler(10, 8, 1000);
+		ArrayList<TestLaunch> jobs = new ArrayList<TestLaunch>();
+
+		// Two 4-core jobs fit, a third does not. A small job behind it can
+		// still start.
+		for (int i = 0; i < 3; i++) {
+			jobs.add(new TestLaunch());
+			scheduler.addJob(jobs.get(i), 4, 100);
+		}
+		jobs.add(new TestLaunch());
+		scheduler.addJob(jobs.get(3), 0, 700);
+		// This one needs more than everything and must run alone
+		jobs.add(new TestLaunch());
+		scheduler.addJob(jobs.get(4), 64, 400);
+
+		CompletableFuture<FormStatus> completion = scheduler.start();
+		assertTrue(jobs.get(0).isLaunched());
+		assertTrue(jobs.get(1).isLaunched());
+		assertFalse(jobs.get(2).isLaunched());
+		assertTrue(jobs.get(3).isLaunched());
+		assertFalse(jobs.get(4).isLaunched());
+
+		// Finishing one 4-core job makes room for the third
+		jobs.get(0).finish(FormStatus.Processed);
+		assertTrue(jobs.get(2).isLaunched());
+		assertFalse(jobs.get(4).isLaunched());
+
+		// The big job starts once everything else is done
+		jobs.get(1).finish(FormStatus.Processed);
+		jobs.get(2).finish(FormStatus.Processed);
+		assertFalse(jobs.get(4).isLaunched());
+		jobs.get(3).finish(FormStatus.Processed);
+		assertTrue(jobs.get(4).isLaunched());
+		assertFalse(completion.isDone());
+		jobs.get(4).finish(FormStatus.Processed);
+		assertEquals(FormStatus.Processed, completion.get(0, TimeUnit.SECONDS));
+
+		return;
+	}
+
+	/**
+	 * This operation checks that jobs wait for their dependencies, that the
+	 * dependents of a failed job are skipped while independent jobs still run
+	 * and that cycles are refused.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void checkDependencies() throws Exception {
+
+		// Local Declarations
+		LaunchScheduler scheduler = new LaunchScheduler(10, 0, 0);
+		ArrayList<TestLaunch> jobs = new ArrayList<TestLaunch>();
+		final List<String> events = Collections
+				.synchronizedList(new ArrayList<String>());
+
+		// Two meshes, each followed by a solve. A report needs both solves.
+		for (int i = 0; i < 5; i++) {
+			jobs.add(new TestLaunch());
+			scheduler.addJob(jobs.get(i), 1, 0);
+		}
+		scheduler.addDependency(1, 0);
+		scheduler.addDependency(3, 2);
+		scheduler.addDependency(4, 1);
+		scheduler.addDependency(4, 3);
+		scheduler.addListener(new LaunchScheduler.Listener() {
+			@Override
+			public void jobStarted(int job) {
+				events.add("start " + job);
+			}
+
+			@Override
+			public void jobFinished(int job, FormStatus status) {
+				events.add(job + " " + status);
+			}
+		});
+
+		// Only the meshes can start
+		CompletableFuture<FormStatus> completion = scheduler.start();
+		assertTrue(jobs.get(0).isLaunched());
+		assertFalse(jobs.get(1).isLaunched());
+		assertTrue(jobs.get(2).isLaunched());
+		assertFalse(jobs.get(3).isLaunched());
+
+		// The first chain succeeds
+		jobs.get(0).finish(FormStatus.Processed);
+		assertTrue(jobs.get(1).isLaunched());
+		jobs.get(1).finish(FormStatus.Processed);
+		assertFalse(jobs.get(4).isLaunched());
+
+		// The second mesh fails, so its solve and the report are skipped
+		jobs.get(2).finish(FormStatus.InfoError);
+		assertFalse(jobs.get(3).isLaunched());
+		assertFalse(jobs.get(4).isLaunched());
+		assertEquals(FormStatus.Unacceptable, scheduler.getStatus(3));
+		assertEquals(FormStatus.Unacceptable, scheduler.getStatus(4));
+		assertEquals(FormStatus.InfoError, completion.get(0, TimeUnit.SECONDS));
+		assertTrue(events.contains("4 Unacceptable"));
+		assertTrue(events.indexOf("0 Processed") < events.indexOf("start 1"));
+
+		// Cycles are refused
+		scheduler = new LaunchScheduler(1, 0, 0);
+		scheduler.addJob(new TestLaunch(), 1, 0);
+		scheduler.addJob(new TestLaunch(), 1, 0);
+		scheduler.addDependency(0, 1);
+		scheduler.addDependency(1, 0);
+		try {
+			scheduler.start();
+			fail("A cycle should not be launched.");
+		} catch (IllegalStateException e) {
+			// Expected
+		}
+
+		// An empty launch finishes right away
+		scheduler = new LaunchScheduler(1, 0, 0);
+		assertEquals(FormStatus.Processed,
+				scheduler.start().get(0, TimeUnit.SECONDS));
+
+		return;
+	}
+
+	/**
+	 * A job that is finished by the test.
+	 */
+	private static class TestLaunch implements LaunchScheduler.Launch {
+
+		/**
+		 * The future returned by launch(), or null if it was not launched.
+		 */
+		private volatile CompletableFuture<FormStatus> future = null;
+
+		/*
+		 * Implements a method from Launch.
+		 */
+		@Override
+		public CompletableFuture<FormStatus> launch() {
+			future = new CompletableFuture<FormStatus>();
+			return future;
+		}
+
+		/**
+		 * This operation returns true if the job was launched.
+		 *
+		 * @return True if launch() was called.
+		 */
+		public boolean isLaunched() {
+			return future != null;
+		}
+
+		/**
+		 * This operation finishes the job.
+		 *
+		 * @param status
+		 *            The final status of the job.
+		 */
+		public void finish(FormStatus status) {
+			future.complete(status);
+		}
+	}
+}
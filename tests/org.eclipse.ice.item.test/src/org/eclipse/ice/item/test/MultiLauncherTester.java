@@ -210,6 +210,10 @@ public class MultiLauncherTester implements IComponentVisitor {
 		assertNotNull(dataComponent);
 		assertEquals("Execution Mode", dataComponent.getName());
 		assertNotNull(dataComponent.retrieveEntry("Enable Parallel Execution"));
+		assertNotNull(dataComponent.retrieveEntry("Maximum Concurrent Jobs"));
+		assertNotNull(dataComponent.retrieveEntry("Available Cores"));
+		assertEquals("0", dataComponent.retrieveEntry("Available Memory (MB)")
+				.getValue());
 		// The DataComponent should have id = 3
 		assertEquals(3, dataComponent.getId());
 
@@ -16,6 +16,8 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+
 import org.eclipse.ice.datastructures.form.DataComponent;
 import org.eclipse.ice.item.Registry;
 import org.junit.Test;
@@ -145,4 +147,152 @@ public class RegistryTester {
 		assertEquals(value, dc1.getUpdatedValue());
 		assertEquals(value, dc2.getUpdatedValue());
 	}
-}
\ No newline at end of file
+
+	/**
+	 * <p>
+	 * This operation checks that only the registrants of keys whose values
+	 * changed are updated and that a registrant is only registered once.
+	 * </p>
+	 */
+	@Test
+	public void checkIncrementalDispatch() {
+
+		// Local Declarations
+		ArrayList<String> updates = new ArrayList<String>();
+		RecordingComponent first = new RecordingComponent("first", updates);
+		RecordingComponent second = new RecordingComponent("second", updates);
+
+		// Create a registry to test
+		registry = new Registry();
+		registry.setValue("A", "1");
+		registry.setValue("B", "2");
+		registry.register(first, "A");
+		registry.register(first, "A");
+		registry.register(second, "B");
+
+		// Everything is new, so everything is dispatched once
+		registry.dispatch();
+		assertEquals(2, updates.size());
+		assertTrue(updates.contains("first A=1"));
+		assertTrue(updates.contains("second B=2"));
+
+		// Nothing changed
+		updates.clear();
+		registry.dispatch();
+		registry.updateValue("A", "1");
+		registry.dispatch();
+		assertTrue(updates.isEmpty());
+
+		// Only the changed key is dispatched
+		registry.updateValue("B", "3");
+		registry.dispatch();
+		assertEquals(1, updates.size());
+		assertEquals("second B=3", updates.get(0));
+
+		// A new registrant gets the current value
+		updates.clear();
+		RecordingComponent third = new RecordingComponent("third", updates);
+		registry.register(third, "B");
+		registry.dispatch();
+		assertTrue(updates.contains("third B=3"));
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation checks that keys are dispatched after the keys they
+	 * depend on, that values changed during a dispatch are passed on to the
+	 * keys that depend on them, and that cycles are found.
+	 * </p>
+	 */
+	@Test
+	public void checkDependencyOrder() {
+
+		// Local Declarations
+		ArrayList<String> updates = new ArrayList<String>();
+		registry = new Registry();
+
+		// A chain C <- B <- A, added backwards. Each one copies the value of
+		// its parent.
+		RecordingComponent c = new RecordingComponent("C", updates);
+		RecordingComponent b = new RecordingComponent("B", updates);
+		c.setRegistry(registry);
+		b.setRegistry(registry);
+		registry.setValue("C", null);
+		registry.setValue("B", null);
+		registry.setValue("A", null);
+		registry.register(c, "B", "C");
+		registry.register(b, "A", "B");
+		registry.dispatch();
+		assertTrue(registry.getCyclicKeys().isEmpty());
+
+		// Changing A is passed down the chain in one dispatch
+		updates.clear();
+		registry.updateValue("A", "on");
+		registry.dispatch();
+		assertEquals(2, updates.size());
+		assertEquals("B A=on", updates.get(0));
+		assertEquals("C B=on", updates.get(1));
+		assertEquals("on", registry.getValue("C"));
+
+		// Close the loop. The keys are reported, but still dispatched.
+		RecordingComponent a = new RecordingComponent("A", updates);
+		registry.register(a, "C", "A");
+		assertEquals(3, registry.getCyclicKeys().size());
+		updates.clear();
+		registry.updateValue("A", "off");
+		registry.dispatch();
+		assertTrue(updates.contains("C B=off"));
+
+		return;
+	}
+
+	/**
+	 * A DataComponent that records its updates and can copy them into the
+	 * Registry under its own name.
+	 */
+	private static class RecordingComponent extends DataComponent {
+
+		/**
+		 * The list of updates of all of the components.
+		 */
+		private final ArrayList<String> updates;
+
+		/**
+		 * The Registry that updates are copied into, or null.
+		 */
+		private Registry registry;
+
+		/**
+		 * The constructor.
+		 * 
+		 * @param name
+		 *            The name of the component and the key it copies to.
+		 * @param updates
+		 *            The list of updates of all of the components.
+		 */
+		public RecordingComponent(String name, ArrayList<String> updates) {
+			setName(name);
+			this.updates = updates;
+		}
+
+		/**
+		 * Copies updates into the Registry under the name of this component.
+		 * 
+		 * @param registry
+		 *            The Registry.
+		 */
+		public void setRegistry(Registry registry) {
+			this.registry = registry;
+		}
+
+		@Override
+		public void update(String key, String newValue) {
+			updates.add(getName() + " " + key + "=" + newValue);
+			if (registry != null) {
+				registry.updateValue(getName(), newValue);
+			}
+		}
+	}
+}
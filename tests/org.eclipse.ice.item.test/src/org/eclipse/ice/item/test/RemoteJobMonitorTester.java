@@ -0,0 +1,185 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.item.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.ice.item.action.RemoteJobMonitor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * <p>
+ * This class tests the RemoteJobMonitor.
+ * </p>
+ */
+public class RemoteJobMonitorTester {
+
+	/**
+	 * The monitor under test.
+	 */
+	private RemoteJobMonitor monitor;
+
+	/**
+	 * Creates the monitor for each test.
+	 */
+	@Before
+	public void setUp() {
+		monitor = new RemoteJobMonitor(10);
+	}
+
+	/**
+	 * Stops the monitor after each test.
+	 */
+	@After
+	public void tearDown() {
+		monitor.shutdown();
+	}
+
+	/**
+	 * This operation checks that many jobs are watched together and that each
+	 * future is completed with the exit value of its job once it finishes.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void checkCompletion() throws Exception {
+
+		// Local Declarations
+		ArrayList<FakeJob> jobs = new ArrayList<FakeJob>();
+		ArrayList<CompletableFuture<Integer>> futures = new ArrayList<CompletableFuture<Integer>>();
+
+		// A finished job completes right away
+		FakeJob finishedJob = new FakeJob(7);
+		finishedJob.completed = true;
+		assertEquals(7, monitor.watch(finishedJob).get(0, TimeUnit.SECONDS)
+				.intValue());
+		assertEquals(0, monitor.getNumberOfJobs());
+
+		// Watch a lot of running jobs
+		for (int i = 0; i < 100; i++) {
+			FakeJob job = new FakeJob(i);
+			jobs.add(job);
+			futures.add(monitor.watch(job));
+		}
+		assertEquals(100, monitor.getNumberOfJobs());
+		for (CompletableFuture<Integer> future : futures) {
+			assertFalse(future.isDone());
+		}
+
+		// Finish them and check the exit values
+		for (FakeJob job : jobs) {
+			job.completed = true;
+		}
+		for (int i = 0; i < 100; i++) {
+			assertEquals(i, futures.get(i).get(5, TimeUnit.SECONDS).intValue());
+		}
+
+		// The monitor should stop watching them
+		long deadline = System.currentTimeMillis() + 5000;
+		while (monitor.getNumberOfJobs() > 0
+				&& System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertEquals(0, monitor.getNumberOfJobs());
+
+		// The monitor should start checking again for a new job
+		FakeJob lateJob = new FakeJob(3);
+		CompletableFuture<Integer> lateFuture = monitor.watch(lateJob);
+		lateJob.completed = true;
+		assertEquals(3, lateFuture.get(5, TimeUnit.SECONDS).intValue());
+
+		return;
+	}
+
+	/**
+	 * This operation checks that a job that can not be checked completes its
+	 * future exceptionally and that a cancelled future is no longer watched.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void checkFailureAndCancellation() throws Exception {
+
+		// Watch a job that throws
+		FakeJob brokenJob = new FakeJob(0) {
+			@Override
+			public boolean isCompleted() {
+				throw new IllegalStateException("Connection lost");
+			}
+		};
+		assertTrue(monitor.watch(brokenJob).isCompletedExceptionally());
+
+		// Cancel the future of a running job
+		FakeJob job = new FakeJob(1);
+		CompletableFuture<Integer> future = monitor.watch(job);
+		future.cancel(false);
+		long deadline = System.currentTimeMillis() + 5000;
+		while (monitor.getNumberOfJobs() > 0
+				&& System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertEquals(0, monitor.getNumberOfJobs());
+
+		return;
+	}
+
+	/**
+	 * A job whose completion is set by the test.
+	 */
+	private static class FakeJob implements RemoteJobMonitor.Completion {
+
+		/**
+		 * True if the job has finished.
+		 */
+		public volatile boolean completed = false;
+
+		/**
+		 * The exit value of the job.
+		 */
+		private final int exitValue;
+
+		/**
+		 * The constructor.
+		 *
+		 * @param exitValue
+		 *            The exit value of the job.
+		 */
+		public FakeJob(int exitValue) {
+			this.exitValue = exitValue;
+		}
+
+		/*
+		 * Implements a method from Completion.
+		 */
+		@Override
+		public boolean isCompleted() {
+			return completed;
+		}
+
+		/*
+		 * Implements a method from Completion.
+		 */
+		@Override
+		public int exitValue() {
+			return exitValue;
+		}
+	}
+}
@@ -0,0 +1,210 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.item.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.eclipse.ice.datastructures.form.FormStatus;
+import org.eclipse.ice.item.action.JobLaunchAction;
+import org.eclipse.ice.item.action.LineRingBuffer;
+import org.eclipse.ice.item.action.StreamCapture;
+import org.junit.Test;
+
+/**
+ * <p>
+ * This class tests the LineRingBuffer and StreamCapture classes and the way
+ * that the JobLaunchAction uses them to capture the output of a job.
+ * </p>
+ */
+public class StreamCaptureTester {
+
+	/**
+	 * This operation checks that the LineRingBuffer keeps the last lines that
+	 * were added to it in order.
+	 */
+	@Test
+	public void checkRingBuffer() {
+
+		// Local Declarations
+		LineRingBuffer buffer = new LineRingBuffer(3);
+
+		// Check the empty buffer
+		assertEquals(3, buffer.getCapacity());
+		assertTrue(buffer.getLines().isEmpty());
+		assertEquals(0, buffer.getTotalLines());
+
+		// Add fewer lines than the capacity
+		buffer.add("1");
+		buffer.add("2");
+		buffer.add(null);
+		assertEquals(2, buffer.getLines().size());
+		assertEquals("1", buffer.getLines().get(0));
+		assertEquals(2, buffer.getTotalLines());
+
+		// Overfill it
+		for (int i = 3; i <= 10; i++) {
+			buffer.add(String.valueOf(i));
+		}
+		ArrayList<String> lines = buffer.getLines();
+		assertEquals(3, lines.size());
+		assertEquals("8", lines.get(0));
+		assertEquals("9", lines.get(1));
+		assertEquals("10", lines.get(2));
+		assertEquals(10, buffer.getTotalLines());
+
+		// Get only some of the lines
+		lines = buffer.getLines(2);
+		assertEquals(2, lines.size());
+		assertEquals("9", lines.get(0));
+		assertEquals(0, buffer.getLines(-1).size());
+		assertEquals(3, buffer.getLines(50).size());
+
+		// Clear it
+		buffer.clear();
+		assertTrue(buffer.getLines().isEmpty());
+		assertEquals(0, buffer.getTotalLines());
+
+		return;
+	}
+
+	/**
+	 * This operation checks that the StreamCapture writes the stream to the
+	 * log, keeps the tail and stops writing the log at the size limit.
+	 */
+	@Test
+	public void checkCapture() {
+
+		// Local Declarations
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			text.append("line " + i + "\n");
+		}
+		StringWriter log = new StringWriter();
+		LineRingBuffer tail = new LineRingBuffer(10);
+
+		// Capture everything
+		StreamCapture capture = new StreamCapture(new ByteArrayInputStream(
+				text.toString().getBytes()), log, tail, Long.MAX_VALUE);
+		capture.run();
+		assertNull(capture.getError());
+		assertEquals(text.toString().replace("\n", "\r\n"), log.toString());
+		assertEquals(log.toString().length(), capture.getLogSize());
+		assertEquals(10, tail.getLines().size());
+		assertEquals("line 99", tail.getLines().get(9));
+
+		// Capture with a small limit. The whole stream should still be read.
+		log = new StringWriter();
+		tail.clear();
+		capture = new StreamCapture(new ByteArrayInputStream(text.toString()
+				.getBytes()), log, tail, 20);
+		capture.run();
+		assertNull(capture.getError());
+		assertTrue(log.toString().startsWith("line 0\r\nline 1\r\nline 2\r\n"));
+		assertTrue(log.toString().contains("truncated"));
+		assertFalse(log.toString().contains("line 3\r\n"));
+		assertEquals(100, tail.getTotalLines());
+
+		return;
+	}
+
+	/**
+	 * This operation checks that the JobLaunchAction reads stdout and stderr
+	 * at the same time. The fake process fills stderr before it writes
+	 * anything to stdout, which would block forever if stdout were read to
+	 * the end first.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void checkConcurrentLogging() throws Exception {
+
+		// Local Declarations
+		final PipedOutputStream stdOutPipe = new PipedOutputStream();
+		final PipedOutputStream stdErrPipe = new PipedOutputStream();
+		final PipedInputStream stdOut = new PipedInputStream(stdOutPipe, 1024);
+		final PipedInputStream stdErr = new PipedInputStream(stdErrPipe, 1024);
+		final TestLaunchAction action = new TestLaunchAction();
+		final AtomicReference<FormStatus> status = new AtomicReference<FormStatus>();
+		final int numErrorLines = 10000;
+
+		// Write the output of the fake process
+		Thread process = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					for (int i = 0; i < numErrorLines; i++) {
+						stdErrPipe.write(("error " + i + "\n").getBytes());
+					}
+					stdErrPipe.close();
+					stdOutPipe.write("done\n".getBytes());
+					stdOutPipe.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		});
+
+		// Log it
+		Thread logger = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				status.set(action.log(stdOut, stdErr));
+			}
+		});
+		process.start();
+		logger.start();
+		logger.join(20000);
+
+		// Logging must have finished and the tails should be available
+		assertFalse(logger.isAlive());
+		assertEquals(FormStatus.Processing, status.get());
+		assertEquals("done", action.getStdOutTail().get(0));
+		ArrayList<String> errors = action.getStdErrTail();
+		assertEquals(JobLaunchAction.tailLength, errors.size());
+		assertEquals("error " + (numErrorLines - 1),
+				errors.get(errors.size() - 1));
+
+		return;
+	}
+
+	/**
+	 * A JobLaunchAction that exposes logOutput() to the test.
+	 */
+	private static class TestLaunchAction extends JobLaunchAction {
+
+		/**
+		 * Logs the streams.
+		 *
+		 * @param output
+		 *            The output stream
+		 * @param errors
+		 *            The error stream
+		 * @return The status from logOutput()
+		 */
+		public FormStatus log(InputStream output, InputStream errors) {
+			return logOutput(output, errors);
+		}
+	}
+}
@@ -0,0 +1,220 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.item.test.moose;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+
+import org.eclipse.ice.datastructures.form.TreeComposite;
+import org.eclipse.ice.item.nuclear.MOOSEModel;
+import org.eclipse.ice.item.utilities.moose.MOOSEFileHandler;
+import org.eclipse.ice.item.utilities.moose.MOOSESyntaxCache;
+import org.junit.Test;
+
+/**
+ * This class tests the MOOSESyntaxCache.
+ *
+ */
+public class MOOSESyntaxCacheTester {
+
+	/**
+	 * A small YAML specification with nested blocks, a list of types and
+	 * boolean and empty parameter values.
+	 */
+	private static final String yaml = "- name: /Kernels\n"
+			+ "  description: ''\n"
+			+ "  parameters:\n"
+			+ "  - name: active\n"
+			+ "    required: No\n"
+			+ "    default: __all__\n"
+			+ "    cpp_type: std::vector<std::string>\n"
+			+ "    group_name:\n"
+			+ "    description: 'If specified only the blocks named will be visited'\n"
+			+ "  subblocks:\n"
+			+ "  - name: /Kernels/<type>\n"
+			+ "    description: ''\n"
+			+ "    parameters:\n"
+			+ "    subblocks:\n"
+			+ "    - name: /Kernels/<type>/Diffusion\n"
+			+ "      description: 'The Laplacian operator'\n"
+			+ "      parameters:\n"
+			+ "      - name: variable\n"
+			+ "        required: Yes\n"
+			+ "        default: \n"
+			+ "        cpp_type: NonlinearVariableName\n"
+			+ "        group_name:\n"
+			+ "        description: 'The name of the variable'\n"
+			+ "      subblocks:\n"
+			+ "- name: /Mesh\n"
+			+ "  description: 'The mesh'\n"
+			+ "  parameters:\n"
+			+ "  - name: dim\n"
+			+ "    required: No\n"
+			+ "    default: '1'\n"
+			+ "    cpp_type: MooseEnum\n"
+			+ "    group_name: Main\n"
+			+ "    description: 'The dimension of the mesh'\n"
+			+ "  subblocks:\n";
+
+	/**
+	 * This operation checks that executables get the same key until their
+	 * contents change.
+	 *
+	 * @throws IOException
+	 */
+	@Test
+	public void checkKeys() throws IOException {
+
+		// Local Declarations
+		File executable = File.createTempFile("moose-opt", "");
+		MOOSESyntaxCache cache = new MOOSESyntaxCache(new File(
+				executable.getParentFile(), "unused"));
+		String key;
+
+		try {
+			writeFile(executable, "#!/bin/sh\necho first\n");
+			key = cache.getKey(executable);
+			assertEquals(key, cache.getKey(executable));
+			assertTrue(key.matches("[0-9a-f]{40}-[0-9a-f]+"));
+
+			// A rebuilt executable gets a new key
+			writeFile(executable, "#!/bin/sh\necho second\n");
+			executable.setLastModified(executable.lastModified() + 2000);
+			assertFalse(key.equals(cache.getKey(executable)));
+		} finally {
+			executable.delete();
+		}
+
+		// Missing executables have no key
+		try {
+			cache.getKey(executable);
+			fail("A missing executable should not have a key.");
+		} catch (IOException e) {
+			// Expected
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation checks that a compiled specification matches the one
+	 * loaded from YAML, that it is shared and that it is read back from its
+	 * cache file.
+	 *
+	 * @throws IOException
+	 */
+	@Test
+	public void checkCompile() throws IOException {
+
+		// Local Declarations
+		File directory = Files.createTempDirectory("mooseSyntax").toFile();
+		File yamlFile = new File(directory, "app.yaml");
+		File syntaxFile = new File(directory, "app.syntax");
+		File firstDir = new File(directory, "first");
+		File secondDir = new File(directory, "second");
+		String key = "0123456789abcdef0123456789abcdef01234567-1";
+		MOOSESyntaxCache cache = new MOOSESyntaxCache(firstDir);
+		TreeComposite tree, readTree, child;
+		ArrayList<TreeComposite> blocks;
+
+		try {
+			writeFile(yamlFile, yaml);
+			writeFile(syntaxFile, "Kernels\nKernels/*\nMesh\n");
+
+			// Nothing is cached yet
+			assertNull(cache.getSyntaxTree(key));
+
+			// Compile the files and compare the tree to the YAML
+			tree = cache.compile(key, yamlFile.getPath(), syntaxFile.getPath());
+			blocks = new MOOSEFileHandler().loadYAML(yamlFile.getPath());
+			assertNotNull(tree);
+			assertEquals(MOOSEModel.mooseTreeCompositeId, tree.getId());
+			assertEquals("Input Data", tree.getName());
+			assertEquals(blocks.size(), tree.getNumberOfChildren());
+			for (int i = 0; i < blocks.size(); i++) {
+				child = tree.getChildAtIndex(i);
+				assertEquals(blocks.get(i), child);
+			}
+			assertTrue(new File(firstDir, key + ".syntaxcache").isFile());
+
+			// The tree is shared
+			assertSame(tree, cache.getSyntaxTree(key));
+			assertSame(tree, new MOOSESyntaxCache(firstDir).getSyntaxTree(key));
+
+			// A copy of the cache file is read without the YAML
+			assertTrue(secondDir.mkdir());
+			Files.copy(new File(firstDir, key + ".syntaxcache").toPath(),
+					new File(secondDir, key + ".syntaxcache").toPath());
+			assertTrue(yamlFile.delete());
+			readTree = new MOOSESyntaxCache(secondDir).getSyntaxTree(key);
+			assertNotSame(tree, readTree);
+			assertEquals(tree, readTree);
+
+			// A cache file for another key is ignored
+			assertTrue(new File(secondDir, key + ".syntaxcache")
+					.renameTo(new File(secondDir, "other.syntaxcache")));
+			assertNull(new MOOSESyntaxCache(secondDir)
+					.getSyntaxTree("other"));
+		} finally {
+			deleteAll(directory);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation writes a string to a file.
+	 *
+	 * @param file
+	 *            The file.
+	 * @param contents
+	 *            The contents of the file.
+	 * @throws IOException
+	 */
+	private void writeFile(File file, String contents) throws IOException {
+		FileWriter writer = new FileWriter(file);
+		try {
+			writer.write(contents);
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * This operation deletes a file or a directory and its contents.
+	 *
+	 * @param file
+	 *            The file or directory.
+	 */
+	private void deleteAll(File file) {
+		File[] files = file.listFiles();
+		if (files != null) {
+			for (File child : files) {
+				deleteAll(child);
+			}
+		}
+		file.delete();
+	}
+}
@@ -15,14 +15,18 @@ package org.eclipse.ice.item.test.nuclear;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.net.URI;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.HashMap;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
@@ -34,6 +38,7 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.ice.datastructures.ICEObject.Component;
+import org.eclipse.ice.datastructures.form.AllowedValueType;
 import org.eclipse.ice.datastructures.form.DataComponent;
 import org.eclipse.ice.datastructures.form.Entry;
 import org.eclipse.ice.datastructures.form.Form;
@@ -44,6 +49,7 @@ import org.eclipse.ice.io.serializable.IOService;
 import org.eclipse.ice.item.nuclear.MOOSE;
 import org.eclipse.ice.item.nuclear.MOOSEModel;
 import org.eclipse.ice.item.utilities.moose.MOOSEFileHandler;
+import org.eclipse.ice.item.utilities.moose.MOOSESyntaxCache;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -513,6 +519,211 @@ public class MOOSEModelTester {
 		return;
 	}
 
+	/**
+	 * This operation merges the BISON input file into the BISON YAML tree
+	 * loaded through the MOOSESyntaxCache, the same way the MOOSEModel loads
+	 * it. It checks that the input blocks are kept and that the merge
+	 * finishes within a generous time bound.
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void checkMergingTrees() throws IOException {
+
+		// Local Declarations
+		String separator = System.getProperty("file.separator");
+		String userDir = System.getProperty("user.home") + separator
+				+ "ICETests" + separator + "itemData";
+		File yamlFile = new File(userDir, "bison.yaml");
+		File syntaxFile = new File(userDir, "bison.syntax");
+		File cacheDir = Files.createTempDirectory("MOOSEModelTester")
+				.toFile();
+		MOOSESyntaxCache cache = new MOOSESyntaxCache(cacheDir);
+		TreeComposite yamlTree = new TreeComposite();
+		TreeComposite inputTree = new TreeComposite();
+		HashMap<String, ArrayList<String>> inputChildren = new HashMap<String, ArrayList<String>>();
+		String key;
+		long mergeTime;
+
+		// Compile the specification and read it back from the cache. The
+		// shared tree is copied as it is in loadTreeContents().
+		try {
+			key = cache.getKey(yamlFile);
+			TreeComposite syntaxTree = cache.compile(key, yamlFile.getPath(),
+					syntaxFile.getPath());
+			assertNotNull(syntaxTree);
+			assertSame(syntaxTree,
+					new MOOSESyntaxCache(cacheDir).getSyntaxTree(key));
+			yamlTree.copy(syntaxTree);
+		} finally {
+			for (File file : cacheDir.listFiles()) {
+				file.delete();
+			}
+			cacheDir.delete();
+		}
+
+		// Read the input file and remember the children of its blocks
+		for (TreeComposite block : new MOOSEFileHandler()
+				.loadFromGetPot(userDir + separator + "input_coarse10.i")) {
+			ArrayList<String> names = new ArrayList<String>();
+			for (int i = 0; i < block.getNumberOfChildren(); i++) {
+				names.add(block.getChildAtIndex(i).getName());
+			}
+			inputChildren.put(block.getName(), names);
+			inputTree.setNextChild(block);
+		}
+		assertFalse(inputChildren.isEmpty());
+
+		// Merge the trees
+		long start = System.nanoTime();
+		new MergingModel().merge(inputTree, yamlTree);
+		mergeTime = (System.nanoTime() - start) / 1000000;
+
+		// The blocks of the YAML tree hold the input blocks' children. Adaptive
+		// children are moved to the end of their block, so the order is not
+		// checked.
+		for (int i = 0; i < yamlTree.getNumberOfChildren(); i++) {
+			TreeComposite block = yamlTree.getChildAtIndex(i);
+			ArrayList<String> names = inputChildren.get(block.getName());
+			if (names != null) {
+				assertEquals(names.size(), block.getNumberOfChildren());
+				for (int j = 0; j < names.size(); j++) {
+					assertTrue(names.contains(block.getChildAtIndex(j)
+							.getName()));
+				}
+			}
+		}
+
+		// The bound is generous so that slow build machines pass.
+		assertTrue("Merging the BISON input took " + mergeTime + " ms.",
+				mergeTime < 5000);
+
+		return;
+	}
+
+	/**
+	 * This operation checks that merging a large input tree into a YAML tree
+	 * keeps the input data, converts discrete parameters and shares the child
+	 * exemplars of the YAML tree instead of copying them into every block.
+	 */
+	@Test
+	public void checkSharingExemplars() {
+
+		// Local Declarations
+		int numTypes = 200, numBlocks = 500;
+		TreeComposite yamlTree = new TreeComposite();
+		TreeComposite inputTree = new TreeComposite();
+		TreeComposite yamlKernels = createBlock("Kernels", null);
+		TreeComposite inputKernels = createBlock("Kernels", null);
+		ArrayList<TreeComposite> types = new ArrayList<TreeComposite>();
+		final ArrayList<String> variables = new ArrayList<String>();
+		variables.add("u");
+		variables.add("v");
+
+		// Create a YAML spec with many kernel types, each with a discrete
+		// parameter and child exemplars of its own
+		for (int i = 0; i < numTypes; i++) {
+			TreeComposite type = createBlock("Type" + i, null);
+			Entry variable = new Entry() {
+				@Override
+				public void setup() {
+					this.allowedValues = new ArrayList<String>(variables);
+					this.allowedValueType = AllowedValueType.Discrete;
+				}
+			};
+			variable.setName("variable");
+			((DataComponent) type.getDataNodes().get(0)).addEntry(variable);
+			ArrayList<TreeComposite> subtypes = new ArrayList<TreeComposite>();
+			subtypes.add(createBlock("Subtype", null));
+			type.setChildExemplars(subtypes);
+			types.add(type);
+		}
+		yamlKernels.setChildExemplars(types);
+		yamlTree.setNextChild(yamlKernels);
+
+		// Create an input file with many kernels
+		for (int i = 0; i < numBlocks; i++) {
+			TreeComposite block = createBlock("kernel" + i, "Type"
+					+ (i % numTypes));
+			Entry variable = new Entry();
+			variable.setName("variable");
+			variable.setValue((i % 2 == 0) ? "v" : "w");
+			((DataComponent) block.getDataNodes().get(0)).addEntry(variable);
+			inputKernels.setNextChild(block);
+		}
+		inputTree.setNextChild(inputKernels);
+
+		// Merge the trees
+		new MergingModel().merge(inputTree, yamlTree);
+
+		// Check the merged blocks
+		TreeComposite kernels = yamlTree.getChildAtIndex(0);
+		assertEquals(numBlocks, kernels.getNumberOfChildren());
+		for (int i = 0; i < numBlocks; i++) {
+			TreeComposite block = kernels.getChildAtIndex(i);
+			assertEquals("kernel" + i, block.getName());
+			Entry variable = ((DataComponent) block.getDataNodes().get(0))
+					.retrieveEntry("variable");
+			assertEquals(AllowedValueType.Discrete, variable.getValueType());
+			assertEquals((i % 2 == 0) ? "v" : "u", variable.getValue());
+
+			// The exemplars are the ones from the YAML tree
+			TreeComposite type = kernels.getChildExemplars().get(i % numTypes);
+			assertSame(type.getChildExemplars().get(0), block
+					.getChildExemplars().get(0));
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation creates a block with a data node.
+	 *
+	 * @param name
+	 *            The name of the block.
+	 * @param type
+	 *            The value of the block's "type" parameter, or null if it
+	 *            does not have one.
+	 * @return The block.
+	 */
+	private TreeComposite createBlock(String name, String type) {
+
+		// Local Declarations
+		TreeComposite block = new TreeComposite();
+		DataComponent parameters = new DataComponent();
+
+		block.setName(name);
+		parameters.setName(name + " Parameters");
+		parameters.setId(1);
+		if (type != null) {
+			Entry typeEntry = new Entry();
+			typeEntry.setName("type");
+			typeEntry.setValue(type);
+			parameters.addEntry(typeEntry);
+		}
+		block.addComponent(parameters);
+
+		return block;
+	}
+
+	/**
+	 * A MOOSEModel that exposes its merge operation.
+	 */
+	private static class MergingModel extends MOOSEModel {
+
+		/**
+		 * This operation merges an input tree into a YAML tree.
+		 *
+		 * @param inputTree
+		 *            The input tree.
+		 * @param yamlTree
+		 *            The YAML tree.
+		 */
+		public void merge(TreeComposite inputTree, TreeComposite yamlTree) {
+			mergeTrees(inputTree, yamlTree);
+		}
+	}
+
 	/**
 	 * Closes the MOOSE tester workspace created in the BeforeClass method.
 	 */
@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.item.test.nuclear;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.ice.item.nuclear.IPostprocessorListener;
+import org.eclipse.ice.item.nuclear.PostprocessorBuffer;
+import org.junit.Test;
+
+/**
+ * This class tests the PostprocessorBuffer, which keeps the time series of a
+ * MOOSE postprocessor in memory and writes it to a CSV file in batches.
+ */
+public class PostprocessorBufferTester {
+
+	/**
+	 * This operation checks that points are written in batches when the flush
+	 * threshold is reached or when the buffer is flushed, and that listeners
+	 * only receive the appended points.
+	 */
+	@Test
+	public void checkFlush() throws IOException {
+
+		// Local Declarations
+		File file = File.createTempFile("postprocessor", ".csv");
+		final List<double[]> appendedTimes = new ArrayList<double[]>();
+		final List<double[]> appendedValues = new ArrayList<double[]>();
+		PostprocessorBuffer buffer;
+		List<String> lines;
+
+		// The buffer writes the header when it creates the file
+		file.delete();
+		buffer = new PostprocessorBuffer("pp", file, 10, 3);
+		buffer.addListener(new IPostprocessorListener() {
+			@Override
+			public void pointsAppended(PostprocessorBuffer buffer,
+					double[] times, double[] values) {
+				appendedTimes.add(times);
+				appendedValues.add(values);
+			}
+		});
+
+		// Nothing is written until three points are pending
+		assertEquals(0, buffer.add(0.0, 1.0));
+		assertEquals(0, buffer.add(1.0, 2.0));
+		assertEquals(2, buffer.getPendingCount());
+		assertEquals(0, appendedTimes.size());
+		assertEquals(3, buffer.add(2.0, 3.0));
+		assertEquals(0, buffer.getPendingCount());
+
+		// Flushing writes the rest
+		assertEquals(0, buffer.add(3.0, 4.0));
+		assertEquals(1, buffer.flush());
+		assertEquals(0, buffer.flush());
+
+		// Check the file
+		lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+		assertEquals(5, lines.size());
+		assertEquals("Time, pp", lines.get(0));
+		assertEquals("0.0, 1.0", lines.get(1));
+		assertEquals("3.0, 4.0", lines.get(4));
+
+		// The listener only received the appended points
+		assertEquals(2, appendedTimes.size());
+		assertArrayEquals(new double[] { 0.0, 1.0, 2.0 },
+				appendedTimes.get(0), 0.0);
+		assertArrayEquals(new double[] { 1.0, 2.0, 3.0 },
+				appendedValues.get(0), 0.0);
+		assertArrayEquals(new double[] { 3.0 }, appendedTimes.get(1), 0.0);
+		assertArrayEquals(new double[] { 4.0 }, appendedValues.get(1), 0.0);
+
+		file.delete();
+
+		return;
+	}
+
+	/**
+	 * This operation checks that only the last points are kept in memory while
+	 * every point is written to the file.
+	 */
+	@Test
+	public void checkRing() throws IOException {
+
+		// Local Declarations
+		File file = File.createTempFile("postprocessor", ".csv");
+		PostprocessorBuffer buffer;
+		List<String> lines;
+
+		// Points are added to an existing file without a header. The
+		// threshold is limited to the capacity.
+		buffer = new PostprocessorBuffer("pp", file, 4, 100);
+		for (int i = 0; i < 10; i++) {
+			buffer.add(i, 10.0 * i);
+		}
+		assertEquals(2, buffer.flush());
+
+		assertEquals(4, buffer.getCapacity());
+		assertEquals(4, buffer.getSize());
+		assertEquals(10, buffer.getAddedCount());
+		assertArrayEquals(new double[] { 6.0, 7.0, 8.0, 9.0 },
+				buffer.getTimes(), 0.0);
+		assertArrayEquals(new double[] { 60.0, 70.0, 80.0, 90.0 },
+				buffer.getValues(), 0.0);
+
+		lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+		assertEquals(10, lines.size());
+		assertEquals("0.0, 0.0", lines.get(0));
+		assertEquals("9.0, 90.0", lines.get(9));
+
+		file.delete();
+
+		return;
+	}
+}
@@ -12,6 +12,7 @@
  *******************************************************************************/
 package org.eclipse.ice.kdd.test;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -23,6 +24,7 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Random;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IFolder;
@@ -196,4 +198,61 @@ public class ClusterKDDMatrixTester {
 		assertEquals(1000, matrix.getNumberOfClusterElements(1));
 
 	}
+
+	/**
+	 * <p>
+	 * This operation checks that clustering is repeatable for a given seed and
+	 * that it finds well separated clusters that are big enough to be split
+	 * between several tasks.
+	 * </p>
+	 */
+	@Test
+	public void checkDeterministicCluster() {
+
+		// Local Declarations
+		int nPoints = 30000, nDims = 4, nBlobs = 3;
+		ArrayList<Double> elements = new ArrayList<Double>();
+		Random random = new Random(7);
+
+		// Create three blobs of points around 0, 100 and 200
+		for (int i = 0; i < nPoints; i++) {
+			for (int j = 0; j < nDims; j++) {
+				elements.add(100.0 * (i % nBlobs) + random.nextGaussian());
+			}
+		}
+
+		// Cluster two copies with the same seed
+		ClusterKDDMatrix first = new ClusterKDDMatrix(elements, nPoints, nDims);
+		ClusterKDDMatrix second = new ClusterKDDMatrix(elements, nPoints,
+				nDims);
+		first.cluster(nBlobs, 20);
+		second.cluster(nBlobs, 20);
+		assertArrayEquals(first.getClusterAssignments(),
+				second.getClusterAssignments());
+
+		// Every blob should be in its own cluster
+		int[] assignments = first.getClusterAssignments();
+		boolean[] used = new boolean[nBlobs];
+		for (int i = 0; i < nBlobs; i++) {
+			assertEquals(nPoints / nBlobs, first.getNumberOfClusterElements(i));
+			used[assignments[i]] = true;
+		}
+		for (int i = 0; i < nPoints; i++) {
+			assertEquals(assignments[i % nBlobs], assignments[i]);
+		}
+		assertTrue(used[0] && used[1] && used[2]);
+
+		// A different seed should find the same blobs
+		second.setSeed(ClusterKDDMatrix.DEFAULT_SEED + 1);
+		second.cluster(nBlobs, 20);
+		int[] otherAssignments = second.getClusterAssignments();
+		for (int i = 0; i < nPoints; i++) {
+			assertEquals(otherAssignments[i % nBlobs], otherAssignments[i]);
+		}
+		for (int i = 0; i < nBlobs; i++) {
+			assertEquals(nPoints / nBlobs, second.getNumberOfClusterElements(i));
+		}
+
+		return;
+	}
 }
\ No newline at end of file
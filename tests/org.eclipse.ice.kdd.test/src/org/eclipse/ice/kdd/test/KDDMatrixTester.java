@@ -542,6 +542,85 @@ public class KDDMatrixTester {
 		
 	}
 	
+	/**
+	 * <p>
+	 * This operation checks the primitive accessors and the array kernels of
+	 * the KDDMatrix against the element by element operations.
+	 * </p>
+	 */
+	@Test
+	public void checkPrimitiveKernels() {
+
+		// Local Declarations
+		int rows = 37, cols = 53;
+		double[] values = new double[rows * cols];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = i + 1.0;
+		}
+		KDDMatrix m = new KDDMatrix(values.clone(), rows, cols);
+		KDDMatrix other = new KDDMatrix(values.clone(), rows, cols);
+
+		// Check the primitive accessors
+		assertEquals(cols + 3.0, m.get(1, 2), 0.0);
+		assertTrue(m.getElement(1, 2).equals(m.get(1, 2)));
+		m.set(1, 2, -1.0);
+		assertTrue(m.getElement(1, 2).equals(-1.0));
+		m.set(1, 2, cols + 3.0);
+		double[] row = new double[cols];
+		m.getRow(4, row);
+		assertEquals(4.0 * cols + 1.0, row[0], 0.0);
+		assertEquals(rows, m.getElements().length / cols);
+		assertNull(m.getRow(rows));
+
+		// Add and subtract
+		assertTrue(m.add(other));
+		assertEquals(2.0 * values[values.length - 1], m.get(rows - 1, cols - 1),
+				0.0);
+		assertTrue(m.subtract(other));
+		assertTrue(m.equals(other));
+		assertEquals(m.hashCode(), other.hashCode());
+
+		// Normalize the columns
+		m.columnNormalize();
+		for (int j = 0; j < cols; j++) {
+			double sum = 0.0;
+			for (int i = 0; i < rows; i++) {
+				sum += m.get(i, j);
+			}
+			assertEquals(1.0, sum, 1.0e-12);
+		}
+
+		// Transpose a matrix that is bigger than one block
+		m = new KDDMatrix(values.clone(), rows, cols);
+		m.transpose();
+		assertEquals(cols, m.numberOfRows());
+		assertEquals(rows, m.numberOfColumns());
+		for (int i = 0; i < rows; i++) {
+			for (int j = 0; j < cols; j++) {
+				assertEquals(values[cols * i + j], m.get(j, i), 0.0);
+			}
+		}
+		m.transpose();
+		assertTrue(m.equals(other));
+
+		// Add and remove many rows and columns
+		m = new KDDMatrix(2, 2);
+		for (int i = 0; i < 100; i++) {
+			m.addRow();
+			m.set(i + 2, 1, i);
+		}
+		assertEquals(102, m.numberOfRows());
+		assertEquals(3, m.addColumn());
+		assertEquals(99.0, m.get(101, 1), 0.0);
+		assertEquals(0.0, m.get(101, 2), 0.0);
+		assertTrue(m.deleteColumn());
+		assertTrue(m.deleteColumn());
+		assertEquals(0.0, m.get(50, 0), 0.0);
+		assertEquals(1, m.numberOfColumns());
+
+		return;
+	}
+
 	/**
 	 * <p>
 	 * Tests that we can pull row and column vectors from this Matrix
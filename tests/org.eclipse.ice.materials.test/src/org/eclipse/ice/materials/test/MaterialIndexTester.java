@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.materials.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.ice.datastructures.form.Material;
+import org.eclipse.ice.materials.MaterialIndex;
+import org.eclipse.ice.materials.MaterialSnapshot;
+import org.junit.Test;
+
+/**
+ * This class is responsible for testing the MaterialIndex and the
+ * MaterialSnapshot that the XMLMaterialsDatabase uses to query and load its
+ * materials.
+ */
+public class MaterialIndexTester {
+
+	/**
+	 * This operation creates an elemental Material.
+	 *
+	 * @param name
+	 *            The name of the Material
+	 * @param mass
+	 *            The atomic mass of the Material
+	 * @return The Material
+	 */
+	private Material createElement(String name, double mass) {
+		Material material = new Material();
+		material.setName(name);
+		material.setProperty(Material.ATOMIC_MASS, mass);
+		return material;
+	}
+
+	/**
+	 * This operation creates a list of iron isotopes, two other elements and
+	 * two compounds.
+	 *
+	 * @return The Materials
+	 */
+	private List<Material> createMaterials() {
+
+		// Local Declarations
+		List<Material> materials = new ArrayList<Material>();
+
+		materials.add(createElement("56Fe", 55.93));
+		materials.add(createElement("Fe", 55.85));
+		materials.add(createElement("54Fe", 53.94));
+		materials.add(createElement("F", 19.0));
+		materials.add(createElement("H", 1.008));
+		materials.add(TestMaterialFactory.createH2O());
+		materials.add(TestMaterialFactory.createCO2());
+
+		return materials;
+	}
+
+	/**
+	 * This operation checks the queries of the index.
+	 */
+	@Test
+	public void checkQueries() {
+
+		// Local Declarations
+		MaterialIndex index = new MaterialIndex(createMaterials());
+		List<Material> found;
+
+		// The Materials are sorted by name, ignoring case
+		assertEquals(7, index.getMaterials().size());
+		assertEquals("54Fe", index.getMaterials().get(0).getName());
+		assertEquals("H2O", index.getMaterials().get(6).getName());
+
+		// Check the prefixes
+		found = index.findByNamePrefix("f");
+		assertEquals(2, found.size());
+		assertEquals("F", found.get(0).getName());
+		assertEquals("Fe", found.get(1).getName());
+		assertEquals(2, index.findByNamePrefix("H").size());
+		assertEquals(7, index.findByNamePrefix("").size());
+		assertTrue(index.findByNamePrefix("Zr").isEmpty());
+
+		// Check the isotopes
+		found = index.getIsotopes("fe");
+		assertEquals(3, found.size());
+		assertEquals("Fe", found.get(0).getName());
+		assertEquals("54Fe", found.get(1).getName());
+		assertEquals("56Fe", found.get(2).getName());
+		assertTrue(index.getIsotopes("H2O").isEmpty());
+
+		// Check the property ranges
+		found = index.findByPropertyRange(Material.ATOMIC_MASS, 19.0, 55.9);
+		assertEquals(3, found.size());
+		assertEquals("F", found.get(0).getName());
+		assertEquals("54Fe", found.get(1).getName());
+		assertEquals("Fe", found.get(2).getName());
+		assertTrue(index.findByPropertyRange(Material.ATOMIC_MASS, 60.0, 70.0)
+				.isEmpty());
+		assertTrue(index.findByPropertyRange("unknown", 0.0, 1.0).isEmpty());
+		assertEquals(2,
+				index.findByPropertyRange("molar mass (g/mol)", 0.0, 100.0)
+						.size());
+
+		// Check the columns
+		assertEquals(55.85, index.getProperty("Fe", Material.ATOMIC_MASS), 0.0);
+		assertTrue(Double.isNaN(index.getProperty("H2O", Material.ATOMIC_MASS)));
+		assertTrue(index.getPropertyNames().contains("vapor pressure (MPa)"));
+
+		return;
+	}
+
+	/**
+	 * This operation checks that snapshots are read back and that they are
+	 * ignored once the XML file changes.
+	 */
+	@Test
+	public void checkSnapshot() throws IOException {
+
+		// Local Declarations
+		File xmlFile = File.createTempFile("materials", ".xml");
+		List<Material> materials = createMaterials();
+		List<Material> loadedMaterials;
+		FileOutputStream output;
+
+		try {
+			// There is no snapshot yet
+			assertNull(MaterialSnapshot.read(xmlFile));
+
+			// Write and read it
+			MaterialSnapshot.write(xmlFile, materials);
+			loadedMaterials = MaterialSnapshot.read(xmlFile);
+			assertEquals(materials, loadedMaterials);
+			assertEquals(2, loadedMaterials.get(6).getComponents().size());
+
+			// Change the XML file
+			output = new FileOutputStream(xmlFile);
+			output.write("<ICEList/>".getBytes("UTF-8"));
+			output.close();
+			assertNull(MaterialSnapshot.read(xmlFile));
+		} finally {
+			MaterialSnapshot.getSnapshotFile(xmlFile).delete();
+			xmlFile.delete();
+		}
+
+		return;
+	}
+}
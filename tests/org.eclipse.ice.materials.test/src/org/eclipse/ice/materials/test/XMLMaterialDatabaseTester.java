@@ -28,6 +28,7 @@ import javax.xml.bind.Marshaller;
 
 import org.eclipse.ice.datastructures.ICEObject.ICEList;
 import org.eclipse.ice.datastructures.form.Material;
+import org.eclipse.ice.materials.MaterialSnapshot;
 import org.eclipse.ice.materials.MaterialWritableTableFormat;
 import org.eclipse.ice.materials.XMLMaterialsDatabase;
 import org.junit.AfterClass;
@@ -95,6 +96,9 @@ public class XMLMaterialDatabaseTester {
 		if (defaultTestFile.exists()) {
 			defaultTestFile.delete();
 		}
+		// Delete the snapshots of both files
+		MaterialSnapshot.getSnapshotFile(userTestFile).delete();
+		MaterialSnapshot.getSnapshotFile(defaultTestFile).delete();
 	}
 
 	/**
@@ -189,10 +193,20 @@ public class XMLMaterialDatabaseTester {
 			// Restart the service and make sure that it loads the modified list
 			// of materials, not the default list.
 			database.stop();
+			assertTrue(MaterialSnapshot.getSnapshotFile(userTestFile).isFile());
 			database.start();
 			List<Material> reloadedMaterials = database.getMaterials();
 			assertTrue(reloadedMaterials.equals(databaseMaterials));
 
+			// The index was rebuilt from the reloaded materials
+			assertEquals(1, database.findMaterialsByPrefix("phuture").size());
+			assertEquals("CO2", database.findMaterialsByPrefix("co").get(0)
+					.getName());
+			assertEquals(2, database.findMaterialsByProperty(
+					"molar mass (g/mol)", 18.0, 19.0).size());
+			assertTrue(database.findMaterialsByProperty("molar mass (g/mol)",
+					40.0, 50.0).isEmpty());
+
 			// Restore the defaults and reload the service, again making sure it
 			// now has the default list.
 			database.restoreDefaults();
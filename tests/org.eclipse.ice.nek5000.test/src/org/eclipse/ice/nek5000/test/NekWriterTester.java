@@ -14,6 +14,7 @@ package org.eclipse.ice.nek5000.test;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -22,13 +23,16 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.FileReader;
+import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
 
 import org.eclipse.ice.datastructures.ICEObject.Component;
+import org.eclipse.ice.datastructures.form.MeshComponent;
 import org.eclipse.ice.nek5000.NekReader;
 import org.eclipse.ice.nek5000.NekWriter;
 import org.eclipse.ice.nek5000.ProblemProperties;
+import org.eclipse.ice.viz.service.mesh.datastructures.Quad;
 import org.junit.Test;
 
 /**
@@ -1077,4 +1081,103 @@ public class NekWriterTester {
 		return;
 	}
 
+	/**
+	 * Tests writing the mesh of the conj_ht example to a .re2 file and reading
+	 * it back, both directly and through a reafile whose NEL is negative.
+	 */
+	@Test
+	public void checkRe2File() {
+
+		// Local declarations
+		NekWriter writer = new NekWriter();
+		NekReader reader = new NekReader();
+		String separator = System.getProperty("file.separator");
+		String userDir = System.getProperty("user.home") + separator
+				+ "ICETests" + separator + "nek5000Data";
+		File exampleFile = new File(userDir + separator + "conj_ht.rea");
+		File reaFile = new File(userDir + separator + "conj_ht_Re2Test.rea");
+		File re2File = new File(userDir + separator + "conj_ht_Re2Test.re2");
+		ArrayList<Component> components = null;
+		ArrayList<Component> re2Components = null;
+		MeshComponent re2Mesh = null;
+		ProblemProperties properties = new ProblemProperties(2, 64, 32, 0);
+
+		try {
+			// Write the mesh of the example to the .re2 file
+			components = reader.loadREAFile(exampleFile);
+			writer.writeRe2File(components, re2File, properties);
+			assertTrue(re2File.isFile());
+
+			// Read it back directly
+			re2Mesh = reader.loadRE2File(re2File, true, true);
+
+			// Write a copy of the example whose mesh is in the .re2 file
+			FileWriter fileWriter = new FileWriter(reaFile);
+			for (String line : reader.readFileLines(exampleFile)) {
+				if (line.contains("NEL,NDIM,NELV")) {
+					line = line.replaceFirst("(\\d+)", "-$1");
+				}
+				fileWriter.write(line + "\n");
+			}
+			fileWriter.close();
+			re2Components = reader.loadREAFile(reaFile);
+
+			// Invalid files are not read
+			assertNull(reader.loadRE2File(null, true, true));
+			assertNull(reader.loadRE2File(new File(userDir), true, true));
+		} catch (IOException e) {
+			e.printStackTrace();
+			fail("Failed to write or read conj_ht_Re2Test.re2");
+		} finally {
+			reaFile.delete();
+			re2File.delete();
+		}
+
+		// Both meshes should match the mesh of the example
+		assertEquals(64, reader.getLastProperties().getNumThermalElements());
+		assertEquals(32, reader.getLastProperties().getNumFluidElements());
+		checkSameMesh((MeshComponent) components.get(4), re2Mesh);
+		checkSameMesh((MeshComponent) components.get(4),
+				(MeshComponent) re2Components.get(4));
+
+		return;
+	}
+
+	/**
+	 * Checks that the elements of a mesh read from a .re2 file have the same
+	 * vertices, group numbers and boundary conditions as the elements of the
+	 * mesh read from a reafile. Material IDs are not stored in .re2 files.
+	 * 
+	 * @param mesh
+	 *            The mesh read from the reafile.
+	 * @param re2Mesh
+	 *            The mesh read from the .re2 file.
+	 */
+	private void checkSameMesh(MeshComponent mesh, MeshComponent re2Mesh) {
+
+		// Local declarations
+		Quad quad, re2Quad;
+		int edgeId;
+
+		assertNotNull(re2Mesh);
+		assertEquals(mesh.getPolygons().size(), re2Mesh.getPolygons().size());
+		for (int i = 1; i <= mesh.getPolygons().size(); i++) {
+			quad = (Quad) mesh.getPolygon(i);
+			re2Quad = (Quad) re2Mesh.getPolygon(i);
+			assertEquals(quad.getVertices(), re2Quad.getVertices());
+			assertEquals(quad.getPolygonProperties().getGroupNum(), re2Quad
+					.getPolygonProperties().getGroupNum());
+			for (int j = 0; j < 4; j++) {
+				edgeId = quad.getEdges().get(j).getId();
+				assertEquals(edgeId, re2Quad.getEdges().get(j).getId());
+				assertEquals(quad.getFluidBoundaryCondition(edgeId),
+						re2Quad.getFluidBoundaryCondition(edgeId));
+				assertEquals(quad.getThermalBoundaryCondition(edgeId),
+						re2Quad.getThermalBoundaryCondition(edgeId));
+			}
+		}
+
+		return;
+	}
+
 }
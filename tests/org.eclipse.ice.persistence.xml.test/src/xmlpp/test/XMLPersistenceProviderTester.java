@@ -41,6 +41,7 @@ import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.Path;
+import org.eclipse.ice.datastructures.ICEObject.Identifiable;
 import org.eclipse.ice.datastructures.form.Form;
 import org.eclipse.ice.datastructures.jaxbclassprovider.ICEJAXBClassProvider;
 import org.eclipse.ice.item.Item;
@@ -372,6 +373,62 @@ public class XMLPersistenceProviderTester {
 		return;
 	}
 
+	/**
+	 * This operation checks that repeated persists of the same Item are
+	 * collapsed into one write of its latest state and that the index lists
+	 * the persisted Items without loading them.
+	 */
+	@Test
+	public void checkIndex() {
+
+		// Local Declarations
+		MOOSEModelBuilder builder = new MOOSEModelBuilder();
+		Item item = builder.build(project);
+		boolean found = false;
+
+		// Persist the Item many times, changing it between persists
+		item.setId(6);
+		for (int i = 0; i < 50; i++) {
+			item.setDescription("Description " + i);
+			assertTrue(xmlpp.persistItem(item));
+		}
+
+		// Wait while the file is persisted.
+		pause(2);
+
+		// The latest state should be on disk
+		Item loadedItem = xmlpp.loadItem(6);
+		assertNotNull(loadedItem);
+		assertEquals("Description 49", loadedItem.getDescription());
+
+		// Check the index
+		ArrayList<Identifiable> index = xmlpp.loadItemIndex();
+		assertNotNull(index);
+		for (int i = 0; i < index.size(); i++) {
+			Identifiable entry = index.get(i);
+			// The entries should be sorted by id
+			if (i > 0) {
+				assertTrue(index.get(i - 1).getId() < entry.getId());
+			}
+			if (entry.getId() == 6) {
+				assertEquals(item.getName(), entry.getName());
+				assertEquals("Description 49", entry.getDescription());
+				found = true;
+			}
+		}
+		assertTrue(found);
+		assertTrue(checkPersistedFile("itemIndex.properties"));
+
+		// Deleting the Item should remove it from the index
+		assertTrue(xmlpp.deleteItem(item));
+		pause(2);
+		for (Identifiable entry : xmlpp.loadItemIndex()) {
+			assertFalse(entry.getId() == 6);
+		}
+
+		return;
+	}
+
 	/**
 	 * This operation insures that IWriter interface is implemented as described
 	 * by the XML persistence provider and that the operations function.
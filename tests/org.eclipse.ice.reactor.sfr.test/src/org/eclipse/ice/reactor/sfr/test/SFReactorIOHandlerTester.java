@@ -256,4 +256,67 @@ public class SFReactorIOHandlerTester {
 
 		return;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * <p>
+	 * Checks that data written in both layouts, one dataset per time or one
+	 * packed dataset per feature, can be read both eagerly and lazily.
+	 * </p>
+	 */
+	@Test
+	public void checkLazyAndPackedData() {
+
+		// Input/Output files for this test.
+		String s = System.getProperty("file.separator");
+		String directory = System.getProperty("user.dir") + s
+				+ "ICEIOTestDirectory" + s;
+		String path = directory + "fromJavaPacked.h5";
+		URI uri = new File(path).toURI();
+
+		// Create a small reactor with random data and the IO handler.
+		SFReactorFactory factory = new SFReactorFactory();
+		SFReactor reactor = factory.generatePopulatedFullCoreReactor(0, 0, 3,
+				4, 5, 42, true, true);
+		SFReactor loadedReactor;
+		SFReactorIOHandler handler = new SFReactorIOHandler();
+
+		// Lazy loading and packing are off by default.
+		assertFalse(handler.isLazyLoading());
+		assertFalse(handler.isPackedData());
+
+		for (boolean packed : new boolean[] { false, true }) {
+			// Write the reactor in the current layout.
+			handler.setPackedData(packed);
+			assertEquals(packed, handler.isPackedData());
+			handler.writeHDF5(uri, reactor);
+
+			// Read all of the data up front.
+			handler.setLazyLoading(false);
+			loadedReactor = handler.readHDF5(uri);
+			assertEquals(reactor, loadedReactor);
+
+			// Read the data on demand through a small cache. The data should
+			// be the same when it is read again after being evicted.
+			handler.setLazyLoading(true);
+			handler.setCacheCapacity(10);
+			assertEquals(10, handler.getCacheCapacity());
+			loadedReactor = handler.readHDF5(uri);
+			assertEquals(reactor, loadedReactor);
+			assertEquals(loadedReactor, reactor);
+
+			// Write the lazily-read reactor back to its own file in the other
+			// layout. Neither the file nor the reactor should lose its data.
+			handler.setPackedData(!packed);
+			handler.writeHDF5(uri, loadedReactor);
+			assertEquals(reactor, loadedReactor);
+			handler.setLazyLoading(false);
+			assertEquals(reactor, handler.readHDF5(uri));
+			assertFalse(new File(path + ".tmp").exists());
+		}
+
+		// Delete the .h5 file produced by this test.
+		new File(path).delete();
+
+		return;
+	}
+}
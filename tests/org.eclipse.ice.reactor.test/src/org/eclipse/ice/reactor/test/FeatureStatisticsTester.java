@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.reactor.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.ice.analysistool.FeatureStatistics;
+import org.eclipse.ice.analysistool.FeatureStatistics.Summary;
+import org.eclipse.ice.analysistool.IDataProvider;
+import org.eclipse.ice.reactor.LWRComponent;
+import org.eclipse.ice.reactor.LWRData;
+import org.eclipse.ice.reactor.LWRDataProvider;
+import org.junit.Test;
+
+/**
+ * <p>
+ * A class that tests the FeatureStatistics index built from LWR data
+ * providers.
+ * </p>
+ */
+public class FeatureStatisticsTester {
+
+	/**
+	 * <p>
+	 * Checks that the index holds the statistics of every provider at every
+	 * time and axial level, for both the tree and the columnar stores.
+	 * </p>
+	 */
+	@Test
+	public void checkBuild() {
+
+		// Local Declarations
+		List<IDataProvider> providers = new ArrayList<IDataProvider>();
+		LWRDataProvider tree = new LWRDataProvider();
+		LWRDataProvider columns = new LWRDataProvider(true);
+		FeatureStatistics statistics;
+		Summary summary;
+
+		// Add three levels to each provider at time 0 and one level at time 1
+		tree.addData("Pin Power", 0.0, new double[] { 1.0, 2.0, 3.0 }, null,
+				null, "W");
+		columns.addData("Pin Power", 0.0, new double[] { -1.0, 4.0, 5.0 },
+				null, null, "W");
+		columns.addData("Pin Power", 1.0, new double[] { 10.0 }, null, null,
+				"W");
+		tree.addData("Temperature", 0.0, new double[] { 300.0 }, null, null,
+				"K");
+		providers.add(tree);
+		providers.add(columns);
+		providers.add(null);
+		providers.add(tree);
+
+		statistics = FeatureStatistics.build(providers);
+
+		// Check the features and levels
+		assertEquals(2, statistics.getFeatures().size());
+		assertEquals(3, statistics.getLevelCount("Pin Power", 0.0));
+		assertEquals(1, statistics.getLevelCount("Pin Power", 1.0));
+		assertEquals(1, statistics.getLevelCount("Temperature", 0.0));
+		assertEquals(0, statistics.getLevelCount("Temperature", 1.0));
+
+		// Check a single level. The duplicate provider is only read once.
+		summary = statistics.getSummary("Pin Power", 0.0, 0);
+		assertEquals(2, summary.getCount());
+		assertEquals(-1.0, summary.getMin(), 0.0);
+		assertEquals(1.0, summary.getMax(), 0.0);
+		assertEquals(0.0, summary.getMean(), 0.0);
+
+		// Check all of the levels
+		summary = statistics.getSummary("Pin Power", 0.0);
+		assertEquals(6, summary.getCount());
+		assertEquals(-1.0, summary.getMin(), 0.0);
+		assertEquals(5.0, summary.getMax(), 0.0);
+		assertEquals(14.0 / 6.0, summary.getMean(), 1e-12);
+
+		// Check the other time and missing entries
+		assertEquals(10.0, statistics.getSummary("Pin Power", 1.0).getMax(),
+				0.0);
+		assertNull(statistics.getSummary("Pin Power", 1.0, 1));
+		assertNull(statistics.getSummary("Pin Power", 2.0));
+		assertNull(statistics.getSummary("Flux", 0.0, 0));
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * Checks that data added to the providers after the index is built is
+	 * added to the index at the next axial level, and that disposing of the
+	 * index stops the updates.
+	 * </p>
+	 */
+	@Test
+	public void checkIncrementalUpdates() {
+
+		// Local Declarations
+		List<IDataProvider> providers = new ArrayList<IDataProvider>();
+		LWRComponent component = new LWRComponent("Rod");
+		LWRComponent columnar = new LWRComponent("Columnar Rod");
+		LWRData data = new LWRData("Pin Power");
+		FeatureStatistics statistics;
+		Summary summary;
+
+		columnar.useColumnarStore();
+		data.setValue(2.0);
+		component.addData(data, 0.0);
+		providers.add(component);
+		providers.add(columnar);
+		statistics = FeatureStatistics.build(providers);
+		assertEquals(1, statistics.getLevelCount("Pin Power", 0.0));
+
+		// Add a second level to the first component. It should be level 1.
+		data = new LWRData("Pin Power");
+		data.setValue(7.0);
+		component.addData(data, 0.0);
+		assertEquals(2, statistics.getLevelCount("Pin Power", 0.0));
+		assertEquals(7.0, statistics.getSummary("Pin Power", 0.0, 1)
+				.getMin(), 0.0);
+
+		// Add a block to the columnar component. It starts at level 0.
+		columnar.addData("Pin Power", 0.0, new double[] { -3.0, 9.0, 4.0 },
+				null, null, "W");
+		assertEquals(3, statistics.getLevelCount("Pin Power", 0.0));
+		summary = statistics.getSummary("Pin Power", 0.0, 0);
+		assertEquals(2, summary.getCount());
+		assertEquals(-3.0, summary.getMin(), 0.0);
+		assertEquals(2.0, summary.getMax(), 0.0);
+		summary = statistics.getSummary("Pin Power", 0.0, 1);
+		assertEquals(9.0, summary.getMax(), 0.0);
+		assertEquals(8.0, summary.getMean(), 0.0);
+
+		// Once the index is disposed, it is no longer updated.
+		statistics.dispose();
+		data = new LWRData("Pin Power");
+		data.setValue(100.0);
+		component.addData(data, 0.0);
+		assertEquals(3, statistics.getLevelCount("Pin Power", 0.0));
+		assertEquals(9.0, statistics.getSummary("Pin Power", 0.0).getMax(),
+				0.0);
+
+		// Removing a feature from the index removes it at all times.
+		assertTrue(statistics.removeFeature("Pin Power"));
+		assertEquals(0, statistics.getFeatures().size());
+
+		return;
+	}
+}
@@ -17,6 +17,9 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.ArrayList;
+
+import org.eclipse.ice.analysistool.IData;
 import org.eclipse.ice.reactor.LWRData;
 import org.eclipse.ice.reactor.LWRDataProvider;
 import org.junit.Test;
@@ -379,4 +382,78 @@ public class LWRDataProviderTester {
 		assertFalse(object.hashCode() == unEqualObject.hashCode());
 
 	}
-}
\ No newline at end of file
+
+	/**
+	 * <p>
+	 * Checks that the columnar store and the bulk addData operation behave
+	 * the same as the default tree of LWRData.
+	 * </p>
+	 * 
+	 */
+	@Test
+	public void checkColumnarStore() {
+
+		// Local Declarations
+		LWRDataProvider tree = new LWRDataProvider();
+		LWRDataProvider columnar = new LWRDataProvider(true);
+		double[] values = { 1.0, 2.0, 3.0 };
+		double[] uncertainties = { 0.1, 0.2, 0.3 };
+		double[] positions = { 0, 0, 1, 0, 0, 2, 0, 0, 3 };
+
+		// Check the defaults
+		assertFalse(tree.isColumnar());
+		assertTrue(columnar.isColumnar());
+
+		// Add the same data to both providers
+		tree.addData("Pin Power", 2.0, values, uncertainties, positions, "W");
+		columnar.addData("Pin Power", 2.0, values, uncertainties, positions,
+				"W");
+		tree.addData(new LWRData("Temperature"), 1.0);
+		columnar.addData(new LWRData("Temperature"), 1.0);
+
+		// Check the times and features
+		assertEquals(tree.getTimes(), columnar.getTimes());
+		assertEquals(tree.getNumberOfTimeSteps(),
+				columnar.getNumberOfTimeSteps());
+		assertEquals(1, columnar.getTimeStep(2.0));
+		assertEquals(1, tree.getTimeStep(2.0));
+		assertEquals(-1, columnar.getTimeStep(3.0));
+		assertEquals(2, columnar.getFeatureList().size());
+
+		// Check the data at each time
+		for (double time : tree.getTimes()) {
+			tree.setTime(time);
+			columnar.setTime(time);
+			assertEquals(tree.getFeaturesAtCurrentTime(),
+					columnar.getFeaturesAtCurrentTime());
+			for (String feature : tree.getFeaturesAtCurrentTime()) {
+				ArrayList<IData> treeData = tree.getDataAtCurrentTime(feature);
+				ArrayList<IData> columnData = columnar
+						.getDataAtCurrentTime(feature);
+				assertEquals(treeData, columnData);
+			}
+		}
+
+		// Switching the tree to the columnar store keeps its data
+		tree.useColumnarStore();
+		assertTrue(tree.isColumnar());
+		assertTrue(tree.equals(columnar));
+		assertEquals(tree.hashCode(), columnar.hashCode());
+
+		// Copies keep the columnar store
+		LWRDataProvider copy = (LWRDataProvider) columnar.clone();
+		assertTrue(copy.isColumnar());
+		assertTrue(copy.equals(columnar));
+
+		// Remove a feature
+		columnar.removeAllDataFromFeature("Temperature");
+		assertEquals(1, columnar.getFeatureList().size());
+		assertFalse(copy.equals(columnar));
+
+		// Invalid bulk data is ignored
+		columnar.addData("Pin Power", 2.0, values, new double[1], null, "W");
+		columnar.setTime(2.0);
+		assertEquals(3, columnar.getDataAtCurrentTime("Pin Power").size());
+
+	}
+}
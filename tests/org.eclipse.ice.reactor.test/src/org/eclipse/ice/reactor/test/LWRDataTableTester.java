@@ -0,0 +1,217 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.reactor.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+
+import org.eclipse.ice.analysistool.IData;
+import org.eclipse.ice.reactor.LWRData;
+import org.eclipse.ice.reactor.LWRDataTable;
+import org.junit.Test;
+
+/**
+ * <p>
+ * A class that tests the operations on LWRDataTable.
+ * </p>
+ */
+public class LWRDataTableTester {
+
+	/**
+	 * <p>
+	 * Checks that single IData and blocks of values can be added and read
+	 * back at the correct times.
+	 * </p>
+	 */
+	@Test
+	public void checkAddData() {
+
+		// Local Declarations
+		LWRDataTable table = new LWRDataTable();
+		LWRData data = new LWRData("Pin Power");
+		ArrayList<Double> position = new ArrayList<Double>();
+		double[] values = { 1.0, 2.0, 3.0 };
+		double[] uncertainties = { 0.1, 0.2, 0.3 };
+		double[] positions = { 0, 0, 1, 0, 0, 2, 0, 0, 3 };
+
+		// Check the default state
+		assertEquals(0, table.getNumberOfTimeSteps());
+		assertEquals(0, table.getFeatureList().size());
+		assertEquals(-1, table.getTimeStep(0.0));
+		assertEquals(0, table.getData(0.0, "Pin Power").size());
+
+		// Add a single IData
+		data.setValue(5.0);
+		data.setUncertainty(0.5);
+		data.setUnits("W");
+		position.add(1.0);
+		position.add(2.0);
+		position.add(3.0);
+		data.setPosition(position);
+		table.addData(data, 2.0);
+
+		// Check it
+		assertEquals(1, table.getNumberOfTimeSteps());
+		assertEquals(0, table.getTimeStep(2.0));
+		assertEquals(1, table.getSize(2.0, "Pin Power"));
+		assertTrue(data.equals(table.getData(2.0, "Pin Power").get(0)));
+
+		// Add a block at an earlier time. The times should stay sorted.
+		assertTrue(table.addData("Pin Power", 1.0, values, uncertainties,
+				positions, "W"));
+		assertEquals(2, table.getNumberOfTimeSteps());
+		assertEquals(0, table.getTimeStep(1.0));
+		assertEquals(1, table.getTimeStep(2.0));
+		assertEquals(1.0, table.getTimes().get(0), 0.0);
+		assertEquals(2.0, table.getTimes().get(1), 0.0);
+
+		// Check the block
+		ArrayList<IData> dataList = table.getData(1.0, "Pin Power");
+		assertEquals(3, dataList.size());
+		for (int i = 0; i < 3; i++) {
+			IData iData = dataList.get(i);
+			assertEquals("Pin Power", iData.getFeature());
+			assertEquals(values[i], iData.getValue(), 0.0);
+			assertEquals(uncertainties[i], iData.getUncertainty(), 0.0);
+			assertEquals("W", iData.getUnits());
+			assertEquals(positions[3 * i + 2], iData.getPosition().get(2), 0.0);
+		}
+
+		// Append to the same feature with different units and a second
+		// feature at the same time.
+		table.addData("Pin Power", 1.0, new double[] { 4.0 }, null, null,
+				"kW");
+		table.addData("Temperature", 1.0, new double[] { 500.0 }, null, null,
+				null);
+		dataList = table.getData(1.0, "Pin Power");
+		assertEquals(4, dataList.size());
+		assertEquals("W", dataList.get(0).getUnits());
+		assertEquals("kW", dataList.get(3).getUnits());
+		assertEquals(0.0, dataList.get(3).getUncertainty(), 0.0);
+		assertEquals("seconds", table.getData(1.0, "Temperature").get(0)
+				.getUnits());
+
+		// Check the features
+		assertEquals(2, table.getFeatureList().size());
+		assertEquals("Pin Power", table.getFeatures(1.0).get(0));
+		assertEquals("Temperature", table.getFeatures(1.0).get(1));
+		assertEquals(1, table.getFeatures(2.0).size());
+
+		// Copy the columns out directly
+		double[] copiedValues = new double[4];
+		String[] copiedUnits = new String[4];
+		assertEquals(4, table.copyData(1.0, "Pin Power", copiedValues, null,
+				copiedUnits, null));
+		assertEquals(4.0, copiedValues[3], 0.0);
+		assertEquals("kW", copiedUnits[3]);
+
+		// Check invalid parameters
+		assertFalse(table.addData(null, 1.0, values, null, null, "W"));
+		assertFalse(table.addData("Pin Power", -1.0, values, null, null, "W"));
+		assertFalse(table.addData("Pin Power", 1.0, values,
+				new double[] { 1.0 }, null, "W"));
+		assertFalse(table.addData("Pin Power", 1.0, values, null,
+				new double[] { 1.0 }, "W"));
+		table.addData(null, 1.0);
+		assertEquals(4, table.getSize(1.0, "Pin Power"));
+		assertEquals(0, table.getData(3.0, "Pin Power").size());
+		assertEquals(0, table.getData(1.0, null).size());
+
+		// Remove a feature
+		assertTrue(table.removeFeature("Temperature"));
+		assertFalse(table.removeFeature("Temperature"));
+		assertEquals(1, table.getFeatureList().size());
+		assertEquals(1, table.getFeatures(1.0).size());
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * Checks that many times can be inserted out of order and located with
+	 * the time index.
+	 * </p>
+	 */
+	@Test
+	public void checkTimeIndex() {
+
+		// Local Declarations
+		LWRDataTable table = new LWRDataTable();
+		int count = 100;
+
+		// Add the times in reverse order
+		for (int i = count - 1; i >= 0; i--) {
+			table.addData("Feature", i * 0.5, new double[] { i }, null, null,
+					null);
+		}
+
+		// Check the index of each time
+		assertEquals(count, table.getNumberOfTimeSteps());
+		for (int i = 0; i < count; i++) {
+			assertEquals(i, table.getTimeStep(i * 0.5));
+			assertEquals(i, table.getData(i * 0.5, "Feature").get(0)
+					.getValue(), 0.0);
+		}
+		assertEquals(-1, table.getTimeStep(0.25));
+
+		// Clear the table
+		table.clear();
+		assertEquals(0, table.getNumberOfTimeSteps());
+		assertEquals(0, table.getFeatureList().size());
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * Checks the equals, hashCode, copy and clone operations.
+	 * </p>
+	 */
+	@Test
+	public void checkEqualityAndCopying() {
+
+		// Local Declarations
+		LWRDataTable object = new LWRDataTable();
+		LWRDataTable equalObject = new LWRDataTable();
+		LWRDataTable unEqualObject = new LWRDataTable();
+		LWRDataTable copy = new LWRDataTable();
+		double[] values = { 1.0, 2.0 };
+
+		// Setup the objects
+		object.addData("Feature", 1.0, values, null, null, "W");
+		equalObject.addData("Feature", 1.0, values, null, null, "W");
+		unEqualObject.addData("Feature", 1.0, values, null, null, "kW");
+
+		// Check equality
+		assertTrue(object.equals(object));
+		assertTrue(object.equals(equalObject) && equalObject.equals(object));
+		assertFalse(object.equals(unEqualObject));
+		assertFalse(object.equals(null));
+		assertEquals(object.hashCode(), equalObject.hashCode());
+
+		// Check copying
+		copy.copy(object);
+		assertTrue(object.equals(copy));
+		assertTrue(object.equals(object.clone()));
+
+		// Changing the copy should not change the original
+		copy.addData("Feature", 1.0, values, null, null, "W");
+		assertFalse(object.equals(copy));
+		assertEquals(2, object.getSize(1.0, "Feature"));
+
+		return;
+	}
+}
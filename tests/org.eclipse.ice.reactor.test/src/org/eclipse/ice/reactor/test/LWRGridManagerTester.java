@@ -37,6 +37,7 @@ import org.eclipse.ice.reactor.GridLocation;
 import org.eclipse.ice.reactor.HDF5LWRTagType;
 import org.eclipse.ice.reactor.LWRComponent;
 import org.eclipse.ice.reactor.LWRData;
+import org.eclipse.ice.reactor.LWRDataProvider;
 import org.eclipse.ice.reactor.LWRGridManager;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
@@ -735,7 +736,8 @@ public class LWRGridManagerTester {
 		assertFalse(manager.writeDatasets(null, h5Group));
 		assertFalse(manager.writeDatasets(h5File, null));
 
-		// Perform a dataSet Write
+		// Perform a dataSet Write in the group layout checked below
+		manager.setHDF5LayoutVersion(LWRGridManager.HDF5_GROUP_LAYOUT);
 		assertTrue(manager.writeDatasets(h5File, h5Group));
 
 		// Close group and then reopen
@@ -1307,6 +1309,155 @@ public class LWRGridManagerTester {
 
 	}
 
+	/**
+	 * <p>
+	 * This operation checks that the data of the grid locations is written
+	 * as tables by default and that files of both layouts are read.
+	 * </p>
+	 */
+	@Test
+	public void checkHDF5TableLayout() {
+
+		// Local Declarations
+		LWRGridManager manager = new LWRGridManager(17);
+		LWRGridManager newManager = new LWRGridManager(17);
+		GridLocation location1 = new GridLocation(0, 1);
+		GridLocation location2 = new GridLocation(16, 16);
+		GridLocation location3 = new GridLocation(3, 4);
+		H5Group subGroup = null;
+
+		// Check the layout version
+		assertEquals(LWRGridManager.HDF5_TABLE_LAYOUT,
+				manager.getHDF5LayoutVersion());
+		manager.setHDF5LayoutVersion(LWRGridManager.HDF5_GROUP_LAYOUT);
+		assertEquals(LWRGridManager.HDF5_GROUP_LAYOUT,
+				manager.getHDF5LayoutVersion());
+		manager.setHDF5LayoutVersion(3);
+		assertEquals(LWRGridManager.HDF5_GROUP_LAYOUT,
+				manager.getHDF5LayoutVersion());
+		newManager.copy(manager);
+		assertEquals(LWRGridManager.HDF5_GROUP_LAYOUT,
+				newManager.getHDF5LayoutVersion());
+		manager.setHDF5LayoutVersion(LWRGridManager.HDF5_TABLE_LAYOUT);
+
+		// Setup the components. The third location has no data.
+		manager.addComponent(new LWRComponent("Rod"), location1);
+		manager.addComponent(new LWRComponent("Rod"), location2);
+		manager.addComponent(new LWRComponent("Tube"), location3);
+
+		// Add data to the first two locations
+		for (int i = 0; i < 3; i++) {
+			double[] values = new double[10];
+			double[] uncertainties = new double[10];
+			double[] positions = new double[30];
+			for (int j = 0; j < values.length; j++) {
+				values[j] = i * 10 + j;
+				uncertainties[j] = 0.1 * j;
+				positions[3 * j + 2] = j;
+			}
+			location1.getLWRDataProvider().addData("Pin Power", i, values,
+					uncertainties, positions, "W");
+			location2.getLWRDataProvider().addData("Temperature", 0.5 * i,
+					values, null, positions, "K");
+		}
+		LWRData data = new LWRData("Pin Power");
+		data.setValue(4.0);
+		data.setUnits("kW");
+		location1.getLWRDataProvider().addData(data, 1.0);
+
+		// Setup the HDF5 File
+		String separator = System.getProperty("file.separator");
+		File dataFile = new File(System.getProperty("user.dir") + separator
+				+ "test.h5");
+		URI uri = dataFile.toURI();
+		H5File h5File = HdfFileFactory.createH5File(uri);
+		try {
+			h5File.open();
+			H5Group rootH5Group = (H5Group) ((javax.swing.tree.DefaultMutableTreeNode) h5File
+					.getRootNode()).getUserObject();
+
+			// Write both layouts
+			subGroup = (H5Group) h5File.createGroup("Tables", rootH5Group);
+			assertTrue(manager.writeAttributes(h5File, subGroup));
+			assertTrue(manager.writeDatasets(h5File, subGroup));
+			manager.setHDF5LayoutVersion(LWRGridManager.HDF5_GROUP_LAYOUT);
+			subGroup = (H5Group) h5File.createGroup("Groups", rootH5Group);
+			assertTrue(manager.writeAttributes(h5File, subGroup));
+			assertTrue(manager.writeDatasets(h5File, subGroup));
+			manager.setHDF5LayoutVersion(LWRGridManager.HDF5_TABLE_LAYOUT);
+
+			// Close and reopen the file
+			h5File.close();
+			h5File.open();
+			rootH5Group = (H5Group) ((javax.swing.tree.DefaultMutableTreeNode) h5File
+					.getRootNode()).getUserObject();
+
+			// The tables replace the groups of the locations
+			subGroup = HdfReaderFactory.getChildH5Group(rootH5Group, "Tables");
+			H5Group positionsGroup = HdfReaderFactory.getChildH5Group(
+					subGroup, "Positions");
+			assertEquals(0, HdfReaderFactory.getChildH5Groups(positionsGroup)
+					.size());
+			assertEquals(LWRGridManager.HDF5_TABLE_LAYOUT, HdfReaderFactory
+					.readIntegerAttribute(positionsGroup, "layoutVersion")
+					.intValue());
+			Dataset dataset = HdfReaderFactory.getDataset(positionsGroup,
+					"Position Index");
+			dataset.init();
+			assertEquals(3, dataset.getDims()[0]);
+			assertEquals(5, dataset.getDims()[1]);
+			dataset = HdfReaderFactory.getDataset(positionsGroup,
+					"Record Values");
+			dataset.init();
+			assertEquals(61, dataset.getDims()[0]);
+			assertEquals(5, dataset.getDims()[1]);
+			dataset = HdfReaderFactory.getDataset(positionsGroup,
+					"Record Keys");
+			dataset.init();
+			assertEquals(61, dataset.getDims()[0]);
+			assertEquals(3, dataset.getDims()[1]);
+			assertEquals(3, ((String[]) HdfReaderFactory.getDataset(
+					positionsGroup, "Units Table").getData()).length);
+			assertEquals(2, ((String[]) HdfReaderFactory.getDataset(
+					positionsGroup, "Feature Names Table").getData()).length);
+			assertEquals(4, ((double[]) HdfReaderFactory.getDataset(
+					positionsGroup, "Times Table").getData()).length);
+
+			// Read the tables
+			assertTrue(newManager.readAttributes(subGroup));
+			assertTrue(newManager.readDatasets(subGroup));
+			assertTrue(manager.equals(newManager));
+			LWRDataProvider provider = newManager
+					.getDataProviderAtLocation(location1);
+			provider.setTime(1.0);
+			assertEquals(11, provider.getDataAtCurrentTime("Pin Power").size());
+			assertEquals("kW", provider.getDataAtCurrentTime("Pin Power")
+					.get(10).getUnits());
+			assertEquals(0, newManager.getDataProviderAtLocation(location3)
+					.getTimes().size());
+
+			// Read the groups of an older file
+			newManager = new LWRGridManager(17);
+			subGroup = HdfReaderFactory.getChildH5Group(rootH5Group, "Groups");
+			assertNull(HdfReaderFactory.readIntegerAttribute(
+					HdfReaderFactory.getChildH5Group(subGroup, "Positions"),
+					"layoutVersion"));
+			assertTrue(newManager.readAttributes(subGroup));
+			assertTrue(newManager.readDatasets(subGroup));
+			assertTrue(manager.equals(newManager));
+
+			// Close the h5 file!
+			h5File.close();
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail();
+		}
+
+		dataFile.delete();
+
+		return;
+	}
+
 	/**
 	 * <p>
 	 * Removes the test.h5 file after the tests fails (to keep the workspace
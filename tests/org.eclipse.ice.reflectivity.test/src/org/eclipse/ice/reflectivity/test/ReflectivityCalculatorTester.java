@@ -14,7 +14,10 @@ package org.eclipse.ice.reflectivity.test;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 
+import java.util.Random;
+
 import org.apache.commons.math.MathException;
+import org.apache.commons.math.complex.Complex;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IProjectDescription;
@@ -337,6 +340,103 @@ public class ReflectivityCalculatorTester {
 		return;
 	}
 
+	/**
+	 * This operation checks that the primitive, parallel reflectivity kernel
+	 * matches the original calculation with commons-math's Complex to within
+	 * 1e-12 for stacks of 50 and 500 slabs.
+	 */
+	@Test
+	public void testReflectivityKernel() {
+
+		// Local Declarations
+		ReflectivityCalculator calculator = new ReflectivityCalculator();
+		Random random = new Random(42);
+		double wavelength = 5.0;
+		int numPoints = 400;
+		double[] waveVector = new double[numPoints];
+
+		// Create the wave vector
+		for (int i = 0; i < numPoints; i++) {
+			waveVector[i] = 0.005 + 0.3 * i / (numPoints - 1);
+		}
+
+		for (int numTiles : new int[] { 50, 500 }) {
+			// Create a random stack of tiles
+			Tile[] tiles = new Tile[numTiles];
+			for (int i = 0; i < numTiles; i++) {
+				tiles[i] = new Tile();
+				tiles[i].scatteringLength = 1.0e-6 * random.nextDouble();
+				tiles[i].trueAbsLength = 1.0e-9 * random.nextDouble();
+				tiles[i].incAbsLength = 1.0e-9 * random.nextDouble();
+				tiles[i].thickness = 5.0 + 50.0 * random.nextDouble();
+			}
+			tiles[0].scatteringLength = 0.0;
+
+			// Compute all of the points at once and check them against the
+			// original calculation and the single point calculation
+			double[] specRefSqrd = new double[numPoints];
+			calculator.getModSqrdSpecRef(waveVector, wavelength, tiles,
+					specRefSqrd);
+			for (int i = 0; i < numPoints; i++) {
+				double expected = getComplexModSqrdSpecRef(waveVector[i],
+						wavelength, tiles);
+				assertEquals(expected, specRefSqrd[i],
+						Math.abs(expected) * 1.0e-12);
+				assertEquals(specRefSqrd[i], calculator.getModSqrdSpecRef(
+						waveVector[i], wavelength, tiles), 0.0);
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation computes the squared modulus of the specular reflectivity
+	 * with commons-math's Complex, exactly as ReflectivityCalculator did before
+	 * it was rewritten with primitives. It is the reference for
+	 * testReflectivityKernel().
+	 *
+	 * @param waveVectorQ
+	 *            the value of the wave vector
+	 * @param wavelength
+	 *            the wavelength of the incident neutrons
+	 * @param tiles
+	 *            the tiles
+	 * @return the squared modulus of the specular reflectivity
+	 */
+	private double getComplexModSqrdSpecRef(double waveVectorQ,
+			double wavelength, Tile[] tiles) {
+
+		Complex aNm1Sq, fNm1N, rNm1N = new Complex(0.0, 0.0), one = new Complex(
+				1.0, 0.0), qN, rNNp1 = new Complex(0.0, 0.0);
+		int nLayers = tiles.length;
+		Tile tile = tiles[nLayers - 1];
+		double qCSq = 16.0 * Math.PI * tile.scatteringLength;
+		double betaNm1 = 4.0 * Math.PI
+				* (tile.trueAbsLength + tile.incAbsLength / wavelength);
+		Complex qNm1 = new Complex(waveVectorQ * waveVectorQ - qCSq, -2.0
+				* betaNm1).sqrt();
+		for (int i = nLayers - 1; i > 0; i--) {
+			tile = tiles[i - 1];
+			qN = qNm1;
+			qCSq = 16.0 * Math.PI * tile.scatteringLength;
+			betaNm1 = 4.0 * Math.PI
+					* (tile.trueAbsLength + tile.incAbsLength / wavelength);
+			qNm1 = new Complex(waveVectorQ * waveVectorQ - qCSq, -2.0
+					* betaNm1).sqrt();
+			aNm1Sq = (new Complex(qNm1.getImaginary(), qNm1.getReal())
+					.multiply(-0.5 * tile.thickness)).exp();
+			fNm1N = qNm1.subtract(qN).divide(qNm1.add(qN));
+			Complex y = rNNp1.multiply(fNm1N).add(one);
+			Complex z = rNNp1.add(fNm1N);
+			rNm1N = aNm1Sq.multiply(aNm1Sq).multiply(z.divide((y)));
+			rNNp1 = rNm1N;
+		}
+
+		return rNm1N.getReal() * rNm1N.getReal() + rNm1N.getImaginary()
+				* rNm1N.getImaginary();
+	}
+
 	/**
 	 * This operation loads the set of Tiles from the reference file, ignoring
 	 * the first and second lines that store the reference values.
@@ -0,0 +1,231 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.viz.service.jme3.mesh.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.FloatBuffer;
+
+import org.eclipse.ice.viz.service.jme3.mesh.MeshBatch;
+import org.eclipse.ice.viz.service.jme3.mesh.StateType;
+import org.eclipse.ice.viz.service.mesh.datastructures.Edge;
+import org.eclipse.ice.viz.service.mesh.datastructures.Vertex;
+import org.junit.Test;
+
+import com.jme3.math.ColorRGBA;
+import com.jme3.math.Ray;
+import com.jme3.math.Vector3f;
+import com.jme3.scene.Geometry;
+import com.jme3.scene.Mesh;
+import com.jme3.scene.VertexBuffer.Type;
+
+/**
+ * This class tests the {@link MeshBatch}, which draws all of the vertices and
+ * edges of a mesh in shared buffers.
+ *
+ */
+public class MeshBatchTester {
+
+	/**
+	 * This operation creates a vertex.
+	 *
+	 * @param id
+	 *            The ID of the vertex.
+	 * @param x
+	 *            The x coordinate of the vertex.
+	 * @param y
+	 *            The y coordinate of the vertex.
+	 * @return The new vertex.
+	 */
+	private Vertex createVertex(int id, float x, float y) {
+		Vertex vertex = new Vertex(x, y, 0f);
+		vertex.setId(id);
+		return vertex;
+	}
+
+	/**
+	 * This operation gets a mesh drawn by the batch.
+	 *
+	 * @param batch
+	 *            The batch.
+	 * @param name
+	 *            The name of the Geometry, either "vertices" or "edges".
+	 * @return The mesh of the Geometry.
+	 */
+	private Mesh getMesh(MeshBatch batch, String name) {
+		return ((Geometry) batch.getNode().getChild(name)).getMesh();
+	}
+
+	/**
+	 * This operation checks that vertices and edges can be added and removed
+	 * and that only the slots in use are drawn.
+	 */
+	@Test
+	public void checkSlots() {
+
+		// Local Declarations
+		MeshBatch batch = new MeshBatch();
+		Vertex v1 = createVertex(1, 0f, 0f);
+		Vertex v2 = createVertex(2, 1f, 0f);
+		Vertex v3 = createVertex(3, 1f, 1f);
+		Edge edge = new Edge(v2, v3);
+		edge.setId(7);
+
+		// Add the vertices and an edge. Vertices with the same ID should only
+		// be added once.
+		batch.addVertex(v1);
+		batch.addVertex(v2);
+		batch.addVertex(v3);
+		batch.addVertex(createVertex(3, 5f, 5f));
+		batch.addEdge(edge);
+		assertEquals(3, batch.getVertexCount());
+		assertEquals(1, batch.getEdgeCount());
+		assertTrue(batch.hasVertex(2));
+		assertTrue(batch.hasEdge(7));
+
+		// Sync the buffers. The edge should be a line from v2 to v3.
+		batch.syncView();
+		FloatBuffer positions = (FloatBuffer) getMesh(batch, "edges")
+				.getBuffer(Type.Position).getData();
+		assertEquals(6, positions.limit());
+		assertEquals(1f, positions.get(0), 0f);
+		assertEquals(0f, positions.get(1), 0f);
+		assertEquals(1f, positions.get(3), 0f);
+		assertEquals(1f, positions.get(4), 0f);
+
+		// Remove the first vertex. The last vertex should take its slot, so
+		// the first point in the buffer should be the center of v3.
+		int limit = ((FloatBuffer) getMesh(batch, "vertices").getBuffer(
+				Type.Position).getData()).limit();
+		batch.removeVertex(1);
+		batch.removeVertex(1);
+		batch.syncView();
+		assertEquals(2, batch.getVertexCount());
+		assertFalse(batch.hasVertex(1));
+		positions = (FloatBuffer) getMesh(batch, "vertices").getBuffer(
+				Type.Position).getData();
+		assertEquals(limit * 2 / 3, positions.limit());
+		assertEquals(1f, positions.get(0), 0f);
+		assertEquals(1f, positions.get(1), 0f);
+
+		// Add enough vertices to grow the buffers.
+		for (int i = 0; i < 200; i++) {
+			batch.addVertex(createVertex(100 + i, i, 2f));
+		}
+		batch.syncView();
+		assertEquals(202, batch.getVertexCount());
+		positions = (FloatBuffer) getMesh(batch, "vertices").getBuffer(
+				Type.Position).getData();
+		assertEquals(limit / 3 * 202, positions.limit());
+
+		// Remove the edge.
+		batch.removeEdge(7);
+		batch.syncView();
+		assertEquals(0, batch.getEdgeCount());
+		positions = (FloatBuffer) getMesh(batch, "edges").getBuffer(
+				Type.Position).getData();
+		assertEquals(0, positions.limit());
+
+		return;
+	}
+
+	/**
+	 * This operation checks that the states of vertices and edges are drawn
+	 * with their colors and that the states move with their vertices.
+	 */
+	@Test
+	public void checkStates() {
+
+		// Local Declarations
+		MeshBatch batch = new MeshBatch();
+		ColorRGBA selected = StateType.Selected.getColor();
+		ColorRGBA none = StateType.None.getColor();
+
+		batch.addVertex(createVertex(1, 0f, 0f));
+		batch.addVertex(createVertex(2, 1f, 0f));
+		batch.setVertexState(2, StateType.Selected);
+		batch.setVertexState(3, StateType.Selected);
+		assertEquals(StateType.None, batch.getVertexState(1));
+		assertEquals(StateType.Selected, batch.getVertexState(2));
+		assertNull(batch.getVertexState(3));
+
+		// The second vertex's points should be the selected color.
+		batch.syncView();
+		FloatBuffer colors = (FloatBuffer) getMesh(batch, "vertices")
+				.getBuffer(Type.Color).getData();
+		int pointsPerVertex = colors.limit() / 8;
+		assertEquals(none.g, colors.get(1), 0f);
+		assertEquals(selected.g, colors.get(pointsPerVertex * 4 + 1), 0f);
+
+		// Remove the first vertex. The selected vertex should move into its
+		// slot and keep its color.
+		batch.removeVertex(1);
+		batch.syncView();
+		assertEquals(StateType.Selected, batch.getVertexState(2));
+		assertEquals(selected.g, colors.get(1), 0f);
+
+		return;
+	}
+
+	/**
+	 * This operation checks that vertices are picked with the spatial index
+	 * and that the index follows moved vertices and the scale.
+	 */
+	@Test
+	public void checkPicking() {
+
+		// Local Declarations
+		MeshBatch batch = new MeshBatch();
+		Vertex v1 = createVertex(1, 0f, 0f);
+		Vertex v2 = createVertex(2, 1f, 0f);
+		Vector3f down = new Vector3f(0f, 0f, -1f);
+
+		batch.addVertex(v1);
+		batch.addVertex(v2);
+
+		// Rays pointing down at or near the vertices should pick them.
+		assertSame(v1, batch.pickVertex(new Ray(new Vector3f(0.05f, 0.05f,
+				10f), down)));
+		assertSame(v2, batch.pickVertex(new Ray(new Vector3f(0.9f, 0f, 10f),
+				down)));
+		assertNull(batch.pickVertex(new Ray(new Vector3f(0.5f, 0f, 10f), down)));
+		// Rays pointing away from the plane hit nothing.
+		assertNull(batch.pickVertex(new Ray(new Vector3f(0f, 0f, 10f),
+				new Vector3f(0f, 0f, 1f))));
+
+		// Move the first vertex. The batch is notified on another thread, so
+		// pass the update along directly.
+		v1.setLocation(5f, 5f, 0f);
+		batch.update(v1);
+		assertNull(batch.pickVertex(new Ray(new Vector3f(0f, 0f, 10f), down)));
+		assertSame(v1, batch.pickVertex(new Ray(new Vector3f(5f, 5f, 10f),
+				down)));
+
+		// With a scale of 2, the second vertex is at 0.5 in world units.
+		batch.setScale(2f);
+		assertSame(v2, batch.pickVertex(new Ray(new Vector3f(0.5f, 0f, 10f),
+				down)));
+		assertNull(batch.pickVertex(new Ray(new Vector3f(1f, 0f, 10f), down)));
+
+		// Removed vertices cannot be picked.
+		batch.removeVertex(2);
+		assertNull(batch.pickVertex(new Ray(new Vector3f(0.5f, 0f, 10f),
+				down)));
+
+		return;
+	}
+}
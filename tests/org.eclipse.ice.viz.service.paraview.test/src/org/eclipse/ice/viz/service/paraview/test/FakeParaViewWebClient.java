@@ -30,6 +30,7 @@ import javax.xml.bind.DatatypeConverter;
 import org.eclipse.ice.viz.service.paraview.proxy.ProxyProperty.PropertyType;
 import org.eclipse.ice.viz.service.paraview.proxy.test.FakeProxyFeature;
 import org.eclipse.ice.viz.service.paraview.web.IParaViewWebClient;
+import org.eclipse.ice.viz.service.paraview.web.ParaViewImage;
 
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
@@ -203,39 +204,65 @@ public class FakeParaViewWebClient implements IParaViewWebClient {
 		return requestExecutor.submit(new Callable<JsonObject>() {
 			@Override
 			public JsonObject call() throws Exception {
-				// Return an object containing a blank image.
-				JsonObject object = new JsonObject();
+				return createRenderResponse(viewId);
+			}
+		});
+	}
+
+	/**
+	 * Returns the same 1x1 blank JPEG image as
+	 * {@link #render(int, int, int, int)}, decoded.
+	 */
+	@Override
+	public Future<ParaViewImage> renderImage(final int viewId, int quality,
+			int width, int height) {
+		return requestExecutor.submit(new Callable<ParaViewImage>() {
+			@Override
+			public ParaViewImage call() throws Exception {
+				JsonObject object = createRenderResponse(viewId);
+				byte[] data = DatatypeConverter.parseBase64Binary(object
+						.remove("image").getAsString());
+				return new ParaViewImage(data, object);
+			}
+		});
+	}
 
-				// Create a 1x1 empty JPEG image.
-				BufferedImage img = new BufferedImage(1, 1,
-						BufferedImage.TYPE_3BYTE_BGR);
-				img.setRGB(0, 0, 0);
-				// Convert that to a byte array.
-				ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-				ImageIO.write(img, "jpg", outputStream);
-				byte[] bytes = outputStream.toByteArray();
-				// Convert that to an encoded String.
-				String base64Image = null;
-				base64Image = DatatypeConverter.printBase64Binary(bytes);
+	/**
+	 * Creates the response to a render request, which holds a 1x1 blank JPEG
+	 * image.
+	 */
+	private JsonObject createRenderResponse(int viewId) throws Exception {
+		// Return an object containing a blank image.
+		JsonObject object = new JsonObject();
 
-				// Create a JsonArray for the size of the image.
-				JsonArray size = new JsonArray();
-				size.add(new JsonPrimitive(1));
-				size.add(new JsonPrimitive(1));
+		// Create a 1x1 empty JPEG image.
+		BufferedImage img = new BufferedImage(1, 1,
+				BufferedImage.TYPE_3BYTE_BGR);
+		img.setRGB(0, 0, 0);
+		// Convert that to a byte array.
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		ImageIO.write(img, "jpg", outputStream);
+		byte[] bytes = outputStream.toByteArray();
+		// Convert that to an encoded String.
+		String base64Image = null;
+		base64Image = DatatypeConverter.printBase64Binary(bytes);
 
-				// Fill out the expected response for viewport.image.render.
-				object.add("image", new JsonPrimitive(base64Image));
-				object.add("stale", new JsonPrimitive(false));
-				object.add("mtime", new JsonPrimitive(0));
-				object.add("size", size);
-				object.add("format", new JsonPrimitive("jpeg;base64"));
-				object.add("global_id", new JsonPrimitive(viewId));
-				object.add("localTime", new JsonPrimitive(0));
-				object.add("workTime", new JsonPrimitive(0));
+		// Create a JsonArray for the size of the image.
+		JsonArray size = new JsonArray();
+		size.add(new JsonPrimitive(1));
+		size.add(new JsonPrimitive(1));
 
-				return object;
-			}
-		});
+		// Fill out the expected response for viewport.image.render.
+		object.add("image", new JsonPrimitive(base64Image));
+		object.add("stale", new JsonPrimitive(false));
+		object.add("mtime", new JsonPrimitive(0));
+		object.add("size", size);
+		object.add("format", new JsonPrimitive("jpeg;base64"));
+		object.add("global_id", new JsonPrimitive(viewId));
+		object.add("localTime", new JsonPrimitive(0));
+		object.add("workTime", new JsonPrimitive(0));
+
+		return object;
 	}
 
 	/**
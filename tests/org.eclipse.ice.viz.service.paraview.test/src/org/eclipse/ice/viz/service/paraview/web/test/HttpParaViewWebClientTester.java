@@ -0,0 +1,483 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.viz.service.paraview.web.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.xml.bind.DatatypeConverter;
+
+import org.eclipse.ice.viz.service.paraview.web.HttpParaViewWebClient;
+import org.eclipse.ice.viz.service.paraview.web.ParaViewImage;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * This class tests {@link HttpParaViewWebClient} against a stub ParaView web
+ * server that runs on the local machine.
+ *
+ */
+public class HttpParaViewWebClientTester {
+
+	/**
+	 * The charset of the requests and responses.
+	 */
+	private static final Charset charset = Charset.forName("UTF-8");
+
+	/**
+	 * The state of the mouse buttons and keys for a left button drag.
+	 */
+	private static final boolean[] leftButton = { true, false, false, false,
+			false, false, false };
+
+	/**
+	 * The stub server used in each test.
+	 */
+	private StubServer server;
+
+	/**
+	 * The client used in each test.
+	 */
+	private HttpParaViewWebClient client;
+
+	/**
+	 * This class is a small HTTP/1.1 server that keeps connections alive and
+	 * answers requests the way that a ParaView web server does.
+	 */
+	private static class StubServer implements Runnable {
+
+		/**
+		 * The socket that accepts connections.
+		 */
+		private final ServerSocket serverSocket;
+
+		/**
+		 * The number of connections that have been accepted.
+		 */
+		private final AtomicInteger connectionCount = new AtomicInteger();
+
+		/**
+		 * The method and content of every POST request, in order.
+		 */
+		private final List<String> methods = new ArrayList<String>();
+		private final List<JsonObject> contents = new ArrayList<JsonObject>();
+
+		/**
+		 * Released once for every POST request that is received.
+		 */
+		private final Semaphore received = new Semaphore(0);
+
+		/**
+		 * The latch that responses wait for. It is open by default.
+		 */
+		private volatile CountDownLatch gate = new CountDownLatch(0);
+
+		/**
+		 * The image that is sent in response to render requests.
+		 */
+		private volatile byte[] image = new byte[0];
+
+		/**
+		 * The constructor. The server starts accepting connections right
+		 * away.
+		 *
+		 * @throws IOException
+		 */
+		public StubServer() throws IOException {
+			serverSocket = new ServerSocket(0, 50,
+					InetAddress.getByName("127.0.0.1"));
+			Thread thread = new Thread(this);
+			thread.setDaemon(true);
+			thread.start();
+		}
+
+		/**
+		 * Gets the URL of the server.
+		 *
+		 * @return The URL, ending with a slash.
+		 */
+		public String getURL() {
+			return "http://127.0.0.1:" + serverSocket.getLocalPort() + "/";
+		}
+
+		/**
+		 * Waits for the server to receive a POST request.
+		 *
+		 * @throws InterruptedException
+		 */
+		public void awaitRequest() throws InterruptedException {
+			assertTrue(received.tryAcquire(10, TimeUnit.SECONDS));
+		}
+
+		/**
+		 * Stops the server.
+		 *
+		 * @throws IOException
+		 */
+		public void close() throws IOException {
+			gate.countDown();
+			serverSocket.close();
+		}
+
+		/*
+		 * Implements a method from Runnable.
+		 */
+		@Override
+		public void run() {
+			try {
+				while (true) {
+					final Socket socket = serverSocket.accept();
+					connectionCount.incrementAndGet();
+					Thread thread = new Thread(new Runnable() {
+						@Override
+						public void run() {
+							try {
+								serve(socket);
+							} catch (Exception e) {
+								// The connection was closed.
+							}
+						}
+					});
+					thread.setDaemon(true);
+					thread.start();
+				}
+			} catch (IOException e) {
+				// The server was closed.
+			}
+		}
+
+		/**
+		 * Answers the requests sent on a connection until it is closed.
+		 *
+		 * @param socket
+		 *            The connection.
+		 * @throws Exception
+		 */
+		private void serve(Socket socket) throws Exception {
+
+			// Local Declarations
+			InputStream input = new BufferedInputStream(socket.getInputStream());
+			OutputStream output = socket.getOutputStream();
+			String line;
+
+			try {
+				while ((line = readLine(input)) != null) {
+					// Read the request line and the headers
+					String[] request = line.split(" ");
+					int length = 0;
+					while ((line = readLine(input)) != null && !line.isEmpty()) {
+						if (line.toLowerCase().startsWith("content-length:")) {
+							length = Integer.parseInt(line.substring(15).trim());
+						}
+					}
+					byte[] body = new byte[length];
+					for (int i = 0; i < length;) {
+						i += input.read(body, i, length - i);
+					}
+
+					// Record POST requests
+					String method = request[1].substring(1);
+					String response = "";
+					if ("POST".equals(request[0])) {
+						JsonObject content = new JsonParser().parse(
+								new String(body, charset)).getAsJsonObject();
+						synchronized (methods) {
+							methods.add(method);
+							contents.add(content);
+						}
+						response = createResponse(method);
+						received.release();
+					}
+					gate.await();
+
+					// Send the response
+					byte[] responseBytes = response.getBytes(charset);
+					output.write(("HTTP/1.1 200 OK\r\n"
+							+ "Content-Type: application/json\r\n"
+							+ "Content-Length: " + responseBytes.length
+							+ "\r\n\r\n").getBytes(charset));
+					output.write(responseBytes);
+					output.flush();
+				}
+			} finally {
+				socket.close();
+			}
+		}
+
+		/**
+		 * Creates the response to a request. The image in render responses has
+		 * escaped slashes and escaped line breaks, which some JSON encoders
+		 * write.
+		 *
+		 * @param method
+		 *            The requested method.
+		 * @return The response.
+		 */
+		private String createResponse(String method) {
+			if ("viewport.image.render".equals(method)) {
+				String base64 = DatatypeConverter.printBase64Binary(image);
+				StringBuilder escaped = new StringBuilder();
+				for (int i = 0; i < base64.length(); i++) {
+					if (i > 0 && i % 76 == 0) {
+						escaped.append("\\n");
+					}
+					escaped.append(base64.charAt(i) == '/' ? "\\/" : base64
+							.charAt(i));
+				}
+				return "{\"stale\": true, \"size\": [4, 3], \"image\": \""
+						+ escaped + "\", \"format\": \"jpeg;base64\"}";
+			}
+			return "{\"success\": true}";
+		}
+
+		/**
+		 * Reads a line of the request.
+		 *
+		 * @param input
+		 *            The connection's stream.
+		 * @return The line without its line terminator, or null at the end of
+		 *         the stream.
+		 * @throws IOException
+		 */
+		private String readLine(InputStream input) throws IOException {
+			ByteArrayOutputStream line = new ByteArrayOutputStream();
+			int currByte;
+			while ((currByte = input.read()) != '\n') {
+				if (currByte < 0) {
+					return null;
+				} else if (currByte != '\r') {
+					line.write(currByte);
+				}
+			}
+			return new String(line.toByteArray(), charset);
+		}
+
+		/**
+		 * Gets the actions of the mouse events that have been received.
+		 *
+		 * @return The actions, in order.
+		 */
+		public List<String> getActions() {
+			List<String> actions = new ArrayList<String>();
+			synchronized (methods) {
+				for (int i = 0; i < methods.size(); i++) {
+					if ("viewport.mouse.interaction".equals(methods.get(i))) {
+						actions.add(getArgument(i).get("action").getAsString());
+					}
+				}
+			}
+			return actions;
+		}
+
+		/**
+		 * Gets the argument of a request that has been received.
+		 *
+		 * @param index
+		 *            The index of the request.
+		 * @return The first argument of the request.
+		 */
+		public JsonObject getArgument(int index) {
+			synchronized (methods) {
+				return contents.get(index).getAsJsonArray("args").get(0)
+						.getAsJsonObject();
+			}
+		}
+	}
+
+	/**
+	 * Starts the server and connects the client to it.
+	 *
+	 * @throws Exception
+	 */
+	@Before
+	public void beforeEachTest() throws Exception {
+		server = new StubServer();
+		client = new HttpParaViewWebClient();
+		assertTrue(client.connect(server.getURL()).get());
+	}
+
+	/**
+	 * Disconnects the client and stops the server.
+	 *
+	 * @throws Exception
+	 */
+	@After
+	public void afterEachTest() throws Exception {
+		client.disconnect();
+		server.close();
+	}
+
+	/**
+	 * This operation checks that requests share one connection and that their
+	 * round trip times are measured.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void checkKeepAlive() throws Exception {
+
+		// Send several requests, one at a time
+		for (int i = 0; i < 10; i++) {
+			JsonObject response = client.call("test.method", new JsonArray())
+					.get();
+			assertTrue(response.get("success").getAsBoolean());
+		}
+
+		// The connection made by connect() should have been reused
+		assertEquals(1, server.connectionCount.get());
+		assertEquals(10, client.getRequestCount());
+		assertTrue(client.getAverageRoundTripTime() > 0.0);
+		assertTrue(client.getLastRoundTripTime() > 0.0);
+
+		return;
+	}
+
+	/**
+	 * This operation checks that images are decoded from render responses.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void checkRenderImage() throws Exception {
+
+		// Send an image larger than the reader's buffer
+		byte[] image = new byte[200000];
+		new Random(7).nextBytes(image);
+		server.image = image;
+
+		// The image should be decoded and the other properties kept
+		ParaViewImage response = client.renderImage(1, 100, 4, 3).get();
+		assertArrayEquals(image, response.getData());
+		assertTrue(response.isStale());
+		assertEquals(3, response.getProperties().getAsJsonArray("size").get(1)
+				.getAsInt());
+		assertEquals("jpeg;base64", response.getProperties().get("format")
+				.getAsString());
+
+		// The request should be the same as a regular render request
+		JsonObject argument = server.getArgument(0);
+		assertEquals(1, argument.get("view").getAsInt());
+		assertEquals(4, argument.getAsJsonArray("size").get(0).getAsInt());
+
+		// A regular render request should still return the String
+		JsonObject jsonResponse = client.render(1, 100, 4, 3).get();
+		assertNotNull(jsonResponse.get("image"));
+		assertTrue(jsonResponse.get("stale").getAsBoolean());
+
+		return;
+	}
+
+	/**
+	 * This operation checks that move events that wait behind another request
+	 * are merged into the newest move.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void checkCoalescedEvents() throws Exception {
+
+		// Local Declarations
+		List<Future<JsonObject>> moves = new ArrayList<Future<JsonObject>>();
+
+		// Hold the responses until all of the events have been made
+		server.gate = new CountDownLatch(1);
+		client.event(1, 0.0, 0.0, "down", leftButton);
+		server.awaitRequest();
+		for (int i = 0; i < 50; i++) {
+			moves.add(client.event(1, i / 50.0, 0.5, "move", leftButton));
+		}
+		Future<JsonObject> up = client.event(1, 1.0, 0.5, "up", leftButton);
+		server.gate.countDown();
+		assertNotNull(up.get());
+
+		// Only the last move should have been sent
+		List<String> actions = server.getActions();
+		assertEquals(3, actions.size());
+		assertEquals("down", actions.get(0));
+		assertEquals("move", actions.get(1));
+		assertEquals("up", actions.get(2));
+		assertEquals(49 / 50.0, server.getArgument(1).get("x").getAsDouble(),
+				0.0);
+		assertEquals(49, client.getCoalescedEventCount());
+
+		// Every move should have the response of the merged move
+		for (Future<JsonObject> move : moves) {
+			assertSame(moves.get(0), move);
+			assertNotNull(move.get());
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation checks that a waiting render request is replaced by a
+	 * newer one and that the newer one is sent after the requests before it.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void checkDroppedFrames() throws Exception {
+
+		// Hold the first render so that the others have to wait
+		server.gate = new CountDownLatch(1);
+		Future<JsonObject> first = client.render(1, 100, 10, 10);
+		server.awaitRequest();
+		Future<JsonObject> dropped = client.render(1, 100, 20, 20);
+		Future<JsonObject> event = client.event(1, 0.5, 0.5, "down",
+				leftButton);
+		Future<JsonObject> last = client.render(1, 100, 30, 30);
+		server.gate.countDown();
+
+		// The dropped frame should get the last frame
+		assertSame(dropped, last);
+		assertNotNull(first.get());
+		assertNotNull(event.get());
+		assertNotNull(last.get());
+		assertEquals(1, client.getDroppedFrameCount());
+
+		// The last render should have been sent after the event
+		assertEquals(3, server.methods.size());
+		assertEquals("viewport.mouse.interaction", server.methods.get(1));
+		assertEquals("viewport.image.render", server.methods.get(2));
+		assertEquals(30, server.getArgument(2).getAsJsonArray("size").get(0)
+				.getAsInt());
+
+		return;
+	}
+}
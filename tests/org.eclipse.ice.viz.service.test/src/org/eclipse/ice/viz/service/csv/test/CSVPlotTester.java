@@ -14,12 +14,14 @@ package org.eclipse.ice.viz.service.csv.test;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.List;
 
 import org.eclipse.ice.viz.service.IPlot;
 import org.eclipse.ice.viz.service.ISeries;
 import org.eclipse.ice.viz.service.csv.CSVPlot;
+import org.eclipse.ice.viz.service.csv.CSVSeries;
 import org.eclipse.ice.viz.service.test.FakePlotListener;
 import org.eclipse.swt.widgets.Shell;
 import org.eclipse.swtbot.eclipse.gef.finder.SWTBotGefTestCase;
@@ -276,6 +278,95 @@ public class CSVPlotTester extends SWTBotGefTestCase {
 		return;
 	}
 
+	/**
+	 * Checks that a followed file only has its appended rows read and that
+	 * the rows of unfinished lines are replaced once they are complete.
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void checkFollowing() throws IOException {
+
+		// Local Declarations
+		File followedFile = File.createTempFile("CSVPlotFollow", ".csv");
+		CSVPlot followedPlot = new CSVPlot();
+		FakePlotListener listener = new FakePlotListener();
+		CSVSeries time;
+		ISeries series;
+
+		try {
+			// Write the header, a row and part of another row
+			appendToFile(followedFile, "t, p # comment\n1.0,2.0\n2.0,");
+
+			// Load the file while following it
+			assertFalse(followedPlot.isFollowing());
+			followedPlot.setFollowing(true);
+			assertTrue(followedPlot.isFollowing());
+			followedPlot.addPlotListener(listener);
+			followedPlot.setDataSource(followedFile.toURI());
+			assertTrue(listener.wasNotified(2000));
+			time = (CSVSeries) followedPlot.getIndependentSeries();
+			series = followedPlot.getDependentSeries(IPlot.DEFAULT_CATEGORY)
+					.get(0);
+			assertEquals("t", time.getLabel());
+			assertEquals("p", series.getLabel());
+			assertEquals(2, time.size());
+			assertEquals(2, series.getDataPoints().length);
+			// The unfinished row is missing its value for now
+			assertTrue(Double.isNaN((double) series.getDataPoints()[1]));
+
+			// Finish the row and add more. The same series are appended to.
+			appendToFile(followedFile, "4.0\n# comment\n3.0,6.0\n4.0\n");
+			listener.reset();
+			followedPlot.redraw();
+			assertTrue(listener.wasNotified(2000));
+			assertSame(time, followedPlot.getIndependentSeries());
+			assertEquals(4, time.size());
+			assertEquals(4.0, time.getDouble(3), 1e-7);
+			Object[] data = series.getDataPoints();
+			assertEquals(4, data.length);
+			assertEquals(4.0, (double) data[1], 1e-7);
+			assertEquals(6.0, (double) data[2], 1e-7);
+			// Missing values are not numbers
+			assertTrue(Double.isNaN((double) data[3]));
+
+			// A file that becomes shorter is read again
+			followedFile.delete();
+			appendToFile(followedFile, "x,y\n5.0,7.0\n");
+			listener.reset();
+			followedPlot.redraw();
+			assertTrue(listener.wasNotified(2000));
+			time = (CSVSeries) followedPlot.getIndependentSeries();
+			assertEquals("x", time.getLabel());
+			assertEquals(1, time.size());
+			assertEquals(5.0, time.getDouble(0), 1e-7);
+		} catch (Exception e) {
+			fail("CSVPlot error: Exception while following the file.");
+		} finally {
+			followedFile.delete();
+		}
+
+		return;
+	}
+
+	/**
+	 * Appends text to a file.
+	 * 
+	 * @param file
+	 *            The file to append to. It is created if it does not exist.
+	 * @param text
+	 *            The text to append.
+	 * @throws IOException
+	 */
+	private void appendToFile(File file, String text) throws IOException {
+		FileWriter writer = new FileWriter(file, true);
+		try {
+			writer.write(text);
+		} finally {
+			writer.close();
+		}
+	}
+
 	/**
 	 * Checks that the number of axes remains unchanged after loading.
 	 */
@@ -118,6 +118,43 @@ public class CSVSeriesTest {
 
 	}
 
+	@Test
+	public void testPrimitiveValues() {
+		// Add enough values to grow the series several times
+		CSVSeries series = new CSVSeries();
+		for (int i = 0; i < 100; i++) {
+			series.add((double) i);
+		}
+		series.addAll(new double[] { -1.0, 100.0, 101.0, -2.0 }, 1, 2);
+		assertEquals(102, series.size());
+		assertTrue(100.0 == series.getDouble(100));
+		assertTrue(101.0 == series.get(101));
+
+		// The primitive array is a copy of the values
+		double[] values = series.toDoubleArray();
+		assertEquals(102, values.length);
+		values[0] = 50.0;
+		assertTrue(0.0 == series.getDouble(0));
+
+		// The list operations change the primitive values
+		series.set(0, 3.0);
+		series.add(0, -5.0);
+		series.remove(2);
+		assertEquals(102, series.size());
+		assertTrue(-5.0 == series.getDouble(0));
+		assertTrue(3.0 == series.getDouble(1));
+		assertTrue(2.0 == series.getDouble(2));
+		double[] bounds = series.getBounds();
+		assertTrue(-5.0 == bounds[0]);
+		assertTrue(106.0 == bounds[1]);
+
+		// Clearing the series removes every value
+		series.clear();
+		assertEquals(0, series.size());
+		assertEquals(0, series.toDoubleArray().length);
+		assertNull(series.getBounds());
+	}
+
 	@Test
 	public void testGetParentSeries() {
 		// Create some new series to test
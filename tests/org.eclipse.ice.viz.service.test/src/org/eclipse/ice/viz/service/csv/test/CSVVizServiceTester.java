@@ -13,10 +13,13 @@ package org.eclipse.ice.viz.service.csv.test;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
@@ -24,9 +27,11 @@ import java.util.List;
 
 import org.eclipse.ice.viz.service.IPlot;
 import org.eclipse.ice.viz.service.IVizService;
+import org.eclipse.ice.viz.service.ISeries;
 import org.eclipse.ice.viz.service.csv.CSVPlot;
 import org.eclipse.ice.viz.service.csv.CSVProxyPlot;
 import org.eclipse.ice.viz.service.csv.CSVVizService;
+import org.eclipse.ice.viz.service.test.FakePlotListener;
 import org.junit.Test;
 
 /**
@@ -117,6 +122,77 @@ public class CSVVizServiceTester {
 		return;
 	}
 
+	/**
+	 * Checks that the plots created by the service follow their files, so
+	 * that refreshing a plot of a growing file only appends the new rows.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void checkFollowing() throws Exception {
+
+		// Local Declarations
+		File file = File.createTempFile("CSVVizServiceFollow", ".csv");
+		final List<CSVPlot> dataPlots = new ArrayList<CSVPlot>();
+		FakePlotListener listener = new FakePlotListener();
+		IPlot plot;
+		ISeries time;
+
+		// Record the plot that reads the file
+		IVizService service = new CSVVizService() {
+			@Override
+			protected CSVPlot createDataPlot(URI file) throws Exception {
+				CSVPlot dataPlot = super.createDataPlot(file);
+				dataPlots.add(dataPlot);
+				return dataPlot;
+			}
+		};
+
+		try {
+			// Plot a file with two rows
+			appendToFile(file, "t,p\n1.0,1.0\n2.0,4.0\n");
+			plot = service.createPlot(file.toURI());
+			assertEquals(1, dataPlots.size());
+			assertTrue(dataPlots.get(0).isFollowing());
+			dataPlots.get(0).addPlotListener(listener);
+			assertTrue(listener.wasNotified(2000)
+					|| dataPlots.get(0).isLoaded());
+			time = dataPlots.get(0).getIndependentSeries();
+			assertEquals(2, time.getDataPoints().length);
+
+			// Refreshing the plot appends the new row to the same series
+			appendToFile(file, "3.0,9.0\n");
+			listener.reset();
+			plot.redraw();
+			assertTrue(listener.wasNotified(2000));
+			assertSame(time, dataPlots.get(0).getIndependentSeries());
+			assertEquals(3, time.getDataPoints().length);
+			assertEquals(3.0, (double) time.getDataPoints()[2], 1e-7);
+		} finally {
+			file.delete();
+		}
+
+		return;
+	}
+
+	/**
+	 * Appends text to a file.
+	 * 
+	 * @param file
+	 *            The file to append to.
+	 * @param text
+	 *            The text to append.
+	 * @throws IOException
+	 */
+	private void appendToFile(File file, String text) throws IOException {
+		FileWriter writer = new FileWriter(file, true);
+		try {
+			writer.write(text);
+		} finally {
+			writer.close();
+		}
+	}
+
 	/**
 	 * Checks that the CSVVizService supports the correct file extensions.
 	 */
@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.viz.service.csv.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.eclipse.ice.viz.service.csv.MinMaxDownsampler;
+import org.junit.Test;
+
+/**
+ * This class tests the MinMaxDownsampler.
+ *
+ */
+public class MinMaxDownsamplerTester {
+
+	/**
+	 * This operation checks that small series are not downsampled.
+	 */
+	@Test
+	public void checkSmallSeries() {
+		double[] values = { 1.0, 5.0, 2.0, 8.0, 3.0 };
+		assertArrayEquals(new int[] { 0, 1, 2, 3, 4 },
+				MinMaxDownsampler.getIndices(values, 5, 10));
+		assertArrayEquals(new int[] { 0, 1, 2 },
+				MinMaxDownsampler.getIndices(values, 3, 4));
+		assertEquals(0, MinMaxDownsampler.getIndices(values, 0, 4).length);
+	}
+
+	/**
+	 * This operation checks that large series are bounded and keep their
+	 * extremes.
+	 */
+	@Test
+	public void checkLargeSeries() {
+
+		// Local Declarations
+		int size = 1000000, maxPoints = 1000;
+		double[] values = new double[size];
+		int[] indices;
+
+		// A sine wave with two spikes
+		for (int i = 0; i < size; i++) {
+			values[i] = Math.sin(i * 0.001);
+		}
+		values[123456] = 50.0;
+		values[654321] = -50.0;
+
+		indices = MinMaxDownsampler.getIndices(values, size, maxPoints);
+		assertTrue(indices.length <= maxPoints);
+		assertEquals(0, indices[0]);
+		assertEquals(size - 1, indices[indices.length - 1]);
+		boolean hasMax = false, hasMin = false;
+		for (int i = 0; i < indices.length; i++) {
+			if (i > 0) {
+				assertTrue(indices[i] > indices[i - 1]);
+			}
+			hasMax |= (indices[i] == 123456);
+			hasMin |= (indices[i] == 654321);
+		}
+		assertTrue(hasMax);
+		assertTrue(hasMin);
+
+		// Buckets of NaNs still have a point
+		values = new double[] { 0.0, Double.NaN, Double.NaN, 1.0, 2.0,
+				Double.NaN, 3.0 };
+		assertArrayEquals(new int[] { 0, 1, 3, 4, 6 },
+				MinMaxDownsampler.getIndices(values, 7, 6));
+
+		// Too few points cannot be kept
+		try {
+			MinMaxDownsampler.getIndices(values, 7, 3);
+			fail("At least four points should be required.");
+		} catch (IllegalArgumentException e) {
+			// Expected
+		}
+	}
+}